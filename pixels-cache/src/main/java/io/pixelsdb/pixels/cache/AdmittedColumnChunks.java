@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.cache;
+
+import io.etcd.jetcd.ByteSequence;
+import io.etcd.jetcd.KeyValue;
+import io.etcd.jetcd.Watch;
+import io.etcd.jetcd.options.WatchOption;
+import io.etcd.jetcd.watch.WatchEvent;
+import io.pixelsdb.pixels.common.utils.Constants;
+import io.pixelsdb.pixels.common.utils.EtcdUtil;
+import io.pixelsdb.pixels.common.utils.ShutdownHookManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The column chunks admitted into pixels-cache by the cache coordinator, as seen by the readers in this process.
+ * The cache coordinator publishes the admitted column chunks of a layout version as cache_order_[version] in etcd,
+ * and the cache workers load exactly these column chunks. Readers check the same set to decide which column chunks
+ * to read from the cache, so that the admitted column chunks beyond the cache border of the layout are hit and the
+ * evicted ones are not looked up in vain.
+ * <p/>
+ * The admitted column chunks are loaded from etcd when a version is first used and kept up to date by watching
+ * the cache_order_ prefix. If no column chunk is admitted for a version, the cache order of the layout is used.
+ *
+ * @create 2026-10-17
+ */
+public class AdmittedColumnChunks
+{
+    private static final Logger logger = LogManager.getLogger(AdmittedColumnChunks.class);
+    private static final AdmittedColumnChunks instance = new AdmittedColumnChunks(
+            new PixelsCacheConfig().isAdmissionEnabled());
+    /**
+     * The number of layout versions whose admitted column chunks are kept in this process.
+     */
+    private static final int MAX_CACHED_VERSIONS = 4;
+
+    public static AdmittedColumnChunks Instance()
+    {
+        return instance;
+    }
+
+    private final boolean enabled;
+    /**
+     * layout version -> the admitted column chunks, the referenced set is null if no column chunk is admitted.
+     */
+    private final Map<Integer, AtomicReference<Set<String>>> admitted = new ConcurrentHashMap<>();
+    private final AtomicBoolean watcherStarted = new AtomicBoolean(false);
+
+    private AdmittedColumnChunks(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return true if the column chunks are admitted into pixels-cache by their accesses
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Get the column chunks to read from the cache, for a cache filled at the given layout version.
+     * @param version the layout version of the cache content
+     * @param layoutCacheOrder the column chunks before the cache border in the column chunk order of the layout
+     * @return the column chunks (rowGroupId:columnId) to read from the cache, the returned set reflects the
+     * later changes of the admitted column chunks
+     */
+    public Set<String> getCacheOrder(int version, Set<String> layoutCacheOrder)
+    {
+        requireNonNull(layoutCacheOrder, "layoutCacheOrder is null");
+        if (!this.enabled)
+        {
+            return layoutCacheOrder;
+        }
+        if (this.watcherStarted.compareAndSet(false, true))
+        {
+            // start watching before loading, so that no update is missed after loading
+            startWatcher();
+        }
+        AtomicReference<Set<String>> columnChunks = this.admitted.computeIfAbsent(version, key ->
+                new AtomicReference<>(parse(EtcdUtil.Instance().getKeyValue(Constants.CACHE_ORDER_LITERAL + key))));
+        if (this.admitted.size() > MAX_CACHED_VERSIONS)
+        {
+            // the readers of the evicted versions keep their sets, which are just not updated any more
+            this.admitted.keySet().stream().min(Integer::compare).ifPresent(this.admitted::remove);
+        }
+        return new CacheOrder(columnChunks, layoutCacheOrder);
+    }
+
+    private static Set<String> parse(KeyValue keyValue)
+    {
+        if (keyValue == null)
+        {
+            return null;
+        }
+        String value = keyValue.getValue().toString(StandardCharsets.UTF_8);
+        return value.isEmpty() ? null : new HashSet<>(Arrays.asList(value.split(";")));
+    }
+
+    private void startWatcher()
+    {
+        ByteSequence prefix = ByteSequence.from(Constants.CACHE_ORDER_LITERAL, StandardCharsets.UTF_8);
+        Watch.Watcher watcher = EtcdUtil.Instance().getWatchClient().watch(prefix,
+                WatchOption.newBuilder().withPrefix(prefix).build(), watchResponse ->
+                {
+                    for (WatchEvent event : watchResponse.getEvents())
+                    {
+                        String key = event.getKeyValue().getKey().toString(StandardCharsets.UTF_8);
+                        int version;
+                        try
+                        {
+                            version = Integer.parseInt(key.substring(Constants.CACHE_ORDER_LITERAL.length()));
+                        }
+                        catch (NumberFormatException e)
+                        {
+                            logger.warn("invalid key of the admitted column chunks: " + key);
+                            continue;
+                        }
+                        AtomicReference<Set<String>> columnChunks = this.admitted.get(version);
+                        if (columnChunks != null)
+                        {
+                            columnChunks.set(event.getEventType() == WatchEvent.EventType.PUT ?
+                                    parse(event.getKeyValue()) : null);
+                            logger.debug("admitted column chunks of version {} are updated", version);
+                        }
+                    }
+                });
+        ShutdownHookManager.Instance().registerShutdownHook(AdmittedColumnChunks.class, false, watcher::close);
+    }
+
+    /**
+     * The live view of the admitted column chunks of a layout version, which falls back to the cache order
+     * of the layout if no column chunk is admitted.
+     */
+    private static class CacheOrder extends AbstractSet<String>
+    {
+        private final AtomicReference<Set<String>> admitted;
+        private final Set<String> layoutCacheOrder;
+
+        private CacheOrder(AtomicReference<Set<String>> admitted, Set<String> layoutCacheOrder)
+        {
+            this.admitted = admitted;
+            this.layoutCacheOrder = layoutCacheOrder;
+        }
+
+        private Set<String> current()
+        {
+            Set<String> columnChunks = this.admitted.get();
+            return columnChunks != null ? columnChunks : this.layoutCacheOrder;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return current().contains(o);
+        }
+
+        @Override
+        public Iterator<String> iterator()
+        {
+            return Collections.unmodifiableSet(current()).iterator();
+        }
+
+        @Override
+        public int size()
+        {
+            return current().size();
+        }
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.cache;
+
+import io.pixelsdb.pixels.common.utils.Constants;
+import io.pixelsdb.pixels.common.utils.EtcdUtil;
+import io.pixelsdb.pixels.common.utils.ShutdownHookManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The column chunk accesses of the cache-enabled readers in this process. For each table, it records how many
+ * times each column chunk (identified by rowGroupId:columnId, the same as the column chunk order of the layout)
+ * is read and the bytes read, as well as the cache hits and misses of the table. The table is identified by the
+ * directory of the files, i.e., the uri of the compact path of the layout.
+ * <p/>
+ * The accesses are reported to etcd every cache.access.report.interval.sec seconds, under the key
+ * cache_access_[host]_[pid] with a lease of three intervals, so that the cache coordinator can aggregate the
+ * accesses of the living reader processes and recompute the column chunks to cache. After each report, the
+ * numbers of accesses are halved, so that the column chunks that are no longer read fade out of the cache.
+ * At most {@link #MAX_REPORTED_COLUMN_CHUNKS} most accessed column chunks are reported to keep the value in etcd small.
+ *
+ * @create 2026-10-17
+ */
+public class CacheAccessStatistics
+{
+    private static final Logger logger = LogManager.getLogger(CacheAccessStatistics.class);
+    /**
+     * The maximum number of column chunks in the accesses reported by a process, each of them takes about 30 bytes
+     * in the reported value.
+     */
+    public static final int MAX_REPORTED_COLUMN_CHUNKS = 16384;
+    private static final CacheAccessStatistics instance = new CacheAccessStatistics(
+            new PixelsCacheConfig().getAccessReportInterval());
+
+    public static CacheAccessStatistics Instance()
+    {
+        return instance;
+    }
+
+    /**
+     * The accesses of a table.
+     */
+    public static class TableAccesses
+    {
+        private final LongAdder numHits = new LongAdder();
+        private final LongAdder numMisses = new LongAdder();
+        private final LongAdder hitBytes = new LongAdder();
+        private final LongAdder missBytes = new LongAdder();
+        /**
+         * rowGroupId:columnId -> {the number of accesses, the bytes accessed}.
+         */
+        private final Map<String, AtomicLongArray> columnChunkAccesses = new ConcurrentHashMap<>();
+
+        public void record(String columnChunkId, long bytes, boolean hit)
+        {
+            if (hit)
+            {
+                this.numHits.increment();
+                this.hitBytes.add(bytes);
+            }
+            else
+            {
+                this.numMisses.increment();
+                this.missBytes.add(bytes);
+            }
+            addAccesses(columnChunkId, 1, bytes);
+        }
+
+        private void addAccesses(String columnChunkId, long numAccesses, long bytes)
+        {
+            AtomicLongArray accesses = this.columnChunkAccesses.computeIfAbsent(
+                    columnChunkId, key -> new AtomicLongArray(2));
+            accesses.addAndGet(0, numAccesses);
+            accesses.addAndGet(1, bytes);
+        }
+
+        /**
+         * Halve the numbers of accesses and the accessed bytes of the column chunks, and remove the column chunks
+         * that are not accessed since the last decays. The accesses recorded concurrently may be lost, which is
+         * acceptable for the statistics.
+         */
+        public void decay()
+        {
+            Iterator<AtomicLongArray> iterator = this.columnChunkAccesses.values().iterator();
+            while (iterator.hasNext())
+            {
+                AtomicLongArray accesses = iterator.next();
+                if (accesses.updateAndGet(0, numAccesses -> numAccesses >> 1) == 0)
+                {
+                    iterator.remove();
+                }
+                else
+                {
+                    accesses.updateAndGet(1, bytes -> bytes >> 1);
+                }
+            }
+        }
+
+        public void merge(TableAccesses other)
+        {
+            this.numHits.add(other.getNumHits());
+            this.numMisses.add(other.getNumMisses());
+            this.hitBytes.add(other.getHitBytes());
+            this.missBytes.add(other.getMissBytes());
+            for (Map.Entry<String, AtomicLongArray> entry : other.columnChunkAccesses.entrySet())
+            {
+                addAccesses(entry.getKey(), entry.getValue().get(0), entry.getValue().get(1));
+            }
+        }
+
+        public long getNumHits()
+        {
+            return numHits.sum();
+        }
+
+        public long getNumMisses()
+        {
+            return numMisses.sum();
+        }
+
+        public long getHitBytes()
+        {
+            return hitBytes.sum();
+        }
+
+        public long getMissBytes()
+        {
+            return missBytes.sum();
+        }
+
+        /**
+         * @return the ratio of the column chunks read from the cache, 0 if there is no access
+         */
+        public double getHitRatio()
+        {
+            long hits = getNumHits(), total = hits + getNumMisses();
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        /**
+         * @return the ids (rowGroupId:columnId) of the accessed column chunks
+         */
+        public Iterable<String> getColumnChunks()
+        {
+            return columnChunkAccesses.keySet();
+        }
+
+        public long getNumAccesses(String columnChunkId)
+        {
+            AtomicLongArray accesses = columnChunkAccesses.get(columnChunkId);
+            return accesses == null ? 0 : accesses.get(0);
+        }
+
+        public long getAccessedBytes(String columnChunkId)
+        {
+            AtomicLongArray accesses = columnChunkAccesses.get(columnChunkId);
+            return accesses == null ? 0 : accesses.get(1);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("hit ratio %.4f (%d hits, %d misses, %d hit bytes, %d miss bytes)",
+                    getHitRatio(), getNumHits(), getNumMisses(), getHitBytes(), getMissBytes());
+        }
+    }
+
+    private final int reportIntervalSec;
+    private final Map<String, TableAccesses> tableAccesses = new ConcurrentHashMap<>();
+    private final AtomicBoolean reporterStarted = new AtomicBoolean(false);
+
+    /**
+     * @param reportIntervalSec the interval of reporting the accesses to etcd,
+     *                          the accesses are not recorded if it is not positive
+     */
+    protected CacheAccessStatistics(int reportIntervalSec)
+    {
+        this.reportIntervalSec = reportIntervalSec;
+    }
+
+    public boolean isEnabled()
+    {
+        return this.reportIntervalSec > 0;
+    }
+
+    /**
+     * Get the accesses of the table that the file belongs to. The returned object can be held by the reader
+     * of the file to record the accesses without looking up the table again.
+     * @param filePath the uri of the file
+     * @return the accesses of the table, or null if the accesses are not recorded
+     */
+    public TableAccesses getTableAccesses(String filePath)
+    {
+        if (!isEnabled())
+        {
+            return null;
+        }
+        if (this.reporterStarted.compareAndSet(false, true))
+        {
+            startReporter();
+        }
+        return this.tableAccesses.computeIfAbsent(getTableOfFile(filePath), key -> new TableAccesses());
+    }
+
+    public Map<String, TableAccesses> getAllTableAccesses()
+    {
+        return tableAccesses;
+    }
+
+    /**
+     * @param path the uri of a directory, e.g., the compact path of a layout
+     * @return the table of the directory, i.e., the directory without the trailing slash
+     */
+    public static String getTable(String path)
+    {
+        int end = path.length();
+        while (end > 1 && path.charAt(end - 1) == '/')
+        {
+            end--;
+        }
+        return path.substring(0, end);
+    }
+
+    /**
+     * @param filePath the uri of a file
+     * @return the table of the file, i.e., the directory of the file
+     */
+    public static String getTableOfFile(String filePath)
+    {
+        int slash = filePath.lastIndexOf('/');
+        return getTable(slash > 0 ? filePath.substring(0, slash) : filePath);
+    }
+
+    /**
+     * Serialize the accesses of the tables into lines in the format of:
+     * table\tnumHits\tnumMisses\thitBytes\tmissBytes\trowGroupId:columnId=numAccesses/bytes;...
+     * @param tableAccesses the accesses of the tables
+     * @return the serialized accesses
+     */
+    public static String serialize(Map<String, TableAccesses> tableAccesses)
+    {
+        return serialize(tableAccesses, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Serialize the accesses of the tables in the same format as {@link #serialize(Map)}, but only the
+     * maxColumnChunks most accessed column chunks of all the tables are included.
+     * @param tableAccesses the accesses of the tables
+     * @param maxColumnChunks the maximum number of column chunks to serialize
+     * @return the serialized accesses
+     */
+    public static String serialize(Map<String, TableAccesses> tableAccesses, int maxColumnChunks)
+    {
+        // the column chunks accessed more than minAccesses times, and numTies of those accessed minAccesses times
+        long minAccesses = 0;
+        int numTies = Integer.MAX_VALUE;
+        int numColumnChunks = 0;
+        for (TableAccesses accesses : tableAccesses.values())
+        {
+            numColumnChunks += accesses.columnChunkAccesses.size();
+        }
+        if (numColumnChunks > maxColumnChunks)
+        {
+            long[] numAccesses = new long[numColumnChunks];
+            int i = 0;
+            for (TableAccesses accesses : tableAccesses.values())
+            {
+                for (AtomicLongArray chunk : accesses.columnChunkAccesses.values())
+                {
+                    if (i < numAccesses.length)
+                    {
+                        numAccesses[i++] = chunk.get(0);
+                    }
+                }
+            }
+            if (i > maxColumnChunks)
+            {
+                Arrays.sort(numAccesses, 0, i);
+                minAccesses = maxColumnChunks > 0 ? numAccesses[i - maxColumnChunks] : Long.MAX_VALUE;
+                numTies = 0;
+                for (int j = i - maxColumnChunks; j < i && numAccesses[j] == minAccesses; ++j)
+                {
+                    numTies++;
+                }
+            }
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, TableAccesses> entry : tableAccesses.entrySet())
+        {
+            TableAccesses accesses = entry.getValue();
+            builder.append(entry.getKey()).append('\t').append(accesses.getNumHits()).append('\t')
+                    .append(accesses.getNumMisses()).append('\t').append(accesses.getHitBytes()).append('\t')
+                    .append(accesses.getMissBytes()).append('\t');
+            boolean first = true;
+            for (Map.Entry<String, AtomicLongArray> chunk : accesses.columnChunkAccesses.entrySet())
+            {
+                long numAccesses = chunk.getValue().get(0);
+                if (numAccesses < minAccesses || (numAccesses == minAccesses && numTies-- <= 0))
+                {
+                    continue;
+                }
+                if (!first)
+                {
+                    builder.append(';');
+                }
+                first = false;
+                builder.append(chunk.getKey()).append('=').append(numAccesses)
+                        .append('/').append(chunk.getValue().get(1));
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Parse the serialized accesses and merge them into the given accesses of the tables.
+     * @param serialized the accesses serialized by {@link #serialize(Map)}
+     * @param tableAccesses the accesses of the tables to merge into
+     */
+    public static void parseAndMerge(String serialized, Map<String, TableAccesses> tableAccesses)
+    {
+        for (String line : serialized.split("\n"))
+        {
+            if (line.isEmpty())
+            {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 6)
+            {
+                logger.warn("invalid cache accesses: " + line);
+                continue;
+            }
+            TableAccesses accesses = new TableAccesses();
+            accesses.numHits.add(Long.parseLong(fields[1]));
+            accesses.numMisses.add(Long.parseLong(fields[2]));
+            accesses.hitBytes.add(Long.parseLong(fields[3]));
+            accesses.missBytes.add(Long.parseLong(fields[4]));
+            if (!fields[5].isEmpty())
+            {
+                for (String chunk : fields[5].split(";"))
+                {
+                    int equal = chunk.indexOf('='), slash = chunk.indexOf('/', equal);
+                    accesses.addAccesses(chunk.substring(0, equal),
+                            Long.parseLong(chunk.substring(equal + 1, slash)),
+                            Long.parseLong(chunk.substring(slash + 1)));
+                }
+            }
+            tableAccesses.computeIfAbsent(fields[0], key -> new TableAccesses()).merge(accesses);
+        }
+    }
+
+    /**
+     * Get the accesses reported by all the living reader processes.
+     * @return the accesses of the tables
+     */
+    public static Map<String, TableAccesses> getReportedAccesses()
+    {
+        Map<String, TableAccesses> tableAccesses = new HashMap<>();
+        EtcdUtil.Instance().getKeyValuesByPrefix(Constants.CACHE_ACCESS_LITERAL).forEach(keyValue ->
+                parseAndMerge(keyValue.getValue().toString(StandardCharsets.UTF_8), tableAccesses));
+        return tableAccesses;
+    }
+
+    private void startReporter()
+    {
+        String host;
+        try
+        {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e)
+        {
+            host = "localhost";
+        }
+        // the name of the runtime mx bean is in the format of pid@host
+        String pid = ManagementFactory.getRuntimeMXBean().getName().split("@")[0];
+        String key = Constants.CACHE_ACCESS_LITERAL + host + "_" + pid;
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-access-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            try
+            {
+                EtcdUtil.Instance().putKeyValueWithExpireTime(key,
+                        serialize(this.tableAccesses, MAX_REPORTED_COLUMN_CHUNKS), this.reportIntervalSec * 3L);
+                for (Map.Entry<String, TableAccesses> entry : this.tableAccesses.entrySet())
+                {
+                    logger.info("cache accesses of table '" + entry.getKey() + "': " + entry.getValue());
+                    entry.getValue().decay();
+                }
+            } catch (Throwable e)
+            {
+                logger.error("failed to report cache accesses", e);
+            }
+        }, this.reportIntervalSec, this.reportIntervalSec, TimeUnit.SECONDS);
+        ShutdownHookManager.Instance().registerShutdownHook(CacheAccessStatistics.class, false, reporter::shutdownNow);
+    }
+}
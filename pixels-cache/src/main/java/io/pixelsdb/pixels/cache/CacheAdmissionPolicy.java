@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.cache;
+
+import java.util.*;
+
+/**
+ * The cost/benefit policy to decide which column chunks to cache. Caching a column chunk of size s saves
+ * (requestCost + s) bytes of storage reads for each access, where requestCost is the latency of a read request
+ * expressed in bytes (i.e., latency x bandwidth). Hence, the benefit of caching a column chunk per cached byte is
+ * frequency x (requestCost + s) / s. The column chunks are admitted in the descending order of this benefit until
+ * the cache budget is used up. Small and frequently accessed column chunks are preferred, as they are the most
+ * expensive to read from the storage per byte.
+ * <p/>
+ * The column chunks that have never been accessed are admitted after the accessed ones, in the column chunk order
+ * of the layout, if there is still budget left.
+ *
+ * @create 2026-10-17
+ */
+public class CacheAdmissionPolicy
+{
+    private final long requestCost;
+
+    /**
+     * @param requestCost the cost of a read request in bytes, i.e., the latency x bandwidth of the storage
+     */
+    public CacheAdmissionPolicy(long requestCost)
+    {
+        this.requestCost = requestCost;
+    }
+
+    /**
+     * Select the column chunks to cache in each file.
+     * @param columnChunkOrder the column chunk order of the layout
+     * @param cacheBorder the number of column chunks to cache in the layout
+     * @param accesses the accesses of the table, null if there is no access recorded
+     * @param budget the bytes to cache in each file, if it is not positive,
+     *               at most cacheBorder column chunks are selected
+     * @return the column chunks to cache, in the descending order of the benefit
+     */
+    public List<String> select(List<String> columnChunkOrder, int cacheBorder,
+                               CacheAccessStatistics.TableAccesses accesses, long budget)
+    {
+        Map<String, Integer> layoutIndexes = new HashMap<>(columnChunkOrder.size());
+        for (int i = 0; i < columnChunkOrder.size(); ++i)
+        {
+            layoutIndexes.put(columnChunkOrder.get(i), i);
+        }
+        List<String> accessed = new ArrayList<>();
+        Map<String, Double> benefits = new HashMap<>();
+        long accessedBytes = 0;
+        if (accesses != null)
+        {
+            for (String columnChunk : accesses.getColumnChunks())
+            {
+                long numAccesses = accesses.getNumAccesses(columnChunk);
+                if (numAccesses <= 0 || !layoutIndexes.containsKey(columnChunk))
+                {
+                    // the column chunks not in the layout (e.g., the hidden column) can not be cached
+                    continue;
+                }
+                double size = Math.max(1.0, (double) accesses.getAccessedBytes(columnChunk) / numAccesses);
+                accessed.add(columnChunk);
+                benefits.put(columnChunk, numAccesses * (this.requestCost + size) / size);
+                accessedBytes += (long) size;
+            }
+        }
+        if (accessed.isEmpty())
+        {
+            return new ArrayList<>(columnChunkOrder.subList(0, Math.min(cacheBorder, columnChunkOrder.size())));
+        }
+        accessed.sort((c1, c2) -> {
+            int cmp = Double.compare(benefits.get(c2), benefits.get(c1));
+            return cmp != 0 ? cmp : Integer.compare(layoutIndexes.get(c1), layoutIndexes.get(c2));
+        });
+
+        List<String> selected = new ArrayList<>();
+        Set<String> selectedSet = new HashSet<>();
+        // the size of the column chunks that have never been accessed is estimated by the average size
+        long averageSize = Math.max(1, accessedBytes / accessed.size());
+        long remaining = budget;
+        for (String columnChunk : accessed)
+        {
+            long size = Math.max(1, accesses.getAccessedBytes(columnChunk) / accesses.getNumAccesses(columnChunk));
+            if (admit(size, budget, remaining, selected.size(), cacheBorder))
+            {
+                selected.add(columnChunk);
+                selectedSet.add(columnChunk);
+                remaining -= size;
+            }
+        }
+        for (String columnChunk : columnChunkOrder)
+        {
+            if (!selectedSet.contains(columnChunk) && !benefits.containsKey(columnChunk))
+            {
+                if (!admit(averageSize, budget, remaining, selected.size(), cacheBorder))
+                {
+                    break;
+                }
+                selected.add(columnChunk);
+                remaining -= averageSize;
+            }
+        }
+        return selected;
+    }
+
+    private static boolean admit(long size, long budget, long remaining, int numSelected, int cacheBorder)
+    {
+        return budget > 0 ? size <= remaining : numSelected < cacheBorder;
+    }
+}
@@ -105,4 +105,34 @@ public class PixelsCacheConfig
     {
         return Boolean.parseBoolean(configFactory.getProperty("cache.enabled"));
     }
+
+    /**
+     * @return the interval in seconds of reporting the column chunk accesses of the readers to etcd,
+     * the accesses are not recorded if it is not positive
+     */
+    public int getAccessReportInterval()
+    {
+        return Integer.parseInt(configFactory.getProperty("cache.access.report.interval.sec"));
+    }
+
+    public boolean isAdmissionEnabled()
+    {
+        return Boolean.parseBoolean(configFactory.getProperty("cache.admission.enabled"));
+    }
+
+    /**
+     * @return the cost of reading a column chunk from the storage, excluding the data transfer, in bytes
+     */
+    public long getAdmissionRequestCost()
+    {
+        return Long.parseLong(configFactory.getProperty("cache.admission.request.cost"));
+    }
+
+    /**
+     * @return the interval in seconds of recomputing the cached column chunks, not recomputed if it is not positive
+     */
+    public int getAdmissionRefreshInterval()
+    {
+        return Integer.parseInt(configFactory.getProperty("cache.admission.refresh.interval.sec"));
+    }
 }
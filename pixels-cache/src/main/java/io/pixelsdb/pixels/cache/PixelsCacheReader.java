@@ -118,7 +118,21 @@ public class PixelsCacheReader implements AutoCloseable
         return new PixelsCacheReader.Builder();
     }
 
-    public ByteBuffer get(long blockId, short rowGroupId, short columnId, boolean direct)
+    /**
+     * @return the layout version of the column chunks in the cache, which is kept in the global index file
+     */
+    public int getCacheVersion()
+    {
+        return PixelsZoneUtil.getIndexVersion(bucketToZoneMap.indexFile);
+    }
+
+    /**
+     * Synchronize the zones and the hash cycle of this reader with the cache writer, if the cache has been
+     * expanded or shrunk. The number of nodes in the hash cycle of the writer serves as the topology version,
+     * and the zones are only reloaded if it is changed.
+     * @return false if failed to synchronize
+     */
+    private boolean syncTopology()
     {
         // update the hashcycle in locator in the PixelsCacheReader
         int hashNodeNum = bucketToZoneMap.getHashNodeNum();
@@ -147,7 +161,7 @@ public class PixelsCacheReader implements AutoCloseable
                     catch (Exception e) 
                     {
                         logger.warn("Failed to synchronize with writer expansion: could not create zone reader", e);
-                        return null;
+                        return false;
                     }
                     locator.addNode();
                 }
@@ -163,7 +177,16 @@ public class PixelsCacheReader implements AutoCloseable
                 logger.info("CacheReader detected cache shrink: zoneNum from {} to {}", originalNodeNum, hashNodeNum);
             }
         }
-        long bucketId = locator.getLocation(new PixelsCacheKey(blockId, rowGroupId, columnId));
+        return true;
+    }
+
+    public ByteBuffer get(long blockId, short rowGroupId, short columnId, boolean direct)
+    {
+        if (!syncTopology())
+        {
+            return null;
+        }
+        long bucketId = locator.getLocation(blockId, rowGroupId, columnId);
         int zoneId = bucketToZoneMap.getBucketToZone(bucketId);
         if (zoneId < 0 || zoneId >= zones.size()) 
         {
@@ -179,6 +202,56 @@ public class PixelsCacheReader implements AutoCloseable
         return zone.get(blockId, rowGroupId, columnId, direct);
     }
 
+    /**
+     * Look up a batch of column chunks in the cache. The topology of the cache is checked once for the batch,
+     * and the column chunks in the same zone are searched under a single read lease of the zone index. No object
+     * is created if the capacity of the slices is enough, and the cached column chunks are not copied.
+     *
+     * @param blockIds the block ids of the column chunks
+     * @param rowGroupIds the row group ids of the column chunks
+     * @param columnIds the column ids of the column chunks
+     * @param num the number of column chunks in the batch
+     * @param slices the results, the ith slice is the cached content of the ith column chunk or a miss
+     * @return the number of column chunks found in the cache
+     */
+    public int batchGet(long[] blockIds, short[] rowGroupIds, short[] columnIds, int num, PixelsCacheSlices slices)
+    {
+        slices.reset(num);
+        if (!syncTopology())
+        {
+            for (int i = 0; i < num; ++i)
+            {
+                slices.setMiss(i);
+            }
+            return 0;
+        }
+        int zoneNum = zones.size();
+        // the zones that contain at least one column chunk in the batch, as a bit set
+        long touchedZones = 0;
+        for (int i = 0; i < num; ++i)
+        {
+            long bucketId = locator.getLocation(blockIds[i], rowGroupIds[i], columnIds[i]);
+            int zoneId = bucketToZoneMap.getBucketToZone(bucketId);
+            if (zoneId < 0 || zoneId >= zoneNum || zones.get(zoneId) == null)
+            {
+                slices.setZoneId(i, -1);
+                slices.setMiss(i);
+                continue;
+            }
+            slices.setZoneId(i, zoneId);
+            touchedZones |= 1L << (zoneId & 63);
+        }
+        int numHits = 0;
+        for (int zoneId = 0; zoneId < zoneNum; ++zoneId)
+        {
+            if ((touchedZones & (1L << (zoneId & 63))) != 0)
+            {
+                numHits += zones.get(zoneId).batchGet(blockIds, rowGroupIds, columnIds, zoneId, slices);
+            }
+        }
+        return numHits;
+    }
+
     public void close() 
     {
         try 
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.cache;
+
+import io.pixelsdb.pixels.common.physical.natives.MemoryMappedFile;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The results of a batched cache lookup, see {@link PixelsCacheReader#batchGet(long[], short[], short[], int,
+ * PixelsCacheSlices)}. The ith result is a slice (offset and length) of the memory mapped zone file where the ith
+ * column chunk is cached, or a miss. The slices are not copied, and they are valid until the cache is updated,
+ * the same as the direct byte buffers returned by {@link PixelsCacheReader#get(long, short, short, boolean)}.
+ * <p/>
+ * An instance can be reused by the batches of the same reader, the arrays are only reallocated if a batch is
+ * larger than the capacity. It is not thread-safe.
+ *
+ * @create 2026-10-17
+ */
+public class PixelsCacheSlices
+{
+    private int size = 0;
+    /**
+     * The zone of each column chunk located by the cache reader, -1 if the zone is invalid.
+     */
+    private int[] zoneIds;
+    private MemoryMappedFile[] zoneFiles;
+    private long[] offsets;
+    private int[] lengths;
+
+    public PixelsCacheSlices(int capacity)
+    {
+        this.zoneIds = new int[capacity];
+        this.zoneFiles = new MemoryMappedFile[capacity];
+        this.offsets = new long[capacity];
+        this.lengths = new int[capacity];
+    }
+
+    /**
+     * Clear the results and ensure the capacity.
+     * @param size the number of column chunks to look up
+     */
+    void reset(int size)
+    {
+        if (size > this.zoneIds.length)
+        {
+            int capacity = Math.max(size, this.zoneIds.length * 2);
+            this.zoneIds = new int[capacity];
+            this.zoneFiles = new MemoryMappedFile[capacity];
+            this.offsets = new long[capacity];
+            this.lengths = new int[capacity];
+        }
+        else
+        {
+            Arrays.fill(this.zoneFiles, 0, this.size, null);
+        }
+        this.size = size;
+    }
+
+    int getZoneId(int i)
+    {
+        return zoneIds[i];
+    }
+
+    void setZoneId(int i, int zoneId)
+    {
+        this.zoneIds[i] = zoneId;
+    }
+
+    void setSlice(int i, MemoryMappedFile zoneFile, long offset, int length)
+    {
+        this.zoneFiles[i] = zoneFile;
+        this.offsets[i] = offset;
+        this.lengths[i] = length;
+    }
+
+    void setMiss(int i)
+    {
+        this.zoneFiles[i] = null;
+    }
+
+    /**
+     * @return the number of column chunks looked up in the last batch
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param i the index of the column chunk in the batch
+     * @return true if the column chunk is found in the cache
+     */
+    public boolean isHit(int i)
+    {
+        return zoneFiles[i] != null;
+    }
+
+    /**
+     * @param i the index of the column chunk in the batch
+     * @return the memory mapped zone file where the column chunk is cached, null if it is not found
+     */
+    public MemoryMappedFile getZoneFile(int i)
+    {
+        return zoneFiles[i];
+    }
+
+    /**
+     * @param i the index of the column chunk in the batch
+     * @return the offset of the column chunk in the zone file
+     */
+    public long getOffset(int i)
+    {
+        return offsets[i];
+    }
+
+    /**
+     * @param i the index of the column chunk in the batch
+     * @return the length of the column chunk
+     */
+    public int getLength(int i)
+    {
+        return lengths[i];
+    }
+
+    /**
+     * Wrap the slice of the column chunk into a read-only direct byte buffer without memory copy.
+     * @param i the index of the column chunk in the batch
+     * @return the byte buffer, or null if the column chunk is not found
+     */
+    public ByteBuffer getSlice(int i)
+    {
+        if (zoneFiles[i] == null)
+        {
+            return null;
+        }
+        return zoneFiles[i].getDirectByteBuffer(offsets[i], lengths[i]);
+    }
+
+    /**
+     * Copy the column chunk into the buffer.
+     * @param i the index of the column chunk in the batch
+     * @param buffer the buffer to copy into, it should have at least {@link #getLength(int)} bytes from offset
+     * @param offset the offset in the buffer
+     * @return false if the column chunk is not found
+     */
+    public boolean getBytes(int i, byte[] buffer, int offset)
+    {
+        if (zoneFiles[i] == null)
+        {
+            return false;
+        }
+        zoneFiles[i].getBytes(offsets[i], buffer, offset, lengths[i]);
+        return true;
+    }
+}
@@ -19,9 +19,13 @@
  */
 package io.pixelsdb.pixels.cache;
 
+import io.etcd.jetcd.KeyValue;
 import io.pixelsdb.pixels.common.exception.CacheException;
+import io.pixelsdb.pixels.common.metadata.domain.Compact;
+import io.pixelsdb.pixels.common.metadata.domain.Layout;
 import io.pixelsdb.pixels.common.physical.natives.MemoryMappedFile;
 import io.pixelsdb.pixels.common.utils.Constants;
+import io.pixelsdb.pixels.common.utils.EtcdUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -30,6 +34,8 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
@@ -524,6 +530,29 @@ public class PixelsCacheUtil
         return var1;
     }
 
+    /**
+     * Get the column chunks to cache for the layout version. If the cache coordinator has selected the column
+     * chunks by their accesses, the selected column chunks are returned. Otherwise, the column chunks before
+     * the cache border in the column chunk order of the layout are returned.
+     * @param version the layout version
+     * @param layout the layout
+     * @return the column chunks (rowGroupId:columnId) to cache
+     */
+    public static List<String> getCacheColumnChunkOrder(int version, Layout layout)
+    {
+        KeyValue keyValue = EtcdUtil.Instance().getKeyValue(Constants.CACHE_ORDER_LITERAL + version);
+        if (keyValue != null)
+        {
+            String value = keyValue.getValue().toString(StandardCharsets.UTF_8);
+            if (!value.isEmpty())
+            {
+                return Arrays.asList(value.split(";"));
+            }
+        }
+        Compact compact = layout.getCompact();
+        return compact.getColumnChunkOrder().subList(0, compact.getCacheBorder());
+    }
+
     public static String getHostnameFromCacheLocationLiteral(String cacheLocationLiteral)
     {
         String[] splits = requireNonNull(cacheLocationLiteral, "cacheLocationLiteral is null").split("_");
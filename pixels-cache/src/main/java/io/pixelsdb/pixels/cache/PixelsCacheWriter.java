@@ -242,9 +242,7 @@ public class PixelsCacheWriter
                     MetadataService metadataService = MetadataService.Instance();
                     Layout cachedLayout = metadataService.getLayout(
                             schemaTableName.getSchemaName(), schemaTableName.getSchemaName(), cachedVersion);
-                    Compact compact = cachedLayout.getCompact();
-                    int cacheBorder = compact.getCacheBorder();
-                    cachedColumnChunks.addAll(compact.getColumnChunkOrder().subList(0, cacheBorder));
+                    cachedColumnChunks.addAll(PixelsCacheUtil.getCacheColumnChunkOrder(cachedVersion, cachedLayout));
                 }
             }
             else
@@ -433,8 +431,7 @@ public class PixelsCacheWriter
         int status = 0;
         // get the new caching layout
         Compact compact = layout.getCompact();
-        int cacheBorder = compact.getCacheBorder();
-        List<String> cacheColumnChunkOrders = compact.getColumnChunkOrder().subList(0, cacheBorder);
+        List<String> cacheColumnChunkOrders = PixelsCacheUtil.getCacheColumnChunkOrder(version, layout);
 
         // update cache content
         cachedColumnChunks.clear();
@@ -558,8 +555,7 @@ public class PixelsCacheWriter
          * Get the new caching layout.
          */
         Compact compact = layout.getCompact();
-        int cacheBorder = compact.getCacheBorder();
-        List<String> nextVersionCached = compact.getColumnChunkOrder().subList(0, cacheBorder);
+        List<String> nextVersionCached = PixelsCacheUtil.getCacheColumnChunkOrder(version, layout);
         /**
          * Prepare structures for the survived and new coming cache elements.
          */
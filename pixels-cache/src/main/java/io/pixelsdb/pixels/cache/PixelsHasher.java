@@ -28,4 +28,13 @@ package io.pixelsdb.pixels.cache;
 public interface PixelsHasher 
 {
     public long getHashCode(String key);
+
+    /**
+     * Get the hash code of the first length bytes of the key, it should be the same as the hash code of the
+     * string decoded from these bytes, so that it can be used to hash a key without creating a string.
+     */
+    default long getHashCode(byte[] key, int length)
+    {
+        return getHashCode(new String(key, 0, length));
+    }
 }
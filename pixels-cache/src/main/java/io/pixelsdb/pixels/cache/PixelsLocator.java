@@ -50,6 +50,17 @@ class PixelsLocator
 
     private Map<String,Long> slotMap;
 
+    /**
+     * The bucket of each hash slot, i.e., the bucket of the first node at or after the slot in the hash cycle.
+     * It is rebuilt when the nodes are changed, so that locating a key does not search the hash cycle.
+     */
+    private final int[] slotToBucket = new int[NUM_HASH_SLOTS];
+    /**
+     * The buffer of the key string (blockId:rowGroupId:columnId) to hash, 20 bytes for each decimal number
+     * is more than enough. It makes the locator not thread-safe, the same as the cache readers.
+     */
+    private final byte[] keyBytes = new byte[64];
+
     public PixelsLocator(int nodeNum) 
     {
         this.nodeNum = nodeNum;
@@ -109,6 +120,31 @@ class PixelsLocator
                 slotMap.put(nodeName, hash);
             }
         }
+        buildSlots();
+    }
+
+    private void buildSlots()
+    {
+        if (hashCycle.isEmpty())
+        {
+            return;
+        }
+        int slot = 0;
+        for (Map.Entry<Long, Long> entry : hashCycle.entrySet())
+        {
+            int end = (int) (long) entry.getKey();
+            int bucket = (int) (long) entry.getValue();
+            for (; slot <= end; ++slot)
+            {
+                slotToBucket[slot] = bucket;
+            }
+        }
+        // the slots after the last node wrap around to the first node
+        int firstBucket = (int) (long) hashCycle.firstEntry().getValue();
+        for (; slot < NUM_HASH_SLOTS; ++slot)
+        {
+            slotToBucket[slot] = firstBucket;
+        }
     }
 
     public long getLocation(PixelsCacheKey key) 
@@ -117,14 +153,57 @@ class PixelsLocator
         {
             throw new IllegalArgumentException("Cache key cannot be null");
         }
-        // build cache key by rowGroupId, columnId and offset
-        String keyStr = String.format("%d:%d:%d", 
-            key.blockId,
-            key.rowGroupId,
-            key.columnId);
-        long keyHash = hasher.getHashCode(keyStr) % NUM_HASH_SLOTS;
-        Long replicaHash = hashCycle.ceilingKey(keyHash);
-        return replicaHash == null ? hashCycle.get(hashCycle.firstKey()) : hashCycle.get(replicaHash);
+        return getLocation(key.blockId, key.rowGroupId, key.columnId);
+    }
+
+    /**
+     * Get the bucket of the column chunk without creating any object.
+     * The key to hash is the same as String.format("%d:%d:%d", blockId, rowGroupId, columnId).
+     */
+    public long getLocation(long blockId, short rowGroupId, short columnId)
+    {
+        int length = putDecimal(blockId, 0);
+        keyBytes[length++] = ':';
+        length = putDecimal(rowGroupId, length);
+        keyBytes[length++] = ':';
+        length = putDecimal(columnId, length);
+        long keyHash = hasher.getHashCode(keyBytes, length) % NUM_HASH_SLOTS;
+        return slotToBucket[(int) keyHash];
+    }
+
+    /**
+     * Put the decimal string of the value into keyBytes.
+     * @return the position after the decimal string
+     */
+    private int putDecimal(long value, int pos)
+    {
+        if (value == 0)
+        {
+            keyBytes[pos++] = '0';
+            return pos;
+        }
+        if (value < 0)
+        {
+            keyBytes[pos++] = '-';
+        }
+        else
+        {
+            // use the negative value so that Long.MIN_VALUE does not overflow
+            value = -value;
+        }
+        int start = pos;
+        while (value != 0)
+        {
+            keyBytes[pos++] = (byte) ('0' - (value % 10));
+            value /= 10;
+        }
+        for (int i = start, j = pos - 1; i < j; ++i, --j)
+        {
+            byte tmp = keyBytes[i];
+            keyBytes[i] = keyBytes[j];
+            keyBytes[j] = tmp;
+        }
+        return pos;
     }
 
     public int getNodeNum()
@@ -218,6 +297,7 @@ class PixelsLocator
             slotMap.put(nodeName, hash);
         }
         nodeNum++;
+        buildSlots();
     }
 
     public void removeNode() 
@@ -231,6 +311,7 @@ class PixelsLocator
             hashCycle.remove(actualHash);
         }
         nodeNum--;
+        buildSlots();
     }
 
     public void close() 
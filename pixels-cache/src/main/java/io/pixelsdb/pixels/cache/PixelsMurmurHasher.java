@@ -19,9 +19,6 @@
  */
 package io.pixelsdb.pixels.cache;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-
 /**
  * @author alph00
  * @create 2024-02-26
@@ -32,21 +29,27 @@ public class PixelsMurmurHasher implements PixelsHasher
     @Override
     public long getHashCode(String key) 
     {
-        ByteBuffer buf = ByteBuffer.wrap(key.getBytes());
-        int seed = 0x1234ABCD;
+        byte[] bytes = key.getBytes();
+        return getHashCode(bytes, bytes.length);
+    }
 
-        ByteOrder byteOrder = buf.order();
-        buf.order(ByteOrder.LITTLE_ENDIAN);
+    @Override
+    public long getHashCode(byte[] key, int length)
+    {
+        int seed = 0x1234ABCD;
 
         long m = 0xc6a4a7935bd1e995L;
         int r = 47;
 
-        long h = seed ^ (buf.remaining() * m);
+        long h = seed ^ (length * m);
 
         long k;
-        while (buf.remaining() >= 8) 
+        int i = 0;
+        while (length - i >= 8)
         {
-            k = buf.getLong();
+            // read the key in little endian
+            k = getLongLE(key, i, 8);
+            i += 8;
 
             k *= m;
             k ^= k >>> r;
@@ -56,21 +59,26 @@ public class PixelsMurmurHasher implements PixelsHasher
             h *= m;
         }
 
-        if (buf.remaining() > 0) 
+        if (length - i > 0)
         {
-            ByteBuffer finish = ByteBuffer.allocate(8).order(
-                    ByteOrder.LITTLE_ENDIAN);
-            // for big-endian version, do this first:
-            // finish.position(8-buf.remaining());
-            finish.put(buf).rewind();
-            h ^= finish.getLong();
+            // the remaining bytes are padded with zeros
+            h ^= getLongLE(key, i, length - i);
             h *= m;
         }
         h ^= h >>> r;
         h *= m;
         h ^= h >>> r;
 
-        buf.order(byteOrder);
         return (long) (h & 0xffffffffL);
     }
+
+    private static long getLongLE(byte[] bytes, int offset, int length)
+    {
+        long value = 0;
+        for (int i = 0; i < length; ++i)
+        {
+            value |= (bytes[offset + i] & 0xFFL) << (i << 3);
+        }
+        return value;
+    }
 }
@@ -64,6 +64,17 @@ public class PixelsZoneReader implements AutoCloseable
 
     private final ByteBuffer keyBuffer = ByteBuffer.allocate(PixelsCacheKey.SIZE).order(ByteOrder.BIG_ENDIAN);
 
+    /**
+     * The cache idx in the index file is big endian, whereas the memory mapped file is read in native order.
+     */
+    private static final boolean REVERSE_IDX_BYTES = ByteOrder.nativeOrder() != ByteOrder.BIG_ENDIAN;
+
+    /**
+     * The dram access count and radix level of the last search, they are only used for debugging.
+     */
+    private int lastDramAccessCount = 0;
+    private int lastRadixLevel = 0;
+
 //    static
 //    {
 //        new Thread(cacheLogger).start();
@@ -206,6 +217,76 @@ public class PixelsZoneReader implements AutoCloseable
         // TODO batch get zone items. merge zone accesses to reduce the number of jni invocation.
     }
 
+    /**
+     * Search the column chunks that are located in this zone, i.e., slices.getZoneId(i) == zoneId, under a single
+     * read lease of the zone index. The slices of the found column chunks are set in slices, and the others are
+     * set as misses. No object is created during the search.
+     *
+     * @param blockIds the block ids of the column chunks
+     * @param rowGroupIds the row group ids of the column chunks
+     * @param columnIds the column ids of the column chunks
+     * @param zoneId the id of this zone in the cache reader
+     * @param slices the results, its size is the number of column chunks in the batch
+     * @return the number of column chunks found in this zone
+     */
+    public int batchGet(long[] blockIds, short[] rowGroupIds, short[] columnIds, int zoneId, PixelsCacheSlices slices)
+    {
+        long lease;
+        try
+        {
+            lease = PixelsZoneUtil.beginIndexRead(indexFile);
+        }
+        catch (InterruptedException e)
+        {
+            logger.error("Failed to get read permission on index.", e);
+            for (int i = 0; i < slices.size(); ++i)
+            {
+                if (slices.getZoneId(i) == zoneId)
+                {
+                    slices.setMiss(i);
+                }
+            }
+            return 0;
+        }
+        int numHits = 0;
+        for (int i = 0; i < slices.size(); ++i)
+        {
+            if (slices.getZoneId(i) != zoneId)
+            {
+                continue;
+            }
+            PixelsCacheKey.getBytes(keyBuffer, blockIds[i], rowGroupIds[i], columnIds[i]);
+            long idxOffset = searchLeaf(keyBuffer);
+            if (idxOffset < 0)
+            {
+                slices.setMiss(i);
+                continue;
+            }
+            long offset = indexFile.getLong(idxOffset);
+            int length = indexFile.getInt(idxOffset + Long.BYTES);
+            if (REVERSE_IDX_BYTES)
+            {
+                offset = Long.reverseBytes(offset);
+                length = Integer.reverseBytes(length);
+            }
+            slices.setSlice(i, zoneFile, offset, length);
+            numHits++;
+        }
+        if (!PixelsZoneUtil.endIndexRead(indexFile, lease))
+        {
+            // the index may have been changed by the writer, the slices are not reliable
+            for (int i = 0; i < slices.size(); ++i)
+            {
+                if (slices.getZoneId(i) == zoneId)
+                {
+                    slices.setMiss(i);
+                }
+            }
+            return 0;
+        }
+        return numHits;
+    }
+
     /**
      * This interface is only used by TESTS, DO NOT USE.
      * It will be removed soon!
@@ -223,6 +304,25 @@ public class PixelsZoneReader implements AutoCloseable
      * Else, return null
      */
     private PixelsCacheIdx search(ByteBuffer keyBuffer)
+    {
+        long idxOffset = searchLeaf(keyBuffer);
+        if (idxOffset < 0)
+        {
+            return null;
+        }
+        byte[] idx = new byte[12];
+        indexFile.getBytes(idxOffset, idx, 0, 12);
+        PixelsCacheIdx zoneIdx = new PixelsCacheIdx(idx);
+        zoneIdx.dramAccessCount = this.lastDramAccessCount + 1;
+        zoneIdx.radixLevel = this.lastRadixLevel;
+        return zoneIdx;
+    }
+
+    /**
+     * Search key from radix tree without creating any object.
+     * @return the offset of the cache idx of the key in the index file, or -1 if the key is not found
+     */
+    private long searchLeaf(ByteBuffer keyBuffer)
     {
         int dramAccessCounter = 0;
         int radixLevel = 0;
@@ -239,7 +339,7 @@ public class PixelsZoneReader implements AutoCloseable
         int currentNodeEdgeSize = (currentNodeHeader & 0x7FFFFE00) >>> 9;
         if (currentNodeChildrenNum == 0 && currentNodeEdgeSize == 0)
         {
-            return null;
+            return -1;
         }
         indexFile.getBytes(currentNodeOffset + 4, this.nodeData, 0, currentNodeChildrenNum * 8);
         dramAccessCounter++;
@@ -315,17 +415,12 @@ public class PixelsZoneReader implements AutoCloseable
             // if the current node is leaf node.
             if (((currentNodeHeader >>> 31) & 1) > 0)
             {
-                byte[] idx = new byte[12];
-                indexFile.getBytes(currentNodeOffset + 4 + (currentNodeChildrenNum * 8) + currentNodeEdgeSize,
-                        idx, 0, 12);
-                dramAccessCounter++;
-                PixelsCacheIdx zoneIdx = new PixelsCacheIdx(idx);
-                zoneIdx.dramAccessCount = dramAccessCounter;
-                zoneIdx.radixLevel = radixLevel;
-                return zoneIdx;
+                this.lastDramAccessCount = dramAccessCounter;
+                this.lastRadixLevel = radixLevel;
+                return currentNodeOffset + 4 + (currentNodeChildrenNum * 8) + currentNodeEdgeSize;
             }
         }
-        return null;
+        return -1;
     }
 
     public void close()
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.cache;
+
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestCacheAdmissionPolicy
+{
+    private static final List<String> LayoutOrder = Arrays.asList("0:0", "0:1", "0:2", "0:3", "1:0", "1:1");
+
+    @Test
+    public void testWithoutAccesses()
+    {
+        CacheAdmissionPolicy policy = new CacheAdmissionPolicy(1024);
+        // fall back to the column chunk order of the layout
+        assert policy.select(LayoutOrder, 3, null, 1000).equals(Arrays.asList("0:0", "0:1", "0:2"));
+        assert policy.select(LayoutOrder, 3, new CacheAccessStatistics.TableAccesses(), 0)
+                .equals(Arrays.asList("0:0", "0:1", "0:2"));
+    }
+
+    @Test
+    public void testCostBenefit()
+    {
+        CacheAccessStatistics.TableAccesses accesses = new CacheAccessStatistics.TableAccesses();
+        // a large column chunk accessed 10 times, and a small one accessed 5 times
+        for (int i = 0; i < 10; ++i)
+        {
+            accesses.record("0:3", 4096, false);
+        }
+        for (int i = 0; i < 5; ++i)
+        {
+            accesses.record("1:1", 256, false);
+        }
+        // a column chunk not in the layout is never admitted
+        accesses.record("9:9", 10, false);
+        CacheAdmissionPolicy policy = new CacheAdmissionPolicy(1024);
+        // benefit per byte: 0:3 -> 10 * (1024 + 4096) / 4096 = 12.5, 1:1 -> 5 * (1024 + 256) / 256 = 25
+        List<String> selected = policy.select(LayoutOrder, 2, accesses, 4096 + 256);
+        assert selected.equals(Arrays.asList("1:1", "0:3")) : selected;
+
+        // the budget only fits the small column chunk and a never accessed one of the average size (2176)
+        selected = policy.select(LayoutOrder, 2, accesses, 256 + 2176);
+        assert selected.equals(Arrays.asList("1:1", "0:0")) : selected;
+
+        // no budget, at most cacheBorder column chunks are selected
+        selected = policy.select(LayoutOrder, 3, accesses, 0);
+        assert selected.equals(Arrays.asList("1:1", "0:3", "0:0")) : selected;
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        Map<String, CacheAccessStatistics.TableAccesses> tables = new HashMap<>();
+        CacheAccessStatistics.TableAccesses accesses = new CacheAccessStatistics.TableAccesses();
+        accesses.record("0:1", 100, true);
+        accesses.record("0:1", 100, false);
+        accesses.record("2:3", 50, true);
+        tables.put(CacheAccessStatistics.getTableOfFile("s3://bucket/tpch/orders/v-0-compact/1.pxl"), accesses);
+        String serialized = CacheAccessStatistics.serialize(tables);
+
+        // merge the accesses reported by two processes
+        Map<String, CacheAccessStatistics.TableAccesses> merged = new HashMap<>();
+        CacheAccessStatistics.parseAndMerge(serialized, merged);
+        CacheAccessStatistics.parseAndMerge(serialized, merged);
+        CacheAccessStatistics.TableAccesses table =
+                merged.get(CacheAccessStatistics.getTable("s3://bucket/tpch/orders/v-0-compact/"));
+        assert table != null;
+        assert table.getNumHits() == 4 && table.getNumMisses() == 2;
+        assert table.getHitBytes() == 300 && table.getMissBytes() == 200;
+        assert Math.abs(table.getHitRatio() - 4.0 / 6) < 1e-9;
+        assert table.getNumAccesses("0:1") == 4 && table.getAccessedBytes("0:1") == 400;
+        assert table.getNumAccesses("2:3") == 2 && table.getAccessedBytes("2:3") == 100;
+    }
+
+    @Test
+    public void testDecayAndCap()
+    {
+        CacheAccessStatistics.TableAccesses accesses = new CacheAccessStatistics.TableAccesses();
+        for (int i = 0; i < 8; ++i)
+        {
+            accesses.record("0:0", 100, false);
+        }
+        for (int i = 0; i < 4; ++i)
+        {
+            accesses.record("0:1", 10, false);
+            accesses.record("0:2", 10, false);
+        }
+        accesses.record("0:3", 10, false);
+        Map<String, CacheAccessStatistics.TableAccesses> tables = new HashMap<>();
+        tables.put("s3://bucket/t", accesses);
+
+        // only the two most accessed column chunks are serialized, one of the ties is dropped
+        Map<String, CacheAccessStatistics.TableAccesses> merged = new HashMap<>();
+        CacheAccessStatistics.parseAndMerge(CacheAccessStatistics.serialize(tables, 2), merged);
+        CacheAccessStatistics.TableAccesses table = merged.get("s3://bucket/t");
+        assert table.getNumAccesses("0:0") == 8;
+        assert table.getNumAccesses("0:1") + table.getNumAccesses("0:2") == 4;
+        assert table.getNumAccesses("0:3") == 0;
+
+        // the counts are halved, and the column chunk accessed once is removed
+        accesses.decay();
+        assert accesses.getNumAccesses("0:0") == 4 && accesses.getAccessedBytes("0:0") == 400;
+        assert accesses.getNumAccesses("0:1") == 2 && accesses.getAccessedBytes("0:1") == 20;
+        assert accesses.getNumAccesses("0:3") == 0;
+        int numColumnChunks = 0;
+        for (String ignored : accesses.getColumnChunks())
+        {
+            numColumnChunks++;
+        }
+        assert numColumnChunks == 3;
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.cache;
+
+import io.pixelsdb.pixels.common.physical.natives.MemoryMappedFile;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare the batched lookups of the cache reader with the lookups one by one. The cache has two lazy zones
+ * and one swap zone, the same as the default configuration.
+ *
+ * @create 2026-10-17
+ */
+public class TestPixelsCacheBatchGet
+{
+    private static final int ZoneNum = 3, SwapZoneNum = 1;
+    private static final long ZoneSize = 64 * 1024 * 1024, IndexSize = 64 * 1024 * 1024;
+    private static final int NumBlocks = 100, NumRowGroups = 8, NumColumns = 32, ChunkSize = 64;
+    private static String baseLocation;
+
+    @BeforeClass
+    public static void buildCache() throws IOException
+    {
+        File dir = new File("/dev/shm").isDirectory() ? new File("/dev/shm") :
+                new File(System.getProperty("java.io.tmpdir"));
+        baseLocation = dir.getPath() + "/pixels-batch-get-test";
+        MemoryMappedFile globalIndexFile = new MemoryMappedFile(baseLocation + ".index.g", IndexSize);
+        PixelsBucketToZoneMap bucketToZoneMap = new PixelsBucketToZoneMap(globalIndexFile, ZoneNum);
+        PixelsZoneUtil.initializeGlobalIndex(globalIndexFile, bucketToZoneMap);
+        bucketToZoneMap.setHashNodeNum(ZoneNum - SwapZoneNum);
+        List<PixelsZoneWriter> zoneWriters = new ArrayList<>(ZoneNum);
+        for (int i = 0; i < ZoneNum; ++i)
+        {
+            PixelsZoneWriter zoneWriter = new PixelsZoneWriter(baseLocation + ".cache." + i,
+                    baseLocation + ".index." + i, ZoneSize, IndexSize, i);
+            if (i < ZoneNum - SwapZoneNum)
+            {
+                zoneWriter.buildLazy();
+            }
+            else
+            {
+                zoneWriter.buildSwap();
+            }
+            zoneWriters.add(zoneWriter);
+        }
+        PixelsLocator locator = new PixelsLocator(ZoneNum - SwapZoneNum);
+        for (int block = 0; block < NumBlocks; ++block)
+        {
+            for (short rg = 0; rg < NumRowGroups; ++rg)
+            {
+                // only the even columns are cached
+                for (short col = 0; col < NumColumns; col += 2)
+                {
+                    PixelsCacheKey key = new PixelsCacheKey(block, rg, col);
+                    int zoneId = bucketToZoneMap.getBucketToZone(locator.getLocation(key));
+                    zoneWriters.get(zoneId).write(key, content(block, rg, col));
+                }
+            }
+        }
+        for (PixelsZoneWriter zoneWriter : zoneWriters)
+        {
+            zoneWriter.flushIndex();
+        }
+    }
+
+    @AfterClass
+    public static void deleteCache()
+    {
+        new File(baseLocation + ".index.g").delete();
+        for (int i = 0; i < ZoneNum; ++i)
+        {
+            new File(baseLocation + ".cache." + i).delete();
+            new File(baseLocation + ".index." + i).delete();
+        }
+    }
+
+    private static byte[] content(long block, short rg, short col)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(ChunkSize);
+        buffer.putLong(block).putShort(rg).putShort(col);
+        return buffer.array();
+    }
+
+    private static PixelsCacheReader newReader() throws IOException
+    {
+        List<MemoryMappedFile> cacheFiles = new ArrayList<>(ZoneNum);
+        List<MemoryMappedFile> indexFiles = new ArrayList<>(ZoneNum);
+        for (int i = 0; i < ZoneNum; ++i)
+        {
+            cacheFiles.add(new MemoryMappedFile(baseLocation + ".cache." + i, ZoneSize));
+            indexFiles.add(new MemoryMappedFile(baseLocation + ".index." + i, IndexSize));
+        }
+        return PixelsCacheReader.newBuilder().setCacheFiles(cacheFiles, SwapZoneNum)
+                .setIndexFiles(indexFiles, new MemoryMappedFile(baseLocation + ".index.g", IndexSize)).build();
+    }
+
+    @Test
+    public void testLocation()
+    {
+        PixelsLocator locator = new PixelsLocator(2);
+        PixelsMurmurHasher hasher = new PixelsMurmurHasher();
+        long[] blockIds = {0, 1, -1, 123456789012L, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long blockId : blockIds)
+        {
+            for (short rg = -1; rg < 20; ++rg)
+            {
+                for (short col = 0; col < 100; col += 7)
+                {
+                    // the hash code of the key bytes is the same as that of the formatted key string
+                    String keyStr = String.format("%d:%d:%d", blockId, rg, col);
+                    assert hasher.getHashCode(keyStr) == hasher.getHashCode(keyStr.getBytes(), keyStr.length());
+                    long location = locator.getLocation(blockId, rg, col);
+                    assert location >= 0 && location < 2;
+                    assert location == locator.getLocation(new PixelsCacheKey(blockId, rg, col));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBatchGet() throws IOException
+    {
+        try (PixelsCacheReader reader = newReader())
+        {
+            int num = NumRowGroups * NumColumns;
+            long[] blockIds = new long[num];
+            short[] rgIds = new short[num];
+            short[] colIds = new short[num];
+            PixelsCacheSlices slices = new PixelsCacheSlices(16);
+            byte[] buffer = new byte[ChunkSize];
+            for (int block = 0; block < NumBlocks; ++block)
+            {
+                int i = 0;
+                for (short rg = 0; rg < NumRowGroups; ++rg)
+                {
+                    for (short col = 0; col < NumColumns; ++col, ++i)
+                    {
+                        blockIds[i] = block;
+                        rgIds[i] = rg;
+                        colIds[i] = col;
+                    }
+                }
+                assert reader.batchGet(blockIds, rgIds, colIds, num, slices) == num / 2;
+                assert slices.size() == num;
+                for (i = 0; i < num; ++i)
+                {
+                    ByteBuffer expected = reader.get(blockIds[i], rgIds[i], colIds[i], false);
+                    if (colIds[i] % 2 == 0)
+                    {
+                        assert slices.isHit(i) && slices.getLength(i) == ChunkSize;
+                        assert slices.getSlice(i).equals(expected);
+                        assert slices.getBytes(i, buffer, 0);
+                        assert ByteBuffer.wrap(buffer).equals(ByteBuffer.wrap(content(block, rgIds[i], colIds[i])));
+                    }
+                    else
+                    {
+                        assert !slices.isHit(i) && slices.getSlice(i) == null && expected == null;
+                    }
+                }
+            }
+        }
+    }
+
+    private static long getAllocatedBytes()
+    {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Look up the column chunks of each 'split' (a block) one by one using get, and in one batch using batchGet.
+     */
+    @Test
+    public void testPerformance() throws IOException
+    {
+        int rounds = 20, num = NumRowGroups * NumColumns;
+        long[] blockIds = new long[num];
+        short[] rgIds = new short[num];
+        short[] colIds = new short[num];
+        long[] allocatedBytes = new long[2];
+        try (PixelsCacheReader reader = newReader())
+        {
+            PixelsCacheSlices slices = new PixelsCacheSlices(num);
+            for (int batched = 0; batched < 2; ++batched)
+            {
+                long hits = 0;
+                // warm up, then measure
+                for (int run = 0; run < 2; ++run)
+                {
+                    long allocatedBefore = getAllocatedBytes();
+                    long startNs = System.nanoTime();
+                    for (int round = 0; round < rounds; ++round)
+                    {
+                        for (int block = 0; block < NumBlocks; ++block)
+                        {
+                            int i = 0;
+                            for (short rg = 0; rg < NumRowGroups; ++rg)
+                            {
+                                for (short col = 0; col < NumColumns; ++col, ++i)
+                                {
+                                    blockIds[i] = block;
+                                    rgIds[i] = rg;
+                                    colIds[i] = col;
+                                }
+                            }
+                            if (batched == 1)
+                            {
+                                hits += reader.batchGet(blockIds, rgIds, colIds, num, slices);
+                            }
+                            else
+                            {
+                                for (i = 0; i < num; ++i)
+                                {
+                                    if (reader.get(blockIds[i], rgIds[i], colIds[i], true) != null)
+                                    {
+                                        hits++;
+                                    }
+                                }
+                            }
+                        }
+                    }
+                    long elapsedNs = System.nanoTime() - startNs;
+                    allocatedBytes[batched] = getAllocatedBytes() - allocatedBefore;
+                    if (run == 1)
+                    {
+                        long lookups = (long) rounds * NumBlocks * num;
+                        System.out.println((batched == 1 ? "batchGet: " : "get: ") + elapsedNs / lookups +
+                                "ns per lookup, " + allocatedBytes[batched] / lookups + " bytes allocated per lookup");
+                    }
+                }
+                assert hits == 2L * rounds * NumBlocks * num / 2;
+            }
+        }
+        if (allocatedBytes[0] > 0)
+        {
+            // the thread allocated bytes are supported by the JVM
+            assert allocatedBytes[1] * 10 < allocatedBytes[0];
+        }
+    }
+}
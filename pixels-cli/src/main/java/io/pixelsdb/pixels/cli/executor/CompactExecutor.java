@@ -31,6 +31,7 @@ import io.pixelsdb.pixels.common.physical.Status;
 import io.pixelsdb.pixels.common.physical.Storage;
 import io.pixelsdb.pixels.common.physical.StorageFactory;
 import io.pixelsdb.pixels.common.retina.RetinaService;
+import io.pixelsdb.pixels.common.transaction.TransService;
 import io.pixelsdb.pixels.common.utils.ConfigFactory;
 import io.pixelsdb.pixels.common.utils.DateUtil;
 import io.pixelsdb.pixels.core.compactor.CompactLayout;
@@ -102,6 +103,13 @@ public class CompactExecutor implements CommandExecutor
         Storage compactStorage = StorageFactory.Instance().getStorage(layout.getCompactPathUris()[0]);
         long blockSize = Long.parseLong(configFactory.getProperty("block.size"));
         short replication = Short.parseShort(configFactory.getProperty("block.replication"));
+        int maxInFlightReads = Integer.parseInt(configFactory.getProperty("compact.max.inflight.reads"));
+        /*
+         * The rows deleted at or before the safe gc timestamp are invisible to all the running and future queries,
+         * hence they can be purged from the compacted files.
+         */
+        long purgeTimestamp = Boolean.parseBoolean(configFactory.getProperty("compact.purge.deleted.rows")) ?
+                TransService.Instance().getSafeGcTimestamp() : -1L;
 
         // Issue #998: compact need to exclude empty files
         List<Status> statuses = orderStorage.listStatus(layout.getOrderedPathUris());
@@ -180,7 +188,9 @@ public class CompactExecutor implements CommandExecutor
                     .setBlockSize(blockSize)
                     .setReplication(replication)
                     .setBlockPadding(false)
-                    .setHasHiddenColumn(true);
+                    .setHasHiddenColumn(true)
+                    .setMaxInFlightReads(maxInFlightReads)
+                    .setPurgeTimestamp(purgeTimestamp);
 
             long threadStart = System.currentTimeMillis();
             compactExecutor.execute(() -> {
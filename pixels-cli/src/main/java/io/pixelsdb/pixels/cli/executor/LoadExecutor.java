@@ -19,7 +19,6 @@
  */
 package io.pixelsdb.pixels.cli.executor;
 
-import io.pixelsdb.pixels.cli.load.Consumer;
 import io.pixelsdb.pixels.cli.load.Parameters;
 import io.pixelsdb.pixels.cli.load.PixelsConsumer;
 import io.pixelsdb.pixels.common.exception.MetadataException;
@@ -32,6 +31,7 @@ import io.pixelsdb.pixels.common.physical.StorageFactory;
 import io.pixelsdb.pixels.common.retina.RetinaService;
 import io.pixelsdb.pixels.common.transaction.TransContext;
 import io.pixelsdb.pixels.common.transaction.TransService;
+import io.pixelsdb.pixels.common.utils.ConfigFactory;
 import io.pixelsdb.pixels.core.encoding.EncodingLevel;
 import net.sourceforge.argparse4j.inf.Namespace;
 
@@ -39,6 +39,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 
 /**
@@ -48,6 +50,8 @@ import java.util.concurrent.LinkedBlockingQueue;
 public class LoadExecutor implements CommandExecutor
 {
     private final RetinaService retinaService = RetinaService.Instance();
+    private long numLoadedRows = 0;
+    private long numLoadedBytes = 0;
 
     @Override
     public void execute(Namespace ns, String command) throws Exception
@@ -114,8 +118,12 @@ public class LoadExecutor implements CommandExecutor
         transService.commitTrans(context.getTransId(), false);
 
         long endTime = System.currentTimeMillis();
+        double elapsedSeconds = Math.max(endTime - startTime, 1) / 1000.0;
         System.out.println("Text files in '" + origin + "' are loaded by " + threadNum +
                 " threads in " + (endTime - startTime) / 1000.0 + "s.");
+        System.out.printf("%d rows (%.0f rows/s), %.2f MB (%.2f MB/s) are loaded.%n",
+                numLoadedRows, numLoadedRows / elapsedSeconds, numLoadedBytes / 1024.0 / 1024.0,
+                numLoadedBytes / 1024.0 / 1024.0 / elapsedSeconds);
     }
 
     /**
@@ -142,16 +150,24 @@ public class LoadExecutor implements CommandExecutor
         boolean res = false;
         if (success)
         {
-            Consumer[] consumers = new Consumer[concurrency];
+            PixelsConsumer[] consumers = new PixelsConsumer[concurrency];
+            // the chunks of the input files are parsed by the threads shared by the consumers
+            int parseThreadNum = Integer.parseInt(ConfigFactory.Instance().getProperty("load.parse.threads"));
+            if (parseThreadNum <= 0)
+            {
+                parseThreadNum = Runtime.getRuntime().availableProcessors();
+            }
+            ExecutorService parseService = Executors.newFixedThreadPool(parseThreadNum);
             try
             {
                 for (int i = 0; i < concurrency; i++)
                 {
-                    PixelsConsumer pixelsConsumer = new PixelsConsumer(inputFiles, parameters, loadedFiles, loadedPaths);
+                    PixelsConsumer pixelsConsumer = new PixelsConsumer(inputFiles, parameters, loadedFiles, loadedPaths,
+                            parseService);
                     consumers[i] = pixelsConsumer;
                     pixelsConsumer.start();
                 }
-                for (Consumer c : consumers)
+                for (PixelsConsumer c : consumers)
                 {
                     try
                     {
@@ -160,6 +176,8 @@ public class LoadExecutor implements CommandExecutor
                     {
                         throw new Exception("Consumer InterruptedException, " + e.getMessage());
                     }
+                    numLoadedRows += c.getNumLoadedRows();
+                    numLoadedBytes += c.getNumLoadedBytes();
                 }
                 res = true;
             } catch (Exception e)
@@ -171,6 +189,9 @@ public class LoadExecutor implements CommandExecutor
                 {
                     e1.printStackTrace();
                 }
+            } finally
+            {
+                parseService.shutdownNow();
             }
         } else
         {
@@ -20,6 +20,7 @@
 package io.pixelsdb.pixels.cli.load;
 
 import com.google.protobuf.ByteString;
+import io.pixelsdb.pixels.common.exception.IndexException;
 import io.pixelsdb.pixels.common.exception.MetadataException;
 import io.pixelsdb.pixels.common.index.IndexService;
 import io.pixelsdb.pixels.common.index.IndexServiceProvider;
@@ -33,23 +34,21 @@ import io.pixelsdb.pixels.common.physical.StorageFactory;
 import io.pixelsdb.pixels.common.utils.ConfigFactory;
 import io.pixelsdb.pixels.common.utils.DateUtil;
 import io.pixelsdb.pixels.core.PixelsWriter;
+import io.pixelsdb.pixels.core.PixelsProto;
 import io.pixelsdb.pixels.core.PixelsWriterImpl;
 import io.pixelsdb.pixels.core.TypeDescription;
-import io.pixelsdb.pixels.core.encoding.EncodingLevel;
-import io.pixelsdb.pixels.core.vector.ColumnVector;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
 import io.pixelsdb.pixels.index.IndexProto;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.ByteBuffer;
+import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Pattern;
 
 /**
  * @author: tao
@@ -65,15 +64,61 @@ public class PixelsConsumer extends Consumer
     private final ConcurrentLinkedQueue<Path> loadedPaths;
     private final List<File> tmpFiles = new ArrayList<>();
     private MetadataService metadataService;
+    /**
+     * The executor to parse the chunks of the input files, it is shared by the consumers.
+     */
+    private final ExecutorService parseService;
+    private long numLoadedRows = 0;
+    private long numLoadedBytes = 0;
+
+    // the settings of the pixels writers
+    private TypeDescription schema;
+    private int pixelStride;
+    private int rowGroupSize;
+    private int maxInFlightRowGroups;
+    private long blockSize;
+    private short replication;
+    private PixelsProto.CompressionKind compressionKind;
+    private List<Integer> bloomFilterColumnIds;
+    private double bloomFilterFpp;
+
+    // the state of the pixels file being written
+    private PixelsWriter pixelsWriter = null;
+    private Path currTargetPath = null;
+    private File currFile = null;
+    private int rowCounter = 0;
+    private int rgId = 0;
+    private int prevRgId = 0;
+    private int rgRowOffset = 0;
+    private final List<IndexProto.PrimaryIndexEntry> indexEntries = new ArrayList<>();
+    private IndexService indexService;
 
     public PixelsConsumer(BlockingQueue<String> queue, Parameters parameters,
-                          ConcurrentLinkedQueue<File> loadedFiles, ConcurrentLinkedQueue<Path> loadedPaths)
+                          ConcurrentLinkedQueue<File> loadedFiles, ConcurrentLinkedQueue<Path> loadedPaths,
+                          ExecutorService parseService)
     {
         this.queue = queue;
         this.parameters = parameters;
         this.loadedFiles = loadedFiles;
         this.loadedPaths = loadedPaths;
         this.metadataService = parameters.getMetadataService();
+        this.parseService = parseService;
+    }
+
+    /**
+     * @return the number of rows loaded by this consumer
+     */
+    public long getNumLoadedRows()
+    {
+        return numLoadedRows;
+    }
+
+    /**
+     * @return the number of bytes of the input files loaded by this consumer
+     */
+    public long getNumLoadedBytes()
+    {
+        return numLoadedBytes;
     }
 
     @Override
@@ -86,17 +131,11 @@ public class PixelsConsumer extends Consumer
         boolean isRunning = true;
         try
         {
-            final List<Path> targetPaths = parameters.getLoadingPaths();
             String schemaStr = parameters.getSchema();
             int[] orderMapping = parameters.getOrderMapping();
-            int maxRowNum = parameters.getMaxRowNum();
             String regex = parameters.getRegex();
-            EncodingLevel encodingLevel = parameters.getEncodingLevel();
-            boolean nullsPadding = parameters.isNullsPadding();
-            RowIdAllocator rowIdAllocator = parameters.getRowIdAllocator();
-            int[] pkMapping = parameters.getPkMapping();
             SinglePointIndex index = parameters.getIndex();
-            IndexService indexService = IndexServiceProvider.getService(IndexServiceProvider.ServiceMode.rpc);
+            indexService = IndexServiceProvider.getService(IndexServiceProvider.ServiceMode.rpc);
 
             if (regex.equals("\\s"))
             {
@@ -104,29 +143,37 @@ public class PixelsConsumer extends Consumer
             }
 
             ConfigFactory configFactory = ConfigFactory.Instance();
-            int pixelStride = Integer.parseInt(configFactory.getProperty("pixel.stride"));
-            int rowGroupSize = Integer.parseInt(configFactory.getProperty("row.group.size"));
-            long blockSize = Long.parseLong(configFactory.getProperty("block.size"));
-            short replication = Short.parseShort(configFactory.getProperty("block.replication"));
+            pixelStride = Integer.parseInt(configFactory.getProperty("pixel.stride"));
+            rowGroupSize = Integer.parseInt(configFactory.getProperty("row.group.size"));
+            maxInFlightRowGroups = Integer.parseInt(configFactory.getProperty("row.group.max.inflight"));
+            blockSize = Long.parseLong(configFactory.getProperty("block.size"));
+            replication = Short.parseShort(configFactory.getProperty("block.replication"));
+            compressionKind = PixelsProto.CompressionKind.valueOf(
+                    configFactory.getProperty("column.chunk.compression").toUpperCase());
+            int chunkSize = Integer.parseInt(configFactory.getProperty("load.text.chunk.size"));
+            int maxInFlightChunks = Integer.parseInt(configFactory.getProperty("load.max.inflight.chunks"));
 
-            TypeDescription schema = TypeDescription.fromString(schemaStr);
-            VectorizedRowBatch rowBatch = schema.createRowBatchWithHiddenColumn(pixelStride, TypeDescription.Mode.NONE);
-            ColumnVector[] columnVectors = rowBatch.cols;
-
-            BufferedReader reader;
-            String line;
+            schema = TypeDescription.fromString(schemaStr);
+            bloomFilterColumnIds = new ArrayList<>();
+            List<String> fieldNames = schema.getFieldNames();
+            for (String columnName : configFactory.getProperty("bloom.filter.columns").split(","))
+            {
+                columnName = columnName.trim();
+                for (int i = 0; i < fieldNames.size(); ++i)
+                {
+                    if (!columnName.isEmpty() && fieldNames.get(i).equalsIgnoreCase(columnName))
+                    {
+                        bloomFilterColumnIds.add(i);
+                        break;
+                    }
+                }
+            }
+            bloomFilterFpp = Double.parseDouble(configFactory.getProperty("bloom.filter.fpp"));
 
-            boolean initPixelsFile = true;
-            String targetFileName = null;
-            String targetFilePath;
-            PixelsWriter pixelsWriter = null;
-            Path currTargetPath = null;
-            int rowCounter = 0;
-            int rgId = 0;
-            int prevRgId = 0;
-            int rgRowOffset = 0;
-            File currFile = null;
-            List<IndexProto.PrimaryIndexEntry> indexEntries = new ArrayList<>();
+            // loaded rows use the same timestamp
+            TextChunkParser parser = new TextChunkParser(schema, orderMapping, regex, pixelStride,
+                    parameters.getTimestamp(), index != null ? parameters.getPkTypeDescription() : null,
+                    index != null ? parameters.getPkMapping() : null);
 
             while (isRunning)
             {
@@ -135,159 +182,45 @@ public class PixelsConsumer extends Consumer
                 {
                     count++;
                     Storage originStorage = StorageFactory.Instance().getStorage(originalFilePath);
-                    reader = new BufferedReader(new InputStreamReader(originStorage.open(originalFilePath)));
-
                     System.out.println("loading data from: " + originalFilePath);
 
-                    // loaded rows use the same timestamp
-                    long timestamp = parameters.getTimestamp();
-                    while ((line = reader.readLine()) != null)
+                    /*
+                     * The chunks of the input file are parsed by the parse service in parallel, while this thread
+                     * writes the parsed row batches into the pixels writer in the order of the chunks.
+                     */
+                    try (InputStream input = originStorage.open(originalFilePath))
                     {
-                        if(line.isEmpty())
-                        {
-                            System.err.println("thread: " + currentThread().getName() + " got empty line.");
-                            continue;
-                        }
-
-                        if (initPixelsFile)
+                        TextChunkParser.ByteCarry carry = new TextChunkParser.ByteCarry();
+                        Deque<CompletableFuture<TextChunkParser.ParsedChunk>> parsedChunks = new ArrayDeque<>();
+                        boolean endOfFile = false;
+                        while (true)
                         {
-                            // we create a new pixels file if we can read a next line from the source file
-
-                            // choose the target output directory using round-robin
-                            int targetPathId = GlobalTargetPathId.getAndIncrement() % targetPaths.size();
-                            currTargetPath = targetPaths.get(targetPathId);
-                            String targetDirPath = currTargetPath.getUri();
-                            Storage targetStorage = StorageFactory.Instance().getStorage(targetDirPath);
-
-                            if (!targetDirPath.endsWith("/"))
+                            while (!endOfFile && parsedChunks.size() < maxInFlightChunks)
                             {
-                                targetDirPath += "/";
-                            }
-                            targetFileName = DateUtil.getCurTime() + ".pxl";
-                            targetFilePath = targetDirPath + targetFileName;
-
-                            pixelsWriter = PixelsWriterImpl.newBuilder()
-                                    .setSchema(schema)
-                                    .setHasHiddenColumn(true)
-                                    .setPixelStride(pixelStride)
-                                    .setRowGroupSize(rowGroupSize)
-                                    .setStorage(targetStorage)
-                                    .setPath(targetFilePath)
-                                    .setBlockSize(blockSize)
-                                    .setReplication(replication)
-                                    .setBlockPadding(true)
-                                    .setEncodingLevel(encodingLevel)
-                                    .setNullsPadding(nullsPadding)
-                                    .setCompressionBlockSize(1)
-                                    .build();
-
-                            currFile = openTmpFile(targetFileName, currTargetPath);
-                            tmpFiles.add(currFile);
-                            rgId = pixelsWriter.getNumRowGroup();
-                            rgRowOffset = 0;
-                        }
-                        initPixelsFile = false;
-
-                        rowBatch.size++;
-                        rowCounter++;
-
-                        String[] colsInLine = line.split(Pattern.quote(regex));
-                        for (int i = 0; i < columnVectors.length - 1; i++)
-                        {
-                            try
-                            {
-                                int valueIdx = orderMapping[i];
-                                if (valueIdx >= colsInLine.length ||
-                                        colsInLine[valueIdx].isEmpty() ||
-                                        colsInLine[valueIdx].equalsIgnoreCase("\\N"))
-                                {
-                                    columnVectors[i].addNull();
-                                } else
+                                byte[] chunk = TextChunkParser.readChunk(input, chunkSize, carry);
+                                if (chunk == null)
                                 {
-                                    columnVectors[i].add(colsInLine[valueIdx]);
+                                    endOfFile = true;
+                                    break;
                                 }
+                                parsedChunks.add(CompletableFuture.supplyAsync(
+                                        () -> parser.parse(chunk), parseService));
                             }
-                            catch (Exception e)
-                            {
-                                System.out.println("line: " + line);
-                                e.printStackTrace();
-                            }
-                        }
-                        // add hidden timestamp column value
-                        columnVectors[columnVectors.length - 1].add(timestamp);
-
-                        if(index != null)
-                        {
-                            // TODO: Support Secondary Index
-                            int indexKeySize = 0;
-
-                            TypeDescription pkTypeDescription = parameters.getPkTypeDescription();
-                            List<byte[]> pkBytes = new LinkedList<>();
-                            for(int i = 0; i < pkMapping.length; i++)
-                            {
-                                int pkColumnId = pkMapping[i];
-                                byte[] bytes = pkTypeDescription.getChildren().get(i).convertSqlStringToByte(colsInLine[pkColumnId]);
-                                pkBytes.add(bytes);
-                                indexKeySize += bytes.length;
-                            }
-                            ByteBuffer indexKeyBuffer = ByteBuffer.allocate(indexKeySize);
-                            for(byte[] pkByte : pkBytes)
+                            if (parsedChunks.isEmpty())
                             {
-                                indexKeyBuffer.put(pkByte);
+                                break;
                             }
-
-                            IndexProto.PrimaryIndexEntry.Builder builder = IndexProto.PrimaryIndexEntry.newBuilder();
-                            builder.getIndexKeyBuilder()
-                                    .setTimestamp(parameters.getTimestamp())
-                                    .setKey(ByteString.copyFrom((ByteBuffer) indexKeyBuffer.rewind()))
-                                    .setIndexId(index.getId())
-                                    .setTableId(index.getTableId());
-                            builder.setRowId(rowIdAllocator.getRowId());
-                            builder.getRowLocationBuilder()
-                                    .setRgId(rgId)
-                                    .setFileId(currFile.getId())
-                                    .setRgRowOffset(rgRowOffset++);
-                            indexEntries.add(builder.build());
-                        }
-
-                        if (rowBatch.size >= rowBatch.getMaxSize())
-                        {
-                            pixelsWriter.addRowBatch(rowBatch);
-                            rowBatch.reset();
-                            rgId = pixelsWriter.getNumRowGroup();
-
-                            if(prevRgId != rgId)
-                            {
-                                rgRowOffset = 0;
-                                prevRgId = rgId;
-                            }
-
-                            if(index != null)
+                            TextChunkParser.ParsedChunk parsedChunk = parsedChunks.poll().join();
+                            for (int i = 0; i < parsedChunk.rowBatches.size(); ++i)
                             {
-                                indexService.putPrimaryIndexEntries(index.getTableId(), index.getId(), indexEntries);
-                                indexEntries.clear();
+                                VectorizedRowBatch rowBatch = parsedChunk.rowBatches.get(i);
+                                writeRowBatch(rowBatch, index,
+                                        parsedChunk.indexKeys != null ? parsedChunk.indexKeys.get(i) : null);
+                                parser.release(rowBatch);
                             }
-                        }
-
-                        if (rowCounter >= maxRowNum)
-                        {
-                            // finish writing the file
-                            if (rowBatch.size != 0)
-                            {
-                                pixelsWriter.addRowBatch(rowBatch);
-                                rowBatch.reset();
-                                if(index != null)
-                                {
-                                    indexService.putPrimaryIndexEntries(index.getTableId(), index.getId(), indexEntries);
-                                    indexEntries.clear();
-                                }
-                            }
-                            closeWriterAndAddFile(pixelsWriter, currFile, currTargetPath);
-                            rowCounter = 0;
-                            initPixelsFile = true;
+                            numLoadedBytes += parsedChunk.numBytes;
                         }
                     }
-                    reader.close();
                 } else
                 {
                     // no source file can be consumed within 2 seconds,
@@ -296,20 +229,11 @@ public class PixelsConsumer extends Consumer
                 }
             }
 
-            if (rowCounter > 0)
+            if (pixelsWriter != null)
             {
                 // last file to write
-                if (rowBatch.size != 0)
-                {
-                    pixelsWriter.addRowBatch(rowBatch);
-                    rowBatch.reset();
-                    if(index != null)
-                    {
-                        indexService.putPrimaryIndexEntries(index.getTableId(), index.getId(), indexEntries);
-                        indexEntries.clear();
-                    }
-                }
                 closeWriterAndAddFile(pixelsWriter, currFile, currTargetPath);
+                pixelsWriter = null;
             }
         } catch (InterruptedException e)
         {
@@ -341,6 +265,137 @@ public class PixelsConsumer extends Consumer
         }
     }
 
+    /**
+     * Write the parsed row batch into the pixels files. A new pixels file is created if there is no pixels file
+     * being written, and the pixels file is closed once it has maxRowNum rows.
+     * @param rowBatch the row batch, it is not modified by this method
+     * @param index the primary index, null if the primary index is not built
+     * @param indexKeys the index keys of the rows in the row batch, null if the primary index is not built
+     */
+    private void writeRowBatch(VectorizedRowBatch rowBatch, SinglePointIndex index, byte[][] indexKeys)
+            throws IOException, MetadataException, IndexException
+    {
+        int maxRowNum = parameters.getMaxRowNum();
+        RowIdAllocator rowIdAllocator = parameters.getRowIdAllocator();
+        for (int offset = 0; offset < rowBatch.size; )
+        {
+            if (pixelsWriter == null)
+            {
+                openWriter();
+            }
+            int numRows = Math.min(rowBatch.size - offset, maxRowNum - rowCounter);
+            VectorizedRowBatch rows = numRows == rowBatch.size ? rowBatch : sliceRowBatch(rowBatch, offset, numRows);
+
+            if (index != null)
+            {
+                for (int i = offset; i < offset + numRows; ++i)
+                {
+                    IndexProto.PrimaryIndexEntry.Builder builder = IndexProto.PrimaryIndexEntry.newBuilder();
+                    builder.getIndexKeyBuilder()
+                            .setTimestamp(parameters.getTimestamp())
+                            .setKey(ByteString.copyFrom(indexKeys[i]))
+                            .setIndexId(index.getId())
+                            .setTableId(index.getTableId());
+                    builder.setRowId(rowIdAllocator.getRowId());
+                    builder.getRowLocationBuilder()
+                            .setRgId(rgId)
+                            .setFileId(currFile.getId())
+                            .setRgRowOffset(rgRowOffset++);
+                    indexEntries.add(builder.build());
+                }
+            }
+
+            pixelsWriter.addRowBatch(rows);
+            rgId = pixelsWriter.getNumRowGroup();
+            if(prevRgId != rgId)
+            {
+                rgRowOffset = 0;
+                prevRgId = rgId;
+            }
+            if(index != null)
+            {
+                indexService.putPrimaryIndexEntries(index.getTableId(), index.getId(), indexEntries);
+                indexEntries.clear();
+            }
+            numLoadedRows += numRows;
+            rowCounter += numRows;
+            offset += numRows;
+
+            if (rowCounter >= maxRowNum)
+            {
+                // finish writing the file
+                closeWriterAndAddFile(pixelsWriter, currFile, currTargetPath);
+                pixelsWriter = null;
+                rowCounter = 0;
+            }
+        }
+    }
+
+    /**
+     * Copy the rows in [offset, offset + length) of the row batch into a new row batch.
+     * It is only called for the row batches that span two pixels files.
+     */
+    private VectorizedRowBatch sliceRowBatch(VectorizedRowBatch rowBatch, int offset, int length)
+    {
+        VectorizedRowBatch slice = schema.createRowBatchWithHiddenColumn(length, TypeDescription.Mode.NONE);
+        int[] selected = new int[length];
+        for (int i = 0; i < length; ++i)
+        {
+            selected[i] = offset + i;
+        }
+        for (int i = 0; i < slice.cols.length; ++i)
+        {
+            slice.cols[i].addSelected(selected, 0, length, rowBatch.cols[i]);
+        }
+        slice.size = length;
+        return slice;
+    }
+
+    /**
+     * Create a new pixels file in one of the loading paths.
+     */
+    private void openWriter() throws MetadataException
+    {
+        final List<Path> targetPaths = parameters.getLoadingPaths();
+        // choose the target output directory using round-robin
+        int targetPathId = GlobalTargetPathId.getAndIncrement() % targetPaths.size();
+        currTargetPath = targetPaths.get(targetPathId);
+        String targetDirPath = currTargetPath.getUri();
+        Storage targetStorage = StorageFactory.Instance().getStorage(targetDirPath);
+
+        if (!targetDirPath.endsWith("/"))
+        {
+            targetDirPath += "/";
+        }
+        String targetFileName = DateUtil.getCurTime() + ".pxl";
+        String targetFilePath = targetDirPath + targetFileName;
+
+        pixelsWriter = PixelsWriterImpl.newBuilder()
+                .setSchema(schema)
+                .setHasHiddenColumn(true)
+                .setPixelStride(pixelStride)
+                .setRowGroupSize(rowGroupSize)
+                .setStorage(targetStorage)
+                .setPath(targetFilePath)
+                .setBlockSize(blockSize)
+                .setReplication(replication)
+                .setBlockPadding(true)
+                .setEncodingLevel(parameters.getEncodingLevel())
+                .setNullsPadding(parameters.isNullsPadding())
+                .setCompressionKind(compressionKind)
+                .setCompressionBlockSize(1)
+                .setBloomFilterColumnIds(bloomFilterColumnIds)
+                .setBloomFilterFpp(bloomFilterFpp)
+                .setMaxInFlightRowGroups(maxInFlightRowGroups)
+                .build();
+
+        currFile = openTmpFile(targetFileName, currTargetPath);
+        tmpFiles.add(currFile);
+        rgId = pixelsWriter.getNumRowGroup();
+        prevRgId = rgId;
+        rgRowOffset = 0;
+    }
+
     /**
      * Close the pixels writer and add the file to loaded file queue.
      * Files in the loaded files queue will be updated in metadata.
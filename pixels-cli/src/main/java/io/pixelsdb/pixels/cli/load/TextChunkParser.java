@@ -0,0 +1,462 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.cli.load;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Parse the lines of delimited text files (e.g., CSV, TSV, or '|' separated TPC-H files) into row batches.
+ * The input file is read in large chunks that end at line boundaries, and the chunks can be parsed by multiple
+ * threads in parallel. The fields are parsed directly from the bytes in the chunk: integers and dates are parsed
+ * without intermediate strings, and strings reference the bytes in the chunk instead of being copied. Other types
+ * are parsed by {@link ColumnVector#add(String)} as before.
+ * <p/>
+ * The semantics are the same as splitting each line by the delimiter and adding the fields into the column vectors:
+ * the missing, empty, and '\N' fields are null, and the empty lines are skipped.
+ *
+ * @create 2026-10-17
+ */
+public class TextChunkParser
+{
+    private final TypeDescription schema;
+    private final int[] orderMapping;
+    private final byte[] delimiter;
+    private final int batchSize;
+    private final long timestamp;
+    /**
+     * The types and the field ids of the primary key columns, null if the primary index is not built.
+     */
+    private final TypeDescription pkTypeDescription;
+    private final int[] pkMapping;
+    /**
+     * The row batches that are returned by {@link #release(VectorizedRowBatch)} and can be reused.
+     */
+    private final ConcurrentLinkedQueue<VectorizedRowBatch> freeRowBatches = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param schema the schema of the row batches, the row batches have the hidden timestamp column
+     * @param orderMapping the id of the field in the line for each column
+     * @param delimiter the delimiter of the fields, it is a literal instead of a regex
+     * @param batchSize the max number of rows in a row batch
+     * @param timestamp the value of the hidden timestamp column
+     * @param pkTypeDescription the types of the primary key columns, null if the index keys are not needed
+     * @param pkMapping the id of the field in the line for each primary key column
+     */
+    public TextChunkParser(TypeDescription schema, int[] orderMapping, String delimiter, int batchSize,
+                           long timestamp, TypeDescription pkTypeDescription, int[] pkMapping)
+    {
+        this.schema = schema;
+        this.orderMapping = orderMapping;
+        this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+        if (this.delimiter.length == 0)
+        {
+            throw new IllegalArgumentException("delimiter is empty");
+        }
+        this.batchSize = batchSize;
+        this.timestamp = timestamp;
+        this.pkTypeDescription = pkTypeDescription;
+        this.pkMapping = pkMapping;
+    }
+
+    /**
+     * The rows parsed from a chunk.
+     */
+    public static class ParsedChunk
+    {
+        /**
+         * The parsed row batches, only the last one may be not full.
+         */
+        public final List<VectorizedRowBatch> rowBatches = new ArrayList<>();
+        /**
+         * The index keys of the rows in each row batch, null if the index keys are not needed.
+         */
+        public final List<byte[][]> indexKeys;
+        /**
+         * The number of bytes in the chunk.
+         */
+        public final int numBytes;
+
+        private ParsedChunk(boolean hasIndexKeys, int numBytes)
+        {
+            this.indexKeys = hasIndexKeys ? new ArrayList<>() : null;
+            this.numBytes = numBytes;
+        }
+    }
+
+    /**
+     * Read the next chunk from the input stream. The chunk ends at the end of the last complete line, and the
+     * bytes of the incomplete line are kept in the carry and put at the beginning of the next chunk.
+     * A new byte array is allocated for each chunk, as the string values in the parsed row batches reference it.
+     *
+     * @param input the input stream
+     * @param chunkSize the number of bytes to read in each chunk, the chunk grows if a line is longer than it
+     * @param carry the incomplete line in the previous chunk, it is updated to that of this chunk
+     * @return the chunk, its length is the number of bytes in it, or null if the input stream is exhausted
+     */
+    public static byte[] readChunk(InputStream input, int chunkSize, ByteCarry carry) throws IOException
+    {
+        byte[] chunk = new byte[Math.max(chunkSize, carry.length * 2)];
+        System.arraycopy(carry.bytes, 0, chunk, 0, carry.length);
+        int length = carry.length;
+        while (true)
+        {
+            int n = input.read(chunk, length, chunk.length - length);
+            if (n < 0)
+            {
+                // end of the input stream, the last line may not end with a line break
+                carry.length = 0;
+                return length > 0 ? Arrays.copyOf(chunk, length) : null;
+            }
+            length += n;
+            if (length < chunk.length)
+            {
+                continue;
+            }
+            int end = length;
+            while (end > 0 && chunk[end - 1] != '\n')
+            {
+                end--;
+            }
+            if (end == 0)
+            {
+                // the line is longer than the chunk
+                chunk = Arrays.copyOf(chunk, chunk.length * 2);
+                continue;
+            }
+            carry.set(chunk, end, length - end);
+            return end == chunk.length ? chunk : Arrays.copyOf(chunk, end);
+        }
+    }
+
+    /**
+     * The incomplete line at the end of a chunk.
+     */
+    public static class ByteCarry
+    {
+        private byte[] bytes = new byte[0];
+        private int length = 0;
+
+        private void set(byte[] src, int offset, int length)
+        {
+            if (this.bytes.length < length)
+            {
+                this.bytes = new byte[length];
+            }
+            System.arraycopy(src, offset, this.bytes, 0, length);
+            this.length = length;
+        }
+    }
+
+    /**
+     * Parse the lines in the chunk into row batches. This method can be called by multiple threads concurrently.
+     * The row batches should be released by {@link #release(VectorizedRowBatch)} after they are consumed.
+     */
+    public ParsedChunk parse(byte[] chunk)
+    {
+        ParsedChunk parsed = new ParsedChunk(this.pkMapping != null, chunk.length);
+        VectorizedRowBatch rowBatch = allocate();
+        byte[][] indexKeys = this.pkMapping != null ? new byte[this.batchSize][] : null;
+        ColumnVector[] columnVectors = rowBatch.cols;
+        int[] fieldStarts = new int[16], fieldEnds = new int[16];
+
+        for (int lineStart = 0; lineStart < chunk.length; )
+        {
+            int lineEnd = lineStart;
+            while (lineEnd < chunk.length && chunk[lineEnd] != '\n')
+            {
+                lineEnd++;
+            }
+            int nextLineStart = lineEnd + 1;
+            if (lineEnd > lineStart && chunk[lineEnd - 1] == '\r')
+            {
+                lineEnd--;
+            }
+            if (lineEnd == lineStart)
+            {
+                System.err.println("thread: " + Thread.currentThread().getName() + " got empty line.");
+                lineStart = nextLineStart;
+                continue;
+            }
+
+            // split the line into fields
+            int numFields = 0;
+            int fieldStart = lineStart;
+            for (int i = lineStart; i <= lineEnd; )
+            {
+                if (i == lineEnd || isDelimiter(chunk, i, lineEnd))
+                {
+                    if (numFields == fieldStarts.length)
+                    {
+                        fieldStarts = Arrays.copyOf(fieldStarts, numFields * 2);
+                        fieldEnds = Arrays.copyOf(fieldEnds, numFields * 2);
+                    }
+                    fieldStarts[numFields] = fieldStart;
+                    fieldEnds[numFields++] = i;
+                    i += this.delimiter.length;
+                    fieldStart = i;
+                }
+                else
+                {
+                    i++;
+                }
+            }
+
+            int row = rowBatch.size++;
+            for (int i = 0; i < columnVectors.length - 1; i++)
+            {
+                int valueIdx = this.orderMapping[i];
+                try
+                {
+                    if (valueIdx >= numFields || isNull(chunk, fieldStarts[valueIdx], fieldEnds[valueIdx]))
+                    {
+                        columnVectors[i].addNull();
+                    }
+                    else
+                    {
+                        addValue(columnVectors[i], row, chunk, fieldStarts[valueIdx], fieldEnds[valueIdx]);
+                    }
+                }
+                catch (Exception e)
+                {
+                    System.out.println("line: " + new String(chunk, lineStart, lineEnd - lineStart,
+                            StandardCharsets.UTF_8));
+                    e.printStackTrace();
+                    if (columnVectors[i].getWriteIndex() == row)
+                    {
+                        // keep the rows of the column vectors aligned
+                        columnVectors[i].addNull();
+                    }
+                }
+            }
+            // add hidden timestamp column value
+            ((LongColumnVector) columnVectors[columnVectors.length - 1]).add(this.timestamp);
+            if (indexKeys != null)
+            {
+                indexKeys[row] = getIndexKey(chunk, fieldStarts, fieldEnds, numFields);
+            }
+
+            if (rowBatch.isFull())
+            {
+                parsed.rowBatches.add(rowBatch);
+                if (indexKeys != null)
+                {
+                    parsed.indexKeys.add(indexKeys);
+                    indexKeys = new byte[this.batchSize][];
+                }
+                rowBatch = allocate();
+                columnVectors = rowBatch.cols;
+            }
+            lineStart = nextLineStart;
+        }
+
+        if (rowBatch.size > 0)
+        {
+            parsed.rowBatches.add(rowBatch);
+            if (indexKeys != null)
+            {
+                parsed.indexKeys.add(indexKeys);
+            }
+        }
+        else
+        {
+            release(rowBatch);
+        }
+        return parsed;
+    }
+
+    private VectorizedRowBatch allocate()
+    {
+        VectorizedRowBatch rowBatch = this.freeRowBatches.poll();
+        if (rowBatch == null)
+        {
+            rowBatch = this.schema.createRowBatchWithHiddenColumn(this.batchSize, TypeDescription.Mode.NONE);
+        }
+        return rowBatch;
+    }
+
+    /**
+     * Release the row batch after it is consumed, so that it can be reused by the parser.
+     */
+    public void release(VectorizedRowBatch rowBatch)
+    {
+        rowBatch.reset();
+        this.freeRowBatches.offer(rowBatch);
+    }
+
+    private boolean isDelimiter(byte[] chunk, int pos, int lineEnd)
+    {
+        if (chunk[pos] != this.delimiter[0])
+        {
+            return false;
+        }
+        if (pos + this.delimiter.length > lineEnd)
+        {
+            return false;
+        }
+        for (int i = 1; i < this.delimiter.length; ++i)
+        {
+            if (chunk[pos + i] != this.delimiter[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the field is empty or '\N' (case-insensitive)
+     */
+    private static boolean isNull(byte[] chunk, int start, int end)
+    {
+        return start == end ||
+                (end - start == 2 && chunk[start] == '\\' && (chunk[start + 1] == 'N' || chunk[start + 1] == 'n'));
+    }
+
+    private static void addValue(ColumnVector columnVector, int row, byte[] chunk, int start, int end)
+    {
+        if (columnVector instanceof BinaryColumnVector)
+        {
+            // the chunk is never modified after parsing, thus it is safe to reference it
+            ((BinaryColumnVector) columnVector).setRef(row, chunk, start, end - start);
+            return;
+        }
+        if (columnVector instanceof LongColumnVector && end - start <= 18)
+        {
+            long value = parseLong(chunk, start, end);
+            if (value != Long.MIN_VALUE)
+            {
+                ((LongColumnVector) columnVector).add(value);
+                return;
+            }
+        }
+        else if (columnVector instanceof IntColumnVector && end - start <= 9)
+        {
+            long value = parseLong(chunk, start, end);
+            if (value != Long.MIN_VALUE)
+            {
+                ((IntColumnVector) columnVector).add((int) value);
+                return;
+            }
+        }
+        else if (columnVector instanceof DateColumnVector && end - start == 10)
+        {
+            int day = parseDate(chunk, start);
+            if (day != Integer.MIN_VALUE)
+            {
+                ((DateColumnVector) columnVector).add(day);
+                return;
+            }
+        }
+        // the slow path for the other types and the values that are not in the common formats
+        columnVector.add(new String(chunk, start, end - start, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse the decimal integer of at most 18 digits (with an optional sign), which never overflows.
+     * @return the value, or Long.MIN_VALUE if the bytes are not a decimal integer
+     */
+    private static long parseLong(byte[] chunk, int start, int end)
+    {
+        boolean negative = false;
+        if (chunk[start] == '-' || chunk[start] == '+')
+        {
+            negative = chunk[start] == '-';
+            if (++start == end)
+            {
+                return Long.MIN_VALUE;
+            }
+        }
+        long value = 0;
+        for (int i = start; i < end; ++i)
+        {
+            int digit = chunk[i] - '0';
+            if (digit < 0 || digit > 9)
+            {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parse the date in the format of 'yyyy-MM-dd'.
+     * @return the days since the Unix epoch, or Integer.MIN_VALUE if the bytes are not in the format
+     */
+    private static int parseDate(byte[] chunk, int start)
+    {
+        int[] values = new int[3];
+        for (int i = 0, field = 0; i < 10; ++i)
+        {
+            if (i == 4 || i == 7)
+            {
+                if (chunk[start + i] != '-')
+                {
+                    return Integer.MIN_VALUE;
+                }
+                field++;
+                continue;
+            }
+            int digit = chunk[start + i] - '0';
+            if (digit < 0 || digit > 9)
+            {
+                return Integer.MIN_VALUE;
+            }
+            values[field] = values[field] * 10 + digit;
+        }
+        // throws DateTimeException for invalid dates, the same as LocalDate.parse
+        return (int) LocalDate.of(values[0], values[1], values[2]).toEpochDay();
+    }
+
+    private byte[] getIndexKey(byte[] chunk, int[] fieldStarts, int[] fieldEnds, int numFields)
+    {
+        byte[][] pkBytes = new byte[this.pkMapping.length][];
+        int indexKeySize = 0;
+        for (int i = 0; i < this.pkMapping.length; i++)
+        {
+            int pkColumnId = this.pkMapping[i];
+            if (pkColumnId >= numFields)
+            {
+                throw new IllegalArgumentException("primary key field " + pkColumnId + " is missing");
+            }
+            String value = new String(chunk, fieldStarts[pkColumnId],
+                    fieldEnds[pkColumnId] - fieldStarts[pkColumnId], StandardCharsets.UTF_8);
+            pkBytes[i] = this.pkTypeDescription.getChildren().get(i).convertSqlStringToByte(value);
+            indexKeySize += pkBytes[i].length;
+        }
+        byte[] indexKey = new byte[indexKeySize];
+        for (int i = 0, offset = 0; i < pkBytes.length; i++)
+        {
+            System.arraycopy(pkBytes[i], 0, indexKey, offset, pkBytes[i].length);
+            offset += pkBytes[i].length;
+        }
+        return indexKey;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.cli.load;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestTextChunkParser
+{
+    private static final TypeDescription SCHEMA = TypeDescription.fromString(
+            "struct<orderkey:bigint,quantity:int,shipdate:date,shipmode:varchar(10),comment:varchar(64)>");
+    private static final int[] ORDER_MAPPING = {0, 1, 2, 3, 4};
+    private static final int BATCH_SIZE = 1000;
+    private static final long TIMESTAMP = 100L;
+    private static final String[] SHIP_MODES = {"AIR", "MAIL", "SHIP", "TRUCK", "RAIL"};
+
+    /**
+     * @return the lines similar to TPC-H lineitem, with some null, empty, and missing fields and empty lines
+     */
+    private static byte[] generate(int numLines, String delimiter)
+    {
+        Random random = new Random(numLines);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < numLines; ++i)
+        {
+            builder.append(i % 101 == 0 ? "\\N" : Long.toString(random.nextInt(Integer.MAX_VALUE) * 7L))
+                    .append(delimiter).append(i % 53 == 0 ? "" : Integer.toString(random.nextInt(50) - 10))
+                    .append(delimiter).append(String.format("%04d-%02d-%02d",
+                            1992 + random.nextInt(7), 1 + random.nextInt(12), 1 + random.nextInt(28)))
+                    .append(delimiter).append(SHIP_MODES[random.nextInt(SHIP_MODES.length)])
+                    .append(delimiter).append("comment of line ").append(i).append(" na\u00efve");
+            if (i % 97 == 0)
+            {
+                // the trailing fields are missing
+                builder.append(delimiter);
+            }
+            builder.append(i % 89 == 0 ? "\r\n" : "\n");
+            if (i % 1009 == 0)
+            {
+                builder.append("\n");
+            }
+        }
+        // the last line does not end with a line break
+        builder.append("1").append(delimiter).append("2").append(delimiter).append("2000-01-01");
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse the lines by splitting the strings and adding the fields by {@link ColumnVector#add(String)},
+     * which is what the loader did before.
+     * @return the rows in string, one row per line
+     */
+    private static String parseByString(byte[] text, String delimiter) throws IOException
+    {
+        StringBuilder builder = new StringBuilder();
+        VectorizedRowBatch rowBatch = SCHEMA.createRowBatchWithHiddenColumn(BATCH_SIZE, TypeDescription.Mode.NONE);
+        ColumnVector[] columnVectors = rowBatch.cols;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(text), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null)
+        {
+            if (line.isEmpty())
+            {
+                continue;
+            }
+            rowBatch.size++;
+            String[] colsInLine = line.split(Pattern.quote(delimiter));
+            for (int i = 0; i < columnVectors.length - 1; i++)
+            {
+                int valueIdx = ORDER_MAPPING[i];
+                if (valueIdx >= colsInLine.length ||
+                        colsInLine[valueIdx].isEmpty() ||
+                        colsInLine[valueIdx].equalsIgnoreCase("\\N"))
+                {
+                    columnVectors[i].addNull();
+                } else
+                {
+                    columnVectors[i].add(colsInLine[valueIdx]);
+                }
+            }
+            columnVectors[columnVectors.length - 1].add(TIMESTAMP);
+            if (rowBatch.isFull())
+            {
+                builder.append(rowBatch).append('\n');
+                rowBatch.reset();
+            }
+        }
+        if (rowBatch.size > 0)
+        {
+            builder.append(rowBatch).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Parse the chunks of the text by the parser, the chunks are parsed by the executor if it is not null.
+     * @return the rows in string, one row per line, if toString is true
+     */
+    private static String parseByChunk(byte[] text, String delimiter, int chunkSize,
+                                       ExecutorService parseService, boolean toString) throws IOException
+    {
+        TextChunkParser parser = new TextChunkParser(SCHEMA, ORDER_MAPPING, delimiter, BATCH_SIZE,
+                TIMESTAMP, null, null);
+        StringBuilder builder = new StringBuilder();
+        InputStream input = new ByteArrayInputStream(text);
+        TextChunkParser.ByteCarry carry = new TextChunkParser.ByteCarry();
+        Deque<CompletableFuture<TextChunkParser.ParsedChunk>> parsedChunks = new ArrayDeque<>();
+        long numBytes = 0;
+        boolean endOfFile = false;
+        while (true)
+        {
+            while (!endOfFile && parsedChunks.size() < 8)
+            {
+                byte[] chunk = TextChunkParser.readChunk(input, chunkSize, carry);
+                if (chunk == null)
+                {
+                    endOfFile = true;
+                    break;
+                }
+                parsedChunks.add(parseService == null ? CompletableFuture.completedFuture(parser.parse(chunk)) :
+                        CompletableFuture.supplyAsync(() -> parser.parse(chunk), parseService));
+            }
+            if (parsedChunks.isEmpty())
+            {
+                break;
+            }
+            TextChunkParser.ParsedChunk parsedChunk = parsedChunks.poll().join();
+            for (VectorizedRowBatch rowBatch : parsedChunk.rowBatches)
+            {
+                if (toString)
+                {
+                    builder.append(rowBatch).append('\n');
+                }
+                parser.release(rowBatch);
+            }
+            numBytes += parsedChunk.numBytes;
+        }
+        assert numBytes == text.length;
+        return builder.toString();
+    }
+
+    @Test
+    public void testParse() throws IOException
+    {
+        for (String delimiter : new String[] {"|", "\t", "||"})
+        {
+            byte[] text = generate(5000, delimiter);
+            String expected = parseByString(text, delimiter);
+            // the small chunks split most of the lines, and the lines longer than the chunk grow the chunk
+            for (int chunkSize : new int[] {16, 1000, 1 << 20})
+            {
+                assert parseByChunk(text, delimiter, chunkSize, null, true).equals(expected);
+            }
+        }
+    }
+
+    /**
+     * Measure the rows/s and MB/s of parsing the text by strings and by the parser with 1 and 4 threads.
+     */
+    @Test
+    public void testThroughput() throws IOException
+    {
+        int numLines = 500000;
+        byte[] text = generate(numLines, "|");
+        ExecutorService parseService = Executors.newFixedThreadPool(4);
+        try
+        {
+            for (int round = 0; round < 2; ++round)
+            {
+                long startNs = System.nanoTime();
+                parseByString(text, "|");
+                printThroughput("string", numLines, text.length, System.nanoTime() - startNs);
+                startNs = System.nanoTime();
+                parseByChunk(text, "|", 4 * 1024 * 1024, null, false);
+                printThroughput("chunk parser, 1 thread", numLines, text.length, System.nanoTime() - startNs);
+                startNs = System.nanoTime();
+                parseByChunk(text, "|", 4 * 1024 * 1024, parseService, false);
+                printThroughput("chunk parser, 4 threads", numLines, text.length, System.nanoTime() - startNs);
+            }
+        }
+        finally
+        {
+            parseService.shutdownNow();
+        }
+    }
+
+    private static void printThroughput(String name, int numLines, int numBytes, long elapsedNs)
+    {
+        System.out.printf("%s: %.0f rows/s, %.2f MB/s%n", name, numLines * 1e9 / elapsedNs,
+                numBytes * 1e9 / 1024 / 1024 / elapsedNs);
+    }
+}
@@ -74,6 +74,45 @@ public class RowIdAllocator
         }
     }
 
+    /**
+     * get num contiguous unique rowIds
+     * @param num the number of rowIds, it should be positive
+     * @return the first rowId of the range [first, first + num)
+     * @throws IndexException
+     */
+    public long getRowIds(int num) throws IndexException
+    {
+        if (num <= 0)
+        {
+            throw new IllegalArgumentException("num must be positive.");
+        }
+        if (num > this.batchSize)
+        {
+            // allocate a dedicated range, the current batch is kept for the subsequent allocations
+            IndexProto.RowIdBatch newBatch = this.indexService.allocateRowIdBatch(this.tableId, num);
+            if (newBatch == null || newBatch.getLength() < num)
+            {
+                throw new IndexException("failed to get row id batch");
+            }
+            return newBatch.getRowIdStart();
+        }
+        this.lock.lock();
+        try
+        {
+            // the rest of the current batch is skipped if it is not enough, row ids only need to be unique
+            if (this.currentBatchStart == -1 || this.allocatedCountInBatch + num > this.currentBatchLength)
+            {
+                fetchNewBatch();
+            }
+            long firstRowId = this.currentBatchStart + this.allocatedCountInBatch;
+            this.allocatedCountInBatch += num;
+            return firstRowId;
+        } finally
+        {
+            this.lock.unlock();
+        }
+    }
+
     private void fetchNewBatch() throws IndexException
     {
         IndexProto.RowIdBatch newBatch = this.indexService.allocateRowIdBatch(
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The histogram of request latencies. Different from {@link ReadPerfHistogram} that collects the read costs
+ * reported to the metrics server, this histogram is thread safe and lock free, so that it can be updated by
+ * the I/O threads on every request and queried for percentiles on the fly (e.g., by the hedge policy).
+ * <p/>
+ * The latencies are recorded in microseconds into log-linear buckets: each power of two is divided into
+ * {@link #SUB_BUCKETS} sub-buckets, hence the relative error of the percentiles is within 1/{@link #SUB_BUCKETS}.
+ *
+ * @create 2026-10-17
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong count = new AtomicLong(0);
+    private final AtomicLong sumUs = new AtomicLong(0);
+    private final AtomicLong maxUs = new AtomicLong(0);
+
+    private static int bucketOf(long us)
+    {
+        if (us < SUB_BUCKETS)
+        {
+            return (int) us;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(us) - SUB_BUCKET_BITS;
+        int subBucket = (int) (us >>> exponent) - SUB_BUCKETS;
+        return (exponent + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the upper bound (inclusive) in microseconds of the bucket
+     */
+    private static long upperBoundOf(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+
+    public void record(long latencyNs)
+    {
+        long us = Math.max(0, latencyNs / 1000);
+        this.counts.incrementAndGet(bucketOf(us));
+        this.count.incrementAndGet();
+        this.sumUs.addAndGet(us);
+        long max;
+        while (us > (max = this.maxUs.get()) && !this.maxUs.compareAndSet(max, us));
+    }
+
+    public long getCount()
+    {
+        return this.count.get();
+    }
+
+    public double getMeanMs()
+    {
+        long n = this.count.get();
+        return n == 0 ? 0 : this.sumUs.get() / 1000.0 / n;
+    }
+
+    public double getMaxMs()
+    {
+        return this.maxUs.get() / 1000.0;
+    }
+
+    /**
+     * @param percentile the percentile in (0, 100]
+     * @return the latency in milliseconds that the given percentile of the recorded latencies do not exceed,
+     * or 0 if no latency is recorded
+     */
+    public double getPercentileMs(double percentile)
+    {
+        long n = this.count.get();
+        if (n == 0)
+        {
+            return 0;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long accumulated = 0;
+        for (int i = 0; i < NUM_BUCKETS; ++i)
+        {
+            accumulated += this.counts.get(i);
+            if (accumulated >= rank)
+            {
+                return Math.min(upperBoundOf(i), this.maxUs.get()) / 1000.0;
+            }
+        }
+        return getMaxMs();
+    }
+
+    public void clear()
+    {
+        for (int i = 0; i < NUM_BUCKETS; ++i)
+        {
+            this.counts.set(i, 0);
+        }
+        this.count.set(0);
+        this.sumUs.set(0);
+        this.maxUs.set(0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "count=" + getCount() + ", mean=" + getMeanMs() + "ms, p50=" + getPercentileMs(50) +
+                "ms, p90=" + getPercentileMs(90) + "ms, p99=" + getPercentileMs(99) + "ms, max=" + getMaxMs() + "ms";
+    }
+}
@@ -75,6 +75,53 @@ public interface PhysicalReader extends Closeable
         throw new UnsupportedOperationException("asynchronous read is not supported for " + getStorageScheme().name());
     }
 
+    /**
+     * readAsync with a deadline. If the read is not completed before the deadline, the returned future
+     * is completed exceptionally by a {@link java.util.concurrent.TimeoutException}. The default
+     * implementation ignores the deadline.
+     * @param offset
+     * @param length
+     * @param deadlineMs the deadline in milliseconds since epoch, no deadline if it is not positive
+     * @return
+     * @throws IOException
+     */
+    default CompletableFuture<ByteBuffer> readAsync(long offset, int length, long deadlineMs) throws IOException
+    {
+        return readAsync(offset, length);
+    }
+
+    /**
+     * @return true if this reader can read into the buffers borrowed from a {@link SizeClassedBuffers},
+     * i.e., {@link #readFully(byte[], int, int)} fills the caller-provided buffer without allocating a
+     * temporary one, and {@link #readAsync(long, int, long, SizeClassedBuffers)} is implemented if
+     * asynchronous read is supported.
+     */
+    default boolean supportsBufferPool()
+    {
+        return false;
+    }
+
+    /**
+     * readAsync with a deadline, the data is read into a buffer allocated from the buffer pool. The returned
+     * byte buffer wraps the allocated buffer from position 0 to length, and the caller should free the array
+     * of the byte buffer to the pool when the data is no longer used. Each attempt of the read (e.g., the hedge
+     * request) is read into its own buffer, so that a late attempt never writes into a buffer that has been freed.
+     * <p/>
+     * This method should only be called if {@link #supportsBufferPool()} returns true. The default
+     * implementation ignores the buffer pool.
+     * @param offset
+     * @param length
+     * @param deadlineMs the deadline in milliseconds since epoch, no deadline if it is not positive
+     * @param bufferPool the pool to allocate the buffer from
+     * @return
+     * @throws IOException
+     */
+    default CompletableFuture<ByteBuffer> readAsync(long offset, int length, long deadlineMs,
+                                                    SizeClassedBuffers bufferPool) throws IOException
+    {
+        return readAsync(offset, length, deadlineMs);
+    }
+
     /**
      * Read an eight-byte signed integer from the current offset using the specified byte order.
      * @param byteOrder the byte order
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.common.physical;
+
+import io.pixelsdb.pixels.common.utils.ConfigFactory;
+
+/**
+ * The process-wide pool of the buffers that the physical readers read column chunks into.
+ * The total size of the free buffers kept in the pool is bounded by read.buffer.pool.size,
+ * buffers freed beyond this bound are left to GC.
+ *
+ * @create 2026-10-17
+ */
+public class ReadBuffers extends SizeClassedBuffers
+{
+    private static final ReadBuffers instance = new ReadBuffers(
+            Long.parseLong(ConfigFactory.Instance().getProperty("read.buffer.pool.size")));
+
+    public static ReadBuffers Instance()
+    {
+        return instance;
+    }
+
+    private ReadBuffers(long capacity)
+    {
+        super(capacity);
+    }
+}
@@ -23,7 +23,9 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * The interface for the reading request schedulers.
@@ -49,12 +51,23 @@ public interface Scheduler
         public final long transId;
         public final long start;
         public final int length;
+        /**
+         * Whether the data of this request can be read into a buffer borrowed from the buffer pool of the batch.
+         * It should be false if the data may be referenced after the buffers of the batch are freed.
+         */
+        public final boolean pooled;
 
         public Request(long transId, long start, int length)
+        {
+            this(transId, start, length, false);
+        }
+
+        public Request(long transId, long start, int length, boolean pooled)
         {
             this.transId = transId;
             this.start = start;
             this.length = length;
+            this.pooled = pooled;
         }
 
         @Override
@@ -87,6 +100,18 @@ public interface Scheduler
         private int size;
         private List<Request> requests;
         private List<CompletableFuture<ByteBuffer>> futures;
+        /**
+         * The deadline in milliseconds since epoch of the requests in this batch, no deadline if it is not positive.
+         */
+        private long deadlineMs = 0;
+        /**
+         * The pool to borrow the buffers for the pooled requests from, null if the requests are not pooled.
+         */
+        private SizeClassedBuffers bufferPool = null;
+        /**
+         * The buffers borrowed from the buffer pool that the data of the requests are read into.
+         */
+        private Queue<byte[]> pooledBuffers = new ConcurrentLinkedQueue<>();
 
         public RequestBatch()
         {
@@ -116,6 +141,11 @@ public interface Scheduler
             return future;
         }
 
+        public CompletableFuture<ByteBuffer> add(long transId, long start, int length, boolean pooled)
+        {
+            return add(new Request(transId, start, length, pooled));
+        }
+
         public CompletableFuture<ByteBuffer> add(Request request)
         {
             CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
@@ -125,6 +155,80 @@ public interface Scheduler
             return future;
         }
 
+        /**
+         * Add a request with the future to be completed when the request is read.
+         * This is used by the schedulers to execute a part of a request batch.
+         */
+        public void add(Request request, CompletableFuture<ByteBuffer> future)
+        {
+            requests.add(request);
+            futures.add(future);
+            size++;
+        }
+
+        public long getDeadlineMs()
+        {
+            return deadlineMs;
+        }
+
+        /**
+         * Set the deadline of the requests in this batch. The schedulers pass the deadline to the physical
+         * reader, and the futures of the requests not read before the deadline are completed exceptionally.
+         * @param deadlineMs the deadline in milliseconds since epoch, no deadline if it is not positive
+         */
+        public void setDeadlineMs(long deadlineMs)
+        {
+            this.deadlineMs = deadlineMs;
+        }
+
+        public SizeClassedBuffers getBufferPool()
+        {
+            return bufferPool;
+        }
+
+        /**
+         * Set the buffer pool of this batch. If the physical reader supports buffer pools, the schedulers read
+         * the pooled requests into the buffers borrowed from this pool. The borrowed buffers are handed over to
+         * the owner of this batch by {@link #getPooledBuffers()}, and should be freed when the data is no longer used.
+         * @param bufferPool the buffer pool, null to read all the requests into newly allocated buffers
+         */
+        public void setBufferPool(SizeClassedBuffers bufferPool)
+        {
+            this.bufferPool = bufferPool;
+        }
+
+        /**
+         * Add a buffer borrowed from the buffer pool, this is called by the schedulers before the futures
+         * of the requests read into the buffer are completed.
+         * @param buffer the borrowed buffer
+         */
+        public void addPooledBuffer(byte[] buffer)
+        {
+            this.pooledBuffers.add(buffer);
+        }
+
+        /**
+         * @return the buffers borrowed from the buffer pool for the completed requests in this batch
+         */
+        public Queue<byte[]> getPooledBuffers()
+        {
+            return pooledBuffers;
+        }
+
+        /**
+         * Create an empty batch that shares the deadline, the buffer pool, and the pooled buffers
+         * with this batch. It is used by the schedulers to execute a part of this batch.
+         * @return the sub-batch
+         */
+        public RequestBatch subBatch()
+        {
+            RequestBatch sub = new RequestBatch();
+            sub.deadlineMs = this.deadlineMs;
+            sub.bufferPool = this.bufferPool;
+            sub.pooledBuffers = this.pooledBuffers;
+            return sub;
+        }
+
         public int size()
         {
             return size;
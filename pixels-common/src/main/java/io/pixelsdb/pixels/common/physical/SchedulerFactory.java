@@ -20,6 +20,7 @@
 package io.pixelsdb.pixels.common.physical;
 
 import io.pixelsdb.pixels.common.physical.scheduler.NoopScheduler;
+import io.pixelsdb.pixels.common.physical.scheduler.PrefetchScheduler;
 import io.pixelsdb.pixels.common.physical.scheduler.RateLimitedScheduler;
 import io.pixelsdb.pixels.common.physical.scheduler.SortMergeScheduler;
 import io.pixelsdb.pixels.common.utils.ConfigFactory;
@@ -57,6 +58,9 @@ public class SchedulerFactory
             case "ratelimited":
                 scheduler = RateLimitedScheduler.Instance();
                 break;
+            case "prefetch":
+                scheduler = PrefetchScheduler.Instance();
+                break;
             default:
                 throw new UnsupportedOperationException("The read request scheduler '" +
                         name + "' is not supported.");
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.common.physical;
+
+import javax.annotation.Nonnull;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A thread-safe pool of byte arrays grouped into power-of-two size classes from 4KB to 1GB.
+ * It generalizes {@link FixSizedBuffers} to buffers of variable lengths: {@link #allocate(int)}
+ * returns a buffer of the smallest size class that fits the length, and {@link #free(byte[])}
+ * returns it to the free list of its size class.
+ * <p/>
+ * The total size of the free buffers kept in the pool is bounded by the capacity, buffers freed
+ * beyond this bound are left to GC. A buffer that is never freed is simply garbage collected,
+ * hence forgetting to free a buffer does not leak memory, but freeing a buffer that is still
+ * in use corrupts the data of the next borrower.
+ *
+ * @create 2026-10-17
+ */
+public class SizeClassedBuffers
+{
+    private static final int MIN_CLASS_SHIFT = 12; // 4KB
+    private static final int MAX_CLASS_SHIFT = 30; // 1GB
+
+    private final long capacity;
+    @SuppressWarnings("unchecked")
+    private final Queue<byte[]>[] sizeClasses = new Queue[MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1];
+    private final AtomicLong pooledBytes = new AtomicLong(0);
+    private final AtomicLong borrowedBytes = new AtomicLong(0);
+    private final AtomicLong numHits = new AtomicLong(0);
+    private final AtomicLong numMisses = new AtomicLong(0);
+    private final AtomicLong numDropped = new AtomicLong(0);
+
+    /**
+     * @param capacity the maximum total size in bytes of the free buffers kept in the pool
+     */
+    public SizeClassedBuffers(long capacity)
+    {
+        checkArgument(capacity >= 0, "capacity must be non-negative");
+        this.capacity = capacity;
+        for (int i = 0; i < sizeClasses.length; ++i)
+        {
+            sizeClasses[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    private static int sizeClassOf(int length)
+    {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(length, 1) - 1);
+        return Math.max(shift, MIN_CLASS_SHIFT) - MIN_CLASS_SHIFT;
+    }
+
+    /**
+     * @param length the minimum length of the buffer
+     * @return a buffer whose length is the smallest power of two (at least 4KB) that is not less than length,
+     * or a buffer of exactly length bytes if length is larger than the largest size class
+     */
+    public byte[] allocate(int length)
+    {
+        checkArgument(length >= 0, "length must be non-negative");
+        if (length > (1 << MAX_CLASS_SHIFT))
+        {
+            numMisses.incrementAndGet();
+            return new byte[length];
+        }
+        int sizeClass = sizeClassOf(length);
+        byte[] buffer = sizeClasses[sizeClass].poll();
+        if (buffer == null)
+        {
+            numMisses.incrementAndGet();
+            buffer = new byte[1 << (MIN_CLASS_SHIFT + sizeClass)];
+        }
+        else
+        {
+            numHits.incrementAndGet();
+            pooledBytes.addAndGet(-buffer.length);
+        }
+        borrowedBytes.addAndGet(buffer.length);
+        return buffer;
+    }
+
+    /**
+     * Return the buffer allocated by {@link #allocate(int)} to the pool.
+     * The buffer must not be used by the caller after it is freed.
+     * @param buffer the buffer
+     */
+    public void free(@Nonnull byte[] buffer)
+    {
+        requireNonNull(buffer, "buffer cannot be null");
+        int length = buffer.length;
+        if (Integer.bitCount(length) != 1 || length < (1 << MIN_CLASS_SHIFT) || length > (1 << MAX_CLASS_SHIFT))
+        {
+            // not allocated from this pool
+            return;
+        }
+        borrowedBytes.addAndGet(-length);
+        if (pooledBytes.addAndGet(length) > capacity)
+        {
+            pooledBytes.addAndGet(-length);
+            numDropped.incrementAndGet();
+            return;
+        }
+        sizeClasses[sizeClassOf(length)].offer(buffer);
+    }
+
+    public long getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * @return the total number of bytes of the free buffers in the pool
+     */
+    public long getPooledBytes()
+    {
+        return pooledBytes.get();
+    }
+
+    /**
+     * @return the total number of bytes of the buffers allocated from the pool and not yet freed
+     */
+    public long getBorrowedBytes()
+    {
+        return borrowedBytes.get();
+    }
+
+    /**
+     * @return the number of allocations served by the free buffers in the pool
+     */
+    public long getNumHits()
+    {
+        return numHits.get();
+    }
+
+    /**
+     * @return the number of allocations that created new buffers
+     */
+    public long getNumMisses()
+    {
+        return numMisses.get();
+    }
+
+    /**
+     * @return the number of freed buffers that were left to GC because the pool was full
+     */
+    public long getNumDropped()
+    {
+        return numDropped.get();
+    }
+
+    /**
+     * @return the ratio of the allocations served by the free buffers in the pool
+     */
+    public double getHitRate()
+    {
+        long hits = numHits.get();
+        long total = hits + numMisses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Drop all the free buffers in the pool.
+     */
+    public void clear()
+    {
+        for (Queue<byte[]> sizeClass : sizeClasses)
+        {
+            byte[] buffer;
+            while ((buffer = sizeClass.poll()) != null)
+            {
+                pooledBytes.addAndGet(-buffer.length);
+            }
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "pooled=" + getPooledBytes() + "B, borrowed=" + getBorrowedBytes() + "B, capacity=" + capacity +
+                "B, hits=" + getNumHits() + ", misses=" + getNumMisses() + ", dropped=" + getNumDropped();
+    }
+}
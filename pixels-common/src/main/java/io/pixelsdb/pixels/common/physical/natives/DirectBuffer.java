@@ -198,8 +198,8 @@ public class DirectBuffer implements Closeable
     {
         if (!jvmManaged)
         {
-            // free the memory if this buffer is not managed by JVM
-            DirectIoLib.free(this.pointer);
+            // free (or return to the pool) the memory if this buffer is not managed by JVM
+            DirectIoLib.release(this.pointer, this.allocatedSize);
         }
         this.pointer = null;
         this.buffer = null;
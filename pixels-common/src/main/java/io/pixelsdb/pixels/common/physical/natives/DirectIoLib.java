@@ -35,6 +35,9 @@ import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static io.pixelsdb.pixels.common.utils.JvmUtils.javaVersion;
 
@@ -60,6 +63,14 @@ public class DirectIoLib
      * Whether direct io (i.e., o_direct) is enabled.
      */
     public static final boolean DirectIoEnabled;
+    /**
+     * The maximum number of bytes of the freed direct buffers kept for reuse, 0 to disable the pool.
+     */
+    private static final long BufferPoolSize;
+    private static final int MAX_POOLED_SHIFT = 30; // 1GB
+    @SuppressWarnings("unchecked")
+    private static final Queue<Pointer>[] pooledBuffers = new Queue[MAX_POOLED_SHIFT + 1];
+    private static final AtomicLong pooledBufferBytes = new AtomicLong(0);
 
     private static Method directByteBufferAddress = null;
     private static Constructor<?> directByteBufferRConstructor = null;
@@ -81,6 +92,11 @@ public class DirectIoLib
         FsBlockSize = Integer.parseInt(ConfigFactory.Instance().getProperty("localfs.block.size"));
         fsBlockNotMask = ~((long) FsBlockSize - 1);
         DirectIoEnabled = Boolean.parseBoolean(ConfigFactory.Instance().getProperty("localfs.enable.direct.io"));
+        BufferPoolSize = Long.parseLong(ConfigFactory.Instance().getProperty("localfs.direct.buffer.pool.size"));
+        for (int i = 0; i < pooledBuffers.length; ++i)
+        {
+            pooledBuffers[i] = new ConcurrentLinkedQueue<>();
+        }
         boolean compatible = false;
         try
         {
@@ -265,6 +281,9 @@ public class DirectIoLib
      * efficient than {@link ByteBuffer#allocateDirect(int)}, so we always use the former way. This also allows us to
      * manually free the allocated memory in time, which further improves the memory allocation performance.
      * </p>
+     * If localfs.direct.buffer.pool.size is positive, the allocated size is rounded up to a power of two, and the
+     * buffers closed by {@link DirectBuffer#close()} are kept in a pool (bounded by the pool size) for reuse.
+     * Hence, the aligned buffers for direct I/O are not allocated and freed for each read.
      * @param size the number of byte should be allocated at least, must be positive.
      * @return
      */
@@ -274,12 +293,22 @@ public class DirectIoLib
         {
             throw new IllegalArgumentException("size must be positive");
         }
-        // always allocate a multiple of block size.
+        // always allocate a multiple of block size, and allocate one additional block for read alignment.
+        int toAllocate = DirectIoEnabled ? blockEnd(size) + (size == 1 ? 0 : FsBlockSize) : size;
+        if (BufferPoolSize > 0 && toAllocate <= (1 << MAX_POOLED_SHIFT))
+        {
+            int sizeClass = 32 - Integer.numberOfLeadingZeros(toAllocate - 1);
+            toAllocate = 1 << sizeClass;
+            Pointer pooled = pooledBuffers[sizeClass].poll();
+            if (pooled != null)
+            {
+                pooledBufferBytes.addAndGet(-toAllocate);
+                return new DirectBuffer(pooled, size, toAllocate, false);
+            }
+        }
         if (DirectIoEnabled)
         {
             PointerByReference pointerToPointer = new PointerByReference();
-            // allocate one additional block for read alignment.
-            int toAllocate = blockEnd(size) + (size == 1 ? 0 : FsBlockSize);
             int ret = posix_memalign(pointerToPointer, FsBlockSize, toAllocate);
             if (ret != 0)
             {
@@ -288,13 +317,41 @@ public class DirectIoLib
             return new DirectBuffer(pointerToPointer.getValue(), size, toAllocate, false);
         } else
         {
-            Pointer pointer = malloc(size);
+            Pointer pointer = malloc(toAllocate);
             if (pointer == Pointer.NULL)
             {
                 throw new IOException("failed to allocate memory, error: " + getLastError());
             }
-            return new DirectBuffer(pointer, size, size, false);
+            return new DirectBuffer(pointer, size, toAllocate, false);
+        }
+    }
+
+    /**
+     * Release the memory of a buffer allocated by {@link #allocateBuffer(int)}. The memory is kept in the
+     * pool for reuse if the pool is enabled and not full, otherwise it is freed.
+     * @param pointer the pointer to the allocated memory
+     * @param allocatedSize the allocated size of the buffer
+     */
+    static void release(Pointer pointer, int allocatedSize)
+    {
+        if (BufferPoolSize > 0 && Integer.bitCount(allocatedSize) == 1 && allocatedSize <= (1 << MAX_POOLED_SHIFT))
+        {
+            if (pooledBufferBytes.addAndGet(allocatedSize) <= BufferPoolSize)
+            {
+                pooledBuffers[31 - Integer.numberOfLeadingZeros(allocatedSize)].offer(pointer);
+                return;
+            }
+            pooledBufferBytes.addAndGet(-allocatedSize);
         }
+        free(pointer);
+    }
+
+    /**
+     * @return the total number of bytes of the direct buffers kept in the pool for reuse
+     */
+    public static long getPooledBufferBytes()
+    {
+        return pooledBufferBytes.get();
     }
 
     /**
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.common.physical.scheduler;
+
+import io.pixelsdb.pixels.common.metrics.LatencyHistogram;
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.utils.ConfigFactory;
+import io.pixelsdb.pixels.common.utils.ShutdownHookManager;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The hedge policy for the asynchronous range reads from the object storage, where the latency of a small
+ * fraction of the requests is much higher than the others. If a request has not completed after the
+ * given percentile (read.request.hedge.percentile) of the observed latencies, a duplicate request is sent,
+ * the one finishes first is taken and the other one is canceled.
+ * <p/>
+ * The latencies are observed after read.request.hedge.min.samples requests have completed, before that or
+ * if hedging is disabled (read.request.hedge.enabled=false), the requests are not hedged but their latencies
+ * are still recorded. A request can also have a deadline, after which it is completed exceptionally by a
+ * {@link TimeoutException} and canceled. The hedge request is sent earlier if half of the time to the
+ * deadline is shorter than the percentile latency.
+ *
+ * @create 2026-10-17
+ */
+public class HedgePolicy
+{
+    private static final Map<Storage.Scheme, HedgePolicy> instances = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService timerService;
+
+    static
+    {
+        ThreadGroup timerThreadGroup = new ThreadGroup("pixels.hedge.timer");
+        timerThreadGroup.setMaxPriority(Thread.MAX_PRIORITY);
+        timerThreadGroup.setDaemon(true);
+        timerService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(timerThreadGroup, runnable);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            return thread;
+        });
+        ShutdownHookManager.Instance().registerShutdownHook(HedgePolicy.class, true, timerService::shutdownNow);
+    }
+
+    /**
+     * @param scheme the storage scheme
+     * @return the hedge policy of the storage, which is created using the configuration properties
+     */
+    public static HedgePolicy Instance(Storage.Scheme scheme)
+    {
+        return instances.computeIfAbsent(scheme, key -> {
+            ConfigFactory config = ConfigFactory.Instance();
+            return new HedgePolicy(Boolean.parseBoolean(config.getProperty("read.request.hedge.enabled")),
+                    Double.parseDouble(config.getProperty("read.request.hedge.percentile")),
+                    Long.parseLong(config.getProperty("read.request.hedge.min.delay.ms")),
+                    Integer.parseInt(config.getProperty("read.request.hedge.min.samples")));
+        });
+    }
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayMs;
+    private final int minSamples;
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private final AtomicLong numHedged = new AtomicLong(0);
+    private final AtomicLong numHedgeWins = new AtomicLong(0);
+    private final AtomicLong numDeadlineExceeded = new AtomicLong(0);
+
+    /**
+     * @param enabled whether to send the hedge requests
+     * @param percentile the percentile of the observed latencies, after which the hedge request is sent
+     * @param minDelayMs the minimum delay in milliseconds to send the hedge request
+     * @param minSamples the minimum number of observed latencies to send hedge requests
+     */
+    public HedgePolicy(boolean enabled, double percentile, long minDelayMs, int minSamples)
+    {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayMs = minDelayMs;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * Execute the request with hedging and deadline.
+     *
+     * @param request the supplier to send the request, it may be called twice if the request is hedged,
+     *                and the future it returns should abort the request when it is canceled
+     * @param deadlineMs the deadline (in milliseconds since epoch) of the request, no deadline if it is not positive
+     * @return the future of the response
+     */
+    public CompletableFuture<ByteBuffer> execute(Supplier<CompletableFuture<ByteBuffer>> request, long deadlineMs)
+    {
+        return execute(request, deadlineMs, null);
+    }
+
+    /**
+     * Execute the request with hedging and deadline.
+     *
+     * @param request the supplier to send the request, it may be called twice if the request is hedged,
+     *                and the future it returns should abort the request when it is canceled
+     * @param deadlineMs the deadline (in milliseconds since epoch) of the request, no deadline if it is not positive
+     * @param discard called with the response of a request that completes after the result is completed by the
+     *                other request or the deadline, e.g., to release the buffer of the response, can be null
+     * @return the future of the response
+     */
+    public CompletableFuture<ByteBuffer> execute(Supplier<CompletableFuture<ByteBuffer>> request, long deadlineMs,
+                                                 Consumer<ByteBuffer> discard)
+    {
+        long delayMs = Long.MAX_VALUE;
+        if (this.enabled && this.latencyHistogram.getCount() >= this.minSamples)
+        {
+            delayMs = Math.max(this.minDelayMs, (long) Math.ceil(this.latencyHistogram.getPercentileMs(this.percentile)));
+        }
+        if (deadlineMs <= 0 && delayMs == Long.MAX_VALUE)
+        {
+            // neither hedge nor deadline, only record the latency
+            long startNs = System.nanoTime();
+            return request.get().whenComplete((resp, err) ->
+            {
+                if (err == null)
+                {
+                    this.latencyHistogram.record(System.nanoTime() - startNs);
+                }
+            });
+        }
+
+        if (deadlineMs > 0 && this.enabled)
+        {
+            // hedge earlier if the deadline is close
+            long remainingMs = deadlineMs - System.currentTimeMillis();
+            delayMs = Math.min(delayMs, Math.max(this.minDelayMs, remainingMs / 2));
+        }
+        HedgedRequest hedged = new HedgedRequest(request, delayMs != Long.MAX_VALUE, discard);
+        hedged.send(false);
+        if (deadlineMs > 0)
+        {
+            ScheduledFuture<?> deadline = timerService.schedule(() ->
+            {
+                if (hedged.result.completeExceptionally(new TimeoutException(
+                        "request did not complete before the deadline")))
+                {
+                    this.numDeadlineExceeded.incrementAndGet();
+                    hedged.cancelAll();
+                }
+            }, Math.max(0, deadlineMs - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            hedged.result.whenComplete((resp, err) -> deadline.cancel(false));
+        }
+        if (hedged.hedgeable)
+        {
+            ScheduledFuture<?> hedge = timerService.schedule(hedged::hedge, delayMs, TimeUnit.MILLISECONDS);
+            hedged.result.whenComplete((resp, err) -> hedge.cancel(false));
+        }
+        return hedged.result;
+    }
+
+    public LatencyHistogram getLatencyHistogram()
+    {
+        return latencyHistogram;
+    }
+
+    /**
+     * @return the number of requests for which a hedge request was sent
+     */
+    public long getNumHedged()
+    {
+        return numHedged.get();
+    }
+
+    /**
+     * @return the number of requests that were completed by the hedge request
+     */
+    public long getNumHedgeWins()
+    {
+        return numHedgeWins.get();
+    }
+
+    public long getNumDeadlineExceeded()
+    {
+        return numDeadlineExceeded.get();
+    }
+
+    /**
+     * The primary request and the hedge request (if sent) of a read.
+     */
+    private class HedgedRequest
+    {
+        private final Supplier<CompletableFuture<ByteBuffer>> request;
+        private final boolean hedgeable;
+        private final Consumer<ByteBuffer> discard;
+        private final CompletableFuture<ByteBuffer> result = new CompletableFuture<>();
+        private final ConcurrentLinkedQueue<CompletableFuture<ByteBuffer>> sent = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger(0);
+        private final AtomicBoolean hedgeSent = new AtomicBoolean(false);
+
+        private HedgedRequest(Supplier<CompletableFuture<ByteBuffer>> request, boolean hedgeable,
+                              Consumer<ByteBuffer> discard)
+        {
+            this.request = request;
+            this.hedgeable = hedgeable;
+            this.discard = discard;
+        }
+
+        /**
+         * Send the hedge request if the result is not completed and the hedge request has not been sent.
+         */
+        private void hedge()
+        {
+            if (this.hedgeable && !this.result.isDone() && this.hedgeSent.compareAndSet(false, true))
+            {
+                numHedged.incrementAndGet();
+                send(true);
+            }
+        }
+
+        private void send(boolean isHedge)
+        {
+            long startNs = System.nanoTime();
+            this.pending.incrementAndGet();
+            CompletableFuture<ByteBuffer> future;
+            try
+            {
+                future = this.request.get();
+            }
+            catch (Throwable e)
+            {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            this.sent.add(future);
+            future.whenComplete((resp, err) ->
+            {
+                if (err == null)
+                {
+                    latencyHistogram.record(System.nanoTime() - startNs);
+                    if (this.result.complete(resp))
+                    {
+                        if (isHedge)
+                        {
+                            numHedgeWins.incrementAndGet();
+                        }
+                        cancelAll();
+                    }
+                    else if (this.discard != null)
+                    {
+                        // this request lost to the other one or the deadline
+                        this.discard.accept(resp);
+                    }
+                }
+                else if (this.pending.decrementAndGet() == 0)
+                {
+                    // all the sent requests failed, send the hedge request now if it has not been sent
+                    hedge();
+                    if (this.pending.get() == 0)
+                    {
+                        this.result.completeExceptionally(err);
+                    }
+                }
+            });
+            if (this.result.isDone())
+            {
+                // the result was completed before this request was sent
+                future.cancel(true);
+            }
+        }
+
+        private void cancelAll()
+        {
+            for (CompletableFuture<ByteBuffer> future : this.sent)
+            {
+                future.cancel(true);
+            }
+        }
+    }
+}
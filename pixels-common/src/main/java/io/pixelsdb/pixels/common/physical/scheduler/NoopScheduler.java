@@ -67,9 +67,13 @@ public class NoopScheduler implements Scheduler
                 CompletableFuture<ByteBuffer> future = futures.get(i);
                 Request request = requests.get(i);
                 String path = reader.getPath();
-                reader.readAsync(request.start, request.length).thenAccept(resp ->
+                reader.readAsync(request.start, request.length, batch.getDeadlineMs()).whenComplete((resp, err) ->
                 {
-                    if (resp != null)
+                    if (err != null)
+                    {
+                        future.completeExceptionally(err);
+                    }
+                    else if (resp != null)
                     {
                         future.complete(resp);
                     }
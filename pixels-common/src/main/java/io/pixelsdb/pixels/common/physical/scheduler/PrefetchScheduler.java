@@ -0,0 +1,300 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.common.physical.scheduler;
+
+import io.pixelsdb.pixels.common.physical.PhysicalReader;
+import io.pixelsdb.pixels.common.physical.Scheduler;
+import io.pixelsdb.pixels.common.utils.ConfigFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prefetch scheduler extends SortMergeScheduler with read-ahead. The owner of a physical reader
+ * (e.g., the record reader of the next file in a query split) can call {@link #prefetch} to issue
+ * the read requests in the background before the data is needed. When the same requests are later
+ * executed by {@link #executeBatch}, they are served by the prefetched data without issuing new reads.
+ * <p/>
+ * The bytes of the prefetched requests that are not yet consumed are bounded by a per-process memory
+ * budget (read.request.prefetch.memory.budget), requests exceeding the budget are not prefetched.
+ * The prefetched requests that are not consumed when their owner is closed should be dropped by
+ * {@link #cancel(Object)}, and they are counted as wasted bytes.
+ *
+ * @create 2026-10-17
+ */
+public class PrefetchScheduler extends SortMergeScheduler
+{
+    private static final class InstanceHolder
+    {
+        private static final PrefetchScheduler instance = new PrefetchScheduler();
+    }
+
+    public static Scheduler Instance()
+    {
+        return InstanceHolder.instance;
+    }
+
+    private static long MemoryBudget;
+
+    static
+    {
+        ConfigFactory.Instance().registerUpdateCallback("read.request.prefetch.memory.budget", value ->
+                MemoryBudget = Long.parseLong(value));
+        MemoryBudget = Long.parseLong(ConfigFactory.Instance().getProperty("read.request.prefetch.memory.budget"));
+    }
+
+    private final Map<PrefetchKey, Prefetched> prefetched = new ConcurrentHashMap<>();
+    /**
+     * The bytes of the prefetched requests that are not consumed or canceled.
+     */
+    private final AtomicLong prefetchedBytes = new AtomicLong(0);
+    private final AtomicLong hitRequests = new AtomicLong(0);
+    private final AtomicLong missRequests = new AtomicLong(0);
+    private final AtomicLong hitBytes = new AtomicLong(0);
+    private final AtomicLong wastedBytes = new AtomicLong(0);
+
+    protected PrefetchScheduler()
+    {
+        super();
+    }
+
+    /**
+     * Issue the read requests in the batch in the background. The futures in the batch are not completed
+     * by this method, the prefetched data is consumed by executing the same requests in {@link #executeBatch}.
+     * The requests are prefetched in the order of the batch until the memory budget is exhausted.
+     * Nothing is prefetched if the reader does not support asynchronous reads.
+     *
+     * @param reader the physical reader to read the requests
+     * @param batch the requests to prefetch
+     * @param transId the transaction id
+     * @param owner the owner of the prefetched requests, it is used to cancel the requests
+     * @return the number of bytes that are prefetched
+     * @throws IOException
+     */
+    public long prefetch(PhysicalReader reader, RequestBatch batch, long transId, Object owner) throws IOException
+    {
+        if (batch.size() <= 0 || !reader.supportsAsync())
+        {
+            return 0;
+        }
+        String path = reader.getPath();
+        RequestBatch admitted = new RequestBatch();
+        long bytes = 0;
+        for (Request request : batch.getRequests())
+        {
+            if (!reserve(request.length))
+            {
+                break;
+            }
+            PrefetchKey key = new PrefetchKey(path, request.start, request.length);
+            Prefetched value = new Prefetched(key, owner, new CompletableFuture<>());
+            if (this.prefetched.putIfAbsent(key, value) != null)
+            {
+                // the request has already been prefetched by other readers
+                this.prefetchedBytes.addAndGet(-request.length);
+                continue;
+            }
+            admitted.add(request, value.future);
+            bytes += request.length;
+        }
+        if (admitted.size() > 0)
+        {
+            super.executeBatch(reader, admitted, transId);
+        }
+        return bytes;
+    }
+
+    private boolean reserve(int length)
+    {
+        long current;
+        do
+        {
+            current = this.prefetchedBytes.get();
+            if (current + length > MemoryBudget)
+            {
+                return false;
+            }
+        } while (!this.prefetchedBytes.compareAndSet(current, current + length));
+        return true;
+    }
+
+    /**
+     * Drop the prefetched requests of the owner that have not been consumed.
+     * The data of these requests is counted as wasted bytes.
+     *
+     * @param owner the owner of the prefetched requests
+     */
+    public void cancel(Object owner)
+    {
+        Iterator<Prefetched> iterator = this.prefetched.values().iterator();
+        while (iterator.hasNext())
+        {
+            Prefetched value = iterator.next();
+            if (value.owner == owner && this.prefetched.remove(value.key, value))
+            {
+                this.prefetchedBytes.addAndGet(-value.length);
+                this.wastedBytes.addAndGet(value.length);
+            }
+        }
+    }
+
+    /**
+     * Execute a batch of read requests. The requests that have been prefetched are completed by
+     * the prefetched data, and the others are sorted, merged, and read as in SortMergeScheduler.
+     */
+    @Override
+    public void executeBatch(PhysicalReader reader, RequestBatch batch, long transId) throws IOException
+    {
+        if (batch.size() <= 0)
+        {
+            return;
+        }
+        String path = reader.getPath();
+        List<Request> requests = batch.getRequests();
+        List<CompletableFuture<ByteBuffer>> futures = batch.getFutures();
+        RequestBatch missed = batch.subBatch();
+        for (int i = 0; i < batch.size(); ++i)
+        {
+            Request request = requests.get(i);
+            CompletableFuture<ByteBuffer> future = futures.get(i);
+            Prefetched value = this.prefetched.remove(new PrefetchKey(path, request.start, request.length));
+            if (value == null)
+            {
+                this.missRequests.incrementAndGet();
+                missed.add(request, future);
+                continue;
+            }
+            // the data is handed over to the caller, release the budget
+            this.prefetchedBytes.addAndGet(-value.length);
+            this.hitRequests.incrementAndGet();
+            this.hitBytes.addAndGet(value.length);
+            value.future.whenComplete((resp, e) ->
+            {
+                if (e != null)
+                {
+                    future.completeExceptionally(e);
+                }
+                else
+                {
+                    future.complete(resp);
+                }
+            });
+        }
+        if (missed.size() > 0)
+        {
+            super.executeBatch(reader, missed, transId);
+        }
+    }
+
+    /**
+     * @return the ratio of the executed requests that are served by the prefetched data
+     */
+    public double getHitRate()
+    {
+        long hits = this.hitRequests.get();
+        long total = hits + this.missRequests.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public long getHitRequests()
+    {
+        return this.hitRequests.get();
+    }
+
+    public long getMissRequests()
+    {
+        return this.missRequests.get();
+    }
+
+    public long getHitBytes()
+    {
+        return this.hitBytes.get();
+    }
+
+    /**
+     * @return the bytes of the prefetched requests that were canceled before being consumed
+     */
+    public long getWastedBytes()
+    {
+        return this.wastedBytes.get();
+    }
+
+    /**
+     * @return the bytes of the prefetched requests that are neither consumed nor canceled
+     */
+    public long getPrefetchedBytes()
+    {
+        return this.prefetchedBytes.get();
+    }
+
+    private static class PrefetchKey
+    {
+        private final String path;
+        private final long start;
+        private final int length;
+
+        private PrefetchKey(String path, long start, int length)
+        {
+            this.path = path;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, start, length);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (obj instanceof PrefetchKey)
+            {
+                PrefetchKey k = (PrefetchKey) obj;
+                return this.start == k.start && this.length == k.length && this.path.equals(k.path);
+            }
+            return false;
+        }
+    }
+
+    private static class Prefetched
+    {
+        private final PrefetchKey key;
+        private final Object owner;
+        private final int length;
+        private final CompletableFuture<ByteBuffer> future;
+
+        private Prefetched(PrefetchKey key, Object owner, CompletableFuture<ByteBuffer> future)
+        {
+            this.key = key;
+            this.owner = owner;
+            this.length = key.length;
+            this.future = future;
+        }
+    }
+}
@@ -28,7 +28,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Random;
 
@@ -133,34 +132,14 @@ public class RateLimitedScheduler extends SortMergeScheduler
 
             for (MergedRequest merged : mergedRequests)
             {
-                String path = reader.getPath();
-                merged.startTimeMs = System.currentTimeMillis();
-                reader.readAsync(merged.getStart(), merged.getLength()).thenAccept(resp ->
-                {
-                    if (resp != null)
-                    {
-                        merged.completeTimeMs = System.currentTimeMillis();
-                        merged.complete(resp);
-                    }
-                    else
-                    {
-                        logger.error("Asynchronous read from path '" + path + "' got null response, start=" +
-                                merged.getStart() + ", length=" + merged.getLength());
-                    }
-                });
-                if (enableRetry)
-                {
-                    this.retryPolicy.monitor(new MergedExecutableRequest(merged, reader));
-                }
+                readAsync(reader, merged, batch);
             }
         }
         else
         {
             for (MergedRequest merged : mergedRequests)
             {
-                reader.seek(merged.getStart());
-                ByteBuffer buffer = reader.readFully(merged.getLength());
-                merged.complete(buffer);
+                read(reader, merged, batch);
             }
         }
     }
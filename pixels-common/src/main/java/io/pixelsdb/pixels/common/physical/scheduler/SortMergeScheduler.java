@@ -21,6 +21,7 @@ package io.pixelsdb.pixels.common.physical.scheduler;
 
 import io.pixelsdb.pixels.common.physical.PhysicalReader;
 import io.pixelsdb.pixels.common.physical.Scheduler;
+import io.pixelsdb.pixels.common.physical.SizeClassedBuffers;
 import io.pixelsdb.pixels.common.transaction.TransContextCache;
 import io.pixelsdb.pixels.common.utils.ConfigFactory;
 import org.apache.logging.log4j.LogManager;
@@ -32,6 +33,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * SortMerge scheduler firstly sorts the requests in the batch by the start offset,
@@ -130,35 +134,113 @@ public class SortMergeScheduler implements Scheduler
         {
             for (MergedRequest merged : mergedRequests)
             {
-                String path = reader.getPath();
-                merged.startTimeMs = System.currentTimeMillis();
-                reader.readAsync(merged.start, merged.getLength()).thenAccept(resp ->
-                {
-                    if (resp != null)
-                    {
-                        merged.completeTimeMs = System.currentTimeMillis();
-                        merged.complete(resp);
-                    }
-                    else
-                    {
-                        logger.error("Asynchronous read from path '" + path + "' got null response, start=" +
-                                merged.getStart() + ", length=" + merged.getLength());
-                    }
-                });
-                if (enableRetry)
-                {
-                    this.retryPolicy.monitor(new MergedExecutableRequest(merged, reader));
-                }
+                readAsync(reader, merged, batch);
             }
         }
         else
         {
             for (MergedRequest merged : mergedRequests)
             {
-                reader.seek(merged.getStart());
-                ByteBuffer buffer = reader.readFully(merged.getLength());
-                merged.complete(buffer);
+                read(reader, merged, batch);
+            }
+        }
+    }
+
+    /**
+     * @return true if the merged request can be read into a buffer borrowed from the buffer pool of the batch
+     */
+    protected static boolean usePool(PhysicalReader reader, MergedRequest merged, RequestBatch batch)
+    {
+        return merged.pooled && batch.getBufferPool() != null && reader.supportsBufferPool();
+    }
+
+    /**
+     * Read the merged request synchronously. If the request is pooled, it is read into a buffer borrowed
+     * from the buffer pool of the batch, and the buffer is added into the pooled buffers of the batch.
+     * @param reader the physical reader
+     * @param merged the merged request
+     * @param batch the request batch that the merged request belongs to
+     * @throws IOException
+     */
+    protected void read(PhysicalReader reader, MergedRequest merged, RequestBatch batch) throws IOException
+    {
+        reader.seek(merged.getStart());
+        if (usePool(reader, merged, batch))
+        {
+            SizeClassedBuffers bufferPool = batch.getBufferPool();
+            byte[] buffer = bufferPool.allocate(merged.getLength());
+            try
+            {
+                reader.readFully(buffer, 0, merged.getLength());
+            }
+            catch (IOException e)
+            {
+                bufferPool.free(buffer);
+                throw e;
+            }
+            merged.completePooled(ByteBuffer.wrap(buffer, 0, merged.getLength()), batch);
+        }
+        else
+        {
+            merged.complete(reader.readFully(merged.getLength()));
+        }
+    }
+
+    /**
+     * Read the merged request asynchronously and monitor it by the retry policy if retry is enabled.
+     * If the read is not completed before the deadline, the futures of the merged request are completed
+     * exceptionally and the request is not retried. If the request is pooled, it is read into a buffer
+     * borrowed from the buffer pool of the batch.
+     * @param reader the physical reader
+     * @param merged the merged request
+     * @param batch the request batch that the merged request belongs to
+     * @throws IOException
+     */
+    protected void readAsync(PhysicalReader reader, MergedRequest merged, RequestBatch batch) throws IOException
+    {
+        String path = reader.getPath();
+        boolean usePool = usePool(reader, merged, batch);
+        merged.startTimeMs = System.currentTimeMillis();
+        CompletableFuture<ByteBuffer> future = usePool ?
+                reader.readAsync(merged.start, merged.getLength(), batch.getDeadlineMs(), batch.getBufferPool()) :
+                reader.readAsync(merged.start, merged.getLength(), batch.getDeadlineMs());
+        future.whenComplete((resp, err) ->
+        {
+            if (err != null)
+            {
+                Throwable cause = err instanceof CompletionException ? err.getCause() : err;
+                if (cause instanceof TimeoutException)
+                {
+                    merged.completeTimeMs = System.currentTimeMillis();
+                    merged.completeExceptionally(cause);
+                }
+                else
+                {
+                    logger.error("Asynchronous read from path '" + path + "' failed, start=" +
+                            merged.getStart() + ", length=" + merged.getLength(), err);
+                }
+            }
+            else if (resp != null)
+            {
+                merged.completeTimeMs = System.currentTimeMillis();
+                if (usePool)
+                {
+                    merged.completePooled(resp, batch);
+                }
+                else
+                {
+                    merged.complete(resp);
+                }
             }
+            else
+            {
+                logger.error("Asynchronous read from path '" + path + "' got null response, start=" +
+                        merged.getStart() + ", length=" + merged.getLength());
+            }
+        });
+        if (enableRetry)
+        {
+            this.retryPolicy.monitor(new MergedExecutableRequest(merged, reader));
         }
     }
 
@@ -196,6 +278,15 @@ public class SortMergeScheduler implements Scheduler
          */
         private final List<Integer> lengths;
         private final List<CompletableFuture<ByteBuffer>> futures;
+        /**
+         * Whether all the sub-requests are pooled.
+         */
+        private boolean pooled;
+        /**
+         * Whether the futures have been completed, the response of a late read (e.g., the origin read
+         * of a retried request) is dropped.
+         */
+        private final AtomicBoolean completed = new AtomicBoolean(false);
         // fields used by the retry policy.
         protected volatile long startTimeMs = -1;
         protected volatile long completeTimeMs = -1;
@@ -214,6 +305,7 @@ public class SortMergeScheduler implements Scheduler
             this.length = first.request.length;
             this.futures.add(first.future);
             this.size = 1;
+            this.pooled = first.request.pooled;
         }
 
         public MergedRequest merge(RequestFuture curr)
@@ -235,6 +327,7 @@ public class SortMergeScheduler implements Scheduler
                 this.end = curr.request.start + curr.request.length;
                 this.futures.add(curr.future);
                 this.size ++;
+                this.pooled &= curr.request.pooled;
                 return this;
             }
             return new MergedRequest(curr);
@@ -268,11 +361,46 @@ public class SortMergeScheduler implements Scheduler
             return size;
         }
 
+        public boolean isPooled()
+        {
+            return pooled;
+        }
+
         /**
          * When the data has been read, complete all the futures.
          * @param buffer the data that has been read.
+         * @return false if the futures have already been completed and the buffer is dropped.
          */
-        public void complete(ByteBuffer buffer)
+        public boolean complete(ByteBuffer buffer)
+        {
+            if (!this.completed.compareAndSet(false, true))
+            {
+                return false;
+            }
+            completeFutures(buffer);
+            return true;
+        }
+
+        /**
+         * When the data has been read into a buffer borrowed from the buffer pool of the batch, add the buffer
+         * into the pooled buffers of the batch and complete all the futures. If the futures have already been
+         * completed, the buffer is not used by anyone and is freed to the pool immediately.
+         * @param buffer the data that has been read, it wraps the borrowed buffer.
+         * @param batch the request batch that this merged request belongs to.
+         */
+        public void completePooled(ByteBuffer buffer, RequestBatch batch)
+        {
+            if (!this.completed.compareAndSet(false, true))
+            {
+                batch.getBufferPool().free(buffer.array());
+                return;
+            }
+            // hand over the buffer before completing the futures, so that the owner of the batch sees it
+            batch.addPooledBuffer(buffer.array());
+            completeFutures(buffer);
+        }
+
+        private void completeFutures(ByteBuffer buffer)
         {
             /**
              * Issue #374:
@@ -291,6 +419,22 @@ public class SortMergeScheduler implements Scheduler
                 futures.get(i).complete(buffer.slice());
             }
         }
+
+        /**
+         * When the read has failed, complete all the futures exceptionally.
+         * @param cause the cause of the failure.
+         */
+        public void completeExceptionally(Throwable cause)
+        {
+            if (!this.completed.compareAndSet(false, true))
+            {
+                return;
+            }
+            for (CompletableFuture<ByteBuffer> future : futures)
+            {
+                future.completeExceptionally(cause);
+            }
+        }
     }
 
     /**
@@ -209,6 +209,36 @@ public class RetinaService
         return true;
     }
 
+    /**
+     * Insert a batch of rows into a table. The rows are added into the writer buffer of the table in one step,
+     * which is much cheaper than inserting them one by one.
+     * @return the row ids of the inserted rows, in the same order as insertData
+     */
+    public long[] insertRecords(String schemaName, String tableName, long primaryIndexId,
+                                List<RetinaProto.InsertData> insertData, long timestamp) throws RetinaException
+    {
+        String token = UUID.randomUUID().toString();
+        RetinaProto.InsertRecordsRequest request = RetinaProto.InsertRecordsRequest.newBuilder()
+                .setHeader(RetinaProto.RequestHeader.newBuilder().setToken(token).build())
+                .setSchemaName(schemaName)
+                .setTableName(tableName)
+                .setPrimaryIndexId(primaryIndexId)
+                .addAllInsertData(insertData)
+                .setTimestamp(timestamp)
+                .build();
+        RetinaProto.InsertRecordsResponse response = this.stub.insertRecords(request);
+        if (response.getHeader().getErrorCode() != 0)
+        {
+            throw new RetinaException("failed to insert records: " + response.getHeader().getErrorCode()
+                    + " " + response.getHeader().getErrorMsg());
+        }
+        if (!response.getHeader().getToken().equals(token))
+        {
+            throw new RetinaException("response token does not match.");
+        }
+        return response.getRowIdsList().stream().mapToLong(Long::longValue).toArray();
+    }
+
     public static class StreamHandler implements AutoCloseable
     {
         private final Logger logger = LogManager.getLogger(StreamHandler.class);
@@ -383,6 +413,45 @@ public class RetinaService
         return visibilityBitmaps;
     }
 
+    /**
+     * Query the visibility bitmaps of the row groups in multiple files at the same timestamp in one request.
+     * @param fileIds the file ids of the row groups
+     * @param rgIds the row group ids, in the same order as fileIds
+     * @param timestamp the timestamp of the query
+     * @return the visibility bitmaps in the same order as the row groups, null for the row group of which the
+     * visibility does not exist in retina
+     */
+    public long[][] queryVisibility(long[] fileIds, int[] rgIds, long timestamp) throws RetinaException
+    {
+        String token = UUID.randomUUID().toString();
+        RetinaProto.QueryVisibilitiesRequest request = RetinaProto.QueryVisibilitiesRequest.newBuilder()
+                .setHeader(RetinaProto.RequestHeader.newBuilder().setToken(token).build())
+                .addAllFileIds(Arrays.stream(fileIds).boxed().collect(Collectors.toList()))
+                .addAllRgIds(Arrays.stream(rgIds).boxed().collect(Collectors.toList()))
+                .setTimestamp(timestamp)
+                .build();
+        RetinaProto.QueryVisibilitiesResponse response = this.stub.queryVisibilities(request);
+        if (response.getHeader().getErrorCode() != 0)
+        {
+            throw new RetinaException("failed to query visibilities: " + response.getHeader().getErrorCode()
+                    + " " + response.getHeader().getErrorMsg());
+        }
+        if (!response.getHeader().getToken().equals(token))
+        {
+            throw new RetinaException("response token does not match.");
+        }
+        long[][] visibilityBitmaps = new long[rgIds.length][];
+        for (int i = 0; i < response.getBitmapsCount(); i++)
+        {
+            RetinaProto.VisibilityBitmap bitmap = response.getBitmaps(i);
+            if (bitmap.getBitmapCount() > 0)
+            {
+                visibilityBitmaps[i] = bitmap.getBitmapList().stream().mapToLong(Long::longValue).toArray();
+            }
+        }
+        return visibilityBitmaps;
+    }
+
     public boolean reclaimVisibility(long fileId, int[] rgIds, long timestamp) throws RetinaException
     {
         String token = UUID.randomUUID().toString();
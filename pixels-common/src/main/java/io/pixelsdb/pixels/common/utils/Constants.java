@@ -52,6 +52,8 @@ public final class Constants
     public static final String HEARTBEAT_COORDINATOR_LITERAL = "heartbeat_coordinator_";
     public static final String HEARTBEAT_WORKER_LITERAL = "heartbeat_worker_";
     public static final String CACHE_EXPAND_OR_SHRINK_LITERAL = "cache_expand_or_shrink"; // expand or shrink;1:expand, 2:shrink
+    public static final String CACHE_ACCESS_LITERAL = "cache_access_"; // cache_access_[host]_[pid]: the column chunk accesses of a reader process
+    public static final String CACHE_ORDER_LITERAL = "cache_order_"; // cache_order_[layout version]: the column chunks to cache
 
     public static final String PARTITION_OPERATOR_NAME = "partition";
     public static final String PARTITION_JOIN_OPERATOR_NAME = "partition_join";
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.common.physical;
+
+import io.pixelsdb.pixels.common.physical.scheduler.SortMergeScheduler;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestSizeClassedBuffers
+{
+    /**
+     * A synchronous reader of a virtual file in which the ith byte is (byte) i.
+     */
+    private static class MockReader implements PhysicalReader
+    {
+        private final boolean supportsBufferPool;
+        private long position = 0;
+        private int numReads = 0;
+
+        private MockReader(boolean supportsBufferPool)
+        {
+            this.supportsBufferPool = supportsBufferPool;
+        }
+
+        @Override
+        public boolean supportsBufferPool()
+        {
+            return supportsBufferPool;
+        }
+
+        @Override
+        public long getFileLength() { return Long.MAX_VALUE; }
+
+        @Override
+        public void seek(long desired) { this.position = desired; }
+
+        @Override
+        public ByteBuffer readFully(int length)
+        {
+            byte[] buffer = new byte[length];
+            readFully(buffer, 0, length);
+            return ByteBuffer.wrap(buffer);
+        }
+
+        @Override
+        public void readFully(byte[] buffer) { readFully(buffer, 0, buffer.length); }
+
+        @Override
+        public void readFully(byte[] buffer, int offset, int length)
+        {
+            for (int i = 0; i < length; ++i)
+            {
+                buffer[offset + i] = (byte) (this.position + i);
+            }
+            this.position += length;
+            this.numReads++;
+        }
+
+        @Override
+        public long readLong(ByteOrder byteOrder) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public int readInt(ByteOrder byteOrder) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public void close() { }
+
+        @Override
+        public String getPath() { return "/pooled"; }
+
+        @Override
+        public String getPathUri() { return "mock:///pooled"; }
+
+        @Override
+        public String getName() { return "pooled"; }
+
+        @Override
+        public long getBlockId() { return 0; }
+
+        @Override
+        public Storage.Scheme getStorageScheme() { return Storage.Scheme.mock; }
+
+        @Override
+        public int getNumReadRequests() { return numReads; }
+    }
+
+    @Test
+    public void testAllocateAndFree()
+    {
+        SizeClassedBuffers buffers = new SizeClassedBuffers(64 * 1024);
+        byte[] small = buffers.allocate(100);
+        assert small.length == 4096;
+        byte[] medium = buffers.allocate(4097);
+        assert medium.length == 8192;
+        assert buffers.getBorrowedBytes() == 4096 + 8192;
+        assert buffers.getNumMisses() == 2 && buffers.getNumHits() == 0;
+
+        buffers.free(small);
+        buffers.free(medium);
+        // buffers not allocated from the pool are ignored
+        buffers.free(new byte[100]);
+        assert buffers.getPooledBytes() == 4096 + 8192;
+        assert buffers.getBorrowedBytes() == 0;
+        assert buffers.allocate(4000) == small;
+        assert buffers.allocate(8000) == medium;
+        assert buffers.getNumHits() == 2 && buffers.getHitRate() == 0.5;
+        assert buffers.getPooledBytes() == 0;
+
+        // the buffers freed beyond the capacity are dropped
+        byte[] large1 = buffers.allocate(64 * 1024);
+        byte[] large2 = buffers.allocate(64 * 1024);
+        buffers.free(large1);
+        buffers.free(large2);
+        assert buffers.getPooledBytes() == 64 * 1024;
+        assert buffers.getNumDropped() == 1;
+        buffers.clear();
+        assert buffers.getPooledBytes() == 0;
+    }
+
+    @Test
+    public void testPooledRequests() throws IOException
+    {
+        SizeClassedBuffers buffers = new SizeClassedBuffers(1024 * 1024);
+        Scheduler.RequestBatch batch = new Scheduler.RequestBatch();
+        batch.setBufferPool(buffers);
+        // the first two requests are merged and pooled, the last one is not pooled
+        batch.add(1, 0, 1000, true);
+        batch.add(1, 1000, 1000, true);
+        batch.add(1, 100_000, 1000, false);
+        SortMergeScheduler.Instance().executeBatch(new MockReader(true), batch, 1);
+        for (int i = 0; i < batch.size(); ++i)
+        {
+            ByteBuffer buffer = batch.getFutures().get(i).join();
+            Scheduler.Request request = batch.getRequests().get(i);
+            assert buffer.remaining() == request.length;
+            assert buffer.get(buffer.position()) == (byte) request.start;
+        }
+        assert batch.getPooledBuffers().size() == 1;
+        assert buffers.getBorrowedBytes() == 4096;
+        for (byte[] buffer : batch.getPooledBuffers())
+        {
+            buffers.free(buffer);
+        }
+        assert buffers.getBorrowedBytes() == 0 && buffers.getPooledBytes() == 4096;
+
+        // the reader that does not support buffer pool reads into new buffers
+        batch = new Scheduler.RequestBatch();
+        batch.setBufferPool(buffers);
+        batch.add(1, 0, 1000, true);
+        SortMergeScheduler.Instance().executeBatch(new MockReader(false), batch, 1);
+        assert batch.getFutures().get(0).join().remaining() == 1000;
+        assert batch.getPooledBuffers().isEmpty();
+    }
+
+    private static long getAllocatedBytes()
+    {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long[] getGcCountAndTimeMs()
+    {
+        long count = 0, timeMs = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            count += Math.max(0, gc.getCollectionCount());
+            timeMs += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] {count, timeMs};
+    }
+
+    /**
+     * Compare the allocated bytes and GC activities of reading the same column chunks into new buffers
+     * and into the buffers borrowed from the buffer pool, which are freed when the 'record reader' is closed.
+     */
+    @Test
+    public void testGcPressure() throws IOException
+    {
+        int numFiles = 500, numChunks = 16, chunkLength = 64 * 1024;
+        long[] allocatedBytes = new long[2];
+        for (int pooled = 0; pooled < 2; ++pooled)
+        {
+            SizeClassedBuffers buffers = new SizeClassedBuffers(256 * 1024 * 1024);
+            MockReader reader = new MockReader(true);
+            long[] gcBefore = getGcCountAndTimeMs();
+            long allocatedBefore = getAllocatedBytes();
+            long startNs = System.nanoTime();
+            for (int file = 0; file < numFiles; ++file)
+            {
+                Scheduler.RequestBatch batch = new Scheduler.RequestBatch(numChunks);
+                if (pooled == 1)
+                {
+                    batch.setBufferPool(buffers);
+                }
+                List<CompletableFuture> futures = new ArrayList<>(numChunks);
+                for (int i = 0; i < numChunks; ++i)
+                {
+                    // leave a gap between the chunks so that they are not merged
+                    futures.add(batch.add(1, i * (chunkLength + 1L), chunkLength, true));
+                }
+                SortMergeScheduler.Instance().executeBatch(reader, batch, 1);
+                batch.completeAll(futures).join();
+                // close the 'record reader'
+                for (byte[] buffer : batch.getPooledBuffers())
+                {
+                    buffers.free(buffer);
+                }
+            }
+            long elapsedMs = (System.nanoTime() - startNs) / 1000_000;
+            long[] gcAfter = getGcCountAndTimeMs();
+            allocatedBytes[pooled] = getAllocatedBytes() - allocatedBefore;
+            System.out.println((pooled == 1 ? "pooled: " : "not pooled: ") + "allocated " +
+                    allocatedBytes[pooled] / 1024 / 1024 + "MB, gc count " + (gcAfter[0] - gcBefore[0]) +
+                    ", gc time " + (gcAfter[1] - gcBefore[1]) + "ms, elapsed " + elapsedMs + "ms, pool: " + buffers);
+        }
+        if (allocatedBytes[0] > 0)
+        {
+            // the thread allocated bytes are supported by the JVM
+            assert allocatedBytes[1] * 10 < allocatedBytes[0];
+        }
+    }
+}
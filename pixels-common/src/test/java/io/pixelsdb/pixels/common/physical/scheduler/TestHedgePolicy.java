@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.common.physical.scheduler;
+
+import io.pixelsdb.pixels.common.metrics.LatencyHistogram;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestHedgePolicy
+{
+    private static final ScheduledExecutorService storageService = Executors.newScheduledThreadPool(4);
+
+    /**
+     * A mock storage request with injected latency, the ith call of the request takes latenciesMs[i] ms.
+     */
+    private static class MockRequest implements Supplier<CompletableFuture<ByteBuffer>>
+    {
+        private final long[] latenciesMs;
+        private final AtomicInteger numCalls = new AtomicInteger(0);
+        private final AtomicInteger numCanceled = new AtomicInteger(0);
+
+        private MockRequest(long... latenciesMs)
+        {
+            this.latenciesMs = latenciesMs;
+        }
+
+        @Override
+        public CompletableFuture<ByteBuffer> get()
+        {
+            int call = numCalls.getAndIncrement();
+            ByteBuffer response = ByteBuffer.allocate(4).putInt(0, call);
+            CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+            ScheduledFuture<?> scheduled = storageService.schedule(() -> future.complete(response),
+                    latenciesMs[call], TimeUnit.MILLISECONDS);
+            future.whenComplete((resp, err) ->
+            {
+                if (future.isCancelled())
+                {
+                    scheduled.cancel(false);
+                    numCanceled.incrementAndGet();
+                }
+            });
+            return future;
+        }
+    }
+
+    private static void warmUp(HedgePolicy policy, int numRequests, long latencyMs)
+    {
+        List<CompletableFuture<ByteBuffer>> futures = new ArrayList<>();
+        for (int i = 0; i < numRequests; ++i)
+        {
+            futures.add(policy.execute(new MockRequest(latencyMs), 0));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    private static void waitFor(BooleanSupplier condition)
+    {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!condition.getAsBoolean())
+        {
+            assert System.currentTimeMillis() < deadline : "condition is not met in 1 second";
+            Thread.yield();
+        }
+    }
+
+    @Test
+    public void testLatencyHistogram()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 1000; ++ms)
+        {
+            histogram.record(ms * 1000_000L);
+        }
+        assert histogram.getCount() == 1000;
+        // the relative error of the log-linear buckets is within 1/8
+        assert Math.abs(histogram.getPercentileMs(50) - 500) <= 500 / 8.0;
+        assert Math.abs(histogram.getPercentileMs(99) - 990) <= 990 / 8.0;
+        assert histogram.getPercentileMs(100) == 1000;
+        assert histogram.getMaxMs() == 1000;
+        histogram.clear();
+        assert histogram.getCount() == 0 && histogram.getPercentileMs(50) == 0;
+    }
+
+    @Test
+    public void testHedge()
+    {
+        HedgePolicy policy = new HedgePolicy(true, 95, 1, 20);
+        warmUp(policy, 20, 20);
+        // the primary request is a straggler, the hedge request is sent after about 20ms and wins
+        MockRequest straggler = new MockRequest(2000, 20);
+        long start = System.currentTimeMillis();
+        ByteBuffer response = policy.execute(straggler, 0).join();
+        long elapsedMs = System.currentTimeMillis() - start;
+        assert response.getInt(0) == 1;
+        assert elapsedMs < 1000 : "hedged request took " + elapsedMs + "ms";
+        // the straggler is canceled after the result is completed
+        waitFor(() -> straggler.numCanceled.get() == 1);
+        assert straggler.numCalls.get() == 2;
+        assert policy.getNumHedged() == 1 && policy.getNumHedgeWins() == 1;
+
+        // the primary request completes before the hedge delay, no hedge request is sent
+        MockRequest normal = new MockRequest(5, 5);
+        assert policy.execute(normal, 0).join().getInt(0) == 0;
+        assert normal.numCalls.get() == 1;
+        assert policy.getNumHedged() == 1;
+    }
+
+    @Test
+    public void testDiscard()
+    {
+        HedgePolicy policy = new HedgePolicy(true, 95, 1, 20);
+        warmUp(policy, 20, 20);
+        // the straggler can not be canceled, its response is discarded after the hedge request wins
+        AtomicInteger numCalls = new AtomicInteger(0);
+        Supplier<CompletableFuture<ByteBuffer>> uncancelable = () ->
+        {
+            int call = numCalls.getAndIncrement();
+            CompletableFuture<ByteBuffer> future = new CompletableFuture<ByteBuffer>()
+            {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning)
+                {
+                    return false;
+                }
+            };
+            storageService.schedule(() -> future.complete(ByteBuffer.allocate(4).putInt(0, call)),
+                    call == 0 ? 200 : 20, TimeUnit.MILLISECONDS);
+            return future;
+        };
+        List<ByteBuffer> discarded = new CopyOnWriteArrayList<>();
+        assert policy.execute(uncancelable, 0, discarded::add).join().getInt(0) == 1;
+        waitFor(() -> discarded.size() == 1);
+        assert discarded.get(0).getInt(0) == 0;
+    }
+
+    @Test
+    public void testNoHedgeBeforeMinSamples()
+    {
+        HedgePolicy policy = new HedgePolicy(true, 95, 1, 1000);
+        warmUp(policy, 20, 5);
+        MockRequest slow = new MockRequest(100, 1);
+        assert policy.execute(slow, 0).join().getInt(0) == 0;
+        assert slow.numCalls.get() == 1 && policy.getNumHedged() == 0;
+        assert policy.getLatencyHistogram().getCount() == 21;
+    }
+
+    @Test
+    public void testDeadline()
+    {
+        HedgePolicy policy = new HedgePolicy(false, 95, 1, 0);
+        MockRequest slow = new MockRequest(5000);
+        long start = System.currentTimeMillis();
+        CompletableFuture<ByteBuffer> future = policy.execute(slow, start + 50);
+        try
+        {
+            future.join();
+            assert false : "the request should exceed the deadline";
+        }
+        catch (CompletionException e)
+        {
+            assert e.getCause() instanceof TimeoutException;
+        }
+        assert System.currentTimeMillis() - start < 1000;
+        waitFor(() -> slow.numCanceled.get() == 1);
+        assert policy.getNumDeadlineExceeded() == 1;
+
+        // a request completes before the deadline
+        assert policy.execute(new MockRequest(5), System.currentTimeMillis() + 1000).join().getInt(0) == 0;
+        assert policy.getNumDeadlineExceeded() == 1;
+    }
+
+    /**
+     * Compare the tail latency with and without hedging, if 2% of the requests are stragglers.
+     */
+    @Test
+    public void testTailLatency()
+    {
+        int numRequests = 500;
+        for (boolean hedge : new boolean[] {false, true})
+        {
+            HedgePolicy policy = new HedgePolicy(hedge, 95, 1, 20);
+            warmUp(policy, 20, 10);
+            LatencyHistogram observed = new LatencyHistogram();
+            List<CompletableFuture<ByteBuffer>> futures = new ArrayList<>();
+            for (int i = 0; i < numRequests; ++i)
+            {
+                long startNs = System.nanoTime();
+                MockRequest request = i % 50 == 0 ? new MockRequest(300, 10) : new MockRequest(10, 10);
+                futures.add(policy.execute(request, 0).whenComplete((resp, err) ->
+                        observed.record(System.nanoTime() - startNs)));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            System.out.println((hedge ? "hedged: " : "not hedged: ") + observed);
+            if (hedge)
+            {
+                assert observed.getPercentileMs(99) < 300;
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.common.physical.scheduler;
+
+import io.pixelsdb.pixels.common.physical.PhysicalReader;
+import io.pixelsdb.pixels.common.physical.Scheduler;
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.utils.ConfigFactory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestPrefetchScheduler
+{
+    /**
+     * An asynchronous reader of a virtual file in which the ith byte is (byte) i.
+     */
+    private static class MockReader implements PhysicalReader
+    {
+        private final String path;
+        private final AtomicInteger numReads = new AtomicInteger(0);
+
+        private MockReader(String path)
+        {
+            this.path = path;
+        }
+
+        @Override
+        public boolean supportsAsync()
+        {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<ByteBuffer> readAsync(long offset, int length)
+        {
+            numReads.incrementAndGet();
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            for (int i = 0; i < length; ++i)
+            {
+                buffer.put(i, (byte) (offset + i));
+            }
+            return CompletableFuture.supplyAsync(() -> buffer);
+        }
+
+        @Override
+        public long getFileLength() { return Long.MAX_VALUE; }
+
+        @Override
+        public void seek(long desired) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public ByteBuffer readFully(int length) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public void readFully(byte[] buffer) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public void readFully(byte[] buffer, int offset, int length) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public long readLong(ByteOrder byteOrder) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public int readInt(ByteOrder byteOrder) { throw new UnsupportedOperationException(); }
+
+        @Override
+        public void close() { }
+
+        @Override
+        public String getPath() { return path; }
+
+        @Override
+        public String getPathUri() { return "mock://" + path; }
+
+        @Override
+        public String getName() { return path; }
+
+        @Override
+        public long getBlockId() { return 0; }
+
+        @Override
+        public Storage.Scheme getStorageScheme() { return Storage.Scheme.mock; }
+
+        @Override
+        public int getNumReadRequests() { return numReads.get(); }
+    }
+
+    private static Scheduler.RequestBatch createBatch(long transId, int numRequests, int length)
+    {
+        Scheduler.RequestBatch batch = new Scheduler.RequestBatch(numRequests);
+        for (int i = 0; i < numRequests; ++i)
+        {
+            // leave a gap between the requests so that they are not merged
+            batch.add(transId, i * (length + 1L), length);
+        }
+        return batch;
+    }
+
+    private static void checkBatch(Scheduler.RequestBatch batch)
+    {
+        List<CompletableFuture> futures = new ArrayList<>(batch.getFutures());
+        batch.completeAll(futures).join();
+        for (int i = 0; i < batch.size(); ++i)
+        {
+            Scheduler.Request request = batch.getRequests().get(i);
+            ByteBuffer buffer = batch.getFutures().get(i).join();
+            assert buffer.remaining() == request.length;
+            for (int j = 0; j < request.length; ++j)
+            {
+                assert buffer.get(buffer.position() + j) == (byte) (request.start + j);
+            }
+        }
+    }
+
+    @Test
+    public void testPrefetchHit() throws IOException
+    {
+        PrefetchScheduler scheduler = new PrefetchScheduler();
+        MockReader reader = new MockReader("/prefetch/hit");
+        Object owner = new Object();
+        assert scheduler.prefetch(reader, createBatch(1, 8, 1024), 1, owner) == 8 * 1024;
+        assert reader.getNumReadRequests() == 8;
+
+        Scheduler.RequestBatch batch = createBatch(1, 10, 1024);
+        scheduler.executeBatch(reader, batch, 1);
+        checkBatch(batch);
+        // only the two requests that were not prefetched are read
+        assert reader.getNumReadRequests() == 10;
+        assert scheduler.getHitRequests() == 8 && scheduler.getMissRequests() == 2;
+        assert scheduler.getHitRate() == 0.8;
+        assert scheduler.getPrefetchedBytes() == 0;
+
+        scheduler.cancel(owner);
+        assert scheduler.getWastedBytes() == 0;
+    }
+
+    @Test
+    public void testBudgetAndCancel() throws IOException
+    {
+        String defaultBudget = ConfigFactory.Instance().getProperty("read.request.prefetch.memory.budget");
+        ConfigFactory.Instance().addProperty("read.request.prefetch.memory.budget", "32768");
+        try
+        {
+            PrefetchScheduler scheduler = new PrefetchScheduler();
+            MockReader reader1 = new MockReader("/prefetch/cancel1");
+            MockReader reader2 = new MockReader("/prefetch/cancel2");
+            Object owner1 = new Object(), owner2 = new Object();
+            // only 32 of the requests fit in the budget
+            long bytes1 = scheduler.prefetch(reader1, createBatch(1, 24, 1024), 1, owner1);
+            long bytes2 = scheduler.prefetch(reader2, createBatch(1, 24, 1024), 1, owner2);
+            assert bytes1 == 24 * 1024;
+            assert bytes2 == 8 * 1024;
+            assert scheduler.getPrefetchedBytes() == bytes1 + bytes2;
+
+            scheduler.cancel(owner1);
+            assert scheduler.getWastedBytes() == bytes1;
+            assert scheduler.getPrefetchedBytes() == bytes2;
+
+            // the canceled requests are read again
+            Scheduler.RequestBatch batch = createBatch(1, 24, 1024);
+            scheduler.executeBatch(reader1, batch, 1);
+            checkBatch(batch);
+            assert reader1.getNumReadRequests() == 48;
+            assert scheduler.getHitRequests() == 0;
+
+            batch = createBatch(1, 8, 1024);
+            scheduler.executeBatch(reader2, batch, 1);
+            checkBatch(batch);
+            assert reader2.getNumReadRequests() == 8;
+            assert scheduler.getHitRequests() == 8;
+            assert scheduler.getPrefetchedBytes() == 0;
+        }
+        finally
+        {
+            ConfigFactory.Instance().addProperty("read.request.prefetch.memory.budget", defaultBudget);
+        }
+    }
+}
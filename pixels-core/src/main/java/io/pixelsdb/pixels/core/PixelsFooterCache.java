@@ -19,41 +19,213 @@
  */
 package io.pixelsdb.pixels.core;
 
-import java.util.concurrent.ConcurrentHashMap;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.pixelsdb.pixels.common.utils.ConfigFactory;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * pixels
+ * The cache of the file tails and row group footers of Pixels files.
+ * <p/>
+ * The footers of each file are cached in one entry keyed by the file path, thus looking up a row group
+ * footer does not build a string key, and all the footers of a file can be invalidated at once.
+ * The cache is bounded by the serialized bytes of the footers (footer.cache.capacity by default)
+ * and uses the W-TinyLFU eviction policy in Caffeine. The footers of a file are invalidated in all the caches
+ * of this process by {@link #invalidateFile(String)} when the file is deleted or overwritten.
  *
  * @author guodong
  */
 public class PixelsFooterCache
 {
-    private final ConcurrentHashMap<String, PixelsProto.FileTail> fileTailCacheMap;
-    private final ConcurrentHashMap<String, PixelsProto.RowGroupFooter> rowGroupFooterCacheMap;
+    /**
+     * The file tail and the row group footers that have been read of a file.
+     */
+    private static class FileFooters
+    {
+        private final PixelsProto.FileTail fileTail;
+        private final AtomicReferenceArray<PixelsProto.RowGroupFooter> rowGroupFooters;
+        /**
+         * The serialized bytes of the file tail and the row group footers that have been put.
+         */
+        private final AtomicLong weight;
+
+        private FileFooters(PixelsProto.FileTail fileTail)
+        {
+            this.fileTail = fileTail;
+            this.rowGroupFooters = new AtomicReferenceArray<>(fileTail.getFooter().getRowGroupInfosCount());
+            this.weight = new AtomicLong(fileTail.getSerializedSize());
+        }
+
+        private boolean putRGFooter(int rgId, PixelsProto.RowGroupFooter footer)
+        {
+            if (rowGroupFooters.compareAndSet(rgId, null, footer))
+            {
+                weight.addAndGet(footer.getSerializedSize());
+                return true;
+            }
+            return false;
+        }
+
+        private int weight()
+        {
+            return (int) Math.min(weight.get(), Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * The footer caches in this process, weakly referenced so that they are removed once garbage collected.
+     */
+    private static final Set<PixelsFooterCache> instances =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    /**
+     * Invalidate the cached footers of the file in all the footer caches of this process. It should be called
+     * when the file is deleted or overwritten, e.g., by the writers and the compactor.
+     * @param path the path of the file
+     */
+    public static void invalidateFile(String path)
+    {
+        synchronized (instances)
+        {
+            for (PixelsFooterCache footerCache : instances)
+            {
+                footerCache.invalidate(path);
+            }
+        }
+    }
+
+    private final Cache<String, FileFooters> fileFootersCache;
+    private final LongAdder fileTailHits = new LongAdder();
+    private final LongAdder fileTailMisses = new LongAdder();
+    private final LongAdder rowGroupFooterHits = new LongAdder();
+    private final LongAdder rowGroupFooterMisses = new LongAdder();
 
     public PixelsFooterCache()
     {
-        this.fileTailCacheMap = new ConcurrentHashMap<>(200);
-        this.rowGroupFooterCacheMap = new ConcurrentHashMap<>(5000);
+        this(Long.parseLong(ConfigFactory.Instance().getProperty("footer.cache.capacity")));
+    }
+
+    /**
+     * @param capacity the maximum number of serialized bytes of the cached footers
+     */
+    public PixelsFooterCache(long capacity)
+    {
+        this.fileFootersCache = Caffeine.newBuilder()
+                .maximumWeight(capacity)
+                .weigher((String path, FileFooters footers) -> footers.weight())
+                .recordStats()
+                .build();
+        instances.add(this);
+    }
+
+    public void putFileTail(String path, PixelsProto.FileTail fileTail)
+    {
+        fileFootersCache.asMap().putIfAbsent(path, new FileFooters(fileTail));
+    }
+
+    public PixelsProto.FileTail getFileTail(String path)
+    {
+        FileFooters footers = fileFootersCache.getIfPresent(path);
+        if (footers == null)
+        {
+            fileTailMisses.increment();
+            return null;
+        }
+        fileTailHits.increment();
+        return footers.fileTail;
+    }
+
+    /**
+     * Put the row group footer into the cache. It is ignored if the file tail of the file is not in the cache.
+     * @param path the path of the file
+     * @param rgId the id of the row group in the file
+     * @param footer the row group footer
+     */
+    public void putRGFooter(String path, int rgId, PixelsProto.RowGroupFooter footer)
+    {
+        FileFooters footers = fileFootersCache.getIfPresent(path);
+        if (footers != null && footers.putRGFooter(rgId, footer))
+        {
+            // re-put the entry to update its weight, it is a no-op if the entry has been evicted or replaced
+            fileFootersCache.asMap().replace(path, footers, footers);
+        }
+    }
+
+    public PixelsProto.RowGroupFooter getRGFooter(String path, int rgId)
+    {
+        FileFooters footers = fileFootersCache.getIfPresent(path);
+        PixelsProto.RowGroupFooter footer = footers == null ? null : footers.rowGroupFooters.get(rgId);
+        if (footer == null)
+        {
+            rowGroupFooterMisses.increment();
+            return null;
+        }
+        rowGroupFooterHits.increment();
+        return footer;
+    }
+
+    /**
+     * Invalidate the cached footers of the file, e.g., when the file is replaced by compaction.
+     * @param path the path of the file
+     */
+    public void invalidate(String path)
+    {
+        fileFootersCache.invalidate(path);
+    }
+
+    public void invalidateAll()
+    {
+        fileFootersCache.invalidateAll();
+    }
+
+    /**
+     * Perform the pending maintenance (e.g., eviction) of the cache, which is done asynchronously by default.
+     */
+    public void cleanUp()
+    {
+        fileFootersCache.cleanUp();
+    }
+
+    public long getFileTailHitCount()
+    {
+        return fileTailHits.sum();
+    }
+
+    public long getFileTailMissCount()
+    {
+        return fileTailMisses.sum();
     }
 
-    public void putFileTail(String id, PixelsProto.FileTail fileTail)
+    public long getRGFooterHitCount()
     {
-        fileTailCacheMap.putIfAbsent(id, fileTail);
+        return rowGroupFooterHits.sum();
     }
 
-    public PixelsProto.FileTail getFileTail(String id)
+    public long getRGFooterMissCount()
     {
-        return fileTailCacheMap.get(id);
+        return rowGroupFooterMisses.sum();
     }
 
-    public void putRGFooter(String id, PixelsProto.RowGroupFooter footer)
+    /**
+     * @return the number of files whose footers are evicted from the cache
+     */
+    public long getEvictionCount()
     {
-        rowGroupFooterCacheMap.putIfAbsent(id, footer);
+        return fileFootersCache.stats().evictionCount();
     }
 
-    public PixelsProto.RowGroupFooter getRGFooter(String id)
+    /**
+     * @return the number of serialized bytes of the cached footers
+     */
+    public long getWeightedSize()
     {
-        return rowGroupFooterCacheMap.get(id);
+        return fileFootersCache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
     }
 }
@@ -19,6 +19,7 @@
  */
 package io.pixelsdb.pixels.core;
 
+import io.pixelsdb.pixels.cache.AdmittedColumnChunks;
 import io.pixelsdb.pixels.cache.PixelsCacheReader;
 import io.pixelsdb.pixels.common.physical.PhysicalReader;
 import io.pixelsdb.pixels.common.physical.PhysicalReaderUtil;
@@ -39,9 +40,7 @@ import javax.annotation.concurrent.NotThreadSafe;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Random;
+import java.util.*;
 
 import static java.util.Objects.requireNonNull;
 
@@ -63,7 +62,7 @@ public class PixelsReaderImpl implements PixelsReader
     private final String metricsDir;
     private final float metricsCollectProb;
     private final boolean enableCache;
-    private final List<String> cacheOrder;
+    private final Set<String> cacheOrder;
     private final PixelsCacheReader pixelsCacheReader;
     private final PixelsFooterCache pixelsFooterCache;
     private final Random random;
@@ -74,7 +73,7 @@ public class PixelsReaderImpl implements PixelsReader
                              String metricsDir,
                              float metricsCollectProb,
                              boolean enableCache,
-                             List<String> cacheOrder,
+                             Set<String> cacheOrder,
                              PixelsCacheReader pixelsCacheReader,
                              PixelsFooterCache pixelsFooterCache)
     {
@@ -96,7 +95,7 @@ public class PixelsReaderImpl implements PixelsReader
     {
         private Storage builderStorage = null;
         private String builderPath = null;
-        private List<String> builderCacheOrder = null;
+        private Collection<String> builderCacheOrder = null;
         private TypeDescription builderSchema = null;
         private boolean builderEnableCache = false;
         private PixelsCacheReader builderPixelsCacheReader = null;
@@ -120,10 +119,13 @@ public class PixelsReaderImpl implements PixelsReader
 
         /**
          *
-         * @param cacheOrder should not be null.
+         * @param cacheOrder should not be null. The membership of the column chunks is checked in a hash set,
+         *                   pass a set that is shared by the readers of the same layout to avoid rebuilding it.
+         *                   If the cache is enabled and the cache coordinator has admitted column chunks into the
+         *                   cache by their accesses, the admitted column chunks are read from the cache instead.
          * @return
          */
-        public Builder setCacheOrder(List<String> cacheOrder)
+        public Builder setCacheOrder(Collection<String> cacheOrder)
         {
             this.builderCacheOrder = requireNonNull(cacheOrder);
             return this;
@@ -209,9 +211,22 @@ public class PixelsReaderImpl implements PixelsReader
                 throw new PixelsMetricsCollectProbOutOfRange(metricCollectProb);
             }
 
+            Set<String> cacheOrder = null;
+            if (builderCacheOrder != null)
+            {
+                cacheOrder = builderCacheOrder instanceof Set ?
+                        (Set<String>) builderCacheOrder : new HashSet<>(builderCacheOrder);
+                if (builderEnableCache && builderPixelsCacheReader != null)
+                {
+                    // read the column chunks that the cache coordinator admitted into the cache, if any
+                    cacheOrder = AdmittedColumnChunks.Instance().getCacheOrder(
+                            builderPixelsCacheReader.getCacheVersion(), cacheOrder);
+                }
+            }
+
             // create a default PixelsReader
             return new PixelsReaderImpl(builderSchema, fsReader, fileTail, metricsDir, metricCollectProb,
-                    builderEnableCache, builderCacheOrder, builderPixelsCacheReader,
+                    builderEnableCache, cacheOrder, builderPixelsCacheReader,
                     builderPixelsFooterCache);
         }
     }
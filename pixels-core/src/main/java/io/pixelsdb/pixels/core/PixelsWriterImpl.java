@@ -27,12 +27,14 @@ import io.pixelsdb.pixels.common.utils.Constants;
 import io.pixelsdb.pixels.core.PixelsProto.CompressionKind;
 import io.pixelsdb.pixels.core.PixelsProto.RowGroupInformation;
 import io.pixelsdb.pixels.core.PixelsProto.RowGroupStatistic;
+import io.pixelsdb.pixels.core.compression.CompressionCodec;
 import io.pixelsdb.pixels.core.encoding.EncodingLevel;
 import io.pixelsdb.pixels.core.exception.PixelsWriterException;
 import io.pixelsdb.pixels.core.stats.StatsRecorder;
 import io.pixelsdb.pixels.core.vector.ColumnVector;
 import io.pixelsdb.pixels.core.vector.IntColumnVector;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import io.pixelsdb.pixels.core.writer.BloomFilterBuilder;
 import io.pixelsdb.pixels.core.writer.ColumnWriter;
 import io.pixelsdb.pixels.core.writer.PixelsWriterOption;
 import org.apache.logging.log4j.LogManager;
@@ -42,6 +44,8 @@ import javax.annotation.concurrent.NotThreadSafe;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
@@ -50,6 +54,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -80,6 +85,10 @@ public class PixelsWriterImpl implements PixelsWriter
      * The byte buffer padded to each column chunk for alignment.
      */
     private static final byte[] CHUNK_PADDING_BUFFER;
+    /**
+     * The default false positive probability of the bloom filters.
+     */
+    public static final double DEFAULT_BLOOM_FILTER_FPP = 0.01;
 
     static
     {
@@ -102,6 +111,7 @@ public class PixelsWriterImpl implements PixelsWriter
     private final int rowGroupSize;
     private final CompressionKind compressionKind;
     private final int compressionBlockSize;
+    private final CompressionCodec compressionCodec;
     private final TimeZone timeZone;
     /**
      * The writer option for the column writers.
@@ -112,13 +122,25 @@ public class PixelsWriterImpl implements PixelsWriter
 
 
     private final ColumnWriter[] columnWriters;
+    /**
+     * The bloom filter builders of the columns, the element is null if the column has no bloom filter.
+     */
+    private final BloomFilterBuilder[] bloomFilterBuilders;
     private final StatsRecorder[] fileColStatRecorders;
     private ColumnWriter hiddenColumnWriter;
     private final StatsRecorder hiddenFileColStatRecorder;
     private long fileContentLength;
     private int fileRowNum;
+    /**
+     * The number of row groups that have been encoded, including the in-flight ones.
+     */
+    private int numRowGroups = 0;
 
-    private long writtenBytes = 0L;
+    /**
+     * The bytes written into the physical writer, it is updated by the row group write service if the row groups
+     * are pipelined.
+     */
+    private volatile long writtenBytes = 0L;
     private long curRowGroupOffset = 0L;
     private long curRowGroupFooterOffset = 0L;
     private int curRowGroupNumOfRows = 0;
@@ -139,6 +161,34 @@ public class PixelsWriterImpl implements PixelsWriter
 
     private final boolean hasHiddenColumn;
 
+    /**
+     * The max number of encoded row groups that are being written into the physical writer while the next row
+     * group is being encoded, 0 if the row groups are written synchronously.
+     */
+    private final int maxInFlightRowGroups;
+    /**
+     * The single thread that writes the encoded row groups into the physical writer in order, and the permits
+     * of the in-flight row groups. They are null if the row groups are written synchronously.
+     */
+    private final ExecutorService rowGroupWriteService;
+    private final Semaphore rowGroupWritePermits;
+    private volatile IOException rowGroupWriteException = null;
+
+    /*
+     * The writer metrics of the row group pipeline in nanoseconds. Encoding covers adding the row batches
+     * into the column writers and encoding the row groups, writing covers writing the encoded row groups into
+     * the physical writer, and overlap is the time of encoding while any row group is being written.
+     */
+    private long encodeNanos = 0L;
+    private long encodeStartNs = -1L;
+    private long encodeStartWriteNanos = 0L;
+    private long overlapNanos = 0L;
+    private long backPressureNanos = 0L;
+    // the write time is updated by the row group write service, it is guarded by writeClockLock
+    private final Object writeClockLock = new Object();
+    private long writeNanos = 0L;
+    private long writeStartNs = -1L;
+
     private PixelsWriterImpl(
             TypeDescription schema,
             boolean hasHiddenColumn,
@@ -151,7 +201,10 @@ public class PixelsWriterImpl implements PixelsWriter
             EncodingLevel encodingLevel,
             boolean nullsPadding,
             boolean partitioned,
-            Optional<List<Integer>> partKeyColumnIds)
+            Optional<List<Integer>> partKeyColumnIds,
+            List<Integer> bloomFilterColumnIds,
+            double bloomFilterFpp,
+            int maxInFlightRowGroups)
     {
         this.schema = requireNonNull(schema, "schema is null");
         this.hasHiddenColumn = hasHiddenColumn;
@@ -165,6 +218,7 @@ public class PixelsWriterImpl implements PixelsWriter
         this.compressionKind = requireNonNull(compressionKind, "compressionKind is null");
         checkArgument(compressionBlockSize > 0, "compression block size is not positive");
         this.compressionBlockSize = compressionBlockSize;
+        this.compressionCodec = CompressionCodec.getCodec(compressionKind);
         this.timeZone = requireNonNull(timeZone);
         checkArgument(partitioned == (partKeyColumnIds.isPresent() && !partKeyColumnIds.get().isEmpty()),
                 "partition column ids are present while partitioned is false, or vice versa");
@@ -178,12 +232,27 @@ public class PixelsWriterImpl implements PixelsWriter
                 .pixelStride(pixelStride)
                 .encodingLevel(requireNonNull(encodingLevel, "encodingLevel is null"))
                 .byteOrder(WRITER_ENDIAN)
-                .nullsPadding(nullsPadding);
+                .nullsPadding(nullsPadding)
+                .compressionKind(compressionKind)
+                .compressionBlockSize(compressionBlockSize);
         for (int i = 0; i < children.size(); ++i)
         {
             columnWriters[i] = newColumnWriter(children.get(i), columnWriterOption);
             fileColStatRecorders[i] = StatsRecorder.create(children.get(i));
         }
+        this.bloomFilterBuilders = new BloomFilterBuilder[children.size()];
+        for (int columnId : requireNonNull(bloomFilterColumnIds, "bloomFilterColumnIds is null"))
+        {
+            checkArgument(columnId >= 0 && columnId < children.size(),
+                    "bloom filter column id " + columnId + " is out of range");
+            if (!BloomFilterBuilder.isSupported(children.get(columnId)))
+            {
+                LOGGER.warn("bloom filter is not supported on column {} of type {}, it is skipped",
+                        columnId, children.get(columnId));
+                continue;
+            }
+            this.bloomFilterBuilders[columnId] = new BloomFilterBuilder(children.get(columnId), bloomFilterFpp);
+        }
 
         this.rowGroupInfoList = new LinkedList<>();
         this.rowGroupStatisticList = new LinkedList<>();
@@ -198,6 +267,18 @@ public class PixelsWriterImpl implements PixelsWriter
             this.hiddenColumnWriter = null;
             this.hiddenFileColStatRecorder = null;
         }
+        checkArgument(maxInFlightRowGroups >= 0, "max in-flight row groups is negative");
+        this.maxInFlightRowGroups = maxInFlightRowGroups;
+        if (maxInFlightRowGroups > 0)
+        {
+            this.rowGroupWriteService = Executors.newSingleThreadExecutor();
+            this.rowGroupWritePermits = new Semaphore(maxInFlightRowGroups);
+        }
+        else
+        {
+            this.rowGroupWriteService = null;
+            this.rowGroupWritePermits = null;
+        }
     }
 
     public static class Builder
@@ -219,6 +300,9 @@ public class PixelsWriterImpl implements PixelsWriter
         private boolean builderPartitioned = false;
         private boolean builderNullsPadding = false;
         private Optional<List<Integer>> builderPartKeyColumnIds = Optional.empty();
+        private List<Integer> builderBloomFilterColumnIds = Collections.emptyList();
+        private double builderBloomFilterFpp = DEFAULT_BLOOM_FILTER_FPP;
+        private int builderMaxInFlightRowGroups = 0;
 
         private Builder()
         {
@@ -332,6 +416,37 @@ public class PixelsWriterImpl implements PixelsWriter
             return this;
         }
 
+        /**
+         * Set the ids of the columns to build bloom filters on, the bloom filters are stored in the row group
+         * statistics in the file footer and used to filter row groups by equality predicates.
+         * @param bloomFilterColumnIds the column ids in the schema, default is empty, the columns of the types
+         *                             not supported by bloom filters are skipped with a warning
+         */
+        public Builder setBloomFilterColumnIds(List<Integer> bloomFilterColumnIds)
+        {
+            this.builderBloomFilterColumnIds = requireNonNull(bloomFilterColumnIds);
+            return this;
+        }
+
+        public Builder setBloomFilterFpp(double bloomFilterFpp)
+        {
+            this.builderBloomFilterFpp = bloomFilterFpp;
+            return this;
+        }
+
+        /**
+         * Pipeline the row groups, so that the next row group is encoded while the previous ones are being
+         * written into the storage. {@link PixelsWriterImpl#addRowBatch(VectorizedRowBatch)} blocks if the number of row groups
+         * being written reaches maxInFlightRowGroups, which bounds the memory of the encoded row groups.
+         * @param maxInFlightRowGroups the max number of row groups being written, default is 0 that writes
+         *                             the row groups synchronously
+         */
+        public Builder setMaxInFlightRowGroups(int maxInFlightRowGroups)
+        {
+            this.builderMaxInFlightRowGroups = maxInFlightRowGroups;
+            return this;
+        }
+
         public PixelsWriter build() throws PixelsWriterException
         {
             requireNonNull(this.builderStorage, "storage is not set");
@@ -355,6 +470,8 @@ public class PixelsWriterImpl implements PixelsWriter
                 throw new PixelsWriterException(
                         "Failed to create PixelsWriter due to error of creating PhysicalWriter");
             }
+            // the footers of the file, if it is overwritten, are not valid any more
+            PixelsFooterCache.invalidateFile(fsWriter.getPath());
 
             return new PixelsWriterImpl(
                     builderSchema,
@@ -368,7 +485,10 @@ public class PixelsWriterImpl implements PixelsWriter
                     builderEncodingLevel,
                     builderNullsPadding,
                     builderPartitioned,
-                    builderPartKeyColumnIds);
+                    builderPartKeyColumnIds,
+                    builderBloomFilterColumnIds,
+                    builderBloomFilterFpp,
+                    builderMaxInFlightRowGroups);
         }
     }
 
@@ -390,7 +510,7 @@ public class PixelsWriterImpl implements PixelsWriter
     @Override
     public int getNumRowGroup()
     {
-        return this.rowGroupInfoList.size();
+        return this.numRowGroups;
     }
 
     @Override
@@ -409,6 +529,82 @@ public class PixelsWriterImpl implements PixelsWriter
         return writtenBytes;
     }
 
+    /**
+     * @return the nanoseconds spent on adding the row batches into the column writers and encoding the row groups
+     */
+    public long getEncodeNanos()
+    {
+        return encodeNanos;
+    }
+
+    /**
+     * @return the nanoseconds spent on writing the encoded row groups into the physical writer
+     */
+    public long getWriteNanos()
+    {
+        return getWriteNanos(System.nanoTime());
+    }
+
+    /**
+     * @return the nanoseconds of encoding while any row group is being written into the physical writer,
+     * it is always 0 if the row groups are not pipelined
+     */
+    public long getOverlapNanos()
+    {
+        return overlapNanos;
+    }
+
+    /**
+     * @return the nanoseconds that {@link #addRowBatch(VectorizedRowBatch)} is blocked by the in-flight row groups
+     */
+    public long getBackPressureNanos()
+    {
+        return backPressureNanos;
+    }
+
+    private long getWriteNanos(long nowNs)
+    {
+        synchronized (writeClockLock)
+        {
+            return writeStartNs < 0 ? writeNanos : writeNanos + nowNs - writeStartNs;
+        }
+    }
+
+    private void beginRowGroupWrite()
+    {
+        synchronized (writeClockLock)
+        {
+            writeStartNs = System.nanoTime();
+        }
+    }
+
+    private void endRowGroupWrite()
+    {
+        synchronized (writeClockLock)
+        {
+            writeNanos += System.nanoTime() - writeStartNs;
+            writeStartNs = -1L;
+        }
+    }
+
+    private void beginEncoding()
+    {
+        encodeStartNs = System.nanoTime();
+        encodeStartWriteNanos = getWriteNanos(encodeStartNs);
+    }
+
+    private void endEncoding()
+    {
+        if (encodeStartNs >= 0)
+        {
+            long endNs = System.nanoTime();
+            encodeNanos += endNs - encodeStartNs;
+            // the row groups are written by a single thread, thus the write time elapsed is the overlap
+            overlapNanos += getWriteNanos(endNs) - encodeStartWriteNanos;
+            encodeStartNs = -1L;
+        }
+    }
+
     public int getPixelStride()
     {
         return columnWriterOption.getPixelStride();
@@ -455,6 +651,9 @@ public class PixelsWriterImpl implements PixelsWriter
          * thus we should set curRowGroupDataLength = 0 here at the beginning.
          */
         curRowGroupDataLength = 0;
+        beginEncoding();
+        // the column writers encode dense column vectors, thus the filtered rows are removed here.
+        rowBatch.compact();
         curRowGroupNumOfRows += rowBatch.size;
         writeColumnVectors(rowBatch.cols, rowBatch.size);
         // If the current row group size has exceeded the row group size, write current row group.
@@ -464,6 +663,7 @@ public class PixelsWriterImpl implements PixelsWriter
             curRowGroupNumOfRows = 0;
             return false;
         }
+        endEncoding();
         return true;
     }
 
@@ -478,6 +678,7 @@ public class PixelsWriterImpl implements PixelsWriter
             if (currHashValue != hashValue)
             {
                 // Write the current partition (row group) and add the row batch to a new partition.
+                beginEncoding();
                 writeRowGroup();
                 curRowGroupNumOfRows = 0;
             }
@@ -485,8 +686,11 @@ public class PixelsWriterImpl implements PixelsWriter
         currHashValue = hashValue;
         hashValueIsSet = true;
         curRowGroupDataLength = 0;
+        beginEncoding();
+        rowBatch.compact();
         curRowGroupNumOfRows += rowBatch.size;
         writeColumnVectors(rowBatch.cols, rowBatch.size);
+        endEncoding();
     }
 
     private void writeColumnVectors(ColumnVector[] columnVectors, int rowBatchSize)
@@ -506,6 +710,10 @@ public class PixelsWriterImpl implements PixelsWriter
                 try
                 {
                     dataLength.addAndGet(writer.write(columnVector, rowBatchSize));
+                    if (bloomFilterBuilders[ii] != null)
+                    {
+                        bloomFilterBuilders[ii].add(columnVector, rowBatchSize);
+                    }
                     future.complete(null);
                 } catch (ClassCastException e)
                 {
@@ -557,8 +765,10 @@ public class PixelsWriterImpl implements PixelsWriter
         {
             if (curRowGroupNumOfRows != 0)
             {
+                beginEncoding();
                 writeRowGroup();
             }
+            waitForRowGroupWrites();
             writeFileTail();
             physicalWriter.close();
             for (ColumnWriter cw : columnWriters)
@@ -571,23 +781,101 @@ public class PixelsWriterImpl implements PixelsWriter
             }
             columnWriterService.shutdown();
             columnWriterService.shutdownNow();
+            LOGGER.debug("row groups: " + numRowGroups + ", encode: " + encodeNanos / 1000_000 + "ms, write: " +
+                    getWriteNanos() / 1000_000 + "ms, overlap: " + overlapNanos / 1000_000 + "ms, back-pressure: " +
+                    backPressureNanos / 1000_000 + "ms");
         }
         catch (IOException e)
         {
             LOGGER.error(e.getMessage());
         }
+        finally
+        {
+            if (rowGroupWriteService != null)
+            {
+                rowGroupWriteService.shutdownNow();
+            }
+        }
     }
 
+    /**
+     * Encode the current row group and write it into the physical writer. If the row groups are pipelined
+     * (maxInFlightRowGroups > 0), the encoded row group is written by the row group write service in the
+     * background and this method returns as soon as the number of in-flight row groups is below the limit.
+     * The current encoding interval, if any, ends before waiting for the in-flight row groups.
+     */
     private void writeRowGroup() throws IOException
+    {
+        if (rowGroupWriteException != null)
+        {
+            throw rowGroupWriteException;
+        }
+        EncodedRowGroup rowGroup = encodeRowGroup();
+        endEncoding();
+        if (rowGroupWriteService == null)
+        {
+            writeEncodedRowGroup(rowGroup);
+            return;
+        }
+
+        // back-pressure: the memory of the encoded row groups is bounded by the max number of in-flight row groups
+        long waitStartNs = System.nanoTime();
+        rowGroupWritePermits.acquireUninterruptibly();
+        backPressureNanos += System.nanoTime() - waitStartNs;
+        rowGroupWriteService.execute(() ->
+        {
+            try
+            {
+                // the row groups after a failed one are not written, as their offsets would be wrong
+                if (rowGroupWriteException == null)
+                {
+                    writeEncodedRowGroup(rowGroup);
+                }
+            }
+            catch (IOException e)
+            {
+                rowGroupWriteException = e;
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.error("failed to write row group", e);
+                rowGroupWriteException = new IOException("failed to write row group", e);
+            }
+            finally
+            {
+                rowGroupWritePermits.release();
+            }
+        });
+    }
+
+    /**
+     * Wait for the in-flight row groups to be written into the physical writer.
+     * @throws IOException if any in-flight row group failed to be written
+     */
+    private void waitForRowGroupWrites() throws IOException
+    {
+        if (rowGroupWriteService != null)
+        {
+            rowGroupWritePermits.acquireUninterruptibly(maxInFlightRowGroups);
+            rowGroupWritePermits.release(maxInFlightRowGroups);
+        }
+        if (rowGroupWriteException != null)
+        {
+            throw rowGroupWriteException;
+        }
+    }
+
+    /**
+     * Flush and compress the column writers of the current row group, collect the statistics, index, and
+     * encoding of the column chunks, and replace the column writers with new ones for the next row group.
+     * Nothing is written into the physical writer in this method.
+     */
+    private EncodedRowGroup encodeRowGroup() throws IOException
     {
         int rowGroupDataLength = 0;
 
         PixelsProto.RowGroupStatistic.Builder curRowGroupStatistic =
                 PixelsProto.RowGroupStatistic.newBuilder();
-        PixelsProto.RowGroupInformation.Builder curRowGroupInfo =
-                PixelsProto.RowGroupInformation.newBuilder();
-        PixelsProto.RowGroupIndex.Builder curRowGroupIndex =
-                PixelsProto.RowGroupIndex.newBuilder();
         PixelsProto.RowGroupEncoding.Builder curRowGroupEncoding =
                 PixelsProto.RowGroupEncoding.newBuilder();
 
@@ -596,112 +884,46 @@ public class PixelsWriterImpl implements PixelsWriter
         {
             // flush writes the isNull bit map into the internal output stream.
             writer.flush();
-            rowGroupDataLength += writer.getColumnChunkSize();
-            if (CHUNK_ALIGNMENT != 0 && rowGroupDataLength % CHUNK_ALIGNMENT != 0)
-            {
-                /*
-                 * Issue #519:
-                 * This is necessary as the prepare() method of some storage (e.g., hdfs)
-                 * has to determine whether to start a new block, if the current block
-                 * is not large enough.
-                 */
-                rowGroupDataLength += CHUNK_ALIGNMENT - rowGroupDataLength % CHUNK_ALIGNMENT;
-            }
         }
         if (hasHiddenColumn)
         {
             hiddenColumnWriter.flush();
-            rowGroupDataLength += hiddenColumnWriter.getColumnChunkSize();
-            if (CHUNK_ALIGNMENT != 0 && rowGroupDataLength % CHUNK_ALIGNMENT != 0)
-            {
-                rowGroupDataLength += CHUNK_ALIGNMENT - rowGroupDataLength % CHUNK_ALIGNMENT;
-            }
-        }
-
-        // write and flush row group content
-        try
-        {
-            curRowGroupOffset = physicalWriter.prepare(rowGroupDataLength);
-            if (curRowGroupOffset != -1)
-            {
-                // Issue #519: make sure to start writing the column chunks in the row group from an aligned offset.
-                int tryAlign = 0;
-                while (CHUNK_ALIGNMENT != 0 && curRowGroupOffset % CHUNK_ALIGNMENT != 0 && tryAlign++ < 2)
-                {
-                    int alignBytes = (int) (CHUNK_ALIGNMENT - curRowGroupOffset % CHUNK_ALIGNMENT);
-                    physicalWriter.append(CHUNK_PADDING_BUFFER, 0, alignBytes);
-                    writtenBytes += alignBytes;
-                    curRowGroupOffset = physicalWriter.prepare(rowGroupDataLength);
-                }
-                if (tryAlign > 2)
-                {
-                    LOGGER.warn("failed to align the start offset of the column chunks in the row group");
-                    throw new IOException("failed to align the start offset of the column chunks in the row group");
-                }
-
-                for (ColumnWriter writer : columnWriters)
-                {
-                    byte[] rowGroupBuffer = writer.getColumnChunkContent();
-                    physicalWriter.append(rowGroupBuffer, 0, rowGroupBuffer.length);
-                    writtenBytes += rowGroupBuffer.length;
-                    // add align bytes to make sure the column size is the multiple of fsBlockSize
-                    if(CHUNK_ALIGNMENT != 0 && rowGroupBuffer.length % CHUNK_ALIGNMENT != 0)
-                    {
-                        int alignBytes = CHUNK_ALIGNMENT - rowGroupBuffer.length % CHUNK_ALIGNMENT;
-                        physicalWriter.append(CHUNK_PADDING_BUFFER, 0, alignBytes);
-                        writtenBytes += alignBytes;
-                    }
-                }
-                if (hasHiddenColumn)
-                {
-                    byte[] hiddenRowGroupBuffer = hiddenColumnWriter.getColumnChunkContent();
-                    physicalWriter.append(hiddenRowGroupBuffer, 0, hiddenRowGroupBuffer.length);
-                    writtenBytes += hiddenRowGroupBuffer.length;
-                    if(CHUNK_ALIGNMENT != 0 && hiddenRowGroupBuffer.length % CHUNK_ALIGNMENT != 0)
-                    {
-                        int alignBytes = CHUNK_ALIGNMENT - hiddenRowGroupBuffer.length % CHUNK_ALIGNMENT;
-                        physicalWriter.append(CHUNK_PADDING_BUFFER, 0, alignBytes);
-                        writtenBytes += alignBytes;
-                    }
-                }
-                physicalWriter.flush();
-            }
-            else
-            {
-                LOGGER.warn("write row group prepare failed");
-                throw new IOException("write row group prepare failed");
-            }
-        }
-        catch (IOException e)
-        {
-            LOGGER.error(e.getMessage());
-            throw e;
         }
+        // the (compressed) content of each column chunk, the last one is the hidden column chunk if present
+        byte[][] columnChunks = getColumnChunkContents();
+        PixelsProto.ColumnChunkIndex.Builder[] chunkIndexBuilders =
+                new PixelsProto.ColumnChunkIndex.Builder[columnChunks.length];
 
-        // update index and stats
-        rowGroupDataLength = 0;
+        // update index and stats, the chunk offsets are relative to the start offset of the row group
         for (int i = 0; i < columnWriters.length; i++)
         {
             ColumnWriter writer = columnWriters[i];
             PixelsProto.ColumnChunkIndex.Builder chunkIndexBuilder = writer.getColumnChunkIndex();
-            chunkIndexBuilder.setChunkOffset(curRowGroupOffset + rowGroupDataLength);
-            chunkIndexBuilder.setChunkLength(writer.getColumnChunkSize());
-            rowGroupDataLength += writer.getColumnChunkSize();
+            chunkIndexBuilder.setChunkOffset(rowGroupDataLength);
+            chunkIndexBuilder.setChunkLength(columnChunks[i].length);
+            chunkIndexBuilders[i] = chunkIndexBuilder;
+            rowGroupDataLength += columnChunks[i].length;
             if(CHUNK_ALIGNMENT != 0 && rowGroupDataLength % CHUNK_ALIGNMENT != 0)
             {
                 /*
                  * Issue #519:
-                 * This line must be consistent with how column chunks are padded above.
+                 * This line must be consistent with how column chunks are padded in writeEncodedRowGroup().
                  * If we only pad after each column chunk when writing it into the physical writer
                  * without checking the alignment of the current position of the physical writer,
                  * then we should not consider curRowGroupOffset when calculating the alignment here.
                  */
                 rowGroupDataLength += CHUNK_ALIGNMENT - rowGroupDataLength % CHUNK_ALIGNMENT;
             }
-            // collect columnChunkIndex from every column chunk into curRowGroupIndex
-            curRowGroupIndex.addColumnChunkIndexEntries(chunkIndexBuilder.build());
             // collect columnChunkStatistic into rowGroupStatistic
-            curRowGroupStatistic.addColumnChunkStats(writer.getColumnChunkStat().build());
+            if (bloomFilterBuilders[i] != null)
+            {
+                curRowGroupStatistic.addColumnChunkStats(writer.getColumnChunkStat()
+                        .setBloomFilter(bloomFilterBuilders[i].build()).build());
+            }
+            else
+            {
+                curRowGroupStatistic.addColumnChunkStats(writer.getColumnChunkStat().build());
+            }
             // collect columnChunkEncoding
             curRowGroupEncoding.addColumnChunkEncodings(writer.getColumnChunkEncoding().build());
             // update file column statistic
@@ -720,15 +942,14 @@ public class PixelsWriterImpl implements PixelsWriter
         if (hasHiddenColumn)
         {
             PixelsProto.ColumnChunkIndex.Builder hiddenChunkIndexBuilder = hiddenColumnWriter.getColumnChunkIndex();
-            hiddenChunkIndexBuilder.setChunkOffset(curRowGroupOffset + rowGroupDataLength);
-            hiddenChunkIndexBuilder.setChunkLength(hiddenColumnWriter.getColumnChunkSize());
-            rowGroupDataLength += hiddenColumnWriter.getColumnChunkSize();
+            hiddenChunkIndexBuilder.setChunkOffset(rowGroupDataLength);
+            hiddenChunkIndexBuilder.setChunkLength(columnChunks[columnWriters.length].length);
+            chunkIndexBuilders[columnWriters.length] = hiddenChunkIndexBuilder;
+            rowGroupDataLength += columnChunks[columnWriters.length].length;
             if(CHUNK_ALIGNMENT != 0 && rowGroupDataLength % CHUNK_ALIGNMENT != 0)
             {
                 rowGroupDataLength += CHUNK_ALIGNMENT - rowGroupDataLength % CHUNK_ALIGNMENT;
             }
-            // collect hidden columnChunkIndex from every column chunk into curRowGroupIndex
-            curRowGroupIndex.setHiddenColumnChunkIndexEntry(hiddenChunkIndexBuilder.build());
             // collect hidden columnChunkStatistic into row group statistics
             curRowGroupStatistic.setHiddenColumnChunkStats(hiddenColumnWriter.getColumnChunkStat().build());
             // collect hidden columnChunkEncoding
@@ -738,48 +959,218 @@ public class PixelsWriterImpl implements PixelsWriter
             hiddenColumnWriter = newColumnWriter(TypeDescription.HIDDEN_COLUMN_TYPE, columnWriterOption);
         }
 
-        // put curRowGroupIndex into rowGroupFooter
-        PixelsProto.RowGroupFooter rowGroupFooter =
-                PixelsProto.RowGroupFooter.newBuilder()
-                        .setRowGroupIndexEntry(curRowGroupIndex.build())
-                        .setRowGroupEncoding(curRowGroupEncoding.build())
-                        .build();
+        // put curRowGroupStatistic into rowGroupStatisticList
+        rowGroupStatisticList.add(curRowGroupStatistic.build());
 
-        // write and flush row group footer
+        this.numRowGroups++;
+        this.fileRowNum += curRowGroupNumOfRows;
+        this.fileContentLength += rowGroupDataLength;
+        return new EncodedRowGroup(columnChunks, chunkIndexBuilders, curRowGroupEncoding.build(),
+                rowGroupDataLength, curRowGroupNumOfRows, currHashValue);
+    }
+
+    /**
+     * Write the column chunks and the footer of the encoded row group into the physical writer.
+     * This method is called by the row group write service if the row groups are pipelined.
+     */
+    private void writeEncodedRowGroup(EncodedRowGroup rowGroup) throws IOException
+    {
+        beginRowGroupWrite();
         try
         {
-            byte[] footerBuffer = rowGroupFooter.toByteArray();
-            physicalWriter.prepare(footerBuffer.length);
-            curRowGroupFooterOffset = physicalWriter.append(footerBuffer, 0, footerBuffer.length);
-            writtenBytes += footerBuffer.length;
-            physicalWriter.flush();
+            byte[][] columnChunks = rowGroup.columnChunks;
+            int rowGroupDataLength = rowGroup.dataLength;
+            PixelsProto.RowGroupInformation.Builder curRowGroupInfo =
+                    PixelsProto.RowGroupInformation.newBuilder();
+            PixelsProto.RowGroupIndex.Builder curRowGroupIndex =
+                    PixelsProto.RowGroupIndex.newBuilder();
+
+            // write and flush row group content
+            try
+            {
+                curRowGroupOffset = physicalWriter.prepare(rowGroupDataLength);
+                if (curRowGroupOffset != -1)
+                {
+                    // Issue #519: make sure to start writing the column chunks in the row group from an aligned offset.
+                    int tryAlign = 0;
+                    while (CHUNK_ALIGNMENT != 0 && curRowGroupOffset % CHUNK_ALIGNMENT != 0 && tryAlign++ < 2)
+                    {
+                        int alignBytes = (int) (CHUNK_ALIGNMENT - curRowGroupOffset % CHUNK_ALIGNMENT);
+                        physicalWriter.append(CHUNK_PADDING_BUFFER, 0, alignBytes);
+                        writtenBytes += alignBytes;
+                        curRowGroupOffset = physicalWriter.prepare(rowGroupDataLength);
+                    }
+                    if (tryAlign > 2)
+                    {
+                        LOGGER.warn("failed to align the start offset of the column chunks in the row group");
+                        throw new IOException("failed to align the start offset of the column chunks in the row group");
+                    }
+
+                    for (byte[] rowGroupBuffer : columnChunks)
+                    {
+                        physicalWriter.append(rowGroupBuffer, 0, rowGroupBuffer.length);
+                        writtenBytes += rowGroupBuffer.length;
+                        // add align bytes to make sure the column size is the multiple of fsBlockSize
+                        if(CHUNK_ALIGNMENT != 0 && rowGroupBuffer.length % CHUNK_ALIGNMENT != 0)
+                        {
+                            int alignBytes = CHUNK_ALIGNMENT - rowGroupBuffer.length % CHUNK_ALIGNMENT;
+                            physicalWriter.append(CHUNK_PADDING_BUFFER, 0, alignBytes);
+                            writtenBytes += alignBytes;
+                        }
+                    }
+                    physicalWriter.flush();
+                }
+                else
+                {
+                    LOGGER.warn("write row group prepare failed");
+                    throw new IOException("write row group prepare failed");
+                }
+            }
+            catch (IOException e)
+            {
+                LOGGER.error(e.getMessage());
+                throw e;
+            }
+
+            // collect columnChunkIndex from every column chunk into curRowGroupIndex
+            for (int i = 0; i < columnWriters.length; i++)
+            {
+                PixelsProto.ColumnChunkIndex.Builder chunkIndexBuilder = rowGroup.chunkIndexBuilders[i];
+                chunkIndexBuilder.setChunkOffset(curRowGroupOffset + chunkIndexBuilder.getChunkOffset());
+                curRowGroupIndex.addColumnChunkIndexEntries(chunkIndexBuilder.build());
+            }
+            if (hasHiddenColumn)
+            {
+                PixelsProto.ColumnChunkIndex.Builder hiddenChunkIndexBuilder =
+                        rowGroup.chunkIndexBuilders[columnWriters.length];
+                hiddenChunkIndexBuilder.setChunkOffset(curRowGroupOffset + hiddenChunkIndexBuilder.getChunkOffset());
+                curRowGroupIndex.setHiddenColumnChunkIndexEntry(hiddenChunkIndexBuilder.build());
+            }
+
+            // put curRowGroupIndex into rowGroupFooter
+            PixelsProto.RowGroupFooter rowGroupFooter =
+                    PixelsProto.RowGroupFooter.newBuilder()
+                            .setRowGroupIndexEntry(curRowGroupIndex.build())
+                            .setRowGroupEncoding(rowGroup.encoding)
+                            .build();
+
+            // write and flush row group footer
+            try
+            {
+                byte[] footerBuffer = rowGroupFooter.toByteArray();
+                physicalWriter.prepare(footerBuffer.length);
+                curRowGroupFooterOffset = physicalWriter.append(footerBuffer, 0, footerBuffer.length);
+                writtenBytes += footerBuffer.length;
+                physicalWriter.flush();
+            }
+            catch (IOException e)
+            {
+                LOGGER.error(e.getMessage());
+                throw e;
+            }
+
+            // update RowGroupInformation, and put it into rowGroupInfoList
+            curRowGroupInfo.setFooterOffset(curRowGroupFooterOffset);
+            curRowGroupInfo.setDataLength(rowGroupDataLength);
+            curRowGroupInfo.setFooterLength(rowGroupFooter.getSerializedSize());
+            curRowGroupInfo.setNumberOfRows(rowGroup.numRows);
+            if (partitioned)
+            {
+                PixelsProto.PartitionInformation.Builder partitionInfo =
+                        PixelsProto.PartitionInformation.newBuilder();
+                // partitionColumnIds has been checked to be present in the builder.
+                partitionInfo.addAllColumnIds(partKeyColumnIds.orElse(null));
+                partitionInfo.setHashValue(rowGroup.hashValue);
+                curRowGroupInfo.setPartitionInfo(partitionInfo.build());
+            }
+            rowGroupInfoList.add(curRowGroupInfo.build());
         }
-        catch (IOException e)
+        finally
         {
-            LOGGER.error(e.getMessage());
-            throw e;
+            endRowGroupWrite();
         }
+    }
 
-        // update RowGroupInformation, and put it into rowGroupInfoList
-        curRowGroupInfo.setFooterOffset(curRowGroupFooterOffset);
-        curRowGroupInfo.setDataLength(rowGroupDataLength);
-        curRowGroupInfo.setFooterLength(rowGroupFooter.getSerializedSize());
-        curRowGroupInfo.setNumberOfRows(curRowGroupNumOfRows);
-        if (partitioned)
+    /**
+     * Get the content of the flushed column chunks in the current row group. If compression is enabled,
+     * the column chunks are compressed in parallel, and the compression kind and uncompressed length
+     * are set in the column chunk index of the compressed column chunks.
+     *
+     * @return the content of the column chunks, the last one is the hidden column chunk if present
+     */
+    private byte[][] getColumnChunkContents()
+    {
+        int numChunks = columnWriters.length + (hasHiddenColumn ? 1 : 0);
+        byte[][] columnChunks = new byte[numChunks][];
+        CompletableFuture<?>[] futures = new CompletableFuture[numChunks];
+        for (int i = 0; i < numChunks; ++i)
         {
-            PixelsProto.PartitionInformation.Builder partitionInfo =
-                    PixelsProto.PartitionInformation.newBuilder();
-            // partitionColumnIds has been checked to be present in the builder.
-            partitionInfo.addAllColumnIds(partKeyColumnIds.orElse(null));
-            partitionInfo.setHashValue(currHashValue);
-            curRowGroupInfo.setPartitionInfo(partitionInfo.build());
+            ColumnWriter writer = i < columnWriters.length ? columnWriters[i] : hiddenColumnWriter;
+            if (compressionKind == CompressionKind.NONE)
+            {
+                columnChunks[i] = writer.getColumnChunkContent();
+                futures[i] = CompletableFuture.completedFuture(null);
+            }
+            else
+            {
+                int ii = i;
+                futures[i] = CompletableFuture.runAsync(() ->
+                        columnChunks[ii] = compressColumnChunk(writer), columnWriterService);
+            }
         }
-        rowGroupInfoList.add(curRowGroupInfo.build());
-        // put curRowGroupStatistic into rowGroupStatisticList
-        rowGroupStatisticList.add(curRowGroupStatistic.build());
+        CompletableFuture.allOf(futures).join();
+        return columnChunks;
+    }
 
-        this.fileRowNum += curRowGroupNumOfRows;
-        this.fileContentLength += rowGroupDataLength;
+    private byte[] compressColumnChunk(ColumnWriter writer)
+    {
+        byte[] content = writer.getColumnChunkContent();
+        if (content.length < compressionBlockSize)
+        {
+            return content;
+        }
+        byte[] compressed = new byte[compressionCodec.maxCompressedLength(content.length)];
+        int compressedLength = compressionCodec.compress(
+                content, 0, content.length, compressed, 0, compressed.length);
+        if (compressedLength >= content.length)
+        {
+            // incompressible column chunk, store it as is
+            return content;
+        }
+        writer.getColumnChunkIndex()
+                .setCompression(compressionKind)
+                .setUncompressedLength(content.length);
+        return Arrays.copyOf(compressed, compressedLength);
+    }
+
+    /**
+     * The row group that has been encoded but not written into the physical writer yet.
+     */
+    private static class EncodedRowGroup
+    {
+        /**
+         * The (compressed) content of each column chunk, the last one is the hidden column chunk if present.
+         */
+        private final byte[][] columnChunks;
+        /**
+         * The index of each column chunk, the chunk offsets are relative to the start offset of the row group.
+         */
+        private final PixelsProto.ColumnChunkIndex.Builder[] chunkIndexBuilders;
+        private final PixelsProto.RowGroupEncoding encoding;
+        private final int dataLength;
+        private final int numRows;
+        private final int hashValue;
+
+        private EncodedRowGroup(byte[][] columnChunks, PixelsProto.ColumnChunkIndex.Builder[] chunkIndexBuilders,
+                                PixelsProto.RowGroupEncoding encoding, int dataLength, int numRows, int hashValue)
+        {
+            this.columnChunks = columnChunks;
+            this.chunkIndexBuilders = chunkIndexBuilders;
+            this.encoding = encoding;
+            this.dataLength = dataLength;
+            this.numRows = numRows;
+            this.hashValue = hashValue;
+        }
     }
 
     private void writeFileTail() throws IOException
@@ -20,28 +20,45 @@
 package io.pixelsdb.pixels.core.compactor;
 
 import com.google.common.collect.ImmutableList;
+import io.pixelsdb.pixels.common.exception.MetadataException;
+import io.pixelsdb.pixels.common.exception.RetinaException;
+import io.pixelsdb.pixels.common.metadata.MetadataService;
 import io.pixelsdb.pixels.common.physical.*;
+import io.pixelsdb.pixels.common.retina.RetinaService;
 import io.pixelsdb.pixels.common.utils.ConfigFactory;
 import io.pixelsdb.pixels.common.utils.Constants;
+import io.pixelsdb.pixels.core.PixelsFooterCache;
 import io.pixelsdb.pixels.core.PixelsProto;
 import io.pixelsdb.pixels.core.PixelsVersion;
 import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.compression.CompressionCodec;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
 import io.pixelsdb.pixels.core.exception.PixelsFileMagicInvalidException;
 import io.pixelsdb.pixels.core.exception.PixelsFileVersionInvalidException;
 import io.pixelsdb.pixels.core.exception.PixelsReaderException;
+import io.pixelsdb.pixels.core.reader.ColumnReader;
+import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
 import io.pixelsdb.pixels.core.stats.StatsRecorder;
+import io.pixelsdb.pixels.core.utils.Bitmap;
+import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.writer.ColumnWriter;
+import io.pixelsdb.pixels.core.writer.PixelsWriterOption;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.TimeZone;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.pixelsdb.pixels.common.utils.Constants.DEFAULT_HDFS_BLOCK_SIZE;
+import static io.pixelsdb.pixels.core.writer.ColumnWriter.newColumnWriter;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -52,6 +69,20 @@ import static java.util.Objects.requireNonNull;
 public class PixelsCompactor
 {
     private static final Logger LOGGER = LogManager.getLogger(PixelsCompactor.class);
+    /**
+     * The column chunks in a source file are coalesced into one read request if the gap between them
+     * is not larger than this, e.g., the row group footers between the row groups are read and discarded.
+     */
+    private static final int MAX_COALESCED_GAP = 64 * 1024;
+    /**
+     * The max number of bytes of the column chunks in a read of a source file, unless a single column chunk
+     * is larger than this. It also bounds the length of a coalesced read request.
+     */
+    private static final int MAX_READ_LENGTH = 64 * 1024 * 1024;
+    /**
+     * The default max number of reads of the source files in flight.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_READS = 4;
 
     private final TypeDescription schema;
     private final CompactLayout compactLayout;
@@ -59,8 +90,8 @@ public class PixelsCompactor
     private final PixelsProto.CompressionKind compressionKind;
     private final int compressionBlockSize;
     private final TimeZone timeZone;
-    private final long fileContentLength;
-    private final int fileRowNum;
+    private long fileContentLength;
+    private int fileRowNum;
     /**
      * The number of bytes that each column chunk is aligned to.
      */
@@ -82,6 +113,39 @@ public class PixelsCompactor
 
     private final boolean hasHiddenColumn;
 
+    /**
+     * The max number of reads of the source files that are in flight (read but not yet written), each read has at
+     * most {@link #MAX_READ_LENGTH} bytes of column chunks, hence they bound the memory used by compaction.
+     */
+    private final int maxInFlightReads;
+    /**
+     * The rows to keep in each row group whose deleted rows are purged during compaction. It is null if the
+     * deleted rows are not purged, and the element is null if the row group has no deleted rows.
+     */
+    private final Bitmap[] rowGroupSelectedRows;
+    /**
+     * The number of rows in each row group of the source files, before purging the deleted rows.
+     */
+    private final int[] sourceRowGroupNumRows;
+    /**
+     * The row group id and column id of each column chunk to write, in the order of writing. The column id of a
+     * hidden column chunk equals to the number of columns.
+     */
+    private final int[] chunkRowGroupIds;
+    private final int[] chunkColumnIds;
+    /**
+     * The reads of the column chunks from the source files, in the order of writing.
+     */
+    private final List<SourceRead> sourceReads;
+    /**
+     * The number of bytes reduced from the column chunks by purging, it is updated by the read threads.
+     */
+    private final AtomicLong numPurgedBytes = new AtomicLong(0);
+    /**
+     * Whether the row group is dropped from the compacted file as all of its rows are deleted.
+     */
+    private final boolean[] droppedRowGroups;
+
     private PixelsCompactor(
             TypeDescription schema,
             boolean hasHiddenColumn,
@@ -99,7 +163,9 @@ public class PixelsCompactor
             List<PixelsProto.RowGroupInformation.Builder> rowGroupInfoBuilderList,
             List<PixelsProto.RowGroupStatistic.Builder> rowGroupStatBuilderList,
             List<PixelsProto.RowGroupFooter.Builder> rowGroupFooterBuilderList,
-            List<String> rowGroupPaths)
+            List<String> rowGroupPaths,
+            int maxInFlightReads,
+            long[][] rowGroupVisibilityBitmaps)
     {
         this.schema = requireNonNull(schema, "schema is null");
         this.hasHiddenColumn = hasHiddenColumn;
@@ -148,14 +214,169 @@ public class PixelsCompactor
         }
         this.rowGroupFooterBuilderList = ImmutableList.copyOf(rowGroupFooterBuilderList);
         this.rowGroupPaths = ImmutableList.copyOf(rowGroupPaths);
+
+        checkArgument(maxInFlightReads > 0, "maxInFlightReads is not positive");
+        this.maxInFlightReads = maxInFlightReads;
+        checkArgument(rowGroupVisibilityBitmaps == null || rowGroupVisibilityBitmaps.length == rowGroupPaths.size(),
+                "length of the row group visibility bitmaps is not consistent");
+        int numRowGroups = this.rowGroupPaths.size();
+        int numColumns = this.schema.getChildren().size();
+        this.droppedRowGroups = new boolean[numRowGroups];
+        this.sourceRowGroupNumRows = new int[numRowGroups];
+        this.rowGroupSelectedRows = rowGroupVisibilityBitmaps == null ? null : new Bitmap[numRowGroups];
+        for (int rowGroupId = 0; rowGroupId < numRowGroups; ++rowGroupId)
+        {
+            PixelsProto.RowGroupInformation.Builder rowGroupInfo = this.rowGroupInfoBuilderList.get(rowGroupId);
+            int numRows = rowGroupInfo.getNumberOfRows();
+            this.sourceRowGroupNumRows[rowGroupId] = numRows;
+            if (rowGroupVisibilityBitmaps != null && rowGroupVisibilityBitmaps[rowGroupId] != null)
+            {
+                purgeRowGroupInfo(rowGroupId, numRows, rowGroupVisibilityBitmaps[rowGroupId]);
+            }
+        }
+
+        // the common column chunks in the order of the compact layout, followed by the hidden column chunks
+        int maxNumChunks = this.compactLayout.size() + (hasHiddenColumn ? numRowGroups : 0);
+        int[] chunkRowGroupIds = new int[maxNumChunks];
+        int[] chunkColumnIds = new int[maxNumChunks];
+        int numChunks = 0;
+        for (int i = 0; i < this.compactLayout.size(); ++i)
+        {
+            ColumnChunkIndex index = this.compactLayout.get(i);
+            if (!this.droppedRowGroups[index.getRowGroupId()])
+            {
+                chunkRowGroupIds[numChunks] = index.getRowGroupId();
+                chunkColumnIds[numChunks++] = index.getColumnId();
+            }
+        }
+        if (hasHiddenColumn)
+        {
+            /**
+             * Warning: It's hard-coded here.
+             * The chunks of the hidden column from different row groups are appended to the end of other column chunks.
+             */
+            for (int rowGroupId = 0; rowGroupId < numRowGroups; ++rowGroupId)
+            {
+                if (!this.droppedRowGroups[rowGroupId])
+                {
+                    chunkRowGroupIds[numChunks] = rowGroupId;
+                    chunkColumnIds[numChunks++] = numColumns;
+                }
+            }
+        }
+        this.chunkRowGroupIds = Arrays.copyOf(chunkRowGroupIds, numChunks);
+        this.chunkColumnIds = Arrays.copyOf(chunkColumnIds, numChunks);
+
+        /*
+         * The consecutive column chunks to write from the same source file are read together. For the naive layout,
+         * a read contains the column chunks of one or more row groups; for the pure layout, it contains the column
+         * chunks of the same column in the row groups of the file. Hence, the column chunks are read in the order
+         * of writing, and the memory used by compaction does not depend on the number of source files.
+         */
+        this.sourceReads = new ArrayList<>();
+        SourceRead sourceRead = null;
+        for (int i = 0; i < numChunks; ++i)
+        {
+            String path = this.rowGroupPaths.get(this.chunkRowGroupIds[i]);
+            long chunkLength = getChunkIndex(this.chunkRowGroupIds[i], this.chunkColumnIds[i]).getChunkLength();
+            if (sourceRead == null || !sourceRead.path.equals(path) ||
+                    sourceRead.numBytes + chunkLength > MAX_READ_LENGTH)
+            {
+                sourceRead = new SourceRead(path, i);
+                this.sourceReads.add(sourceRead);
+            }
+            sourceRead.end = i + 1;
+            sourceRead.numBytes += chunkLength;
+        }
+    }
+
+    /**
+     * A read of the consecutive column chunks to write that are in the same source file. The column chunks are
+     * coalesced into a few read requests executed in one batch, and each of them is released once it is written.
+     */
+    private static class SourceRead
+    {
+        private final String path;
+        /**
+         * The column chunks to read are in the range [start, end) of the column chunks to write.
+         */
+        private final int start;
+        private int end;
+        private long numBytes = 0;
+        private ByteBuffer[] chunks = null;
+        private CompletableFuture<Void> readFuture = null;
+
+        private SourceRead(String path, int start)
+        {
+            this.path = path;
+            this.start = start;
+            this.end = start;
+        }
     }
 
     /**
-     * @return the number of row groups to be compact in this compactor
+     * Find the rows to keep in the row group by the visibility bitmap, and update the number of rows in the row group
+     * and the compacted file. The row group is dropped if all of its rows are deleted.
+     */
+    private void purgeRowGroupInfo(int rowGroupId, int numRows, long[] visibilityBitmap)
+    {
+        Bitmap selected = new Bitmap(numRows, true);
+        for (int i = 0; i < numRows; ++i)
+        {
+            if ((visibilityBitmap[i / 64] & (1L << (i % 64))) != 0)
+            {
+                selected.clear(i);
+            }
+        }
+        int numSelected = selected.cardinality();
+        if (numSelected == numRows)
+        {
+            return;
+        }
+        this.fileRowNum -= numRows - numSelected;
+        if (numSelected == 0)
+        {
+            int numChunks = this.schema.getChildren().size() + (this.hasHiddenColumn ? 1 : 0);
+            for (int columnId = 0; columnId < numChunks; ++columnId)
+            {
+                this.fileContentLength -= getChunkIndex(rowGroupId, columnId).getChunkLength();
+            }
+            this.droppedRowGroups[rowGroupId] = true;
+            return;
+        }
+        this.rowGroupSelectedRows[rowGroupId] = selected;
+        this.rowGroupInfoBuilderList.get(rowGroupId).setNumberOfRows(numSelected);
+    }
+
+    /**
+     * Get the index entry of the column chunk. The row group footer is also updated by the read threads when purging
+     * the deleted rows, hence it is accessed with the lock on the row group footer.
+     * @param columnId the column id, it equals to the number of columns for the hidden column
+     */
+    private PixelsProto.ColumnChunkIndex getChunkIndex(int rowGroupId, int columnId)
+    {
+        PixelsProto.RowGroupFooter.Builder rowGroupFooter = this.rowGroupFooterBuilderList.get(rowGroupId);
+        synchronized (rowGroupFooter)
+        {
+            PixelsProto.RowGroupIndex.Builder rowGroupIndex = rowGroupFooter.getRowGroupIndexEntryBuilder();
+            return columnId < this.schema.getChildren().size() ?
+                    rowGroupIndex.getColumnChunkIndexEntries(columnId) :
+                    rowGroupIndex.getHiddenColumnChunkIndexEntry();
+        }
+    }
+
+    /**
+     * @return the number of row groups to be compact in this compactor, excluding the row groups
+     * dropped by purging the deleted rows after compaction
      */
     public int getNumRowGroup()
     {
-        return this.rowGroupInfoBuilderList.size();
+        int numRowGroups = 0;
+        for (boolean dropped : this.droppedRowGroups)
+        {
+            numRowGroups += dropped ? 0 : 1;
+        }
+        return numRowGroups;
     }
 
     public static class Builder
@@ -185,6 +406,10 @@ public class PixelsCompactor
         //private List<PixelsProto.ColumnStatistic.Builder> builderHiddenRowGroupStatBuilderList = null; // hidden column statistic if hasHiddenColumn
         private final List<PixelsProto.RowGroupFooter.Builder> builderRowGroupFooterBuilderList = new LinkedList<>();
         private final List<String> builderRowGroupPaths = new LinkedList<>();
+        private final List<Integer> builderRowGroupIdsInFile = new LinkedList<>();
+        private int builderMaxInFlightReads = DEFAULT_MAX_IN_FLIGHT_READS;
+        private long builderPurgeTimestamp = -1L;
+        private long[][] builderRowGroupVisibilityBitmaps = null;
 
         private Builder() { }
 
@@ -266,6 +491,40 @@ public class PixelsCompactor
             return this;
         }
 
+        /**
+         * @param maxInFlightReads the max number of reads of the source files that are in flight ahead of the column
+         *                         chunk being written, each read has at most 64MB of column chunks,
+         *                         default is {@link #DEFAULT_MAX_IN_FLIGHT_READS}
+         */
+        public PixelsCompactor.Builder setMaxInFlightReads(int maxInFlightReads)
+        {
+            this.builderMaxInFlightReads = maxInFlightReads;
+            return this;
+        }
+
+        /**
+         * Purge the rows deleted at or before the timestamp from the compacted file. The deleted rows are found by
+         * the visibility bitmaps of the source row groups queried from retina. The timestamp should not be greater
+         * than the safe gc timestamp, so that the purged rows are invisible to all the running and future queries.
+         * @param purgeTimestamp the timestamp, negative (default) to keep the deleted rows
+         */
+        public PixelsCompactor.Builder setPurgeTimestamp(long purgeTimestamp)
+        {
+            this.builderPurgeTimestamp = purgeTimestamp;
+            return this;
+        }
+
+        /**
+         * Purge the deleted rows by the given visibility bitmaps instead of querying them from retina.
+         * @param rowGroupVisibilityBitmaps the visibility bitmaps of the row groups in the source files,
+         *                                  in the order of the source paths and the row groups in each file
+         */
+        PixelsCompactor.Builder setRowGroupVisibilityBitmaps(long[][] rowGroupVisibilityBitmaps)
+        {
+            this.builderRowGroupVisibilityBitmaps = requireNonNull(rowGroupVisibilityBitmaps);
+            return this;
+        }
+
         public PixelsCompactor build() throws IOException
         {
             // check arguments
@@ -369,6 +628,7 @@ public class PixelsCompactor
                     builderRowGroupStatBuilderList.add(statBuilder);
                 }
 
+                int rowGroupIdInFile = 0;
                 for (PixelsProto.RowGroupInformation info : footer.getRowGroupInfosList())
                 {
                     builderRowGroupInfoBuilderList.add(info.toBuilder()); // footerOffset to be updated when compacting
@@ -382,12 +642,23 @@ public class PixelsCompactor
                     builderRowGroupFooterBuilderList
                             .add(rowGroupFooter.toBuilder()); // chunkOffset to be updated when compacting
                     builderRowGroupPaths.add(path);
+                    builderRowGroupIdsInFile.add(rowGroupIdInFile++);
                 }
                 fsReader.close();
             }
 
+            if (builderRowGroupVisibilityBitmaps == null && builderPurgeTimestamp >= 0)
+            {
+                builderRowGroupVisibilityBitmaps = queryVisibilityBitmaps();
+            }
+            checkArgument(builderRowGroupVisibilityBitmaps == null ||
+                    builderRowGroupVisibilityBitmaps.length == builderRowGroupPaths.size(),
+                    "the number of visibility bitmaps does not match the number of row groups");
+
             builderFsWriter = PhysicalWriterUtil.newPhysicalWriter(builderOutputStorage, builderFilePath,
                     builderBlockSize, builderReplication, builderBlockPadding, builderOverwrite);
+            // the footers of the file, if it is overwritten, are not valid any more
+            PixelsFooterCache.invalidateFile(builderFsWriter.getPath());
 
             return new PixelsCompactor(
                     builderSchema,
@@ -406,7 +677,74 @@ public class PixelsCompactor
                     builderRowGroupInfoBuilderList,
                     builderRowGroupStatBuilderList,
                     builderRowGroupFooterBuilderList,
-                    builderRowGroupPaths);
+                    builderRowGroupPaths,
+                    builderMaxInFlightReads,
+                    builderRowGroupVisibilityBitmaps);
+        }
+
+        /**
+         * Query the visibility bitmaps of all the source row groups at the purge timestamp in one request.
+         * @return the visibility bitmaps, the element is null if the row group has no deleted rows
+         */
+        private long[][] queryVisibilityBitmaps() throws IOException
+        {
+            int numRowGroups = builderRowGroupPaths.size();
+            long[] fileIds = new long[numRowGroups];
+            int[] rgIds = new int[numRowGroups];
+            long[][] visibilityBitmaps;
+            try
+            {
+                MetadataService metadataService = MetadataService.Instance();
+                Map<String, Long> pathToFileId = new HashMap<>();
+                Iterator<String> pathIterator = builderRowGroupPaths.iterator();
+                Iterator<Integer> rgIdIterator = builderRowGroupIdsInFile.iterator();
+                for (int i = 0; i < numRowGroups; ++i)
+                {
+                    String path = pathIterator.next();
+                    Long fileId = pathToFileId.get(path);
+                    if (fileId == null)
+                    {
+                        fileId = metadataService.getFileId(builderInputStorage.ensureSchemePrefix(path));
+                        pathToFileId.put(path, fileId);
+                    }
+                    fileIds[i] = fileId;
+                    rgIds[i] = rgIdIterator.next();
+                }
+                visibilityBitmaps = RetinaService.Instance().queryVisibility(fileIds, rgIds, builderPurgeTimestamp);
+            }
+            catch (MetadataException | RetinaException e)
+            {
+                throw new IOException("failed to query the visibility bitmaps of the source files", e);
+            }
+
+            Iterator<PixelsProto.RowGroupInformation.Builder> infoIterator = builderRowGroupInfoBuilderList.iterator();
+            for (int i = 0; i < numRowGroups; ++i)
+            {
+                int numRows = infoIterator.next().getNumberOfRows();
+                long[] bitmap = visibilityBitmaps[i];
+                if (bitmap != null && !hasDeletedRows(bitmap, numRows))
+                {
+                    visibilityBitmaps[i] = null;
+                }
+            }
+            return visibilityBitmaps;
+        }
+
+        private static boolean hasDeletedRows(long[] bitmap, int numRows)
+        {
+            for (int i = 0; i < bitmap.length && i * 64 < numRows; ++i)
+            {
+                long word = bitmap[i];
+                if (numRows - i * 64 < 64)
+                {
+                    word &= (1L << (numRows - i * 64)) - 1;
+                }
+                if (word != 0)
+                {
+                    return true;
+                }
+            }
+            return false;
         }
     }
 
@@ -415,126 +753,338 @@ public class PixelsCompactor
         return new PixelsCompactor.Builder();
     }
 
-    public void compact()
+    public void compact() throws IOException
     {
         this.writeColumnChunks();
+        this.fileContentLength -= this.numPurgedBytes.get();
         this.writeRowGroupFooters();
         this.writeFileTail();
     }
 
-    private void writeColumnChunks()
+    /**
+     * Write the column chunks in the order of the compact layout, followed by the hidden column chunks. Up to
+     * maxInFlightReads reads of the source files are executed (and purged) in the background ahead of the column
+     * chunk being written.
+     */
+    private void writeColumnChunks() throws IOException
     {
-        // write common column chunks
-        for (int i = 0; i < this.compactLayout.size(); ++i)
+        ExecutorService readService = Executors.newFixedThreadPool(this.maxInFlightReads);
+        try
         {
-            ColumnChunkIndex index = this.compactLayout.get(i);
-            int rowGroupId = index.getRowGroupId();
-            int columnId = index.getColumnId();
-            PixelsProto.ColumnChunkIndex.Builder columnChunkIndexBuilder =
-                    this.rowGroupFooterBuilderList.get(rowGroupId).getRowGroupIndexEntryBuilder()
-                            .getColumnChunkIndexEntriesBuilder(columnId);
-            long columnChunkOffset = columnChunkIndexBuilder.getChunkOffset();
-            int columnChunkLength = columnChunkIndexBuilder.getChunkLength();
-            String path = this.rowGroupPaths.get(rowGroupId);
-            try (PhysicalReader fsReader = PhysicalReaderUtil.newPhysicalReader(inputStorage, path))
+            int nextSourceRead = 0;
+            for (int r = 0; r < this.sourceReads.size(); ++r)
             {
-                if (fsReader == null)
+                for (; nextSourceRead < this.sourceReads.size() && nextSourceRead < r + this.maxInFlightReads;
+                     ++nextSourceRead)
                 {
-                    throw new IOException("read file failed.");
+                    SourceRead sourceRead = this.sourceReads.get(nextSourceRead);
+                    sourceRead.readFuture = CompletableFuture.runAsync(() ->
+                    {
+                        try
+                        {
+                            readColumnChunks(sourceRead);
+                        }
+                        catch (IOException e)
+                        {
+                            throw new CompletionException(e);
+                        }
+                    }, readService);
                 }
-                fsReader.seek(columnChunkOffset);
-                byte[] chunkBuffer = new byte[columnChunkLength];
-                fsReader.readFully(chunkBuffer);
-
-                // Issue #521: prepare for writing the column chunk, and make sure the start offset is aligned.
-                long chunkStartOffset = fsWriter.prepare(columnChunkLength);
-                int tryAlign = 0;
-                while (chunkAlignment != 0 && chunkStartOffset % chunkAlignment != 0 && tryAlign++ < 2)
+                SourceRead sourceRead = this.sourceReads.get(r);
+                try
                 {
-                    int alignBytes = (int) (chunkAlignment - chunkStartOffset % chunkAlignment);
-                    this.fsWriter.append(chunkPaddingBuffer, 0, alignBytes);
-                    chunkStartOffset = this.fsWriter.prepare(columnChunkLength);
+                    sourceRead.readFuture.join();
                 }
-                if (tryAlign > 2)
+                catch (CompletionException e)
                 {
-                    LOGGER.warn("failed to align the start offset of the column chunk");
-                    throw new IOException("failed to align the start offset of the column chunk");
+                    throw new IOException("failed to read the column chunks from " + sourceRead.path, e.getCause());
                 }
-
-                this.fsWriter.append(chunkBuffer, 0, columnChunkLength);
-                /*
-                 * Issue #521:
-                 * It is not necessary pad the column chunk here, as additional bytes are already padded before
-                 * writing this column chunk to ensure chunkStartOffset is aligned. For the last column chunk,
-                 * there is no need to ensure its length is aligned. We only need aligned start offsets.
-                 *
-                 * Also, there is no need to update the column chunk length, pixels reader needs the real length
-                 * of the column chunk.
-                 */
-                columnChunkIndexBuilder.setChunkOffset(chunkStartOffset);
-                // Issue #192: no need to flush fsWriter as writing has not finished.
+                for (int i = sourceRead.start; i < sourceRead.end; ++i)
+                {
+                    long chunkOffset = writeColumnChunk(sourceRead.chunks[i - sourceRead.start]);
+                    // release the column chunk as soon as it is written
+                    sourceRead.chunks[i - sourceRead.start] = null;
+                    /*
+                     * Issue #521:
+                     * There is no need to update the column chunk length, pixels reader needs the real length
+                     * of the column chunk.
+                     */
+                    PixelsProto.RowGroupFooter.Builder rowGroupFooter =
+                            this.rowGroupFooterBuilderList.get(this.chunkRowGroupIds[i]);
+                    synchronized (rowGroupFooter)
+                    {
+                        PixelsProto.RowGroupIndex.Builder rowGroupIndex = rowGroupFooter.getRowGroupIndexEntryBuilder();
+                        if (this.chunkColumnIds[i] < this.schema.getChildren().size())
+                        {
+                            rowGroupIndex.getColumnChunkIndexEntriesBuilder(this.chunkColumnIds[i])
+                                    .setChunkOffset(chunkOffset);
+                        }
+                        else
+                        {
+                            rowGroupIndex.getHiddenColumnChunkIndexEntryBuilder().setChunkOffset(chunkOffset);
+                        }
+                    }
+                    // Issue #192: no need to flush fsWriter as writing has not finished.
+                }
+                sourceRead.chunks = null;
             }
-            catch (IOException e)
+        }
+        catch (IOException e)
+        {
+            LOGGER.error(e.getMessage());
+            throw e;
+        }
+        finally
+        {
+            readService.shutdownNow();
+        }
+    }
+
+    /**
+     * Append the column chunk to the compacted file.
+     * @return the start offset of the column chunk in the compacted file
+     */
+    private long writeColumnChunk(ByteBuffer chunk) throws IOException
+    {
+        int columnChunkLength = chunk.remaining();
+        // Issue #521: prepare for writing the column chunk, and make sure the start offset is aligned.
+        long chunkStartOffset = fsWriter.prepare(columnChunkLength);
+        int tryAlign = 0;
+        while (chunkAlignment != 0 && chunkStartOffset % chunkAlignment != 0 && tryAlign++ < 2)
+        {
+            int alignBytes = (int) (chunkAlignment - chunkStartOffset % chunkAlignment);
+            this.fsWriter.append(chunkPaddingBuffer, 0, alignBytes);
+            chunkStartOffset = this.fsWriter.prepare(columnChunkLength);
+        }
+        if (tryAlign > 2)
+        {
+            LOGGER.warn("failed to align the start offset of the column chunk");
+            throw new IOException("failed to align the start offset of the column chunk");
+        }
+
+        if (chunk.hasArray())
+        {
+            this.fsWriter.append(chunk.array(), chunk.arrayOffset() + chunk.position(), columnChunkLength);
+        }
+        else
+        {
+            byte[] chunkBuffer = new byte[columnChunkLength];
+            chunk.duplicate().get(chunkBuffer);
+            this.fsWriter.append(chunkBuffer, 0, columnChunkLength);
+        }
+        /*
+         * Issue #521:
+         * It is not necessary pad the column chunk here, as additional bytes are already padded before
+         * writing this column chunk to ensure chunkStartOffset is aligned. For the last column chunk,
+         * there is no need to ensure its length is aligned. We only need aligned start offsets.
+         */
+        return chunkStartOffset;
+    }
+
+    /**
+     * Read the column chunks of the source read, and purge the deleted rows from them if the row groups have deleted
+     * rows. The column chunks are sorted by their offsets in the source file and coalesced into a few read requests,
+     * which are executed in one batch by the scheduler.
+     */
+    private void readColumnChunks(SourceRead sourceRead) throws IOException
+    {
+        int numChunks = sourceRead.end - sourceRead.start;
+        ByteBuffer[] chunks = new ByteBuffer[numChunks];
+        // the column chunks sorted by their offsets in the source file, each is {offset, length, index in chunks}
+        List<long[]> sortedChunks = new ArrayList<>(numChunks);
+        for (int i = 0; i < numChunks; ++i)
+        {
+            PixelsProto.ColumnChunkIndex chunkIndex = getChunkIndex(
+                    this.chunkRowGroupIds[sourceRead.start + i], this.chunkColumnIds[sourceRead.start + i]);
+            sortedChunks.add(new long[] {chunkIndex.getChunkOffset(), chunkIndex.getChunkLength(), i});
+        }
+        sortedChunks.sort(Comparator.comparingLong(chunk -> chunk[0]));
+
+        Scheduler.RequestBatch requestBatch = new Scheduler.RequestBatch();
+        List<CompletableFuture> actionFutures = new ArrayList<>();
+        for (int start = 0, end; start < sortedChunks.size(); start = end)
+        {
+            long rangeStart = sortedChunks.get(start)[0];
+            long rangeEnd = rangeStart + sortedChunks.get(start)[1];
+            for (end = start + 1; end < sortedChunks.size(); ++end)
             {
-                LOGGER.error(e.getMessage());
-                e.printStackTrace();
+                long[] chunk = sortedChunks.get(end);
+                long chunkEnd = Math.max(rangeEnd, chunk[0] + chunk[1]);
+                if (chunk[0] - rangeEnd > MAX_COALESCED_GAP || chunkEnd - rangeStart > MAX_READ_LENGTH)
+                {
+                    break;
+                }
+                rangeEnd = chunkEnd;
             }
+            List<long[]> rangeChunks = sortedChunks.subList(start, end);
+            actionFutures.add(requestBatch.add(-1L, rangeStart, (int) (rangeEnd - rangeStart)).thenAccept(resp ->
+            {
+                for (long[] chunk : rangeChunks)
+                {
+                    ByteBuffer chunkBuffer = resp.duplicate();
+                    chunkBuffer.position(resp.position() + (int) (chunk[0] - rangeStart));
+                    chunkBuffer.limit(chunkBuffer.position() + (int) chunk[1]);
+                    chunks[(int) chunk[2]] = chunkBuffer.slice();
+                }
+            }));
         }
-        // write hidden column chunks
-        if (hasHiddenColumn)
+
+        try (PhysicalReader fsReader = PhysicalReaderUtil.newPhysicalReader(this.inputStorage, sourceRead.path))
         {
-            /**
-             * Warning: It's hard-coded here.
-             * The chunks of the hidden column from different row groups are appended to the end of other column chunks.
-             */
-            for (int rowGroupId = 0; rowGroupId < this.rowGroupFooterBuilderList.size(); ++rowGroupId)
+            Scheduler scheduler = SchedulerFactory.Instance().getScheduler();
+            scheduler.executeBatch(fsReader, requestBatch, -1L);
+            requestBatch.completeAll(actionFutures).join();
+        }
+        catch (CompletionException e)
+        {
+            throw new IOException("failed to read the column chunks from " + sourceRead.path, e.getCause());
+        }
+
+        if (this.rowGroupSelectedRows != null)
+        {
+            for (int i = 0; i < numChunks; ++i)
             {
-                PixelsProto.ColumnChunkIndex.Builder hiddenColumnChunkIndexBuilder =
-                        this.rowGroupFooterBuilderList.get(rowGroupId).getRowGroupIndexEntryBuilder()
-                                .getHiddenColumnChunkIndexEntryBuilder();
-                long hiddenColumnChunkOffset = hiddenColumnChunkIndexBuilder.getChunkOffset();
-                int hiddenColumnChunkLength = hiddenColumnChunkIndexBuilder.getChunkLength();
-                String path = this.rowGroupPaths.get(rowGroupId);
-                try (PhysicalReader fsReader = PhysicalReaderUtil.newPhysicalReader(inputStorage, path))
+                int rowGroupId = this.chunkRowGroupIds[sourceRead.start + i];
+                if (this.rowGroupSelectedRows[rowGroupId] != null)
                 {
-                    if (fsReader == null)
-                    {
-                        throw new IOException("read file failed.");
-                    }
-                    fsReader.seek(hiddenColumnChunkOffset);
-                    byte[] hiddenChunkBuffer = new byte[hiddenColumnChunkLength];
-                    fsReader.readFully(hiddenChunkBuffer);
+                    chunks[i] = purgeColumnChunk(rowGroupId, this.chunkColumnIds[sourceRead.start + i], chunks[i]);
+                }
+            }
+        }
+        sourceRead.chunks = chunks;
+    }
 
-                    long hiddenChunkStartOffset = fsWriter.prepare(hiddenColumnChunkLength);
-                    int tryAlign = 0;
-                    while (chunkAlignment != 0 && hiddenChunkStartOffset % chunkAlignment != 0 && tryAlign++ < 2)
-                    {
-                        int alignBytes = (int) (chunkAlignment - hiddenChunkStartOffset % chunkAlignment);
-                        this.fsWriter.append(chunkPaddingBuffer, 0, alignBytes);
-                        hiddenChunkStartOffset = this.fsWriter.prepare(hiddenColumnChunkLength);
-                    }
-                    if (tryAlign > 2)
-                    {
-                        LOGGER.warn("failed to align the start offset of the hidden column chunk");
-                        throw new IOException("failed to align the start offset of the hidden column chunk");
-                    }
+    /**
+     * Purge the deleted rows from the column chunk. The column chunk is decoded, and the rows that are not deleted
+     * are encoded into a new column chunk, using the same encoding level, byte order, and compression kind as the
+     * old column chunk. The index, encoding, and statistics of the column chunk are replaced accordingly, except
+     * that the bloom filter is kept as it is still valid for the remaining rows.
+     * @return the new column chunk
+     */
+    private ByteBuffer purgeColumnChunk(int rowGroupId, int columnId, ByteBuffer chunk) throws IOException
+    {
+        Bitmap selected = this.rowGroupSelectedRows[rowGroupId];
+        int numRows = this.sourceRowGroupNumRows[rowGroupId];
+        int numSelected = this.rowGroupInfoBuilderList.get(rowGroupId).getNumberOfRows();
+        List<TypeDescription> children = this.schema.getChildren();
+        boolean isHidden = columnId == children.size();
+        TypeDescription type = isHidden ? TypeDescription.HIDDEN_COLUMN_TYPE : children.get(columnId);
+        PixelsProto.RowGroupFooter.Builder rowGroupFooter = this.rowGroupFooterBuilderList.get(rowGroupId);
+        PixelsProto.ColumnChunkIndex chunkIndex;
+        PixelsProto.ColumnEncoding encoding;
+        synchronized (rowGroupFooter)
+        {
+            PixelsProto.RowGroupIndex.Builder rowGroupIndex = rowGroupFooter.getRowGroupIndexEntryBuilder();
+            PixelsProto.RowGroupEncoding.Builder rowGroupEncoding = rowGroupFooter.getRowGroupEncodingBuilder();
+            chunkIndex = isHidden ? rowGroupIndex.getHiddenColumnChunkIndexEntry() :
+                    rowGroupIndex.getColumnChunkIndexEntries(columnId);
+            encoding = isHidden ? rowGroupEncoding.getHiddenColumnChunkEncoding() :
+                    rowGroupEncoding.getColumnChunkEncodings(columnId);
+        }
 
-                    this.fsWriter.append(hiddenChunkBuffer, 0, hiddenColumnChunkLength);
-                    hiddenColumnChunkIndexBuilder.setChunkOffset(hiddenChunkStartOffset);
-                }
-                catch (IOException e)
+        // decode the remaining rows
+        ColumnVector vector = type.createRowBatch(numSelected, TypeDescription.Mode.NONE).cols[0];
+        ColumnReader reader = ColumnReader.newColumnReader(type, new PixelsReaderOption());
+        reader.readSelected(decompressChunk(chunk, chunkIndex), encoding, 0, numRows,
+                this.pixelStride, 0, vector, chunkIndex, selected);
+        reader.close();
+
+        // encode the remaining rows
+        PixelsWriterOption writerOption = new PixelsWriterOption()
+                .pixelStride(this.pixelStride)
+                .encodingLevel(encoding.getKind() == PixelsProto.ColumnEncoding.Kind.NONE ?
+                        EncodingLevel.EL0 : EncodingLevel.EL2)
+                .byteOrder(chunkIndex.getLittleEndian() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN)
+                .nullsPadding(chunkIndex.getNullsPadding())
+                .compressionKind(chunkIndex.getCompression())
+                .compressionBlockSize(this.compressionBlockSize);
+        ColumnWriter writer = newColumnWriter(type, writerOption);
+        writer.write(vector, numSelected);
+        writer.flush();
+        PixelsProto.ColumnChunkIndex.Builder newChunkIndex = writer.getColumnChunkIndex();
+        ByteBuffer newChunk = compressChunk(writer.getColumnChunkContent(), newChunkIndex,
+                chunkIndex.getCompression());
+        newChunkIndex.setChunkLength(newChunk.remaining());
+        this.numPurgedBytes.addAndGet(chunk.remaining() - newChunk.remaining());
+
+        PixelsProto.ColumnStatistic.Builder newChunkStat = writer.getColumnChunkStat();
+        PixelsProto.RowGroupStatistic.Builder rowGroupStatistic = this.rowGroupStatBuilderList.get(rowGroupId);
+        synchronized (rowGroupFooter)
+        {
+            PixelsProto.RowGroupIndex.Builder rowGroupIndex = rowGroupFooter.getRowGroupIndexEntryBuilder();
+            PixelsProto.RowGroupEncoding.Builder rowGroupEncoding = rowGroupFooter.getRowGroupEncodingBuilder();
+            if (isHidden)
+            {
+                rowGroupIndex.setHiddenColumnChunkIndexEntry(newChunkIndex);
+                rowGroupEncoding.setHiddenColumnChunkEncoding(writer.getColumnChunkEncoding());
+                rowGroupStatistic.setHiddenColumnChunkStats(newChunkStat);
+            }
+            else
+            {
+                PixelsProto.ColumnStatistic oldChunkStat = rowGroupStatistic.getColumnChunkStats(columnId);
+                if (oldChunkStat.hasBloomFilter())
                 {
-                    LOGGER.error(e.getMessage());
-                    e.printStackTrace();
+                    newChunkStat.setBloomFilter(oldChunkStat.getBloomFilter());
                 }
+                rowGroupIndex.setColumnChunkIndexEntries(columnId, newChunkIndex);
+                rowGroupEncoding.setColumnChunkEncodings(columnId, writer.getColumnChunkEncoding());
+                rowGroupStatistic.setColumnChunkStats(columnId, newChunkStat);
             }
         }
+        writer.close();
+        return newChunk;
+    }
+
+    private static ByteBuffer decompressChunk(ByteBuffer chunk, PixelsProto.ColumnChunkIndex chunkIndex)
+            throws IOException
+    {
+        if (chunkIndex.getCompression() == PixelsProto.CompressionKind.NONE)
+        {
+            return chunk;
+        }
+        int uncompressedLength = chunkIndex.getUncompressedLength();
+        ByteBuffer output = ByteBuffer.allocate(uncompressedLength);
+        CompressionCodec.getCodec(chunkIndex.getCompression()).decompress(chunk.duplicate(), output);
+        if (output.position() != uncompressedLength)
+        {
+            throw new IOException("decompressed length " + output.position() +
+                    " does not match the uncompressed length " + uncompressedLength);
+        }
+        output.flip();
+        return output;
+    }
+
+    /**
+     * Compress the column chunk content in the same way as {@link io.pixelsdb.pixels.core.PixelsWriterImpl}.
+     */
+    private ByteBuffer compressChunk(byte[] content, PixelsProto.ColumnChunkIndex.Builder chunkIndex,
+                                     PixelsProto.CompressionKind compressionKind)
+    {
+        if (compressionKind == PixelsProto.CompressionKind.NONE || content.length < this.compressionBlockSize)
+        {
+            return ByteBuffer.wrap(content);
+        }
+        CompressionCodec compressionCodec = CompressionCodec.getCodec(compressionKind);
+        byte[] compressed = new byte[compressionCodec.maxCompressedLength(content.length)];
+        int compressedLength = compressionCodec.compress(
+                content, 0, content.length, compressed, 0, compressed.length);
+        if (compressedLength >= content.length)
+        {
+            // incompressible column chunk, store it as is
+            return ByteBuffer.wrap(content);
+        }
+        chunkIndex.setCompression(compressionKind).setUncompressedLength(content.length);
+        return ByteBuffer.wrap(compressed, 0, compressedLength);
     }
 
     private void writeRowGroupFooters()
     {
         for (int i = 0; i < this.rowGroupFooterBuilderList.size(); ++i)
         {
+            if (this.droppedRowGroups[i])
+            {
+                continue;
+            }
             PixelsProto.RowGroupFooter rowGroupFooter = this.rowGroupFooterBuilderList.get(i).build();
             ByteBuffer rowGroupFooterBuffer = ByteBuffer.allocate(rowGroupFooter.getSerializedSize());
             rowGroupFooterBuffer.put(rowGroupFooter.toByteArray());
@@ -612,13 +1162,13 @@ public class PixelsCompactor
         {
             footerBuilder.addColumnStats(recorder.serialize().build());
         }
-        for (PixelsProto.RowGroupInformation.Builder rowGroupInformationBuilder : rowGroupInfoBuilderList)
+        for (int i = 0; i < rowGroupInfoBuilderList.size(); ++i)
         {
-            footerBuilder.addRowGroupInfos(rowGroupInformationBuilder.build());
-        }
-        for (PixelsProto.RowGroupStatistic.Builder rowGroupStatisticBuilder : rowGroupStatBuilderList)
-        {
-            footerBuilder.addRowGroupStats(rowGroupStatisticBuilder.build());
+            if (!droppedRowGroups[i])
+            {
+                footerBuilder.addRowGroupInfos(rowGroupInfoBuilderList.get(i).build());
+                footerBuilder.addRowGroupStats(rowGroupStatBuilderList.get(i).build());
+            }
         }
         if (hasHiddenColumn)
         {
@@ -19,9 +19,61 @@
  */
 package io.pixelsdb.pixels.core.compression;
 
+import io.pixelsdb.pixels.core.PixelsProto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
+ * The codec to compress and decompress column chunks. Each column chunk is compressed
+ * as a single block, and the compression kind and the uncompressed length of the chunk
+ * are recorded in the column chunk index.
+ * <p/>
+ * Codec instances are stateless and thread safe, get them by {@link #getCodec(PixelsProto.CompressionKind)}.
+ *
  * @author guodong
  */
 public abstract class CompressionCodec
 {
+    public abstract PixelsProto.CompressionKind getKind();
+
+    /**
+     * @param uncompressedLength the number of bytes to compress
+     * @return the maximum number of bytes the compressed data may occupy
+     */
+    public abstract int maxCompressedLength(int uncompressedLength);
+
+    /**
+     * Compress input[inputOffset, inputOffset+inputLength) into output starting from outputOffset.
+     * @return the number of bytes written into output
+     */
+    public abstract int compress(byte[] input, int inputOffset, int inputLength,
+                                 byte[] output, int outputOffset, int maxOutputLength);
+
+    /**
+     * Decompress the remaining bytes in input into output, starting from the position of output.
+     * The positions of input and output are advanced by the number of bytes consumed and produced.
+     * @throws IOException if the input is corrupted or output does not have enough remaining space
+     */
+    public abstract void decompress(ByteBuffer input, ByteBuffer output) throws IOException;
+
+    /**
+     * @param kind the compression kind
+     * @return the codec of the compression kind
+     * @throws UnsupportedOperationException if the compression kind is not supported
+     */
+    public static CompressionCodec getCodec(PixelsProto.CompressionKind kind)
+    {
+        switch (kind)
+        {
+            case NONE:
+                return NoneCodec.INSTANCE;
+            case LZ4:
+                return Lz4Codec.INSTANCE;
+            case ZSTD:
+                return ZstdCodec.INSTANCE;
+            default:
+                throw new UnsupportedOperationException("compression kind " + kind + " is not supported");
+        }
+    }
 }
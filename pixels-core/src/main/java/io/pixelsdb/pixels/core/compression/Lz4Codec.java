@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.compression;
+
+import io.airlift.compress.MalformedInputException;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.pixelsdb.pixels.core.PixelsProto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The LZ4 codec backed by the pure-java implementation in aircompressor.
+ * The compressors and decompressors in aircompressor are not thread safe, hence they are thread local.
+ *
+ * @create 2026-10-17
+ */
+public class Lz4Codec extends CompressionCodec
+{
+    public static final Lz4Codec INSTANCE = new Lz4Codec();
+
+    private static final ThreadLocal<Lz4Compressor> compressor = ThreadLocal.withInitial(Lz4Compressor::new);
+    private static final ThreadLocal<Lz4Decompressor> decompressor = ThreadLocal.withInitial(Lz4Decompressor::new);
+
+    private Lz4Codec() { }
+
+    @Override
+    public PixelsProto.CompressionKind getKind()
+    {
+        return PixelsProto.CompressionKind.LZ4;
+    }
+
+    @Override
+    public int maxCompressedLength(int uncompressedLength)
+    {
+        return compressor.get().maxCompressedLength(uncompressedLength);
+    }
+
+    @Override
+    public int compress(byte[] input, int inputOffset, int inputLength,
+                        byte[] output, int outputOffset, int maxOutputLength)
+    {
+        return compressor.get().compress(input, inputOffset, inputLength, output, outputOffset, maxOutputLength);
+    }
+
+    @Override
+    public void decompress(ByteBuffer input, ByteBuffer output) throws IOException
+    {
+        try
+        {
+            decompressor.get().decompress(input, output);
+        }
+        catch (MalformedInputException e)
+        {
+            throw new IOException("failed to decompress LZ4 block", e);
+        }
+    }
+}
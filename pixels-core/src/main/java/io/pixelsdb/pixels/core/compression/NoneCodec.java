@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.compression;
+
+import io.pixelsdb.pixels.core.PixelsProto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The codec that copies bytes without compression.
+ *
+ * @create 2026-10-17
+ */
+public class NoneCodec extends CompressionCodec
+{
+    public static final NoneCodec INSTANCE = new NoneCodec();
+
+    private NoneCodec() { }
+
+    @Override
+    public PixelsProto.CompressionKind getKind()
+    {
+        return PixelsProto.CompressionKind.NONE;
+    }
+
+    @Override
+    public int maxCompressedLength(int uncompressedLength)
+    {
+        return uncompressedLength;
+    }
+
+    @Override
+    public int compress(byte[] input, int inputOffset, int inputLength,
+                        byte[] output, int outputOffset, int maxOutputLength)
+    {
+        if (inputLength > maxOutputLength)
+        {
+            throw new IllegalArgumentException("output buffer is too small");
+        }
+        System.arraycopy(input, inputOffset, output, outputOffset, inputLength);
+        return inputLength;
+    }
+
+    @Override
+    public void decompress(ByteBuffer input, ByteBuffer output) throws IOException
+    {
+        if (input.remaining() > output.remaining())
+        {
+            throw new IOException("output buffer is too small");
+        }
+        output.put(input);
+    }
+}
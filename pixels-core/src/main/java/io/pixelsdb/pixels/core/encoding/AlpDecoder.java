@@ -0,0 +1,177 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.encoding;
+
+import java.nio.ByteBuffer;
+
+import static io.pixelsdb.pixels.core.encoding.AlpEncoder.F10;
+import static io.pixelsdb.pixels.core.encoding.AlpEncoder.IF10;
+import static io.pixelsdb.pixels.core.encoding.AlpEncoder.RAW_BLOCK;
+
+/**
+ * The decoder of the blocks encoded by {@link AlpEncoder}.
+ * The blocks are decoded one by one from the input buffer, using absolute gets so that
+ * the position of the input buffer is not changed.
+ *
+ * @create 2026-10-17
+ */
+public class AlpDecoder extends Decoder
+{
+    private final ByteBuffer input;
+    private final int end;
+    private int position;
+
+    /**
+     * @param input the input buffer, its byte order must be the same as the encoder
+     * @param start the start offset of the first block in the input buffer
+     * @param end the end offset (exclusive) of the last block in the input buffer
+     */
+    public AlpDecoder(ByteBuffer input, int start, int end)
+    {
+        this.input = input;
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return position < end;
+    }
+
+    /**
+     * @return the number of values in the next block
+     */
+    public int nextBlockSize()
+    {
+        return input.getInt(position);
+    }
+
+    /**
+     * Decode the next block of doubles into the output.
+     * @param output the long bits of the decoded doubles
+     * @param offset the offset in output to put the first decoded value
+     * @return the number of decoded values
+     */
+    public int next(long[] output, int offset)
+    {
+        int length = input.getInt(position);
+        int exponent = input.get(position + Integer.BYTES);
+        if (exponent == RAW_BLOCK)
+        {
+            int pos = position + Integer.BYTES + 1;
+            for (int i = 0; i < length; ++i, pos += Long.BYTES)
+            {
+                output[offset + i] = input.getLong(pos);
+            }
+            position = pos;
+            return length;
+        }
+        int factor = input.get(position + Integer.BYTES + 1);
+        int bitWidth = input.get(position + Integer.BYTES + 2) & 0xFF;
+        long base = input.getLong(position + Integer.BYTES + 3);
+        int numExceptions = input.getInt(position + Integer.BYTES + 3 + Long.BYTES);
+        int pos = position + AlpEncoder.HEADER_SIZE;
+        double multiplier = F10[factor], divisor = IF10[exponent];
+        long mask = bitWidth == 64 ? -1L : (1L << bitWidth) - 1;
+        for (int i = 0; i < length; ++i)
+        {
+            long enc = base + unpack(pos, i, bitWidth, mask);
+            output[offset + i] = Double.doubleToRawLongBits((double) enc * multiplier * divisor);
+        }
+        pos += numWords(length, bitWidth) * Long.BYTES;
+        int valuePos = pos + numExceptions * Integer.BYTES;
+        for (int i = 0; i < numExceptions; ++i, pos += Integer.BYTES, valuePos += Long.BYTES)
+        {
+            output[offset + input.getInt(pos)] = input.getLong(valuePos);
+        }
+        position = valuePos;
+        return length;
+    }
+
+    /**
+     * Decode the next block of floats into the output.
+     * @param output the int bits of the decoded floats
+     * @param offset the offset in output to put the first decoded value
+     * @return the number of decoded values
+     */
+    public int next(int[] output, int offset)
+    {
+        int length = input.getInt(position);
+        int exponent = input.get(position + Integer.BYTES);
+        if (exponent == RAW_BLOCK)
+        {
+            int pos = position + Integer.BYTES + 1;
+            for (int i = 0; i < length; ++i, pos += Integer.BYTES)
+            {
+                output[offset + i] = input.getInt(pos);
+            }
+            position = pos;
+            return length;
+        }
+        int factor = input.get(position + Integer.BYTES + 1);
+        int bitWidth = input.get(position + Integer.BYTES + 2) & 0xFF;
+        long base = input.getLong(position + Integer.BYTES + 3);
+        int numExceptions = input.getInt(position + Integer.BYTES + 3 + Long.BYTES);
+        int pos = position + AlpEncoder.HEADER_SIZE;
+        double multiplier = F10[factor], divisor = IF10[exponent];
+        long mask = bitWidth == 64 ? -1L : (1L << bitWidth) - 1;
+        for (int i = 0; i < length; ++i)
+        {
+            long enc = base + unpack(pos, i, bitWidth, mask);
+            output[offset + i] = Float.floatToRawIntBits((float) ((double) enc * multiplier * divisor));
+        }
+        pos += numWords(length, bitWidth) * Long.BYTES;
+        int valuePos = pos + numExceptions * Integer.BYTES;
+        for (int i = 0; i < numExceptions; ++i, pos += Integer.BYTES, valuePos += Integer.BYTES)
+        {
+            output[offset + input.getInt(pos)] = input.getInt(valuePos);
+        }
+        position = valuePos;
+        return length;
+    }
+
+    private long unpack(int wordsPos, int index, int bitWidth, long mask)
+    {
+        if (bitWidth == 0)
+        {
+            return 0L;
+        }
+        long bitPos = (long) index * bitWidth;
+        int word = (int) (bitPos >>> 6);
+        int shift = (int) (bitPos & 63);
+        long value = input.getLong(wordsPos + word * Long.BYTES) >>> shift;
+        if (shift + bitWidth > 64)
+        {
+            value |= input.getLong(wordsPos + (word + 1) * Long.BYTES) << (64 - shift);
+        }
+        return value & mask;
+    }
+
+    private static int numWords(int length, int bitWidth)
+    {
+        return (int) (((long) length * bitWidth + 63) / 64);
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
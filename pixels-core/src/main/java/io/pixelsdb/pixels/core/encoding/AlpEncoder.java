@@ -0,0 +1,268 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.encoding;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Lossless floating-point encoding based on ALP (Adaptive Lossless floating-Point compression, SIGMOD'24).
+ * <p/>
+ * Each call of {@link #encode(long[], int, int)} encodes a block (typically a pixel) of values.
+ * Most real-world doubles (e.g., prices and measures) are decimals, thus they can be converted to integers
+ * by multiplying 10^e and dividing 10^f without loss. The encoder chooses (e, f) for the block by sampling,
+ * and stores the integers by frame-of-reference and bit-packing. The values that can not be converted
+ * losslessly are stored as exceptions. If the block is not compressible, it is stored as raw values.
+ * <p/>
+ * The layout of a block: count (int), exponent (byte, -1 for raw block), factor (byte), bit width (byte),
+ * base (long), number of exceptions (int), packed words (long[]), exception positions (int[]),
+ * exception values (long[] for double, int[] for float). A raw block only has count, exponent, and the values.
+ *
+ * @create 2026-10-17
+ */
+public class AlpEncoder extends Encoder
+{
+    static final int MAX_EXPONENT = 18;
+    static final byte RAW_BLOCK = -1;
+    static final int HEADER_SIZE = Integer.BYTES + 3 + Long.BYTES + Integer.BYTES;
+    static final double[] F10 = new double[MAX_EXPONENT + 1];
+    static final double[] IF10 = new double[MAX_EXPONENT + 1];
+    /**
+     * The encoded integers must be exactly representable by doubles.
+     */
+    private static final double ENCODING_LIMIT = (double) (1L << 52);
+    private static final int SAMPLE_SIZE = 64;
+
+    static
+    {
+        double f = 1.0;
+        for (int i = 0; i <= MAX_EXPONENT; ++i)
+        {
+            F10[i] = f;
+            IF10[i] = Double.parseDouble("1e-" + i);
+            f *= 10.0;
+        }
+    }
+
+    private final boolean isFloat;
+    private final ByteOrder byteOrder;
+    private long[] encoded = new long[0];
+    private int[] exceptionPositions = new int[0];
+
+    /**
+     * @param isFloat true if the values are the int bits of floats, otherwise the long bits of doubles
+     * @param byteOrder the byte order of the encoded blocks
+     */
+    public AlpEncoder(boolean isFloat, ByteOrder byteOrder)
+    {
+        this.isFloat = isFloat;
+        this.byteOrder = byteOrder;
+    }
+
+    private double toDouble(long bits)
+    {
+        return isFloat ? Float.intBitsToFloat((int) bits) : Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * As the widened double of a float is exact, floats are also verified by the bits of the decoded double.
+     * @return the encoded integer of the value, or Long.MIN_VALUE if the value can not be encoded losslessly
+     */
+    private static long encodeValue(double value, int e, int f)
+    {
+        double scaled = value * F10[e] * IF10[f];
+        if (!(Math.abs(scaled) < ENCODING_LIMIT))
+        {
+            // out of range, infinity, or NaN
+            return Long.MIN_VALUE;
+        }
+        long enc = Math.round(scaled);
+        double decoded = (double) enc * F10[f] * IF10[e];
+        return Double.doubleToRawLongBits(decoded) == Double.doubleToRawLongBits(value) ? enc : Long.MIN_VALUE;
+    }
+
+    /**
+     * Find the (e, f) that encodes the most sampled values losslessly, with the smallest range as tie-breaker.
+     * @return e in the higher 16 bits and f in the lower 16 bits
+     */
+    private int chooseExponentAndFactor(long[] values, int offset, int length)
+    {
+        int step = Math.max(1, length / SAMPLE_SIZE);
+        int bestE = 0, bestF = 0, bestExceptions = Integer.MAX_VALUE;
+        long bestRange = Long.MAX_VALUE;
+        for (int e = 0; e <= MAX_EXPONENT; ++e)
+        {
+            for (int f = 0; f <= e; ++f)
+            {
+                int exceptions = 0;
+                long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+                for (int i = offset; i < offset + length; i += step)
+                {
+                    long enc = encodeValue(toDouble(values[i]), e, f);
+                    if (enc == Long.MIN_VALUE)
+                    {
+                        exceptions++;
+                    }
+                    else
+                    {
+                        min = Math.min(min, enc);
+                        max = Math.max(max, enc);
+                    }
+                }
+                long range = max >= min ? max - min : 0;
+                if (exceptions < bestExceptions || (exceptions == bestExceptions && range < bestRange))
+                {
+                    bestE = e;
+                    bestF = f;
+                    bestExceptions = exceptions;
+                    bestRange = range;
+                }
+            }
+        }
+        return (bestE << 16) | bestF;
+    }
+
+    @Override
+    public byte[] encode(long[] values)
+    {
+        return encode(values, 0, values.length);
+    }
+
+    /**
+     * Encode a block of values.
+     * @param values the long bits of doubles, or the int bits of floats
+     * @param offset the offset of the first value
+     * @param length the number of values
+     * @return the encoded block
+     */
+    @Override
+    public byte[] encode(long[] values, int offset, int length)
+    {
+        int valueBytes = isFloat ? Integer.BYTES : Long.BYTES;
+        int rawSize = Integer.BYTES + 1 + length * valueBytes;
+        if (length == 0)
+        {
+            return rawBlock(values, offset, length, rawSize);
+        }
+        if (encoded.length < length)
+        {
+            encoded = new long[length];
+            exceptionPositions = new int[length];
+        }
+        int ef = chooseExponentAndFactor(values, offset, length);
+        int e = ef >>> 16, f = ef & 0xFFFF;
+        int numExceptions = 0;
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        for (int i = 0; i < length; ++i)
+        {
+            long enc = encodeValue(toDouble(values[offset + i]), e, f);
+            encoded[i] = enc;
+            if (enc == Long.MIN_VALUE)
+            {
+                exceptionPositions[numExceptions++] = i;
+            }
+            else
+            {
+                min = Math.min(min, enc);
+                max = Math.max(max, enc);
+            }
+        }
+        if (numExceptions == length)
+        {
+            return rawBlock(values, offset, length, rawSize);
+        }
+        int bitWidth = 64 - Long.numberOfLeadingZeros(max - min);
+        int numWords = (int) (((long) length * bitWidth + 63) / 64);
+        int encodedSize = HEADER_SIZE + numWords * Long.BYTES + numExceptions * (Integer.BYTES + valueBytes);
+        if (encodedSize >= rawSize)
+        {
+            return rawBlock(values, offset, length, rawSize);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize).order(byteOrder);
+        buffer.putInt(length).put((byte) e).put((byte) f).put((byte) bitWidth).putLong(min).putInt(numExceptions);
+        // exceptions are packed as base (delta = 0) to not widen the bit width
+        long word = 0L;
+        int bitsInWord = 0;
+        for (int i = 0; i < length; ++i)
+        {
+            long delta = encoded[i] == Long.MIN_VALUE ? 0L : encoded[i] - min;
+            if (bitWidth == 0)
+            {
+                continue;
+            }
+            word |= delta << bitsInWord;
+            bitsInWord += bitWidth;
+            if (bitsInWord >= 64)
+            {
+                buffer.putLong(word);
+                bitsInWord -= 64;
+                // the higher bits of delta that do not fit into the previous word
+                word = bitsInWord == 0 ? 0L : delta >>> (bitWidth - bitsInWord);
+            }
+        }
+        if (bitsInWord > 0)
+        {
+            buffer.putLong(word);
+        }
+        for (int i = 0; i < numExceptions; ++i)
+        {
+            buffer.putInt(exceptionPositions[i]);
+        }
+        for (int i = 0; i < numExceptions; ++i)
+        {
+            long value = values[offset + exceptionPositions[i]];
+            if (isFloat)
+            {
+                buffer.putInt((int) value);
+            }
+            else
+            {
+                buffer.putLong(value);
+            }
+        }
+        return buffer.array();
+    }
+
+    private byte[] rawBlock(long[] values, int offset, int length, int rawSize)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(rawSize).order(byteOrder);
+        buffer.putInt(length).put(RAW_BLOCK);
+        for (int i = offset; i < offset + length; ++i)
+        {
+            if (isFloat)
+            {
+                buffer.putInt((int) values[i]);
+            }
+            else
+            {
+                buffer.putLong(values[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public void close()
+    {
+        encoded = null;
+        exceptionPositions = null;
+    }
+}
@@ -20,6 +20,7 @@
 package io.pixelsdb.pixels.core.predicate;
 
 import io.pixelsdb.pixels.core.stats.ColumnStats;
+import io.pixelsdb.pixels.core.utils.BloomFilter;
 
 import java.util.Map;
 
@@ -83,6 +84,19 @@ public interface PixelsPredicate
      */
     boolean matches(long numberOfRows, Map<Integer, ColumnStats> statisticsByColumnIndex);
 
+    /**
+     * Check if the predicate may match any value in the bloom filters. This is only called on the row groups
+     * that {@link #matches(long, Map)} the column statistics. The default implementation returns true.
+     *
+     * @param bloomFiltersByColumnIndex bloom filter map. key: column index in user specified schema,
+     *                                  value: bloom filter, only contains the columns with bloom filters
+     * @return false if it is certain that no value matches the predicate
+     */
+    default boolean mayMatch(Map<Integer, BloomFilter> bloomFiltersByColumnIndex)
+    {
+        return true;
+    }
+
     /**
      * @return true if this predicate will never match any values.
      */
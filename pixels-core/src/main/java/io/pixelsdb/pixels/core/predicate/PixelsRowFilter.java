@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.predicate;
+
+import io.pixelsdb.pixels.core.utils.Bitmap;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+
+/**
+ * The row-level filter that can be pushed down into the record reader. Different from {@link PixelsPredicate}
+ * that filters the column statistics, the row filter is evaluated on the decoded values of the filter columns.
+ * <p/>
+ * If a row filter is set in the reader option, the record reader works in the two-phase (late materialization)
+ * mode: it firstly decodes the filter columns and evaluates the row filter, and then decodes the other columns
+ * only for the matched rows. The pixels in which no row matches are skipped without decoding the other columns.
+ * The row batches returned by the record reader only contain the matched rows.
+ *
+ * @create 2026-10-17
+ */
+public interface PixelsRowFilter
+{
+    /**
+     * @return the ids (index in the result schema of the record reader) of the columns that are filtered
+     */
+    int[] getColumnIds();
+
+    /**
+     * Filter the rows in the row batch. Only the column vectors of the filter columns in the row batch
+     * are decoded, the other column vectors should not be accessed.
+     *
+     * @param rowBatch the row batch to filter
+     * @param result the filter result, the ith bit in [0, rowBatch.size) is set if the ith row matches
+     */
+    void filter(VectorizedRowBatch rowBatch, Bitmap result);
+}
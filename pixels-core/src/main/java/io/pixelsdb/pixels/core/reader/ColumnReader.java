@@ -148,6 +148,51 @@ public abstract class ColumnReader implements Closeable
                                       int offset, int size, int pixelStride, final int vectorIndex,
                                       ColumnVector vector, PixelsProto.ColumnChunkIndex chunkIndex, Bitmap selected) throws IOException;
 
+    /**
+     * Skip the values of whole pixels from the input buffer without materializing them into the vector.
+     * This is used to skip the pixels that do not match the predicate by pixel-level statistics.
+     * <p/>
+     * The default implementation reads the values with an empty selection. Column readers that can locate
+     * pixels by the pixel positions in chunkIndex should override this method to seek without decoding.
+     *
+     * @param input    input buffer
+     * @param encoding encoding type
+     * @param offset   starting reading offset of values, must be the start of a pixel
+     * @param size     number of values to skip, must end at the end of a pixel or the end of the column chunk
+     * @param pixelStride the stride (number of rows) in a pixels.
+     * @param vector   the vector of this column, nothing is read into it
+     * @param chunkIndex the metadata of the column chunk to read.
+     * @throws IOException
+     */
+    public void skip(ByteBuffer input, PixelsProto.ColumnEncoding encoding, int offset, int size, int pixelStride,
+                     ColumnVector vector, PixelsProto.ColumnChunkIndex chunkIndex) throws IOException
+    {
+        readSelected(input, encoding, offset, size, pixelStride, 0, vector, chunkIndex, new Bitmap(size, false));
+    }
+
+    /**
+     * Move the isNull offset and the element index of this column reader past the skipped pixels.
+     * It should be called by {@link #skip} after the column reader is initialized.
+     *
+     * @return the offset of the first value after the skipped pixels relative to the start of the column chunk,
+     * or -1 if the skipped pixels reach the end of the column chunk
+     */
+    int seekPixels(int offset, int size, int pixelStride, PixelsProto.ColumnChunkIndex chunkIndex)
+    {
+        int fromPixel = offset / pixelStride, toPixel = (offset + size) / pixelStride;
+        for (int pixelId = fromPixel; pixelId < toPixel; ++pixelId)
+        {
+            if (chunkIndex.getPixelStatistics(pixelId).getStatistic().getHasNull())
+            {
+                // the isNull bitmap of each pixel is byte-aligned
+                isNullOffset += (pixelStride + 7) / 8;
+            }
+        }
+        isNullSkipBits = 0;
+        elementIndex = offset + size;
+        return toPixel < chunkIndex.getPixelPositionsCount() ? chunkIndex.getPixelPositions(toPixel) : -1;
+    }
+
     /**
      * Closes this column reader and releases any resources associated
      * with it. If the column reader is already closed then invoking this
@@ -315,4 +315,32 @@ public class DecimalColumnReader extends ColumnReader
             i += numToRead;
         }
     }
+
+    /**
+     * Skip the values of whole pixels by seeking to the pixel positions.
+     *
+     * @param input    input buffer
+     * @param encoding encoding type
+     * @param offset   starting reading offset of values, must be the start of a pixel
+     * @param size     number of values to skip, must end at the end of a pixel or the end of the column chunk
+     * @param pixelStride the stride (number of rows) in a pixels.
+     * @param vector   the vector of this column, nothing is read into it
+     * @param chunkIndex the metadata of the column chunk to read.
+     * @throws IOException
+     */
+    @Override
+    public void skip(ByteBuffer input, PixelsProto.ColumnEncoding encoding, int offset, int size, int pixelStride,
+                     ColumnVector vector, PixelsProto.ColumnChunkIndex chunkIndex) throws IOException
+    {
+        if (offset == 0)
+        {
+            // initialize this column reader by an empty read
+            read(input, encoding, 0, 0, pixelStride, 0, vector, chunkIndex);
+        }
+        int position = seekPixels(offset, size, pixelStride, chunkIndex);
+        if (position >= 0)
+        {
+            inputIndex = inputBuffer.position() + position;
+        }
+    }
 }
@@ -21,6 +21,7 @@ package io.pixelsdb.pixels.core.reader;
 
 import io.pixelsdb.pixels.core.PixelsProto;
 import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.encoding.AlpDecoder;
 import io.pixelsdb.pixels.core.utils.BitUtils;
 import io.pixelsdb.pixels.core.utils.Bitmap;
 import io.pixelsdb.pixels.core.vector.ColumnVector;
@@ -35,12 +36,20 @@ import java.util.Arrays;
  * @author guodong, hank
  * @create 2017-12-06
  * @update 2023-08-20 Zermatt: support nulls padding
+ * @update 2026-10-17: support ALP encoding
  */
 public class DoubleColumnReader extends ColumnReader
 {
     // private final EncodingUtils encodingUtils;
     private ByteBuffer inputBuffer;
     private int inputIndex = 0;
+    private boolean alpEncoding = false;
+    private AlpDecoder alpDecoder = null;
+    /**
+     * The decoded values of the current pixel, only used for ALP encoding.
+     */
+    private long[] alpBuffer = null;
+    private int alpBufferIndex = 0;
 
     DoubleColumnReader(TypeDescription type)
     {
@@ -65,6 +74,8 @@ public class DoubleColumnReader extends ColumnReader
     public void close() throws IOException
     {
         this.inputBuffer = null;
+        this.alpDecoder = null;
+        this.alpBuffer = null;
     }
 
     /**
@@ -95,6 +106,15 @@ public class DoubleColumnReader extends ColumnReader
             // isNull
             isNullOffset = inputIndex + chunkIndex.getIsNullOffset();
             isNullSkipBits = 0;
+            alpEncoding = encoding.getKind().equals(PixelsProto.ColumnEncoding.Kind.ALP);
+            if (alpEncoding)
+            {
+                alpDecoder = new AlpDecoder(inputBuffer, inputIndex, isNullOffset);
+                if (alpBuffer == null || alpBuffer.length < pixelStride)
+                {
+                    alpBuffer = new long[pixelStride];
+                }
+            }
             // re-init
             hasNull = true;
             elementIndex = 0;
@@ -133,7 +153,30 @@ public class DoubleColumnReader extends ColumnReader
                 Arrays.fill(columnVector.isNull, i, i + numToRead, false);
             }
             // read content
-            if (nullsPadding)
+            if (alpEncoding)
+            {
+                if (elementIndex % pixelStride == 0 && !hasNull && endOfPixel)
+                {
+                    // the whole pixel has no nulls, decode it directly into the vector
+                    alpDecoder.next(columnVector.vector, i);
+                }
+                else
+                {
+                    if (elementIndex % pixelStride == 0)
+                    {
+                        alpDecoder.next(alpBuffer, 0);
+                        alpBufferIndex = 0;
+                    }
+                    for (int j = i; j < i + numToRead; ++j)
+                    {
+                        if (!(hasNull && columnVector.isNull[j]))
+                        {
+                            columnVector.vector[j] = alpBuffer[alpBufferIndex++];
+                        }
+                    }
+                }
+            }
+            else if (nullsPadding)
             {
                 for (int j = i; j < i + numToRead; ++j)
                 {
@@ -189,6 +232,15 @@ public class DoubleColumnReader extends ColumnReader
             // isNull
             isNullOffset = inputIndex + chunkIndex.getIsNullOffset();
             isNullSkipBits = 0;
+            alpEncoding = encoding.getKind().equals(PixelsProto.ColumnEncoding.Kind.ALP);
+            if (alpEncoding)
+            {
+                alpDecoder = new AlpDecoder(inputBuffer, inputIndex, isNullOffset);
+                if (alpBuffer == null || alpBuffer.length < pixelStride)
+                {
+                    alpBuffer = new long[pixelStride];
+                }
+            }
             // re-init
             hasNull = true;
             elementIndex = 0;
@@ -257,7 +309,30 @@ public class DoubleColumnReader extends ColumnReader
 
             // read content
             int originalVectorWriteIndex = vectorWriteIndex;
-            if (nullsPadding)
+            if (alpEncoding)
+            {
+                if (elementIndex % pixelStride == 0)
+                {
+                    alpDecoder.next(alpBuffer, 0);
+                    alpBufferIndex = 0;
+                }
+                for (int j = i; j < i + numToRead; ++j)
+                {
+                    if (!(hasNull && isNull[j - vectorIndex]))
+                    {
+                        if (selected.get(j - vectorIndex))
+                        {
+                            columnVector.vector[vectorWriteIndex++] = alpBuffer[alpBufferIndex];
+                        }
+                        alpBufferIndex++;
+                    }
+                    else if (selected.get(j - vectorIndex))
+                    {
+                        vectorWriteIndex++;
+                    }
+                }
+            }
+            else if (nullsPadding)
             {
                 for (int j = i; j < i + numToRead; ++j)
                 {
@@ -299,4 +374,37 @@ public class DoubleColumnReader extends ColumnReader
             i += numToRead;
         }
     }
+
+    /**
+     * Skip the values of whole pixels by seeking to the pixel positions.
+     *
+     * @param input    input buffer
+     * @param encoding encoding type
+     * @param offset   starting reading offset of values, must be the start of a pixel
+     * @param size     number of values to skip, must end at the end of a pixel or the end of the column chunk
+     * @param pixelStride the stride (number of rows) in a pixels.
+     * @param vector   the vector of this column, nothing is read into it
+     * @param chunkIndex the metadata of the column chunk to read.
+     * @throws IOException
+     */
+    @Override
+    public void skip(ByteBuffer input, PixelsProto.ColumnEncoding encoding, int offset, int size, int pixelStride,
+                     ColumnVector vector, PixelsProto.ColumnChunkIndex chunkIndex) throws IOException
+    {
+        if (offset == 0)
+        {
+            // initialize this column reader by an empty read
+            read(input, encoding, 0, 0, pixelStride, 0, vector, chunkIndex);
+        }
+        int position = seekPixels(offset, size, pixelStride, chunkIndex);
+        if (position >= 0)
+        {
+            inputIndex = inputBuffer.position() + position;
+            if (alpEncoding)
+            {
+                alpDecoder = new AlpDecoder(inputBuffer, inputIndex,
+                        inputBuffer.position() + chunkIndex.getIsNullOffset());
+            }
+        }
+    }
 }
@@ -20,6 +20,7 @@
 package io.pixelsdb.pixels.core.reader;
 
 import io.pixelsdb.pixels.core.predicate.PixelsPredicate;
+import io.pixelsdb.pixels.core.predicate.PixelsRowFilter;
 
 import java.util.Optional;
 
@@ -30,6 +31,7 @@ public class PixelsReaderOption
 {
     private String[] includedCols = new String[0];
     private PixelsPredicate predicate = null;
+    private PixelsRowFilter rowFilter = null;
     private boolean skipCorruptRecords = false;
     private boolean tolerantSchemaEvolution = true;    // this may lead to column missing due to schema evolution
     private boolean enableEncodedColumnVector = false; // whether read encoded column vectors directly when possible
@@ -38,6 +40,7 @@ public class PixelsReaderOption
     private long transTimestamp = -1L; // -1 means no need to consider the timestamp when reading data
     private int rgStart = 0;
     private int rgLen = -1;     // -1 means reading to the end of the file
+    private SplitVisibility splitVisibility = null;
 
     public PixelsReaderOption() { }
 
@@ -67,6 +70,42 @@ public class PixelsReaderOption
         return Optional.of(predicate);
     }
 
+    /**
+     * Set the row filter to read the row batches in the two-phase (late materialization) mode.
+     * The row batches returned by the record reader only contain the rows that match the row filter.
+     *
+     * @param rowFilter the row filter
+     * @return this option
+     */
+    public PixelsReaderOption rowFilter(PixelsRowFilter rowFilter)
+    {
+        this.rowFilter = rowFilter;
+        return this;
+    }
+
+    public Optional<PixelsRowFilter> getRowFilter()
+    {
+        return Optional.ofNullable(rowFilter);
+    }
+
+    /**
+     * Set the visibility bitmaps shared by the record readers of the files in the same input split. The bitmaps
+     * of the split are queried from retina in one request, instead of one request per file.
+     *
+     * @param splitVisibility the visibility bitmaps of the input split
+     * @return this option
+     */
+    public PixelsReaderOption splitVisibility(SplitVisibility splitVisibility)
+    {
+        this.splitVisibility = splitVisibility;
+        return this;
+    }
+
+    public Optional<SplitVisibility> getSplitVisibility()
+    {
+        return Optional.ofNullable(splitVisibility);
+    }
+
     public PixelsReaderOption skipCorruptRecords(boolean skipCorruptRecords)
     {
         this.skipCorruptRecords = skipCorruptRecords;
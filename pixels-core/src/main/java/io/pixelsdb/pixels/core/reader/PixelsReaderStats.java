@@ -26,4 +26,18 @@ package io.pixelsdb.pixels.core.reader;
  */
 public interface PixelsReaderStats
 {
+    /**
+     * @return the number of rows skipped by the file and row group level statistics
+     */
+    long getRowGroupSkippedRows();
+
+    /**
+     * @return the number of rows skipped by the pixel level statistics
+     */
+    long getPixelSkippedRows();
+
+    /**
+     * @return the number of rows filtered out by the row filter in the two-phase (late materialization) read
+     */
+    long getRowFilteredRows();
 }
@@ -38,6 +38,21 @@ public interface PixelsRecordReader extends AutoCloseable
      */
     int prepareBatch(int batchSize) throws IOException;
 
+    /**
+     * Issue the reads of the column chunks to be read by this record reader in the background, so that
+     * they can be overlapped with the processing of other data, e.g., the previous file in a query split.
+     * It only takes effect when the prefetch scheduler is used (read.request.scheduler=prefetch) and
+     * must be called before the first row batch is read. The prefetched column chunks that have not been
+     * read are dropped when this record reader is closed.
+     *
+     * @return true if any column chunk is prefetched
+     * @throws java.io.IOException
+     */
+    default boolean prefetch() throws IOException
+    {
+        return false;
+    }
+
     /**
      * Read the next row batch. This method is thread-safe and independent from prepareBatch().
      *
@@ -20,6 +20,7 @@
 package io.pixelsdb.pixels.core.reader;
 
 import com.google.protobuf.InvalidProtocolBufferException;
+import io.pixelsdb.pixels.cache.CacheAccessStatistics;
 import io.pixelsdb.pixels.cache.ColumnChunkId;
 import io.pixelsdb.pixels.cache.PixelsCacheReader;
 import io.pixelsdb.pixels.common.exception.MetadataException;
@@ -27,18 +28,24 @@ import io.pixelsdb.pixels.common.exception.RetinaException;
 import io.pixelsdb.pixels.common.metadata.MetadataService;
 import io.pixelsdb.pixels.common.metrics.ReadPerfMetrics;
 import io.pixelsdb.pixels.common.physical.PhysicalReader;
+import io.pixelsdb.pixels.common.physical.ReadBuffers;
 import io.pixelsdb.pixels.common.physical.Scheduler;
 import io.pixelsdb.pixels.common.physical.SchedulerFactory;
+import io.pixelsdb.pixels.common.physical.scheduler.PrefetchScheduler;
 import io.pixelsdb.pixels.common.retina.RetinaService;
 import io.pixelsdb.pixels.common.utils.ConfigFactory;
 import io.pixelsdb.pixels.core.PixelsFooterCache;
 import io.pixelsdb.pixels.core.PixelsProto;
 import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.compression.CompressionCodec;
+import io.pixelsdb.pixels.core.compression.DecompressionBuffers;
 import io.pixelsdb.pixels.core.predicate.PixelsPredicate;
+import io.pixelsdb.pixels.core.predicate.PixelsRowFilter;
 import io.pixelsdb.pixels.core.stats.ColumnStats;
 import io.pixelsdb.pixels.core.stats.IntegerStatsRecorder;
 import io.pixelsdb.pixels.core.stats.StatsRecorder;
 import io.pixelsdb.pixels.core.utils.Bitmap;
+import io.pixelsdb.pixels.core.utils.BloomFilter;
 import io.pixelsdb.pixels.core.vector.ColumnVector;
 import io.pixelsdb.pixels.core.vector.LongColumnVector;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
@@ -54,7 +61,7 @@ import java.util.concurrent.CompletableFuture;
  * @author guodong
  * @author hank
  */
-public class PixelsRecordReaderImpl implements PixelsRecordReader
+public class PixelsRecordReaderImpl implements PixelsRecordReader, PixelsReaderStats
 {
     private static final Logger logger = LogManager.getLogger(PixelsRecordReaderImpl.class);
     private RetinaService retinaService = null;
@@ -72,8 +79,12 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
     private final String metricsDir;
     private final ReadPerfMetrics readPerfMetrics;
     private final boolean enableCache;
-    private final List<String> cacheOrder;
+    private final Set<String> cacheOrder;
     private final PixelsCacheReader cacheReader;
+    /**
+     * The column chunk accesses of the table of this file, null if the cache is disabled or the accesses are not recorded.
+     */
+    private final CacheAccessStatistics.TableAccesses cacheAccesses;
     private final PixelsFooterCache pixelsFooterCache;
     private final String filePath;
     private final List<PixelsProto.Type> includedColumnTypes;
@@ -83,6 +94,7 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
     private boolean checkValid = false;
     private boolean everPrepared = false;
     private boolean everRead = false;
+    private boolean everPrefetched = false;
     private long rowIndex = 0L;
     private VectorizedRowBatch resultRowBatch;
     /**
@@ -128,15 +140,51 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
     private PixelsProto.RowGroupFooter[] rowGroupFooters;
     // buffers of each chunk in this file, arranged by chunk's row group id and column id
     private ByteBuffer[] chunkBuffers;
+    /**
+     * The buffers borrowed from {@link DecompressionBuffers} for decompressing column chunks,
+     * they are returned to the pool when this reader is closed.
+     */
+    private final List<byte[]> decompressionBuffers = new ArrayList<>();
+    /**
+     * The buffers borrowed from {@link ReadBuffers} that column chunks are read into by the scheduler,
+     * they are returned to the pool when this reader is closed.
+     */
+    private final List<byte[]> readBuffers = new ArrayList<>();
     private ColumnReader[] readers;        // column readers for each target columns
     private long[][] rgVisibilityBitmaps;  // bitmaps of row group visibility
+    /**
+     * The pixels that do not match the predicate by pixel-level statistics, indexed by the index of target row groups.
+     * It is null if there is no predicate, and its element is null if no pixel in the row group can be skipped.
+     */
+    private Bitmap[] skippedPixels;
     private final boolean enableEncodedVector;
     private final int typeMode;
+    /**
+     * The row filter to read the row batches in the two-phase (late materialization) mode, null if absent.
+     */
+    private final PixelsRowFilter rowFilter;
+    /**
+     * The row batch to decode the filter columns of a pixel in the two-phase mode. Only the column vectors of
+     * the filter columns are created, each duplicated filter column shares the column vector of its origin.
+     */
+    private VectorizedRowBatch filterRowBatch = null;
+    /**
+     * The ith element is true if the ith column in the resultSchema is a (non-duplicated) filter column.
+     */
+    private boolean[] isFilterColumn;
+    private LongColumnVector filterTimestampVector;
+    private Bitmap filterSelected;
+    private Bitmap filterResult;
+    private Bitmap filterNoneSelected;
+    private int[] filterSelectedIndexes;
 
     private long diskReadBytes = 0L;
     private long cacheReadBytes = 0L;
     private long readTimeNanos = 0L;
     private long memoryUsage = 0L;
+    private long rowGroupSkippedRows = 0L;
+    private long pixelSkippedRows = 0L;
+    private long rowFilteredRows = 0L;
 
     private static boolean checkBit(long[] bitmap, int k)
     {
@@ -150,7 +198,7 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                                   boolean enableMetrics,
                                   String metricsDir,
                                   boolean enableCache,
-                                  List<String> cacheOrder,
+                                  Set<String> cacheOrder,
                                   PixelsCacheReader cacheReader,
                                   PixelsFooterCache pixelsFooterCache) throws IOException
     {
@@ -166,12 +214,15 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
         this.enableEncodedVector = option.isEnableEncodedColumnVector();
         this.typeMode = option.isReadIntColumnAsIntVector() ?
                 TypeDescription.Mode.CREATE_INT_VECTOR_FOR_INT : TypeDescription.Mode.NONE;
+        this.rowFilter = option.getRowFilter().orElse(null);
         this.enableMetrics = enableMetrics;
         this.metricsDir = metricsDir;
         this.readPerfMetrics = new ReadPerfMetrics();
         this.enableCache = enableCache;
         this.cacheOrder = cacheOrder;
         this.cacheReader = cacheReader;
+        this.cacheAccesses = enableCache ?
+                CacheAccessStatistics.Instance().getTableAccesses(physicalReader.getPathUri()) : null;
         this.pixelsFooterCache = pixelsFooterCache;
         this.filePath = this.physicalReader.getPath();
         this.includedColumnTypes = new ArrayList<>();
@@ -413,6 +464,7 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                 else
                 {
                     // second, get row group statistics, if not matches, skip the row group
+                    Map<Integer, BloomFilter> bloomFilterMap = new HashMap<>();
                     for (int i = 0; i < RGLen; i++)
                     {
                         PixelsProto.RowGroupStatistic rowGroupStatistic = rowGroupStatistics.get(RGStart + i);
@@ -441,6 +493,23 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                         }
                         includedRGs[i] = predicate.matches(footer.getRowGroupInfos(i).getNumberOfRows(), columnStatsMap);
                         if (includedRGs[i])
+                        {
+                            // third, check the bloom filters of the row group for the equality predicates
+                            bloomFilterMap.clear();
+                            for (int id : targetColumns)
+                            {
+                                PixelsProto.ColumnStatistic columnStatistic = rgColumnStatistics.get(id);
+                                if (columnStatistic.hasBloomFilter())
+                                {
+                                    bloomFilterMap.put(id, new BloomFilter(columnStatistic.getBloomFilter()));
+                                }
+                            }
+                            if (!bloomFilterMap.isEmpty())
+                            {
+                                includedRGs[i] = predicate.mayMatch(bloomFilterMap);
+                            }
+                        }
+                        if (includedRGs[i])
                         {
                             includedRowNum += footer.getRowGroupInfos(RGStart + i).getNumberOfRows();
                         }
@@ -470,6 +539,14 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
             }
         }
 
+        for (int i = 0; i < RGLen; i++)
+        {
+            if (!includedRGs[i])
+            {
+                rowGroupSkippedRows += footer.getRowGroupInfos(RGStart + i).getNumberOfRows();
+            }
+        }
+
         if (!this.shouldReadHiddenColumn && includedColumnNum == 0)
         {
             /**
@@ -515,8 +592,18 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                 if (retinaService == null) {
                     retinaService = RetinaService.Instance();
                 }
-                long fileId = metadataService.getFileId(physicalReader.getPathUri());
-                rgVisibilityBitmaps = retinaService.queryVisibility(fileId, targetRGs, option.getTransTimestamp());
+                rgVisibilityBitmaps = null;
+                if (option.getSplitVisibility().isPresent())
+                {
+                    // the bitmaps of the files in the same input split are queried in one request
+                    rgVisibilityBitmaps = option.getSplitVisibility().get().getBitmaps(
+                            physicalReader.getPath(), targetRGs, targetRGNum);
+                }
+                if (rgVisibilityBitmaps == null)
+                {
+                    long fileId = metadataService.getFileId(physicalReader.getPathUri());
+                    rgVisibilityBitmaps = retinaService.queryVisibility(fileId, targetRGs, option.getTransTimestamp());
+                }
             } catch (IOException e)
             {
                 logger.error("Failed to get path uri");
@@ -570,8 +657,7 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
         for (int i = 0; i < targetRGNum; i++)
         {
             int rgId = targetRGs[i];
-            String rgCacheId = filePath + "-" + rgId;
-            PixelsProto.RowGroupFooter rowGroupFooter = pixelsFooterCache.getRGFooter(rgCacheId);
+            PixelsProto.RowGroupFooter rowGroupFooter = pixelsFooterCache.getRGFooter(filePath, rgId);
             // cache miss, read from disk and put it into cache
             if (rowGroupFooter == null)
             {
@@ -588,7 +674,7 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                         {
                             PixelsProto.RowGroupFooter parsed = PixelsProto.RowGroupFooter.parseFrom(resp);
                             rowGroupFooters[fi] = parsed;
-                            pixelsFooterCache.putRGFooter(rgCacheId, parsed);
+                            pixelsFooterCache.putRGFooter(filePath, rgId, parsed);
                         } catch (InvalidProtocolBufferException e)
                         {
                             throw new RuntimeException("Failed to parse row group footer from byte buffer.", e);
@@ -623,10 +709,120 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                     PixelsProto.ColumnEncoding.Kind.NONE && enableEncodedVector;
         }
 
+        if (option.getPredicate().isPresent() && !option.getPredicate().get().matchesAll() && targetColumns.length > 0)
+        {
+            this.skippedPixels = getSkippedPixels(option.getPredicate().get());
+        }
+
         everPrepared = true;
         return true;
     }
 
+    /**
+     * Evaluate the predicate on the pixel statistics of the target row groups.
+     * @param predicate the predicate
+     * @return the bitmaps of the pixels that do not match the predicate
+     */
+    private Bitmap[] getSkippedPixels(PixelsPredicate predicate)
+    {
+        int pixelStride = postScript.getPixelStride();
+        List<TypeDescription> columnSchemas = fileSchema.getChildren();
+        Map<Integer, ColumnStats> columnStatsMap = new HashMap<>();
+        Bitmap[] skipped = new Bitmap[targetRGNum];
+        for (int rgIdx = 0; rgIdx < targetRGNum; rgIdx++)
+        {
+            int rgRowCount = footer.getRowGroupInfos(targetRGs[rgIdx]).getNumberOfRows();
+            int numPixels = (rgRowCount + pixelStride - 1) / pixelStride;
+            PixelsProto.RowGroupIndex rowGroupIndex = rowGroupFooters[rgIdx].getRowGroupIndexEntry();
+            for (int pixelId = 0; pixelId < numPixels; pixelId++)
+            {
+                columnStatsMap.clear();
+                boolean hasStats = true;
+                for (int id : targetColumns)
+                {
+                    PixelsProto.ColumnChunkIndex chunkIndex = rowGroupIndex.getColumnChunkIndexEntries(id);
+                    if (chunkIndex.getPixelStatisticsCount() <= pixelId)
+                    {
+                        // pixel statistics may be absent in the files written by other writers
+                        hasStats = false;
+                        break;
+                    }
+                    columnStatsMap.put(id, StatsRecorder.create(columnSchemas.get(id),
+                            chunkIndex.getPixelStatistics(pixelId).getStatistic()));
+                }
+                int pixelRowCount = Math.min(pixelStride, rgRowCount - pixelId * pixelStride);
+                if (hasStats && !predicate.matches(pixelRowCount, columnStatsMap))
+                {
+                    if (skipped[rgIdx] == null)
+                    {
+                        skipped[rgIdx] = new Bitmap(numPixels, false);
+                    }
+                    skipped[rgIdx].set(pixelId);
+                }
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Skip the pixels from curRowInRG in the current row group that do not match the predicate.
+     * This method should be called before reading each batch from the current row group, so that
+     * curRowInRG is always at the start of a pixel when it reaches a skipped pixel.
+     *
+     * @param rgRowCount the number of rows in the current row group
+     * @param columnVectors the column vectors of the result row batch
+     * @return the number of rows that can be read from curRowInRG before the next skipped pixel
+     */
+    private int skipPixels(int rgRowCount, ColumnVector[] columnVectors) throws IOException
+    {
+        Bitmap skipped = skippedPixels == null ? null : skippedPixels[curRGIdx];
+        if (skipped == null)
+        {
+            return rgRowCount - curRowInRG;
+        }
+        int pixelStride = postScript.getPixelStride();
+        int pixelId = curRowInRG / pixelStride;
+        if (curRowInRG % pixelStride == 0 && skipped.get(pixelId))
+        {
+            int endPixel = skipped.nextClearBit(pixelId);
+            int numToSkip = Math.min(endPixel * pixelStride, rgRowCount) - curRowInRG;
+            PixelsProto.RowGroupFooter rowGroupFooter = rowGroupFooters[curRGIdx];
+            int chunkBufferBase = curRGIdx * (includedColumns.length + (option.hasValidTransTimestamp() ? 1 : 0));
+            for (int i = 0; i < resultColumns.length; i++)
+            {
+                if (!columnVectors[i].duplicated)
+                {
+                    PixelsProto.ColumnEncoding encoding = rowGroupFooter.getRowGroupEncoding()
+                            .getColumnChunkEncodings(resultColumns[i]);
+                    PixelsProto.ColumnChunkIndex chunkIndex = rowGroupFooter.getRowGroupIndexEntry()
+                            .getColumnChunkIndexEntries(resultColumns[i]);
+                    readers[i].skip(chunkBuffers[chunkBufferBase + resultColumns[i]], encoding, curRowInRG,
+                            numToSkip, pixelStride, columnVectors[i], chunkIndex);
+                }
+            }
+            if (option.hasValidTransTimestamp() && this.shouldReadHiddenColumn)
+            {
+                PixelsProto.ColumnEncoding hiddenTimestampEncoding = rowGroupFooter.getRowGroupEncoding()
+                        .getHiddenColumnChunkEncoding();
+                PixelsProto.ColumnChunkIndex hiddenTimestampChunkIndex = rowGroupFooter.getRowGroupIndexEntry()
+                        .getHiddenColumnChunkIndexEntry();
+                readers[readers.length - 1].skip(chunkBuffers[chunkBufferBase + includedColumns.length],
+                        hiddenTimestampEncoding, curRowInRG, numToSkip, pixelStride,
+                        new LongColumnVector(0), hiddenTimestampChunkIndex);
+            }
+            curRowInRG += numToSkip;
+            rowIndex += numToSkip;
+            pixelSkippedRows += numToSkip;
+            pixelId = endPixel;
+        }
+        int nextSkippedPixel = skipped.nextSetBit(pixelId);
+        if (nextSkippedPixel < 0)
+        {
+            return rgRowCount - curRowInRG;
+        }
+        return Math.min(nextSkippedPixel * pixelStride, rgRowCount) - curRowInRG;
+    }
+
     /**
      * Comments added in Issue #67 (patch):
      * In this method, if the cache is enabled, we can support reading
@@ -716,7 +912,7 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                      */
                     // int rgId = rgIdx + RGStart;
                     int rgId = targetRGs[rgIdx];
-                    // TODO: not only the column chunks in cacheOrder are cached.
+                    // cacheOrder contains the column chunks admitted into the cache, see AdmittedColumnChunks
                     String cacheIdentifier = rgId + ":" + colId;
                     // if cached, read from cache files
                     if (cacheOrder.contains(cacheIdentifier))
@@ -731,6 +927,10 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                                 rowGroupFooters[rgIdx].getRowGroupIndexEntry();
                         PixelsProto.ColumnChunkIndex chunkIndex =
                                 rowGroupIndex.getColumnChunkIndexEntries(colId);
+                        if (cacheAccesses != null)
+                        {
+                            cacheAccesses.record(cacheIdentifier, chunkIndex.getChunkLength(), false);
+                        }
                         /**
                          * Comments added in Issue #103:
                          * It is not a bug to use rgIdx as the rowGroupId of ChunkId.
@@ -765,6 +965,10 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                                 rowGroupFooters[rgIdx].getRowGroupIndexEntry();
                         PixelsProto.ColumnChunkIndex chunkIndex =
                                 rowGroupIndex.getHiddenColumnChunkIndexEntry();
+                        if (cacheAccesses != null)
+                        {
+                            cacheAccesses.record(cacheIdentifier, chunkIndex.getChunkLength(), false);
+                        }
 
                         ChunkId chunk = new ChunkId(rgIdx, colId,
                                 chunkIndex.getChunkOffset(),
@@ -787,6 +991,10 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                 }
 //                long getEnd = System.nanoTime();
 //                logger.debug("[cache get]: " + columnChunk.length + "," + (getEnd - getBegin));
+                if (columnChunk != null && columnChunk.capacity() != 0)
+                {
+                    columnChunk = decompressChunk(columnChunk, rgId - RGStart, colId);
+                }
                 chunkBuffers[(rgId - RGStart) * includedColumnNum + colId] = columnChunk;
                 if (columnChunk == null || columnChunk.capacity() == 0)
                 {
@@ -806,38 +1014,30 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                     ChunkId diskChunk = new ChunkId(rgIdx, colId, chunkIndex.getChunkOffset(),
                             chunkIndex.getChunkLength());
                     diskChunks.add(diskChunk);
+                    if (cacheAccesses != null)
+                    {
+                        cacheAccesses.record(rgId + ":" + colId, chunkIndex.getChunkLength(), false);
+                    }
                 }
                 else
                 {
                     this.cacheReadBytes += columnChunk.capacity();
+                    if (cacheAccesses != null)
+                    {
+                        PixelsProto.RowGroupIndex rowGroupIndex =
+                                rowGroupFooters[rgId - RGStart].getRowGroupIndexEntry();
+                        PixelsProto.ColumnChunkIndex chunkIndex =
+                                (this.shouldReadHiddenColumn && colId == includedColumns.length) ?
+                                        rowGroupIndex.getHiddenColumnChunkIndexEntry() :
+                                        rowGroupIndex.getColumnChunkIndexEntries(colId);
+                        cacheAccesses.record(rgId + ":" + colId, chunkIndex.getChunkLength(), true);
+                    }
                 }
             }
         }
         else
         {
-            for (int rgIdx = 0; rgIdx < targetRGNum; rgIdx++)
-            {
-                PixelsProto.RowGroupIndex rowGroupIndex =
-                        rowGroupFooters[rgIdx].getRowGroupIndexEntry();
-                for (int colId : targetColumns)
-                {
-                    PixelsProto.ColumnChunkIndex chunkIndex =
-                            rowGroupIndex.getColumnChunkIndexEntries(colId);
-                    ChunkId chunk = new ChunkId(rgIdx, colId,
-                            chunkIndex.getChunkOffset(),
-                            chunkIndex.getChunkLength());
-                    diskChunks.add(chunk);
-                }
-                if (shouldReadHiddenColumn)
-                {
-                    PixelsProto.ColumnChunkIndex chunkIndex =
-                            rowGroupIndex.getHiddenColumnChunkIndexEntry();
-                    ChunkId chunk = new ChunkId(rgIdx, includedColumns.length,
-                            chunkIndex.getChunkOffset(),
-                            chunkIndex.getChunkLength());
-                    diskChunks.add(chunk);
-                }
-            }
+            addDiskChunks(diskChunks);
         }
 
         if (!diskChunks.isEmpty())
@@ -858,6 +1058,7 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
              * by setting read.request.scheduler=sortmerge.
              */
             Scheduler.RequestBatch requestBatch = new Scheduler.RequestBatch(diskChunks.size());
+            requestBatch.setBufferPool(ReadBuffers.Instance());
             List<CompletableFuture> actionFutures = new ArrayList<>(diskChunks.size());
             for (ChunkId chunk : diskChunks)
             {
@@ -887,12 +1088,18 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                  * readCost.setMs(readTimeMs);
                  * readPerfMetrics.addSeqRead(readCost);
                  */
-                actionFutures.add(requestBatch.add(transId, chunk.offset, chunk.length)
+                actionFutures.add(requestBatch.add(transId, chunk.offset, chunk.length, isPooledChunk(rgIdx, colId))
                         .thenAccept(resp ->
                 {
                     if (resp != null)
                     {
-                        chunkBuffers[rgIdx * includedColumnNum + colId] = resp;
+                        try
+                        {
+                            chunkBuffers[rgIdx * includedColumnNum + colId] = decompressChunk(resp, rgIdx, colId);
+                        } catch (IOException e)
+                        {
+                            throw new RuntimeException("Failed to decompress column chunk.", e);
+                        }
                     }
                 }));
                 // don't update statistics in whenComplete as it may be executed in other threads.
@@ -900,9 +1107,18 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                 memoryUsage += chunk.length;
             }
 
+            long deadlineMs = Long.parseLong(ConfigFactory.Instance().getProperty("read.request.deadline.ms"));
+            if (deadlineMs > 0)
+            {
+                requestBatch.setDeadlineMs(System.currentTimeMillis() + deadlineMs);
+            }
             Scheduler scheduler = SchedulerFactory.Instance().getScheduler();
             try
             {
+                /**
+                 * If the chunks have been prefetched by {@link #prefetch()}, the prefetch scheduler
+                 * completes the requests by the prefetched data.
+                 */
                 scheduler.executeBatch(physicalReader, requestBatch, transId);
                 requestBatch.completeAll(actionFutures).join();
                 requestBatch.clear();
@@ -912,11 +1128,168 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                 throw new IOException("Failed to read chunks block into buffers, " +
                         "only the last error is thrown, check the logs for more information.", e);
             }
+            finally
+            {
+                // the buffers are in use by chunkBuffers until this reader is closed
+                readBuffers.addAll(requestBatch.getPooledBuffers());
+            }
         }
 
         return true;
     }
 
+    /**
+     * Add the column chunks of the target columns (and the hidden column if it should be read)
+     * in the target row groups into diskChunks.
+     */
+    private void addDiskChunks(List<ChunkId> diskChunks)
+    {
+        for (int rgIdx = 0; rgIdx < targetRGNum; rgIdx++)
+        {
+            PixelsProto.RowGroupIndex rowGroupIndex =
+                    rowGroupFooters[rgIdx].getRowGroupIndexEntry();
+            for (int colId : targetColumns)
+            {
+                PixelsProto.ColumnChunkIndex chunkIndex =
+                        rowGroupIndex.getColumnChunkIndexEntries(colId);
+                ChunkId chunk = new ChunkId(rgIdx, colId,
+                        chunkIndex.getChunkOffset(),
+                        chunkIndex.getChunkLength());
+                diskChunks.add(chunk);
+            }
+            if (shouldReadHiddenColumn)
+            {
+                PixelsProto.ColumnChunkIndex chunkIndex =
+                        rowGroupIndex.getHiddenColumnChunkIndexEntry();
+                ChunkId chunk = new ChunkId(rgIdx, includedColumns.length,
+                        chunkIndex.getChunkOffset(),
+                        chunkIndex.getChunkLength());
+                diskChunks.add(chunk);
+            }
+        }
+    }
+
+    @Override
+    public boolean prefetch() throws IOException
+    {
+        Scheduler scheduler = SchedulerFactory.Instance().getScheduler();
+        if (!(scheduler instanceof PrefetchScheduler) || !checkValid || everRead || everPrefetched)
+        {
+            return false;
+        }
+        if (!everPrepared)
+        {
+            if (!prepareRead())
+            {
+                throw new IOException("failed to prepare for prefetch.");
+            }
+        }
+        /**
+         * The cached column chunks are read from the local cache in read(), and there is nothing to
+         * prefetch in case of none projection columns or no row groups to read.
+         */
+        if (enableCache || targetRGNum == 0 || (!this.shouldReadHiddenColumn && includedColumnNum == 0))
+        {
+            return false;
+        }
+        List<ChunkId> diskChunks = new ArrayList<>(targetRGNum * (targetColumns.length + 1));
+        addDiskChunks(diskChunks);
+        if (diskChunks.isEmpty())
+        {
+            return false;
+        }
+        Scheduler.RequestBatch requestBatch = new Scheduler.RequestBatch(diskChunks.size());
+        for (ChunkId chunk : diskChunks)
+        {
+            requestBatch.add(transId, chunk.offset, chunk.length);
+        }
+        everPrefetched = true;
+        return ((PrefetchScheduler) scheduler).prefetch(physicalReader, requestBatch, transId, this) > 0;
+    }
+
+    /**
+     * Decompress the column chunk if it is compressed.
+     * <p/>
+     * The column chunks of string types are decompressed into newly allocated buffers, as the
+     * column vectors read from them may reference the buffers (see {@link StringColumnReader})
+     * and may live longer than this reader. Other column chunks are decompressed into buffers
+     * borrowed from {@link DecompressionBuffers}, which are returned when this reader is closed.
+     *
+     * @param chunk the column chunk read from storage or cache
+     * @param rgIdx the index of the row group in {@link #targetRGs}
+     * @param colId the id of the column, equals to includedColumns.length for the hidden column
+     * @return the decompressed column chunk, or chunk itself if it is not compressed
+     */
+    private ByteBuffer decompressChunk(ByteBuffer chunk, int rgIdx, int colId) throws IOException
+    {
+        PixelsProto.RowGroupIndex rowGroupIndex = rowGroupFooters[rgIdx].getRowGroupIndexEntry();
+        boolean isHidden = this.shouldReadHiddenColumn && colId == includedColumns.length;
+        PixelsProto.ColumnChunkIndex chunkIndex = isHidden ?
+                rowGroupIndex.getHiddenColumnChunkIndexEntry() : rowGroupIndex.getColumnChunkIndexEntries(colId);
+        if (chunkIndex.getCompression() == PixelsProto.CompressionKind.NONE)
+        {
+            return chunk;
+        }
+        int uncompressedLength = chunkIndex.getUncompressedLength();
+        byte[] buffer;
+        if (isHidden || !isReferencedByVector(fileSchema.getChildren().get(colId)))
+        {
+            buffer = DecompressionBuffers.Instance().allocate(uncompressedLength);
+            synchronized (decompressionBuffers)
+            {
+                decompressionBuffers.add(buffer);
+            }
+        }
+        else
+        {
+            buffer = new byte[uncompressedLength];
+        }
+        ByteBuffer output = ByteBuffer.wrap(buffer, 0, uncompressedLength);
+        CompressionCodec.getCodec(chunkIndex.getCompression()).decompress(chunk.duplicate(), output);
+        if (output.position() != uncompressedLength)
+        {
+            throw new IOException("decompressed length " + output.position() +
+                    " does not match the uncompressed length " + uncompressedLength);
+        }
+        return ByteBuffer.wrap(buffer, 0, uncompressedLength);
+    }
+
+    /**
+     * A column chunk can be read into a buffer borrowed from {@link ReadBuffers} if the buffer
+     * is not referenced after this reader is closed, i.e., the chunk is compressed (and hence
+     * decompressed into another buffer), or the column vectors read from it do not reference it.
+     *
+     * @param rgIdx the index of the row group in {@link #targetRGs}
+     * @param colId the id of the column, equals to includedColumns.length for the hidden column
+     * @return true if the column chunk can be read into a pooled buffer
+     */
+    private boolean isPooledChunk(int rgIdx, int colId)
+    {
+        if (this.shouldReadHiddenColumn && colId == includedColumns.length)
+        {
+            return true;
+        }
+        PixelsProto.ColumnChunkIndex chunkIndex =
+                rowGroupFooters[rgIdx].getRowGroupIndexEntry().getColumnChunkIndexEntries(colId);
+        return chunkIndex.getCompression() != PixelsProto.CompressionKind.NONE ||
+                !isReferencedByVector(fileSchema.getChildren().get(colId));
+    }
+
+    private static boolean isReferencedByVector(TypeDescription type)
+    {
+        switch (type.getCategory())
+        {
+            case STRING:
+            case CHAR:
+            case VARCHAR:
+            case BINARY:
+            case VARBINARY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Issue #105:
      * We use preRowInRG instead of curRowInRG to deal with queries like:
@@ -1116,12 +1489,16 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
             rgRowCount = footer.getRowGroupInfos(targetRGs[curRGIdx]).getNumberOfRows();
         }
 
-        if (option.hasValidTransTimestamp())
+        if (this.rowFilter != null && !this.enableEncodedVector)
+        {
+            readBatchLateMaterialized(resultRowBatch, batchSize, rgRowCount);
+        }
+        else if (option.hasValidTransTimestamp())
         {
             while (resultRowBatch.size < batchSize && curRowInRG < rgRowCount)
             {
-                // update current batch size
-                curBatchSize = rgRowCount - curRowInRG;
+                // update current batch size, the pixels that do not match the predicate are skipped
+                curBatchSize = skipPixels(rgRowCount, columnVectors);
                 if (curBatchSize + resultRowBatch.size >= batchSize)
                 {
                     curBatchSize = batchSize - resultRowBatch.size;
@@ -1238,8 +1615,8 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
         {
             while (resultRowBatch.size < batchSize && curRowInRG < rgRowCount)
             {
-                // update current batch size
-                curBatchSize = rgRowCount - curRowInRG;
+                // update current batch size, the pixels that do not match the predicate are skipped
+                curBatchSize = skipPixels(rgRowCount, columnVectors);
                 if (curBatchSize + resultRowBatch.size >= batchSize)
                 {
                     curBatchSize = batchSize - resultRowBatch.size;
@@ -1315,9 +1692,233 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                 }
             }
         }
+
+        if (this.rowFilter != null && this.enableEncodedVector && !resultRowBatch.isEmpty())
+        {
+            /*
+             * Encoded (dictionary) column vectors are bound to the column chunk and can not be filled by the
+             * selected rows of the decoded values, hence we fall back to filter the row batch after reading.
+             */
+            Bitmap filtered = new Bitmap(resultRowBatch.size, false);
+            this.rowFilter.filter(resultRowBatch, filtered);
+            int numRows = resultRowBatch.size;
+            resultRowBatch.applyFilter(filtered);
+            this.rowFilteredRows += numRows - resultRowBatch.size;
+        }
         return resultRowBatch;
     }
 
+    /**
+     * Read the row batch in the two-phase (late materialization) mode. The rows are read pixel by pixel:
+     * <ol>
+     *     <li>decode the filter columns of the rows in the pixel, and evaluate the row filter
+     *     (and the transaction timestamp and visibility if needed) on them;</li>
+     *     <li>if any row is selected, copy the selected values of the filter columns into the result row batch,
+     *     and decode the selected values of the other columns; otherwise, skip the other columns.</li>
+     * </ol>
+     * The pixels that do not match the predicate by pixel-level statistics are skipped as in the one-phase mode.
+     *
+     * @param resultRowBatch the row batch to read the selected rows into
+     * @param batchSize the max number of rows to read into the result row batch
+     * @param rgRowCount the number of rows in the current row group
+     */
+    private void readBatchLateMaterialized(VectorizedRowBatch resultRowBatch, int batchSize, int rgRowCount)
+            throws IOException
+    {
+        int pixelStride = postScript.getPixelStride();
+        if (this.filterRowBatch == null)
+        {
+            initRowFilter(pixelStride);
+        }
+        ColumnVector[] columnVectors = resultRowBatch.cols;
+        ColumnVector[] filterVectors = this.filterRowBatch.cols;
+        boolean hasTimestamp = option.hasValidTransTimestamp();
+        int numChunksInRG = includedColumns.length + (hasTimestamp ? 1 : 0);
+
+        while (resultRowBatch.size < batchSize && curRowInRG < rgRowCount)
+        {
+            // the pixels that do not match the predicate are skipped, and a chunk never crosses pixels
+            int curBatchSize = skipPixels(rgRowCount, columnVectors);
+            curBatchSize = Math.min(curBatchSize, batchSize - resultRowBatch.size);
+            curBatchSize = Math.min(curBatchSize, pixelStride - curRowInRG % pixelStride);
+
+            if (curBatchSize > 0)
+            {
+                PixelsProto.RowGroupFooter rowGroupFooter = rowGroupFooters[curRGIdx];
+                int chunkBufferBase = curRGIdx * numChunksInRG;
+                filterSelected.set(0, curBatchSize);
+                if (hasTimestamp)
+                {
+                    if (this.shouldReadHiddenColumn)
+                    {
+                        PixelsProto.ColumnEncoding hiddenTimestampEncoding = rowGroupFooter.getRowGroupEncoding()
+                                .getHiddenColumnChunkEncoding();
+                        PixelsProto.ColumnChunkIndex hiddenTimestampChunkIndex = rowGroupFooter
+                                .getRowGroupIndexEntry().getHiddenColumnChunkIndexEntry();
+                        filterTimestampVector.reset();
+                        readers[readers.length - 1].read(chunkBuffers[chunkBufferBase + includedColumns.length],
+                                hiddenTimestampEncoding, curRowInRG, curBatchSize, pixelStride, 0,
+                                filterTimestampVector, hiddenTimestampChunkIndex);
+                    }
+                    for (int i = 0; i < curBatchSize; i++)
+                    {
+                        boolean timestampValid = !this.shouldReadHiddenColumn ||
+                                filterTimestampVector.vector[i] <= this.transTimestamp;
+                        boolean visibilityValid = rgVisibilityBitmaps == null ||
+                                !checkBit(rgVisibilityBitmaps[curRGIdx], curRowInRG + i);
+                        if (!(timestampValid && visibilityValid))
+                        {
+                            filterSelected.clear(i);
+                        }
+                    }
+                }
+                int numVisible = filterSelected.cardinality(0, curBatchSize);
+
+                // phase 1: decode the filter columns and evaluate the row filter
+                for (int i = 0; i < resultColumns.length; i++)
+                {
+                    if (isFilterColumn[i])
+                    {
+                        PixelsProto.ColumnEncoding encoding = rowGroupFooter.getRowGroupEncoding()
+                                .getColumnChunkEncodings(resultColumns[i]);
+                        PixelsProto.ColumnChunkIndex chunkIndex = rowGroupFooter.getRowGroupIndexEntry()
+                                .getColumnChunkIndexEntries(resultColumns[i]);
+                        filterVectors[i].reset();
+                        readers[i].read(chunkBuffers[chunkBufferBase + resultColumns[i]], encoding, curRowInRG,
+                                curBatchSize, pixelStride, 0, filterVectors[i], chunkIndex);
+                    }
+                }
+                int numSelected = 0;
+                if (numVisible > 0)
+                {
+                    this.filterRowBatch.size = curBatchSize;
+                    this.rowFilter.filter(this.filterRowBatch, filterResult);
+                    filterSelected.and(filterResult);
+                    for (int i = filterSelected.nextSetBit(0); i >= 0 && i < curBatchSize;
+                         i = filterSelected.nextSetBit(i + 1))
+                    {
+                        filterSelectedIndexes[numSelected++] = i;
+                    }
+                }
+                this.rowFilteredRows += numVisible - numSelected;
+
+                // phase 2: materialize the selected rows, or skip the other columns if no row is selected
+                boolean wholePixel = curRowInRG % pixelStride == 0 &&
+                        (curBatchSize == pixelStride || curRowInRG + curBatchSize == rgRowCount);
+                for (int i = 0; i < resultColumns.length; i++)
+                {
+                    if (columnVectors[i].duplicated)
+                    {
+                        continue;
+                    }
+                    if (isFilterColumn[i])
+                    {
+                        columnVectors[i].setWriteIndex(resultRowBatch.size);
+                        columnVectors[i].addSelected(filterSelectedIndexes, 0, numSelected, filterVectors[i]);
+                        continue;
+                    }
+                    PixelsProto.ColumnEncoding encoding = rowGroupFooter.getRowGroupEncoding()
+                            .getColumnChunkEncodings(resultColumns[i]);
+                    PixelsProto.ColumnChunkIndex chunkIndex = rowGroupFooter.getRowGroupIndexEntry()
+                            .getColumnChunkIndexEntries(resultColumns[i]);
+                    ByteBuffer chunkBuffer = chunkBuffers[chunkBufferBase + resultColumns[i]];
+                    if (numSelected == curBatchSize)
+                    {
+                        readers[i].read(chunkBuffer, encoding, curRowInRG, curBatchSize, pixelStride,
+                                resultRowBatch.size, columnVectors[i], chunkIndex);
+                    }
+                    else if (numSelected == 0 && wholePixel)
+                    {
+                        readers[i].skip(chunkBuffer, encoding, curRowInRG, curBatchSize, pixelStride,
+                                columnVectors[i], chunkIndex);
+                    }
+                    else
+                    {
+                        readers[i].readSelected(chunkBuffer, encoding, curRowInRG, curBatchSize, pixelStride,
+                                resultRowBatch.size, columnVectors[i], chunkIndex,
+                                numSelected == 0 ? filterNoneSelected : filterSelected);
+                    }
+                }
+
+                curRowInRG += curBatchSize;
+                rowIndex += curBatchSize;
+                resultRowBatch.size += numSelected;
+                if (hasTimestamp)
+                {
+                    this.qualifiedRowNum += numSelected;
+                }
+            }
+
+            // update row group index if current row index exceeds max row count in the row group
+            if (curRowInRG >= rgRowCount)
+            {
+                curRGIdx++;
+                if (curRGIdx < targetRGNum)
+                {
+                    rgRowCount = footer.getRowGroupInfos(targetRGs[curRGIdx]).getNumberOfRows();
+                }
+                else
+                {
+                    checkValid = false; // Issue #105: to reject continuous read.
+                    resultRowBatch.endOfFile = true;
+                    this.endOfFile = true;
+                    break;
+                }
+                curRowInRG = 0;
+            }
+        }
+
+        for (ColumnVector cv : columnVectors)
+        {
+            if (cv.duplicated)
+            {
+                cv.duplicate(columnVectors[cv.originVecId]);
+            }
+        }
+    }
+
+    /**
+     * Create the buffers for the two-phase (late materialization) mode.
+     *
+     * @param pixelStride the pixel stride of the file, also the max number of rows to filter at once
+     */
+    private void initRowFilter(int pixelStride)
+    {
+        this.isFilterColumn = new boolean[resultColumns.length];
+        this.filterRowBatch = new VectorizedRowBatch(resultColumns.length, pixelStride);
+        // the origin of each result column, i.e., the first result column that reads the same file column
+        int[] originIds = new int[resultColumns.length];
+        for (int i = 0; i < resultColumns.length; i++)
+        {
+            originIds[i] = i;
+            for (int j = 0; j < i; j++)
+            {
+                if (resultColumns[j] == resultColumns[i])
+                {
+                    originIds[i] = j;
+                    break;
+                }
+            }
+        }
+        for (int columnId : this.rowFilter.getColumnIds())
+        {
+            int originId = originIds[columnId];
+            if (!this.isFilterColumn[originId])
+            {
+                this.isFilterColumn[originId] = true;
+                TypeDescription filterSchema = TypeDescription.createSchema(
+                        Collections.singletonList(includedColumnTypes.get(originId)));
+                this.filterRowBatch.cols[originId] = filterSchema.createRowBatch(pixelStride, typeMode).cols[0];
+            }
+            this.filterRowBatch.cols[columnId] = this.filterRowBatch.cols[originId];
+        }
+        this.filterTimestampVector = new LongColumnVector(pixelStride);
+        this.filterSelected = new Bitmap(pixelStride, false);
+        this.filterResult = new Bitmap(pixelStride, false);
+        this.filterNoneSelected = new Bitmap(pixelStride, false);
+        this.filterSelectedIndexes = new int[pixelStride];
+    }
+
     @Override
     public VectorizedRowBatch readBatch(int batchSize)
             throws IOException
@@ -1407,6 +2008,24 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
         return readTimeNanos;
     }
 
+    @Override
+    public long getRowGroupSkippedRows()
+    {
+        return rowGroupSkippedRows;
+    }
+
+    @Override
+    public long getPixelSkippedRows()
+    {
+        return pixelSkippedRows;
+    }
+
+    @Override
+    public long getRowFilteredRows()
+    {
+        return rowFilteredRows;
+    }
+
     @Override
     public long getMemoryUsage()
     {
@@ -1420,6 +2039,12 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
     @Override
     public void close() throws IOException
     {
+        if (everPrefetched)
+        {
+            // drop the prefetched column chunks that have not been read
+            ((PrefetchScheduler) SchedulerFactory.Instance().getScheduler()).cancel(this);
+            everPrefetched = false;
+        }
         diskReadBytes = 0L;
         cacheReadBytes = 0L;
         // release chunk buffer
@@ -1430,6 +2055,19 @@ public class PixelsRecordReaderImpl implements PixelsRecordReader
                 chunkBuffers[i] = null;
             }
         }
+        synchronized (decompressionBuffers)
+        {
+            for (byte[] buffer : decompressionBuffers)
+            {
+                DecompressionBuffers.Instance().free(buffer);
+            }
+            decompressionBuffers.clear();
+        }
+        for (byte[] buffer : readBuffers)
+        {
+            ReadBuffers.Instance().free(buffer);
+        }
+        readBuffers.clear();
         if (readers != null)
         {
             for (int i = 0; i < readers.length; ++i)
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.reader;
+
+import io.pixelsdb.pixels.common.exception.MetadataException;
+import io.pixelsdb.pixels.common.exception.RetinaException;
+import io.pixelsdb.pixels.common.metadata.MetadataService;
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.retina.RetinaService;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The visibility bitmaps of the row groups in the files of an input split. The files are added before they
+ * are read, and the bitmaps of all the files are queried from retina in one request when the first record reader
+ * of the split prepares to read, instead of one request per file. It is shared by the record readers of the split
+ * through {@link PixelsReaderOption#splitVisibility(SplitVisibility)}.
+ *
+ * @create 2026-10-17
+ */
+public class SplitVisibility
+{
+    private final Storage storage;
+    private final long timestamp;
+    // path uri -> {rgStart, rgLen}
+    private final Map<String, int[]> rgRanges = new LinkedHashMap<>();
+    // path uri -> the visibility bitmaps of the row groups in the range, indexed by rgId - rgStart
+    private Map<String, long[][]> rgBitmaps = null;
+
+    /**
+     * @param storage the storage of the files
+     * @param timestamp the transaction timestamp to query the visibility
+     */
+    public SplitVisibility(Storage storage, long timestamp)
+    {
+        this.storage = storage;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Add the row groups of the file to read. The files with unknown number of row groups (rgLen < 0) are
+     * not added, their record readers query the visibility by themselves.
+     * @param path the path of the file
+     * @param rgStart the first row group to read
+     * @param rgLen the number of row groups to read, the row groups beyond the end of the file are ignored
+     */
+    public synchronized void addFile(String path, int rgStart, int rgLen) throws IOException
+    {
+        if (rgLen > 0 && this.rgBitmaps == null)
+        {
+            this.rgRanges.put(this.storage.ensureSchemePrefix(path), new int[]{rgStart, rgLen});
+        }
+    }
+
+    /**
+     * Get the visibility bitmaps of the target row groups in the file. The bitmaps of all the added files are
+     * queried in one request on the first call.
+     * @param path the path of the file
+     * @param targetRGs the ids of the target row groups
+     * @param targetRGNum the number of target row groups in targetRGs
+     * @return the visibility bitmaps of the target row groups, in the same order as targetRGs; or null if the
+     * bitmap of any target row group is not found, then the caller should query the visibility by itself
+     */
+    public synchronized long[][] getBitmaps(String path, int[] targetRGs, int targetRGNum)
+            throws IOException, MetadataException, RetinaException
+    {
+        if (this.rgBitmaps == null)
+        {
+            queryBitmaps();
+        }
+        String pathUri = this.storage.ensureSchemePrefix(path);
+        int[] rgRange = this.rgRanges.get(pathUri);
+        long[][] fileBitmaps = this.rgBitmaps.get(pathUri);
+        if (fileBitmaps == null)
+        {
+            return null;
+        }
+        long[][] visibilityBitmaps = new long[targetRGs.length][];
+        for (int i = 0; i < targetRGNum; ++i)
+        {
+            int index = targetRGs[i] - rgRange[0];
+            if (index < 0 || index >= fileBitmaps.length || fileBitmaps[index] == null)
+            {
+                return null;
+            }
+            visibilityBitmaps[i] = fileBitmaps[index];
+        }
+        return visibilityBitmaps;
+    }
+
+    private void queryBitmaps() throws IOException, MetadataException, RetinaException
+    {
+        int numRGs = 0;
+        for (int[] rgRange : this.rgRanges.values())
+        {
+            numRGs += rgRange[1];
+        }
+        long[] fileIds = new long[numRGs];
+        int[] rgIds = new int[numRGs];
+        MetadataService metadataService = MetadataService.Instance();
+        int i = 0;
+        for (Map.Entry<String, int[]> entry : this.rgRanges.entrySet())
+        {
+            long fileId = metadataService.getFileId(entry.getKey());
+            int[] rgRange = entry.getValue();
+            for (int j = 0; j < rgRange[1]; ++j, ++i)
+            {
+                fileIds[i] = fileId;
+                rgIds[i] = rgRange[0] + j;
+            }
+        }
+        long[][] visibilityBitmaps = numRGs > 0 ?
+                RetinaService.Instance().queryVisibility(fileIds, rgIds, this.timestamp) : new long[0][];
+
+        this.rgBitmaps = new HashMap<>(this.rgRanges.size());
+        i = 0;
+        for (Map.Entry<String, int[]> entry : this.rgRanges.entrySet())
+        {
+            long[][] fileBitmaps = new long[entry.getValue()[1]][];
+            System.arraycopy(visibilityBitmaps, i, fileBitmaps, 0, fileBitmaps.length);
+            i += fileBitmaps.length;
+            this.rgBitmaps.put(entry.getKey(), fileBitmaps);
+        }
+    }
+}
@@ -46,6 +46,10 @@ public class TimestampColumnReader extends ColumnReader
 {
     private ByteBuffer inputBuffer = null;
     private InputStream inputStream = null;
+    /**
+     * The offset of the column chunk in the input buffer.
+     */
+    private int inputStart = 0;
     private RunLenIntDecoder decoder = null;
 
     TimestampColumnReader(TypeDescription type)
@@ -105,6 +109,7 @@ public class TimestampColumnReader extends ColumnReader
             }
             this.inputBuffer = input;
             this.inputBuffer.order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            inputStart = inputBuffer.position();
             inputStream = new ByteBufferInputStream(inputBuffer, inputBuffer.position(), inputBuffer.limit());
             decoder = new RunLenIntDecoder(inputStream, true);
             isNullOffset = inputBuffer.position() + chunkIndex.getIsNullOffset();
@@ -214,6 +219,7 @@ public class TimestampColumnReader extends ColumnReader
             }
             this.inputBuffer = input;
             this.inputBuffer.order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            inputStart = inputBuffer.position();
             inputStream = new ByteBufferInputStream(inputBuffer, inputBuffer.position(), inputBuffer.limit());
             decoder = new RunLenIntDecoder(inputStream, true);
             isNullOffset = inputBuffer.position() + chunkIndex.getIsNullOffset();
@@ -349,4 +355,36 @@ public class TimestampColumnReader extends ColumnReader
             i += numToRead;
         }
     }
+
+    /**
+     * Skip the values of whole pixels by seeking to the pixel positions.
+     *
+     * @param input    input buffer
+     * @param encoding encoding type
+     * @param offset   starting reading offset of values, must be the start of a pixel
+     * @param size     number of values to skip, must end at the end of a pixel or the end of the column chunk
+     * @param pixelStride the stride (number of rows) in a pixels.
+     * @param vector   the vector of this column, nothing is read into it
+     * @param chunkIndex the metadata of the column chunk to read.
+     * @throws IOException
+     */
+    @Override
+    public void skip(ByteBuffer input, PixelsProto.ColumnEncoding encoding, int offset, int size, int pixelStride,
+                     ColumnVector vector, PixelsProto.ColumnChunkIndex chunkIndex) throws IOException
+    {
+        if (offset == 0)
+        {
+            // initialize this column reader by an empty read
+            read(input, encoding, 0, 0, pixelStride, 0, vector, chunkIndex);
+        }
+        int position = seekPixels(offset, size, pixelStride, chunkIndex);
+        if (position >= 0)
+        {
+            // the run-length encoded values of each pixel are independent, thus the decoder can restart at the pixel
+            inputBuffer.position(inputStart + position);
+            inputStream.close();
+            inputStream = new ByteBufferInputStream(inputBuffer, inputStart + position, inputBuffer.limit());
+            decoder = new RunLenIntDecoder(inputStream, true);
+        }
+    }
 }
@@ -160,6 +160,28 @@ public class Bitmap
         }
     }
 
+    /**
+     * Set the bits in the range [fromIndex, fromIndex+numBits) that are set in the lowest
+     * numBits bits of the given word, the other bits in the bitmap are not changed.
+     * This is used to write a word of bits computed in a batch at once.
+     *
+     * @param fromIndex the index of the first bit to set
+     * @param bits the bits to set, the ith bit is set into the bit at fromIndex+i
+     * @param numBits the number of bits, in the range [0, 64]
+     */
+    public void or(int fromIndex, long bits, int numBits)
+    {
+        if (numBits == 0)
+            return;
+
+        bits &= WORD_MASK >>> -numBits;
+        int wordIndex = wordIndex(fromIndex);
+        int offset = fromIndex & BIT_INDEX_MASK;
+        words[wordIndex] |= bits << offset;
+        if (offset + numBits > BITS_PER_WORD)
+            words[wordIndex + 1] |= bits >>> (BITS_PER_WORD - offset);
+    }
+
     public void setAll()
     {
         words[wordsInUse-1] |= (WORD_MASK >>> -this.capacity);
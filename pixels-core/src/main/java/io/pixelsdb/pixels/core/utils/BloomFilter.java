@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.utils;
+
+import io.pixelsdb.pixels.core.PixelsProto;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The bloom filter of the values in a column chunk, used to filter row groups by point predicates
+ * (e.g., {@code o_orderkey = ?}) on which the min/max statistics are useless.
+ * <p/>
+ * The values of integer types (including date, time, timestamp, and short decimal) are hashed as long,
+ * and the values of string and binary types are hashed as bytes. The bits of the bloom filter are stored in
+ * {@link PixelsProto.BloomFilter} and read directly from the protobuf message without copying.
+ *
+ * @create 2026-10-17
+ */
+public class BloomFilter
+{
+    private static final long MURMUR_M = 0xc6a4a7935bd1e995L;
+    private static final int MURMUR_R = 47;
+
+    private final PixelsProto.BloomFilter filter;
+    private final long numBits;
+    private final int numHashFunctions;
+
+    public BloomFilter(PixelsProto.BloomFilter filter)
+    {
+        this.filter = requireNonNull(filter, "filter is null");
+        this.numBits = (long) filter.getBitsetCount() * Long.SIZE;
+        this.numHashFunctions = filter.getNumHashFunctions();
+        checkArgument(this.numBits > 0 && this.numHashFunctions > 0, "invalid bloom filter");
+    }
+
+    public boolean mightContain(long value)
+    {
+        return mightContainHash(hash(value));
+    }
+
+    public boolean mightContain(byte[] value)
+    {
+        return mightContainHash(hash(value, 0, value.length));
+    }
+
+    public boolean mightContain(String value)
+    {
+        return mightContain(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean mightContainHash(long hash)
+    {
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashFunctions; i++)
+        {
+            int combinedHash = hash1 + (i * hash2);
+            if (combinedHash < 0)
+            {
+                combinedHash = ~combinedHash;
+            }
+            long bitIndex = combinedHash % numBits;
+            if ((filter.getBitset((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash a long value, using the finalizer of MurmurHash3.
+     */
+    public static long hash(long value)
+    {
+        long h = value * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Hash the bytes, using MurmurHash64A.
+     */
+    public static long hash(byte[] bytes, int offset, int length)
+    {
+        long h = length * MURMUR_M;
+        int end = offset + (length & ~7);
+        for (int i = offset; i < end; i += 8)
+        {
+            long k = (bytes[i] & 0xffL) | (bytes[i + 1] & 0xffL) << 8 | (bytes[i + 2] & 0xffL) << 16 |
+                    (bytes[i + 3] & 0xffL) << 24 | (bytes[i + 4] & 0xffL) << 32 | (bytes[i + 5] & 0xffL) << 40 |
+                    (bytes[i + 6] & 0xffL) << 48 | (bytes[i + 7] & 0xffL) << 56;
+            k *= MURMUR_M;
+            k ^= k >>> MURMUR_R;
+            k *= MURMUR_M;
+            h ^= k;
+            h *= MURMUR_M;
+        }
+        int remaining = length & 7;
+        if (remaining > 0)
+        {
+            for (int i = remaining - 1; i >= 0; i--)
+            {
+                h ^= (bytes[end + i] & 0xffL) << (8 * i);
+            }
+            h *= MURMUR_M;
+        }
+        h ^= h >>> MURMUR_R;
+        h *= MURMUR_M;
+        h ^= h >>> MURMUR_R;
+        return h;
+    }
+}
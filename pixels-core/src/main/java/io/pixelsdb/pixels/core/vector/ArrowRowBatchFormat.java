@@ -0,0 +1,688 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.vector;
+
+import io.pixelsdb.pixels.common.physical.PhysicalReader;
+import io.pixelsdb.pixels.common.physical.PhysicalWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A columnar serialization format of {@link VectorizedRowBatch}, as an alternative to
+ * {@link VectorizedRowBatch#serialize()}. Different from it, this format does not build the message by a
+ * {@link com.google.flatbuffers.FlatBufferBuilder}.
+ * The buffers of the column vectors are written into the output buffer (e.g., a reusable direct buffer) by bulk
+ * copies, and the binary values in a heap buffer are wrapped by the deserialized column vectors instead of being
+ * copied.
+ * <p/>
+ * The buffers follow the Arrow columnar layout: little-endian, 8-byte aligned, validity bitmaps with the least
+ * significant bit first and 1 for non-null values (omitted if the column has no nulls), int32 offsets followed
+ * by the data for variable-length binary values, and int32 indices followed by the dictionary offsets and data for
+ * dictionary-encoded values. The message header is not the Arrow IPC flatbuffer metadata, it is:
+ * <pre>
+ * int32 magic, int32 numCols, int64 messageLength, int32 numRows, int32 reserved,
+ * numCols * {int8 type, int8 flags, int16 reserved, int32 numValues, int32 precision, int32 scale,
+ *            int64 bufferLength[4]},
+ * the buffers of the columns
+ * </pre>
+ * A repeating column vector is written as a single value. The values of {@link LongDecimalColumnVector} are in the
+ * order of its vector (high 64 bits first), and the values of {@link DoubleColumnVector} and {@link FloatColumnVector}
+ * are their bits. {@link StructColumnVector} and {@link VectorColumnVector} are not supported.
+ * <p/>
+ * This format is not used by the exchange between the stages of pixels-turbo yet, which still writes the intermediate
+ * results as Pixels files or Pixels streams ({@link io.pixelsdb.pixels.core.PixelsWriterStreamImpl}).
+ *
+ * @create 2026-10-17
+ */
+public final class ArrowRowBatchFormat
+{
+    private static final int MAGIC = 0x42415850; // "PXAB" in little endian
+    private static final int HEADER_SIZE = 24;
+    private static final int COLUMN_HEADER_SIZE = 48;
+    private static final int NUM_BUFFERS = 4;
+
+    private static final byte TYPE_BYTE = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_FLOAT = 4;
+    private static final byte TYPE_DOUBLE = 5;
+    private static final byte TYPE_DECIMAL = 6;
+    private static final byte TYPE_LONG_DECIMAL = 7;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_TIME = 9;
+    private static final byte TYPE_TIMESTAMP = 10;
+    private static final byte TYPE_BINARY = 11;
+    private static final byte TYPE_DICTIONARY = 12;
+
+    private static final byte FLAG_NO_NULLS = 1;
+    private static final byte FLAG_REPEATING = 2;
+
+    private ArrowRowBatchFormat() { }
+
+    private static int align(long length)
+    {
+        return (int) ((length + 7) & ~7L);
+    }
+
+    private static byte getType(ColumnVector vector)
+    {
+        if (vector instanceof LongColumnVector)
+        {
+            return TYPE_LONG;
+        }
+        if (vector instanceof BinaryColumnVector)
+        {
+            return TYPE_BINARY;
+        }
+        if (vector instanceof DictionaryColumnVector)
+        {
+            return TYPE_DICTIONARY;
+        }
+        if (vector instanceof IntColumnVector)
+        {
+            return TYPE_INT;
+        }
+        if (vector instanceof DoubleColumnVector)
+        {
+            return TYPE_DOUBLE;
+        }
+        if (vector instanceof FloatColumnVector)
+        {
+            return TYPE_FLOAT;
+        }
+        if (vector instanceof DecimalColumnVector)
+        {
+            return TYPE_DECIMAL;
+        }
+        if (vector instanceof LongDecimalColumnVector)
+        {
+            return TYPE_LONG_DECIMAL;
+        }
+        if (vector instanceof DateColumnVector)
+        {
+            return TYPE_DATE;
+        }
+        if (vector instanceof TimeColumnVector)
+        {
+            return TYPE_TIME;
+        }
+        if (vector instanceof TimestampColumnVector)
+        {
+            return TYPE_TIMESTAMP;
+        }
+        if (vector instanceof ByteColumnVector)
+        {
+            return TYPE_BYTE;
+        }
+        throw new UnsupportedOperationException("column vector type " +
+                vector.getClass().getSimpleName() + " is not supported");
+    }
+
+    /**
+     * Get the lengths of the buffers of the column vector, in the order of validity, values (or offsets
+     * or indices), data and dictionary data.
+     */
+    private static void getBufferLengths(ColumnVector vector, byte type, int numValues, long[] lengths)
+    {
+        lengths[0] = vector.noNulls ? 0 : (numValues + 7) / 8;
+        lengths[1] = lengths[2] = lengths[3] = 0;
+        switch (type)
+        {
+            case TYPE_BYTE:
+                lengths[1] = numValues;
+                break;
+            case TYPE_INT:
+            case TYPE_FLOAT:
+            case TYPE_DATE:
+            case TYPE_TIME:
+                lengths[1] = (long) Integer.BYTES * numValues;
+                break;
+            case TYPE_LONG:
+            case TYPE_DOUBLE:
+            case TYPE_DECIMAL:
+            case TYPE_TIMESTAMP:
+                lengths[1] = (long) Long.BYTES * numValues;
+                break;
+            case TYPE_LONG_DECIMAL:
+                lengths[1] = (long) Long.BYTES * 2 * numValues;
+                break;
+            case TYPE_BINARY:
+            {
+                BinaryColumnVector binaryVector = (BinaryColumnVector) vector;
+                lengths[1] = (long) Integer.BYTES * (numValues + 1);
+                long dataLength = 0;
+                for (int i = 0; i < numValues; ++i)
+                {
+                    if (binaryVector.noNulls || !binaryVector.isNull[i])
+                    {
+                        dataLength += binaryVector.lens[i];
+                    }
+                }
+                lengths[2] = dataLength;
+                break;
+            }
+            case TYPE_DICTIONARY:
+            {
+                DictionaryColumnVector dictVector = (DictionaryColumnVector) vector;
+                lengths[1] = (long) Integer.BYTES * numValues;
+                if (dictVector.dictOffsets != null)
+                {
+                    int dictSize = dictVector.dictOffsets.length - 1;
+                    lengths[2] = (long) Integer.BYTES * (dictSize + 1);
+                    lengths[3] = dictVector.dictOffsets[dictSize] - dictVector.dictOffsets[0];
+                }
+                break;
+            }
+            default:
+                throw new UnsupportedOperationException("unknown column type " + type);
+        }
+    }
+
+    /**
+     * @param rowBatch the row batch
+     * @return the number of bytes of the serialized row batch
+     */
+    public static int getSerializedSize(VectorizedRowBatch rowBatch)
+    {
+        requireNonNull(rowBatch, "rowBatch is null");
+        rowBatch.compact();
+        long size = HEADER_SIZE + (long) COLUMN_HEADER_SIZE * rowBatch.numCols;
+        long[] lengths = new long[NUM_BUFFERS];
+        for (int i = 0; i < rowBatch.numCols; ++i)
+        {
+            ColumnVector vector = rowBatch.cols[i];
+            getBufferLengths(vector, getType(vector), vector.isRepeating ? 1 : rowBatch.size, lengths);
+            for (long length : lengths)
+            {
+                size += align(length);
+            }
+        }
+        checkArgument(size <= Integer.MAX_VALUE, "row batch is too large to serialize");
+        return (int) size;
+    }
+
+    /**
+     * Serialize the row batch into a new direct buffer.
+     *
+     * @param rowBatch the row batch
+     * @return the direct buffer, its position is 0 and its limit is the size of the serialized row batch
+     */
+    public static ByteBuffer serialize(VectorizedRowBatch rowBatch)
+    {
+        ByteBuffer output = ByteBuffer.allocateDirect(getSerializedSize(rowBatch));
+        serialize(rowBatch, output);
+        output.flip();
+        return output;
+    }
+
+    /**
+     * Serialize the row batch into the output buffer from its current position, the position is advanced by
+     * the size of the serialized row batch. The output buffer can be reused across row batches, and its byte
+     * order is not changed.
+     *
+     * @param rowBatch the row batch
+     * @param output the output buffer, its remaining must be at least {@link #getSerializedSize(VectorizedRowBatch)}
+     */
+    public static void serialize(VectorizedRowBatch rowBatch, ByteBuffer output)
+    {
+        int messageLength = getSerializedSize(rowBatch);
+        requireNonNull(output, "output is null");
+        checkArgument(output.remaining() >= messageLength, "output buffer is too small");
+        ByteBuffer out = output.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int numRows = rowBatch.size;
+        out.putInt(MAGIC).putInt(rowBatch.numCols).putLong(messageLength).putInt(numRows).putInt(0);
+
+        long[][] bufferLengths = new long[rowBatch.numCols][NUM_BUFFERS];
+        byte[] types = new byte[rowBatch.numCols];
+        for (int i = 0; i < rowBatch.numCols; ++i)
+        {
+            ColumnVector vector = rowBatch.cols[i];
+            int numValues = vector.isRepeating ? 1 : numRows;
+            types[i] = getType(vector);
+            getBufferLengths(vector, types[i], numValues, bufferLengths[i]);
+            int precision = 0, scale = 0;
+            if (vector instanceof DecimalColumnVector)
+            {
+                precision = ((DecimalColumnVector) vector).getPrecision();
+                scale = ((DecimalColumnVector) vector).getScale();
+            }
+            else if (vector instanceof LongDecimalColumnVector)
+            {
+                precision = ((LongDecimalColumnVector) vector).getPrecision();
+                scale = ((LongDecimalColumnVector) vector).getScale();
+            }
+            else if (vector instanceof TimeColumnVector)
+            {
+                precision = ((TimeColumnVector) vector).getPrecision();
+            }
+            else if (vector instanceof TimestampColumnVector)
+            {
+                precision = ((TimestampColumnVector) vector).getPrecision();
+            }
+            byte flags = (byte) ((vector.noNulls ? FLAG_NO_NULLS : 0) | (vector.isRepeating ? FLAG_REPEATING : 0));
+            out.put(types[i]).put(flags).putShort((short) 0).putInt(numValues).putInt(precision).putInt(scale);
+            for (long length : bufferLengths[i])
+            {
+                out.putLong(length);
+            }
+        }
+
+        for (int i = 0; i < rowBatch.numCols; ++i)
+        {
+            ColumnVector vector = rowBatch.cols[i];
+            long[] lengths = bufferLengths[i];
+            int numValues = vector.isRepeating ? 1 : numRows;
+            if (!vector.noNulls)
+            {
+                int start = out.position();
+                writeValidity(vector.isNull, numValues, out);
+                padTo(out, start + align(lengths[0]));
+            }
+            int start = out.position();
+            switch (types[i])
+            {
+                case TYPE_BYTE:
+                    out.put(((ByteColumnVector) vector).vector, 0, numValues);
+                    break;
+                case TYPE_INT:
+                    writeInts(((IntColumnVector) vector).vector, numValues, out);
+                    break;
+                case TYPE_FLOAT:
+                    writeInts(((FloatColumnVector) vector).vector, numValues, out);
+                    break;
+                case TYPE_DATE:
+                    writeInts(((DateColumnVector) vector).dates, numValues, out);
+                    break;
+                case TYPE_TIME:
+                    writeInts(((TimeColumnVector) vector).times, numValues, out);
+                    break;
+                case TYPE_LONG:
+                    writeLongs(((LongColumnVector) vector).vector, numValues, out);
+                    break;
+                case TYPE_DOUBLE:
+                    writeLongs(((DoubleColumnVector) vector).vector, numValues, out);
+                    break;
+                case TYPE_DECIMAL:
+                    writeLongs(((DecimalColumnVector) vector).vector, numValues, out);
+                    break;
+                case TYPE_TIMESTAMP:
+                    writeLongs(((TimestampColumnVector) vector).times, numValues, out);
+                    break;
+                case TYPE_LONG_DECIMAL:
+                    writeLongs(((LongDecimalColumnVector) vector).vector, numValues * 2, out);
+                    break;
+                case TYPE_BINARY:
+                {
+                    BinaryColumnVector binaryVector = (BinaryColumnVector) vector;
+                    int offset = 0;
+                    for (int j = 0; j < numValues; ++j)
+                    {
+                        out.putInt(offset);
+                        if (binaryVector.noNulls || !binaryVector.isNull[j])
+                        {
+                            offset += binaryVector.lens[j];
+                        }
+                    }
+                    out.putInt(offset);
+                    padTo(out, start + align(lengths[1]));
+                    start = out.position();
+                    for (int j = 0; j < numValues; ++j)
+                    {
+                        if (binaryVector.noNulls || !binaryVector.isNull[j])
+                        {
+                            out.put(binaryVector.vector[j], binaryVector.start[j], binaryVector.lens[j]);
+                        }
+                    }
+                    padTo(out, start + align(lengths[2]));
+                    continue;
+                }
+                case TYPE_DICTIONARY:
+                {
+                    DictionaryColumnVector dictVector = (DictionaryColumnVector) vector;
+                    writeInts(dictVector.ids, numValues, out);
+                    padTo(out, start + align(lengths[1]));
+                    if (dictVector.dictOffsets != null)
+                    {
+                        start = out.position();
+                        int base = dictVector.dictOffsets[0];
+                        for (int dictOffset : dictVector.dictOffsets)
+                        {
+                            out.putInt(dictOffset - base);
+                        }
+                        padTo(out, start + align(lengths[2]));
+                        start = out.position();
+                        out.put(dictVector.dictArray, base, (int) lengths[3]);
+                        padTo(out, start + align(lengths[3]));
+                    }
+                    continue;
+                }
+                default:
+                    throw new UnsupportedOperationException("unknown column type " + types[i]);
+            }
+            padTo(out, start + align(lengths[1]));
+        }
+        checkArgument(out.position() - output.position() == messageLength, "serialized size mismatch");
+        output.position(out.position());
+    }
+
+    private static void writeValidity(boolean[] isNull, int numValues, ByteBuffer out)
+    {
+        for (int i = 0; i < numValues; i += 8)
+        {
+            int bits = 0;
+            int end = Math.min(8, numValues - i);
+            for (int j = 0; j < end; ++j)
+            {
+                if (!isNull[i + j])
+                {
+                    bits |= 1 << j;
+                }
+            }
+            out.put((byte) bits);
+        }
+    }
+
+    private static void writeInts(int[] values, int numValues, ByteBuffer out)
+    {
+        out.asIntBuffer().put(values, 0, numValues);
+        out.position(out.position() + Integer.BYTES * numValues);
+    }
+
+    private static void writeLongs(long[] values, int numValues, ByteBuffer out)
+    {
+        out.asLongBuffer().put(values, 0, numValues);
+        out.position(out.position() + Long.BYTES * numValues);
+    }
+
+    private static void padTo(ByteBuffer out, int position)
+    {
+        while (out.position() < position)
+        {
+            out.put((byte) 0);
+        }
+    }
+
+    /**
+     * Deserialize the row batch from the buffer from its current position, the position is advanced by the
+     * size of the serialized row batch. If the buffer is backed by an array, the binary values and the dictionaries
+     * in the deserialized row batch reference the array, thus the array must not be modified while the row batch
+     * is in use.
+     *
+     * @param buffer the buffer
+     * @return the deserialized row batch
+     */
+    public static VectorizedRowBatch deserialize(ByteBuffer buffer)
+    {
+        requireNonNull(buffer, "buffer is null");
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int messageStart = in.position();
+        checkArgument(in.remaining() >= HEADER_SIZE && in.getInt() == MAGIC, "invalid row batch message");
+        int numCols = in.getInt();
+        long messageLength = in.getLong();
+        checkArgument(messageLength <= in.remaining() + Integer.BYTES * 2L + Long.BYTES,
+                "row batch message is truncated");
+        int numRows = in.getInt();
+        in.getInt();
+
+        VectorizedRowBatch rowBatch = new VectorizedRowBatch(numCols, Math.max(numRows, 1));
+        byte[] types = new byte[numCols];
+        byte[] flags = new byte[numCols];
+        int[] numValues = new int[numCols];
+        long[][] bufferLengths = new long[numCols][NUM_BUFFERS];
+        for (int i = 0; i < numCols; ++i)
+        {
+            types[i] = in.get();
+            flags[i] = in.get();
+            in.getShort();
+            numValues[i] = in.getInt();
+            int precision = in.getInt();
+            int scale = in.getInt();
+            for (int j = 0; j < NUM_BUFFERS; ++j)
+            {
+                bufferLengths[i][j] = in.getLong();
+            }
+            rowBatch.cols[i] = createVector(types[i], Math.max(numRows, 1), precision, scale);
+        }
+
+        for (int i = 0; i < numCols; ++i)
+        {
+            ColumnVector vector = rowBatch.cols[i];
+            long[] lengths = bufferLengths[i];
+            int n = numValues[i];
+            vector.isRepeating = (flags[i] & FLAG_REPEATING) != 0;
+            vector.noNulls = (flags[i] & FLAG_NO_NULLS) != 0;
+            if (!vector.noNulls)
+            {
+                int start = in.position();
+                readValidity(in, n, vector.isNull);
+                in.position(start + align(lengths[0]));
+            }
+            int start = in.position();
+            switch (types[i])
+            {
+                case TYPE_BYTE:
+                    in.get(((ByteColumnVector) vector).vector, 0, n);
+                    break;
+                case TYPE_INT:
+                    readInts(in, ((IntColumnVector) vector).vector, n);
+                    break;
+                case TYPE_FLOAT:
+                    readInts(in, ((FloatColumnVector) vector).vector, n);
+                    break;
+                case TYPE_DATE:
+                    readInts(in, ((DateColumnVector) vector).dates, n);
+                    break;
+                case TYPE_TIME:
+                    readInts(in, ((TimeColumnVector) vector).times, n);
+                    break;
+                case TYPE_LONG:
+                    readLongs(in, ((LongColumnVector) vector).vector, n);
+                    break;
+                case TYPE_DOUBLE:
+                    readLongs(in, ((DoubleColumnVector) vector).vector, n);
+                    break;
+                case TYPE_DECIMAL:
+                    readLongs(in, ((DecimalColumnVector) vector).vector, n);
+                    break;
+                case TYPE_TIMESTAMP:
+                    readLongs(in, ((TimestampColumnVector) vector).times, n);
+                    break;
+                case TYPE_LONG_DECIMAL:
+                    readLongs(in, ((LongDecimalColumnVector) vector).vector, n * 2);
+                    break;
+                case TYPE_BINARY:
+                {
+                    BinaryColumnVector binaryVector = (BinaryColumnVector) vector;
+                    in.position(start + align(lengths[1]));
+                    int[] base = new int[1];
+                    byte[] data = wrapOrCopy(in, (int) lengths[2], base);
+                    for (int j = 0; j < n; ++j)
+                    {
+                        int offset = in.getInt(start + j * Integer.BYTES);
+                        binaryVector.vector[j] = data;
+                        binaryVector.start[j] = base[0] + offset;
+                        binaryVector.lens[j] = in.getInt(start + (j + 1) * Integer.BYTES) - offset;
+                    }
+                    in.position(start + align(lengths[1]) + align(lengths[2]));
+                    break;
+                }
+                case TYPE_DICTIONARY:
+                {
+                    DictionaryColumnVector dictVector = (DictionaryColumnVector) vector;
+                    readInts(in, dictVector.ids, n);
+                    in.position(start + align(lengths[1]));
+                    if (lengths[2] > 0)
+                    {
+                        int[] dictOffsets = new int[(int) (lengths[2] / Integer.BYTES)];
+                        in.asIntBuffer().get(dictOffsets);
+                        in.position(in.position() + align(lengths[2]));
+                        int dataStart = in.position();
+                        int[] base = new int[1];
+                        dictVector.dictArray = wrapOrCopy(in, (int) lengths[3], base);
+                        for (int j = 0; j < dictOffsets.length; ++j)
+                        {
+                            dictOffsets[j] += base[0];
+                        }
+                        dictVector.dictOffsets = dictOffsets;
+                        in.position(dataStart + align(lengths[3]));
+                    }
+                    break;
+                }
+                default:
+                    throw new UnsupportedOperationException("unknown column type " + types[i]);
+            }
+            if (types[i] != TYPE_BINARY && types[i] != TYPE_DICTIONARY)
+            {
+                in.position(start + align(lengths[1]));
+            }
+            vector.writeIndex = n;
+        }
+        rowBatch.size = numRows;
+        checkArgument(in.position() - messageStart == messageLength, "deserialized size mismatch");
+        buffer.position(in.position());
+        return rowBatch;
+    }
+
+    private static ColumnVector createVector(byte type, int length, int precision, int scale)
+    {
+        switch (type)
+        {
+            case TYPE_BYTE:
+                return new ByteColumnVector(length);
+            case TYPE_INT:
+                return new IntColumnVector(length);
+            case TYPE_FLOAT:
+                return new FloatColumnVector(length);
+            case TYPE_DATE:
+                return new DateColumnVector(length);
+            case TYPE_TIME:
+                return new TimeColumnVector(length, precision);
+            case TYPE_LONG:
+                return new LongColumnVector(length);
+            case TYPE_DOUBLE:
+                return new DoubleColumnVector(length);
+            case TYPE_DECIMAL:
+                return new DecimalColumnVector(length, precision, scale);
+            case TYPE_LONG_DECIMAL:
+                return new LongDecimalColumnVector(length, precision, scale);
+            case TYPE_TIMESTAMP:
+                return new TimestampColumnVector(length, precision);
+            case TYPE_BINARY:
+                return new BinaryColumnVector(length);
+            case TYPE_DICTIONARY:
+                return new DictionaryColumnVector(length);
+            default:
+                throw new UnsupportedOperationException("unknown column type " + type);
+        }
+    }
+
+    private static void readValidity(ByteBuffer in, int numValues, boolean[] isNull)
+    {
+        for (int i = 0; i < numValues; i += 8)
+        {
+            int bits = in.get();
+            int end = Math.min(8, numValues - i);
+            for (int j = 0; j < end; ++j)
+            {
+                isNull[i + j] = (bits & (1 << j)) == 0;
+            }
+        }
+    }
+
+    private static void readInts(ByteBuffer in, int[] values, int numValues)
+    {
+        in.asIntBuffer().get(values, 0, numValues);
+        in.position(in.position() + Integer.BYTES * numValues);
+    }
+
+    private static void readLongs(ByteBuffer in, long[] values, int numValues)
+    {
+        in.asLongBuffer().get(values, 0, numValues);
+        in.position(in.position() + Long.BYTES * numValues);
+    }
+
+    /**
+     * @return the array that contains the data at the current position of the buffer, and the offset of the
+     * data in the array; the array is the backing array of the buffer if it has one, otherwise the data is copied
+     */
+    private static byte[] wrapOrCopy(ByteBuffer in, int length, int[] offset)
+    {
+        byte[] array;
+        if (in.hasArray())
+        {
+            array = in.array();
+            offset[0] = in.arrayOffset() + in.position();
+            in.position(in.position() + length);
+        }
+        else
+        {
+            array = new byte[length];
+            offset[0] = 0;
+            in.get(array);
+        }
+        return array;
+    }
+
+    /**
+     * Serialize the row batch and append it to the physical writer. As the physical writers write from heap
+     * arrays, the row batch is serialized into a heap buffer of the exact size.
+     *
+     * @param rowBatch the row batch
+     * @param writer the physical writer, e.g., of the http stream storage
+     * @return the number of bytes written
+     */
+    public static int write(VectorizedRowBatch rowBatch, PhysicalWriter writer) throws IOException
+    {
+        requireNonNull(writer, "writer is null");
+        ByteBuffer output = ByteBuffer.allocate(getSerializedSize(rowBatch));
+        serialize(rowBatch, output);
+        writer.append(output.array(), 0, output.position());
+        return output.position();
+    }
+
+    /**
+     * Read the next row batch written by {@link #write(VectorizedRowBatch, PhysicalWriter)} from the
+     * current position of the physical reader. The binary values in the row batch reference the bytes read.
+     *
+     * @param reader the physical reader
+     * @return the row batch
+     */
+    public static VectorizedRowBatch read(PhysicalReader reader) throws IOException
+    {
+        requireNonNull(reader, "reader is null");
+        int magic = reader.readInt(ByteOrder.LITTLE_ENDIAN);
+        int numCols = reader.readInt(ByteOrder.LITTLE_ENDIAN);
+        long messageLength = reader.readLong(ByteOrder.LITTLE_ENDIAN);
+        if (magic != MAGIC || messageLength < HEADER_SIZE || messageLength > Integer.MAX_VALUE)
+        {
+            throw new IOException("invalid row batch message");
+        }
+        byte[] message = new byte[(int) messageLength];
+        ByteBuffer.wrap(message).order(ByteOrder.LITTLE_ENDIAN).putInt(magic).putInt(numCols).putLong(messageLength);
+        int prefixLength = Integer.BYTES * 2 + Long.BYTES;
+        reader.readFully(message, prefixLength, message.length - prefixLength);
+        return deserialize(ByteBuffer.wrap(message));
+    }
+}
@@ -175,6 +175,22 @@ public class DecimalColumnVector extends ColumnVector
         isNull[index] = false;
     }
 
+    /**
+     * Add the unscaled value of a decimal with the same precision and scale as this column vector.
+     * @param unscaledValue the unscaled value
+     */
+    @Override
+    public void add(long unscaledValue)
+    {
+        if (writeIndex >= getLength())
+        {
+            ensureSize(writeIndex * 2, true);
+        }
+        int index = writeIndex++;
+        vector[index] = unscaledValue;
+        isNull[index] = false;
+    }
+
     @Override
     public void add(float value)
     {
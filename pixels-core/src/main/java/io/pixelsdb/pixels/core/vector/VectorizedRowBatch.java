@@ -43,10 +43,14 @@ public class VectorizedRowBatch implements AutoCloseable
     public int numCols;           // number of columns
     public ColumnVector[] cols;   // a vector for each column
     public int size;              // number of rows that qualify, i.e., haven't been filtered out.
+    public int[] selected;        // array of positions of selected values
+    public boolean selectedInUse; // if set, the selected array is in use, i.e., the filtered rows are not compacted
     public int projectionSize;
     public int maxSize;           // capacity, i.e., the maximum number of rows can be stored in this row batch.
 
     private long memoryUsage = 0L;
+    // the reusable filter to compact the selected rows
+    private Bitmap compactFilter = null;
 
     // If this is true, then there is no data in the batch -- we have hit the end of input.
     public boolean endOfFile;
@@ -150,6 +154,7 @@ public class VectorizedRowBatch implements AutoCloseable
                 "invalid offset(?) or length(?)", offset, length);
         checkArgument(size + length <= maxSize,
                 "too many selected rows (?)", length);
+        compact();
         for (int i = 0; i < cols.length; ++i)
         {
             cols[i].addSelected(selected, offset, length, src.cols[i]);
@@ -177,6 +182,7 @@ public class VectorizedRowBatch implements AutoCloseable
 
         for (int i = 0; i < size; i++)
         {
+            int row = selectedInUse ? selected[i] : i;
             b.append('[');
             for (int k = 0; k < projectionSize; k++)
             {
@@ -187,7 +193,7 @@ public class VectorizedRowBatch implements AutoCloseable
                 }
                 if (cv != null)
                 {
-                    cv.stringifyValue(b, i);
+                    cv.stringifyValue(b, row);
                 }
             }
             b.append(']');
@@ -199,9 +205,120 @@ public class VectorizedRowBatch implements AutoCloseable
         return b.toString();
     }
 
+    /**
+     * Get the number of rows stored in the column vectors. If the selection vector is in use, the rows in
+     * the column vectors include the filtered rows before the last selected row.
+     *
+     * @return the number of rows stored in the column vectors
+     */
+    public int getPhysicalSize()
+    {
+        if (this.selectedInUse)
+        {
+            return this.size > 0 ? this.selected[this.size - 1] + 1 : 0;
+        }
+        return this.size;
+    }
+
+    /**
+     * Apply the filter on this row batch by the selection vector, the rows filtered out are not removed from
+     * the column vectors until {@link #compact()} is called. Therefore, the consumers that can read the rows
+     * by the selection vector (e.g., {@link #addSelected(int[], int, int, VectorizedRowBatch)}) can avoid
+     * moving the data of the filtered rows.
+     *
+     * @param filter the filter, the ith bit is set if the row at position i in the column vectors qualifies
+     * @return this row batch after applying the filter
+     */
+    public VectorizedRowBatch applySelection(Bitmap filter)
+    {
+        requireNonNull(filter, "filter is null");
+        if (this.selectedInUse)
+        {
+            int newSize = 0;
+            for (int i = 0; i < this.size; ++i)
+            {
+                int row = this.selected[i];
+                if (filter.get(row))
+                {
+                    this.selected[newSize++] = row;
+                }
+            }
+            this.size = newSize;
+            return this;
+        }
+
+        checkArgument(filter.capacity() >= this.size,
+                "filter is too small, filter capacity (" +
+                        filter.capacity() + "), row batch size (" + this.size + ").");
+        int cardinality = filter.cardinality(0, this.size);
+        if (cardinality == this.size)
+        {
+            return this;
+        }
+        if (this.selected == null || this.selected.length < this.size)
+        {
+            this.selected = new int[Math.max(this.size, this.maxSize)];
+        }
+        int newSize = 0;
+        for (int i = filter.nextSetBit(0); i >= 0 && i < this.size; i = filter.nextSetBit(i + 1))
+        {
+            this.selected[newSize++] = i;
+        }
+        this.size = newSize;
+        this.selectedInUse = true;
+        return this;
+    }
+
+    /**
+     * Move the selected rows to the front of the column vectors if the selection vector is in use.
+     * This should be called before the row batch is consumed by the operators that do not read the
+     * rows by the selection vector.
+     *
+     * @return this row batch after compaction
+     */
+    public VectorizedRowBatch compact()
+    {
+        if (!this.selectedInUse)
+        {
+            return this;
+        }
+        this.selectedInUse = false;
+        int physicalSize = this.size > 0 ? this.selected[this.size - 1] + 1 : 0;
+        if (physicalSize == this.size)
+        {
+            // the selected rows are already in the front
+            return this;
+        }
+        if (this.compactFilter == null || this.compactFilter.capacity() < physicalSize)
+        {
+            this.compactFilter = new Bitmap(Math.max(physicalSize, this.maxSize), false);
+        }
+        else
+        {
+            this.compactFilter.clear(0, physicalSize);
+        }
+        for (int i = 0; i < this.size; ++i)
+        {
+            this.compactFilter.set(this.selected[i]);
+        }
+        for (ColumnVector columnVector : this.cols)
+        {
+            // the value of a repeating column vector is the same for all the rows
+            if (!columnVector.isRepeating)
+            {
+                columnVector.applyFilter(this.compactFilter, physicalSize);
+            }
+        }
+        return this;
+    }
+
     public VectorizedRowBatch applyFilter(Bitmap filter)
     {
         requireNonNull(filter, "filter is null");
+        if (this.selectedInUse)
+        {
+            return applySelection(filter).compact();
+        }
         checkArgument(filter.capacity() >= this.size,
                 "filter is too small, filter capacity (" +
                         filter.capacity() + "), row batch size (" + this.size + ").");
@@ -258,6 +375,7 @@ public class VectorizedRowBatch implements AutoCloseable
     public void reset()
     {
         size = 0;
+        selectedInUse = false;
         endOfFile = false;
         for (ColumnVector vc : cols)
         {
@@ -285,6 +403,11 @@ public class VectorizedRowBatch implements AutoCloseable
         if (!preserveData)
         {
             this.size = 0;
+            this.selectedInUse = false;
+        }
+        else
+        {
+            compact();
         }
         this.maxSize = rows;
     }
@@ -315,6 +438,7 @@ public class VectorizedRowBatch implements AutoCloseable
     public void close()
     {
         size = 0;
+        selectedInUse = false;
         endOfFile = false;
         if (this.cols != null)
         {
@@ -338,6 +462,8 @@ public class VectorizedRowBatch implements AutoCloseable
         // The row batch can hold up to 1w records (as specified in the properties file),
         // and the buffer initialization size is set to 4mb.
         FlatBufferBuilder builder = new FlatBufferBuilder(4 * 1024 * 1024);
+        // the serialized column vectors do not carry the selection vector
+        compact();
 
         int[] columnVectorOffsets = new int[numCols];
         byte[] columnTypeOffsets = new byte[numCols];
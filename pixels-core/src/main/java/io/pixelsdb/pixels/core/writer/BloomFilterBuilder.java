@@ -0,0 +1,247 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.writer;
+
+import io.pixelsdb.pixels.core.PixelsProto;
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.utils.BloomFilter;
+import io.pixelsdb.pixels.core.vector.*;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Build the bloom filter of the non-null values written into a column chunk. The hashes of the values are
+ * inserted into the bits as the values are added, so that the memory does not grow with the number of rows.
+ * <p/>
+ * As the number of distinct values is not known until the column chunk is finished, the bits are sized for
+ * the expected number of distinct values, which is twice the distinct values of the previous column chunk.
+ * The number of bits is a power of two, hence the bits can be folded in halves (bit i of the folded bits is
+ * the OR of bits i and i + numBits / 2) without changing the hash functions. When the column chunk is finished,
+ * the number of distinct values is estimated from the number of set bits, and the bits are folded while there
+ * are enough bits for the false positive probability. If there are more distinct values than expected,
+ * the false positive probability of the column chunk is higher than fpp.
+ * This builder is not thread safe, it should be accessed by the thread writing the column.
+ *
+ * @create 2026-10-17
+ */
+public class BloomFilterBuilder
+{
+    /**
+     * The expected number of distinct values in the first column chunk.
+     */
+    private static final long INITIAL_EXPECTED_ITEMS = 1 << 20;
+    private static final long MIN_EXPECTED_ITEMS = 1 << 10;
+    /**
+     * The combined hash is a non-negative int, so more bits are useless.
+     */
+    private static final long MAX_NUM_BITS = (long) Integer.MAX_VALUE + 1;
+
+    private final double bitsPerItem;
+    private final int numHashFunctions;
+    private long expectedItems = INITIAL_EXPECTED_ITEMS;
+    /**
+     * The bits of the current column chunk, the number of bits is a power of two, null before the first value.
+     */
+    private long[] bits = null;
+
+    public BloomFilterBuilder(TypeDescription type, double fpp)
+    {
+        checkArgument(isSupported(type), "bloom filter is not supported on type " + type);
+        checkArgument(fpp > 0 && fpp < 1, "fpp must be in (0, 1)");
+        this.bitsPerItem = -Math.log(fpp) / (Math.log(2) * Math.log(2));
+        this.numHashFunctions = Math.max(1, (int) Math.round(this.bitsPerItem * Math.log(2)));
+    }
+
+    public static boolean isSupported(TypeDescription type)
+    {
+        switch (type.getCategory())
+        {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+            case CHAR:
+            case VARCHAR:
+            case STRING:
+            case BINARY:
+            case VARBINARY:
+                return true;
+            case DECIMAL:
+                return type.getPrecision() <= TypeDescription.MAX_SHORT_DECIMAL_PRECISION;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Add the non-null values in the column vector.
+     * @param vector the column vector
+     * @param length the number of values to add from the start of the column vector
+     */
+    public void add(ColumnVector vector, int length)
+    {
+        if (vector.isRepeating())
+        {
+            length = Math.min(length, 1);
+        }
+        if (bits == null)
+        {
+            bits = new long[(int) (numBitsFor(expectedItems) / Long.SIZE)];
+        }
+        long mask = (long) bits.length * Long.SIZE - 1;
+        boolean noNulls = vector.noNulls;
+        boolean[] isNull = vector.isNull;
+        for (int i = 0; i < length; i++)
+        {
+            if (noNulls || !isNull[i])
+            {
+                long hash = hash(vector, i);
+                int hash1 = (int) hash;
+                int hash2 = (int) (hash >>> 32);
+                for (int j = 1; j <= numHashFunctions; j++)
+                {
+                    int combinedHash = hash1 + (j * hash2);
+                    if (combinedHash < 0)
+                    {
+                        combinedHash = ~combinedHash;
+                    }
+                    // the same as combinedHash % numBits in BloomFilter, as numBits is a power of two
+                    long bitIndex = combinedHash & mask;
+                    bits[(int) (bitIndex >>> 6)] |= 1L << bitIndex;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of bits (a power of two, at least 64) for the number of distinct values
+     */
+    private long numBitsFor(double numItems)
+    {
+        long numBits = Long.SIZE;
+        while (numBits < numItems * bitsPerItem && numBits < MAX_NUM_BITS)
+        {
+            numBits <<= 1;
+        }
+        return numBits;
+    }
+
+    private static long hash(ColumnVector vector, int i)
+    {
+        if (vector instanceof LongColumnVector)
+        {
+            return BloomFilter.hash(((LongColumnVector) vector).vector[i]);
+        }
+        if (vector instanceof BinaryColumnVector)
+        {
+            BinaryColumnVector binaryVector = (BinaryColumnVector) vector;
+            return BloomFilter.hash(binaryVector.vector[i], binaryVector.start[i], binaryVector.lens[i]);
+        }
+        if (vector instanceof DictionaryColumnVector)
+        {
+            DictionaryColumnVector dictionaryVector = (DictionaryColumnVector) vector;
+            int id = dictionaryVector.ids[i];
+            int start = dictionaryVector.dictOffsets[id];
+            return BloomFilter.hash(dictionaryVector.dictArray, start, dictionaryVector.dictOffsets[id + 1] - start);
+        }
+        if (vector instanceof IntColumnVector)
+        {
+            return BloomFilter.hash(((IntColumnVector) vector).vector[i]);
+        }
+        if (vector instanceof DateColumnVector)
+        {
+            return BloomFilter.hash(((DateColumnVector) vector).dates[i]);
+        }
+        if (vector instanceof TimeColumnVector)
+        {
+            return BloomFilter.hash(((TimeColumnVector) vector).times[i]);
+        }
+        if (vector instanceof TimestampColumnVector)
+        {
+            return BloomFilter.hash(((TimestampColumnVector) vector).times[i]);
+        }
+        if (vector instanceof DecimalColumnVector)
+        {
+            return BloomFilter.hash(((DecimalColumnVector) vector).vector[i]);
+        }
+        if (vector instanceof ByteColumnVector)
+        {
+            return BloomFilter.hash(((ByteColumnVector) vector).vector[i]);
+        }
+        throw new IllegalArgumentException("bloom filter is not supported on " + vector.getClass().getName());
+    }
+
+    /**
+     * Build the bloom filter of the values added since the last build, and reset this builder.
+     * @return the bloom filter
+     */
+    public PixelsProto.BloomFilter build()
+    {
+        int length = 1;
+        double numDistinct = 0;
+        if (bits != null)
+        {
+            long numBits = (long) bits.length * Long.SIZE;
+            long numSetBits = 0;
+            for (long word : bits)
+            {
+                numSetBits += Long.bitCount(word);
+            }
+            numDistinct = numSetBits == numBits ? Double.POSITIVE_INFINITY :
+                    -(double) numBits / numHashFunctions * Math.log(1 - (double) numSetBits / numBits);
+            length = bits.length;
+            while (length > 1 && (long) length / 2 * Long.SIZE >= numDistinct * bitsPerItem)
+            {
+                int half = length / 2;
+                for (int i = 0; i < half; i++)
+                {
+                    bits[i] |= bits[i + half];
+                }
+                length = half;
+            }
+        }
+        PixelsProto.BloomFilter.Builder builder = PixelsProto.BloomFilter.newBuilder()
+                .setNumHashFunctions(numHashFunctions);
+        for (int i = 0; i < length; i++)
+        {
+            builder.addBitset(bits == null ? 0L : bits[i]);
+        }
+
+        // the next column chunk is expected to have at most twice the distinct values of this column chunk
+        long nextExpectedItems = Double.isInfinite(numDistinct) ? 4 * expectedItems :
+                Math.max(MIN_EXPECTED_ITEMS, (long) (2 * numDistinct));
+        if (bits != null && numBitsFor(nextExpectedItems) == (long) bits.length * Long.SIZE)
+        {
+            Arrays.fill(bits, 0L);
+        }
+        else
+        {
+            bits = null;
+        }
+        expectedItems = nextExpectedItems;
+        return builder.build();
+    }
+}
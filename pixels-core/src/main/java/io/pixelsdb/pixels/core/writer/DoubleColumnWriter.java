@@ -19,7 +19,10 @@
  */
 package io.pixelsdb.pixels.core.writer;
 
+import io.pixelsdb.pixels.core.PixelsProto;
 import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.encoding.AlpEncoder;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
 import io.pixelsdb.pixels.core.utils.EncodingUtils;
 import io.pixelsdb.pixels.core.vector.ColumnVector;
 import io.pixelsdb.pixels.core.vector.DoubleColumnVector;
@@ -32,15 +35,28 @@ import java.nio.ByteOrder;
  *
  * @author guodong, hank
  * @update 2023-08-16 Chamonix: support nulls padding
+ * @update 2026-10-17: support ALP encoding for encoding level EL2
  */
 public class DoubleColumnWriter extends BaseColumnWriter
 {
     private final EncodingUtils encodingUtils;
+    private final boolean alpEncoding;
+    private final long[] curPixelVector;        // current pixel value vector haven't written out yet, only used for ALP
 
     public DoubleColumnWriter(TypeDescription type,  PixelsWriterOption writerOption)
     {
         super(type, writerOption);
         encodingUtils = new EncodingUtils();
+        alpEncoding = encodingLevel.ge(EncodingLevel.EL2);
+        if (alpEncoding)
+        {
+            encoder = new AlpEncoder(false, byteOrder);
+            curPixelVector = new long[pixelStride];
+        }
+        else
+        {
+            curPixelVector = null;
+        }
     }
 
     @Override
@@ -65,7 +81,11 @@ public class DoubleColumnWriter extends BaseColumnWriter
             }
             else
             {
-                if (littleEndian)
+                if (alpEncoding)
+                {
+                    curPixelVector[curPixelVectorIndex++] = values[i];
+                }
+                else if (littleEndian)
                 {
                     encodingUtils.writeLongLE(outputStream, values[i]);
                 }
@@ -84,9 +104,46 @@ public class DoubleColumnWriter extends BaseColumnWriter
         return outputStream.size();
     }
 
+    @Override
+    void newPixel() throws IOException
+    {
+        if (alpEncoding)
+        {
+            // the encoder falls back to raw values for the pixels that are not compressible
+            outputStream.write(encoder.encode(curPixelVector, 0, curPixelVectorIndex));
+        }
+        super.newPixel();
+    }
+
+    @Override
+    public PixelsProto.ColumnEncoding.Builder getColumnChunkEncoding()
+    {
+        if (alpEncoding)
+        {
+            return PixelsProto.ColumnEncoding.newBuilder()
+                    .setKind(PixelsProto.ColumnEncoding.Kind.ALP);
+        }
+        return PixelsProto.ColumnEncoding.newBuilder()
+                .setKind(PixelsProto.ColumnEncoding.Kind.NONE);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (alpEncoding)
+        {
+            encoder.close();
+        }
+        super.close();
+    }
+
     @Override
     public boolean decideNullsPadding(PixelsWriterOption writerOption)
     {
+        if (writerOption.getEncodingLevel().ge(EncodingLevel.EL2))
+        {
+            return false;
+        }
         return writerOption.isNullsPadding();
     }
 }
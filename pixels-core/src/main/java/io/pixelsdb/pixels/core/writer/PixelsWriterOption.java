@@ -19,6 +19,7 @@
  */
 package io.pixelsdb.pixels.core.writer;
 
+import io.pixelsdb.pixels.core.PixelsProto;
 import io.pixelsdb.pixels.core.encoding.EncodingLevel;
 
 import java.nio.ByteOrder;
@@ -39,6 +40,14 @@ public class PixelsWriterOption
      * Whether nulls positions in column are padded by arbitrary values and occupy storage and memory space.
      */
     private boolean nullsPadding;
+    /**
+     * The compression kind of the column chunks.
+     */
+    private PixelsProto.CompressionKind compressionKind = PixelsProto.CompressionKind.NONE;
+    /**
+     * The column chunks smaller than this number of bytes are not compressed.
+     */
+    private int compressionBlockSize = 1;
 
     public PixelsWriterOption() { }
 
@@ -85,4 +94,26 @@ public class PixelsWriterOption
         this.nullsPadding = nullsPadding;
         return this;
     }
+
+    public PixelsProto.CompressionKind getCompressionKind()
+    {
+        return compressionKind;
+    }
+
+    public PixelsWriterOption compressionKind(PixelsProto.CompressionKind compressionKind)
+    {
+        this.compressionKind = compressionKind;
+        return this;
+    }
+
+    public int getCompressionBlockSize()
+    {
+        return compressionBlockSize;
+    }
+
+    public PixelsWriterOption compressionBlockSize(int compressionBlockSize)
+    {
+        this.compressionBlockSize = compressionBlockSize;
+        return this;
+    }
 }
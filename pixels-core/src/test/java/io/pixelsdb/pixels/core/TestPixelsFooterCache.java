@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core;
+
+import org.junit.Test;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestPixelsFooterCache
+{
+    private static PixelsProto.FileTail createFileTail(int numRowGroups)
+    {
+        PixelsProto.Footer.Builder footer = PixelsProto.Footer.newBuilder();
+        for (int i = 0; i < numRowGroups; ++i)
+        {
+            footer.addRowGroupInfos(PixelsProto.RowGroupInformation.newBuilder()
+                    .setFooterOffset(i * 1024L).setFooterLength(128).setNumberOfRows(10000));
+        }
+        return PixelsProto.FileTail.newBuilder().setFooter(footer)
+                .setPostscript(PixelsProto.PostScript.newBuilder().setNumberOfRows(numRowGroups * 10000)).build();
+    }
+
+    private static PixelsProto.RowGroupFooter createRGFooter(int numColumns)
+    {
+        PixelsProto.RowGroupIndex.Builder index = PixelsProto.RowGroupIndex.newBuilder();
+        for (int i = 0; i < numColumns; ++i)
+        {
+            index.addColumnChunkIndexEntries(PixelsProto.ColumnChunkIndex.newBuilder()
+                    .setChunkOffset(i * 4096L).setChunkLength(4096));
+        }
+        return PixelsProto.RowGroupFooter.newBuilder().setRowGroupIndexEntry(index).build();
+    }
+
+    @Test
+    public void testHitMissAndInvalidate()
+    {
+        PixelsFooterCache cache = new PixelsFooterCache(1024 * 1024);
+        assert cache.getFileTail("f0") == null;
+        // row group footers of a file whose tail is not cached are not cached
+        cache.putRGFooter("f0", 0, createRGFooter(4));
+        assert cache.getRGFooter("f0", 0) == null;
+
+        PixelsProto.FileTail fileTail = createFileTail(2);
+        cache.putFileTail("f0", fileTail);
+        assert cache.getFileTail("f0") == fileTail;
+        PixelsProto.RowGroupFooter footer = createRGFooter(4);
+        cache.putRGFooter("f0", 1, footer);
+        assert cache.getRGFooter("f0", 1) == footer;
+        assert cache.getRGFooter("f0", 0) == null;
+
+        assert cache.getFileTailHitCount() == 1;
+        assert cache.getFileTailMissCount() == 1;
+        assert cache.getRGFooterHitCount() == 1;
+        assert cache.getRGFooterMissCount() == 2;
+
+        cache.invalidate("f0");
+        assert cache.getFileTail("f0") == null;
+        assert cache.getRGFooter("f0", 1) == null;
+    }
+
+    @Test
+    public void testBoundedBySerializedBytes()
+    {
+        PixelsProto.FileTail fileTail = createFileTail(16);
+        PixelsProto.RowGroupFooter footer = createRGFooter(64);
+        long fileWeight = fileTail.getSerializedSize() + 16L * footer.getSerializedSize();
+        long capacity = fileWeight * 10;
+        PixelsFooterCache cache = new PixelsFooterCache(capacity);
+        for (int i = 0; i < 1000; ++i)
+        {
+            String path = "f" + i;
+            cache.putFileTail(path, fileTail);
+            for (int j = 0; j < 16; ++j)
+            {
+                cache.putRGFooter(path, j, footer);
+            }
+        }
+        // eviction in caffeine is asynchronous, the weighted size is bounded once maintenance is done
+        cache.cleanUp();
+        assert cache.getEvictionCount() > 0;
+        assert cache.getWeightedSize() <= capacity;
+    }
+
+    @Test
+    public void testWeightAndInvalidateFile()
+    {
+        PixelsProto.FileTail fileTail = createFileTail(2);
+        PixelsProto.RowGroupFooter footer = createRGFooter(4);
+        PixelsFooterCache cache0 = new PixelsFooterCache(1024 * 1024);
+        PixelsFooterCache cache1 = new PixelsFooterCache(1024 * 1024);
+        cache0.putFileTail("f0", fileTail);
+        cache0.putRGFooter("f0", 0, footer);
+        // the footer that is already cached is not counted again
+        cache0.putRGFooter("f0", 0, footer);
+        cache0.cleanUp();
+        assert cache0.getWeightedSize() == fileTail.getSerializedSize() + footer.getSerializedSize();
+
+        cache1.putFileTail("f0", fileTail);
+        cache1.putFileTail("f1", fileTail);
+        PixelsFooterCache.invalidateFile("f0");
+        assert cache0.getFileTail("f0") == null;
+        assert cache1.getFileTail("f0") == null;
+        assert cache1.getFileTail("f1") == fileTail;
+    }
+}
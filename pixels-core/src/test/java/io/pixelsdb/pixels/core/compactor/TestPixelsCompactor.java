@@ -27,8 +27,8 @@ import io.pixelsdb.pixels.common.physical.Status;
 import io.pixelsdb.pixels.common.physical.Storage;
 import io.pixelsdb.pixels.common.physical.StorageFactory;
 import io.pixelsdb.pixels.common.utils.DateUtil;
-import io.pixelsdb.pixels.core.PixelsReader;
-import io.pixelsdb.pixels.core.PixelsReaderImpl;
+import io.pixelsdb.pixels.core.*;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
 import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
 import io.pixelsdb.pixels.core.reader.PixelsRecordReader;
 import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
@@ -38,6 +38,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class TestPixelsCompactor
@@ -200,4 +201,157 @@ public class TestPixelsCompactor
             }
         }
     }
+
+    private static final int LOCAL_NUM_FILES = 8;
+    private static final int LOCAL_ROWS_PER_FILE = 5000;
+
+    /**
+     * Write the local source files, each has one row group with the values of column a from
+     * [fileId * LOCAL_ROWS_PER_FILE, (fileId + 1) * LOCAL_ROWS_PER_FILE).
+     */
+    private static List<String> writeLocalSourceFiles(Storage storage) throws IOException
+    {
+        TypeDescription schema = TypeDescription.fromString("struct<a:bigint,b:varchar(32)>");
+        List<String> sourcePaths = new ArrayList<>();
+        for (int fileId = 0; fileId < LOCAL_NUM_FILES; ++fileId)
+        {
+            String path = "/tmp/pixels-compactor-source-" + fileId + ".pxl";
+            PixelsWriter pixelsWriter = PixelsWriterImpl.newBuilder()
+                    .setSchema(schema)
+                    .setHasHiddenColumn(true)
+                    .setStorage(storage)
+                    .setPath(path)
+                    .setRowGroupSize(64 * 1024 * 1024)
+                    .setPixelStride(1000)
+                    .setEncodingLevel(EncodingLevel.EL2)
+                    .setCompressionKind(PixelsProto.CompressionKind.LZ4)
+                    .setCompressionBlockSize(1)
+                    .setOverwrite(true).build();
+            VectorizedRowBatch rowBatch = schema.createRowBatchWithHiddenColumn(
+                    LOCAL_ROWS_PER_FILE, TypeDescription.Mode.NONE);
+            LongColumnVector a = (LongColumnVector) rowBatch.cols[0];
+            BinaryColumnVector b = (BinaryColumnVector) rowBatch.cols[1];
+            LongColumnVector timestamp = (LongColumnVector) rowBatch.cols[2];
+            for (int i = 0; i < LOCAL_ROWS_PER_FILE; ++i)
+            {
+                long value = (long) fileId * LOCAL_ROWS_PER_FILE + i;
+                a.vector[i] = value;
+                b.setVal(i, ("value " + value).getBytes());
+                timestamp.vector[i] = fileId;
+            }
+            rowBatch.size = LOCAL_ROWS_PER_FILE;
+            pixelsWriter.addRowBatch(rowBatch);
+            pixelsWriter.close();
+            sourcePaths.add(path);
+        }
+        return sourcePaths;
+    }
+
+    /**
+     * @return the values of column a in the file, and check the values of column b
+     */
+    private static List<Long> readLocalFile(Storage storage, String path) throws IOException
+    {
+        List<Long> values = new ArrayList<>();
+        try (PixelsReader pixelsReader = PixelsReaderImpl.newBuilder()
+                .setPath(path)
+                .setStorage(storage)
+                .setPixelsFooterCache(new PixelsFooterCache())
+                .setEnableCache(false).build())
+        {
+            assert pixelsReader.getNumberOfRows() == pixelsReader.getRowGroupInfos().stream()
+                    .mapToLong(PixelsProto.RowGroupInformation::getNumberOfRows).sum();
+            PixelsReaderOption option = new PixelsReaderOption();
+            option.includeCols(new String[] {"a", "b"});
+            PixelsRecordReader recordReader = pixelsReader.read(option);
+            VectorizedRowBatch rowBatch;
+            do
+            {
+                rowBatch = recordReader.readBatch(1000);
+                LongColumnVector a = (LongColumnVector) rowBatch.cols[0];
+                BinaryColumnVector b = (BinaryColumnVector) rowBatch.cols[1];
+                for (int i = 0; i < rowBatch.size; ++i)
+                {
+                    values.add(a.vector[i]);
+                    assert new String(b.vector[i], b.start[i], b.lens[i]).equals("value " + a.vector[i]);
+                }
+            } while (!rowBatch.endOfFile);
+        }
+        return values;
+    }
+
+    /**
+     * Compact the local files by the naive (row group major) and pure (column major) layouts, with and without
+     * purging the deleted rows.
+     */
+    @Test
+    public void testLocalCompactAndPurge() throws IOException
+    {
+        Storage storage = StorageFactory.Instance().getStorage(Storage.Scheme.file);
+        String targetPath = "/tmp/pixels-compactor-target.pxl";
+        List<String> sourcePaths = writeLocalSourceFiles(storage);
+        try
+        {
+            // delete the even rows of file 1, and all the rows of file 2
+            long[][] visibilityBitmaps = new long[LOCAL_NUM_FILES][];
+            visibilityBitmaps[1] = new long[(LOCAL_ROWS_PER_FILE + 63) / 64];
+            visibilityBitmaps[2] = new long[(LOCAL_ROWS_PER_FILE + 63) / 64];
+            Arrays.fill(visibilityBitmaps[1], 0x5555555555555555L);
+            Arrays.fill(visibilityBitmaps[2], -1L);
+            List<Long> expected = new ArrayList<>();
+            List<Long> expectedPurged = new ArrayList<>();
+            for (long value = 0; value < LOCAL_NUM_FILES * LOCAL_ROWS_PER_FILE; ++value)
+            {
+                expected.add(value);
+                int fileId = (int) (value / LOCAL_ROWS_PER_FILE);
+                if (fileId != 2 && (fileId != 1 || value % 2 == 1))
+                {
+                    expectedPurged.add(value);
+                }
+            }
+
+            for (boolean pure : new boolean[] {false, true})
+            {
+                CompactLayout compactLayout = pure ? CompactLayout.buildPure(LOCAL_NUM_FILES, 2) :
+                        CompactLayout.buildNaive(LOCAL_NUM_FILES, 2);
+                for (boolean purge : new boolean[] {false, true})
+                {
+                    long start = System.currentTimeMillis();
+                    PixelsCompactor.Builder builder = PixelsCompactor.newBuilder()
+                            .setSourcePaths(sourcePaths)
+                            .setCompactLayout(compactLayout)
+                            .setInputStorage(storage)
+                            .setOutputStorage(storage)
+                            .setPath(targetPath)
+                            .setBlockSize(2L * 1024 * 1024 * 1024)
+                            .setReplication((short) 1)
+                            .setBlockPadding(false)
+                            .setHasHiddenColumn(true)
+                            .setMaxInFlightReads(2)
+                            .setOverwrite(true);
+                    if (purge)
+                    {
+                        builder.setRowGroupVisibilityBitmaps(visibilityBitmaps);
+                    }
+                    PixelsCompactor pixelsCompactor = builder.build();
+                    pixelsCompactor.compact();
+                    pixelsCompactor.close();
+                    assert pixelsCompactor.getNumRowGroup() == (purge ? LOCAL_NUM_FILES - 1 : LOCAL_NUM_FILES);
+                    System.out.println((pure ? "pure" : "naive") + " layout, purge " + purge + ": " +
+                            (System.currentTimeMillis() - start) + "ms");
+
+                    // the row groups are read in the order of the source files regardless of the layout
+                    assert readLocalFile(storage, targetPath).equals(purge ? expectedPurged : expected);
+                }
+            }
+        }
+        finally
+        {
+            for (String sourcePath : sourcePaths)
+            {
+                storage.delete(sourcePath, false);
+            }
+            storage.delete(targetPath, false);
+        }
+    }
 }
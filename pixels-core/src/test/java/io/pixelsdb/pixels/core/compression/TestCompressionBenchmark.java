@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.compression;
+
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.physical.StorageFactory;
+import io.pixelsdb.pixels.core.*;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
+import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
+import io.pixelsdb.pixels.core.reader.PixelsRecordReader;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Compare the file size, bytes read, and scan latency of TPC-H lineitem stored with different
+ * column chunk compression kinds. Set lineitemPath to a lineitem.tbl generated by dbgen to run it.
+ *
+ * @create 2026-10-17
+ */
+public class TestCompressionBenchmark
+{
+    private static final String lineitemPath = "/data/tpch/lineitem.tbl";
+    private static final String outputDir = "/tmp/pixels-compression-benchmark/";
+    private static final String lineitemSchema = "struct<l_orderkey:bigint,l_partkey:bigint,l_suppkey:bigint," +
+            "l_linenumber:int,l_quantity:decimal(15,2),l_extendedprice:decimal(15,2),l_discount:decimal(15,2)," +
+            "l_tax:decimal(15,2),l_returnflag:char(1),l_linestatus:char(1),l_shipdate:date,l_commitdate:date," +
+            "l_receiptdate:date,l_shipinstruct:char(25),l_shipmode:char(10),l_comment:varchar(44)>";
+    private static final int scanRepeats = 3;
+
+    @Test
+    public void testLineitem() throws IOException
+    {
+        Assume.assumeTrue("lineitem.tbl does not exist", new File(lineitemPath).exists());
+        new File(outputDir).mkdirs();
+        Storage storage = StorageFactory.Instance().getStorage("file");
+        TypeDescription schema = TypeDescription.fromString(lineitemSchema);
+        PixelsProto.CompressionKind[] kinds = {
+                PixelsProto.CompressionKind.NONE, PixelsProto.CompressionKind.LZ4, PixelsProto.CompressionKind.ZSTD};
+        for (PixelsProto.CompressionKind kind : kinds)
+        {
+            String filePath = outputDir + "lineitem_" + kind.name().toLowerCase() + ".pxl";
+            long writeStart = System.currentTimeMillis();
+            writeLineitem(storage, schema, filePath, kind);
+            long writeMs = System.currentTimeMillis() - writeStart;
+            long fileSize = storage.getStatus(filePath).getLength();
+
+            long bytesRead = 0, scanMs = Long.MAX_VALUE;
+            for (int i = 0; i < scanRepeats; ++i)
+            {
+                long scanStart = System.currentTimeMillis();
+                bytesRead = scanLineitem(storage, schema, filePath);
+                scanMs = Math.min(scanMs, System.currentTimeMillis() - scanStart);
+            }
+            System.out.println("compression=" + kind + ", fileSize=" + fileSize + ", bytesRead=" + bytesRead +
+                    ", writeMs=" + writeMs + ", scanMs=" + scanMs);
+        }
+    }
+
+    private static void writeLineitem(Storage storage, TypeDescription schema, String filePath,
+                                      PixelsProto.CompressionKind kind) throws IOException
+    {
+        VectorizedRowBatch rowBatch = schema.createRowBatch();
+        PixelsWriter writer = PixelsWriterImpl.newBuilder()
+                .setSchema(schema)
+                .setPixelStride(10000)
+                .setRowGroupSize(256 * 1024 * 1024)
+                .setStorage(storage)
+                .setPath(filePath)
+                .setOverwrite(true)
+                .setEncodingLevel(EncodingLevel.EL2)
+                .setCompressionKind(kind)
+                .setCompressionBlockSize(1)
+                .build();
+        try (BufferedReader reader = new BufferedReader(new FileReader(lineitemPath)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                String[] fields = line.split("\\|");
+                for (int i = 0; i < rowBatch.numCols; ++i)
+                {
+                    rowBatch.cols[i].add(fields[i]);
+                }
+                if (++rowBatch.size == rowBatch.getMaxSize())
+                {
+                    writer.addRowBatch(rowBatch);
+                    rowBatch.reset();
+                }
+            }
+            if (rowBatch.size > 0)
+            {
+                writer.addRowBatch(rowBatch);
+            }
+        }
+        writer.close();
+    }
+
+    private static long scanLineitem(Storage storage, TypeDescription schema, String filePath) throws IOException
+    {
+        try (PixelsReader reader = PixelsReaderImpl.newBuilder()
+                .setStorage(storage)
+                .setPath(filePath)
+                .setPixelsFooterCache(new PixelsFooterCache())
+                .build())
+        {
+            PixelsReaderOption option = new PixelsReaderOption();
+            option.includeCols(schema.getFieldNames().toArray(new String[0]));
+            PixelsRecordReader recordReader = reader.read(option);
+            VectorizedRowBatch rowBatch;
+            do
+            {
+                rowBatch = recordReader.readBatch(10000);
+            } while (!rowBatch.endOfFile);
+            return recordReader.getCompletedBytes();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.compression;
+
+import io.pixelsdb.pixels.core.PixelsProto;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestCompressionCodec
+{
+    private static byte[] createInput(int length)
+    {
+        byte[] input = new byte[length];
+        Random random = new Random(length);
+        for (int i = 0; i < length; ++i)
+        {
+            // low-entropy content, similar to encoded column chunks
+            input[i] = (byte) (random.nextInt(8) + i / 1024);
+        }
+        return input;
+    }
+
+    private static void testRoundTrip(PixelsProto.CompressionKind kind, boolean direct) throws IOException
+    {
+        CompressionCodec codec = CompressionCodec.getCodec(kind);
+        assert codec.getKind() == kind;
+        byte[] input = createInput(1024 * 1024);
+        byte[] compressed = new byte[codec.maxCompressedLength(input.length)];
+        int compressedLength = codec.compress(input, 0, input.length, compressed, 0, compressed.length);
+        if (kind != PixelsProto.CompressionKind.NONE)
+        {
+            assert compressedLength < input.length;
+        }
+
+        ByteBuffer compressedBuffer;
+        if (direct)
+        {
+            compressedBuffer = ByteBuffer.allocateDirect(compressedLength);
+            compressedBuffer.put(compressed, 0, compressedLength);
+            compressedBuffer.flip();
+        }
+        else
+        {
+            // simulate a column chunk sliced from a merged read
+            byte[] merged = new byte[compressedLength + 64];
+            System.arraycopy(compressed, 0, merged, 32, compressedLength);
+            compressedBuffer = ByteBuffer.wrap(merged, 32, compressedLength);
+        }
+        byte[] output = DecompressionBuffers.Instance().allocate(input.length);
+        ByteBuffer outputBuffer = ByteBuffer.wrap(output, 0, input.length);
+        codec.decompress(compressedBuffer, outputBuffer);
+        assert outputBuffer.position() == input.length;
+        assert Arrays.equals(input, Arrays.copyOf(output, input.length));
+        DecompressionBuffers.Instance().free(output);
+    }
+
+    @Test
+    public void testNone() throws IOException
+    {
+        testRoundTrip(PixelsProto.CompressionKind.NONE, false);
+        testRoundTrip(PixelsProto.CompressionKind.NONE, true);
+    }
+
+    @Test
+    public void testLz4() throws IOException
+    {
+        testRoundTrip(PixelsProto.CompressionKind.LZ4, false);
+        testRoundTrip(PixelsProto.CompressionKind.LZ4, true);
+    }
+
+    @Test
+    public void testZstd() throws IOException
+    {
+        testRoundTrip(PixelsProto.CompressionKind.ZSTD, false);
+        testRoundTrip(PixelsProto.CompressionKind.ZSTD, true);
+    }
+
+    @Test
+    public void testBufferReuse()
+    {
+        DecompressionBuffers buffers = DecompressionBuffers.Instance();
+        byte[] buffer = buffers.allocate(5000);
+        assert buffer.length == 8192;
+        long pooledBytes = buffers.getPooledBytes();
+        buffers.free(buffer);
+        assert buffers.getPooledBytes() == pooledBytes + 8192;
+        assert buffers.allocate(6000) == buffer;
+        assert buffers.getPooledBytes() == pooledBytes;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.encoding;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestAlpEncoding
+{
+    private static final int PIXEL_STRIDE = 10000;
+
+    @Test
+    public void testDecimalDoubles()
+    {
+        Random random = new Random(42);
+        long[] values = new long[PIXEL_STRIDE];
+        for (int i = 0; i < values.length; ++i)
+        {
+            // prices with two decimal digits, such as l_extendedprice in TPC-H
+            double price = (900 + random.nextInt(10_000_000)) / 100.0;
+            values[i] = Double.doubleToLongBits(price);
+        }
+        byte[] encoded = new AlpEncoder(false, ByteOrder.LITTLE_ENDIAN).encode(values);
+        assertTrue(encoded.length < values.length * Long.BYTES / 2);
+        assertArrayEquals(values, decodeDoubles(encoded, ByteOrder.LITTLE_ENDIAN, values.length));
+    }
+
+    @Test
+    public void testRandomDoubles()
+    {
+        Random random = new Random(42);
+        long[] values = new long[PIXEL_STRIDE];
+        for (int i = 0; i < values.length; ++i)
+        {
+            values[i] = Double.doubleToLongBits(random.nextDouble());
+        }
+        byte[] encoded = new AlpEncoder(false, ByteOrder.BIG_ENDIAN).encode(values);
+        // not compressible, should fall back to a raw block
+        assertEquals(Integer.BYTES + 1 + values.length * Long.BYTES, encoded.length);
+        assertArrayEquals(values, decodeDoubles(encoded, ByteOrder.BIG_ENDIAN, values.length));
+    }
+
+    @Test
+    public void testExceptions()
+    {
+        long[] values = new long[PIXEL_STRIDE];
+        for (int i = 0; i < values.length; ++i)
+        {
+            values[i] = Double.doubleToRawLongBits(i * 0.5);
+        }
+        values[1] = Double.doubleToRawLongBits(Double.NaN);
+        values[2] = Double.doubleToRawLongBits(-0.0);
+        values[3] = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        values[4] = Double.doubleToRawLongBits(Double.MIN_VALUE);
+        values[5] = Double.doubleToRawLongBits(Math.PI);
+        values[6] = Double.doubleToRawLongBits(1e300);
+        byte[] encoded = new AlpEncoder(false, ByteOrder.LITTLE_ENDIAN).encode(values);
+        assertTrue(encoded.length < values.length * Long.BYTES);
+        assertArrayEquals(values, decodeDoubles(encoded, ByteOrder.LITTLE_ENDIAN, values.length));
+    }
+
+    @Test
+    public void testFloats()
+    {
+        Random random = new Random(42);
+        long[] values = new long[PIXEL_STRIDE];
+        int[] expected = new int[PIXEL_STRIDE];
+        for (int i = 0; i < values.length; ++i)
+        {
+            float value = i % 100 == 0 ? random.nextFloat() : random.nextInt(100000) / 10.0f;
+            expected[i] = Float.floatToRawIntBits(value);
+            values[i] = expected[i];
+        }
+        byte[] encoded = new AlpEncoder(true, ByteOrder.LITTLE_ENDIAN).encode(values);
+        assertTrue(encoded.length < values.length * Integer.BYTES);
+        ByteBuffer buffer = ByteBuffer.wrap(encoded).order(ByteOrder.LITTLE_ENDIAN);
+        AlpDecoder decoder = new AlpDecoder(buffer, 0, encoded.length);
+        int[] decoded = new int[values.length];
+        assertEquals(values.length, decoder.next(decoded, 0));
+        assertFalse(decoder.hasNext());
+        assertArrayEquals(expected, decoded);
+    }
+
+    @Test
+    public void testMultipleBlocks()
+    {
+        AlpEncoder encoder = new AlpEncoder(false, ByteOrder.LITTLE_ENDIAN);
+        long[] values = new long[PIXEL_STRIDE * 2 + 7];
+        for (int i = 0; i < values.length; ++i)
+        {
+            values[i] = Double.doubleToRawLongBits(i < PIXEL_STRIDE ? i * 0.01 : i * Math.E);
+        }
+        byte[] first = encoder.encode(values, 0, PIXEL_STRIDE);
+        byte[] second = encoder.encode(values, PIXEL_STRIDE, PIXEL_STRIDE);
+        byte[] empty = encoder.encode(values, 0, 0);
+        byte[] third = encoder.encode(values, PIXEL_STRIDE * 2, 7);
+        ByteBuffer buffer = ByteBuffer.allocate(first.length + second.length + empty.length + third.length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(first).put(second).put(empty).put(third);
+        AlpDecoder decoder = new AlpDecoder(buffer, 0, buffer.capacity());
+        long[] decoded = new long[values.length];
+        int offset = 0;
+        while (decoder.hasNext())
+        {
+            offset += decoder.next(decoded, offset);
+        }
+        assertEquals(values.length, offset);
+        assertArrayEquals(values, decoded);
+    }
+
+    private static long[] decodeDoubles(byte[] encoded, ByteOrder byteOrder, int length)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded).order(byteOrder);
+        AlpDecoder decoder = new AlpDecoder(buffer, 0, encoded.length);
+        long[] decoded = new long[length];
+        assertEquals(length, decoder.nextBlockSize());
+        assertEquals(length, decoder.next(decoded, 0));
+        assertFalse(decoder.hasNext());
+        return decoded;
+    }
+}
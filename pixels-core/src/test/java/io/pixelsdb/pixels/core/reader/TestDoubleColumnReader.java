@@ -324,4 +324,55 @@ public class TestDoubleColumnReader
             }
         }
     }
+
+    @Test
+    public void testSkipAlp() throws IOException
+    {
+        int pixelsStride = 10;
+        int numRows = 32;
+        PixelsWriterOption writerOption = new PixelsWriterOption()
+                .pixelStride(pixelsStride).byteOrder(ByteOrder.LITTLE_ENDIAN)
+                .encodingLevel(EncodingLevel.EL2).nullsPadding(false);
+        DoubleColumnWriter columnWriter = new DoubleColumnWriter(
+                TypeDescription.createDouble(), writerOption);
+        DoubleColumnVector doubleColumnVector = new DoubleColumnVector(numRows);
+        for (int i = 0; i < numRows; ++i)
+        {
+            if (i % 7 == 3)
+            {
+                doubleColumnVector.addNull();
+            }
+            else
+            {
+                doubleColumnVector.add(i * 1.25);
+            }
+        }
+        columnWriter.write(doubleColumnVector, numRows);
+        columnWriter.flush();
+        columnWriter.close();
+
+        byte[] content = columnWriter.getColumnChunkContent();
+        PixelsProto.ColumnChunkIndex chunkIndex = columnWriter.getColumnChunkIndex().build();
+        PixelsProto.ColumnEncoding encoding = columnWriter.getColumnChunkEncoding().build();
+        assert encoding.getKind() == PixelsProto.ColumnEncoding.Kind.ALP;
+        DoubleColumnReader columnReader = new DoubleColumnReader(TypeDescription.createDouble());
+        DoubleColumnVector doubleColumnVector1 = new DoubleColumnVector(numRows);
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        // skip the first pixel, read the second pixel, skip the third pixel, and read the last pixel
+        columnReader.skip(buffer, encoding, 0, 10, pixelsStride, doubleColumnVector1, chunkIndex);
+        columnReader.read(buffer, encoding, 10, 10, pixelsStride, 0, doubleColumnVector1, chunkIndex);
+        columnReader.skip(buffer, encoding, 20, 10, pixelsStride, doubleColumnVector1, chunkIndex);
+        columnReader.read(buffer, encoding, 30, 2, pixelsStride, 10, doubleColumnVector1, chunkIndex);
+        columnReader.close();
+
+        for (int i = 0; i < 12; ++i)
+        {
+            int row = i < 10 ? i + 10 : i + 20;
+            assert doubleColumnVector1.isNull[i] == doubleColumnVector.isNull[row];
+            if (!doubleColumnVector.isNull[row])
+            {
+                assert doubleColumnVector1.vector[i] == doubleColumnVector.vector[row];
+            }
+        }
+    }
 }
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.reader;
+
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.physical.StorageFactory;
+import io.pixelsdb.pixels.core.*;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
+import io.pixelsdb.pixels.core.predicate.PixelsRowFilter;
+import io.pixelsdb.pixels.core.utils.Bitmap;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.DoubleColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestLateMaterialization
+{
+    private static final String FILE_PATH = "/tmp/pixels-late-materialization-test.pxl";
+    private static final int NUM_ROWS = 100000;
+    private static final int PIXEL_STRIDE = 1000;
+    private static Storage storage;
+
+    @BeforeClass
+    public static void writeFile() throws IOException
+    {
+        storage = StorageFactory.Instance().getStorage(Storage.Scheme.file);
+        TypeDescription schema = TypeDescription.fromString("struct<a:bigint,b:varchar(16),c:double>");
+        PixelsWriter pixelsWriter = PixelsWriterImpl.newBuilder()
+                .setSchema(schema)
+                .setStorage(storage)
+                .setPath(FILE_PATH)
+                .setRowGroupSize(256 * 1024)
+                .setPixelStride(PIXEL_STRIDE)
+                .setEncodingLevel(EncodingLevel.EL2)
+                .setPartitioned(false)
+                .setOverwrite(true).build();
+        VectorizedRowBatch rowBatch = schema.createRowBatch(1000);
+        LongColumnVector a = (LongColumnVector) rowBatch.cols[0];
+        BinaryColumnVector b = (BinaryColumnVector) rowBatch.cols[1];
+        DoubleColumnVector c = (DoubleColumnVector) rowBatch.cols[2];
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            int i = rowBatch.size++;
+            a.vector[i] = row;
+            b.setVal(i, String.valueOf(row).getBytes());
+            if (row % 7 == 0)
+            {
+                c.isNull[i] = true;
+                c.noNulls = false;
+            }
+            else
+            {
+                c.vector[i] = Double.doubleToLongBits(row * 0.5);
+            }
+            if (rowBatch.isFull())
+            {
+                pixelsWriter.addRowBatch(rowBatch);
+                rowBatch.reset();
+            }
+        }
+        if (rowBatch.size > 0)
+        {
+            pixelsWriter.addRowBatch(rowBatch);
+        }
+        pixelsWriter.close();
+    }
+
+    @AfterClass
+    public static void deleteFile() throws IOException
+    {
+        storage.delete(FILE_PATH, false);
+    }
+
+    /**
+     * Select the rows in which column a is in one of the ranges, column a is the filter column.
+     */
+    private static PixelsRowFilter createRowFilter(int columnId, long[][] ranges)
+    {
+        return new PixelsRowFilter()
+        {
+            @Override
+            public int[] getColumnIds()
+            {
+                return new int[] {columnId};
+            }
+
+            @Override
+            public void filter(VectorizedRowBatch rowBatch, Bitmap result)
+            {
+                LongColumnVector a = (LongColumnVector) rowBatch.cols[columnId];
+                result.clear(0, rowBatch.size);
+                for (int i = 0; i < rowBatch.size; ++i)
+                {
+                    if (matches(a.vector[i], ranges))
+                    {
+                        result.set(i);
+                    }
+                }
+            }
+        };
+    }
+
+    private static boolean matches(long value, long[][] ranges)
+    {
+        for (long[] range : ranges)
+        {
+            if (value >= range[0] && value <= range[1])
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Long> read(String[] columns, PixelsRowFilter rowFilter, int batchSize) throws IOException
+    {
+        List<Long> rows = new ArrayList<>();
+        try (PixelsReader pixelsReader = PixelsReaderImpl.newBuilder()
+                .setPath(FILE_PATH)
+                .setStorage(storage)
+                .setPixelsFooterCache(new PixelsFooterCache())
+                .setEnableCache(false).build())
+        {
+            PixelsReaderOption option = new PixelsReaderOption();
+            option.includeCols(columns);
+            if (rowFilter != null)
+            {
+                option.rowFilter(rowFilter);
+            }
+            PixelsRecordReader recordReader = pixelsReader.read(option);
+            VectorizedRowBatch rowBatch;
+            do
+            {
+                rowBatch = recordReader.readBatch(batchSize);
+                assert rowBatch.size <= batchSize;
+                LongColumnVector a = (LongColumnVector) rowBatch.cols[1];
+                BinaryColumnVector b = (BinaryColumnVector) rowBatch.cols[0];
+                DoubleColumnVector c = (DoubleColumnVector) rowBatch.cols[2];
+                LongColumnVector dup = (LongColumnVector) rowBatch.cols[3];
+                for (int i = 0; i < rowBatch.size; ++i)
+                {
+                    long row = a.vector[i];
+                    assert dup.vector[i] == row;
+                    assert new String(b.vector[i], b.start[i], b.lens[i]).equals(String.valueOf(row));
+                    assert c.isNull[i] == (row % 7 == 0);
+                    assert c.isNull[i] || Double.longBitsToDouble(c.vector[i]) == row * 0.5;
+                    rows.add(row);
+                }
+            } while (!rowBatch.endOfFile);
+        }
+        return rows;
+    }
+
+    @Test
+    public void testReadSelected() throws IOException
+    {
+        // column a is read twice, and the second one is a duplicated column vector
+        String[] columns = {"b", "a", "c", "a"};
+        // the ranges cover partial pixels, whole pixels, and multiple row groups
+        long[][] ranges = {{5, 5}, {1500, 4499}, {10007, 10993}, {50000, 80000}, {99999, 99999}};
+        for (int batchSize : new int[] {7, 1000, 4096})
+        {
+            List<Long> rows = read(columns, createRowFilter(1, ranges), batchSize);
+            int expected = 0;
+            for (long row = 0; row < NUM_ROWS; ++row)
+            {
+                if (matches(row, ranges))
+                {
+                    assert rows.get(expected++) == row;
+                }
+            }
+            assert rows.size() == expected;
+        }
+        // filter on the duplicated column id
+        assert read(columns, createRowFilter(3, ranges), 1000).size() ==
+                read(columns, createRowFilter(1, ranges), 1000).size();
+        // no row matches
+        assert read(columns, createRowFilter(1, new long[][] {{-10, -1}}), 1000).isEmpty();
+        // all rows match
+        assert read(columns, createRowFilter(1, new long[][] {{0, NUM_ROWS}}), 1000).size() == NUM_ROWS;
+    }
+
+    /**
+     * Compare the two-phase read with reading all the columns and filtering the rows afterward.
+     */
+    @Test
+    public void testPerformance() throws IOException
+    {
+        String[] columns = {"b", "a", "c", "a"};
+        long[][] ranges = {{20000, 20999}, {60000, 60499}};
+        long oneNs = Long.MAX_VALUE, twoNs = Long.MAX_VALUE;
+        for (int round = 0; round < 5; ++round)
+        {
+            long start = System.nanoTime();
+            List<Long> rows = read(columns, null, 4096);
+            rows.removeIf(row -> !matches(row, ranges));
+            oneNs = Math.min(oneNs, System.nanoTime() - start);
+            start = System.nanoTime();
+            List<Long> lateRows = read(columns, createRowFilter(1, ranges), 4096);
+            twoNs = Math.min(twoNs, System.nanoTime() - start);
+            assert rows.equals(lateRows);
+        }
+        System.out.println("read then filter: " + oneNs / 1000 + " us, late materialization: " + twoNs / 1000 + " us");
+    }
+}
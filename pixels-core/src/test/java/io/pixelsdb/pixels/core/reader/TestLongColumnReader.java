@@ -381,4 +381,53 @@ public class TestLongColumnReader
             }
         }
     }
+
+    @Test
+    public void testSkipRunLength() throws IOException
+    {
+        int pixelsStride = 10;
+        int numRows = 32;
+        PixelsWriterOption writerOption = new PixelsWriterOption()
+                .pixelStride(pixelsStride).byteOrder(ByteOrder.LITTLE_ENDIAN)
+                .encodingLevel(EncodingLevel.EL2).nullsPadding(false);
+        IntegerColumnWriter columnWriter = new IntegerColumnWriter(
+                TypeDescription.createLong(), writerOption);
+        LongColumnVector longColumnVector = new LongColumnVector(numRows);
+        for (int i = 0; i < numRows; ++i)
+        {
+            if (i % 7 == 3)
+            {
+                longColumnVector.addNull();
+            }
+            else
+            {
+                longColumnVector.add(i * 100L);
+            }
+        }
+        columnWriter.write(longColumnVector, numRows);
+        columnWriter.flush();
+        columnWriter.close();
+
+        byte[] content = columnWriter.getColumnChunkContent();
+        PixelsProto.ColumnChunkIndex chunkIndex = columnWriter.getColumnChunkIndex().build();
+        PixelsProto.ColumnEncoding encoding = columnWriter.getColumnChunkEncoding().build();
+        LongColumnReader columnReader = new LongColumnReader(TypeDescription.createLong());
+        LongColumnVector longColumnVector1 = new LongColumnVector(numRows);
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        // read the first pixel, skip the second and the third pixels, and read the last pixel
+        columnReader.read(buffer, encoding, 0, 10, pixelsStride, 0, longColumnVector1, chunkIndex);
+        columnReader.skip(buffer, encoding, 10, 20, pixelsStride, longColumnVector1, chunkIndex);
+        columnReader.read(buffer, encoding, 30, 2, pixelsStride, 10, longColumnVector1, chunkIndex);
+        columnReader.close();
+
+        for (int i = 0; i < 12; ++i)
+        {
+            int row = i < 10 ? i : i + 20;
+            assert longColumnVector1.isNull[i] == longColumnVector.isNull[row];
+            if (!longColumnVector.isNull[row])
+            {
+                assert longColumnVector1.vector[i] == longColumnVector.vector[row];
+            }
+        }
+    }
 }
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.reader;
+
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.physical.StorageFactory;
+import io.pixelsdb.pixels.core.*;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
+import io.pixelsdb.pixels.core.predicate.PixelsPredicate;
+import io.pixelsdb.pixels.core.stats.ColumnStats;
+import io.pixelsdb.pixels.core.stats.IntegerColumnStats;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read the file with the hidden timestamp column under a predicate, the pixels that do not match the
+ * predicate by pixel statistics are skipped, and the rows are filtered by the timestamp and visibility.
+ *
+ * @create 2026-10-17
+ */
+public class TestPixelsRecordReaderImpl
+{
+    private static final String FILE_PATH = "/tmp/pixels-record-reader-test.pxl";
+    private static final int NUM_ROWS = 100000;
+    private static final int PIXEL_STRIDE = 1000;
+    /**
+     * The rows with larger timestamps are not visible to the readers.
+     */
+    private static final long TRANS_TIMESTAMP = 4L;
+    private static Storage storage;
+    /**
+     * The start row of each row group in the file.
+     */
+    private static long[] rgStartRows;
+    private static int[] rgNumRows;
+
+    @BeforeClass
+    public static void writeFile() throws IOException
+    {
+        storage = StorageFactory.Instance().getStorage(Storage.Scheme.file);
+        TypeDescription schema = TypeDescription.fromString("struct<a:bigint,b:bigint>");
+        PixelsWriter pixelsWriter = PixelsWriterImpl.newBuilder()
+                .setSchema(schema)
+                .setHasHiddenColumn(true)
+                .setStorage(storage)
+                .setPath(FILE_PATH)
+                .setRowGroupSize(256 * 1024)
+                .setPixelStride(PIXEL_STRIDE)
+                .setEncodingLevel(EncodingLevel.EL2)
+                .setPartitioned(false)
+                .setOverwrite(true).build();
+        VectorizedRowBatch rowBatch = schema.createRowBatchWithHiddenColumn(1000, TypeDescription.Mode.NONE);
+        LongColumnVector a = (LongColumnVector) rowBatch.cols[0];
+        LongColumnVector b = (LongColumnVector) rowBatch.cols[1];
+        LongColumnVector timestamp = (LongColumnVector) rowBatch.cols[2];
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            int i = rowBatch.size++;
+            // column a is sorted, so that the pixel statistics of a are selective
+            a.vector[i] = row;
+            b.vector[i] = row * 3L;
+            timestamp.vector[i] = row % 10;
+            if (rowBatch.isFull())
+            {
+                pixelsWriter.addRowBatch(rowBatch);
+                rowBatch.reset();
+            }
+        }
+        if (rowBatch.size > 0)
+        {
+            pixelsWriter.addRowBatch(rowBatch);
+        }
+        pixelsWriter.close();
+
+        try (PixelsReader pixelsReader = PixelsReaderImpl.newBuilder()
+                .setPath(FILE_PATH)
+                .setStorage(storage)
+                .setPixelsFooterCache(new PixelsFooterCache())
+                .setEnableCache(false).build())
+        {
+            int numRowGroups = pixelsReader.getRowGroupNum();
+            assert numRowGroups > 1;
+            rgStartRows = new long[numRowGroups];
+            rgNumRows = new int[numRowGroups];
+            long startRow = 0;
+            for (int rgId = 0; rgId < numRowGroups; ++rgId)
+            {
+                rgStartRows[rgId] = startRow;
+                rgNumRows[rgId] = pixelsReader.getRowGroupInfo(rgId).getNumberOfRows();
+                startRow += rgNumRows[rgId];
+            }
+            assert startRow == NUM_ROWS;
+        }
+    }
+
+    @AfterClass
+    public static void deleteFile() throws IOException
+    {
+        storage.delete(FILE_PATH, false);
+    }
+
+    private static boolean isDeleted(long row)
+    {
+        return row % 13 == 0;
+    }
+
+    private static boolean isVisible(long row)
+    {
+        return row % 10 <= TRANS_TIMESTAMP && !isDeleted(row);
+    }
+
+    /**
+     * The visibility of the row groups without querying retina, the rows for which {@link #isDeleted(long)}
+     * is true are deleted.
+     */
+    private static class DeletedRows extends SplitVisibility
+    {
+        private DeletedRows()
+        {
+            super(storage, TRANS_TIMESTAMP);
+        }
+
+        @Override
+        public long[][] getBitmaps(String path, int[] targetRGs, int targetRGNum)
+        {
+            long[][] bitmaps = new long[targetRGs.length][];
+            for (int i = 0; i < targetRGNum; ++i)
+            {
+                int rgId = targetRGs[i];
+                bitmaps[i] = new long[(rgNumRows[rgId] + 63) / 64];
+                for (int k = 0; k < rgNumRows[rgId]; ++k)
+                {
+                    if (isDeleted(rgStartRows[rgId] + k))
+                    {
+                        bitmaps[i][k / 64] |= 1L << (k % 64);
+                    }
+                }
+            }
+            return bitmaps;
+        }
+    }
+
+    /**
+     * Select the rows in which column a is in [lower, upper], by the integer statistics of column a.
+     */
+    private static PixelsPredicate createPredicate(long lower, long upper)
+    {
+        return new PixelsPredicate()
+        {
+            @Override
+            public boolean matches(long numberOfRows, Map<Integer, ColumnStats> statisticsByColumnIndex)
+            {
+                IntegerColumnStats stats = (IntegerColumnStats) statisticsByColumnIndex.get(0);
+                return stats == null || (stats.getMinimum() <= upper && stats.getMaximum() >= lower);
+            }
+
+            @Override
+            public boolean matchesNone()
+            {
+                return false;
+            }
+
+            @Override
+            public boolean matchesAll()
+            {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the number of rows in the pixels that do not overlap [lower, upper] in column a
+     */
+    private static long countSkippedRows(long lower, long upper)
+    {
+        long skippedRows = 0;
+        for (int rgId = 0; rgId < rgStartRows.length; ++rgId)
+        {
+            for (int start = 0; start < rgNumRows[rgId]; start += PIXEL_STRIDE)
+            {
+                long first = rgStartRows[rgId] + start;
+                long last = rgStartRows[rgId] + Math.min(start + PIXEL_STRIDE, rgNumRows[rgId]) - 1;
+                if (last < lower || first > upper)
+                {
+                    skippedRows += last - first + 1;
+                }
+            }
+        }
+        return skippedRows;
+    }
+
+    /**
+     * Read the visible rows under the predicate, and check the skipped rows.
+     * @return the values of column a in the returned rows
+     */
+    private static List<Long> read(PixelsPredicate predicate, int batchSize, long expectedSkippedRows)
+            throws IOException
+    {
+        List<Long> rows = new ArrayList<>();
+        try (PixelsReader pixelsReader = PixelsReaderImpl.newBuilder()
+                .setPath(FILE_PATH)
+                .setStorage(storage)
+                .setPixelsFooterCache(new PixelsFooterCache())
+                .setEnableCache(false).build())
+        {
+            PixelsReaderOption option = new PixelsReaderOption();
+            option.includeCols(new String[] {"a", "b"});
+            option.transTimestamp(TRANS_TIMESTAMP);
+            option.splitVisibility(new DeletedRows());
+            if (predicate != null)
+            {
+                option.predicate(predicate);
+            }
+            PixelsRecordReader recordReader = pixelsReader.read(option);
+            VectorizedRowBatch rowBatch;
+            do
+            {
+                rowBatch = recordReader.readBatch(batchSize);
+                assert rowBatch.size <= batchSize;
+                LongColumnVector a = (LongColumnVector) rowBatch.cols[0];
+                LongColumnVector b = (LongColumnVector) rowBatch.cols[1];
+                for (int i = 0; i < rowBatch.size; ++i)
+                {
+                    assert b.vector[i] == a.vector[i] * 3;
+                    rows.add(a.vector[i]);
+                }
+            } while (!rowBatch.endOfFile);
+            PixelsReaderStats stats = (PixelsReaderStats) recordReader;
+            assert stats.getRowGroupSkippedRows() + stats.getPixelSkippedRows() == expectedSkippedRows;
+        }
+        return rows;
+    }
+
+    private static void checkRows(List<Long> rows, long lower, long upper)
+    {
+        int expected = 0;
+        for (long row = 0; row < NUM_ROWS; ++row)
+        {
+            if (row >= lower && row <= upper && isVisible(row))
+            {
+                assert rows.get(expected++) == row;
+            }
+        }
+        assert rows.size() == expected;
+    }
+
+    @Test
+    public void testSkipPixels() throws IOException
+    {
+        // the ranges start and end in the middle of pixels, and cover one or more row groups
+        long[][] ranges = {{20500, 30499}, {5, 5}, {999, 1000}, {NUM_ROWS - 1, NUM_ROWS - 1}, {0, NUM_ROWS - 1}};
+        for (long[] range : ranges)
+        {
+            long skippedRows = countSkippedRows(range[0], range[1]);
+            for (int batchSize : new int[] {7, 1000, 4096})
+            {
+                List<Long> rows = read(createPredicate(range[0], range[1]), batchSize, skippedRows);
+                // the returned rows are only filtered by timestamp and visibility, the unmatched rows
+                // in the matched pixels are returned
+                rows.removeIf(row -> row < range[0] || row > range[1]);
+                checkRows(rows, range[0], range[1]);
+            }
+        }
+        // the selective range overlaps at most 12 pixels, and the other pixels are skipped
+        assert countSkippedRows(20500, 30499) >= NUM_ROWS - 12 * PIXEL_STRIDE;
+        assert countSkippedRows(0, NUM_ROWS - 1) == 0;
+    }
+
+    @Test
+    public void testNoPixelMatches() throws IOException
+    {
+        assert read(createPredicate(-10, -1), 1000, NUM_ROWS).isEmpty();
+    }
+
+    @Test
+    public void testNoPredicate() throws IOException
+    {
+        checkRows(read(null, 1000, 0), 0, NUM_ROWS - 1);
+    }
+}
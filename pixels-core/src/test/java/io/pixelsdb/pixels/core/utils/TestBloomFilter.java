@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.utils;
+
+import io.pixelsdb.pixels.core.PixelsProto;
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.writer.BloomFilterBuilder;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestBloomFilter
+{
+    @Test
+    public void testLongValues()
+    {
+        BloomFilterBuilder builder = new BloomFilterBuilder(TypeDescription.createLong(), 0.01);
+        LongColumnVector vector = new LongColumnVector(10000);
+        for (int round = 0; round < 10; ++round)
+        {
+            for (int i = 0; i < 10000; ++i)
+            {
+                vector.vector[i] = (round * 10000L + i) * 4;
+            }
+            builder.add(vector, 10000);
+        }
+        PixelsProto.BloomFilter proto = builder.build();
+        BloomFilter bloomFilter = new BloomFilter(proto);
+        for (long i = 0; i < 100000; ++i)
+        {
+            // no false negatives
+            assert bloomFilter.mightContain(i * 4);
+        }
+        int falsePositives = 0;
+        for (long i = 0; i < 100000; ++i)
+        {
+            if (bloomFilter.mightContain(i * 4 + 1))
+            {
+                falsePositives++;
+            }
+        }
+        assert falsePositives < 100000 * 0.02 : "too many false positives: " + falsePositives;
+        // about 9.6 bits per distinct value for fpp = 0.01, at most doubled as the bits are folded in halves
+        assert proto.getBitsetCount() * 64L < 100000 * 20;
+    }
+
+    @Test
+    public void testStringValues()
+    {
+        BloomFilterBuilder builder = new BloomFilterBuilder(TypeDescription.createVarchar(32), 0.01);
+        BinaryColumnVector vector = new BinaryColumnVector(1000);
+        for (int i = 0; i < 1000; ++i)
+        {
+            if (i % 10 == 0)
+            {
+                vector.isNull[i] = true;
+                vector.noNulls = false;
+            }
+            else
+            {
+                vector.setVal(i, ("customer#" + i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        builder.add(vector, 1000);
+        BloomFilter bloomFilter = new BloomFilter(builder.build());
+        for (int i = 0; i < 1000; ++i)
+        {
+            if (i % 10 != 0)
+            {
+                assert bloomFilter.mightContain("customer#" + i);
+            }
+        }
+        int falsePositives = 0;
+        for (int i = 1000; i < 11000; ++i)
+        {
+            if (bloomFilter.mightContain("customer#" + i))
+            {
+                falsePositives++;
+            }
+        }
+        assert falsePositives < 10000 * 0.03 : "too many false positives: " + falsePositives;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.vector;
+
+import io.pixelsdb.pixels.core.utils.Bitmap;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestArrowRowBatchFormat
+{
+    private static final String[] DICTIONARY = {"AIR", "MAIL", "SHIP", "TRUCK", "RAIL"};
+
+    private static VectorizedRowBatch createRowBatch(int numRows)
+    {
+        int capacity = Math.max(numRows, 1);
+        VectorizedRowBatch rowBatch = new VectorizedRowBatch(9, capacity);
+        LongColumnVector longVector = new LongColumnVector(capacity);
+        IntColumnVector intVector = new IntColumnVector(capacity);
+        DoubleColumnVector doubleVector = new DoubleColumnVector(capacity);
+        DecimalColumnVector decimalVector = new DecimalColumnVector(capacity, 15, 2);
+        DateColumnVector dateVector = new DateColumnVector(capacity);
+        TimestampColumnVector timestampVector = new TimestampColumnVector(capacity, 6);
+        BinaryColumnVector binaryVector = new BinaryColumnVector(capacity);
+        DictionaryColumnVector dictVector = new DictionaryColumnVector(capacity);
+        LongColumnVector repeatingVector = new LongColumnVector(capacity);
+
+        byte[] dictArray = String.join("", DICTIONARY).getBytes(StandardCharsets.UTF_8);
+        int[] dictOffsets = new int[DICTIONARY.length + 1];
+        for (int i = 0; i < DICTIONARY.length; ++i)
+        {
+            dictOffsets[i + 1] = dictOffsets[i] + DICTIONARY[i].length();
+        }
+        dictVector.dictArray = dictArray;
+        dictVector.dictOffsets = dictOffsets;
+
+        for (int i = 0; i < numRows; ++i)
+        {
+            if (i % 13 == 0)
+            {
+                longVector.isNull[i] = true;
+                longVector.noNulls = false;
+            }
+            else
+            {
+                longVector.vector[i] = i * 1000003L;
+            }
+            intVector.vector[i] = -i;
+            doubleVector.vector[i] = Double.doubleToLongBits(i / 3.0);
+            decimalVector.vector[i] = i * 100L + 99;
+            dateVector.dates[i] = 18000 + i % 365;
+            timestampVector.times[i] = 1700000000000000L + i;
+            if (i % 7 == 0)
+            {
+                binaryVector.isNull[i] = true;
+                binaryVector.noNulls = false;
+            }
+            else
+            {
+                byte[] value = ("comment of row " + i).getBytes(StandardCharsets.UTF_8);
+                binaryVector.setVal(i, value);
+            }
+            dictVector.setId(i, i % DICTIONARY.length);
+        }
+        repeatingVector.vector[0] = 42;
+        repeatingVector.isRepeating = true;
+
+        rowBatch.cols[0] = longVector;
+        rowBatch.cols[1] = intVector;
+        rowBatch.cols[2] = doubleVector;
+        rowBatch.cols[3] = decimalVector;
+        rowBatch.cols[4] = dateVector;
+        rowBatch.cols[5] = timestampVector;
+        rowBatch.cols[6] = binaryVector;
+        rowBatch.cols[7] = dictVector;
+        rowBatch.cols[8] = repeatingVector;
+        rowBatch.size = numRows;
+        return rowBatch;
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        VectorizedRowBatch rowBatch = createRowBatch(1000);
+        String expected = rowBatch.toString();
+
+        // serialize into a direct buffer and deserialize from it
+        ByteBuffer direct = ArrowRowBatchFormat.serialize(rowBatch);
+        assert direct.isDirect() && direct.remaining() == ArrowRowBatchFormat.getSerializedSize(rowBatch);
+        assert direct.remaining() % 8 == 0;
+        VectorizedRowBatch copied = ArrowRowBatchFormat.deserialize(direct);
+        assert !direct.hasRemaining();
+        assert copied.size == rowBatch.size;
+        assert copied.toString().equals(expected);
+        assert copied.cols[8].isRepeating;
+
+        // serialize two row batches into a heap buffer, the binary values are wrapped instead of being copied
+        int size = ArrowRowBatchFormat.getSerializedSize(rowBatch);
+        ByteBuffer heap = ByteBuffer.allocate(size * 2);
+        ArrowRowBatchFormat.serialize(rowBatch, heap);
+        ArrowRowBatchFormat.serialize(createRowBatch(10), heap);
+        heap.flip();
+        VectorizedRowBatch wrapped = ArrowRowBatchFormat.deserialize(heap);
+        assert wrapped.toString().equals(expected);
+        assert ((BinaryColumnVector) wrapped.cols[6]).vector[1] == heap.array();
+        assert ((DictionaryColumnVector) wrapped.cols[7]).dictArray == heap.array();
+        VectorizedRowBatch second = ArrowRowBatchFormat.deserialize(heap);
+        assert second.size == 10 && !heap.hasRemaining();
+        assert second.toString().equals(createRowBatch(10).toString());
+
+        // the selection vector is compacted before serialization
+        VectorizedRowBatch selected = createRowBatch(100);
+        Bitmap filter = new Bitmap(100, false);
+        filter.set(10, 20);
+        selected.applySelection(filter);
+        VectorizedRowBatch filtered = ArrowRowBatchFormat.deserialize(ArrowRowBatchFormat.serialize(selected));
+        assert filtered.size == 10;
+        assert ((IntColumnVector) filtered.cols[1]).vector[0] == -10;
+
+        // empty row batch
+        VectorizedRowBatch empty = ArrowRowBatchFormat.deserialize(ArrowRowBatchFormat.serialize(createRowBatch(0)));
+        assert empty.size == 0 && empty.numCols == 9;
+    }
+
+    private static long getAllocatedBytes()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Measure the bytes per second and the heap allocation of the round trip of the FlatBuffers format
+     * ({@link VectorizedRowBatch#serialize()}) and this format. The row batches in this format are serialized
+     * into a reusable direct buffer and deserialized from a heap buffer, as they are read from the storage.
+     */
+    @Test
+    public void testThroughput()
+    {
+        int numRows = 10000, numRounds = 200;
+        VectorizedRowBatch rowBatch = createRowBatch(numRows);
+        ByteBuffer output = ByteBuffer.allocateDirect(ArrowRowBatchFormat.getSerializedSize(rowBatch));
+        ByteBuffer input = ByteBuffer.allocate(output.capacity());
+        ArrowRowBatchFormat.serialize(rowBatch, input);
+
+        for (boolean arrow : new boolean[] {false, true})
+        {
+            // warm up
+            for (int round = 0; round < numRounds / 4; ++round)
+            {
+                roundTrip(rowBatch, arrow, output, input);
+            }
+            long bytes = 0;
+            long startNs = System.nanoTime(), startAllocated = getAllocatedBytes();
+            for (int round = 0; round < numRounds; ++round)
+            {
+                bytes += roundTrip(rowBatch, arrow, output, input);
+            }
+            long elapsedNs = System.nanoTime() - startNs;
+            long allocated = getAllocatedBytes() - startAllocated;
+            System.out.println((arrow ? "arrow layout" : "flatbuffers") + ": " +
+                    bytes / numRounds + " bytes/batch, " +
+                    bytes * 1000L / Math.max(elapsedNs, 1) + " MB/s, " +
+                    allocated / numRounds + " allocated bytes/batch");
+        }
+    }
+
+    /**
+     * @return the number of bytes of the serialized row batch
+     */
+    private static int roundTrip(VectorizedRowBatch rowBatch, boolean arrow, ByteBuffer output, ByteBuffer input)
+    {
+        if (arrow)
+        {
+            output.clear();
+            ArrowRowBatchFormat.serialize(rowBatch, output);
+            input.clear();
+            assert ArrowRowBatchFormat.deserialize(input).size == rowBatch.size;
+            return output.position();
+        }
+        byte[] data = rowBatch.serialize();
+        assert VectorizedRowBatch.deserialize(data).size == rowBatch.size;
+        return data.length;
+    }
+}
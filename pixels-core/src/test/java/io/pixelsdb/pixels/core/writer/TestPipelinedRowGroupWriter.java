@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.core.writer;
+
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.physical.StorageFactory;
+import io.pixelsdb.pixels.core.*;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
+import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
+import io.pixelsdb.pixels.core.reader.PixelsRecordReader;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestPipelinedRowGroupWriter
+{
+    private static final String SYNC_FILE_PATH = "/tmp/pixels-sync-row-group-test.pxl";
+    private static final String PIPELINED_FILE_PATH = "/tmp/pixels-pipelined-row-group-test.pxl";
+    private static final int NUM_ROWS = 1000000;
+    private static final int BATCH_SIZE = 10000;
+
+    /**
+     * Write the rows into the file, and return the writer after it is closed.
+     */
+    private static PixelsWriterImpl write(Storage storage, String path, int maxInFlightRowGroups) throws IOException
+    {
+        TypeDescription schema = TypeDescription.fromString("struct<a:bigint,b:varchar(32)>");
+        PixelsWriterImpl pixelsWriter = (PixelsWriterImpl) PixelsWriterImpl.newBuilder()
+                .setSchema(schema)
+                .setHasHiddenColumn(true)
+                .setStorage(storage)
+                .setPath(path)
+                .setRowGroupSize(1024 * 1024)
+                .setPixelStride(BATCH_SIZE)
+                .setEncodingLevel(EncodingLevel.EL2)
+                .setCompressionKind(PixelsProto.CompressionKind.LZ4)
+                .setCompressionBlockSize(1)
+                .setMaxInFlightRowGroups(maxInFlightRowGroups)
+                .setOverwrite(true).build();
+        VectorizedRowBatch rowBatch = schema.createRowBatchWithHiddenColumn(BATCH_SIZE, TypeDescription.Mode.NONE);
+        LongColumnVector a = (LongColumnVector) rowBatch.cols[0];
+        BinaryColumnVector b = (BinaryColumnVector) rowBatch.cols[1];
+        LongColumnVector timestamp = (LongColumnVector) rowBatch.cols[2];
+        int numRowGroups = 0;
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            int i = rowBatch.size++;
+            a.vector[i] = row * 31L % 100003;
+            b.setVal(i, ("value " + row).getBytes());
+            timestamp.vector[i] = row / 1000;
+            if (rowBatch.isFull())
+            {
+                if (!pixelsWriter.addRowBatch(rowBatch))
+                {
+                    // the row group is counted once it is encoded, even if it is still being written
+                    assert pixelsWriter.getNumRowGroup() == ++numRowGroups;
+                }
+                rowBatch.reset();
+            }
+        }
+        pixelsWriter.close();
+        return pixelsWriter;
+    }
+
+    private static long countRows(Storage storage, String path) throws IOException
+    {
+        long numRows = 0;
+        try (PixelsReader pixelsReader = PixelsReaderImpl.newBuilder()
+                .setPath(path)
+                .setStorage(storage)
+                .setPixelsFooterCache(new PixelsFooterCache())
+                .setEnableCache(false).build())
+        {
+            PixelsReaderOption option = new PixelsReaderOption();
+            option.includeCols(new String[] {"a", "b"});
+            PixelsRecordReader recordReader = pixelsReader.read(option);
+            VectorizedRowBatch rowBatch;
+            do
+            {
+                rowBatch = recordReader.readBatch(BATCH_SIZE);
+                numRows += rowBatch.size;
+            } while (!rowBatch.endOfFile);
+        }
+        return numRows;
+    }
+
+    /**
+     * The pipelined writer writes the same file as the synchronous writer. The encode, write, and overlap time
+     * of both writers are printed.
+     */
+    @Test
+    public void testPipelinedWrite() throws IOException
+    {
+        Storage storage = StorageFactory.Instance().getStorage(Storage.Scheme.file);
+        try
+        {
+            for (int round = 0; round < 2; ++round)
+            {
+                for (int maxInFlightRowGroups : new int[] {0, 2})
+                {
+                    long startNs = System.nanoTime();
+                    PixelsWriterImpl pixelsWriter = write(storage,
+                            maxInFlightRowGroups > 0 ? PIPELINED_FILE_PATH : SYNC_FILE_PATH, maxInFlightRowGroups);
+                    long elapsedNs = System.nanoTime() - startNs;
+                    assert maxInFlightRowGroups > 0 || pixelsWriter.getOverlapNanos() == 0;
+                    System.out.println("max in-flight row groups " + maxInFlightRowGroups + ": " +
+                            pixelsWriter.getNumRowGroup() + " row groups, elapsed " + elapsedNs / 1000_000 +
+                            "ms, encode " + pixelsWriter.getEncodeNanos() / 1000_000 +
+                            "ms, write " + pixelsWriter.getWriteNanos() / 1000_000 +
+                            "ms, overlap " + pixelsWriter.getOverlapNanos() / 1000_000 +
+                            "ms, back-pressure " + pixelsWriter.getBackPressureNanos() / 1000_000 + "ms");
+                }
+            }
+            assert Arrays.equals(Files.readAllBytes(Paths.get(SYNC_FILE_PATH)),
+                    Files.readAllBytes(Paths.get(PIPELINED_FILE_PATH)));
+            assert countRows(storage, PIPELINED_FILE_PATH) == NUM_ROWS;
+        }
+        finally
+        {
+            storage.delete(SYNC_FILE_PATH, false);
+            storage.delete(PIPELINED_FILE_PATH, false);
+        }
+    }
+}
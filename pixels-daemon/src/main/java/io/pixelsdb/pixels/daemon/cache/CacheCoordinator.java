@@ -25,6 +25,8 @@ import io.etcd.jetcd.KeyValue;
 import io.etcd.jetcd.Watch;
 import io.etcd.jetcd.options.WatchOption;
 import io.etcd.jetcd.watch.WatchEvent;
+import io.pixelsdb.pixels.cache.CacheAccessStatistics;
+import io.pixelsdb.pixels.cache.CacheAdmissionPolicy;
 import io.pixelsdb.pixels.cache.CacheLocationDistribution;
 import io.pixelsdb.pixels.cache.PixelsCacheConfig;
 import io.pixelsdb.pixels.common.balance.AbsoluteBalancer;
@@ -53,12 +55,16 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * CacheCoordinator is responsible for the following tasks:
  * 1. caching balance. It assigns each file a caching location, which are updated into etcd for global synchronization, and maintains a dynamic caching balance in the cluster.
+ * 2. caching admission. It selects the column chunks to cache by the accesses reported by the readers, and recomputes them periodically.
  * 3. caching node monitor. It monitors all cache workers in the cluster, and update running status(available, busy, dead, etc.) of caching nodes.
  *
  * @author guodong, hank
@@ -73,6 +79,7 @@ public class CacheCoordinator implements Server
     private boolean initializeSuccess = false;
     private CountDownLatch runningLatch;
     private boolean running = false;
+    private ScheduledExecutorService admissionRefresher = null;
 
     public CacheCoordinator()
     {
@@ -205,6 +212,14 @@ public class CacheCoordinator implements Server
                         }
                     }
                 });
+        int refreshInterval = cacheConfig.getAdmissionRefreshInterval();
+        if (cacheConfig.isAdmissionEnabled() && refreshInterval > 0)
+        {
+            // recompute the cached column chunks of the current cache version by the latest accesses
+            this.admissionRefresher = Executors.newSingleThreadScheduledExecutor();
+            this.admissionRefresher.scheduleWithFixedDelay(this::refreshAdmission,
+                    refreshInterval, refreshInterval, TimeUnit.SECONDS);
+        }
         try
         {
             // Wait for this coordinator to be shutdown
@@ -221,6 +236,10 @@ public class CacheCoordinator implements Server
             {
                 watcher.close();
             }
+            if (admissionRefresher != null)
+            {
+                admissionRefresher.shutdownNow();
+            }
         }
     }
 
@@ -263,25 +282,121 @@ public class CacheCoordinator implements Server
         assert layout != null;
         List<String> filePaths = select(layout);
         // allocate: decide which node to cache each file
-        List<KeyValue> workerNodes = EtcdUtil.Instance().getKeyValuesByPrefix(Constants.HEARTBEAT_WORKER_LITERAL);
-        if (workerNodes == null || workerNodes.isEmpty())
+        HostAddress[] workerHosts = getReadyWorkers();
+        if (workerHosts.length == 0)
         {
             logger.info("Nodes is null or empty, no updates");
             return;
         }
-        HostAddress[] workerHosts = new HostAddress[workerNodes.size()];
-        int hostIndex = 0;
+        if (cacheConfig.isAdmissionEnabled())
+        {
+            // admit: decide which column chunks to cache in each file
+            admit(schemaTableName, layout, layoutVersion, filePaths.size(), workerHosts.length);
+        }
+        allocate(filePaths, workerHosts, workerHosts.length, layoutVersion);
+    }
+
+    /**
+     * @return the hostnames of the ready worker nodes
+     */
+    private HostAddress[] getReadyWorkers()
+    {
+        List<KeyValue> workerNodes = EtcdUtil.Instance().getKeyValuesByPrefix(Constants.HEARTBEAT_WORKER_LITERAL);
+        if (workerNodes == null)
+        {
+            return new HostAddress[0];
+        }
+        List<HostAddress> workerHosts = new ArrayList<>(workerNodes.size());
         for (KeyValue node : workerNodes)
         {
             // key: host_[hostname]; value: [status]. available if status == 1.
             if (Integer.parseInt(node.getValue().toString(StandardCharsets.UTF_8)) ==
                     NodeStatus.READY.StatusCode)
             {
-                workerHosts[hostIndex++] = HostAddress.fromString(node.getKey()
-                        .toString(StandardCharsets.UTF_8).substring(Constants.HEARTBEAT_WORKER_LITERAL.length()));
+                workerHosts.add(HostAddress.fromString(node.getKey()
+                        .toString(StandardCharsets.UTF_8).substring(Constants.HEARTBEAT_WORKER_LITERAL.length())));
             }
         }
-        allocate(filePaths, workerHosts, hostIndex, layoutVersion);
+        return workerHosts.toArray(new HostAddress[0]);
+    }
+
+    /**
+     * Select the column chunks to cache in each file of the layout by the accesses reported by the readers,
+     * and persist them in etcd. The cache workers use the column chunk order of the layout if no column chunks
+     * are selected.
+     * @param schemaTableName the schema and table name of the layout
+     * @param layout the layout to be cached
+     * @param layoutVersion the version of the layout
+     * @param numFiles the number of files to cache
+     * @param numWorkers the number of worker nodes to cache the files
+     * @return true if the selected column chunks are changed
+     */
+    private boolean admit(SchemaTableName schemaTableName, Layout layout, int layoutVersion,
+                          int numFiles, int numWorkers)
+    {
+        Map<String, CacheAccessStatistics.TableAccesses> reported = CacheAccessStatistics.getReportedAccesses();
+        CacheAccessStatistics.TableAccesses accesses = new CacheAccessStatistics.TableAccesses();
+        for (Path compactPath : layout.getCompactPaths())
+        {
+            CacheAccessStatistics.TableAccesses pathAccesses =
+                    reported.get(CacheAccessStatistics.getTable(compactPath.getUri()));
+            if (pathAccesses != null)
+            {
+                accesses.merge(pathAccesses);
+            }
+        }
+        logger.info("Cache accesses of table {}: {}", schemaTableName, accesses);
+
+        long budget = numFiles > 0 ? cacheConfig.getCacheSize() * numWorkers / numFiles : 0;
+        CacheAdmissionPolicy policy = new CacheAdmissionPolicy(cacheConfig.getAdmissionRequestCost());
+        List<String> selected = policy.select(layout.getCompact().getColumnChunkOrder(),
+                layout.getCompact().getCacheBorder(), accesses, budget);
+        String key = Constants.CACHE_ORDER_LITERAL + layoutVersion;
+        String value = String.join(";", selected);
+        KeyValue current = EtcdUtil.Instance().getKeyValue(key);
+        if (current != null && current.getValue().toString(StandardCharsets.UTF_8).equals(value))
+        {
+            return false;
+        }
+        logger.debug("{} column chunks are admitted into cache at layout version {}", selected.size(), layoutVersion);
+        EtcdUtil.Instance().putKeyValue(key, value);
+        return true;
+    }
+
+    /**
+     * Recompute the cached column chunks of the current cache version. If they are changed, the cache workers
+     * watching the cache order update their local caches incrementally.
+     */
+    private void refreshAdmission()
+    {
+        try
+        {
+            KeyValue cacheVersionKV = EtcdUtil.Instance().getKeyValue(Constants.CACHE_VERSION_LITERAL);
+            if (cacheVersionKV == null)
+            {
+                return;
+            }
+            String value = cacheVersionKV.getValue().toString(StandardCharsets.UTF_8);
+            String[] splits = value.split(":");
+            checkArgument(splits.length == 2, "invalid value for key '" +
+                    Constants.CACHE_VERSION_LITERAL + "' in etcd: " + value);
+            SchemaTableName schemaTableName = new SchemaTableName(splits[0]);
+            int cacheVersion = Integer.parseInt(splits[1]);
+            Layout layout = metadataService.getLayout(
+                    schemaTableName.getSchemaName(), schemaTableName.getTableName(), cacheVersion);
+            if (layout == null)
+            {
+                return;
+            }
+            if (admit(schemaTableName, layout, cacheVersion, select(layout).size(), getReadyWorkers().length))
+            {
+                logger.info("Cached column chunks of table {} at version {} are recomputed", schemaTableName, cacheVersion);
+            }
+        }
+        catch (Throwable e)
+        {
+            logger.error("Failed to refresh the cached column chunks", e);
+        }
     }
 
     /**
@@ -293,6 +293,52 @@ public class CacheWorker implements Server
                         }
                     }
                 });
+        // watcher for the column chunks to cache, which are recomputed by the coordinator using the accesses.
+        Watch.Watcher cacheOrderWatcher = EtcdUtil.Instance().getClient().getWatchClient().watch(
+                ByteSequence.from(Constants.CACHE_ORDER_LITERAL, StandardCharsets.UTF_8),
+                WatchOption.newBuilder().withPrefix(
+                        ByteSequence.from(Constants.CACHE_ORDER_LITERAL, StandardCharsets.UTF_8)).build(),
+                watchResponse ->
+                {
+                    for (WatchEvent event : watchResponse.getEvents())
+                    {
+                        if (event.getEventType() != WatchEvent.EventType.PUT)
+                        {
+                            continue;
+                        }
+                        String key = event.getKeyValue().getKey().toString(StandardCharsets.UTF_8);
+                        if (!key.equals(Constants.CACHE_ORDER_LITERAL + localCacheVersion))
+                        {
+                            // the column chunks of a new version are loaded when the cache version is updated.
+                            continue;
+                        }
+                        if (cacheStatus.get() == CacheWorkerStatus.READY.StatusCode)
+                        {
+                            KeyValue cacheVersionKV = EtcdUtil.Instance().getKeyValue(Constants.CACHE_VERSION_LITERAL);
+                            if (cacheVersionKV == null)
+                            {
+                                continue;
+                            }
+                            String value = cacheVersionKV.getValue().toString(StandardCharsets.UTF_8);
+                            String[] splits = value.split(":");
+                            checkArgument(splits.length == 2, "invalid value for key '" +
+                                    Constants.CACHE_VERSION_LITERAL + "' in etcd: " + value);
+                            logger.debug("Cached column chunks of version {} are changed, update the local cache.",
+                                    localCacheVersion);
+                            try
+                            {
+                                updateLocalCache(new SchemaTableName(splits[0]), localCacheVersion);
+                            } catch (MetadataException e)
+                            {
+                                logger.error("Failed to update local cache.", e);
+                            }
+                        }
+                        else
+                        {
+                            logger.warn("The local cache is not ready, ignore the change of the cached column chunks.");
+                        }
+                    }
+                });
         try
         {
             // Wait for this cache worker to be shutdown.
@@ -311,6 +357,10 @@ public class CacheWorker implements Server
             {
                 cacheScalingWatcher.close();
             }
+            if (cacheOrderWatcher != null)
+            {
+                cacheOrderWatcher.close();
+            }
         }
     }
 
@@ -104,6 +104,8 @@ public class RetinaServerImpl extends RetinaWorkerServiceGrpc.RetinaWorkerServic
                     this.retinaResourceManager.addWriterBuffer(schema.getName(), table.getName());
                 }
             }
+            // the visibility of all the existing row groups is added
+            this.retinaResourceManager.finishRecovery();
         } catch (Exception e)
         {
             logger.error("Error while initializing RetinaServerImpl", e);
@@ -357,62 +359,7 @@ public class RetinaServerImpl extends RetinaWorkerServiceGrpc.RetinaWorkerServic
                 List<RetinaProto.InsertData> insertDataList = tableUpdateData.getInsertDataList();
                 if (!insertDataList.isEmpty())
                 {
-                    // 2a. Validate the insert data
-                    int indexNum = insertDataList.get(0).getIndexKeysList().size();
-                    if (indexNum == 0)
-                    {
-                        throw new RetinaException("Insert index key list is empty");
-                    }
-
-                    boolean allRecordValid = insertDataList.stream().allMatch(insertData ->
-                            insertData.getIndexKeysCount() == indexNum &&
-                            insertData.getIndexKeys(0).getIndexId() == primaryIndexId);
-                    if (!allRecordValid)
-                    {
-                        throw new RetinaException("Primary index id mismatch or inconsistent index key list size");
-                    }
-
-                    // 2b. Transpose the index keys from row set to column set
-                    List<List<IndexProto.IndexKey>> indexKeysList = transposeIndexKeys(
-                            insertDataList, RetinaProto.InsertData::getIndexKeysList);
-
-                    // 2c. Insert the records and get the primary index entries
-                    List<IndexProto.PrimaryIndexEntry> primaryIndexEntries = new ArrayList<>(insertDataList.size());
-                    List<Long> rowIdList = new ArrayList<>(insertDataList.size());
-
-                    for (RetinaProto.InsertData insertData : insertDataList)
-                    {
-                        byte[][] colValuesByteArray = insertData.getColValuesList().stream()
-                                .map(ByteString::toByteArray)
-                                .toArray(byte[][]::new);
-
-                        IndexProto.PrimaryIndexEntry.Builder builder =
-                                this.retinaResourceManager.insertRecord(schemaName, tableName,
-                                        colValuesByteArray, timestamp);
-                        builder.setIndexKey(insertData.getIndexKeys(0));
-                        IndexProto.PrimaryIndexEntry entry = builder.build();
-                        primaryIndexEntries.add(entry);
-                        rowIdList.add(entry.getRowId());
-                    }
-
-                    // 2d. Put the primary index entries
-                    long tableId = primaryIndexEntries.get(0).getIndexKey().getTableId();
-                    indexService.putPrimaryIndexEntries(tableId, primaryIndexId, primaryIndexEntries);
-
-                    // 2e. Put the secondary index entries
-                    for (int i = 1; i < indexNum; ++i)
-                    {
-                        List<IndexProto.IndexKey> indexKeys = indexKeysList.get(i);
-                        List<IndexProto.SecondaryIndexEntry> secondaryIndexEntries =
-                                IntStream.range(0, indexKeys.size())
-                                        .mapToObj(j -> IndexProto.SecondaryIndexEntry.newBuilder()
-                                                .setRowId(rowIdList.get(j))
-                                                .setIndexKey(indexKeys.get(j))
-                                                .build())
-                                        .collect(Collectors.toList());
-                        indexService.putSecondaryIndexEntries(indexKeys.get(0).getTableId(),
-                                indexKeys.get(0).getIndexId(), secondaryIndexEntries);
-                    }
+                    insertRecords(schemaName, tableName, primaryIndexId, insertDataList, timestamp);
                 }
 
                 // =================================================================
@@ -441,21 +388,17 @@ public class RetinaServerImpl extends RetinaWorkerServiceGrpc.RetinaWorkerServic
                             updateDataList, RetinaProto.UpdateData::getIndexKeysList);
 
                     // 3c. Insert the records and get the primary index entries
+                    List<byte[][]> colValuesList = updateDataList.stream()
+                            .map(updateData -> toByteArrays(updateData.getColValuesList()))
+                            .collect(Collectors.toList());
+                    List<IndexProto.PrimaryIndexEntry.Builder> builders =
+                            this.retinaResourceManager.insertRecords(schemaName, tableName, colValuesList, timestamp);
                     List<IndexProto.PrimaryIndexEntry> primaryIndexEntries = new ArrayList<>(updateDataList.size());
                     List<Long> rowIdList = new ArrayList<>(updateDataList.size());
-
-                    for (RetinaProto.UpdateData updateData : updateDataList)
+                    for (int i = 0; i < builders.size(); ++i)
                     {
-                        byte[][] colValuesByteArray = updateData.getColValuesList().stream()
-                                .map(ByteString::toByteArray)
-                                .toArray(byte[][]::new);
-
-                        IndexProto.PrimaryIndexEntry.Builder builder =
-                                this.retinaResourceManager.insertRecord(schemaName, tableName,
-                                        colValuesByteArray, timestamp);
-
-                        builder.setIndexKey(updateData.getIndexKeys(0));
-                        IndexProto.PrimaryIndexEntry entry = builder.build();
+                        IndexProto.PrimaryIndexEntry entry = builders.get(i)
+                                .setIndexKey(updateDataList.get(i).getIndexKeys(0)).build();
                         primaryIndexEntries.add(entry);
                         rowIdList.add(entry.getRowId());
                     }
@@ -491,6 +434,112 @@ public class RetinaServerImpl extends RetinaWorkerServiceGrpc.RetinaWorkerServic
         }
     }
 
+    /**
+     * Insert a batch of records into the writer buffer of the table in one step,
+     * then put the primary and secondary index entries of the records.
+     *
+     * @return the row ids of the records, in the same order as insertDataList
+     * @throws RetinaException
+     * @throws IndexException
+     */
+    private List<Long> insertRecords(String schemaName, String tableName, long primaryIndexId,
+                                     List<RetinaProto.InsertData> insertDataList, long timestamp)
+            throws RetinaException, IndexException
+    {
+        // Validate the insert data
+        int indexNum = insertDataList.get(0).getIndexKeysList().size();
+        if (indexNum == 0)
+        {
+            throw new RetinaException("Insert index key list is empty");
+        }
+
+        boolean allRecordValid = insertDataList.stream().allMatch(insertData ->
+                insertData.getIndexKeysCount() == indexNum &&
+                insertData.getIndexKeys(0).getIndexId() == primaryIndexId);
+        if (!allRecordValid)
+        {
+            throw new RetinaException("Primary index id mismatch or inconsistent index key list size");
+        }
+
+        // Transpose the index keys from row set to column set
+        List<List<IndexProto.IndexKey>> indexKeysList = transposeIndexKeys(
+                insertDataList, RetinaProto.InsertData::getIndexKeysList);
+
+        // Insert the records in a batch and get the primary index entries
+        List<byte[][]> colValuesList = insertDataList.stream()
+                .map(insertData -> toByteArrays(insertData.getColValuesList()))
+                .collect(Collectors.toList());
+        List<IndexProto.PrimaryIndexEntry.Builder> builders =
+                this.retinaResourceManager.insertRecords(schemaName, tableName, colValuesList, timestamp);
+        List<IndexProto.PrimaryIndexEntry> primaryIndexEntries = new ArrayList<>(insertDataList.size());
+        List<Long> rowIdList = new ArrayList<>(insertDataList.size());
+        for (int i = 0; i < builders.size(); ++i)
+        {
+            IndexProto.PrimaryIndexEntry entry = builders.get(i)
+                    .setIndexKey(insertDataList.get(i).getIndexKeys(0)).build();
+            primaryIndexEntries.add(entry);
+            rowIdList.add(entry.getRowId());
+        }
+
+        // Put the primary index entries
+        long tableId = primaryIndexEntries.get(0).getIndexKey().getTableId();
+        indexService.putPrimaryIndexEntries(tableId, primaryIndexId, primaryIndexEntries);
+
+        // Put the secondary index entries
+        for (int i = 1; i < indexNum; ++i)
+        {
+            List<IndexProto.IndexKey> indexKeys = indexKeysList.get(i);
+            List<IndexProto.SecondaryIndexEntry> secondaryIndexEntries =
+                    IntStream.range(0, indexKeys.size())
+                            .mapToObj(j -> IndexProto.SecondaryIndexEntry.newBuilder()
+                                    .setRowId(rowIdList.get(j))
+                                    .setIndexKey(indexKeys.get(j))
+                                    .build())
+                            .collect(Collectors.toList());
+            indexService.putSecondaryIndexEntries(indexKeys.get(0).getTableId(),
+                    indexKeys.get(0).getIndexId(), secondaryIndexEntries);
+        }
+        return rowIdList;
+    }
+
+    private static byte[][] toByteArrays(List<ByteString> colValues)
+    {
+        byte[][] colValuesByteArray = new byte[colValues.size()][];
+        for (int i = 0; i < colValuesByteArray.length; ++i)
+        {
+            colValuesByteArray[i] = colValues.get(i).toByteArray();
+        }
+        return colValuesByteArray;
+    }
+
+    @Override
+    public void insertRecords(RetinaProto.InsertRecordsRequest request,
+                              StreamObserver<RetinaProto.InsertRecordsResponse> responseObserver)
+    {
+        RetinaProto.ResponseHeader.Builder headerBuilder = RetinaProto.ResponseHeader.newBuilder()
+                .setToken(request.getHeader().getToken());
+
+        try
+        {
+            RetinaProto.InsertRecordsResponse.Builder responseBuilder = RetinaProto.InsertRecordsResponse.newBuilder();
+            if (request.getInsertDataCount() > 0)
+            {
+                responseBuilder.addAllRowIds(insertRecords(request.getSchemaName(), request.getTableName(),
+                        request.getPrimaryIndexId(), request.getInsertDataList(), request.getTimestamp()));
+            }
+            responseObserver.onNext(responseBuilder.setHeader(headerBuilder.build()).build());
+        } catch (RetinaException | IndexException e)
+        {
+            headerBuilder.setErrorCode(1).setErrorMsg(e.getMessage());
+            responseObserver.onNext(RetinaProto.InsertRecordsResponse.newBuilder()
+                    .setHeader(headerBuilder.build())
+                    .build());
+        } finally
+        {
+            responseObserver.onCompleted();
+        }
+    }
+
     @Override
     public void addVisibility(RetinaProto.AddVisibilityRequest request,
                               StreamObserver<RetinaProto.AddVisibilityResponse> responseObserver)
@@ -554,6 +603,44 @@ public class RetinaServerImpl extends RetinaWorkerServiceGrpc.RetinaWorkerServic
         }
     }
 
+    @Override
+    public void queryVisibilities(RetinaProto.QueryVisibilitiesRequest request,
+                                  StreamObserver<RetinaProto.QueryVisibilitiesResponse> responseObserver)
+    {
+        RetinaProto.ResponseHeader.Builder headerBuilder = RetinaProto.ResponseHeader.newBuilder()
+                .setToken(request.getHeader().getToken());
+
+        try
+        {
+            long[] fileIds = request.getFileIdsList().stream().mapToLong(Long::longValue).toArray();
+            int[] rgIds = request.getRgIdsList().stream().mapToInt(Integer::intValue).toArray();
+            long[][] visibilityBitmaps = this.retinaResourceManager.queryVisibility(
+                    fileIds, rgIds, request.getTimestamp());
+
+            RetinaProto.QueryVisibilitiesResponse.Builder responseBuilder = RetinaProto.QueryVisibilitiesResponse
+                    .newBuilder()
+                    .setHeader(headerBuilder.build());
+            for (long[] visibilityBitmap : visibilityBitmaps)
+            {
+                RetinaProto.VisibilityBitmap.Builder bitmap = RetinaProto.VisibilityBitmap.newBuilder();
+                if (visibilityBitmap != null)
+                {
+                    bitmap.addAllBitmap(Arrays.stream(visibilityBitmap).boxed().collect(Collectors.toList()));
+                }
+                responseBuilder.addBitmaps(bitmap);
+            }
+            responseObserver.onNext(responseBuilder.build());
+            responseObserver.onCompleted();
+        } catch (RetinaException e)
+        {
+            headerBuilder.setErrorCode(1).setErrorMsg(e.getMessage());
+            responseObserver.onNext(RetinaProto.QueryVisibilitiesResponse.newBuilder()
+                    .setHeader(headerBuilder.build())
+                    .build());
+            responseObserver.onCompleted();
+        }
+    }
+
     @Override
     public void reclaimVisibility(RetinaProto.ReclaimVisibilityRequest request,
                                   StreamObserver<RetinaProto.ReclaimVisibilityResponse> responseObserver)
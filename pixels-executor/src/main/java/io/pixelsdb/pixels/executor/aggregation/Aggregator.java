@@ -19,19 +19,21 @@
  */
 package io.pixelsdb.pixels.executor.aggregation;
 
+import io.pixelsdb.pixels.common.physical.Storage;
 import io.pixelsdb.pixels.core.PixelsWriter;
 import io.pixelsdb.pixels.core.TypeDescription;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
 import io.pixelsdb.pixels.executor.aggregation.function.Function;
 import io.pixelsdb.pixels.executor.aggregation.function.FunctionFactory;
+import io.pixelsdb.pixels.executor.spill.SpillException;
+import io.pixelsdb.pixels.executor.spill.Spiller;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -41,10 +43,22 @@ import static java.util.Objects.requireNonNull;
 public class Aggregator
 {
     private static final int MIN_NUM_AGGR_TABLES = 41;
-    private final List<Map<AggrTuple, AggrTuple>> aggrTables;
+    private static final int NUM_SPILL_PARTITIONS = 16;
+    /**
+     * The spilled partitions are not spilled again beyond this level, so that the recursion terminates
+     * even if a single group is too large.
+     */
+    private static final int MAX_SPILL_LEVEL = 4;
+    /**
+     * The hash table that assigns the dense group ids, the aggregation states of the groups are held
+     * by the aggregate functions and indexed by the group ids.
+     */
+    private final GroupByHashTable groupByTable;
     /**
      * The number of aggregate tables. It is an integer multiple of numPartitions if partition is true,
      * or MIN_NUM_AGGR_TABLES if partition is false. It is equal or greater than MIN_NUM_AGGR_TABLES.
+     * The groups are not stored in separate tables any more, but the number of aggregate tables is kept
+     * to compute the partition of each group in the same way as before.
      */
     private final int numAggrTables;
     private final int numPartitions;
@@ -56,6 +70,22 @@ public class Aggregator
     private final List<Integer> groupKeyColumnIdsInResult;
     private final boolean[] groupKeyColumnProjection;
     private final Function[] aggrFunctions;
+    private final TypeDescription inputSchema;
+
+    private long memoryBudget = 0L;
+    private Storage spillStorage;
+    private String spillFolder;
+    /**
+     * The recursion level of the spilled partition that is being aggregated, 0 for the original input.
+     */
+    private int spillLevel = 0;
+    /**
+     * Not null if the memory budget has been exceeded. The existing groups are still aggregated in memory,
+     * whereas the rows of the new groups are spilled into the partitions of this spiller.
+     */
+    private Spiller spiller = null;
+    private long spilledBytes = 0L;
+    private int numSpills = 0;
 
     /**
      * Create the aggregator to compute the aggregation result.
@@ -94,15 +124,18 @@ public class Aggregator
         checkArgument(resultColumnAlias.length == resultColumnTypes.length,
                 "the lengths of column alias and column types of result columns are inconsistent");
 
+        this.inputSchema = inputSchema;
         this.outputSchema = new TypeDescription(TypeDescription.Category.STRUCT);
         List<TypeDescription> inputTypes = inputSchema.getChildren();
         requireNonNull(inputTypes, "children types of the inputSchema is null");
         checkArgument(inputTypes.size() >= groupKeyColumnIds.length + aggrColumnIds.length,
                 "inputSchema does not contain enough columns");
         this.groupKeyColumnIdsInResult = new ArrayList<>(groupKeyColumnIds.length);
+        List<TypeDescription> groupKeyTypes = new ArrayList<>(groupKeyColumnIds.length);
         for (int i = 0; i < groupKeyColumnAlias.length; ++i)
         {
             this.groupKeyColumnIdsInResult.add(i);
+            groupKeyTypes.add(inputTypes.get(groupKeyColumnIds[i]));
             if (groupKeyColumnProjection[i])
             {
                 this.outputSchema.addField(groupKeyColumnAlias[i], inputTypes.get(groupKeyColumnIds[i]));
@@ -136,11 +169,79 @@ public class Aggregator
             this.numAggrTables = MIN_NUM_AGGR_TABLES;
         }
 
-        this.aggrTables = new ArrayList<>(this.numAggrTables);
-        for (int i = 0; i < this.numAggrTables; ++i)
+        this.groupByTable = new GroupByHashTable(groupKeyTypes, groupKeyColumnIds);
+    }
+
+    /**
+     * Create an aggregator with the same aggregations as the prototype but without any group.
+     */
+    private Aggregator(Aggregator prototype)
+    {
+        this.batchSize = prototype.batchSize;
+        this.inputSchema = prototype.inputSchema;
+        this.outputSchema = prototype.outputSchema;
+        this.groupKeyColumnIds = prototype.groupKeyColumnIds;
+        this.aggrColumnIds = prototype.aggrColumnIds;
+        this.groupKeyColumnIdsInResult = prototype.groupKeyColumnIdsInResult;
+        this.groupKeyColumnProjection = prototype.groupKeyColumnProjection;
+        this.partition = prototype.partition;
+        this.numPartitions = prototype.numPartitions;
+        this.numAggrTables = prototype.numAggrTables;
+        this.aggrFunctions = new Function[prototype.aggrFunctions.length];
+        for (int i = 0; i < this.aggrFunctions.length; ++i)
+        {
+            this.aggrFunctions[i] = prototype.aggrFunctions[i].buildCopy();
+        }
+        List<TypeDescription> inputTypes = this.inputSchema.getChildren();
+        List<TypeDescription> groupKeyTypes = new ArrayList<>(this.groupKeyColumnIds.length);
+        for (int groupKeyColumnId : this.groupKeyColumnIds)
+        {
+            groupKeyTypes.add(inputTypes.get(groupKeyColumnId));
+        }
+        this.groupByTable = new GroupByHashTable(groupKeyTypes, this.groupKeyColumnIds);
+    }
+
+    /**
+     * Create an aggregator with the same aggregations as this aggregator but without any group. It is used by
+     * a scan thread to compute the partial aggregation without contending with other threads, and the partial
+     * aggregation is combined into this aggregator by {@link #merge(Aggregator)}.
+     *
+     * @return the new aggregator, spilling is not enabled on it
+     */
+    public Aggregator createPartial()
+    {
+        return new Aggregator(this);
+    }
+
+    /**
+     * Merge the groups and aggregation states of the partial aggregator into this aggregator,
+     * the partial aggregator is cleared after merging. Neither aggregator should have spilled.
+     *
+     * @param partial the partial aggregator created by {@link #createPartial()}
+     */
+    public void merge(Aggregator partial)
+    {
+        requireNonNull(partial, "partial is null");
+        checkArgument(partial.aggrFunctions.length == this.aggrFunctions.length,
+                "the aggregations of the partial aggregator are inconsistent");
+        synchronized (this)
         {
-            this.aggrTables.add(new HashMap<>());
+            checkState(this.spiller == null && partial.spiller == null, "spilled aggregators can not be merged");
+            int numPartialGroups = partial.groupByTable.size();
+            if (numPartialGroups == 0)
+            {
+                return;
+            }
+            int[] groupIds = new int[numPartialGroups];
+            int numGroups = this.groupByTable.merge(partial.groupByTable, groupIds);
+            for (int i = 0; i < this.aggrFunctions.length; ++i)
+            {
+                Function function = this.aggrFunctions[i];
+                function.ensureCapacity(numGroups);
+                function.merge(groupIds, numPartialGroups, partial.aggrFunctions[i]);
+            }
         }
+        partial.clear();
     }
 
     public boolean isPartition()
@@ -154,92 +255,351 @@ public class Aggregator
     }
 
     /**
-     * The user of this method must ensure the tuple is not null and the same tuple
-     * is only put once. Different tuples with the same value of join key are put
-     * into the same bucket.
+     * Enable spilling when the estimated memory usage of the groups exceeds the memory budget. After that,
+     * the rows of the new groups are spilled into hash partitions on the spill storage, and the spilled
+     * partitions are aggregated one by one in {@link #writeAggrOutput(PixelsWriter)}.
+     * This method should be called before {@link #aggregate(VectorizedRowBatch)}.
+     *
+     * @param memoryBudget the memory budget in bytes
+     * @param spillStorage the storage of the spilled partitions
+     * @param spillFolder the folder of the spilled partitions in the spill storage
+     */
+    public void enableSpill(long memoryBudget, Storage spillStorage, String spillFolder)
+    {
+        checkArgument(memoryBudget > 0, "memoryBudget must be positive");
+        this.memoryBudget = memoryBudget;
+        this.spillStorage = requireNonNull(spillStorage, "spillStorage is null");
+        this.spillFolder = requireNonNull(spillFolder, "spillFolder is null");
+    }
+
+    /**
+     * Aggregate the rows in the input row batch. The group ids of the rows are computed at once,
+     * and then the aggregate columns are input into the aggregate functions column-at-a-time.
      *
      * @param inputRowBatch the row batch of the aggregation input
      */
     public void aggregate(VectorizedRowBatch inputRowBatch)
     {
-        AggrTuple.Builder builder = new AggrTuple.Builder(
-                inputRowBatch, this.groupKeyColumnIds, this.groupKeyColumnProjection, this.aggrColumnIds);
-        synchronized (this.aggrTables)
+        // the group-by table and the aggregate functions read the rows by their positions in the column vectors
+        inputRowBatch.compact();
+        int size = inputRowBatch.size;
+        if (size <= 0)
+        {
+            return;
+        }
+        int[] groupIds = new int[size];
+        synchronized (this)
         {
-            while (builder.hasNext())
+            if (this.spiller == null)
             {
-                AggrTuple input = builder.next();
-                int index = input.hashCode() % this.numAggrTables;
-                Map<AggrTuple, AggrTuple> aggrTable = this.aggrTables.get(index < 0 ? -index : index);
-                AggrTuple baseTuple = aggrTable.get(input);
-                if (baseTuple != null)
+                int numGroups = this.groupByTable.put(inputRowBatch, groupIds);
+                input(groupIds, size, numGroups, inputRowBatch);
+                if (this.memoryBudget > 0 && this.spillLevel < MAX_SPILL_LEVEL &&
+                        getMemoryUsage() > this.memoryBudget)
                 {
-                    baseTuple.aggregate(input);
-                } else
+                    this.spiller = new Spiller(this.inputSchema, getNumSpillPartitions(),
+                            this.batchSize, this.spillStorage, this.spillFolder);
+                }
+            }
+            else
+            {
+                int[] hashCodes = this.groupByTable.find(inputRowBatch, groupIds);
+                int numGroups = this.groupByTable.size();
+                int[] spillPartitions = new int[size];
+                for (int i = 0; i < size; ++i)
                 {
-                    // Create the functions.
-                    Function[] functions = new Function[this.aggrFunctions.length];
-                    for (int i = 0; i < this.aggrFunctions.length; ++i)
+                    if (groupIds[i] < 0)
+                    {
+                        // the row is spilled, input it into a dummy group that is never output
+                        groupIds[i] = numGroups;
+                        spillPartitions[i] = getSpillPartition(hashCodes[i]);
+                    }
+                    else
                     {
-                        functions[i] = this.aggrFunctions[i].buildCopy();
+                        spillPartitions[i] = -1;
                     }
-                    input.initFunctions(functions);
-                    aggrTable.put(input, input);
+                }
+                input(groupIds, size, numGroups + 1, inputRowBatch);
+                try
+                {
+                    this.spiller.spill(inputRowBatch, spillPartitions);
+                }
+                catch (IOException e)
+                {
+                    throw new SpillException("failed to spill the aggregation input", e);
                 }
             }
         }
     }
 
+    private void input(int[] groupIds, int size, int numGroups, VectorizedRowBatch inputRowBatch)
+    {
+        for (int i = 0; i < this.aggrFunctions.length; ++i)
+        {
+            Function function = this.aggrFunctions[i];
+            function.ensureCapacity(numGroups);
+            function.input(groupIds, size, inputRowBatch.cols[this.aggrColumnIds[i]]);
+        }
+    }
+
+    /**
+     * @return the estimated heap memory used by the groups and their aggregation states in bytes
+     */
+    private long getMemoryUsage()
+    {
+        return this.groupByTable.getMemoryUsage() +
+                (long) this.groupByTable.size() * this.aggrFunctions.length * Long.BYTES * 2;
+    }
+
+    /**
+     * @return the output partition of the group
+     */
+    private int getPartition(int hashCode)
+    {
+        int index = hashCode % this.numAggrTables;
+        return (index < 0 ? -index : index) % this.numPartitions;
+    }
+
+    private int getNumSpillPartitions()
+    {
+        return this.partition && this.spillLevel == 0 ? this.numPartitions : NUM_SPILL_PARTITIONS;
+    }
+
+    /**
+     * At level 0 of partitioned aggregation, the rows are spilled by their output partitions, so that
+     * each spilled partition contributes to a single output partition.
+     */
+    private int getSpillPartition(int hashCode)
+    {
+        if (this.partition && this.spillLevel == 0)
+        {
+            return getPartition(hashCode);
+        }
+        return Spiller.getPartition(hashCode, this.spillLevel, NUM_SPILL_PARTITIONS);
+    }
+
+    /**
+     * The destination of the output row batches.
+     */
+    private interface OutputSink
+    {
+        void add(VectorizedRowBatch rowBatch, int hash) throws IOException;
+    }
+
     public boolean writeAggrOutput(PixelsWriter pixelsWriter) throws IOException
     {
         VectorizedRowBatch outputRowBatch = this.outputSchema.createRowBatch(this.batchSize, TypeDescription.Mode.NONE);
-        if (partition)
+        OutputSink writerSink = (rowBatch, hash) -> {
+            if (partition)
+            {
+                pixelsWriter.addRowBatch(rowBatch, hash);
+            }
+            else
+            {
+                pixelsWriter.addRowBatch(rowBatch);
+            }
+        };
+        Spiller inputSpiller = this.spiller;
+        this.spiller = null;
+        if (inputSpiller == null)
         {
-            for (int hash = 0; hash < this.numPartitions; ++hash)
+            writeGroups(writerSink, outputRowBatch);
+        }
+        else
+        {
+            try
             {
-                for (int i = hash; i < this.numAggrTables; i += this.numPartitions)
+                inputSpiller.finish();
+                if (partition)
                 {
-                    Map<AggrTuple, AggrTuple> aggrTable = this.aggrTables.get(i);
-                    for (AggrTuple output : aggrTable.values())
+                    /*
+                     * The groups of an output partition must be written contiguously. Thus, the results of the
+                     * in-memory groups are spilled by output partitions, and then written together with the
+                     * results of the spilled input in the same output partition.
+                     */
+                    try (Spiller resultSpiller = new Spiller(this.outputSchema, this.numPartitions,
+                            this.batchSize, this.spillStorage, this.spillFolder))
                     {
-                        if (outputRowBatch.isFull())
+                        writeGroups(resultSpiller::spill, outputRowBatch);
+                        resultSpiller.finish();
+                        addSpillMetrics(resultSpiller);
+                        for (int hash = 0; hash < this.numPartitions; ++hash)
                         {
-                            pixelsWriter.addRowBatch(outputRowBatch, hash);
-                            outputRowBatch.reset();
+                            try (Spiller.PartitionReader reader = resultSpiller.read(hash))
+                            {
+                                if (reader != null)
+                                {
+                                    VectorizedRowBatch rowBatch;
+                                    do
+                                    {
+                                        rowBatch = reader.readBatch();
+                                        if (rowBatch.size > 0)
+                                        {
+                                            pixelsWriter.addRowBatch(rowBatch, hash);
+                                        }
+                                    } while (!rowBatch.endOfFile);
+                                }
+                            }
+                            writeSpilled(inputSpiller, 0, hash, writerSink, outputRowBatch);
                         }
-                        output.writeTo(outputRowBatch);
                     }
                 }
-                if (!outputRowBatch.isEmpty())
+                else
                 {
-                    pixelsWriter.addRowBatch(outputRowBatch, hash);
-                    outputRowBatch.reset();
+                    writeGroups(writerSink, outputRowBatch);
+                    for (int p = 0; p < inputSpiller.getNumPartitions(); ++p)
+                    {
+                        writeSpilled(inputSpiller, 0, p, writerSink, outputRowBatch);
+                    }
                 }
             }
+            finally
+            {
+                addSpillMetrics(inputSpiller);
+                inputSpiller.close();
+            }
         }
-        else
+
+        outputRowBatch.close();
+
+        return true;
+    }
+
+    /**
+     * Aggregate the rows in a spilled partition and write the results into the sink. The spilled
+     * partition may be spilled again, and then it is processed recursively.
+     *
+     * @param spiller the spiller of the spilled partition
+     * @param level the spill level of the spiller
+     * @param partition the spilled partition
+     * @param sink the sink of the results
+     * @param outputRowBatch the row batch to write the results
+     */
+    private void writeSpilled(Spiller spiller, int level, int partition, OutputSink sink,
+                              VectorizedRowBatch outputRowBatch) throws IOException
+    {
+        if (spiller.getNumRows(partition) == 0)
+        {
+            return;
+        }
+        clear();
+        this.spillLevel = level + 1;
+        try (Spiller.PartitionReader reader = spiller.read(partition))
+        {
+            VectorizedRowBatch rowBatch;
+            do
+            {
+                rowBatch = reader.readBatch();
+                if (rowBatch.size > 0)
+                {
+                    aggregate(rowBatch);
+                }
+            } while (!rowBatch.endOfFile);
+        }
+        Spiller childSpiller = this.spiller;
+        this.spiller = null;
+        writeGroups(sink, outputRowBatch);
+        if (childSpiller != null)
+        {
+            try
+            {
+                childSpiller.finish();
+                for (int p = 0; p < childSpiller.getNumPartitions(); ++p)
+                {
+                    writeSpilled(childSpiller, level + 1, p, sink, outputRowBatch);
+                }
+            }
+            finally
+            {
+                addSpillMetrics(childSpiller);
+                childSpiller.close();
+            }
+        }
+    }
+
+    private void addSpillMetrics(Spiller spiller)
+    {
+        this.spilledBytes += spiller.getSpilledBytes();
+        this.numSpills += spiller.getNumSpilledFiles();
+    }
+
+    /**
+     * Write the results of the groups in memory into the sink.
+     */
+    private void writeGroups(OutputSink sink, VectorizedRowBatch outputRowBatch) throws IOException
+    {
+        int numGroups = this.groupByTable.size();
+        if (partition)
         {
-            for (Map<AggrTuple, AggrTuple> aggrTable : this.aggrTables)
+            // counting sort the groups by their partitions
+            int[] partitions = new int[numGroups];
+            int[] offsets = new int[this.numPartitions + 1];
+            for (int groupId = 0; groupId < numGroups; ++groupId)
+            {
+                int hash = getPartition(this.groupByTable.getHashCode(groupId));
+                partitions[groupId] = hash;
+                offsets[hash + 1]++;
+            }
+            for (int hash = 0; hash < this.numPartitions; ++hash)
+            {
+                offsets[hash + 1] += offsets[hash];
+            }
+            int[] sortedGroupIds = new int[numGroups];
+            int[] positions = new int[this.numPartitions];
+            System.arraycopy(offsets, 0, positions, 0, this.numPartitions);
+            for (int groupId = 0; groupId < numGroups; ++groupId)
+            {
+                sortedGroupIds[positions[partitions[groupId]]++] = groupId;
+            }
+
+            for (int hash = 0; hash < this.numPartitions; ++hash)
             {
-                for (AggrTuple output : aggrTable.values())
+                for (int i = offsets[hash]; i < offsets[hash + 1]; ++i)
                 {
                     if (outputRowBatch.isFull())
                     {
-                        pixelsWriter.addRowBatch(outputRowBatch);
+                        sink.add(outputRowBatch, hash);
                         outputRowBatch.reset();
                     }
-                    output.writeTo(outputRowBatch);
+                    writeGroup(sortedGroupIds[i], outputRowBatch);
+                }
+                if (!outputRowBatch.isEmpty())
+                {
+                    sink.add(outputRowBatch, hash);
+                    outputRowBatch.reset();
                 }
             }
+        }
+        else
+        {
+            for (int groupId = 0; groupId < numGroups; ++groupId)
+            {
+                if (outputRowBatch.isFull())
+                {
+                    sink.add(outputRowBatch, 0);
+                    outputRowBatch.reset();
+                }
+                writeGroup(groupId, outputRowBatch);
+            }
             if (!outputRowBatch.isEmpty())
             {
-                pixelsWriter.addRowBatch(outputRowBatch);
+                sink.add(outputRowBatch, 0);
+                outputRowBatch.reset();
             }
         }
+    }
 
-        outputRowBatch.close();
-
-        return true;
+    /**
+     * Write the projected group keys and the aggregation results of the group into the row batch.
+     */
+    private void writeGroup(int groupId, VectorizedRowBatch outputRowBatch)
+    {
+        int start = this.groupByTable.writeKeys(groupId, outputRowBatch, this.groupKeyColumnProjection);
+        for (Function function : this.aggrFunctions)
+        {
+            function.output(groupId, outputRowBatch.cols[start++]);
+        }
+        outputRowBatch.size++;
     }
 
     public TypeDescription getOutputSchema()
@@ -247,12 +607,28 @@ public class Aggregator
         return outputSchema;
     }
 
+    /**
+     * @return the number of bytes spilled by this aggregator, valid after the aggregation output is written
+     */
+    public long getSpilledBytes()
+    {
+        return spilledBytes;
+    }
+
+    /**
+     * @return the number of partitions spilled by this aggregator, valid after the aggregation output is written
+     */
+    public int getNumSpills()
+    {
+        return numSpills;
+    }
+
     public void clear()
     {
-        for (Map<AggrTuple, AggrTuple> aggrTable : this.aggrTables)
+        this.groupByTable.clear();
+        for (int i = 0; i < this.aggrFunctions.length; ++i)
         {
-            aggrTable.clear();
+            this.aggrFunctions[i] = this.aggrFunctions[i].buildCopy();
         }
-        this.aggrTables.clear();
     }
 }
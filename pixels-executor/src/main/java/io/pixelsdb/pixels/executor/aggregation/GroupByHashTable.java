@@ -0,0 +1,342 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.aggregation;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The hash table that maps the group keys to dense group ids (0, 1, 2, ...) for hash aggregation.
+ * <p/>
+ * The distinct group keys are copied into the column vectors of this hash table, one row per group,
+ * and the group ids are stored in an open-addressing (linear probing) slot array. The group ids of
+ * a whole row batch are computed at once, so that the aggregate functions can update their states,
+ * which are indexed by group ids, in tight loops over the input column vectors.
+ * <p/>
+ * In SQL, NULL values in group by are considered equal, thus the rows with null group keys are
+ * also aggregated into the same group.
+ * <p/>
+ * This hash table is not thread safe.
+ *
+ * @create 2026-10-17
+ */
+public class GroupByHashTable
+{
+    private static final int INITIAL_NUM_GROUPS = 1024;
+    private static final int EMPTY = -1;
+
+    private final int[] keyColumnIds;
+    /**
+     * The ids of the group-key columns in {@link #keyColumns}, i.e., 0, 1, 2, ...
+     */
+    private final int[] keyIds;
+    /**
+     * The column vectors of the group keys, the ith row is the key of the ith group.
+     */
+    private final ColumnVector[] keyColumns;
+    /**
+     * The hash code of the group key, computed in the same way as {@link ColumnVector#accumulateHashCode(int[])}.
+     */
+    private int[] groupHashCodes = new int[INITIAL_NUM_GROUPS];
+    private int numGroups = 0;
+    private int groupCapacity = INITIAL_NUM_GROUPS;
+
+    private int[] slots = new int[INITIAL_NUM_GROUPS * 2];
+    private int mask = INITIAL_NUM_GROUPS * 2 - 1;
+
+    /**
+     * @param keyTypes the types of the group-key columns
+     * @param keyColumnIds the ids of the group-key columns in the input row batches
+     */
+    public GroupByHashTable(List<TypeDescription> keyTypes, int[] keyColumnIds)
+    {
+        requireNonNull(keyTypes, "keyTypes is null");
+        checkArgument(keyColumnIds != null && keyColumnIds.length == keyTypes.size(),
+                "keyColumnIds is null or inconsistent with keyTypes");
+        this.keyColumnIds = keyColumnIds;
+        this.keyIds = new int[keyColumnIds.length];
+        for (int i = 0; i < this.keyIds.length; ++i)
+        {
+            this.keyIds[i] = i;
+        }
+        TypeDescription keySchema = new TypeDescription(TypeDescription.Category.STRUCT);
+        for (int i = 0; i < keyTypes.size(); ++i)
+        {
+            keySchema.addField("key_" + i, keyTypes.get(i));
+        }
+        this.keyColumns = keySchema.createRowBatch(INITIAL_NUM_GROUPS, TypeDescription.Mode.NONE).cols;
+        Arrays.fill(this.slots, EMPTY);
+    }
+
+    /**
+     * Find or create the groups for the rows in the row batch.
+     *
+     * @param rowBatch the input row batch
+     * @param groupIds the array to store the group ids, the ith element is set to the id of the
+     *                 group of the ith row in the row batch. It must be at least as long as the row batch
+     * @return the number of groups in this hash table after the row batch is added
+     */
+    public int put(VectorizedRowBatch rowBatch, int[] groupIds)
+    {
+        int size = rowBatch.size;
+        checkArgument(groupIds.length >= size, "groupIds is too short");
+        ColumnVector[] columns = rowBatch.cols;
+        int[] hashCodes = new int[size];
+        for (int id : this.keyColumnIds)
+        {
+            columns[id].accumulateHashCode(hashCodes);
+        }
+        for (int rowId = 0; rowId < size; ++rowId)
+        {
+            groupIds[rowId] = putRow(columns, this.keyColumnIds, rowId, hashCodes[rowId]);
+        }
+        return this.numGroups;
+    }
+
+    /**
+     * Find or create the groups for the groups in the other hash table. This is used to merge the
+     * partial aggregations computed by different threads.
+     *
+     * @param other the other hash table with the same group-key types
+     * @param groupIds the array to store the group ids, the ith element is set to the id of the group
+     *                 in this hash table for the ith group in the other hash table
+     * @return the number of groups in this hash table after the groups in the other hash table are added
+     */
+    public int merge(GroupByHashTable other, int[] groupIds)
+    {
+        checkArgument(groupIds.length >= other.numGroups, "groupIds is too short");
+        checkArgument(other.keyColumns.length == this.keyColumns.length, "the group keys are inconsistent");
+        for (int groupId = 0; groupId < other.numGroups; ++groupId)
+        {
+            groupIds[groupId] = putRow(other.keyColumns, this.keyIds, groupId, other.groupHashCodes[groupId]);
+        }
+        return this.numGroups;
+    }
+
+    /**
+     * Find the groups for the rows in the row batch without creating new groups.
+     *
+     * @param rowBatch the input row batch
+     * @param groupIds the array to store the group ids, the ith element is set to the id of the group
+     *                 of the ith row in the row batch, or -1 if the group does not exist
+     * @return the hash codes of the group keys of the rows
+     */
+    public int[] find(VectorizedRowBatch rowBatch, int[] groupIds)
+    {
+        int size = rowBatch.size;
+        checkArgument(groupIds.length >= size, "groupIds is too short");
+        ColumnVector[] columns = rowBatch.cols;
+        int[] hashCodes = new int[size];
+        for (int id : this.keyColumnIds)
+        {
+            columns[id].accumulateHashCode(hashCodes);
+        }
+        for (int rowId = 0; rowId < size; ++rowId)
+        {
+            int hashCode = hashCodes[rowId];
+            int slot = mix(hashCode) & this.mask;
+            int groupId;
+            while ((groupId = this.slots[slot]) != EMPTY)
+            {
+                if (this.groupHashCodes[groupId] == hashCode &&
+                        keyEquals(groupId, columns, this.keyColumnIds, rowId))
+                {
+                    break;
+                }
+                slot = (slot + 1) & this.mask;
+            }
+            groupIds[rowId] = groupId;
+        }
+        return hashCodes;
+    }
+
+    /**
+     * @return the number of groups in this hash table
+     */
+    public int size()
+    {
+        return this.numGroups;
+    }
+
+    /**
+     * @param groupId the group id
+     * @return the hash code of the group key
+     */
+    public int getHashCode(int groupId)
+    {
+        return this.groupHashCodes[groupId];
+    }
+
+    /**
+     * @return the estimated heap memory used by this hash table in bytes
+     */
+    public long getMemoryUsage()
+    {
+        long memoryUsage = (long) this.groupCapacity * Integer.BYTES + (long) this.slots.length * Integer.BYTES;
+        for (ColumnVector keyColumn : this.keyColumns)
+        {
+            memoryUsage += keyColumn.getMemoryUsage();
+        }
+        return memoryUsage;
+    }
+
+    /**
+     * Write the projected group-key columns of the group into the row batch.
+     * The size of the row batch is not changed.
+     *
+     * @param groupId the group id
+     * @param rowBatch the row batch
+     * @param projection whether the group-key columns are written into the row batch
+     * @return the index of the next column in the row batch to write
+     */
+    public int writeKeys(int groupId, VectorizedRowBatch rowBatch, boolean[] projection)
+    {
+        int start = 0;
+        for (int i = 0; i < this.keyColumns.length; ++i)
+        {
+            if (projection[i])
+            {
+                rowBatch.cols[start++].addElement(groupId, this.keyColumns[i]);
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Remove all the groups from this hash table.
+     */
+    public void clear()
+    {
+        for (ColumnVector keyColumn : this.keyColumns)
+        {
+            keyColumn.reset();
+        }
+        this.numGroups = 0;
+        Arrays.fill(this.slots, EMPTY);
+    }
+
+    /**
+     * Find or create the group for the row.
+     *
+     * @param columns the column vectors of the row
+     * @param columnIds the ids of the group-key columns in the column vectors
+     * @param rowId the row id in the column vectors
+     * @param hashCode the hash code of the group key of the row
+     * @return the group id
+     */
+    private int putRow(ColumnVector[] columns, int[] columnIds, int rowId, int hashCode)
+    {
+        int slot = mix(hashCode) & this.mask;
+        int groupId;
+        while ((groupId = this.slots[slot]) != EMPTY)
+        {
+            if (this.groupHashCodes[groupId] == hashCode && keyEquals(groupId, columns, columnIds, rowId))
+            {
+                return groupId;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        groupId = addGroup(columns, columnIds, rowId, hashCode);
+        this.slots[slot] = groupId;
+        if (this.numGroups * 2 > this.slots.length)
+        {
+            rehash();
+        }
+        return groupId;
+    }
+
+    private boolean keyEquals(int groupId, ColumnVector[] columns, int[] columnIds, int rowId)
+    {
+        for (int i = 0; i < columnIds.length; ++i)
+        {
+            ColumnVector keyColumn = this.keyColumns[i];
+            ColumnVector column = columns[columnIds[i]];
+            boolean keyIsNull = !keyColumn.noNulls && keyColumn.isNull[groupId];
+            boolean isNull = !column.noNulls && column.isNull[rowId];
+            if (keyIsNull || isNull)
+            {
+                if (keyIsNull && isNull)
+                {
+                    continue;
+                }
+                return false;
+            }
+            if (!keyColumn.elementEquals(groupId, rowId, column))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addGroup(ColumnVector[] columns, int[] columnIds, int rowId, int hashCode)
+    {
+        if (this.numGroups == this.groupCapacity)
+        {
+            this.groupCapacity *= 2;
+            this.groupHashCodes = Arrays.copyOf(this.groupHashCodes, this.groupCapacity);
+            for (ColumnVector keyColumn : this.keyColumns)
+            {
+                keyColumn.ensureSize(this.groupCapacity, true);
+            }
+        }
+        for (int i = 0; i < columnIds.length; ++i)
+        {
+            this.keyColumns[i].addElement(rowId, columns[columnIds[i]]);
+        }
+        this.groupHashCodes[this.numGroups] = hashCode;
+        return this.numGroups++;
+    }
+
+    private void rehash()
+    {
+        int newNumSlots = this.slots.length * 2;
+        int newMask = newNumSlots - 1;
+        int[] newSlots = new int[newNumSlots];
+        Arrays.fill(newSlots, EMPTY);
+        for (int groupId = 0; groupId < this.numGroups; ++groupId)
+        {
+            int slot = mix(this.groupHashCodes[groupId]) & newMask;
+            while (newSlots[slot] != EMPTY)
+            {
+                slot = (slot + 1) & newMask;
+            }
+            newSlots[slot] = groupId;
+        }
+        this.slots = newSlots;
+        this.mask = newMask;
+    }
+
+    /**
+     * Spread the bits of the hash code, as the hash codes of integer keys are not well distributed.
+     */
+    private static int mix(int hashCode)
+    {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
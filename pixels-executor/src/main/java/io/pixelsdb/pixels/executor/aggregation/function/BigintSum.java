@@ -22,30 +22,67 @@ package io.pixelsdb.pixels.executor.aggregation.function;
 import io.pixelsdb.pixels.core.vector.ColumnVector;
 import io.pixelsdb.pixels.core.vector.LongColumnVector;
 
+import java.util.Arrays;
+
 /**
  * @author hank
  * @date 07/07/2022
  */
 public class BigintSum extends SingleColumnFunction
 {
-    private long value = 0;
+    private long[] values = new long[INITIAL_CAPACITY];
 
     protected BigintSum() { }
 
     @Override
-    public void input(int rowId, ColumnVector inputVector)
+    public void ensureCapacity(int numGroups)
+    {
+        if (numGroups > this.values.length)
+        {
+            this.values = Arrays.copyOf(this.values, grow(this.values.length, numGroups));
+        }
+    }
+
+    @Override
+    public void input(int[] groupIds, int size, ColumnVector inputVector)
+    {
+        long[] vector = ((LongColumnVector) inputVector).vector;
+        long[] values = this.values;
+        if (inputVector.noNulls)
+        {
+            for (int i = 0; i < size; ++i)
+            {
+                values[groupIds[i]] += vector[i];
+            }
+        }
+        else
+        {
+            boolean[] isNull = inputVector.isNull;
+            for (int i = 0; i < size; ++i)
+            {
+                if (!isNull[i])
+                {
+                    values[groupIds[i]] += vector[i];
+                }
+            }
+        }
+    }
+
+    @Override
+    public void merge(int[] groupIds, int numGroups, Function other)
     {
-        if (inputVector.noNulls || !inputVector.isNull[rowId])
+        long[] otherValues = ((BigintSum) other).values;
+        long[] values = this.values;
+        for (int i = 0; i < numGroups; ++i)
         {
-            LongColumnVector longColumnVector = (LongColumnVector) inputVector;
-            this.value += longColumnVector.vector[rowId];
+            values[groupIds[i]] += otherValues[i];
         }
     }
 
     @Override
-    public void output(ColumnVector outputVector)
+    public void output(int groupId, ColumnVector outputVector)
     {
-        outputVector.add(value);
+        outputVector.add(this.values[groupId]);
     }
 
     @Override
@@ -25,6 +25,8 @@ import io.pixelsdb.pixels.core.vector.ColumnVector;
 import io.pixelsdb.pixels.core.vector.DecimalColumnVector;
 import io.pixelsdb.pixels.core.vector.LongDecimalColumnVector;
 
+import java.util.Arrays;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.pixelsdb.pixels.core.TypeDescription.MAX_SHORT_DECIMAL_SCALE;
 
@@ -38,8 +40,12 @@ public class DecimalSum extends SingleColumnFunction
     private final TypeDescription outputType;
     private final boolean inputIsLong;
     private final boolean outputIsLong;
-    private Integer128 longValue;
-    private long shortValue = 0;
+    /**
+     * The high and low 64 bits of the sums if the output is long decimal, or the sums in the low 64 bits
+     * if the output is short decimal.
+     */
+    private long[] highValues;
+    private long[] lowValues = new long[INITIAL_CAPACITY];
 
     protected DecimalSum(TypeDescription inputType, TypeDescription outputType)
     {
@@ -50,7 +56,7 @@ public class DecimalSum extends SingleColumnFunction
         if (outputType.getPrecision() > MAX_SHORT_DECIMAL_SCALE)
         {
             this.outputIsLong = true;
-            this.longValue = new Integer128(0L, 0L);
+            this.highValues = new long[INITIAL_CAPACITY];
         }
         else
         {
@@ -63,41 +69,111 @@ public class DecimalSum extends SingleColumnFunction
     }
 
     @Override
-    public void input(int rowId, ColumnVector inputVector)
+    public void ensureCapacity(int numGroups)
     {
-        if (inputVector.noNulls || !inputVector.isNull[rowId])
+        if (numGroups > this.lowValues.length)
         {
-            if (inputIsLong)
+            int capacity = grow(this.lowValues.length, numGroups);
+            this.lowValues = Arrays.copyOf(this.lowValues, capacity);
+            if (this.outputIsLong)
             {
-                LongDecimalColumnVector decimalColumnVector = (LongDecimalColumnVector) inputVector;
-                // Issue #647: if the input type is long decimal, the output type must be long decimal too.
-                longValue.add(decimalColumnVector.vector[rowId * 2], decimalColumnVector.vector[rowId * 2 + 1]);
+                this.highValues = Arrays.copyOf(this.highValues, capacity);
             }
-            else
+        }
+    }
+
+    @Override
+    public void input(int[] groupIds, int size, ColumnVector inputVector)
+    {
+        boolean[] isNull = inputVector.noNulls ? null : inputVector.isNull;
+        if (inputIsLong)
+        {
+            // Issue #647: if the input type is long decimal, the output type must be long decimal too.
+            long[] vector = ((LongDecimalColumnVector) inputVector).vector;
+            for (int i = 0; i < size; ++i)
             {
-                DecimalColumnVector decimalColumnVector = (DecimalColumnVector) inputVector;
-                // Issue #647: if the input type is short decimal, the output could be short or long decimal.
-                if (outputIsLong)
+                if (isNull == null || !isNull[i])
                 {
-                    longValue.add(0L, decimalColumnVector.vector[rowId]);
-                } else
+                    add(groupIds[i], vector[i * 2], vector[i * 2 + 1]);
+                }
+            }
+        }
+        else
+        {
+            // Issue #647: if the input type is short decimal, the output could be short or long decimal.
+            long[] vector = ((DecimalColumnVector) inputVector).vector;
+            if (outputIsLong)
+            {
+                for (int i = 0; i < size; ++i)
+                {
+                    if (isNull == null || !isNull[i])
+                    {
+                        add(groupIds[i], vector[i] >> 63, vector[i]);
+                    }
+                }
+            }
+            else
+            {
+                long[] values = this.lowValues;
+                for (int i = 0; i < size; ++i)
                 {
-                    shortValue += decimalColumnVector.vector[rowId];
+                    if (isNull == null || !isNull[i])
+                    {
+                        values[groupIds[i]] += vector[i];
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Add the 128-bit integer to the sum of the group.
+     */
+    private void add(int groupId, long high, long low)
+    {
+        long oldHigh = this.highValues[groupId];
+        long oldLow = this.lowValues[groupId];
+        long newLow = oldLow + low;
+        long newHigh = oldHigh + high + (Long.compareUnsigned(newLow, oldLow) < 0 ? 1 : 0);
+        if (((oldHigh ^ newHigh) & (high ^ newHigh)) < 0)
+        {
+            throw new ArithmeticException("decimal sum out of Integer128 range");
+        }
+        this.highValues[groupId] = newHigh;
+        this.lowValues[groupId] = newLow;
+    }
+
+    @Override
+    public void merge(int[] groupIds, int numGroups, Function other)
+    {
+        DecimalSum otherSum = (DecimalSum) other;
+        if (outputIsLong)
+        {
+            for (int i = 0; i < numGroups; ++i)
+            {
+                add(groupIds[i], otherSum.highValues[i], otherSum.lowValues[i]);
+            }
+        }
+        else
+        {
+            long[] values = this.lowValues;
+            for (int i = 0; i < numGroups; ++i)
+            {
+                values[groupIds[i]] += otherSum.lowValues[i];
+            }
+        }
+    }
+
     @Override
-    public void output(ColumnVector outputVector)
+    public void output(int groupId, ColumnVector outputVector)
     {
         if (outputIsLong)
         {
-            outputVector.add(longValue);
+            outputVector.add(new Integer128(this.highValues[groupId], this.lowValues[groupId]));
         }
         else
         {
-            outputVector.add(shortValue);
+            outputVector.add(this.lowValues[groupId]);
         }
     }
 
@@ -23,6 +23,10 @@ import io.pixelsdb.pixels.core.vector.ColumnVector;
 
 /**
  * The interface for aggregate functions, such as sum, min, max.
+ * <p/>
+ * An aggregate function holds the aggregation states of all the groups in the aggregation, and
+ * the states are indexed by the group ids assigned by {@link io.pixelsdb.pixels.executor.aggregation.GroupByHashTable}.
+ * The elements in the input vectors are input into the states of their groups batch-at-a-time.
  *
  * @author hank
  * @date 07/07/2022
@@ -30,38 +34,64 @@ import io.pixelsdb.pixels.core.vector.ColumnVector;
 public interface Function
 {
     /**
-     * Input an element into this function. This is used by the single-column aggregations.
+     * Ensure this function has the states for the given number of groups. The states of
+     * the new groups are initialized.
      *
-     * @param rowId the index of the element in the input vector
+     * @param numGroups the number of groups
+     */
+    void ensureCapacity(int numGroups);
+
+    /**
+     * Input the elements into this function. This is used by the single-column aggregations.
+     *
+     * @param groupIds the ith element is the id of the group of the ith element in the input vector
+     * @param size the number of elements to input, starting from the first element in the input vector
      * @param inputVector the input vector
      */
-    void input(int rowId, ColumnVector inputVector);
+    void input(int[] groupIds, int size, ColumnVector inputVector);
 
     /**
      * Input a set of elements into this function. This is used by multi-column aggregations.
      * Each element is an argument of the expression of the aggregation.
      *
-     * @param rowId the index of the elements in the input vectors
+     * @param groupIds the ith element is the id of the group of the ith elements in the input vectors
+     * @param size the number of elements to input from each input vector
      * @param inputVectors the input vectors
      */
-    void input(int rowId, ColumnVector... inputVectors);
+    void input(int[] groupIds, int size, ColumnVector... inputVectors);
 
     /**
-     * Output the aggregation result into the output vector. This is used by the aggregation
+     * Output the aggregation result of the group into the output vector. This is used by the aggregation
      * that generates a single-value result, e.g., sum(), min(), max().
      *
+     * @param groupId the id of the group
      * @param outputVector the output vector
      */
-    void output(ColumnVector outputVector);
+    void output(int groupId, ColumnVector outputVector);
 
     /**
-     * Output the aggregation result into the output vectors. This is used by the aggregation
+     * Output the aggregation result of the group into the output vectors. This is used by the aggregation
      * that generates a multi-value result, e.g., for avg(), we have to write two values,
      * sum and count, into the output.
      *
+     * @param groupId the id of the group
      * @param outputVectors the output vectors
      */
-    void output(ColumnVector... outputVectors);
+    void output(int groupId, ColumnVector... outputVectors);
+
+    /**
+     * Merge the aggregation states of the groups in the other function into the states of this function.
+     * This is used to combine the partial aggregations computed by different threads.
+     *
+     * @param groupIds the ith element is the id of the group in this function that the ith group
+     *                 in the other function is merged into
+     * @param numGroups the number of groups to merge, starting from the first group in the other function
+     * @param other the other function, must be built by {@link #buildCopy()} of the same function
+     */
+    void merge(int[] groupIds, int numGroups, Function other);
 
+    /**
+     * @return a new function of the same type with no group
+     */
     Function buildCopy();
 }
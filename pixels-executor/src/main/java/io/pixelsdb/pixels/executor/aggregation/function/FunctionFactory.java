@@ -49,6 +49,9 @@ public class FunctionFactory
                 return createSum(inputType, outputType);
             case COUNT:
                 return new Count();
+            case MIN:
+            case MAX:
+                return createMinMax(functionType == FunctionType.MIN, inputType);
             default:
                 // TODO: support more function types.
                 throw new UnsupportedOperationException(
@@ -72,4 +75,14 @@ public class FunctionFactory
                         "input type '" + inputType.getCategory() +"' is not supported in SUM");
         }
     }
+
+    private Function createMinMax(boolean isMin, TypeDescription inputType)
+    {
+        if (MinMax.isSupported(inputType))
+        {
+            return new MinMax(isMin, inputType);
+        }
+        throw new UnsupportedOperationException(
+                "input type '" + inputType.getCategory() +"' is not supported in MIN/MAX");
+    }
 }
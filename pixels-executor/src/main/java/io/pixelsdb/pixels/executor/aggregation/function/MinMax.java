@@ -0,0 +1,223 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.aggregation.function;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.*;
+
+import java.util.Arrays;
+
+import static io.pixelsdb.pixels.core.TypeDescription.MAX_SHORT_DECIMAL_PRECISION;
+
+/**
+ * The min() or max() aggregate function on the numeric, date, and time types. The states of
+ * the groups are stored as longs; the double values are stored as their raw long bits.
+ * If all the input elements of a group are null, the result of the group is null.
+ *
+ * @create 2026-10-17
+ */
+public class MinMax extends SingleColumnFunction
+{
+    private final boolean isMin;
+    private final TypeDescription inputType;
+    private long[] values = new long[INITIAL_CAPACITY];
+    private boolean[] hasValues = new boolean[INITIAL_CAPACITY];
+
+    protected MinMax(boolean isMin, TypeDescription inputType)
+    {
+        this.isMin = isMin;
+        this.inputType = inputType;
+    }
+
+    public static boolean isSupported(TypeDescription inputType)
+    {
+        switch (inputType.getCategory())
+        {
+            case SHORT:
+            case INT:
+            case LONG:
+            case DATE:
+            case TIME:
+            case DOUBLE:
+                return true;
+            case DECIMAL:
+                return inputType.getPrecision() <= MAX_SHORT_DECIMAL_PRECISION;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void ensureCapacity(int numGroups)
+    {
+        if (numGroups > this.values.length)
+        {
+            int capacity = grow(this.values.length, numGroups);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.hasValues = Arrays.copyOf(this.hasValues, capacity);
+        }
+    }
+
+    @Override
+    public void input(int[] groupIds, int size, ColumnVector inputVector)
+    {
+        boolean[] isNull = inputVector.noNulls ? null : inputVector.isNull;
+        if (inputVector instanceof LongColumnVector)
+        {
+            long[] vector = ((LongColumnVector) inputVector).vector;
+            for (int i = 0; i < size; ++i)
+            {
+                if (isNull == null || !isNull[i])
+                {
+                    update(groupIds[i], vector[i]);
+                }
+            }
+        }
+        else if (inputVector instanceof DecimalColumnVector)
+        {
+            long[] vector = ((DecimalColumnVector) inputVector).vector;
+            for (int i = 0; i < size; ++i)
+            {
+                if (isNull == null || !isNull[i])
+                {
+                    update(groupIds[i], vector[i]);
+                }
+            }
+        }
+        else if (inputVector instanceof DoubleColumnVector)
+        {
+            long[] vector = ((DoubleColumnVector) inputVector).vector;
+            for (int i = 0; i < size; ++i)
+            {
+                if (isNull == null || !isNull[i])
+                {
+                    updateDouble(groupIds[i], vector[i]);
+                }
+            }
+        }
+        else if (inputVector instanceof DateColumnVector)
+        {
+            int[] dates = ((DateColumnVector) inputVector).dates;
+            for (int i = 0; i < size; ++i)
+            {
+                if (isNull == null || !isNull[i])
+                {
+                    update(groupIds[i], dates[i]);
+                }
+            }
+        }
+        else if (inputVector instanceof TimeColumnVector)
+        {
+            int[] times = ((TimeColumnVector) inputVector).times;
+            for (int i = 0; i < size; ++i)
+            {
+                if (isNull == null || !isNull[i])
+                {
+                    update(groupIds[i], times[i]);
+                }
+            }
+        }
+        else
+        {
+            throw new UnsupportedOperationException(
+                    "input vector '" + inputVector.getClass().getSimpleName() + "' is not supported in MIN/MAX");
+        }
+    }
+
+    private void update(int groupId, long value)
+    {
+        if (!this.hasValues[groupId])
+        {
+            this.values[groupId] = value;
+            this.hasValues[groupId] = true;
+        }
+        else if (this.isMin ? value < this.values[groupId] : value > this.values[groupId])
+        {
+            this.values[groupId] = value;
+        }
+    }
+
+    private void updateDouble(int groupId, long bits)
+    {
+        if (!this.hasValues[groupId])
+        {
+            this.values[groupId] = bits;
+            this.hasValues[groupId] = true;
+            return;
+        }
+        double value = Double.longBitsToDouble(bits);
+        double current = Double.longBitsToDouble(this.values[groupId]);
+        if (this.isMin ? value < current : value > current)
+        {
+            this.values[groupId] = bits;
+        }
+    }
+
+    @Override
+    public void merge(int[] groupIds, int numGroups, Function other)
+    {
+        MinMax otherMinMax = (MinMax) other;
+        boolean isDouble = this.inputType.getCategory() == TypeDescription.Category.DOUBLE;
+        for (int i = 0; i < numGroups; ++i)
+        {
+            if (otherMinMax.hasValues[i])
+            {
+                if (isDouble)
+                {
+                    updateDouble(groupIds[i], otherMinMax.values[i]);
+                }
+                else
+                {
+                    update(groupIds[i], otherMinMax.values[i]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void output(int groupId, ColumnVector outputVector)
+    {
+        if (!this.hasValues[groupId])
+        {
+            outputVector.addNull();
+            return;
+        }
+        long value = this.values[groupId];
+        switch (this.inputType.getCategory())
+        {
+            case DATE:
+            case TIME:
+                outputVector.add((int) value);
+                break;
+            case DOUBLE:
+                outputVector.add(Double.longBitsToDouble(value));
+                break;
+            default:
+                outputVector.add(value);
+                break;
+        }
+    }
+
+    @Override
+    public Function buildCopy()
+    {
+        return new MinMax(this.isMin, this.inputType);
+    }
+}
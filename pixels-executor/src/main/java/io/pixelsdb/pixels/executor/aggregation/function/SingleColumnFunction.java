@@ -27,14 +27,26 @@ import io.pixelsdb.pixels.core.vector.ColumnVector;
  */
 public abstract class SingleColumnFunction implements Function
 {
+    protected static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * @param capacity the current capacity of the states
+     * @param numGroups the required number of groups
+     * @return the new capacity of the states that is at least numGroups
+     */
+    protected static int grow(int capacity, int numGroups)
+    {
+        return Math.max(capacity * 2, numGroups);
+    }
+
     @Override
-    public void input(int rowId, ColumnVector... inputVectors)
+    public void input(int[] groupIds, int size, ColumnVector... inputVectors)
     {
         throw new UnsupportedOperationException("multi-column aggregation is not supported");
     }
 
     @Override
-    public void output(ColumnVector... outputVectors)
+    public void output(int groupId, ColumnVector... outputVectors)
     {
         throw new UnsupportedOperationException("multi-output aggregation is not supported");
     }
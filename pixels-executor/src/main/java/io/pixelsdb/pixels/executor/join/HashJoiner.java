@@ -19,24 +19,64 @@
  */
 package io.pixelsdb.pixels.executor.join;
 
+import io.pixelsdb.pixels.common.physical.Storage;
 import io.pixelsdb.pixels.core.PixelsWriter;
 import io.pixelsdb.pixels.core.TypeDescription;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
-import io.pixelsdb.pixels.executor.utils.HashTable;
-import io.pixelsdb.pixels.executor.utils.Tuple;
+import io.pixelsdb.pixels.executor.spill.SpillException;
+import io.pixelsdb.pixels.executor.spill.Spiller;
+import io.pixelsdb.pixels.executor.utils.ColumnarHashTable;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 public class HashJoiner extends Joiner
 {
-    private final HashTable smallTable = new HashTable();
+    private static final int NUM_SPILL_PARTITIONS = 16;
+    /**
+     * The spilled partitions are not spilled again beyond this level, so that the recursion terminates
+     * even if a single join key is too large.
+     */
+    private static final int MAX_SPILL_LEVEL = 4;
+
+    private ColumnarHashTable smallTable;
+    private final String[] smallColumnAlias;
+    private final String[] largeColumnAlias;
+    private final int numSmallIncludedColumns;
+    private final int numLargeIncludedColumns;
+
+    private long memoryBudget = 0L;
+    private Storage spillStorage;
+    private String spillFolder;
+    /**
+     * The recursion level of the spilled partition joined by this joiner, 0 for the original input.
+     */
+    private int spillLevel = 0;
+    /**
+     * The row batches in the small table, kept for re-partitioning the small table if spilling is enabled.
+     */
+    private List<VectorizedRowBatch> smallBatches = new ArrayList<>();
+    /**
+     * The rows in the spill partitions [0, numInMemoryPartitions) are joined in memory,
+     * and the rows in the other spill partitions are spilled.
+     */
+    private int numInMemoryPartitions = NUM_SPILL_PARTITIONS;
+    private Spiller smallSpiller = null;
+    private Spiller largeSpiller = null;
+    /**
+     * The left outer join results of the spilled partitions, shared by the joiners of the spilled partitions.
+     */
+    private Spiller leftOuterSpiller = null;
+    private long spilledBytes = 0L;
+    private int numSpills = 0;
+
     public HashJoiner(JoinType joinType,
                   TypeDescription smallSchema, String[] smallColumnAlias,
                   boolean[] smallProjection, int[] smallKeyColumnIds,
@@ -44,6 +84,46 @@ public class HashJoiner extends Joiner
                   boolean[] largeProjection, int[] largeKeyColumnIds)
     {
         super(joinType, smallSchema, smallColumnAlias, smallProjection, smallKeyColumnIds, largeSchema, largeColumnAlias, largeProjection, largeKeyColumnIds);
+        this.smallTable = new ColumnarHashTable(smallKeyColumnIds, smallProjection);
+        this.smallColumnAlias = smallColumnAlias;
+        this.largeColumnAlias = largeColumnAlias;
+        this.numSmallIncludedColumns = smallColumnAlias.length;
+        this.numLargeIncludedColumns = largeColumnAlias.length;
+    }
+
+    /**
+     * Create the joiner for a spilled partition of the parent joiner.
+     */
+    private HashJoiner(HashJoiner parent)
+    {
+        this(parent.joinType, parent.smallSchema, parent.smallColumnAlias, parent.smallProjection,
+                parent.smallKeyColumnIds, parent.largeSchema, parent.largeColumnAlias, parent.largeProjection,
+                parent.largeKeyColumnIds);
+        this.memoryBudget = parent.memoryBudget;
+        this.spillStorage = parent.spillStorage;
+        this.spillFolder = parent.spillFolder;
+        this.spillLevel = parent.spillLevel + 1;
+        this.leftOuterSpiller = parent.leftOuterSpiller;
+    }
+
+    /**
+     * Enable spilling when the estimated memory usage of the small table exceeds the memory budget.
+     * This is a hybrid hash join: the join keys are hashed into a number of spill partitions, the
+     * small table is shrunk by spilling some of the partitions, and the rows from the large table in the
+     * spilled partitions are spilled as well. The spilled partitions are joined by
+     * {@link #joinSpilled(Consumer)} after the in-memory partitions are joined.
+     * This method should be called before {@link #populateLeftTable(VectorizedRowBatch)}.
+     *
+     * @param memoryBudget the memory budget in bytes
+     * @param spillStorage the storage of the spilled partitions
+     * @param spillFolder the folder of the spilled partitions in the spill storage
+     */
+    public void enableSpill(long memoryBudget, Storage spillStorage, String spillFolder)
+    {
+        checkArgument(memoryBudget > 0, "memoryBudget must be positive");
+        this.memoryBudget = memoryBudget;
+        this.spillStorage = requireNonNull(spillStorage, "spillStorage is null");
+        this.spillFolder = requireNonNull(spillFolder, "spillFolder is null");
     }
 
     @Override
@@ -51,30 +131,190 @@ public class HashJoiner extends Joiner
     {
         requireNonNull(smallBatch, "smallBatch is null");
         checkArgument(smallBatch.size > 0, "smallBatch is empty");
-        Tuple.Builder builder = new Tuple.Builder(smallBatch, this.smallKeyColumnIds, this.smallProjection);
-        synchronized (this.smallTable)
+        synchronized (this)
         {
-            while (builder.hasNext())
+            try
             {
-                Tuple tuple = builder.next();
-                this.smallTable.put(tuple);
+                putSmall(smallBatch);
+                while (this.memoryBudget > 0 && this.spillLevel < MAX_SPILL_LEVEL &&
+                        this.numInMemoryPartitions > 0 && this.smallTable.getMemoryUsage() > this.memoryBudget)
+                {
+                    spillSmallTable();
+                }
+            }
+            catch (IOException e)
+            {
+                throw new SpillException("failed to spill the small table", e);
             }
         }
     }
 
+    /**
+     * Put the rows in the in-memory partitions into the small table, and spill the other rows.
+     */
+    private void putSmall(VectorizedRowBatch smallBatch) throws IOException
+    {
+        if (this.smallSpiller == null)
+        {
+            this.smallTable.put(smallBatch);
+            if (this.memoryBudget > 0)
+            {
+                this.smallBatches.add(smallBatch);
+            }
+            return;
+        }
+        int[] partitions = getSpillPartitions(smallBatch, this.smallKeyColumnIds);
+        int[] selected = new int[smallBatch.size];
+        int numSelected = 0;
+        for (int i = 0; i < smallBatch.size; ++i)
+        {
+            if (partitions[i] < this.numInMemoryPartitions)
+            {
+                selected[numSelected++] = i;
+                partitions[i] = -1;
+            }
+        }
+        this.smallSpiller.spill(smallBatch, partitions);
+        if (numSelected == smallBatch.size)
+        {
+            this.smallTable.put(smallBatch);
+            this.smallBatches.add(smallBatch);
+        }
+        else if (numSelected > 0)
+        {
+            VectorizedRowBatch inMemoryBatch = this.smallSchema.createRowBatch(numSelected, TypeDescription.Mode.NONE);
+            inMemoryBatch.addSelected(selected, 0, numSelected, smallBatch);
+            this.smallTable.put(inMemoryBatch);
+            this.smallBatches.add(inMemoryBatch);
+        }
+    }
+
+    /**
+     * Spill more partitions of the small table, so that the memory usage of the small table
+     * is reduced to about half of the memory budget.
+     */
+    private void spillSmallTable() throws IOException
+    {
+        long memoryUsage = this.smallTable.getMemoryUsage();
+        int numInMemory = (int) (this.numInMemoryPartitions * (this.memoryBudget / 2.0) / memoryUsage);
+        this.numInMemoryPartitions = Math.max(0, Math.min(numInMemory, this.numInMemoryPartitions - 1));
+        if (this.smallSpiller == null)
+        {
+            this.smallSpiller = new Spiller(this.smallSchema, NUM_SPILL_PARTITIONS,
+                    VectorizedRowBatch.DEFAULT_SIZE, this.spillStorage, this.spillFolder);
+        }
+        List<VectorizedRowBatch> batches = this.smallBatches;
+        this.smallBatches = new ArrayList<>();
+        this.smallTable = new ColumnarHashTable(this.smallKeyColumnIds, this.smallProjection);
+        for (VectorizedRowBatch batch : batches)
+        {
+            putSmall(batch);
+        }
+    }
+
+    private int[] getSpillPartitions(VectorizedRowBatch rowBatch, int[] keyColumnIds)
+    {
+        int[] partitions = new int[rowBatch.size];
+        for (int id : keyColumnIds)
+        {
+            rowBatch.cols[id].accumulateHashCode(partitions);
+        }
+        for (int i = 0; i < partitions.length; ++i)
+        {
+            partitions[i] = Spiller.getPartition(partitions[i], this.spillLevel, NUM_SPILL_PARTITIONS);
+        }
+        return partitions;
+    }
+
+    private synchronized Spiller getLargeSpiller()
+    {
+        if (this.largeSpiller == null)
+        {
+            this.largeSpiller = new Spiller(this.largeSchema, NUM_SPILL_PARTITIONS,
+                    VectorizedRowBatch.DEFAULT_SIZE, this.spillStorage, this.spillFolder);
+        }
+        return this.largeSpiller;
+    }
+
+    /**
+     * Spill the rows from the large table in the spilled partitions.
+     *
+     * @return the row batch of the rows in the in-memory partitions, or null if there is no such row
+     */
+    private VectorizedRowBatch spillLarge(VectorizedRowBatch largeBatch) throws IOException
+    {
+        boolean rightOuter = this.joinType == JoinType.EQUI_RIGHT || this.joinType == JoinType.EQUI_FULL;
+        int[] partitions = getSpillPartitions(largeBatch, this.largeKeyColumnIds);
+        int[] selected = new int[largeBatch.size];
+        int numSelected = 0;
+        boolean spill = false;
+        for (int i = 0; i < largeBatch.size; ++i)
+        {
+            int partition = partitions[i];
+            if (partition < this.numInMemoryPartitions)
+            {
+                selected[numSelected++] = i;
+                partitions[i] = -1;
+            }
+            else if (!rightOuter && this.smallSpiller.getNumRows(partition) == 0)
+            {
+                // the row does not have any match and is not needed by outer join
+                partitions[i] = -1;
+            }
+            else
+            {
+                spill = true;
+            }
+        }
+        if (spill)
+        {
+            getLargeSpiller().spill(largeBatch, partitions);
+        }
+        if (numSelected == largeBatch.size)
+        {
+            return largeBatch;
+        }
+        if (numSelected == 0)
+        {
+            return null;
+        }
+        VectorizedRowBatch inMemoryBatch = this.largeSchema.createRowBatch(largeBatch.maxSize, TypeDescription.Mode.NONE);
+        inMemoryBatch.addSelected(selected, 0, numSelected, largeBatch);
+        return inMemoryBatch;
+    }
+
     @Override
     public List<VectorizedRowBatch> join(VectorizedRowBatch largeBatch)
     {
         requireNonNull(largeBatch, "largeBatch is null");
         checkArgument(largeBatch.size > 0, "largeBatch is empty");
         List<VectorizedRowBatch> result = new LinkedList<>();
+        if (this.smallSpiller != null)
+        {
+            try
+            {
+                largeBatch = spillLarge(largeBatch.compact());
+            }
+            catch (IOException e)
+            {
+                throw new SpillException("failed to spill the large table", e);
+            }
+            if (largeBatch == null)
+            {
+                return result;
+            }
+        }
         VectorizedRowBatch joinedRowBatch = this.joinedSchema.createRowBatch(largeBatch.maxSize, TypeDescription.Mode.NONE);
-        Tuple.Builder builder = new Tuple.Builder(largeBatch, this.largeKeyColumnIds, this.largeProjection);
-        while (builder.hasNext())
+        int[] smallHeads = new int[largeBatch.getPhysicalSize()];
+        this.smallTable.probe(largeBatch, this.largeKeyColumnIds, smallHeads);
+        boolean markMatched = joinType == JoinType.EQUI_LEFT || joinType == JoinType.EQUI_FULL;
+        // the filtered rows in the large batch are skipped by the selection vector without being compacted.
+        int[] selected = largeBatch.selectedInUse ? largeBatch.selected : null;
+        for (int i = 0; i < largeBatch.size; ++i)
         {
-            Tuple large = builder.next();
-            Tuple smallHead = this.smallTable.getHead(large);
-            if (smallHead == null)
+            int largeRowId = selected == null ? i : selected[i];
+            int smallEntry = smallHeads[largeRowId];
+            if (smallEntry < 0)
             {
                 switch (joinType)
                 {
@@ -83,38 +323,35 @@ public class HashJoiner extends Joiner
                         break;
                     case EQUI_RIGHT:
                     case EQUI_FULL:
-                        Tuple joined = large.concatLeft(smallNullTuple);
                         if (joinedRowBatch.isFull())
                         {
                             result.add(joinedRowBatch);
                             joinedRowBatch = this.joinedSchema.createRowBatch(largeBatch.maxSize, TypeDescription.Mode.NONE);
                         }
-                        joined.writeTo(joinedRowBatch);
+                        int start = writeNulls(joinedRowBatch, 0, this.numSmallIncludedColumns);
+                        writeLarge(largeBatch, largeRowId, joinedRowBatch, start);
+                        joinedRowBatch.size++;
                         break;
                     default:
                         throw new UnsupportedOperationException("join type is not supported");
                 }
             } else
             {
-                if (joinType == JoinType.EQUI_LEFT || joinType == JoinType.EQUI_FULL)
+                while (smallEntry >= 0)
                 {
-                    Tuple tmpSmallHead = smallHead;
-                    while (tmpSmallHead != null)
+                    if (markMatched)
                     {
-                        this.matchedSmallTuples.add(tmpSmallHead);
-                        tmpSmallHead = tmpSmallHead.next;
+                        this.smallTable.setMatched(smallEntry);
                     }
-                }
-                while (smallHead != null)
-                {
-                    Tuple joined = large.concatLeft(smallHead);
                     if (joinedRowBatch.isFull())
                     {
                         result.add(joinedRowBatch);
                         joinedRowBatch = this.joinedSchema.createRowBatch(largeBatch.maxSize, TypeDescription.Mode.NONE);
                     }
-                    joined.writeTo(joinedRowBatch);
-                    smallHead = smallHead.next;
+                    int start = this.smallTable.writeTo(smallEntry, joinedRowBatch, 0);
+                    writeLarge(largeBatch, largeRowId, joinedRowBatch, start);
+                    joinedRowBatch.size++;
+                    smallEntry = this.smallTable.next(smallEntry);
                 }
             }
         }
@@ -125,6 +362,206 @@ public class HashJoiner extends Joiner
         return result;
     }
 
+    /**
+     * Join the spilled partitions of the small and the large tables one partition at a time. For left and
+     * full outer joins, the left outer join results of the spilled partitions are written by
+     * {@link #writeLeftOuter(PixelsWriter, int)} or {@link #writeLeftOuterAndPartition(PixelsWriter, int, int, int[])}.
+     * This method should be called after all the row batches from the large table are joined. The spilled
+     * partitions are deleted after they are joined.
+     *
+     * @param consumer the consumer of the joined row batches
+     */
+    public void joinSpilled(Consumer<VectorizedRowBatch> consumer) throws IOException
+    {
+        requireNonNull(consumer, "consumer is null");
+        if (this.smallSpiller == null)
+        {
+            return;
+        }
+        boolean leftOuter = this.joinType == JoinType.EQUI_LEFT || this.joinType == JoinType.EQUI_FULL;
+        boolean rightOuter = this.joinType == JoinType.EQUI_RIGHT || this.joinType == JoinType.EQUI_FULL;
+        Spiller smallSpiller = this.smallSpiller;
+        Spiller largeSpiller = this.largeSpiller;
+        this.smallSpiller = null;
+        this.largeSpiller = null;
+        try
+        {
+            smallSpiller.finish();
+            if (largeSpiller != null)
+            {
+                largeSpiller.finish();
+            }
+            if (leftOuter && this.leftOuterSpiller == null)
+            {
+                this.leftOuterSpiller = new Spiller(this.joinedSchema, 1,
+                        VectorizedRowBatch.DEFAULT_SIZE, this.spillStorage, this.spillFolder);
+            }
+            for (int p = this.numInMemoryPartitions; p < NUM_SPILL_PARTITIONS; ++p)
+            {
+                long numSmallRows = smallSpiller.getNumRows(p);
+                long numLargeRows = largeSpiller == null ? 0 : largeSpiller.getNumRows(p);
+                if (!(numSmallRows > 0 && (numLargeRows > 0 || leftOuter)) && !(numLargeRows > 0 && rightOuter))
+                {
+                    continue;
+                }
+                HashJoiner joiner = new HashJoiner(this);
+                VectorizedRowBatch rowBatch;
+                try (Spiller.PartitionReader reader = smallSpiller.read(p))
+                {
+                    if (reader != null)
+                    {
+                        do
+                        {
+                            rowBatch = reader.readBatch();
+                            if (rowBatch.size > 0)
+                            {
+                                joiner.populateLeftTable(rowBatch);
+                            }
+                        } while (!rowBatch.endOfFile);
+                    }
+                }
+                if (largeSpiller != null)
+                {
+                    try (Spiller.PartitionReader reader = largeSpiller.read(p))
+                    {
+                        if (reader != null)
+                        {
+                            do
+                            {
+                                rowBatch = reader.readBatch();
+                                if (rowBatch.size > 0)
+                                {
+                                    joiner.join(rowBatch).forEach(consumer);
+                                }
+                            } while (!rowBatch.endOfFile);
+                        }
+                    }
+                }
+                joiner.joinSpilled(consumer);
+                if (leftOuter)
+                {
+                    joiner.spillLeftOuter(this.leftOuterSpiller);
+                }
+                this.spilledBytes += joiner.spilledBytes;
+                this.numSpills += joiner.numSpills;
+            }
+        }
+        finally
+        {
+            closeSpiller(smallSpiller);
+            if (largeSpiller != null)
+            {
+                closeSpiller(largeSpiller);
+            }
+        }
+    }
+
+    /**
+     * Spill the left outer join results of the unmatched rows in the small table.
+     */
+    private void spillLeftOuter(Spiller spiller) throws IOException
+    {
+        VectorizedRowBatch leftOuterBatch = this.joinedSchema.createRowBatch(
+                VectorizedRowBatch.DEFAULT_SIZE, TypeDescription.Mode.NONE);
+        int smallEntry = 0;
+        while (smallEntry < this.smallTable.size())
+        {
+            smallEntry = writeLeftOuter(leftOuterBatch, smallEntry);
+            if (leftOuterBatch.isFull())
+            {
+                spiller.spill(leftOuterBatch, 0);
+                leftOuterBatch.reset();
+            }
+        }
+        if (!leftOuterBatch.isEmpty())
+        {
+            spiller.spill(leftOuterBatch, 0);
+        }
+    }
+
+    /**
+     * Open the reader of the left outer join results of the spilled partitions.
+     *
+     * @return the reader, or null if there is no spilled left outer join result
+     */
+    private Spiller.PartitionReader readSpilledLeftOuter() throws IOException
+    {
+        if (this.leftOuterSpiller == null)
+        {
+            return null;
+        }
+        this.leftOuterSpiller.finish();
+        return this.leftOuterSpiller.read(0);
+    }
+
+    private void closeSpiller(Spiller spiller) throws IOException
+    {
+        this.spilledBytes += spiller.getSpilledBytes();
+        this.numSpills += spiller.getNumSpilledFiles();
+        spiller.close();
+    }
+
+    /**
+     * @return the number of bytes spilled by this joiner, valid after the spilled partitions are joined
+     */
+    public long getSpilledBytes()
+    {
+        return this.spilledBytes;
+    }
+
+    /**
+     * @return the number of partitions spilled by this joiner, valid after the spilled partitions are joined
+     */
+    public int getNumSpills()
+    {
+        return this.numSpills;
+    }
+
+    /**
+     * Write the values of the projected columns of the row from the large table into the row batch.
+     * @return the index of the next column in the row batch to write
+     */
+    private int writeLarge(VectorizedRowBatch largeBatch, int largeRowId, VectorizedRowBatch rowBatch, int start)
+    {
+        for (int i = 0; i < largeBatch.numCols; ++i)
+        {
+            if (this.largeProjection[i])
+            {
+                rowBatch.cols[start++].addElement(largeRowId, largeBatch.cols[i]);
+            }
+        }
+        return start;
+    }
+
+    private static int writeNulls(VectorizedRowBatch rowBatch, int start, int numColumns)
+    {
+        for (int i = 0; i < numColumns; ++i)
+        {
+            rowBatch.cols[start + i].addNull();
+        }
+        return start + numColumns;
+    }
+
+    /**
+     * Write the unmatched rows from the small table with null values of the large table into the row batch.
+     * @return the index of the next unmatched entry in the small table, or the size of the small table
+     * if there is no more unmatched entry
+     */
+    private int writeLeftOuter(VectorizedRowBatch leftOuterBatch, int smallEntry)
+    {
+        int numEntries = this.smallTable.size();
+        for (; smallEntry < numEntries && !leftOuterBatch.isFull(); ++smallEntry)
+        {
+            if (!this.smallTable.isMatched(smallEntry))
+            {
+                int start = this.smallTable.writeTo(smallEntry, leftOuterBatch, 0);
+                writeNulls(leftOuterBatch, start, this.numLargeIncludedColumns);
+                leftOuterBatch.size++;
+            }
+        }
+        return smallEntry;
+    }
+
     @Override
     public boolean writeLeftOuter(PixelsWriter pixelsWriter, int batchSize) throws IOException
     {
@@ -133,28 +570,44 @@ public class HashJoiner extends Joiner
         checkArgument(batchSize > 0, "batchSize must be positive");
         requireNonNull(pixelsWriter, "pixelsWriter is null");
 
-        List<Tuple> leftOuterTuples = new ArrayList<>();
-        for (Tuple small : this.smallTable)
-        {
-            if (!this.matchedSmallTuples.contains(small))
-            {
-                leftOuterTuples.add(small);
-            }
-        }
         VectorizedRowBatch leftOuterBatch = this.joinedSchema.createRowBatch(batchSize, TypeDescription.Mode.NONE);
-        for (Tuple small : leftOuterTuples)
+        int smallEntry = 0;
+        while (smallEntry < this.smallTable.size())
         {
+            smallEntry = writeLeftOuter(leftOuterBatch, smallEntry);
             if (leftOuterBatch.isFull())
             {
                 pixelsWriter.addRowBatch(leftOuterBatch);
                 leftOuterBatch.reset();
             }
-            this.largeNullTuple.concatLeft(small).writeTo(leftOuterBatch);
         }
         if (!leftOuterBatch.isEmpty())
         {
             pixelsWriter.addRowBatch(leftOuterBatch);
         }
+        try (Spiller.PartitionReader reader = readSpilledLeftOuter())
+        {
+            if (reader != null)
+            {
+                VectorizedRowBatch rowBatch;
+                do
+                {
+                    rowBatch = reader.readBatch();
+                    if (rowBatch.size > 0)
+                    {
+                        pixelsWriter.addRowBatch(rowBatch);
+                    }
+                } while (!rowBatch.endOfFile);
+            }
+        }
+        finally
+        {
+            if (this.leftOuterSpiller != null)
+            {
+                closeSpiller(this.leftOuterSpiller);
+                this.leftOuterSpiller = null;
+            }
+        }
         return true;
     }
 
@@ -179,17 +632,11 @@ public class HashJoiner extends Joiner
         {
             partitioned.add(new LinkedList<>());
         }
-        List<Tuple> leftOuterTuples = new ArrayList<>();
-        for (Tuple small : this.smallTable)
-        {
-            if (!this.matchedSmallTuples.contains(small))
-            {
-                leftOuterTuples.add(small);
-            }
-        }
         VectorizedRowBatch leftOuterBatch = this.joinedSchema.createRowBatch(batchSize, TypeDescription.Mode.NONE);
-        for (Tuple small : leftOuterTuples)
+        int smallEntry = 0;
+        while (smallEntry < this.smallTable.size())
         {
+            smallEntry = writeLeftOuter(leftOuterBatch, smallEntry);
             if (leftOuterBatch.isFull())
             {
                 Map<Integer, VectorizedRowBatch> parts = partitioner.partition(leftOuterBatch);
@@ -203,7 +650,6 @@ public class HashJoiner extends Joiner
                  */
                 leftOuterBatch.reset();
             }
-            this.largeNullTuple.concatLeft(small).writeTo(leftOuterBatch);
         }
         if (!leftOuterBatch.isEmpty())
         {
@@ -213,6 +659,33 @@ public class HashJoiner extends Joiner
                 partitioned.get(entry.getKey()).add(entry.getValue());
             }
         }
+        try (Spiller.PartitionReader reader = readSpilledLeftOuter())
+        {
+            if (reader != null)
+            {
+                VectorizedRowBatch rowBatch;
+                do
+                {
+                    rowBatch = reader.readBatch(batchSize);
+                    if (rowBatch.size > 0)
+                    {
+                        Map<Integer, VectorizedRowBatch> parts = partitioner.partition(rowBatch);
+                        for (Map.Entry<Integer, VectorizedRowBatch> entry : parts.entrySet())
+                        {
+                            partitioned.get(entry.getKey()).add(entry.getValue());
+                        }
+                    }
+                } while (!rowBatch.endOfFile);
+            }
+        }
+        finally
+        {
+            if (this.leftOuterSpiller != null)
+            {
+                closeSpiller(this.leftOuterSpiller);
+                this.leftOuterSpiller = null;
+            }
+        }
         VectorizedRowBatch[] tailBatches = partitioner.getRowBatches();
         for (int hash = 0; hash < tailBatches.length; ++hash)
         {
@@ -238,7 +711,8 @@ public class HashJoiner extends Joiner
 
     public int getSmallTableSize()
     {
-        return this.smallTable.size();
+        long numSpilledRows = this.smallSpiller == null ? 0 : this.smallSpiller.getNumRows();
+        return (int) Math.min(Integer.MAX_VALUE, this.smallTable.size() + numSpilledRows);
     }
 
 }
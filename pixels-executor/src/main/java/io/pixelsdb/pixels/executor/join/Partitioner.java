@@ -100,16 +100,29 @@ public class Partitioner
     public Map<Integer, VectorizedRowBatch> partition(VectorizedRowBatch input)
     {
         requireNonNull(input, "input is null");
-        checkArgument(input.size <= batchSize, "input is oversize");
+        checkArgument(input.getPhysicalSize() <= batchSize, "input is oversize");
         // this.schema.getChildren() has been checked not null.
         checkArgument(input.numCols == this.numFields,
                 "input.numCols does not match the number of fields in the schema");
         computeHashCode(input);
-        for (int i = 0; i < this.hashCodeLength; ++i)
+        if (input.selectedInUse)
         {
-            int hashKey = Math.abs(this.hashCode[i]) % this.numPartition;
-            // add the row id to the selected array of the partition.
-            this.selectedArrays[hashKey][this.selectedArrayIndexes[hashKey]++] = i;
+            // the filtered rows in the input are skipped without being compacted.
+            for (int i = 0; i < input.size; ++i)
+            {
+                int row = input.selected[i];
+                int hashKey = Math.abs(this.hashCode[row]) % this.numPartition;
+                this.selectedArrays[hashKey][this.selectedArrayIndexes[hashKey]++] = row;
+            }
+        }
+        else
+        {
+            for (int i = 0; i < this.hashCodeLength; ++i)
+            {
+                int hashKey = Math.abs(this.hashCode[i]) % this.numPartition;
+                // add the row id to the selected array of the partition.
+                this.selectedArrays[hashKey][this.selectedArrayIndexes[hashKey]++] = i;
+            }
         }
 
         Map<Integer, VectorizedRowBatch> output = new HashMap<>();
@@ -150,11 +163,12 @@ public class Partitioner
 
     /**
      * Get the hash code of the partition key of the rows in the input row batch.
+     * If the selection vector of the input is in use, the hash code is indexed by the row position.
      * @param input the input row batch
      */
     private void computeHashCode(VectorizedRowBatch input)
     {
-        this.hashCodeLength = input.size;
+        this.hashCodeLength = input.getPhysicalSize();
         Arrays.fill(hashCode, 0, this.hashCodeLength, 0);
         for (int columnId : keyColumnIds)
         {
@@ -26,9 +26,12 @@ import com.alibaba.fastjson.annotation.JSONField;
 import com.alibaba.fastjson.annotation.JSONType;
 import io.pixelsdb.pixels.core.PixelsProto;
 import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.stats.ColumnStats;
+import io.pixelsdb.pixels.core.stats.IntegerColumnStats;
 import io.pixelsdb.pixels.core.stats.RangeStats;
 import io.pixelsdb.pixels.core.stats.StatsRecorder;
 import io.pixelsdb.pixels.core.utils.Bitmap;
+import io.pixelsdb.pixels.core.utils.BloomFilter;
 import io.pixelsdb.pixels.core.utils.Decimal;
 import io.pixelsdb.pixels.core.vector.*;
 
@@ -253,6 +256,210 @@ public class ColumnFilter<T extends Comparable<T>>
         return filter;
     }
 
+    /**
+     * Check if any value in the bloom filter may match this column filter. Only the equality filters,
+     * i.e., the filters consisting of included discrete values or single-value ranges, can be checked
+     * by the bloom filter, other filters always return true.
+     *
+     * @param bloomFilter the bloom filter of the column chunk
+     * @return false if it is certain that no value in the column chunk matches this column filter
+     */
+    public boolean mayMatch(BloomFilter bloomFilter)
+    {
+        if (this.filter.isNone)
+        {
+            return false;
+        }
+        if (this.filter.isAll || this.filter.allowNull || this.filter.onlyNull || !this.excludes.isEmpty())
+        {
+            return true;
+        }
+        switch (this.columnType)
+        {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case DECIMAL:
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+            case STRING:
+            case VARCHAR:
+            case CHAR:
+            case VARBINARY:
+            case BINARY:
+                break;
+            default:
+                return true;
+        }
+        for (Range<T> range : this.filter.ranges)
+        {
+            if (range.lowerBound.type != Bound.Type.INCLUDED || range.upperBound.type != Bound.Type.INCLUDED ||
+                    range.lowerBound.value.compareTo(range.upperBound.value) != 0)
+            {
+                return true;
+            }
+            if (mightContain(bloomFilter, range.lowerBound.value))
+            {
+                return true;
+            }
+        }
+        for (T value : this.includes)
+        {
+            if (mightContain(bloomFilter, value))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if any value in the column chunk or pixel may match this column filter by its min/max statistics.
+     * Only the ranges and included discrete values on numeric, date, time, and timestamp columns are checked,
+     * other filters always return true.
+     *
+     * @param stats the statistics of the column chunk or pixel
+     * @return false if it is certain that no value in the column chunk or pixel matches this column filter
+     */
+    public boolean mayMatch(ColumnStats stats)
+    {
+        if (this.filter.isNone)
+        {
+            return false;
+        }
+        if (this.filter.isAll || !this.excludes.isEmpty())
+        {
+            return true;
+        }
+        if (this.filter.onlyNull)
+        {
+            return stats.hasNull();
+        }
+        if (this.filter.allowNull && stats.hasNull())
+        {
+            return true;
+        }
+        if (!(stats instanceof RangeStats<?>))
+        {
+            return true;
+        }
+        RangeStats<?> rangeStats = (RangeStats<?>) stats;
+        if (!rangeStats.hasMinimum() || !rangeStats.hasMaximum())
+        {
+            return true;
+        }
+        switch (this.columnType)
+        {
+            case DECIMAL:
+                if (!(stats instanceof IntegerColumnStats))
+                {
+                    // long decimals are not checked
+                    return true;
+                }
+                // short decimals are compared by their unscaled values, the same as the integers
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case DATE:
+            case TIME:
+            case TIMESTAMP:
+                return mayMatch(((Number) rangeStats.getMinimum()).longValue(),
+                        ((Number) rangeStats.getMaximum()).longValue());
+            case FLOAT:
+            case DOUBLE:
+                return mayMatch(((Number) rangeStats.getMinimum()).doubleValue(),
+                        ((Number) rangeStats.getMaximum()).doubleValue());
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @return true if any range or included value of this filter overlaps [min, max] of the integral values
+     */
+    private boolean mayMatch(long min, long max)
+    {
+        for (Range<T> range : this.filter.ranges)
+        {
+            long[] bounds = toClosedRange(range);
+            if (bounds != null && bounds[0] <= max && bounds[1] >= min)
+            {
+                return true;
+            }
+        }
+        for (T value : this.includes)
+        {
+            long v = ((Number) value).longValue();
+            if (v >= min && v <= max)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if any range or included value of this filter overlaps [min, max] of the floating values,
+     * the values in the filter are the bits of doubles
+     */
+    private boolean mayMatch(double min, double max)
+    {
+        if (Double.isNaN(min) || Double.isNaN(max))
+        {
+            return true;
+        }
+        for (Range<T> range : this.filter.ranges)
+        {
+            double lowerBound = Double.NEGATIVE_INFINITY, upperBound = Double.POSITIVE_INFINITY;
+            if (range.lowerBound.type != Bound.Type.UNBOUNDED)
+            {
+                lowerBound = Double.longBitsToDouble(((Number) range.lowerBound.value).longValue());
+                if (range.lowerBound.type == Bound.Type.EXCLUDED)
+                {
+                    lowerBound = Math.nextUp(lowerBound);
+                }
+            }
+            if (range.upperBound.type != Bound.Type.UNBOUNDED)
+            {
+                upperBound = Double.longBitsToDouble(((Number) range.upperBound.value).longValue());
+                if (range.upperBound.type == Bound.Type.EXCLUDED)
+                {
+                    upperBound = Math.nextDown(upperBound);
+                }
+            }
+            if (lowerBound <= max && upperBound >= min)
+            {
+                return true;
+            }
+        }
+        for (T value : this.includes)
+        {
+            double v = Double.longBitsToDouble(((Number) value).longValue());
+            if (v >= min && v <= max)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean mightContain(BloomFilter bloomFilter, Object value)
+    {
+        if (value instanceof String)
+        {
+            return bloomFilter.mightContain((String) value);
+        }
+        if (value instanceof Number)
+        {
+            return bloomFilter.mightContain(((Number) value).longValue());
+        }
+        return true;
+    }
+
     /**
      * Filter the values in the column vector and set the bits in result for
      * matched values.
@@ -303,11 +510,27 @@ public class ColumnFilter<T extends Comparable<T>>
         if (columnVector.isRepeating())
         {
             /*
-             * For simplicity, we flatten the column vector instead of
-             * dealing with the repeating column vector.
+             * All the values in a repeating column vector are the same as the first one,
+             * thus we only evaluate the first value and fold the result into the whole range,
+             * instead of flattening the column vector.
              */
-            columnVector.flatten(false, null, columnVector.getLength());
+            Bitmap first = new Bitmap(1, false);
+            doFilterFlat(columnVector, 0, 1, first);
+            if (first.get(0))
+            {
+                result.set(start, start+length);
+            }
+            return;
         }
+        doFilterFlat(columnVector, start, length, result);
+    }
+
+    /**
+     * Filter the values in the column vector that is not repeating.
+     * The bits in result for the range [start, start+length) must have been cleared.
+     */
+    private void doFilterFlat(ColumnVector columnVector, int start, int length, Bitmap result)
+    {
         switch (this.columnType)
         {
             case BOOLEAN:
@@ -324,8 +547,9 @@ public class ColumnFilter<T extends Comparable<T>>
             case DECIMAL:
                 if (columnVector instanceof LongDecimalColumnVector)
                 {
-                    // TODO: support column filter for long decimal.
-                    throw new UnsupportedOperationException("long decimal is currently not supported in column filter");
+                    LongDecimalColumnVector ldecv = (LongDecimalColumnVector) columnVector;
+                    doFilterLongDecimal(ldecv.vector, ldecv.noNulls ? null : ldecv.isNull, start, length, result);
+                    return;
                 }
                 DecimalColumnVector decv = (DecimalColumnVector) columnVector;
                 // doFilter(decv.vector, decv.noNulls ? null : decv.isNull,
@@ -338,11 +562,25 @@ public class ColumnFilter<T extends Comparable<T>>
                 return;
             case FLOAT:
                 FloatColumnVector fcv = (FloatColumnVector) columnVector;
-                doFilter(fcv.vector, fcv.noNulls ? null : fcv.isNull, start, length, result);
+                if (!this.filter.ranges.isEmpty())
+                {
+                    doFilterFloatingRanges(null, fcv.vector, fcv.noNulls ? null : fcv.isNull, start, length, result);
+                }
+                else
+                {
+                    doFilter(fcv.vector, fcv.noNulls ? null : fcv.isNull, start, length, result);
+                }
                 return;
             case DOUBLE:
                 DoubleColumnVector dcv = (DoubleColumnVector) columnVector;
-                doFilter(dcv.vector, dcv.noNulls ? null : dcv.isNull, start, length, result);
+                if (!this.filter.ranges.isEmpty())
+                {
+                    doFilterFloatingRanges(dcv.vector, null, dcv.noNulls ? null : dcv.isNull, start, length, result);
+                }
+                else
+                {
+                    doFilter(dcv.vector, dcv.noNulls ? null : dcv.isNull, start, length, result);
+                }
                 return;
             case STRING:
             case VARCHAR:
@@ -480,37 +718,15 @@ public class ColumnFilter<T extends Comparable<T>>
         {
             for (Range<T> range : this.filter.ranges)
             {
-                long lowerBound = range.lowerBound.type != Bound.Type.UNBOUNDED ?
-                        (Long) range.lowerBound.value : Long.MIN_VALUE;
-                if (range.lowerBound.type == Bound.Type.EXCLUDED)
+                long[] bounds = toClosedRange(range);
+                if (bounds == null)
                 {
-                    lowerBound++;
-                }
-                long upperBound = range.upperBound.type != Bound.Type.UNBOUNDED ?
-                        (Long) range.upperBound.value : Long.MAX_VALUE;
-                if (range.upperBound.type == Bound.Type.EXCLUDED)
-                {
-                    upperBound--;
-                }
-                if (this.filter.allowNull && !noNulls)
-                {
-                    for (int i = start; i < start + length; ++i)
-                    {
-                        if (isNull[i] || vector[i] >= lowerBound && vector[i] <= upperBound)
-                        {
-                            result.set(i);
-                        }
-                    }
+                    RangeFilterKernels.filterNulls(isNull, this.filter.allowNull, start, length, result);
                 }
                 else
                 {
-                    for (int i = start; i < start + length; ++i)
-                    {
-                        if ((noNulls || !isNull[i]) && vector[i] >= lowerBound && vector[i] <= upperBound)
-                        {
-                            result.set(i);
-                        }
-                    }
+                    RangeFilterKernels.filter(vector, isNull, this.filter.allowNull,
+                            bounds[0], bounds[1], start, length, result);
                 }
             }
         }
@@ -565,6 +781,141 @@ public class ColumnFilter<T extends Comparable<T>>
         }
     }
 
+    /**
+     * Convert the range on integral values into a closed range.
+     *
+     * @param range the range, the values of the bounds must be integral numbers
+     * @return the inclusive lower and upper bounds, or null if the range is empty
+     */
+    private static <T extends Comparable<T>> long[] toClosedRange(Range<T> range)
+    {
+        long lowerBound = Long.MIN_VALUE, upperBound = Long.MAX_VALUE;
+        if (range.lowerBound.type != Bound.Type.UNBOUNDED)
+        {
+            lowerBound = ((Number) range.lowerBound.value).longValue();
+            if (range.lowerBound.type == Bound.Type.EXCLUDED)
+            {
+                if (lowerBound == Long.MAX_VALUE)
+                {
+                    return null;
+                }
+                lowerBound++;
+            }
+        }
+        if (range.upperBound.type != Bound.Type.UNBOUNDED)
+        {
+            upperBound = ((Number) range.upperBound.value).longValue();
+            if (range.upperBound.type == Bound.Type.EXCLUDED)
+            {
+                if (upperBound == Long.MIN_VALUE)
+                {
+                    return null;
+                }
+                upperBound--;
+            }
+        }
+        return lowerBound <= upperBound ? new long[] {lowerBound, upperBound} : null;
+    }
+
+    /**
+     * Filter the double or float values by the ranges. The values in the filter are the bits of doubles
+     * (i.e., Long), and the values are compared as doubles rather than as the bits, so that the negative
+     * values are also correctly compared.
+     *
+     * @param doubleBits the bits of the double values, null if the column is float
+     * @param floatBits the bits of the float values, null if the column is double
+     */
+    private void doFilterFloatingRanges(long[] doubleBits, int[] floatBits, boolean[] isNull,
+                                        int start, int length, Bitmap result)
+    {
+        for (Range<T> range : this.filter.ranges)
+        {
+            double lowerBound = Double.NEGATIVE_INFINITY, upperBound = Double.POSITIVE_INFINITY;
+            if (range.lowerBound.type != Bound.Type.UNBOUNDED)
+            {
+                lowerBound = Double.longBitsToDouble(((Number) range.lowerBound.value).longValue());
+                if (range.lowerBound.type == Bound.Type.EXCLUDED)
+                {
+                    lowerBound = Math.nextUp(lowerBound);
+                }
+            }
+            if (range.upperBound.type != Bound.Type.UNBOUNDED)
+            {
+                upperBound = Double.longBitsToDouble(((Number) range.upperBound.value).longValue());
+                if (range.upperBound.type == Bound.Type.EXCLUDED)
+                {
+                    upperBound = Math.nextDown(upperBound);
+                }
+            }
+            if (!(lowerBound <= upperBound))
+            {
+                RangeFilterKernels.filterNulls(isNull, this.filter.allowNull, start, length, result);
+            }
+            else if (doubleBits != null)
+            {
+                RangeFilterKernels.filterDouble(doubleBits, isNull, this.filter.allowNull,
+                        lowerBound, upperBound, start, length, result);
+            }
+            else
+            {
+                RangeFilterKernels.filterFloat(floatBits, isNull, this.filter.allowNull,
+                        lowerBound, upperBound, start, length, result);
+            }
+        }
+    }
+
+    /**
+     * Filter the long decimals, each of which is stored as two longs with the high 64 bits first.
+     * The values in the filter are Long, which are the unscaled values of the decimals.
+     */
+    private void doFilterLongDecimal(long[] vector, boolean[] isNull, int start, int length, Bitmap result)
+    {
+        boolean noNulls = isNull == null;
+        if (!this.filter.ranges.isEmpty())
+        {
+            for (Range<T> range : this.filter.ranges)
+            {
+                boolean lowerBounded = range.lowerBound.type != Bound.Type.UNBOUNDED;
+                boolean upperBounded = range.upperBound.type != Bound.Type.UNBOUNDED;
+                long[] bounds = toClosedRange(range);
+                if (bounds == null)
+                {
+                    RangeFilterKernels.filterNulls(isNull, this.filter.allowNull, start, length, result);
+                }
+                else
+                {
+                    RangeFilterKernels.filterLongDecimal(vector, isNull, this.filter.allowNull,
+                            lowerBounded, bounds[0], upperBounded, bounds[1], start, length, result);
+                }
+            }
+        }
+        else
+        {
+            for (int i = start; i < start + length; ++i)
+            {
+                if (!noNulls && isNull[i])
+                {
+                    if (this.filter.allowNull)
+                    {
+                        result.set(i);
+                    }
+                    continue;
+                }
+                long high = vector[i << 1], low = vector[(i << 1) + 1];
+                // the decimal can be equal to a Long value in the filter only if it fits in a long
+                boolean isLong = high == (low >> 63);
+                if (!includes.isEmpty() && isLong && includes.contains(low))
+                {
+                    result.set(i);
+                }
+                if (!excludes.isEmpty() && !(isLong && excludes.contains(low)))
+                {
+                    result.set(i);
+                }
+            }
+        }
+    }
+
     /**
      * For Decimal, the values in the filter are Long, therefore we create Decimals using the
      * same precision and scale in the column vector. However, this method is currently not
@@ -959,37 +1310,15 @@ public class ColumnFilter<T extends Comparable<T>>
         {
             for (Range<T> range : this.filter.ranges)
             {
-                int lowerBound = range.lowerBound.type != Bound.Type.UNBOUNDED ?
-                        (Integer) range.lowerBound.value : Integer.MIN_VALUE;
-                if (range.lowerBound.type == Bound.Type.EXCLUDED)
-                {
-                    lowerBound++;
-                }
-                int upperBound = range.upperBound.type != Bound.Type.UNBOUNDED ?
-                        (Integer) range.upperBound.value : Integer.MAX_VALUE;
-                if (range.upperBound.type == Bound.Type.EXCLUDED)
-                {
-                    upperBound--;
-                }
-                if (this.filter.allowNull && !noNulls)
+                long[] bounds = toClosedRange(range);
+                if (bounds == null)
                 {
-                    for (int i = start; i < start + length; ++i)
-                    {
-                        if (isNull[i] || vector[i] >= lowerBound && vector[i] <= upperBound)
-                        {
-                            result.set(i);
-                        }
-                    }
+                    RangeFilterKernels.filterNulls(isNull, this.filter.allowNull, start, length, result);
                 }
                 else
                 {
-                    for (int i = start; i < start + length; ++i)
-                    {
-                        if ((noNulls || !isNull[i]) && vector[i] >= lowerBound && vector[i] <= upperBound)
-                        {
-                            result.set(i);
-                        }
-                    }
+                    RangeFilterKernels.filter(vector, isNull, this.filter.allowNull,
+                            bounds[0], bounds[1], start, length, result);
                 }
             }
         }
@@ -22,9 +22,15 @@ package io.pixelsdb.pixels.executor.predicate;
 import com.alibaba.fastjson.annotation.JSONCreator;
 import com.alibaba.fastjson.annotation.JSONField;
 import com.alibaba.fastjson.annotation.JSONType;
+import io.pixelsdb.pixels.core.predicate.PixelsPredicate;
+import io.pixelsdb.pixels.core.predicate.PixelsRowFilter;
+import io.pixelsdb.pixels.core.stats.ColumnStats;
 import io.pixelsdb.pixels.core.utils.Bitmap;
+import io.pixelsdb.pixels.core.utils.BloomFilter;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -92,11 +98,125 @@ public class TableScanFilter
         return this.columnFilters.isEmpty();
     }
 
+    /**
+     * Convert this table scan filter to the predicate that can be pushed down into the record reader.
+     * The predicate filters the row groups and pixels by the min/max statistics of the filtered columns,
+     * and the row groups by the bloom filters in the file footer.
+     *
+     * @param fileColumnNames the names of the columns in the file schema
+     * @param columnsToRead the names of the columns to read, i.e., the columns in the scan result
+     * @return the predicate
+     */
+    public PixelsPredicate toPixelsPredicate(List<String> fileColumnNames, String[] columnsToRead)
+    {
+        Map<Integer, ColumnFilter> fileColumnFilters = new HashMap<>();
+        for (Map.Entry<Integer, ColumnFilter> entry : this.columnFilters.entrySet())
+        {
+            String columnName = columnsToRead[entry.getKey()];
+            for (int i = 0; i < fileColumnNames.size(); ++i)
+            {
+                if (fileColumnNames.get(i).equalsIgnoreCase(columnName))
+                {
+                    fileColumnFilters.put(i, entry.getValue());
+                    break;
+                }
+            }
+        }
+        return new PixelsPredicate()
+        {
+            @Override
+            public boolean matches(long numberOfRows, Map<Integer, ColumnStats> statisticsByColumnIndex)
+            {
+                for (Map.Entry<Integer, ColumnStats> entry : statisticsByColumnIndex.entrySet())
+                {
+                    ColumnFilter columnFilter = fileColumnFilters.get(entry.getKey());
+                    if (columnFilter != null && !columnFilter.mayMatch(entry.getValue()))
+                    {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public boolean mayMatch(Map<Integer, BloomFilter> bloomFiltersByColumnIndex)
+            {
+                for (Map.Entry<Integer, BloomFilter> entry : bloomFiltersByColumnIndex.entrySet())
+                {
+                    ColumnFilter columnFilter = fileColumnFilters.get(entry.getKey());
+                    if (columnFilter != null && !columnFilter.mayMatch(entry.getValue()))
+                    {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public boolean matchesNone()
+            {
+                return false;
+            }
+
+            @Override
+            public boolean matchesAll()
+            {
+                return false;
+            }
+
+            @Override
+            public String toString()
+            {
+                return "TableScanFilter{schemaName=" + schemaName + ", tableName=" + tableName + "}";
+            }
+        };
+    }
+
+    /**
+     * Convert this table scan filter to the row filter that can be pushed down into the record reader,
+     * so that the record reader decodes the columns that are not filtered only for the matched rows.
+     * The returned row filter is not thread-safe, it should be used by a single record reader.
+     *
+     * @return the row filter
+     */
+    public PixelsRowFilter toPixelsRowFilter()
+    {
+        int[] columnIds = new int[this.columnFilters.size()];
+        int i = 0;
+        for (int columnId : this.columnFilters.keySet())
+        {
+            columnIds[i++] = columnId;
+        }
+        return new PixelsRowFilter()
+        {
+            private Bitmap tmp = null;
+
+            @Override
+            public int[] getColumnIds()
+            {
+                return columnIds;
+            }
+
+            @Override
+            public void filter(VectorizedRowBatch rowBatch, Bitmap result)
+            {
+                if (tmp == null || tmp.capacity() < result.capacity())
+                {
+                    tmp = new Bitmap(result.capacity(), false);
+                }
+                doFilter(rowBatch, result, tmp);
+            }
+        };
+    }
+
     /**
      * Filter all the rows in the row batch using this table scan filter.
      * In the returned BitSet, the ith bit is set if the ith row in the row batch matches the filter.
      *
      * The result bitset can be reused.
+     * <p/>
+     * If the selection vector of the row batch is in use, the ith bit corresponds to the row at position i
+     * in the column vectors, and the bits of the rows that are not selected are cleared.
      *
      * @param rowBatch the row batch.
      * @param result the filter result.
@@ -104,13 +224,25 @@ public class TableScanFilter
      */
     public void doFilter(VectorizedRowBatch rowBatch, Bitmap result, Bitmap tmp)
     {
+        int size = rowBatch.getPhysicalSize();
+        // the column filters are only evaluated on the rows from the first selected row.
+        int start = rowBatch.selectedInUse && rowBatch.size > 0 ? rowBatch.selected[0] : 0;
         // set all bits to true.
-        result.set(0, rowBatch.size);
+        result.set(0, size);
         for (Map.Entry<Integer, ColumnFilter> entry : this.columnFilters.entrySet())
         {
             int columnId = entry.getKey();
             ColumnFilter columnFilter = entry.getValue();
-            columnFilter.doFilter(rowBatch.cols[columnId], 0, rowBatch.size, tmp);
+            columnFilter.doFilter(rowBatch.cols[columnId], start, size - start, tmp);
+            result.and(tmp);
+        }
+        if (rowBatch.selectedInUse)
+        {
+            tmp.clear(0, size);
+            for (int i = 0; i < rowBatch.size; ++i)
+            {
+                tmp.set(rowBatch.selected[i]);
+            }
             result.and(tmp);
         }
     }
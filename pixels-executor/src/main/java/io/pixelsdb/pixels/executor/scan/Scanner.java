@@ -90,4 +90,35 @@ public class Scanner
         inputRowBatch.applyProjection(projection, projectionSize);
         return inputRowBatch;
     }
+
+    /**
+     * Apply filter and projection on the input row batch. Different from {@link #filterAndProject(VectorizedRowBatch)},
+     * the filtered rows are not removed from the column vectors. Instead, the qualified rows are marked in the
+     * selection vector of the returned row batch, and the row batch is compacted lazily by the consumer
+     * (e.g., {@link VectorizedRowBatch#compact()}) only if it needs dense data.
+     * @param inputRowBatch the input row batch, should not be reused outsize this method
+     * @return the input row batch after filter and projection, the selection vector may be in use
+     */
+    public VectorizedRowBatch filterAndSelect(VectorizedRowBatch inputRowBatch)
+    {
+        if (!inputRowBatch.isEmpty())
+        {
+            this.filter.doFilter(inputRowBatch, filtered, tmp);
+            inputRowBatch.applySelection(filtered);
+        }
+        inputRowBatch.applyProjection(projection, projectionSize);
+        return inputRowBatch;
+    }
+
+    /**
+     * Apply projection on the input row batch. This is used if the filter has been pushed down
+     * into the record reader by {@link TableScanFilter#toPixelsRowFilter()}.
+     * @param inputRowBatch the input row batch, should not be reused outsize this method
+     * @return the input row batch after projection
+     */
+    public VectorizedRowBatch project(VectorizedRowBatch inputRowBatch)
+    {
+        inputRowBatch.applyProjection(projection, projectionSize);
+        return inputRowBatch;
+    }
 }
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.spill;
+
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.core.*;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
+import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
+import io.pixelsdb.pixels.core.reader.PixelsRecordReader;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Spiller writes the rows of a join or aggregation into a number of hash partitions on the spill storage,
+ * so that the partitions can be read back and processed one by one when the in-memory state of the join
+ * or aggregation exceeds its memory budget. Each partition is written into a separate file in Pixels format.
+ * <p/>
+ * The rows are buffered in a row batch for each partition before they are written. The writers use
+ * small row groups and no encoding to bound the memory they buffer and to make spilling cheap.
+ * <p/>
+ * The methods of Spiller are thread safe.
+ *
+ * @create 2026-10-17
+ */
+public class Spiller implements Closeable
+{
+    private static final int SPILL_PIXEL_STRIDE = 10000;
+    private static final int SPILL_ROW_GROUP_SIZE = 4 * 1024 * 1024;
+
+    private final TypeDescription schema;
+    private final String[] columnNames;
+    private final int numPartitions;
+    private final int batchSize;
+    private final Storage storage;
+    private final String[] paths;
+    private final VectorizedRowBatch[] buffers;
+    private final PixelsWriter[] writers;
+    private final long[] numRows;
+    private long spilledBytes = 0L;
+    private int numSpilledFiles = 0;
+    private boolean finished = false;
+
+    /**
+     * @param schema the schema of the spilled rows
+     * @param numPartitions the number of partitions
+     * @param batchSize the size of the row batches that are written into and read from the spilled files
+     * @param storage the storage of the spilled files
+     * @param spillFolder the folder of the spilled files in the storage
+     */
+    public Spiller(TypeDescription schema, int numPartitions, int batchSize, Storage storage, String spillFolder)
+    {
+        this.schema = requireNonNull(schema, "schema is null");
+        checkArgument(numPartitions > 0, "numPartitions must be positive");
+        checkArgument(batchSize > 0, "batchSize must be positive");
+        this.storage = requireNonNull(storage, "storage is null");
+        requireNonNull(spillFolder, "spillFolder is null");
+        if (!spillFolder.endsWith("/"))
+        {
+            spillFolder += "/";
+        }
+        this.columnNames = schema.getFieldNames().toArray(new String[0]);
+        this.numPartitions = numPartitions;
+        this.batchSize = batchSize;
+        this.paths = new String[numPartitions];
+        String prefix = spillFolder + UUID.randomUUID() + "_";
+        for (int i = 0; i < numPartitions; ++i)
+        {
+            this.paths[i] = prefix + i + ".pxl";
+        }
+        this.buffers = new VectorizedRowBatch[numPartitions];
+        this.writers = new PixelsWriter[numPartitions];
+        this.numRows = new long[numPartitions];
+    }
+
+    /**
+     * Get the partition of the row at a recursion level of spilling. Different levels use different
+     * hash functions, so that the rows in a spilled partition are spread across the partitions at the
+     * next level.
+     *
+     * @param hashCode the hash code of the key of the row
+     * @param level the recursion level of spilling, starting from 0
+     * @param numPartitions the number of partitions
+     * @return the partition of the row
+     */
+    public static int getPartition(int hashCode, int level, int numPartitions)
+    {
+        int h = (hashCode + level * 0x9E3779B9) * 0x85EBCA6B;
+        h ^= h >>> 15;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % numPartitions;
+    }
+
+    /**
+     * Spill the rows in the row batch into their partitions.
+     *
+     * @param rowBatch the row batch
+     * @param partitions the ith element is the partition of the ith row in the row batch,
+     *                   or negative if the row is not to be spilled. If the selection vector of the row batch
+     *                   is in use, the ith row is the ith selected row
+     */
+    public synchronized void spill(VectorizedRowBatch rowBatch, int[] partitions) throws IOException
+    {
+        checkState(!this.finished, "spiller is finished");
+        int size = rowBatch.size;
+        // counting sort the rows by partitions
+        int[] offsets = new int[this.numPartitions + 1];
+        for (int i = 0; i < size; ++i)
+        {
+            if (partitions[i] >= 0)
+            {
+                offsets[partitions[i] + 1]++;
+            }
+        }
+        for (int p = 0; p < this.numPartitions; ++p)
+        {
+            offsets[p + 1] += offsets[p];
+        }
+        if (offsets[this.numPartitions] == 0)
+        {
+            return;
+        }
+        int[] selected = new int[offsets[this.numPartitions]];
+        int[] positions = new int[this.numPartitions];
+        System.arraycopy(offsets, 0, positions, 0, this.numPartitions);
+        int[] rowBatchSelected = rowBatch.selectedInUse ? rowBatch.selected : null;
+        for (int i = 0; i < size; ++i)
+        {
+            if (partitions[i] >= 0)
+            {
+                selected[positions[partitions[i]]++] = rowBatchSelected == null ? i : rowBatchSelected[i];
+            }
+        }
+        for (int p = 0; p < this.numPartitions; ++p)
+        {
+            if (offsets[p + 1] > offsets[p])
+            {
+                addSelected(p, selected, offsets[p], offsets[p + 1] - offsets[p], rowBatch);
+            }
+        }
+    }
+
+    /**
+     * Spill all the rows in the row batch into the partition. If the selection vector of the row batch
+     * is in use, only the selected rows are spilled.
+     *
+     * @param rowBatch the row batch
+     * @param partition the partition
+     */
+    public synchronized void spill(VectorizedRowBatch rowBatch, int partition) throws IOException
+    {
+        checkState(!this.finished, "spiller is finished");
+        checkArgument(partition >= 0 && partition < this.numPartitions, "partition is out of range");
+        if (rowBatch.size <= 0)
+        {
+            return;
+        }
+        if (rowBatch.selectedInUse)
+        {
+            addSelected(partition, rowBatch.selected, 0, rowBatch.size, rowBatch);
+            return;
+        }
+        flush(partition);
+        getWriter(partition).addRowBatch(rowBatch);
+        this.numRows[partition] += rowBatch.size;
+    }
+
+    private void addSelected(int partition, int[] selected, int offset, int length, VectorizedRowBatch rowBatch)
+            throws IOException
+    {
+        VectorizedRowBatch buffer = this.buffers[partition];
+        if (buffer == null)
+        {
+            buffer = this.schema.createRowBatch(this.batchSize, TypeDescription.Mode.NONE);
+            this.buffers[partition] = buffer;
+        }
+        this.numRows[partition] += length;
+        while (length > 0)
+        {
+            int n = Math.min(length, buffer.freeSlots());
+            buffer.addSelected(selected, offset, n, rowBatch);
+            offset += n;
+            length -= n;
+            if (buffer.isFull())
+            {
+                flush(partition);
+            }
+        }
+    }
+
+    private void flush(int partition) throws IOException
+    {
+        VectorizedRowBatch buffer = this.buffers[partition];
+        if (buffer != null && !buffer.isEmpty())
+        {
+            getWriter(partition).addRowBatch(buffer);
+            buffer.reset();
+        }
+    }
+
+    private PixelsWriter getWriter(int partition) throws IOException
+    {
+        PixelsWriter writer = this.writers[partition];
+        if (writer == null)
+        {
+            writer = PixelsWriterImpl.newBuilder()
+                    .setSchema(this.schema)
+                    .setPixelStride(SPILL_PIXEL_STRIDE)
+                    .setRowGroupSize(SPILL_ROW_GROUP_SIZE)
+                    .setStorage(this.storage)
+                    .setPath(this.paths[partition])
+                    .setOverwrite(true)
+                    .setEncodingLevel(EncodingLevel.EL0)
+                    .setPartitioned(false).build();
+            this.writers[partition] = writer;
+        }
+        return writer;
+    }
+
+    /**
+     * Flush the buffered rows and close the files of the partitions. No more rows can be spilled
+     * after this method is called, and the spilled partitions can be read.
+     */
+    public synchronized void finish() throws IOException
+    {
+        if (this.finished)
+        {
+            return;
+        }
+        for (int p = 0; p < this.numPartitions; ++p)
+        {
+            flush(p);
+            this.buffers[p] = null;
+            PixelsWriter writer = this.writers[p];
+            if (writer != null)
+            {
+                writer.close();
+                this.spilledBytes += writer.getCompletedBytes();
+                this.numSpilledFiles++;
+            }
+        }
+        this.finished = true;
+    }
+
+    public int getNumPartitions()
+    {
+        return this.numPartitions;
+    }
+
+    /**
+     * @param partition the partition
+     * @return the number of rows spilled into the partition
+     */
+    public synchronized long getNumRows(int partition)
+    {
+        return this.numRows[partition];
+    }
+
+    /**
+     * @return the total number of rows spilled into all the partitions
+     */
+    public synchronized long getNumRows()
+    {
+        long total = 0;
+        for (long n : this.numRows)
+        {
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of bytes written into the spilled files, valid after {@link #finish()}
+     */
+    public synchronized long getSpilledBytes()
+    {
+        return this.spilledBytes;
+    }
+
+    /**
+     * @return the number of spilled files, valid after {@link #finish()}
+     */
+    public synchronized int getNumSpilledFiles()
+    {
+        return this.numSpilledFiles;
+    }
+
+    /**
+     * Open the reader of the spilled partition. This method can only be called after {@link #finish()}.
+     *
+     * @param partition the partition
+     * @return the reader of the partition, or null if there are no rows spilled into the partition
+     */
+    public synchronized PartitionReader read(int partition) throws IOException
+    {
+        checkState(this.finished, "spiller is not finished");
+        if (this.numRows[partition] == 0)
+        {
+            return null;
+        }
+        PixelsReader pixelsReader = PixelsReaderImpl.newBuilder()
+                .setStorage(this.storage)
+                .setPath(this.paths[partition])
+                .setPixelsFooterCache(new PixelsFooterCache())
+                .setEnableCache(false).build();
+        PixelsReaderOption option = new PixelsReaderOption();
+        option.includeCols(this.columnNames);
+        option.rgRange(0, -1);
+        return new PartitionReader(pixelsReader, pixelsReader.read(option), this.batchSize);
+    }
+
+    /**
+     * Close the writers if they are not closed, and delete the spilled files.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        for (int p = 0; p < this.numPartitions; ++p)
+        {
+            PixelsWriter writer = this.writers[p];
+            if (writer != null)
+            {
+                if (!this.finished)
+                {
+                    writer.close();
+                }
+                this.storage.delete(this.paths[p], false);
+                PixelsFooterCache.invalidateFile(this.paths[p]);
+                this.writers[p] = null;
+            }
+        }
+        this.finished = true;
+    }
+
+    /**
+     * The reader of a spilled partition.
+     */
+    public static class PartitionReader implements Closeable
+    {
+        private final PixelsReader pixelsReader;
+        private final PixelsRecordReader recordReader;
+        private final int batchSize;
+
+        private PartitionReader(PixelsReader pixelsReader, PixelsRecordReader recordReader, int batchSize)
+        {
+            this.pixelsReader = pixelsReader;
+            this.recordReader = recordReader;
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Read the next row batch from the spilled partition. The returned row batch is not reused.
+         * The end of the partition is reached if the endOfFile of the returned row batch is true.
+         */
+        public VectorizedRowBatch readBatch() throws IOException
+        {
+            return this.recordReader.readBatch(this.batchSize);
+        }
+
+        /**
+         * Read the next row batch with at most batchSize rows from the spilled partition.
+         * @see #readBatch()
+         */
+        public VectorizedRowBatch readBatch(int batchSize) throws IOException
+        {
+            return this.recordReader.readBatch(batchSize);
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            this.pixelsReader.close();
+        }
+    }
+}
@@ -0,0 +1,456 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.utils;
+
+import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The columnar hash table for the build side (a.k.a., the small table) of hash joins.
+ * <p/>
+ * Different from {@link HashTable}, this hash table does not create a {@link Tuple} for each row.
+ * The row batches are kept as they are, and each row is referenced by an entry, which is the
+ * (batch id, row id) pair packed in a long. The entries with the same join key are chained by
+ * entry ids, and the head entry of each distinct join key is stored in an open-addressing
+ * (linear probing) slot array together with the hash code of the join key. If there is only one
+ * join key column and it is a {@link LongColumnVector}, the key values are also stored in the
+ * slots, thus no column vector is accessed to compare the keys during probing.
+ * <p/>
+ * The rows with null join keys never match any row, they are stored as entries without a slot,
+ * so that they are still returned by outer joins.
+ * <p/>
+ * This hash table is not thread safe during building. After it is built, it can be probed
+ * concurrently by multiple threads.
+ *
+ * @create 2026-10-17
+ */
+public class ColumnarHashTable
+{
+    private static final int INITIAL_NUM_SLOTS = 1024;
+    private static final int INITIAL_NUM_ENTRIES = 1024;
+    private static final int EMPTY = -1;
+
+    private final int[] keyColumnIds;
+    private final boolean[] projection;
+    private final List<ColumnVector[]> batches = new ArrayList<>();
+    /**
+     * Whether this hash table has a single join key column of {@link LongColumnVector}.
+     * It is decided by the first row batch that is put into this hash table.
+     */
+    private boolean longKey = false;
+    /**
+     * The heap memory used by the row batches referenced by this hash table.
+     */
+    private long batchMemoryUsage = 0L;
+
+    /**
+     * The (batch id, row id) of the entries, the batch id is in the high 32 bits.
+     */
+    private long[] entryRows = new long[INITIAL_NUM_ENTRIES];
+    /**
+     * The id of the next entry with the same join key, or {@link #EMPTY}.
+     */
+    private int[] entryNext = new int[INITIAL_NUM_ENTRIES];
+    /**
+     * Whether the entry has been matched in the join, used by outer joins.
+     */
+    private boolean[] entryMatched = new boolean[INITIAL_NUM_ENTRIES];
+    private int numEntries = 0;
+
+    private int[] slotHeads = new int[INITIAL_NUM_SLOTS];
+    private long[] slotHashes = new long[INITIAL_NUM_SLOTS];
+    private long[] slotKeys = null;
+    private int mask = INITIAL_NUM_SLOTS - 1;
+    private int numUsedSlots = 0;
+
+    /**
+     * @param keyColumnIds the ids of the join key columns in the row batches
+     * @param projection whether the columns in the row batches are written into the output
+     */
+    public ColumnarHashTable(int[] keyColumnIds, boolean[] projection)
+    {
+        checkArgument(keyColumnIds != null && keyColumnIds.length > 0, "keyColumnIds is null or empty");
+        this.keyColumnIds = keyColumnIds;
+        this.projection = requireNonNull(projection, "projection is null");
+        Arrays.fill(this.slotHeads, EMPTY);
+    }
+
+    /**
+     * Put all the rows in the row batch into this hash table. If the selection vector of the row batch
+     * is in use, only the selected rows are put. The row batch is referenced by this hash table, thus
+     * it must not be reused or modified by the caller.
+     *
+     * @param rowBatch the row batch
+     */
+    public void put(VectorizedRowBatch rowBatch)
+    {
+        requireNonNull(rowBatch, "rowBatch is null");
+        checkArgument(rowBatch.numCols == this.projection.length,
+                "rowBatch does not match the projection");
+        int size = rowBatch.size;
+        if (size <= 0)
+        {
+            return;
+        }
+        ColumnVector[] columns = rowBatch.cols;
+        if (this.batches.isEmpty())
+        {
+            this.longKey = this.keyColumnIds.length == 1 && columns[this.keyColumnIds[0]] instanceof LongColumnVector;
+            if (this.longKey)
+            {
+                this.slotKeys = new long[this.slotHeads.length];
+            }
+        }
+        int batchId = this.batches.size();
+        this.batches.add(columns);
+        this.batchMemoryUsage += rowBatch.getMemoryUsage();
+        ensureEntryCapacity(this.numEntries + size);
+
+        int physicalSize = rowBatch.getPhysicalSize();
+        long[] hashes = new long[physicalSize];
+        boolean[] nullKeys = new boolean[physicalSize];
+        hashKeys(columns, this.keyColumnIds, physicalSize, hashes, nullKeys);
+        long[] keys = this.longKey ? ((LongColumnVector) columns[this.keyColumnIds[0]]).vector : null;
+        // the entries reference the rows by their positions in the column vectors
+        int[] selected = rowBatch.selectedInUse ? rowBatch.selected : null;
+        for (int j = 0; j < size; ++j)
+        {
+            int rowId = selected == null ? j : selected[j];
+            int entry = this.numEntries++;
+            this.entryRows[entry] = ((long) batchId << 32) | rowId;
+            this.entryNext[entry] = EMPTY;
+            if (nullKeys[rowId])
+            {
+                continue;
+            }
+            long hash = hashes[rowId];
+            int slot = (int) hash & this.mask;
+            while (true)
+            {
+                int head = this.slotHeads[slot];
+                if (head == EMPTY)
+                {
+                    this.slotHeads[slot] = entry;
+                    this.slotHashes[slot] = hash;
+                    if (this.longKey)
+                    {
+                        this.slotKeys[slot] = keys[rowId];
+                    }
+                    if (++this.numUsedSlots * 2 > this.slotHeads.length)
+                    {
+                        rehash();
+                    }
+                    break;
+                }
+                if (this.slotHashes[slot] == hash &&
+                        (this.longKey ? this.slotKeys[slot] == keys[rowId] : keyEquals(head, columns, rowId)))
+                {
+                    this.entryNext[entry] = head;
+                    this.slotHeads[slot] = entry;
+                    break;
+                }
+                slot = (slot + 1) & this.mask;
+            }
+        }
+    }
+
+    /**
+     * Probe this hash table with all the rows in the row batch.
+     *
+     * @param rowBatch the row batch from the probe side
+     * @param probeKeyColumnIds the ids of the join key columns in the row batch
+     * @param heads the array to store the result, the ith element is set to the head entry of
+     *              the matched entries for the ith row in the row batch, or -1 if there is no match.
+     *              If the selection vector of the row batch is in use, the ith element is for the row
+     *              at position i in the column vectors, and the rows that are not selected are not matched.
+     *              The length of it must be at least the physical size of the row batch
+     * @return the number of rows that have matched entries
+     */
+    public int probe(VectorizedRowBatch rowBatch, int[] probeKeyColumnIds, int[] heads)
+    {
+        requireNonNull(rowBatch, "rowBatch is null");
+        checkArgument(probeKeyColumnIds != null && probeKeyColumnIds.length == this.keyColumnIds.length,
+                "probeKeyColumnIds is null or has incorrect length");
+        int size = rowBatch.getPhysicalSize();
+        checkArgument(heads != null && heads.length >= size, "heads is null or too short");
+        if (size <= 0)
+        {
+            return 0;
+        }
+        if (this.numUsedSlots == 0 || rowBatch.selectedInUse)
+        {
+            Arrays.fill(heads, 0, size, EMPTY);
+            if (this.numUsedSlots == 0)
+            {
+                return 0;
+            }
+        }
+        ColumnVector[] columns = rowBatch.cols;
+        long[] hashes = new long[size];
+        boolean[] nullKeys = new boolean[size];
+        hashKeys(columns, probeKeyColumnIds, size, hashes, nullKeys);
+        // only the selected rows are probed
+        int[] selected = rowBatch.selectedInUse ? rowBatch.selected : null;
+        int numRows = rowBatch.size;
+        int numMatched = 0;
+        if (this.longKey)
+        {
+            long[] keys = ((LongColumnVector) columns[probeKeyColumnIds[0]]).vector;
+            for (int j = 0; j < numRows; ++j)
+            {
+                int i = selected == null ? j : selected[j];
+                heads[i] = EMPTY;
+                if (nullKeys[i])
+                {
+                    continue;
+                }
+                long key = keys[i];
+                int slot = (int) hashes[i] & this.mask;
+                int head;
+                while ((head = this.slotHeads[slot]) != EMPTY)
+                {
+                    if (this.slotKeys[slot] == key)
+                    {
+                        heads[i] = head;
+                        numMatched++;
+                        break;
+                    }
+                    slot = (slot + 1) & this.mask;
+                }
+            }
+        }
+        else
+        {
+            for (int j = 0; j < numRows; ++j)
+            {
+                int i = selected == null ? j : selected[j];
+                heads[i] = EMPTY;
+                if (nullKeys[i])
+                {
+                    continue;
+                }
+                long hash = hashes[i];
+                int slot = (int) hash & this.mask;
+                int head;
+                while ((head = this.slotHeads[slot]) != EMPTY)
+                {
+                    if (this.slotHashes[slot] == hash && keyEquals(head, columns, probeKeyColumnIds, i))
+                    {
+                        heads[i] = head;
+                        numMatched++;
+                        break;
+                    }
+                    slot = (slot + 1) & this.mask;
+                }
+            }
+        }
+        return numMatched;
+    }
+
+    /**
+     * @param entry the current entry
+     * @return the next entry with the same join key, or -1 if there is no more entry
+     */
+    public int next(int entry)
+    {
+        return this.entryNext[entry];
+    }
+
+    /**
+     * Mark the entry as matched. It is thread safe as the flag is only set to true.
+     */
+    public void setMatched(int entry)
+    {
+        this.entryMatched[entry] = true;
+    }
+
+    public boolean isMatched(int entry)
+    {
+        return this.entryMatched[entry];
+    }
+
+    /**
+     * Write the values of the projected columns of the entry into the row batch. The size
+     * of the row batch is not changed.
+     *
+     * @param entry the entry
+     * @param rowBatch the row batch
+     * @param start the index of the column in the row batch to start writing
+     * @return the index of the next column in the row batch to write
+     */
+    public int writeTo(int entry, VectorizedRowBatch rowBatch, int start)
+    {
+        long row = this.entryRows[entry];
+        ColumnVector[] columns = this.batches.get((int) (row >>> 32));
+        int rowId = (int) row;
+        for (int i = 0; i < columns.length; ++i)
+        {
+            if (this.projection[i])
+            {
+                rowBatch.cols[start++].addElement(rowId, columns[i]);
+            }
+        }
+        return start;
+    }
+
+    /**
+     * @return the number of entries (rows) in this hash table, the entries are numbered from 0
+     */
+    public int size()
+    {
+        return this.numEntries;
+    }
+
+    /**
+     * @return the estimated heap memory used by this hash table and the row batches referenced by it in bytes
+     */
+    public long getMemoryUsage()
+    {
+        long entryBytes = Long.BYTES + Integer.BYTES + 1;
+        long slotBytes = Integer.BYTES + Long.BYTES + (this.slotKeys != null ? Long.BYTES : 0);
+        return this.batchMemoryUsage + this.entryRows.length * entryBytes + this.slotHeads.length * slotBytes;
+    }
+
+    /**
+     * @return the number of distinct non-null join keys in this hash table
+     */
+    public int getNumKeys()
+    {
+        return this.numUsedSlots;
+    }
+
+    private void hashKeys(ColumnVector[] columns, int[] keyColumnIds, int size, long[] hashes, boolean[] nullKeys)
+    {
+        for (int id : keyColumnIds)
+        {
+            ColumnVector column = columns[id];
+            if (!column.noNulls)
+            {
+                for (int i = 0; i < size; ++i)
+                {
+                    nullKeys[i] |= column.isNull[i];
+                }
+            }
+        }
+        if (this.longKey)
+        {
+            long[] keys = ((LongColumnVector) columns[keyColumnIds[0]]).vector;
+            for (int i = 0; i < size; ++i)
+            {
+                hashes[i] = mix(keys[i]);
+            }
+        }
+        else
+        {
+            int[] hashCode = new int[size];
+            for (int id : keyColumnIds)
+            {
+                columns[id].accumulateHashCode(hashCode);
+            }
+            for (int i = 0; i < size; ++i)
+            {
+                hashes[i] = mix(hashCode[i]);
+            }
+        }
+    }
+
+    private boolean keyEquals(int entry, ColumnVector[] columns, int rowId)
+    {
+        return keyEquals(entry, columns, this.keyColumnIds, rowId);
+    }
+
+    private boolean keyEquals(int entry, ColumnVector[] otherColumns, int[] otherKeyColumnIds, int otherRowId)
+    {
+        long row = this.entryRows[entry];
+        ColumnVector[] columns = this.batches.get((int) (row >>> 32));
+        int rowId = (int) row;
+        for (int i = 0; i < this.keyColumnIds.length; ++i)
+        {
+            if (!columns[this.keyColumnIds[i]].elementEquals(rowId, otherRowId, otherColumns[otherKeyColumnIds[i]]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureEntryCapacity(int capacity)
+    {
+        if (capacity > this.entryRows.length)
+        {
+            int newCapacity = Math.max(this.entryRows.length * 2, capacity);
+            this.entryRows = Arrays.copyOf(this.entryRows, newCapacity);
+            this.entryNext = Arrays.copyOf(this.entryNext, newCapacity);
+            this.entryMatched = Arrays.copyOf(this.entryMatched, newCapacity);
+        }
+    }
+
+    private void rehash()
+    {
+        int newNumSlots = this.slotHeads.length * 2;
+        int newMask = newNumSlots - 1;
+        int[] newHeads = new int[newNumSlots];
+        long[] newHashes = new long[newNumSlots];
+        long[] newKeys = this.longKey ? new long[newNumSlots] : null;
+        Arrays.fill(newHeads, EMPTY);
+        for (int slot = 0; slot < this.slotHeads.length; ++slot)
+        {
+            if (this.slotHeads[slot] == EMPTY)
+            {
+                continue;
+            }
+            int newSlot = (int) this.slotHashes[slot] & newMask;
+            while (newHeads[newSlot] != EMPTY)
+            {
+                newSlot = (newSlot + 1) & newMask;
+            }
+            newHeads[newSlot] = this.slotHeads[slot];
+            newHashes[newSlot] = this.slotHashes[slot];
+            if (this.longKey)
+            {
+                newKeys[newSlot] = this.slotKeys[slot];
+            }
+        }
+        this.slotHeads = newHeads;
+        this.slotHashes = newHashes;
+        this.slotKeys = newKeys;
+        this.mask = newMask;
+    }
+
+    /**
+     * Spread the bits of the hash code, using the finalizer of MurmurHash3.
+     */
+    private static long mix(long value)
+    {
+        long h = value * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -28,7 +28,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 /**
- * The tuple to be used in join and extended by the AggrTuple used by aggregation.
+ * The tuple to be used in join.
  *
  * @author hank
  * @date 09/05/2022
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.aggregation;
+
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.physical.StorageFactory;
+import io.pixelsdb.pixels.core.*;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
+import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
+import io.pixelsdb.pixels.core.reader.PixelsRecordReader;
+import io.pixelsdb.pixels.core.vector.DoubleColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aggregate the rows with null group keys and null aggregate inputs, write the aggregation output
+ * into a file, and check the results of each group in the file.
+ *
+ * @create 2026-10-17
+ */
+public class TestAggregatorOutput
+{
+    private static final TypeDescription SCHEMA = TypeDescription.fromString(
+            "struct<k:bigint,g:varchar(8),v:bigint,c:bigint,w:double,m:bigint>");
+    private static final String OUTPUT_PATH = "/tmp/pixels-aggr-output-test.pxl";
+    private static final int BATCH_SIZE = 1000;
+    private static final int NUM_ROWS = 20000;
+    private static final int NUM_KEYS = 1000;
+
+    /**
+     * The expected results of a group: sum(v), count(c), min(w), max(m); min(w) is null if all w are null.
+     */
+    private static class Result
+    {
+        long sum = 0;
+        long count = 0;
+        Double min = null;
+        long max = Long.MIN_VALUE;
+    }
+
+    @Test
+    public void testWriteAggrOutput() throws IOException
+    {
+        // column g is a group key that is functionally determined by k, and it is not in the output
+        Aggregator aggregator = new Aggregator(BATCH_SIZE, SCHEMA, new String[] {"k", "g"}, new int[] {0, 1},
+                new boolean[] {true, false}, new int[] {2, 3, 4, 5},
+                new String[] {"sum_v", "count_c", "min_w", "max_m"},
+                new String[] {"bigint", "bigint", "double", "bigint"},
+                new FunctionType[] {FunctionType.SUM, FunctionType.COUNT, FunctionType.MIN, FunctionType.MAX},
+                false, 0);
+        assert aggregator.getOutputSchema().getFieldNames().size() == 5;
+
+        Map<Long, Result> expected = new HashMap<>();
+        VectorizedRowBatch rowBatch = SCHEMA.createRowBatch(BATCH_SIZE);
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            // the rows of the last key have null group key
+            Long key = row % NUM_KEYS == NUM_KEYS - 1 ? null : (long) (row % NUM_KEYS);
+            long v = row;
+            long m = row * 31L % 1009;
+            double w = row % 13 - 6.5;
+            if (key == null)
+            {
+                rowBatch.cols[0].addNull();
+                rowBatch.cols[1].addNull();
+            }
+            else
+            {
+                rowBatch.cols[0].add(key);
+                rowBatch.cols[1].add("g" + key % 7);
+            }
+            Result result = expected.computeIfAbsent(key, k -> new Result());
+            // the aggregate functions only take the non-null inputs
+            if (row % 5 == 0)
+            {
+                rowBatch.cols[2].addNull();
+            }
+            else
+            {
+                rowBatch.cols[2].add(v);
+                result.sum += v;
+            }
+            if (row % 3 == 0)
+            {
+                rowBatch.cols[3].addNull();
+            }
+            else
+            {
+                rowBatch.cols[3].add(v);
+                result.count++;
+            }
+            if (key != null && key % 10 == 3)
+            {
+                // all the w of these groups are null
+                rowBatch.cols[4].addNull();
+            }
+            else
+            {
+                rowBatch.cols[4].add(w);
+                result.min = result.min == null ? w : Math.min(result.min, w);
+            }
+            if (row % 7 == 0)
+            {
+                rowBatch.cols[5].addNull();
+            }
+            else
+            {
+                rowBatch.cols[5].add(m);
+                result.max = Math.max(result.max, m);
+            }
+            if (++rowBatch.size == BATCH_SIZE)
+            {
+                aggregator.aggregate(rowBatch);
+                rowBatch = SCHEMA.createRowBatch(BATCH_SIZE);
+            }
+        }
+
+        Storage storage = StorageFactory.Instance().getStorage(Storage.Scheme.file);
+        PixelsWriter pixelsWriter = PixelsWriterImpl.newBuilder()
+                .setSchema(aggregator.getOutputSchema())
+                .setStorage(storage)
+                .setPath(OUTPUT_PATH)
+                .setRowGroupSize(4 * 1024 * 1024)
+                .setPixelStride(10000)
+                .setEncodingLevel(EncodingLevel.EL2)
+                .setPartitioned(false)
+                .setOverwrite(true).build();
+        assert aggregator.writeAggrOutput(pixelsWriter);
+        pixelsWriter.close();
+
+        int numGroups = 0;
+        try (PixelsReader pixelsReader = PixelsReaderImpl.newBuilder()
+                .setPath(OUTPUT_PATH)
+                .setStorage(storage)
+                .setPixelsFooterCache(new PixelsFooterCache())
+                .setEnableCache(false).build())
+        {
+            PixelsReaderOption option = new PixelsReaderOption();
+            option.includeCols(new String[] {"k", "sum_v", "count_c", "min_w", "max_m"});
+            PixelsRecordReader recordReader = pixelsReader.read(option);
+            VectorizedRowBatch outputBatch;
+            do
+            {
+                outputBatch = recordReader.readBatch(BATCH_SIZE);
+                LongColumnVector k = (LongColumnVector) outputBatch.cols[0];
+                LongColumnVector sum = (LongColumnVector) outputBatch.cols[1];
+                LongColumnVector count = (LongColumnVector) outputBatch.cols[2];
+                DoubleColumnVector min = (DoubleColumnVector) outputBatch.cols[3];
+                LongColumnVector max = (LongColumnVector) outputBatch.cols[4];
+                for (int i = 0; i < outputBatch.size; ++i, ++numGroups)
+                {
+                    Long key = k.isNull[i] ? null : k.vector[i];
+                    Result result = expected.remove(key);
+                    assert result != null : "unexpected or duplicate group " + key;
+                    assert sum.vector[i] == result.sum;
+                    assert count.vector[i] == result.count;
+                    assert max.vector[i] == result.max;
+                    if (result.min == null)
+                    {
+                        assert min.isNull[i];
+                    }
+                    else
+                    {
+                        assert !min.isNull[i] && Double.longBitsToDouble(min.vector[i]) == result.min;
+                    }
+                }
+            } while (!outputBatch.endOfFile);
+        }
+        finally
+        {
+            storage.delete(OUTPUT_PATH, false);
+        }
+        assert numGroups == NUM_KEYS && expected.isEmpty();
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.aggregation;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.LongDecimalColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import io.pixelsdb.pixels.executor.aggregation.function.Function;
+import io.pixelsdb.pixels.executor.aggregation.function.FunctionFactory;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestGroupByHashTable
+{
+    private static final TypeDescription SCHEMA = TypeDescription.fromString(
+            "struct<k1:bigint,k2:varchar(16),v:bigint,d:decimal(15,2)>");
+    private static final int BATCH_SIZE = 10000;
+
+    @Test
+    public void testAggregate()
+    {
+        Random random = new Random(1);
+        List<TypeDescription> keyTypes = Arrays.asList(SCHEMA.getChildren().get(0), SCHEMA.getChildren().get(1));
+        GroupByHashTable table = new GroupByHashTable(keyTypes, new int[]{0, 1});
+        Function sum = FunctionFactory.Instance().createFunction(FunctionType.SUM,
+                TypeDescription.createLong(), TypeDescription.createLong());
+        Function max = FunctionFactory.Instance().createFunction(FunctionType.MAX,
+                TypeDescription.createLong(), TypeDescription.createLong());
+        Function decimalSum = FunctionFactory.Instance().createFunction(FunctionType.SUM,
+                TypeDescription.createDecimal(15, 2), TypeDescription.createDecimal(38, 2));
+        Map<String, long[]> expected = new HashMap<>();
+        int[] groupIds = new int[BATCH_SIZE];
+        for (int b = 0; b < 20; ++b)
+        {
+            VectorizedRowBatch rowBatch = SCHEMA.createRowBatch(BATCH_SIZE);
+            LongColumnVector k1 = (LongColumnVector) rowBatch.cols[0];
+            BinaryColumnVector k2 = (BinaryColumnVector) rowBatch.cols[1];
+            for (int i = 0; i < BATCH_SIZE; ++i)
+            {
+                long key = random.nextInt(5000);
+                long value = random.nextInt(2000) - 1000;
+                String key2 = (key % 3 == 0) ? null : "k" + (key % 11);
+                k1.add(key);
+                if (key2 == null)
+                {
+                    k2.addNull();
+                }
+                else
+                {
+                    k2.add(key2);
+                }
+                rowBatch.cols[2].add(value);
+                rowBatch.cols[3].add(new BigDecimal(value).movePointLeft(2).toString());
+                long[] state = expected.computeIfAbsent(key + "|" + key2, k -> new long[]{0, Long.MIN_VALUE});
+                state[0] += value;
+                state[1] = Math.max(state[1], value);
+            }
+            rowBatch.size = BATCH_SIZE;
+            int numGroups = table.put(rowBatch, groupIds);
+            for (Function function : new Function[]{sum, max, decimalSum})
+            {
+                function.ensureCapacity(numGroups);
+            }
+            sum.input(groupIds, rowBatch.size, rowBatch.cols[2]);
+            max.input(groupIds, rowBatch.size, rowBatch.cols[2]);
+            decimalSum.input(groupIds, rowBatch.size, rowBatch.cols[3]);
+        }
+        assert table.size() == expected.size() : "expected " + expected.size() + " groups, but got " + table.size();
+
+        TypeDescription outputSchema = TypeDescription.fromString(
+                "struct<k1:bigint,k2:varchar(16),sum:bigint,max:bigint,dsum:decimal(38,2)>");
+        VectorizedRowBatch output = outputSchema.createRowBatch(table.size());
+        boolean[] projection = new boolean[]{true, true};
+        for (int groupId = 0; groupId < table.size(); ++groupId)
+        {
+            int start = table.writeKeys(groupId, output, projection);
+            sum.output(groupId, output.cols[start++]);
+            max.output(groupId, output.cols[start++]);
+            decimalSum.output(groupId, output.cols[start]);
+            output.size++;
+        }
+        LongColumnVector k1 = (LongColumnVector) output.cols[0];
+        BinaryColumnVector k2 = (BinaryColumnVector) output.cols[1];
+        LongDecimalColumnVector dsum = (LongDecimalColumnVector) output.cols[4];
+        for (int i = 0; i < output.size; ++i)
+        {
+            String key2 = k2.isNull[i] ? null : new String(k2.vector[i], k2.start[i], k2.lens[i], StandardCharsets.UTF_8);
+            long[] state = expected.get(k1.vector[i] + "|" + key2);
+            assert state != null;
+            assert state[0] == ((LongColumnVector) output.cols[2]).vector[i];
+            assert state[1] == ((LongColumnVector) output.cols[3]).vector[i];
+            // the sums of the negative short decimals must be sign-extended into long decimals
+            assert dsum.vector[i * 2] == (state[0] >> 63) && dsum.vector[i * 2 + 1] == state[0];
+        }
+    }
+
+    @Test
+    public void testMerge()
+    {
+        TypeDescription schema = TypeDescription.fromString("struct<k:varchar(16),v:bigint>");
+        List<TypeDescription> keyTypes = Collections.singletonList(schema.getChildren().get(0));
+        GroupByHashTable merged = new GroupByHashTable(keyTypes, new int[]{0});
+        Function mergedSum = FunctionFactory.Instance().createFunction(FunctionType.SUM,
+                TypeDescription.createLong(), TypeDescription.createLong());
+        Function mergedMin = FunctionFactory.Instance().createFunction(FunctionType.MIN,
+                TypeDescription.createLong(), TypeDescription.createLong());
+        Map<String, long[]> expected = new HashMap<>();
+        Random random = new Random(1);
+        for (int t = 0; t < 4; ++t)
+        {
+            // each partial table has some groups that are not in the others
+            GroupByHashTable table = new GroupByHashTable(keyTypes, new int[]{0});
+            Function sum = mergedSum.buildCopy();
+            Function min = mergedMin.buildCopy();
+            VectorizedRowBatch rowBatch = schema.createRowBatch(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; ++i)
+            {
+                String key = random.nextInt(100) == 0 ? null : "k" + random.nextInt(3000 + t * 500);
+                long value = random.nextInt(2000) - 1000;
+                if (key == null)
+                {
+                    rowBatch.cols[0].addNull();
+                }
+                else
+                {
+                    rowBatch.cols[0].add(key);
+                }
+                rowBatch.cols[1].add(value);
+                long[] state = expected.computeIfAbsent(key, k -> new long[]{0, Long.MAX_VALUE});
+                state[0] += value;
+                state[1] = Math.min(state[1], value);
+            }
+            rowBatch.size = BATCH_SIZE;
+            int[] groupIds = new int[BATCH_SIZE];
+            int numGroups = table.put(rowBatch, groupIds);
+            sum.ensureCapacity(numGroups);
+            min.ensureCapacity(numGroups);
+            sum.input(groupIds, BATCH_SIZE, rowBatch.cols[1]);
+            min.input(groupIds, BATCH_SIZE, rowBatch.cols[1]);
+
+            int[] mergedGroupIds = new int[numGroups];
+            int numMergedGroups = merged.merge(table, mergedGroupIds);
+            mergedSum.ensureCapacity(numMergedGroups);
+            mergedMin.ensureCapacity(numMergedGroups);
+            mergedSum.merge(mergedGroupIds, numGroups, sum);
+            mergedMin.merge(mergedGroupIds, numGroups, min);
+        }
+        assert merged.size() == expected.size() : "expected " + expected.size() + " groups, but got " + merged.size();
+
+        VectorizedRowBatch output = TypeDescription.fromString("struct<k:varchar(16),sum:bigint,min:bigint>")
+                .createRowBatch(merged.size());
+        for (int groupId = 0; groupId < merged.size(); ++groupId)
+        {
+            int start = merged.writeKeys(groupId, output, new boolean[]{true});
+            mergedSum.output(groupId, output.cols[start++]);
+            mergedMin.output(groupId, output.cols[start]);
+            output.size++;
+        }
+        BinaryColumnVector k = (BinaryColumnVector) output.cols[0];
+        for (int i = 0; i < output.size; ++i)
+        {
+            String key = k.isNull[i] ? null : new String(k.vector[i], k.start[i], k.lens[i], StandardCharsets.UTF_8);
+            long[] state = expected.get(key);
+            assert state != null;
+            assert state[0] == ((LongColumnVector) output.cols[1]).vector[i];
+            assert state[1] == ((LongColumnVector) output.cols[2]).vector[i];
+        }
+    }
+}
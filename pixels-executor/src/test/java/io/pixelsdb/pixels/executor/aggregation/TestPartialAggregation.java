@@ -0,0 +1,188 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.aggregation;
+
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.physical.StorageFactory;
+import io.pixelsdb.pixels.core.*;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
+import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
+import io.pixelsdb.pixels.core.reader.PixelsRecordReader;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestPartialAggregation
+{
+    private static final TypeDescription SCHEMA = TypeDescription.fromString("struct<k:bigint,v:bigint>");
+    private static final int BATCH_SIZE = 4096;
+    private static final int NUM_BATCHES = 400;
+    private static final int NUM_KEYS = 20000;
+
+    private static Aggregator createAggregator()
+    {
+        return new Aggregator(BATCH_SIZE, SCHEMA, new String[] {"k"}, new int[] {0},
+                new boolean[] {true}, new int[] {1}, new String[] {"sum_v"}, new String[] {"bigint"},
+                new FunctionType[] {FunctionType.SUM}, false, 0);
+    }
+
+    private static List<VectorizedRowBatch> createBatches()
+    {
+        List<VectorizedRowBatch> rowBatches = new ArrayList<>(NUM_BATCHES);
+        for (int b = 0; b < NUM_BATCHES; ++b)
+        {
+            VectorizedRowBatch rowBatch = SCHEMA.createRowBatch(BATCH_SIZE);
+            LongColumnVector k = (LongColumnVector) rowBatch.cols[0];
+            LongColumnVector v = (LongColumnVector) rowBatch.cols[1];
+            for (int i = 0; i < BATCH_SIZE; ++i)
+            {
+                k.vector[i] = ((long) b * BATCH_SIZE + i) % NUM_KEYS;
+                v.vector[i] = 1;
+            }
+            rowBatch.size = BATCH_SIZE;
+            rowBatches.add(rowBatch);
+        }
+        return rowBatches;
+    }
+
+    /**
+     * Aggregate the row batches by the threads, each thread uses its own partial aggregator if partial is true.
+     * @return the elapsed time in nanoseconds
+     */
+    private static long aggregate(Aggregator aggregator, List<VectorizedRowBatch> rowBatches,
+                                  int numThreads, boolean partial) throws InterruptedException
+    {
+        long start = System.nanoTime();
+        ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
+        List<Aggregator> partialAggregators = new ArrayList<>();
+        for (int t = 0; t < numThreads; ++t)
+        {
+            Aggregator threadAggregator = partial ? aggregator.createPartial() : aggregator;
+            partialAggregators.add(threadAggregator);
+            int thread = t;
+            threadPool.execute(() -> {
+                for (int b = thread; b < rowBatches.size(); b += numThreads)
+                {
+                    threadAggregator.aggregate(rowBatches.get(b));
+                }
+            });
+        }
+        threadPool.shutdown();
+        while (!threadPool.awaitTermination(60, TimeUnit.SECONDS));
+        if (partial)
+        {
+            for (Aggregator partialAggregator : partialAggregators)
+            {
+                aggregator.merge(partialAggregator);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static Map<Long, Long> writeAndRead(Aggregator aggregator) throws IOException
+    {
+        Storage storage = StorageFactory.Instance().getStorage(Storage.Scheme.file);
+        String outputPath = "/tmp/pixels-partial-aggr-test.pxl";
+        PixelsWriter pixelsWriter = PixelsWriterImpl.newBuilder()
+                .setSchema(aggregator.getOutputSchema())
+                .setStorage(storage)
+                .setPath(outputPath)
+                .setRowGroupSize(4 * 1024 * 1024)
+                .setPixelStride(10000)
+                .setEncodingLevel(EncodingLevel.EL0)
+                .setPartitioned(false)
+                .setOverwrite(true).build();
+        aggregator.writeAggrOutput(pixelsWriter);
+        pixelsWriter.close();
+
+        Map<Long, Long> sums = new HashMap<>();
+        try (PixelsReader pixelsReader = PixelsReaderImpl.newBuilder()
+                .setPath(outputPath)
+                .setStorage(storage)
+                .setPixelsFooterCache(new PixelsFooterCache())
+                .setEnableCache(false).build())
+        {
+            PixelsReaderOption option = new PixelsReaderOption();
+            option.includeCols(new String[] {"k", "sum_v"});
+            PixelsRecordReader recordReader = pixelsReader.read(option);
+            VectorizedRowBatch rowBatch;
+            do
+            {
+                rowBatch = recordReader.readBatch(BATCH_SIZE);
+                LongColumnVector k = (LongColumnVector) rowBatch.cols[0];
+                LongColumnVector sum = (LongColumnVector) rowBatch.cols[1];
+                for (int i = 0; i < rowBatch.size; ++i)
+                {
+                    assert sums.put(k.vector[i], sum.vector[i]) == null : "duplicate group " + k.vector[i];
+                }
+            } while (!rowBatch.endOfFile);
+        }
+        storage.delete(outputPath, false);
+        return sums;
+    }
+
+    @Test
+    public void testMerge() throws IOException, InterruptedException
+    {
+        Aggregator aggregator = createAggregator();
+        aggregate(aggregator, createBatches(), 4, true);
+        Map<Long, Long> sums = writeAndRead(aggregator);
+        assert sums.size() == NUM_KEYS;
+        long total = 0;
+        for (long sum : sums.values())
+        {
+            total += sum;
+        }
+        assert total == (long) NUM_BATCHES * BATCH_SIZE;
+    }
+
+    /**
+     * Compare the partial aggregators of the threads with a single aggregator shared by the threads.
+     */
+    @Test
+    public void testScalability() throws InterruptedException
+    {
+        List<VectorizedRowBatch> rowBatches = createBatches();
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int numThreads = 1; numThreads <= cores * 2; numThreads *= 2)
+        {
+            long sharedNs = Long.MAX_VALUE, partialNs = Long.MAX_VALUE;
+            for (int round = 0; round < 3; ++round)
+            {
+                sharedNs = Math.min(sharedNs, aggregate(createAggregator(), rowBatches, numThreads, false));
+                partialNs = Math.min(partialNs, aggregate(createAggregator(), rowBatches, numThreads, true));
+            }
+            System.out.println(numThreads + " threads: shared aggregator " + sharedNs / 1000_000 +
+                    " ms, partial aggregators " + partialNs / 1000_000 + " ms");
+        }
+    }
+}
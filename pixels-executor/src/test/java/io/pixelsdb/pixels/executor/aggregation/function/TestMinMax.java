@@ -0,0 +1,176 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.aggregation.function;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.*;
+import io.pixelsdb.pixels.executor.aggregation.FunctionType;
+import org.junit.Test;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestMinMax
+{
+    /**
+     * The group of each input row, group 2 only has null inputs.
+     */
+    private static final int[] GROUP_IDS = {0, 1, 0, 2, 1, 0, 2, 1};
+    private static final int NUM_GROUPS = 3;
+
+    /**
+     * Input the vector into the function and output the results of the groups into the output vector.
+     */
+    private static ColumnVector aggregate(FunctionType functionType, TypeDescription type,
+                                          ColumnVector inputVector, ColumnVector outputVector)
+    {
+        Function function = FunctionFactory.Instance().createFunction(functionType, type, type);
+        function.ensureCapacity(NUM_GROUPS);
+        function.input(GROUP_IDS, GROUP_IDS.length, inputVector);
+        for (int groupId = 0; groupId < NUM_GROUPS; ++groupId)
+        {
+            function.output(groupId, outputVector);
+        }
+        return outputVector;
+    }
+
+    /**
+     * Add the values into the vector, the values of group 2 are added as nulls.
+     */
+    private static <T extends ColumnVector> T fill(T vector, long[] values)
+    {
+        for (int i = 0; i < GROUP_IDS.length; ++i)
+        {
+            if (GROUP_IDS[i] == 2)
+            {
+                vector.addNull();
+            }
+            else
+            {
+                vector.add(values[i]);
+            }
+        }
+        return vector;
+    }
+
+    @Test
+    public void testLong()
+    {
+        long[] values = {5, -3, -7, 0, 10, 2, 0, Long.MIN_VALUE};
+        TypeDescription type = TypeDescription.createLong();
+        LongColumnVector min = (LongColumnVector) aggregate(FunctionType.MIN, type,
+                fill(new LongColumnVector(), values), new LongColumnVector());
+        LongColumnVector max = (LongColumnVector) aggregate(FunctionType.MAX, type,
+                fill(new LongColumnVector(), values), new LongColumnVector());
+        assert min.vector[0] == -7 && max.vector[0] == 5;
+        assert min.vector[1] == Long.MIN_VALUE && max.vector[1] == 10;
+        assert !min.isNull[0] && !min.isNull[1] && !max.isNull[0] && !max.isNull[1];
+        // the group without non-null input has null result
+        assert min.isNull[2] && max.isNull[2] && !min.noNulls && !max.noNulls;
+    }
+
+    @Test
+    public void testDouble()
+    {
+        double[] values = {1.5, -0.25, -3.75, 0, 2.0, -1.0, 0, -0.5};
+        TypeDescription type = TypeDescription.createDouble();
+        DoubleColumnVector[] results = new DoubleColumnVector[2];
+        FunctionType[] functionTypes = {FunctionType.MIN, FunctionType.MAX};
+        for (int f = 0; f < functionTypes.length; ++f)
+        {
+            DoubleColumnVector input = new DoubleColumnVector();
+            for (int i = 0; i < GROUP_IDS.length; ++i)
+            {
+                if (GROUP_IDS[i] == 2)
+                {
+                    input.addNull();
+                }
+                else
+                {
+                    input.add(values[i]);
+                }
+            }
+            results[f] = (DoubleColumnVector) aggregate(functionTypes[f], type, input, new DoubleColumnVector());
+        }
+        // the negative values are compared as doubles rather than their raw bits
+        assert Double.longBitsToDouble(results[0].vector[0]) == -3.75;
+        assert Double.longBitsToDouble(results[1].vector[0]) == 1.5;
+        assert Double.longBitsToDouble(results[0].vector[1]) == -0.5;
+        assert Double.longBitsToDouble(results[1].vector[1]) == 2.0;
+        assert results[0].isNull[2] && results[1].isNull[2];
+    }
+
+    @Test
+    public void testDateAndDecimal()
+    {
+        long[] values = {18000, 17000, 19000, 0, 16000, 18500, 0, 20000};
+        TypeDescription dateType = TypeDescription.createDate();
+        DateColumnVector dateInput = new DateColumnVector();
+        for (int i = 0; i < GROUP_IDS.length; ++i)
+        {
+            if (GROUP_IDS[i] == 2)
+            {
+                dateInput.addNull();
+            }
+            else
+            {
+                dateInput.add((int) values[i]);
+            }
+        }
+        DateColumnVector dateMin = (DateColumnVector) aggregate(FunctionType.MIN, dateType,
+                dateInput, new DateColumnVector());
+        assert dateMin.dates[0] == 18000 && dateMin.dates[1] == 16000 && dateMin.isNull[2];
+
+        // the short decimals are compared by their unscaled values of the same scale
+        TypeDescription decimalType = TypeDescription.createDecimal(15, 2);
+        DecimalColumnVector decimalMax = (DecimalColumnVector) aggregate(FunctionType.MAX, decimalType,
+                fill(new DecimalColumnVector(15, 2), values), new DecimalColumnVector(15, 2));
+        assert decimalMax.vector[0] == 19000 && decimalMax.vector[1] == 20000 && decimalMax.isNull[2];
+    }
+
+    @Test
+    public void testMerge()
+    {
+        TypeDescription type = TypeDescription.createLong();
+        Function merged = FunctionFactory.Instance().createFunction(FunctionType.MAX, type, type);
+        merged.ensureCapacity(NUM_GROUPS);
+        merged.input(GROUP_IDS, GROUP_IDS.length,
+                fill(new LongColumnVector(), new long[] {5, -3, -7, 0, -10, 2, 0, -8}));
+
+        // the partial function has no value in its group 0, which is merged into group 1
+        Function partial = merged.buildCopy();
+        partial.ensureCapacity(2);
+        LongColumnVector partialInput = new LongColumnVector();
+        partialInput.addNull();
+        partialInput.add(-1L);
+        partial.input(new int[] {0, 1}, 2, partialInput);
+        // partial group 1 is merged into group 2, which only had null inputs
+        merged.merge(new int[] {1, 2}, 2, partial);
+
+        LongColumnVector output = new LongColumnVector();
+        for (int groupId = 0; groupId < NUM_GROUPS; ++groupId)
+        {
+            merged.output(groupId, output);
+        }
+        assert output.vector[0] == 5;
+        assert output.vector[1] == -3 && !output.isNull[1];
+        assert output.vector[2] == -1 && !output.isNull[2];
+    }
+}
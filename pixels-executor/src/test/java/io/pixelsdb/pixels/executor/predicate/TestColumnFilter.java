@@ -0,0 +1,269 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.predicate;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.stats.StatsRecorder;
+import io.pixelsdb.pixels.core.utils.Bitmap;
+import io.pixelsdb.pixels.core.vector.DoubleColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.LongDecimalColumnVector;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestColumnFilter
+{
+    private static final int SIZE = 10000;
+
+    private static ColumnFilter<Long> createLongFilter(TypeDescription.Category type, Bound.Type lowerType, long lower,
+                                                      Bound.Type upperType, long upper, boolean allowNull)
+    {
+        Filter<Long> filter = new Filter<>(Long.TYPE, false, false, allowNull, false);
+        filter.addRange(new Bound<>(lowerType, lower), new Bound<>(upperType, upper));
+        return new ColumnFilter<>("c", type, filter);
+    }
+
+    @Test
+    public void testLongRange()
+    {
+        Random random = new Random(1);
+        LongColumnVector vector = new LongColumnVector(SIZE);
+        for (int i = 0; i < SIZE; ++i)
+        {
+            vector.vector[i] = random.nextInt(2000) - 1000;
+            if (i % 97 == 0)
+            {
+                vector.isNull[i] = true;
+                vector.noNulls = false;
+            }
+        }
+        for (boolean allowNull : new boolean[] {false, true})
+        {
+            ColumnFilter<Long> columnFilter = createLongFilter(TypeDescription.Category.LONG,
+                    Bound.Type.EXCLUDED, -100L, Bound.Type.INCLUDED, 300L, allowNull);
+            // an unaligned start offset to cover the partial words
+            int start = 13, length = SIZE - 100;
+            Bitmap result = new Bitmap(SIZE, true);
+            columnFilter.doFilter(vector, start, length, result);
+            for (int i = 0; i < SIZE; ++i)
+            {
+                boolean expected;
+                if (i < start || i >= start + length)
+                {
+                    expected = true;
+                }
+                else if (vector.isNull[i])
+                {
+                    expected = allowNull;
+                }
+                else
+                {
+                    expected = vector.vector[i] > -100 && vector.vector[i] <= 300;
+                }
+                assert result.get(i) == expected : "mismatch at row " + i;
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyAndUnboundedRange()
+    {
+        LongColumnVector vector = new LongColumnVector(SIZE);
+        for (int i = 0; i < SIZE; ++i)
+        {
+            vector.vector[i] = i % 2 == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        Bitmap result = new Bitmap(SIZE, false);
+        createLongFilter(TypeDescription.Category.LONG, Bound.Type.EXCLUDED, Long.MAX_VALUE,
+                Bound.Type.UNBOUNDED, 0L, false).doFilter(vector, 0, SIZE, result);
+        assert result.cardinality() == 0;
+        createLongFilter(TypeDescription.Category.LONG, Bound.Type.UNBOUNDED, 0L,
+                Bound.Type.UNBOUNDED, 0L, false).doFilter(vector, 0, SIZE, result);
+        assert result.cardinality() == SIZE;
+    }
+
+    @Test
+    public void testDoubleRange()
+    {
+        DoubleColumnVector vector = new DoubleColumnVector(SIZE);
+        for (int i = 0; i < SIZE; ++i)
+        {
+            vector.vector[i] = Double.doubleToLongBits((i - SIZE / 2) / 10.0);
+        }
+        Filter<Long> filter = new Filter<>(Long.TYPE, false, false, false, false);
+        filter.addRange(new Bound<>(Bound.Type.INCLUDED, Double.doubleToLongBits(-20.5)),
+                new Bound<>(Bound.Type.EXCLUDED, Double.doubleToLongBits(-10.0)));
+        ColumnFilter<Long> columnFilter = new ColumnFilter<>("c", TypeDescription.Category.DOUBLE, filter);
+        Bitmap result = new Bitmap(SIZE, false);
+        columnFilter.doFilter(vector, 0, SIZE, result);
+        for (int i = 0; i < SIZE; ++i)
+        {
+            double value = (i - SIZE / 2) / 10.0;
+            assert result.get(i) == (value >= -20.5 && value < -10.0) : "mismatch at value " + value;
+        }
+    }
+
+    @Test
+    public void testLongDecimal()
+    {
+        LongDecimalColumnVector vector = new LongDecimalColumnVector(SIZE, 38, 2);
+        for (int i = 0; i < SIZE; ++i)
+        {
+            long value = i - SIZE / 2;
+            vector.vector[i * 2] = value >> 63;
+            vector.vector[i * 2 + 1] = value;
+        }
+        // a value larger than any long
+        vector.vector[0] = 1;
+        vector.vector[1] = 5;
+        ColumnFilter<Long> columnFilter = createLongFilter(TypeDescription.Category.DECIMAL,
+                Bound.Type.INCLUDED, -10L, Bound.Type.UNBOUNDED, 0L, false);
+        Bitmap result = new Bitmap(SIZE, false);
+        columnFilter.doFilter(vector, 0, SIZE, result);
+        assert result.get(0);
+        for (int i = 1; i < SIZE; ++i)
+        {
+            assert result.get(i) == (i - SIZE / 2 >= -10) : "mismatch at row " + i;
+        }
+
+        Filter<Long> filter = new Filter<>(Long.TYPE, false, false, false, false);
+        filter.addDiscreteValue(new Bound<>(Bound.Type.INCLUDED, 5L));
+        columnFilter = new ColumnFilter<>("c", TypeDescription.Category.DECIMAL, filter);
+        result = new Bitmap(SIZE, false);
+        columnFilter.doFilter(vector, 0, SIZE, result);
+        assert result.cardinality() == 1 && result.get(SIZE / 2 + 5);
+    }
+
+    @Test
+    public void testRepeating()
+    {
+        LongColumnVector vector = new LongColumnVector(SIZE);
+        vector.fill(42);
+        Bitmap result = new Bitmap(SIZE, false);
+        createLongFilter(TypeDescription.Category.LONG, Bound.Type.INCLUDED, 40L,
+                Bound.Type.INCLUDED, 50L, false).doFilter(vector, 100, 1000, result);
+        assert result.cardinality() == 1000 && result.get(100) && result.get(1099);
+        createLongFilter(TypeDescription.Category.LONG, Bound.Type.INCLUDED, 0L,
+                Bound.Type.INCLUDED, 10L, false).doFilter(vector, 100, 1000, result);
+        assert result.cardinality() == 0;
+        // the repeating column vector is not flattened
+        assert vector.isRepeating();
+    }
+
+    @Test
+    public void testMayMatchStats()
+    {
+        // the statistics of a pixel with the values in [100, 200]
+        StatsRecorder longStats = StatsRecorder.create(TypeDescription.createLong());
+        longStats.updateInteger(100, 1);
+        longStats.updateInteger(200, 1);
+        assert createLongFilter(TypeDescription.Category.LONG, Bound.Type.INCLUDED, 150L,
+                Bound.Type.UNBOUNDED, 0L, false).mayMatch(longStats);
+        assert createLongFilter(TypeDescription.Category.LONG, Bound.Type.UNBOUNDED, 0L,
+                Bound.Type.INCLUDED, 100L, false).mayMatch(longStats);
+        assert !createLongFilter(TypeDescription.Category.LONG, Bound.Type.UNBOUNDED, 0L,
+                Bound.Type.EXCLUDED, 100L, false).mayMatch(longStats);
+        assert !createLongFilter(TypeDescription.Category.LONG, Bound.Type.EXCLUDED, 200L,
+                Bound.Type.UNBOUNDED, 0L, false).mayMatch(longStats);
+        // the nulls match the filter that allows null
+        assert !createLongFilter(TypeDescription.Category.LONG, Bound.Type.INCLUDED, 300L,
+                Bound.Type.INCLUDED, 400L, true).mayMatch(longStats);
+        longStats.setHasNull();
+        assert createLongFilter(TypeDescription.Category.LONG, Bound.Type.INCLUDED, 300L,
+                Bound.Type.INCLUDED, 400L, true).mayMatch(longStats);
+
+        Filter<Long> filter = new Filter<>(Long.TYPE, false, false, false, false);
+        filter.addDiscreteValue(new Bound<>(Bound.Type.INCLUDED, 50L));
+        filter.addDiscreteValue(new Bound<>(Bound.Type.INCLUDED, 250L));
+        assert !new ColumnFilter<>("c", TypeDescription.Category.LONG, filter).mayMatch(longStats);
+        filter.addDiscreteValue(new Bound<>(Bound.Type.INCLUDED, 120L));
+        assert new ColumnFilter<>("c", TypeDescription.Category.LONG, filter).mayMatch(longStats);
+
+        // the negative doubles are compared as doubles rather than their bits
+        StatsRecorder doubleStats = StatsRecorder.create(TypeDescription.createDouble());
+        doubleStats.updateDouble(-20.0);
+        doubleStats.updateDouble(-10.0);
+        filter = new Filter<>(Long.TYPE, false, false, false, false);
+        filter.addRange(new Bound<>(Bound.Type.INCLUDED, Double.doubleToLongBits(-5.0)),
+                new Bound<>(Bound.Type.UNBOUNDED, 0L));
+        assert !new ColumnFilter<>("c", TypeDescription.Category.DOUBLE, filter).mayMatch(doubleStats);
+        filter = new Filter<>(Long.TYPE, false, false, false, false);
+        filter.addRange(new Bound<>(Bound.Type.UNBOUNDED, 0L),
+                new Bound<>(Bound.Type.INCLUDED, Double.doubleToLongBits(-15.0)));
+        assert new ColumnFilter<>("c", TypeDescription.Category.DOUBLE, filter).mayMatch(doubleStats);
+    }
+
+    /**
+     * Compare the range filter with the row-by-row bitmap setting loop it replaced,
+     * on selectivities from 0.1% to 99%.
+     */
+    @Test
+    public void testPerformance()
+    {
+        int numBatches = 1000;
+        Random random = new Random(1);
+        LongColumnVector vector = new LongColumnVector(SIZE);
+        for (int i = 0; i < SIZE; ++i)
+        {
+            vector.vector[i] = random.nextInt(100000);
+        }
+        Bitmap result = new Bitmap(SIZE, false);
+        for (double selectivity : new double[] {0.001, 0.01, 0.1, 0.5, 0.9, 0.99})
+        {
+            long upper = (long) (100000 * selectivity) - 1;
+            ColumnFilter<Long> columnFilter = createLongFilter(TypeDescription.Category.LONG,
+                    Bound.Type.INCLUDED, 0L, Bound.Type.INCLUDED, upper, false);
+            long scalarNs = Long.MAX_VALUE, kernelNs = Long.MAX_VALUE;
+            int scalarCount = 0, kernelCount = 0;
+            for (int round = 0; round < 5; ++round)
+            {
+                long start = System.nanoTime();
+                for (int b = 0; b < numBatches; ++b)
+                {
+                    result.clear(0, SIZE);
+                    for (int i = 0; i < SIZE; ++i)
+                    {
+                        if (vector.vector[i] >= 0 && vector.vector[i] <= upper)
+                        {
+                            result.set(i);
+                        }
+                    }
+                }
+                scalarNs = Math.min(scalarNs, System.nanoTime() - start);
+                scalarCount = result.cardinality();
+
+                start = System.nanoTime();
+                for (int b = 0; b < numBatches; ++b)
+                {
+                    columnFilter.doFilter(vector, 0, SIZE, result);
+                }
+                kernelNs = Math.min(kernelNs, System.nanoTime() - start);
+                kernelCount = result.cardinality();
+            }
+            assert scalarCount == kernelCount;
+            System.out.println("selectivity " + selectivity + ": row-by-row " + scalarNs / numBatches +
+                    " ns/batch, word-at-a-time " + kernelNs / numBatches + " ns/batch");
+        }
+    }
+}
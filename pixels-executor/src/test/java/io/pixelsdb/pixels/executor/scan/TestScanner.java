@@ -0,0 +1,200 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.scan;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import io.pixelsdb.pixels.executor.join.Partitioner;
+import io.pixelsdb.pixels.executor.predicate.Bound;
+import io.pixelsdb.pixels.executor.predicate.ColumnFilter;
+import io.pixelsdb.pixels.executor.predicate.Filter;
+import io.pixelsdb.pixels.executor.predicate.TableScanFilter;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestScanner
+{
+    private static final int BATCH_SIZE = 10000;
+    private static final int NUM_PARTITIONS = 8;
+    private static final String[] COLUMN_NAMES = {"key", "value", "comment"};
+    private static final TypeDescription SCHEMA =
+            TypeDescription.fromString("struct<key:bigint,value:bigint,comment:varchar(64)>");
+
+    private final long[] keys = new long[BATCH_SIZE];
+    private final long[] values = new long[BATCH_SIZE];
+    private final byte[][] comments = new byte[BATCH_SIZE][];
+
+    public TestScanner()
+    {
+        Random random = new Random(1);
+        for (int i = 0; i < BATCH_SIZE; ++i)
+        {
+            keys[i] = random.nextInt(1000000);
+            values[i] = random.nextInt(1000);
+            comments[i] = ("comment of row " + i).getBytes();
+        }
+    }
+
+    private VectorizedRowBatch fill(VectorizedRowBatch rowBatch)
+    {
+        rowBatch.reset();
+        LongColumnVector keyVector = (LongColumnVector) rowBatch.cols[0];
+        LongColumnVector valueVector = (LongColumnVector) rowBatch.cols[1];
+        BinaryColumnVector commentVector = (BinaryColumnVector) rowBatch.cols[2];
+        System.arraycopy(keys, 0, keyVector.vector, 0, BATCH_SIZE);
+        System.arraycopy(values, 0, valueVector.vector, 0, BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; ++i)
+        {
+            commentVector.setRef(i, comments[i], 0, comments[i].length);
+        }
+        rowBatch.size = BATCH_SIZE;
+        return rowBatch;
+    }
+
+    /**
+     * @return the scanner that selects the rows with value in [0, selectivity * 1000)
+     */
+    private static Scanner createScanner(double selectivity)
+    {
+        Filter<Long> filter = new Filter<>(Long.TYPE, false, false, false, false);
+        filter.addRange(new Bound<>(Bound.Type.INCLUDED, 0L),
+                new Bound<>(Bound.Type.EXCLUDED, (long) (selectivity * 1000)));
+        SortedMap<Integer, ColumnFilter> columnFilters = new TreeMap<>();
+        columnFilters.put(1, new ColumnFilter<>("value", TypeDescription.Category.LONG, filter));
+        return new Scanner(BATCH_SIZE, SCHEMA, COLUMN_NAMES, new boolean[] {true, true, true},
+                new TableScanFilter("test", "test", columnFilters));
+    }
+
+    /**
+     * @return the checksum of the rows in the partitions
+     */
+    private static long checksum(Map<Integer, VectorizedRowBatch> output, long checksum)
+    {
+        for (Map.Entry<Integer, VectorizedRowBatch> entry : output.entrySet())
+        {
+            checksum += checksum(entry.getKey(), entry.getValue());
+        }
+        return checksum;
+    }
+
+    private static long checksum(int partition, VectorizedRowBatch rowBatch)
+    {
+        assert !rowBatch.selectedInUse;
+        long checksum = 0;
+        LongColumnVector keyVector = (LongColumnVector) rowBatch.cols[0];
+        LongColumnVector valueVector = (LongColumnVector) rowBatch.cols[1];
+        BinaryColumnVector commentVector = (BinaryColumnVector) rowBatch.cols[2];
+        for (int i = 0; i < rowBatch.size; ++i)
+        {
+            checksum += (keyVector.vector[i] * 31 + valueVector.vector[i]) * (partition + 1) +
+                    commentVector.lens[i];
+        }
+        return checksum;
+    }
+
+    private long scanAndPartition(double selectivity, boolean lazy, int numBatches)
+    {
+        Scanner scanner = createScanner(selectivity);
+        Partitioner partitioner = new Partitioner(NUM_PARTITIONS, BATCH_SIZE,
+                scanner.getOutputSchema(), new int[] {0});
+        VectorizedRowBatch rowBatch = SCHEMA.createRowBatch(BATCH_SIZE, TypeDescription.Mode.NONE);
+        long checksum = 0;
+        for (int i = 0; i < numBatches; ++i)
+        {
+            fill(rowBatch);
+            VectorizedRowBatch filtered = lazy ? scanner.filterAndSelect(rowBatch) : scanner.filterAndProject(rowBatch);
+            if (filtered.size > 0)
+            {
+                checksum = checksum(partitioner.partition(filtered), checksum);
+            }
+        }
+        VectorizedRowBatch[] tailBatches = partitioner.getRowBatches();
+        for (int hash = 0; hash < tailBatches.length; ++hash)
+        {
+            checksum += checksum(hash, tailBatches[hash]);
+        }
+        return checksum;
+    }
+
+    @Test
+    public void testFilterAndSelect()
+    {
+        for (double selectivity : new double[] {0.0, 0.01, 0.5, 1.0})
+        {
+            Scanner scanner = createScanner(selectivity);
+            VectorizedRowBatch expected = scanner.filterAndProject(
+                    fill(SCHEMA.createRowBatch(BATCH_SIZE, TypeDescription.Mode.NONE)));
+            VectorizedRowBatch actual = scanner.filterAndSelect(
+                    fill(SCHEMA.createRowBatch(BATCH_SIZE, TypeDescription.Mode.NONE)));
+            assert actual.size == expected.size;
+            assert actual.selectedInUse == (selectivity < 1.0);
+            // the rows are not moved until compaction
+            assert ((LongColumnVector) actual.cols[0]).vector[BATCH_SIZE - 1] == keys[BATCH_SIZE - 1];
+
+            // filter the selected rows again
+            VectorizedRowBatch twice = scanner.filterAndSelect(actual);
+            assert twice.size == expected.size;
+
+            actual.compact();
+            assert !actual.selectedInUse;
+            assert actual.toString().equals(expected.toString());
+        }
+
+        for (double selectivity : new double[] {0.01, 0.1, 0.5, 0.9})
+        {
+            assert scanAndPartition(selectivity, true, 3) == scanAndPartition(selectivity, false, 3);
+        }
+    }
+
+    /**
+     * Measure the throughput of scan-filter-partition, with the filtered rows compacted by the scanner
+     * (eager) or skipped by the selection vector until the partitioner copies the selected rows (lazy).
+     */
+    @Test
+    public void testSelectivity()
+    {
+        int numBatches = 500;
+        for (double selectivity : new double[] {0.01, 0.1, 0.5, 0.9})
+        {
+            // warm up
+            scanAndPartition(selectivity, false, numBatches / 5);
+            scanAndPartition(selectivity, true, numBatches / 5);
+            StringBuilder builder = new StringBuilder("selectivity " + selectivity + ":");
+            for (boolean lazy : new boolean[] {false, true})
+            {
+                long startNs = System.nanoTime();
+                scanAndPartition(selectivity, lazy, numBatches);
+                long elapsedNs = System.nanoTime() - startNs;
+                builder.append(lazy ? " lazy " : " eager ").append(
+                        (long) numBatches * BATCH_SIZE * 1000_000_000L / Math.max(elapsedNs, 1)).append(" rows/s");
+            }
+            System.out.println(builder);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.spill;
+
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.physical.StorageFactory;
+import io.pixelsdb.pixels.core.*;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
+import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
+import io.pixelsdb.pixels.core.reader.PixelsRecordReader;
+import io.pixelsdb.pixels.core.utils.Bitmap;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import io.pixelsdb.pixels.executor.aggregation.Aggregator;
+import io.pixelsdb.pixels.executor.aggregation.FunctionType;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestSpiller
+{
+    private static final String SPILL_FOLDER = "/tmp/pixels-spill-test/";
+    private static final TypeDescription SCHEMA = TypeDescription.fromString("struct<k:bigint,v:bigint>");
+
+    private static VectorizedRowBatch createBatch(int batchId, int size, int keyRange)
+    {
+        VectorizedRowBatch rowBatch = SCHEMA.createRowBatch(size);
+        LongColumnVector k = (LongColumnVector) rowBatch.cols[0];
+        LongColumnVector v = (LongColumnVector) rowBatch.cols[1];
+        for (int i = 0; i < size; ++i)
+        {
+            k.vector[i] = ((long) batchId * size + i) % keyRange;
+            v.vector[i] = 1;
+        }
+        rowBatch.size = size;
+        return rowBatch;
+    }
+
+    @Test
+    public void testSpillAndRead() throws IOException
+    {
+        Storage storage = StorageFactory.Instance().getStorage(Storage.Scheme.file);
+        try (Spiller spiller = new Spiller(SCHEMA, 4, 1024, storage, SPILL_FOLDER))
+        {
+            long[] sums = new long[4];
+            for (int b = 0; b < 10; ++b)
+            {
+                VectorizedRowBatch rowBatch = createBatch(b, 1000, 100000);
+                int[] partitions = new int[rowBatch.size];
+                LongColumnVector k = (LongColumnVector) rowBatch.cols[0];
+                for (int i = 0; i < rowBatch.size; ++i)
+                {
+                    // rows in partition 3 are skipped
+                    partitions[i] = (int) (k.vector[i] % 4) == 3 ? -1 : (int) (k.vector[i] % 4);
+                    if (partitions[i] >= 0)
+                    {
+                        sums[partitions[i]] += k.vector[i];
+                    }
+                }
+                spiller.spill(rowBatch, partitions);
+            }
+            spiller.finish();
+            assert spiller.getNumRows() == 7500;
+            assert spiller.getNumRows(3) == 0 && spiller.read(3) == null;
+            assert spiller.getNumSpilledFiles() == 3 && spiller.getSpilledBytes() > 0;
+            for (int p = 0; p < 3; ++p)
+            {
+                long sum = 0;
+                try (Spiller.PartitionReader reader = spiller.read(p))
+                {
+                    VectorizedRowBatch rowBatch;
+                    do
+                    {
+                        rowBatch = reader.readBatch();
+                        LongColumnVector k = (LongColumnVector) rowBatch.cols[0];
+                        for (int i = 0; i < rowBatch.size; ++i)
+                        {
+                            assert k.vector[i] % 4 == p;
+                            sum += k.vector[i];
+                        }
+                    } while (!rowBatch.endOfFile);
+                }
+                assert sum == sums[p] : "partition " + p + " expected sum " + sums[p] + " but got " + sum;
+            }
+        }
+    }
+
+    /**
+     * Only the selected rows are spilled, and the partitions are indexed by the selected rows.
+     */
+    @Test
+    public void testSpillSelected() throws IOException
+    {
+        Storage storage = StorageFactory.Instance().getStorage(Storage.Scheme.file);
+        try (Spiller spiller = new Spiller(SCHEMA, 2, 1024, storage, SPILL_FOLDER))
+        {
+            long[] sums = new long[2];
+            long numSelected = 0;
+            for (int b = 0; b < 10; ++b)
+            {
+                VectorizedRowBatch rowBatch = createBatch(b, 1000, 100000);
+                LongColumnVector k = (LongColumnVector) rowBatch.cols[0];
+                Bitmap filter = new Bitmap(rowBatch.size, false);
+                for (int i = 0; i < rowBatch.size; ++i)
+                {
+                    if (k.vector[i] % 3 == 0)
+                    {
+                        filter.set(i);
+                    }
+                }
+                rowBatch.applySelection(filter);
+                assert rowBatch.selectedInUse;
+                numSelected += rowBatch.size;
+                if (b % 2 == 0)
+                {
+                    int[] partitions = new int[rowBatch.size];
+                    for (int i = 0; i < rowBatch.size; ++i)
+                    {
+                        long key = k.vector[rowBatch.selected[i]];
+                        partitions[i] = (int) (key % 2);
+                        sums[partitions[i]] += key;
+                    }
+                    spiller.spill(rowBatch, partitions);
+                }
+                else
+                {
+                    for (int i = 0; i < rowBatch.size; ++i)
+                    {
+                        sums[1] += k.vector[rowBatch.selected[i]];
+                    }
+                    spiller.spill(rowBatch, 1);
+                }
+            }
+            spiller.finish();
+            assert spiller.getNumRows() == numSelected;
+            for (int p = 0; p < 2; ++p)
+            {
+                long sum = 0;
+                try (Spiller.PartitionReader reader = spiller.read(p))
+                {
+                    VectorizedRowBatch rowBatch;
+                    do
+                    {
+                        rowBatch = reader.readBatch();
+                        LongColumnVector k = (LongColumnVector) rowBatch.cols[0];
+                        for (int i = 0; i < rowBatch.size; ++i)
+                        {
+                            assert k.vector[i] % 3 == 0;
+                            sum += k.vector[i];
+                        }
+                    } while (!rowBatch.endOfFile);
+                }
+                assert sum == sums[p] : "partition " + p + " expected sum " + sums[p] + " but got " + sum;
+            }
+        }
+    }
+
+    @Test
+    public void testAggregationSpill() throws IOException
+    {
+        Storage storage = StorageFactory.Instance().getStorage(Storage.Scheme.file);
+        Aggregator aggregator = new Aggregator(1024, SCHEMA, new String[] {"k"}, new int[] {0},
+                new boolean[] {true}, new int[] {1}, new String[] {"count_v"}, new String[] {"bigint"},
+                new FunctionType[] {FunctionType.SUM}, false, 0);
+        // a tiny budget to make most of the groups spilled
+        aggregator.enableSpill(64 * 1024, storage, SPILL_FOLDER);
+        for (int b = 0; b < 200; ++b)
+        {
+            aggregator.aggregate(createBatch(b, 1024, 50000));
+        }
+
+        String outputPath = SPILL_FOLDER + "aggr_output.pxl";
+        PixelsWriter pixelsWriter = PixelsWriterImpl.newBuilder()
+                .setSchema(aggregator.getOutputSchema())
+                .setStorage(storage)
+                .setPath(outputPath)
+                .setRowGroupSize(4 * 1024 * 1024)
+                .setPixelStride(10000)
+                .setEncodingLevel(EncodingLevel.EL0)
+                .setPartitioned(false)
+                .setOverwrite(true).build();
+        aggregator.writeAggrOutput(pixelsWriter);
+        pixelsWriter.close();
+        assert aggregator.getNumSpills() > 0 && aggregator.getSpilledBytes() > 0;
+
+        Map<Long, Long> counts = new HashMap<>();
+        try (PixelsReader pixelsReader = PixelsReaderImpl.newBuilder()
+                .setPath(outputPath)
+                .setStorage(storage)
+                .setPixelsFooterCache(new PixelsFooterCache())
+                .setEnableCache(false).build())
+        {
+            PixelsReaderOption option = new PixelsReaderOption();
+            option.includeCols(new String[] {"k", "count_v"});
+            PixelsRecordReader recordReader = pixelsReader.read(option);
+            VectorizedRowBatch rowBatch;
+            do
+            {
+                rowBatch = recordReader.readBatch(1024);
+                LongColumnVector k = (LongColumnVector) rowBatch.cols[0];
+                LongColumnVector count = (LongColumnVector) rowBatch.cols[1];
+                for (int i = 0; i < rowBatch.size; ++i)
+                {
+                    // each group key must be output exactly once
+                    assert counts.put(k.vector[i], count.vector[i]) == null : "duplicate group " + k.vector[i];
+                }
+            } while (!rowBatch.endOfFile);
+        }
+        storage.delete(outputPath, false);
+        assert counts.size() == 50000;
+        long total = 0;
+        for (long count : counts.values())
+        {
+            total += count;
+        }
+        assert total == 200 * 1024;
+    }
+}
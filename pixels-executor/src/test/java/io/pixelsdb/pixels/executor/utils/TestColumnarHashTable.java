@@ -0,0 +1,237 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.executor.utils;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.utils.Bitmap;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestColumnarHashTable
+{
+    private static final TypeDescription SCHEMA = TypeDescription.fromString("struct<k1:bigint,k2:bigint,v:bigint>");
+    private static final int BATCH_SIZE = 10000;
+
+    private static List<VectorizedRowBatch> createBatches(int numBatches, int keyRange, long seed)
+    {
+        Random random = new Random(seed);
+        List<VectorizedRowBatch> batches = new ArrayList<>(numBatches);
+        for (int b = 0; b < numBatches; ++b)
+        {
+            VectorizedRowBatch rowBatch = SCHEMA.createRowBatch(BATCH_SIZE);
+            LongColumnVector k1 = (LongColumnVector) rowBatch.cols[0];
+            LongColumnVector k2 = (LongColumnVector) rowBatch.cols[1];
+            LongColumnVector v = (LongColumnVector) rowBatch.cols[2];
+            for (int i = 0; i < BATCH_SIZE; ++i)
+            {
+                if (i % 1000 == 999)
+                {
+                    k1.isNull[i] = true;
+                    k1.noNulls = false;
+                }
+                k1.vector[i] = random.nextInt(keyRange);
+                k2.vector[i] = k1.vector[i] % 7;
+                v.vector[i] = b * (long) BATCH_SIZE + i;
+            }
+            rowBatch.size = BATCH_SIZE;
+            batches.add(rowBatch);
+        }
+        return batches;
+    }
+
+    private static long countMatches(ColumnarHashTable table, List<VectorizedRowBatch> probeBatches, int[] keyColumnIds)
+    {
+        long matches = 0;
+        int[] heads = new int[BATCH_SIZE];
+        for (VectorizedRowBatch probeBatch : probeBatches)
+        {
+            table.probe(probeBatch, keyColumnIds, heads);
+            for (int i = 0; i < probeBatch.size; ++i)
+            {
+                for (int entry = heads[i]; entry >= 0; entry = table.next(entry))
+                {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static long countMatches(HashTable table, List<VectorizedRowBatch> probeBatches, int[] keyColumnIds)
+    {
+        long matches = 0;
+        boolean[] projection = new boolean[]{true, true, true};
+        for (VectorizedRowBatch probeBatch : probeBatches)
+        {
+            Tuple.Builder builder = new Tuple.Builder(probeBatch, keyColumnIds, projection);
+            while (builder.hasNext())
+            {
+                for (Tuple head = table.getHead(builder.next()); head != null; head = head.next)
+                {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static void testMatches(int[] keyColumnIds)
+    {
+        boolean[] projection = new boolean[]{true, true, true};
+        List<VectorizedRowBatch> buildBatches = createBatches(5, 20000, 1);
+        List<VectorizedRowBatch> probeBatches = createBatches(5, 40000, 2);
+        ColumnarHashTable columnarTable = new ColumnarHashTable(keyColumnIds, projection);
+        HashTable hashTable = new HashTable();
+        for (VectorizedRowBatch buildBatch : buildBatches)
+        {
+            columnarTable.put(buildBatch);
+            Tuple.Builder builder = new Tuple.Builder(buildBatch, keyColumnIds, projection);
+            while (builder.hasNext())
+            {
+                hashTable.put(builder.next());
+            }
+        }
+        assert columnarTable.size() == hashTable.size();
+        long expected = countMatches(hashTable, probeBatches, keyColumnIds);
+        long actual = countMatches(columnarTable, probeBatches, keyColumnIds);
+        assert expected > 0;
+        assert expected == actual : "expected " + expected + " matches, but got " + actual;
+
+        // the matched entries have the same key value as the probe row
+        int[] heads = new int[BATCH_SIZE];
+        VectorizedRowBatch probeBatch = probeBatches.get(0);
+        columnarTable.probe(probeBatch, keyColumnIds, heads);
+        VectorizedRowBatch output = SCHEMA.createRowBatch(BATCH_SIZE);
+        for (int i = 0; i < 100; ++i)
+        {
+            if (heads[i] >= 0)
+            {
+                output.reset();
+                columnarTable.writeTo(heads[i], output, 0);
+                output.size++;
+                assert ((LongColumnVector) output.cols[0]).vector[0] == ((LongColumnVector) probeBatch.cols[0]).vector[i];
+            }
+        }
+    }
+
+    @Test
+    public void testSingleLongKey()
+    {
+        testMatches(new int[]{0});
+    }
+
+    @Test
+    public void testMultipleKeys()
+    {
+        testMatches(new int[]{0, 1});
+    }
+
+    /**
+     * Only the selected rows of the build batch are put, and they are matched by the rows of the same key.
+     */
+    @Test
+    public void testPutSelected()
+    {
+        int[] keyColumnIds = new int[]{0};
+        ColumnarHashTable table = new ColumnarHashTable(keyColumnIds, new boolean[]{true, true, true});
+        VectorizedRowBatch buildBatch = createBatches(1, 20000, 1).get(0);
+        Bitmap filter = new Bitmap(BATCH_SIZE, false);
+        for (int i = 0; i < BATCH_SIZE; i += 3)
+        {
+            filter.set(i);
+        }
+        buildBatch.applySelection(filter);
+        assert buildBatch.selectedInUse;
+        table.put(buildBatch);
+        assert table.size() == (BATCH_SIZE + 2) / 3;
+
+        // the probe batch has the same keys in the same positions as the build batch
+        VectorizedRowBatch probeBatch = createBatches(1, 20000, 1).get(0);
+        LongColumnVector probeKeys = (LongColumnVector) probeBatch.cols[0];
+        int[] heads = new int[BATCH_SIZE];
+        table.probe(probeBatch, keyColumnIds, heads);
+        VectorizedRowBatch output = SCHEMA.createRowBatch(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; ++i)
+        {
+            if (i % 3 == 0 && !probeKeys.isNull[i])
+            {
+                assert heads[i] >= 0 : "selected row " + i + " is not matched";
+            }
+            for (int entry = heads[i]; entry >= 0; entry = table.next(entry))
+            {
+                output.reset();
+                table.writeTo(entry, output, 0);
+                output.size++;
+                assert ((LongColumnVector) output.cols[0]).vector[0] == probeKeys.vector[i];
+                // the value of row i in batch 0 is i, only the selected rows are in the table
+                assert ((LongColumnVector) output.cols[2]).vector[0] % 3 == 0;
+            }
+        }
+    }
+
+    @Test
+    public void testPerformance()
+    {
+        int[] keyColumnIds = new int[]{0};
+        boolean[] projection = new boolean[]{true, true, true};
+        List<VectorizedRowBatch> buildBatches = createBatches(100, 1000000, 1);
+        List<VectorizedRowBatch> probeBatches = createBatches(100, 2000000, 2);
+        for (int round = 0; round < 3; ++round)
+        {
+            long start = System.nanoTime();
+            HashTable hashTable = new HashTable();
+            for (VectorizedRowBatch buildBatch : buildBatches)
+            {
+                Tuple.Builder builder = new Tuple.Builder(buildBatch, keyColumnIds, projection);
+                while (builder.hasNext())
+                {
+                    hashTable.put(builder.next());
+                }
+            }
+            long buildTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            long matches = countMatches(hashTable, probeBatches, keyColumnIds);
+            long probeTime = System.nanoTime() - start;
+            System.out.println("HashTable: build " + buildTime / 1000000 + " ms, probe " +
+                    probeTime / 1000000 + " ms, matches " + matches);
+
+            start = System.nanoTime();
+            ColumnarHashTable columnarTable = new ColumnarHashTable(keyColumnIds, projection);
+            for (VectorizedRowBatch buildBatch : buildBatches)
+            {
+                columnarTable.put(buildBatch);
+            }
+            buildTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            matches = countMatches(columnarTable, probeBatches, keyColumnIds);
+            probeTime = System.nanoTime() - start;
+            System.out.println("ColumnarHashTable: build " + buildTime / 1000000 + " ms, probe " +
+                    probeTime / 1000000 + " ms, matches " + matches);
+        }
+    }
+}
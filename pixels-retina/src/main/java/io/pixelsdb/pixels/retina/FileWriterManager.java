@@ -73,28 +73,49 @@ public class FileWriterManager
                              int pixelsStride, long blockSize, short replication,
                              EncodingLevel encodingLevel, boolean nullsPadding,
                              long firstBlockId, int recordNum) throws RetinaException
+    {
+        this(tableId, schema, targetOrderedDirPath, targetOrderedStorage, pixelsStride, blockSize,
+                replication, encodingLevel, nullsPadding, firstBlockId, recordNum, null);
+    }
+
+    /**
+     * @param recoveredFile the temporary file recovered from the write-ahead log, it is rewritten
+     *                      instead of adding a new file into the metadata, null to add a new file
+     */
+    public FileWriterManager(long tableId, TypeDescription schema,
+                             Path targetOrderedDirPath, Storage targetOrderedStorage,
+                             int pixelsStride, long blockSize, short replication,
+                             EncodingLevel encodingLevel, boolean nullsPadding,
+                             long firstBlockId, int recordNum, File recoveredFile) throws RetinaException
     {
         this.tableId = tableId;
         this.firstBlockId = firstBlockId;
 
         // create pixels writer
-        String targetFileName = DateUtil.getCurTime() + ".pxl";
+        String targetFileName = recoveredFile != null ? recoveredFile.getName() : DateUtil.getCurTime() + ".pxl";
         String targetFilePath = targetOrderedDirPath.getUri() + "/" + targetFileName;
-        try
+        if (recoveredFile != null)
         {
-            // add file information to the metadata
-            MetadataService metadataService = MetadataService.Instance();
-            file = new File();
-            this.file.setName(targetFileName);
-            this.file.setType(File.Type.TEMPORARY);
-            this.file.setNumRowGroup(1);
-            this.file.setPathId(targetOrderedDirPath.getId());
-            metadataService.addFiles(Collections.singletonList(file));
-            this.file.setId(metadataService.getFileId(targetFilePath));
-        } catch (MetadataException e)
+            this.file = recoveredFile;
+        }
+        else
         {
-            logger.error("Failed to add file into metadata", e);
-            throw new RetinaException("Failed to add file into metadata", e);
+            try
+            {
+                // add file information to the metadata
+                MetadataService metadataService = MetadataService.Instance();
+                file = new File();
+                this.file.setName(targetFileName);
+                this.file.setType(File.Type.TEMPORARY);
+                this.file.setNumRowGroup(1);
+                this.file.setPathId(targetOrderedDirPath.getId());
+                metadataService.addFiles(Collections.singletonList(file));
+                this.file.setId(metadataService.getFileId(targetFilePath));
+            } catch (MetadataException e)
+            {
+                logger.error("Failed to add file into metadata", e);
+                throw new RetinaException("Failed to add file into metadata", e);
+            }
         }
 
         // add the file's visibility
@@ -116,6 +137,7 @@ public class FileWriterManager
                     .setEncodingLevel(encodingLevel)
                     .setNullsPadding(nullsPadding)
                     .setCompressionBlockSize(1)
+                    .setOverwrite(recoveredFile != null)
                     .build();
         } catch (Exception e)
         {
@@ -129,6 +151,11 @@ public class FileWriterManager
         return this.file.getId();
     }
 
+    public File getFile()
+    {
+        return this.file;
+    }
+
     public void setLastBlockId(long lastBlockId)
     {
         this.lastBlockId = lastBlockId;
@@ -21,8 +21,12 @@ package io.pixelsdb.pixels.retina;
 
 import io.pixelsdb.pixels.common.exception.RetinaException;
 import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.ColumnVector;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 public class MemTable implements Referenceable
 {
     private final ReferenceCounter refCounter = new ReferenceCounter();
@@ -35,6 +39,12 @@ public class MemTable implements Referenceable
     private final int startIndex;
     private final int length;
 
+    /**
+     * The log sequence number in the write-ahead log not after the first record of this memTable,
+     * Long.MAX_VALUE if no record of this memTable is logged.
+     */
+    private final AtomicLong firstLsn = new AtomicLong(Long.MAX_VALUE);
+
     public MemTable(long id, TypeDescription schema, int size, int mode,
                     long fileId, int startIndex, int length)
     {
@@ -70,6 +80,66 @@ public class MemTable implements Referenceable
         return this.rowBatch.size++;
     }
 
+    /**
+     * Add the records rows[from, from + num) into a contiguous range of rows in this memTable,
+     * where num = min(rows.size() - from, free slots of this memTable) is determined under the lock.
+     * The column vectors are filled column by column.
+     * @param rows the records, each one with all column values
+     * @param from the index of the first record to add
+     * @param timestamp the timestamp of the records
+     * @param rowRange {rowOffset of the first added record, number of added records}
+     * @return false if this memTable is full and no record is added
+     */
+    public synchronized boolean addRows(List<byte[][]> rows, int from, long timestamp, int[] rowRange)
+    {
+        int num = Math.min(rows.size() - from, this.rowBatch.freeSlots());
+        if (num <= 0)
+        {
+            return false;
+        }
+        int numColumns = schema.getChildren().size();
+        for (int i = 0; i < numColumns; ++i)
+        {
+            ColumnVector vector = this.rowBatch.cols[i];
+            for (int j = from; j < from + num; ++j)
+            {
+                vector.add(rows.get(j)[i]);
+            }
+        }
+        ColumnVector timestampVector = this.rowBatch.cols[numColumns];
+        for (int j = 0; j < num; ++j)
+        {
+            timestampVector.add(timestamp);
+        }
+        rowRange[0] = this.rowBatch.size;
+        rowRange[1] = num;
+        this.rowBatch.size += num;
+        return true;
+    }
+
+    /**
+     * Mark this memTable as logged in the write-ahead log, it should be called before the records are appended.
+     * @param lsn the last log sequence number in the write-ahead log before the records are appended
+     */
+    public void markLogged(long lsn)
+    {
+        this.firstLsn.accumulateAndGet(lsn, Math::min);
+    }
+
+    public boolean isLogged()
+    {
+        return this.firstLsn.get() != Long.MAX_VALUE;
+    }
+
+    /**
+     * @return the log sequence number before the first record of this memTable in the write-ahead log,
+     * the log before it is not needed to recover this memTable
+     */
+    public long getFirstLsn()
+    {
+        return this.firstLsn.get();
+    }
+
     public long getId()
     {
         return this.id;
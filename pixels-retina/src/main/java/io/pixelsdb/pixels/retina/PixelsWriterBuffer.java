@@ -22,6 +22,8 @@ package io.pixelsdb.pixels.retina;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
@@ -33,6 +35,7 @@ import java.util.stream.LongStream;
 import io.pixelsdb.pixels.common.exception.IndexException;
 import io.pixelsdb.pixels.common.index.IndexServiceProvider;
 import io.pixelsdb.pixels.common.index.RowIdAllocator;
+import io.pixelsdb.pixels.common.metadata.domain.File;
 import io.pixelsdb.pixels.common.metadata.domain.Path;
 import io.pixelsdb.pixels.common.physical.*;
 import io.pixelsdb.pixels.common.utils.ConfigFactory;
@@ -110,11 +113,29 @@ public class PixelsWriterBuffer
     private FileWriterManager currentFileWriterManager;
     private AtomicLong maxObjectKey;
 
+    // The write-ahead log shared by the writer buffers, null if it is disabled
+    private final RetinaWriteAheadLog writeAheadLog;
+    // fileId -> the log sequence number before the file is logged, for the files not finished yet
+    private final Map<Long, Long> unfinishedFileLsns = new ConcurrentHashMap<>();
+
     public PixelsWriterBuffer(long tableId, TypeDescription schema, Path targetOrderedDirPath,
                               Path targetCompactDirPath) throws RetinaException
+    {
+        this(tableId, schema, targetOrderedDirPath, targetCompactDirPath, null, null);
+    }
+
+    /**
+     * @param writeAheadLog the write-ahead log to log the inserts into this buffer, null if it is disabled
+     * @param recoveredRecords the records of this table replayed from the write-ahead log, used to recover
+     *                         the unfinished files and memTables, null or empty if there is nothing to recover
+     */
+    public PixelsWriterBuffer(long tableId, TypeDescription schema, Path targetOrderedDirPath,
+                              Path targetCompactDirPath, RetinaWriteAheadLog writeAheadLog,
+                              List<RetinaWriteAheadLog.Record> recoveredRecords) throws RetinaException
     {
         this.tableId = tableId;
         this.schema = schema;
+        this.writeAheadLog = writeAheadLog;
 
         ConfigFactory configFactory = ConfigFactory.Instance();
         this.memTableSize = Integer.parseInt(configFactory.getProperty("retina.buffer.memTable.size"));
@@ -147,21 +168,31 @@ public class PixelsWriterBuffer
 
         this.objectStorageManager = ObjectStorageManager.Instance();
 
-        this.currentFileWriterManager = new FileWriterManager(
-                this.tableId, this.schema, this.targetOrderedDirPath,
-                this.targetOrderedStorage, this.memTableSize, this.blockSize,
-                this.replication, this.encodingLevel, this.nullsPadding,
-                idCounter, this.memTableSize * this.maxMemTableCount);
-
-        this.activeMemTable = new MemTable(this.idCounter, schema, memTableSize,
-                TypeDescription.Mode.CREATE_INT_VECTOR_FOR_INT, this.currentFileWriterManager.getFileId(),
-                0, this.memTableSize);
-        this.idCounter++;
-        this.currentMemTableCount = 1;
+        List<MemTable> recoveredImmutableMemTables = new ArrayList<>();
+        if (recoveredRecords == null || recoveredRecords.isEmpty() ||
+                !recover(recoveredRecords, recoveredImmutableMemTables))
+        {
+            this.currentFileWriterManager = new FileWriterManager(
+                    this.tableId, this.schema, this.targetOrderedDirPath,
+                    this.targetOrderedStorage, this.memTableSize, this.blockSize,
+                    this.replication, this.encodingLevel, this.nullsPadding,
+                    idCounter, this.memTableSize * this.maxMemTableCount);
+            logFile(this.currentFileWriterManager);
+
+            this.activeMemTable = new MemTable(this.idCounter, schema, memTableSize,
+                    TypeDescription.Mode.CREATE_INT_VECTOR_FOR_INT, this.currentFileWriterManager.getFileId(),
+                    0, this.memTableSize);
+            this.idCounter++;
+            this.currentMemTableCount = 1;
+        }
 
         // Initialization adds reference counts to all data
         this.currentVersion = new SuperVersion(activeMemTable, immutableMemTables, objectEntries);
         this.rowIdAllocator = new RowIdAllocator(tableId, this.memTableSize, IndexServiceProvider.ServiceMode.local);
+        for (MemTable immutableMemTable : recoveredImmutableMemTables)
+        {
+            triggerFlushToMinio(immutableMemTable);
+        }
 
         startFlushMinioToDiskScheduler(Long.parseLong(configFactory.getProperty("retina.buffer.flush.interval")));
     }
@@ -200,6 +231,11 @@ public class PixelsWriterBuffer
         {
             throw new RetinaException("Expect rgRowOffset >= 0, get " + rgRowOffset);
         }
+        if (this.writeAheadLog != null)
+        {
+            this.writeAheadLog.sync(logInsert(currentMemTable, rowOffset,
+                    Collections.singletonList(values), 0, 1, timestamp));
+        }
         builder.setFileId(activeMemTable.getFileId())
                 .setRgId(0)
                 .setRgRowOffset(rgRowOffset);
@@ -212,6 +248,91 @@ public class PixelsWriterBuffer
         }
     }
 
+    /**
+     * Add a batch of records into buffer. Instead of locking the memTable and allocating a rowId for
+     * each record, the records are added into contiguous rows of the active memTable in one step,
+     * and a contiguous range of rowIds is allocated for them. The batch spans multiple memTables
+     * if the active memTable is full.
+     *
+     * @param rows the records, each one with all column values
+     * @param timestamp the timestamp of the records
+     * @param builders the row location builders of the records, in the same order as rows
+     * @return the RowIDs of the records, in the same order as rows
+     */
+    public long[] addRows(List<byte[][]> rows, long timestamp,
+                          List<IndexProto.RowLocation.Builder> builders) throws RetinaException
+    {
+        checkArgument(rows.size() == builders.size(), "Rows count does not match builders count");
+        int columnCount = this.schema.getChildren().size();
+        for (byte[][] values : rows)
+        {
+            checkArgument(values.length == columnCount,
+                    "Column values count does not match schema column count");
+        }
+
+        long[] rowIds = new long[rows.size()];
+        if (rows.isEmpty())
+        {
+            return rowIds;
+        }
+        // reserve the rowIds of the whole batch before adding any record, so that they are contiguous even if
+        // the batch spans multiple memTables, and no record is left without a rowId if the allocation fails
+        long firstRowId;
+        try
+        {
+            firstRowId = rowIdAllocator.getRowIds(rows.size());
+        } catch (IndexException e)
+        {
+            throw new RetinaException("Fail to get rowIds from rowIdAllocator", e);
+        }
+        int[] rowRange = new int[2];
+        int from = 0;
+        long lsn = 0;
+        while (from < rows.size())
+        {
+            MemTable currentMemTable = this.activeMemTable;
+            boolean added;
+            try
+            {
+                added = currentMemTable.addRows(rows, from, timestamp, rowRange);
+            } catch (NullPointerException e)
+            {
+                // the same as addRow, retry on the active memTable
+                continue;
+            }
+            if (!added)
+            {
+                // active memTable is full
+                switchMemTable();
+                continue;
+            }
+            int rgRowOffset = currentMemTable.getStartIndex() + rowRange[0];
+            if (rgRowOffset < 0)
+            {
+                throw new RetinaException("Expect rgRowOffset >= 0, get " + rgRowOffset);
+            }
+            int num = rowRange[1];
+            if (this.writeAheadLog != null)
+            {
+                lsn = logInsert(currentMemTable, rowRange[0], rows, from, num, timestamp);
+            }
+            for (int i = 0; i < num; ++i)
+            {
+                builders.get(from + i).setFileId(currentMemTable.getFileId())
+                        .setRgId(0)
+                        .setRgRowOffset(rgRowOffset + i);
+                rowIds[from + i] = firstRowId + i;
+            }
+            from += num;
+        }
+        if (this.writeAheadLog != null)
+        {
+            // the records of the batch are committed together
+            this.writeAheadLog.sync(lsn);
+        }
+        return rowIds;
+    }
+
     private void switchMemTable()
     {
         this.versionLock.writeLock().lock();
@@ -233,6 +354,7 @@ public class PixelsWriterBuffer
                         this.memTableSize, this.blockSize, this.replication,
                         this.encodingLevel, this.nullsPadding, this.idCounter,
                         this.memTableSize * this.maxMemTableCount);
+                logFile(this.currentFileWriterManager);
             }
 
             /**
@@ -358,6 +480,7 @@ public class PixelsWriterBuffer
                         this.versionLock.writeLock().unlock();
 
                         finished.get();
+                        logFileFinished(fileWriterManager);
                         for (ObjectEntry objectEntry : toRemove)
                         {
                             if (objectEntry.unref())
@@ -374,6 +497,312 @@ public class PixelsWriterBuffer
         }, 0, intervalSeconds, TimeUnit.SECONDS);
     }
 
+    /**
+     * Log the creation of the file writer manager, so that its file can be rewritten after recovery.
+     * The record is committed with the first insert into the file.
+     */
+    private void logFile(FileWriterManager fileWriterManager) throws RetinaException
+    {
+        if (this.writeAheadLog == null)
+        {
+            return;
+        }
+        File file = fileWriterManager.getFile();
+        byte[] name = file.getName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES * 4 + Integer.BYTES + name.length);
+        payload.putLong(this.tableId).putLong(file.getId()).putLong(fileWriterManager.getFirstBlockId())
+                .putLong(file.getPathId()).putInt(name.length).put(name).flip();
+        this.unfinishedFileLsns.put(file.getId(), this.writeAheadLog.getAppendedLsn());
+        this.writeAheadLog.append(RetinaWriteAheadLog.TYPE_FILE, payload);
+    }
+
+    /**
+     * Log the rows[from, from + num) added into the memTable from rowOffset.
+     * @return the log sequence number of the record, the caller should sync it before acknowledging the rows
+     */
+    private long logInsert(MemTable memTable, int rowOffset, List<byte[][]> rows,
+                           int from, int num, long timestamp) throws RetinaException
+    {
+        int columnCount = this.schema.getChildren().size();
+        int size = Long.BYTES * 4 + Integer.BYTES * 4;
+        for (int i = from; i < from + num; ++i)
+        {
+            for (byte[] value : rows.get(i))
+            {
+                size += Integer.BYTES + (value == null ? 0 : value.length);
+            }
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        payload.putLong(this.tableId).putLong(memTable.getId()).putLong(memTable.getFileId())
+                .putInt(memTable.getStartIndex()).putInt(rowOffset).putLong(timestamp)
+                .putInt(num).putInt(columnCount);
+        for (int i = from; i < from + num; ++i)
+        {
+            for (byte[] value : rows.get(i))
+            {
+                if (value == null)
+                {
+                    payload.putInt(-1);
+                }
+                else
+                {
+                    payload.putInt(value.length).put(value);
+                }
+            }
+        }
+        payload.flip();
+        if (!memTable.isLogged())
+        {
+            memTable.markLogged(this.writeAheadLog.getAppendedLsn());
+        }
+        return this.writeAheadLog.append(RetinaWriteAheadLog.TYPE_INSERT, payload);
+    }
+
+    /**
+     * Log that the file is finished, its file writer manager and memTables are not recovered any more.
+     * It must be durable before the object entries of the file are deleted.
+     */
+    private void logFileFinished(FileWriterManager fileWriterManager) throws RetinaException
+    {
+        if (this.writeAheadLog == null)
+        {
+            return;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES * 2);
+        payload.putLong(this.tableId).putLong(fileWriterManager.getFileId()).flip();
+        this.writeAheadLog.sync(this.writeAheadLog.append(RetinaWriteAheadLog.TYPE_FILE_FINISHED, payload));
+        this.unfinishedFileLsns.remove(fileWriterManager.getFileId());
+    }
+
+    /**
+     * @return the log sequence number before which the write-ahead log is not needed to recover this buffer,
+     * i.e., the minimum LSN of the unfinished files and the memTables not persisted in the object storage
+     */
+    public long getRecoveryLsn()
+    {
+        long lsn = Long.MAX_VALUE;
+        for (long fileLsn : this.unfinishedFileLsns.values())
+        {
+            lsn = Math.min(lsn, fileLsn);
+        }
+        this.versionLock.readLock().lock();
+        try
+        {
+            lsn = Math.min(lsn, this.activeMemTable.getFirstLsn());
+            for (MemTable immutableMemTable : this.immutableMemTables)
+            {
+                lsn = Math.min(lsn, immutableMemTable.getFirstLsn());
+            }
+        } finally
+        {
+            this.versionLock.readLock().unlock();
+        }
+        return lsn;
+    }
+
+    /**
+     * A memTable rebuilt from the insert records in the write-ahead log.
+     */
+    private static class LoggedMemTable
+    {
+        private final long fileId;
+        private final int startIndex;
+        private long firstLsn = Long.MAX_VALUE;
+        // rowOffset -> {timestamp, values}
+        private final TreeMap<Integer, Object[]> rows = new TreeMap<>();
+
+        private LoggedMemTable(long fileId, int startIndex)
+        {
+            this.fileId = fileId;
+            this.startIndex = startIndex;
+        }
+    }
+
+    /**
+     * Recover the unfinished files and the memTables of this buffer from the records in the write-ahead log.
+     * The files are rewritten with the same file ids and the rows are recovered at the same row offsets, so that
+     * the row locations in the indexes are still valid. The memTables persisted in the object storage become
+     * object entries, and the others are rebuilt from the insert records. The rows that are not logged in a
+     * rebuilt memTable (i.e., not acknowledged before the crash) are filled with nulls and deleted.
+     *
+     * @param records the records of this table in the write-ahead log
+     * @param recoveredImmutableMemTables the rebuilt immutable memTables, to be flushed into the object storage
+     * @return false if there is no unfinished file to recover
+     */
+    private boolean recover(List<RetinaWriteAheadLog.Record> records,
+                            List<MemTable> recoveredImmutableMemTables) throws RetinaException
+    {
+        // fileId -> {file, firstBlockId, lsn}
+        Map<Long, Object[]> files = new HashMap<>();
+        Set<Long> finishedFileIds = new HashSet<>();
+        TreeMap<Long, LoggedMemTable> loggedMemTables = new TreeMap<>();
+        for (RetinaWriteAheadLog.Record record : records)
+        {
+            ByteBuffer payload = record.getPayload();
+            payload.getLong(); // tableId
+            switch (record.getType())
+            {
+                case RetinaWriteAheadLog.TYPE_FILE:
+                {
+                    File file = new File();
+                    file.setId(payload.getLong());
+                    long firstBlockId = payload.getLong();
+                    file.setPathId(payload.getLong());
+                    byte[] name = new byte[payload.getInt()];
+                    payload.get(name);
+                    file.setName(new String(name, StandardCharsets.UTF_8));
+                    file.setType(File.Type.TEMPORARY);
+                    file.setNumRowGroup(1);
+                    files.put(file.getId(), new Object[]{file, firstBlockId, record.getLsn()});
+                    break;
+                }
+                case RetinaWriteAheadLog.TYPE_INSERT:
+                {
+                    long memTableId = payload.getLong();
+                    long fileId = payload.getLong();
+                    int startIndex = payload.getInt();
+                    LoggedMemTable memTable = loggedMemTables.computeIfAbsent(memTableId,
+                            id -> new LoggedMemTable(fileId, startIndex));
+                    memTable.firstLsn = Math.min(memTable.firstLsn, record.getLsn());
+                    int rowOffset = payload.getInt();
+                    long timestamp = payload.getLong();
+                    int numRows = payload.getInt();
+                    int columnCount = payload.getInt();
+                    for (int i = 0; i < numRows; ++i)
+                    {
+                        byte[][] values = new byte[columnCount][];
+                        for (int j = 0; j < columnCount; ++j)
+                        {
+                            int length = payload.getInt();
+                            if (length >= 0)
+                            {
+                                values[j] = new byte[length];
+                                payload.get(values[j]);
+                            }
+                        }
+                        memTable.rows.put(rowOffset + i, new Object[]{timestamp, values});
+                    }
+                    break;
+                }
+                case RetinaWriteAheadLog.TYPE_FILE_FINISHED:
+                    finishedFileIds.add(payload.getLong());
+                    break;
+                default:
+                    throw new RetinaException("Unexpected record type in the write-ahead log: " + record.getType());
+            }
+        }
+        files.keySet().removeAll(finishedFileIds);
+        loggedMemTables.values().removeIf(memTable -> !files.containsKey(memTable.fileId));
+        if (files.isEmpty())
+        {
+            return false;
+        }
+
+        // rebuild the file writer managers in the order of their first block ids
+        List<Object[]> sortedFiles = new ArrayList<>(files.values());
+        sortedFiles.sort(Comparator.comparingLong(file -> (long) file[1]));
+        for (int i = 0; i < sortedFiles.size(); ++i)
+        {
+            File file = (File) sortedFiles.get(i)[0];
+            long firstBlockId = (long) sortedFiles.get(i)[1];
+            FileWriterManager fileWriterManager = new FileWriterManager(
+                    this.tableId, this.schema, this.targetOrderedDirPath,
+                    this.targetOrderedStorage, this.memTableSize, this.blockSize,
+                    this.replication, this.encodingLevel, this.nullsPadding,
+                    firstBlockId, this.memTableSize * this.maxMemTableCount, file);
+            this.unfinishedFileLsns.put(file.getId(), (long) sortedFiles.get(i)[2]);
+            if (i + 1 < sortedFiles.size())
+            {
+                fileWriterManager.setLastBlockId((long) sortedFiles.get(i + 1)[1] - 1);
+                this.fileWriterManagers.add(fileWriterManager);
+            }
+            else
+            {
+                this.currentFileWriterManager = fileWriterManager;
+                this.idCounter = firstBlockId;
+            }
+        }
+
+        // rebuild the object entries and memTables, the memTables are flushed in order, hence the ones
+        // persisted in the object storage are always before the ones to rebuild
+        MemTable lastMemTable = null;
+        for (Map.Entry<Long, LoggedMemTable> entry : loggedMemTables.entrySet())
+        {
+            long id = entry.getKey();
+            LoggedMemTable loggedMemTable = entry.getValue();
+            this.idCounter = Math.max(this.idCounter, id + 1);
+            if (this.objectStorageManager.exist(this.tableId, id))
+            {
+                ObjectEntry objectEntry = new ObjectEntry(id, loggedMemTable.fileId,
+                        loggedMemTable.startIndex, this.memTableSize);
+                objectEntry.ref();
+                this.objectEntries.add(objectEntry);
+                this.maxObjectKey.updateAndGet(current -> Math.max(current, id));
+                continue;
+            }
+            MemTable memTable = new MemTable(id, this.schema, this.memTableSize,
+                    TypeDescription.Mode.CREATE_INT_VECTOR_FOR_INT, loggedMemTable.fileId,
+                    loggedMemTable.startIndex, this.memTableSize);
+            memTable.markLogged(loggedMemTable.firstLsn);
+            byte[][] nullValues = new byte[this.schema.getChildren().size()][];
+            int lastRowOffset = loggedMemTable.rows.lastKey();
+            for (int rowOffset = 0; rowOffset <= lastRowOffset; ++rowOffset)
+            {
+                Object[] row = loggedMemTable.rows.get(rowOffset);
+                if (row != null)
+                {
+                    memTable.add((byte[][]) row[1], (long) row[0]);
+                }
+                else
+                {
+                    // the row is not acknowledged, it is invisible to all the transactions
+                    memTable.add(nullValues, 0L);
+                    RetinaResourceManager.Instance().deleteRecord(loggedMemTable.fileId, 0,
+                            loggedMemTable.startIndex + rowOffset, 0L);
+                }
+            }
+            if (lastMemTable != null)
+            {
+                this.immutableMemTables.add(lastMemTable);
+                recoveredImmutableMemTables.add(lastMemTable);
+            }
+            lastMemTable = memTable;
+        }
+        if (lastMemTable != null && !lastMemTable.isFull() &&
+                lastMemTable.getFileId() == this.currentFileWriterManager.getFileId())
+        {
+            this.activeMemTable = lastMemTable;
+        }
+        else
+        {
+            if (lastMemTable != null)
+            {
+                this.immutableMemTables.add(lastMemTable);
+                recoveredImmutableMemTables.add(lastMemTable);
+            }
+            if (this.idCounter - this.currentFileWriterManager.getFirstBlockId() >= this.maxMemTableCount)
+            {
+                this.currentFileWriterManager.setLastBlockId(this.idCounter - 1);
+                this.fileWriterManagers.add(this.currentFileWriterManager);
+                this.currentFileWriterManager = new FileWriterManager(
+                        this.tableId, this.schema, this.targetOrderedDirPath,
+                        this.targetOrderedStorage, this.memTableSize, this.blockSize,
+                        this.replication, this.encodingLevel, this.nullsPadding,
+                        this.idCounter, this.memTableSize * this.maxMemTableCount);
+                logFile(this.currentFileWriterManager);
+            }
+            this.activeMemTable = new MemTable(this.idCounter, this.schema, this.memTableSize,
+                    TypeDescription.Mode.CREATE_INT_VECTOR_FOR_INT, this.currentFileWriterManager.getFileId(),
+                    (int) (this.idCounter - this.currentFileWriterManager.getFirstBlockId()) * this.memTableSize,
+                    this.memTableSize);
+            this.idCounter++;
+        }
+        this.currentMemTableCount = (int) (this.activeMemTable.getId() - this.currentFileWriterManager.getFirstBlockId()) + 1;
+        logger.info("recovered writer buffer of table {}: {} files, {} object entries, {} memTables",
+                this.tableId, sortedFiles.size(), this.objectEntries.size(), recoveredImmutableMemTables.size() + 1);
+        return true;
+    }
+
     /**
      * collect resources
      *
@@ -427,6 +856,7 @@ public class PixelsWriterBuffer
                 }
             }
             this.currentFileWriterManager.finish().get();
+            logFileFinished(this.currentFileWriterManager);
 
             // process the remaining fileWriterManager
             for (FileWriterManager fileWriterManager : this.fileWriterManagers)
@@ -477,7 +907,11 @@ public class PixelsWriterBuffer
             try
             {
                 all.get();
-            } catch (InterruptedException | ExecutionException e)
+                for (FileWriterManager fileWriterManager : this.fileWriterManagers)
+                {
+                    logFileFinished(fileWriterManager);
+                }
+            } catch (InterruptedException | ExecutionException | RetinaException e)
             {
                 logger.error("Error in close: ", e);
             }
@@ -56,11 +56,20 @@ public class RetinaResourceManager
     private final MetadataService metadataService;
     private final Map<String, RGVisibility> rgVisibilityMap;
     private final Map<String, PixelsWriterBuffer> pixelsWriterBufferMap;
+    // the cache of the recently queried visibility bitmaps, null if it is disabled
+    private final VisibilityBitmapCache visibilityBitmapCache;
 
     // GC related fields
     private final ScheduledExecutorService gcExecutor;
     private final long gcIntervalSeconds;
 
+    // Write-ahead log related fields, the log is null if it is disabled
+    private final RetinaWriteAheadLog writeAheadLog;
+    // tableId -> the records of the writer buffer replayed from the log, removed once the buffer is recovered
+    private final Map<Long, List<RetinaWriteAheadLog.Record>> recoveredRecords;
+    // rgKey -> the deletes replayed from the log, applied once the visibility of the row group is added,
+    // the remaining ones are dropped by finishRecovery() as their row groups no longer exist
+    private final Map<String, List<long[]>> pendingDeletes;
 
     private RetinaResourceManager()
     {
@@ -72,6 +81,9 @@ public class RetinaResourceManager
         {
             ConfigFactory config = ConfigFactory.Instance();
             this.gcIntervalSeconds = Long.parseLong(config.getProperty("retina.gc.interval"));
+            long visibilityCacheCapacity = Long.parseLong(config.getProperty("retina.visibility.cache.capacity"));
+            this.visibilityBitmapCache = visibilityCacheCapacity > 0 ?
+                    new VisibilityBitmapCache(visibilityCacheCapacity) : null;
 
             this.gcExecutor = Executors.newSingleThreadScheduledExecutor(r ->
             {
@@ -93,6 +105,113 @@ public class RetinaResourceManager
         {
             throw new RuntimeException("Failed to start retina background gc", e);
         }
+
+        this.recoveredRecords = new HashMap<>();
+        this.pendingDeletes = new ConcurrentHashMap<>();
+        try
+        {
+            ConfigFactory config = ConfigFactory.Instance();
+            if (Boolean.parseBoolean(config.getProperty("retina.wal.enabled")))
+            {
+                String walDir = config.getProperty("retina.wal.dir");
+                if (walDir.contains("${PIXELS_HOME}"))
+                {
+                    String pixelsHome = System.getenv("PIXELS_HOME");
+                    if (pixelsHome == null || pixelsHome.isEmpty())
+                    {
+                        throw new IllegalStateException("Environment variable PIXELS_HOME is not set");
+                    }
+                    walDir = walDir.replace("${PIXELS_HOME}", pixelsHome);
+                }
+                this.writeAheadLog = new RetinaWriteAheadLog(walDir,
+                        Long.parseLong(config.getProperty("retina.wal.segment.size")));
+                this.writeAheadLog.replay(this::replayRecord);
+                logger.info("replayed the write-ahead log: records of {} tables, deletes of {} row groups",
+                        this.recoveredRecords.size(), this.pendingDeletes.size());
+                long truncateIntervalSeconds = Long.parseLong(config.getProperty("retina.buffer.flush.interval"));
+                this.gcExecutor.scheduleWithFixedDelay(this::truncateLog,
+                        truncateIntervalSeconds, truncateIntervalSeconds, TimeUnit.SECONDS);
+            }
+            else
+            {
+                this.writeAheadLog = null;
+            }
+        } catch (Exception e)
+        {
+            throw new RuntimeException("Failed to open the retina write-ahead log", e);
+        }
+    }
+
+    /**
+     * Keep the records of the writer buffers until the buffers are added, and the deletes until the visibility
+     * of their row groups are added.
+     */
+    private void replayRecord(byte type, ByteBuffer payload, long lsn)
+    {
+        if (type == RetinaWriteAheadLog.TYPE_DELETE)
+        {
+            String rgKey = payload.getLong() + "_" + payload.getInt();
+            this.pendingDeletes.computeIfAbsent(rgKey, key -> new ArrayList<>())
+                    .add(new long[]{payload.getInt(), payload.getLong()});
+        }
+        else
+        {
+            long tableId = payload.getLong(payload.position());
+            this.recoveredRecords.computeIfAbsent(tableId, key -> new ArrayList<>())
+                    .add(new RetinaWriteAheadLog.Record(type, payload, lsn));
+        }
+    }
+
+    /**
+     * Delete the segments of the write-ahead log that are not needed to recover any writer buffer. As the
+     * visibility is not persisted, the deletes in these segments are appended into the log again if their
+     * row groups are still alive, or if they are still pending before {@link #finishRecovery()}.
+     */
+    private void truncateLog()
+    {
+        try
+        {
+            // the records appended after this point are always kept
+            long lsn = this.writeAheadLog.getAppendedLsn();
+            for (PixelsWriterBuffer writerBuffer : this.pixelsWriterBufferMap.values())
+            {
+                lsn = Math.min(lsn, writerBuffer.getRecoveryLsn());
+            }
+            int truncated = this.writeAheadLog.truncate(lsn, (type, payload, recordLsn) -> {
+                if (type != RetinaWriteAheadLog.TYPE_DELETE)
+                {
+                    return;
+                }
+                String rgKey = payload.getLong(payload.position()) + "_" +
+                        payload.getInt(payload.position() + Long.BYTES);
+                if (this.rgVisibilityMap.containsKey(rgKey) || this.pendingDeletes.containsKey(rgKey))
+                {
+                    this.writeAheadLog.append(RetinaWriteAheadLog.TYPE_DELETE, payload);
+                }
+            });
+            if (truncated > 0)
+            {
+                logger.debug("truncated {} segments of the write-ahead log before lsn {}", truncated, lsn);
+            }
+        } catch (Exception e)
+        {
+            logger.error("Error while truncating the write-ahead log", e);
+        }
+    }
+
+    /**
+     * Drop the deletes replayed from the write-ahead log whose row groups have not been added. It should be
+     * called after the visibility of all the existing row groups is added when the retina server starts, so
+     * that the remaining deletes belong to the row groups that no longer exist.
+     */
+    public void finishRecovery()
+    {
+        if (!this.pendingDeletes.isEmpty())
+        {
+            logger.info("dropped the replayed deletes of {} row groups that no longer exist",
+                    this.pendingDeletes.size());
+            this.pendingDeletes.clear();
+        }
     }
 
     private static final class InstanceHolder
@@ -109,7 +228,20 @@ public class RetinaResourceManager
     {
         RGVisibility rgVisibility = new RGVisibility(recordNum);
         String rgKey = fileId + "_" + rgId;
+        List<long[]> deletes = this.pendingDeletes.remove(rgKey);
+        if (deletes != null)
+        {
+            // the deletes replayed from the write-ahead log, {rgRowOffset, timestamp}
+            for (long[] delete : deletes)
+            {
+                rgVisibility.deleteRecord((int) delete[0], delete[1]);
+            }
+        }
         rgVisibilityMap.put(rgKey, rgVisibility);
+        if (this.visibilityBitmapCache != null)
+        {
+            this.visibilityBitmapCache.invalidate(rgKey);
+        }
     }
 
     public void addVisibility(String filePath) throws RetinaException
@@ -139,9 +271,55 @@ public class RetinaResourceManager
         }
     }
 
+    /**
+     * @return the visibility bitmap of the row group at the timestamp, it may be shared with the other callers
+     * by the bitmap cache and must not be modified
+     */
     public long[] queryVisibility(long fileId, int rgId, long timestamp) throws RetinaException
     {
         RGVisibility rgVisibility = checkRGVisibility(fileId, rgId);
+        if (this.visibilityBitmapCache == null)
+        {
+            return getVisibilityBitmap(rgVisibility, timestamp);
+        }
+        String rgKey = fileId + "_" + rgId;
+        long[] visibilityBitmap = this.visibilityBitmapCache.get(rgKey, timestamp);
+        if (visibilityBitmap == null)
+        {
+            long version = this.visibilityBitmapCache.getVersion(rgKey);
+            visibilityBitmap = getVisibilityBitmap(rgVisibility, timestamp);
+            this.visibilityBitmapCache.put(rgKey, timestamp, visibilityBitmap, version);
+        }
+        return visibilityBitmap;
+    }
+
+    /**
+     * Query the visibility bitmaps of multiple row groups, possibly in different files, at the same timestamp.
+     * @param fileIds the file ids of the row groups
+     * @param rgIds the row group ids, in the same order as fileIds
+     * @param timestamp the timestamp of the query
+     * @return the visibility bitmaps in the same order as the row groups, null for the row group of which the
+     * visibility does not exist
+     */
+    public long[][] queryVisibility(long[] fileIds, int[] rgIds, long timestamp) throws RetinaException
+    {
+        if (fileIds.length != rgIds.length)
+        {
+            throw new RetinaException("The number of file ids does not match the number of row group ids");
+        }
+        long[][] visibilityBitmaps = new long[fileIds.length][];
+        for (int i = 0; i < fileIds.length; ++i)
+        {
+            if (this.rgVisibilityMap.containsKey(fileIds[i] + "_" + rgIds[i]))
+            {
+                visibilityBitmaps[i] = queryVisibility(fileIds[i], rgIds[i], timestamp);
+            }
+        }
+        return visibilityBitmaps;
+    }
+
+    private long[] getVisibilityBitmap(RGVisibility rgVisibility, long timestamp) throws RetinaException
+    {
         long[] visibilityBitmap = rgVisibility.getVisibilityBitmap(timestamp);
         if (visibilityBitmap == null)
         {
@@ -157,10 +335,30 @@ public class RetinaResourceManager
         rgVisibility.getVisibilityBitmap(timestamp);
     }
 
+    /**
+     * Delete the record at the timestamp. If the write-ahead log is enabled, the delete is appended into the
+     * log before it is applied, and it is synced before this method returns. Hence, a concurrent query may see
+     * the delete before it is durable, but the delete is never applied without being in the log.
+     */
     public void deleteRecord(long fileId, int rgId, int rgRowOffset, long timestamp) throws RetinaException
     {
         RGVisibility rgVisibility = checkRGVisibility(fileId, rgId);
+        long lsn = 0;
+        if (this.writeAheadLog != null)
+        {
+            ByteBuffer payload = ByteBuffer.allocate(Long.BYTES * 2 + Integer.BYTES * 2);
+            payload.putLong(fileId).putInt(rgId).putInt(rgRowOffset).putLong(timestamp).flip();
+            lsn = this.writeAheadLog.append(RetinaWriteAheadLog.TYPE_DELETE, payload);
+        }
         rgVisibility.deleteRecord(rgRowOffset, timestamp);
+        if (this.visibilityBitmapCache != null)
+        {
+            this.visibilityBitmapCache.invalidate(fileId + "_" + rgId);
+        }
+        if (this.writeAheadLog != null)
+        {
+            this.writeAheadLog.sync(lsn);
+        }
     }
 
     public void deleteRecord(IndexProto.RowLocation rowLocation, long timestamp) throws RetinaException
@@ -186,8 +384,13 @@ public class RetinaResourceManager
             List<String> columnTypes = columns.stream().map(Column::getType).collect(Collectors.toList());
             TypeDescription schema = TypeDescription.createSchemaFromStrings(columnNames, columnTypes);
 
+            List<RetinaWriteAheadLog.Record> records;
+            synchronized (this.recoveredRecords)
+            {
+                records = this.recoveredRecords.remove(latestLayout.getTableId());
+            }
             PixelsWriterBuffer pixelsWriterBuffer = new PixelsWriterBuffer(latestLayout.getTableId(),
-                    schema, orderedPaths.get(0), compactPaths.get(0));
+                    schema, orderedPaths.get(0), compactPaths.get(0), this.writeAheadLog, records);
             String writerBufferKey = schemaName + "_" + tableName;
             pixelsWriterBufferMap.put(writerBufferKey, pixelsWriterBuffer);
         } catch (Exception e)
@@ -204,6 +407,32 @@ public class RetinaResourceManager
         return builder;
     }
 
+    /**
+     * Insert a batch of records into the writer buffer of the table in one step.
+     * @return the primary index entry builders of the records with the row ids and row locations set,
+     * in the same order as colValuesList
+     */
+    public List<IndexProto.PrimaryIndexEntry.Builder> insertRecords(String schemaName, String tableName,
+                                                                    List<byte[][]> colValuesList, long timestamp)
+            throws RetinaException
+    {
+        PixelsWriterBuffer writerBuffer = checkPixelsWriterBuffer(schemaName, tableName);
+        List<IndexProto.PrimaryIndexEntry.Builder> builders = new ArrayList<>(colValuesList.size());
+        List<IndexProto.RowLocation.Builder> locationBuilders = new ArrayList<>(colValuesList.size());
+        for (int i = 0; i < colValuesList.size(); ++i)
+        {
+            IndexProto.PrimaryIndexEntry.Builder builder = IndexProto.PrimaryIndexEntry.newBuilder();
+            builders.add(builder);
+            locationBuilders.add(builder.getRowLocationBuilder());
+        }
+        long[] rowIds = writerBuffer.addRows(colValuesList, timestamp, locationBuilders);
+        for (int i = 0; i < rowIds.length; ++i)
+        {
+            builders.get(i).setRowId(rowIds[i]);
+        }
+        return builders;
+    }
+
     private RetinaProto.VisibilityBitmap getVisibilityBitmapSlice(long[] visibilityBitmap, long startIndex, int length)
     {
         if (startIndex % 64 != 0 || length % 64 != 0)
@@ -368,5 +597,10 @@ public class RetinaResourceManager
             RGVisibility rgVisibility = entry.getValue();
             rgVisibility.garbageCollect(timestamp);
         }
+        if (this.visibilityBitmapCache != null)
+        {
+            // the bitmaps before the safe gc timestamp are not queried any more
+            this.visibilityBitmapCache.evictBefore(timestamp);
+        }
     }
 }
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.retina;
+
+import io.pixelsdb.pixels.common.exception.RetinaException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * The append-only write-ahead log of retina on the local disk. The inserts into the writer buffers and the
+ * deletes of records are appended to the log before they are acknowledged, so that the memTables and the
+ * visibility that have not been persisted can be rebuilt from the log after a crash.
+ * <p/>
+ * The log uses group commit: the records appended by concurrent writers are buffered in memory, and a single
+ * flusher thread writes the buffered records and calls fsync once for all of them. A writer waits in
+ * {@link #sync(long)} until its record is durable, while the records appended during an fsync are committed
+ * together by the next fsync.
+ * <p/>
+ * The log consists of segment files named by the log sequence number (LSN) of their first byte. The LSN of a
+ * record is the position in the log right after the record. The segments whose records are no longer needed,
+ * i.e., the corresponding memTables have been persisted in the object storage, are deleted by
+ * {@link #truncate(long, RecordHandler)}. Each record is stored as [payload length (int), crc32 of the type and
+ * payload (int), type (byte), payload].
+ *
+ * @create 2026-10-17
+ */
+public class RetinaWriteAheadLog implements AutoCloseable
+{
+    private static final Logger logger = LogManager.getLogger(RetinaWriteAheadLog.class);
+
+    /**
+     * A file writer manager of a writer buffer is created.
+     */
+    public static final byte TYPE_FILE = 1;
+    /**
+     * Rows are added into a memTable of a writer buffer.
+     */
+    public static final byte TYPE_INSERT = 2;
+    /**
+     * A record is deleted, i.e., the visibility of a row group is changed.
+     */
+    public static final byte TYPE_DELETE = 3;
+    /**
+     * The file of a file writer manager is finished, its memTables are no longer needed.
+     */
+    public static final byte TYPE_FILE_FINISHED = 4;
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + Byte.BYTES;
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int INITIAL_BUFFER_SIZE = 1024 * 1024;
+
+    public interface RecordHandler
+    {
+        /**
+         * @param type the type of the record
+         * @param payload the payload of the record, it is only valid during this call
+         * @param lsn the log sequence number of the record
+         */
+        void handle(byte type, ByteBuffer payload, long lsn) throws RetinaException;
+    }
+
+    /**
+     * A record copied from the log.
+     */
+    public static class Record
+    {
+        private final byte type;
+        private final byte[] payload;
+        private final long lsn;
+
+        public Record(byte type, ByteBuffer payload, long lsn)
+        {
+            this.type = type;
+            this.payload = new byte[payload.remaining()];
+            payload.duplicate().get(this.payload);
+            this.lsn = lsn;
+        }
+
+        public byte getType()
+        {
+            return type;
+        }
+
+        public ByteBuffer getPayload()
+        {
+            return ByteBuffer.wrap(payload);
+        }
+
+        public long getLsn()
+        {
+            return lsn;
+        }
+    }
+
+    private final Path directory;
+    private final long segmentSize;
+    /**
+     * The start LSN of the segments -> the segment files.
+     */
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    /**
+     * The current segment, only accessed by the flusher thread after the initialization.
+     */
+    private FileChannel segmentChannel;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    /**
+     * The buffer of the records appended but not written yet, and the buffer being written by the flusher.
+     */
+    private ByteBuffer appendBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer flushBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private final CRC32 crc32 = new CRC32();
+    private long appendedLsn;
+    private volatile long durableLsn;
+    private IOException failure = null;
+    private boolean closed = false;
+    private final Thread flusher;
+
+    /**
+     * Open the log in the directory, the records after the last valid record (e.g., a torn write) are discarded.
+     * @param directory the directory of the log on the local disk
+     * @param segmentSize the size in bytes of a segment file, a segment is rolled when it exceeds the size
+     */
+    public RetinaWriteAheadLog(String directory, long segmentSize) throws RetinaException
+    {
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+        long endLsn = 0;
+        try
+        {
+            Files.createDirectories(this.directory);
+            try (Stream<Path> files = Files.list(this.directory))
+            {
+                files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).forEach(file ->
+                {
+                    String name = file.getFileName().toString();
+                    this.segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file);
+                });
+            }
+            boolean torn = false;
+            for (Map.Entry<Long, Path> segment : new ArrayList<>(this.segments.entrySet()))
+            {
+                if (torn)
+                {
+                    logger.warn("delete the segment {} after a torn write", segment.getValue());
+                    Files.delete(segment.getValue());
+                    this.segments.remove(segment.getKey());
+                    continue;
+                }
+                long validLength = readSegment(segment.getKey(), segment.getValue(), null);
+                long fileLength = Files.size(segment.getValue());
+                endLsn = segment.getKey() + validLength;
+                if (validLength < fileLength)
+                {
+                    logger.warn("truncate the torn write in segment {} from {} to {} bytes",
+                            segment.getValue(), fileLength, validLength);
+                    try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.WRITE))
+                    {
+                        channel.truncate(validLength);
+                        channel.force(true);
+                    }
+                    torn = true;
+                }
+            }
+            openSegment(endLsn);
+        } catch (IOException e)
+        {
+            throw new RetinaException("Failed to open the write-ahead log in " + directory, e);
+        }
+        this.appendedLsn = endLsn;
+        this.durableLsn = endLsn;
+        this.flusher = new Thread(this::flush, "retina-wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    private void openSegment(long startLsn) throws IOException
+    {
+        Path file = this.directory.resolve(String.format("%020d%s", startLsn, SEGMENT_SUFFIX));
+        this.segmentChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.segmentChannel.position(this.segmentChannel.size());
+        this.segments.put(startLsn, file);
+    }
+
+    /**
+     * Read the records in the segment.
+     * @param handler the handler of the records, null to only validate the records
+     * @return the length of the valid records in the segment
+     */
+    private long readSegment(long startLsn, Path file, RecordHandler handler) throws IOException, RetinaException
+    {
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+        CRC32 checksum = new CRC32();
+        while (content.remaining() >= HEADER_SIZE)
+        {
+            int start = content.position();
+            int length = content.getInt();
+            int crc = content.getInt();
+            if (length < 0 || content.remaining() < Byte.BYTES + length)
+            {
+                return start;
+            }
+            checksum.reset();
+            checksum.update(content.array(), content.position(), Byte.BYTES + length);
+            if ((int) checksum.getValue() != crc)
+            {
+                return start;
+            }
+            byte type = content.get();
+            ByteBuffer payload = content.slice();
+            payload.limit(length);
+            content.position(content.position() + length);
+            if (handler != null)
+            {
+                handler.handle(type, payload, startLsn + content.position());
+            }
+        }
+        return content.position();
+    }
+
+    /**
+     * Read all the records in the log, it should be called before the log is appended.
+     */
+    public void replay(RecordHandler handler) throws RetinaException
+    {
+        try
+        {
+            for (Map.Entry<Long, Path> segment : this.segments.entrySet())
+            {
+                readSegment(segment.getKey(), segment.getValue(), handler);
+            }
+        } catch (IOException e)
+        {
+            throw new RetinaException("Failed to replay the write-ahead log", e);
+        }
+    }
+
+    /**
+     * Append a record into the log buffer, it is not durable until {@link #sync(long)} returns.
+     * @param type the type of the record
+     * @param payload the payload of the record, from its position to limit
+     * @return the log sequence number of the record
+     */
+    public long append(byte type, ByteBuffer payload) throws RetinaException
+    {
+        int length = payload.remaining();
+        this.lock.lock();
+        try
+        {
+            if (this.closed || this.failure != null)
+            {
+                throw new RetinaException("The write-ahead log is closed or failed", this.failure);
+            }
+            if (this.appendBuffer.remaining() < HEADER_SIZE + length)
+            {
+                int capacity = Math.max(this.appendBuffer.capacity() * 2, this.appendBuffer.position() + HEADER_SIZE + length);
+                ByteBuffer buffer = ByteBuffer.allocate(capacity);
+                this.appendBuffer.flip();
+                buffer.put(this.appendBuffer);
+                this.appendBuffer = buffer;
+            }
+            int start = this.appendBuffer.position();
+            this.appendBuffer.putInt(length).putInt(0).put(type).put(payload);
+            this.crc32.reset();
+            this.crc32.update(this.appendBuffer.array(), start + Integer.BYTES * 2, Byte.BYTES + length);
+            this.appendBuffer.putInt(start + Integer.BYTES, (int) this.crc32.getValue());
+            this.appendedLsn += HEADER_SIZE + length;
+            this.appended.signal();
+            return this.appendedLsn;
+        } finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until the records before the log sequence number (inclusive) are durable.
+     */
+    public void sync(long lsn) throws RetinaException
+    {
+        if (this.durableLsn >= lsn)
+        {
+            return;
+        }
+        this.lock.lock();
+        try
+        {
+            while (this.durableLsn < lsn)
+            {
+                if (this.failure != null)
+                {
+                    throw new RetinaException("Failed to write the write-ahead log", this.failure);
+                }
+                this.committed.await();
+            }
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RetinaException("Interrupted while syncing the write-ahead log", e);
+        } finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the log sequence number of the last appended record, the next record has a greater LSN
+     */
+    public long getAppendedLsn()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.appendedLsn;
+        } finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    public long getDurableLsn()
+    {
+        return this.durableLsn;
+    }
+
+    /**
+     * The group commit loop of the flusher thread.
+     */
+    private void flush()
+    {
+        while (true)
+        {
+            long endLsn;
+            this.lock.lock();
+            try
+            {
+                while (this.appendBuffer.position() == 0 && !this.closed)
+                {
+                    this.appended.awaitUninterruptibly();
+                }
+                if (this.appendBuffer.position() == 0)
+                {
+                    return;
+                }
+                // swap the buffers, so that the writers can append while the flusher is writing
+                ByteBuffer buffer = this.flushBuffer;
+                this.flushBuffer = this.appendBuffer;
+                this.appendBuffer = buffer;
+                this.appendBuffer.clear();
+                endLsn = this.appendedLsn;
+            } finally
+            {
+                this.lock.unlock();
+            }
+
+            try
+            {
+                if (this.segmentChannel.position() >= this.segmentSize)
+                {
+                    this.segmentChannel.close();
+                    openSegment(this.durableLsn);
+                }
+                this.flushBuffer.flip();
+                while (this.flushBuffer.hasRemaining())
+                {
+                    this.segmentChannel.write(this.flushBuffer);
+                }
+                this.flushBuffer.clear();
+                this.segmentChannel.force(false);
+            } catch (IOException e)
+            {
+                logger.error("failed to write the write-ahead log", e);
+                this.lock.lock();
+                try
+                {
+                    this.failure = e;
+                    this.committed.signalAll();
+                } finally
+                {
+                    this.lock.unlock();
+                }
+                return;
+            }
+
+            this.lock.lock();
+            try
+            {
+                this.durableLsn = endLsn;
+                this.committed.signalAll();
+            } finally
+            {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Delete the segments whose records are all before the log sequence number. The records in these segments
+     * are passed to the handler before deletion, so that the records still needed (e.g., the deletes) can be
+     * appended into the log again, and they are synced before the segments are deleted.
+     * @param lsn the records before this log sequence number (inclusive) are no longer needed
+     * @param obsoleteRecordHandler the handler of the records in the segments to delete, can be null
+     * @return the number of deleted segments
+     */
+    public int truncate(long lsn, RecordHandler obsoleteRecordHandler) throws RetinaException
+    {
+        List<Map.Entry<Long, Path>> obsoleteSegments = new ArrayList<>();
+        for (Map.Entry<Long, Path> segment : this.segments.entrySet())
+        {
+            // the segment is obsolete if the next segment starts before the lsn, the current segment is never obsolete
+            Long nextStart = this.segments.higherKey(segment.getKey());
+            if (nextStart == null || nextStart > lsn)
+            {
+                break;
+            }
+            obsoleteSegments.add(segment);
+        }
+        if (obsoleteSegments.isEmpty())
+        {
+            return 0;
+        }
+        try
+        {
+            if (obsoleteRecordHandler != null)
+            {
+                for (Map.Entry<Long, Path> segment : obsoleteSegments)
+                {
+                    readSegment(segment.getKey(), segment.getValue(), obsoleteRecordHandler);
+                }
+                sync(getAppendedLsn());
+            }
+            for (Map.Entry<Long, Path> segment : obsoleteSegments)
+            {
+                Files.deleteIfExists(segment.getValue());
+                this.segments.remove(segment.getKey());
+            }
+        } catch (IOException e)
+        {
+            throw new RetinaException("Failed to truncate the write-ahead log", e);
+        }
+        return obsoleteSegments.size();
+    }
+
+    /**
+     * @return the number of segment files in the log
+     */
+    public int getSegmentCount()
+    {
+        return this.segments.size();
+    }
+
+    /**
+     * Sync the appended records and stop the flusher.
+     */
+    @Override
+    public void close() throws RetinaException
+    {
+        this.lock.lock();
+        try
+        {
+            if (this.closed)
+            {
+                return;
+            }
+            this.closed = true;
+            this.appended.signal();
+        } finally
+        {
+            this.lock.unlock();
+        }
+        try
+        {
+            this.flusher.join();
+            this.segmentChannel.close();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RetinaException("Interrupted while closing the write-ahead log", e);
+        } catch (IOException e)
+        {
+            throw new RetinaException("Failed to close the write-ahead log", e);
+        }
+        if (this.failure != null)
+        {
+            throw new RetinaException("Failed to write the write-ahead log", this.failure);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.retina;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The cache of the visibility bitmaps recently computed by {@link RGVisibility}, keyed by the row group and the
+ * timestamp of the query. The scans of the same snapshot (e.g., the workers of a query) query the bitmaps of the
+ * same row groups with the same timestamp, so that they can share the bitmaps instead of computing them from the
+ * deletion chains again.
+ * <p/>
+ * The cache is bounded by the bytes of the cached bitmaps across all the row groups and uses the W-TinyLFU
+ * eviction policy in Caffeine. The bitmaps of a row group are invalidated when a record in the row group is
+ * deleted, by increasing the version of the row group, so that the bitmaps of the previous versions are never
+ * hit again and are evicted. The cached bitmaps are shared by the callers, they must not be modified.
+ *
+ * @create 2026-10-17
+ */
+public class VisibilityBitmapCache
+{
+    private static class BitmapKey
+    {
+        private final String rgKey;
+        private final long version;
+        private final long timestamp;
+
+        private BitmapKey(String rgKey, long version, long timestamp)
+        {
+            this.rgKey = rgKey;
+            this.version = version;
+            this.timestamp = timestamp;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof BitmapKey))
+            {
+                return false;
+            }
+            BitmapKey that = (BitmapKey) o;
+            return this.version == that.version && this.timestamp == that.timestamp && this.rgKey.equals(that.rgKey);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(rgKey, version, timestamp);
+        }
+    }
+
+    private final Cache<BitmapKey, long[]> bitmaps;
+    /**
+     * rgKey -> the version of the row group, increased on each invalidation. The row groups that have never been
+     * invalidated are not in this map and are of version 0.
+     */
+    private final Map<String, Long> rgVersions = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity the maximum number of bytes of the cached bitmaps
+     */
+    public VisibilityBitmapCache(long capacity)
+    {
+        this.bitmaps = Caffeine.newBuilder()
+                .maximumWeight(capacity)
+                .weigher((BitmapKey key, long[] bitmap) -> bitmap.length * Long.BYTES)
+                .build();
+    }
+
+    /**
+     * @return the cached bitmap, or null if it is not cached
+     */
+    public long[] get(String rgKey, long timestamp)
+    {
+        return this.bitmaps.getIfPresent(new BitmapKey(rgKey, getVersion(rgKey), timestamp));
+    }
+
+    /**
+     * @return the version of the row group, it should be got before the bitmap to put is computed
+     */
+    public long getVersion(String rgKey)
+    {
+        return this.rgVersions.getOrDefault(rgKey, 0L);
+    }
+
+    /**
+     * Put the bitmap into the cache if the row group is not invalidated after the version is got.
+     */
+    public void put(String rgKey, long timestamp, long[] bitmap, long version)
+    {
+        if (getVersion(rgKey) == version)
+        {
+            // if the row group is invalidated concurrently, the bitmap is put under the previous version and never hit
+            this.bitmaps.put(new BitmapKey(rgKey, version, timestamp), bitmap);
+        }
+    }
+
+    /**
+     * Invalidate the cached bitmaps of the row group, it should be called after the visibility is changed.
+     */
+    public void invalidate(String rgKey)
+    {
+        this.rgVersions.merge(rgKey, 1L, Long::sum);
+    }
+
+    /**
+     * Remove the cached bitmaps of the timestamps before the low watermark, which are not queried any more
+     * after the garbage collection at the low watermark.
+     */
+    public void evictBefore(long lowWatermark)
+    {
+        this.bitmaps.asMap().keySet().removeIf(key -> key.timestamp < lowWatermark);
+    }
+
+    /**
+     * Perform the pending maintenance (e.g., eviction) of the cache, which is done asynchronously by default.
+     */
+    public void cleanUp()
+    {
+        this.bitmaps.cleanUp();
+    }
+
+    /**
+     * @return the number of bytes of the cached bitmaps
+     */
+    public long getWeightedSize()
+    {
+        return this.bitmaps.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+}
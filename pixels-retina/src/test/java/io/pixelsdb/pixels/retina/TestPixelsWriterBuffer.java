@@ -19,8 +19,14 @@
  */
 package io.pixelsdb.pixels.retina;
 
+import io.pixelsdb.pixels.common.exception.RetinaException;
 import io.pixelsdb.pixels.common.metadata.domain.Path;
+import io.pixelsdb.pixels.common.utils.ConfigFactory;
 import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.vector.IntColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
 import io.pixelsdb.pixels.index.IndexProto;
 import org.junit.Before;
 import org.junit.Test;
@@ -120,4 +126,152 @@ public class TestPixelsWriterBuffer
                 System.out.println("error: " + e);
             }
         }
+
+    /**
+     * @return the row batch holding the row at the location in the version, and its start index in the file,
+     * or null if the row is not found
+     */
+    private static VectorizedRowBatch findRowBatch(SuperVersion version, IndexProto.RowLocation.Builder location,
+                                                   int[] startIndex) throws RetinaException
+    {
+        List<MemTable> memTables = new ArrayList<>(version.getImmutableMemTables());
+        memTables.add(version.getActiveMemTable());
+        for (MemTable memTable : memTables)
+        {
+            if (memTable.getFileId() == location.getFileId()
+                    && memTable.getStartIndex() <= location.getRgRowOffset()
+                    && location.getRgRowOffset() < memTable.getStartIndex() + memTable.getLength())
+            {
+                startIndex[0] = memTable.getStartIndex();
+                return memTable.getRowBatch();
+            }
+        }
+        for (ObjectEntry objectEntry : version.getObjectEntries())
+        {
+            // the memTable has been flushed into the object storage
+            if (objectEntry.getFileId() == location.getFileId()
+                    && objectEntry.getStartIndex() <= location.getRgRowOffset()
+                    && location.getRgRowOffset() < objectEntry.getStartIndex() + objectEntry.getLength())
+            {
+                startIndex[0] = objectEntry.getStartIndex();
+                return VectorizedRowBatch.deserialize(ObjectStorageManager.Instance().read(0L, objectEntry.getId()));
+            }
+        }
+        return null;
+    }
+
+    private static long getValue(ColumnVector vector, int index)
+    {
+        return vector instanceof IntColumnVector ? ((IntColumnVector) vector).vector[index] :
+                ((LongColumnVector) vector).vector[index];
+    }
+
+    /**
+     * Add a batch of records that spans the active memTable and the next one, and check the row ids, the row
+     * locations, and the contents of the rows.
+     */
+    @Test
+    public void testAddRows() throws Exception
+    {
+        int memTableSize = Integer.parseInt(ConfigFactory.Instance().getProperty("retina.buffer.memTable.size"));
+        // leave a few free slots in the active memTable, so that the batch is split by a memTable switch
+        List<byte[][]> head = new ArrayList<>();
+        List<IndexProto.RowLocation.Builder> headBuilders = new ArrayList<>();
+        for (int i = 0; i < memTableSize - 10; ++i)
+        {
+            byte[] value = ByteBuffer.allocate(4).putInt(-i).array();
+            head.add(new byte[][] {value, value});
+            headBuilders.add(IndexProto.RowLocation.newBuilder());
+        }
+        buffer.addRows(head, 1L, headBuilders);
+
+        int batchSize = 100;
+        long timestamp = 2L;
+        List<byte[][]> rows = new ArrayList<>(batchSize);
+        List<IndexProto.RowLocation.Builder> builders = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; ++i)
+        {
+            rows.add(new byte[][] {ByteBuffer.allocate(4).putInt(i).array(),
+                    ByteBuffer.allocate(4).putInt(i + 1).array()});
+            builders.add(IndexProto.RowLocation.newBuilder());
+        }
+        long[] rowIds = buffer.addRows(rows, timestamp, builders);
+        assert rowIds.length == batchSize;
+        for (int i = 1; i < batchSize; ++i)
+        {
+            // the row ids are contiguous, even across the memTable switch
+            assert rowIds[i] == rowIds[0] + i;
+        }
+        // the first rows are in the previous memTable, and the others are in the new one
+        assert (builders.get(9).getRgRowOffset() + 1) % memTableSize == 0;
+        assert builders.get(10).getRgRowOffset() % memTableSize == 0;
+
+        SuperVersion version = buffer.getCurrentVersion();
+        try
+        {
+            int[] startIndex = new int[1];
+            for (int i = 0; i < batchSize; ++i)
+            {
+                IndexProto.RowLocation.Builder location = builders.get(i);
+                assert location.getRgId() == 0;
+                VectorizedRowBatch rowBatch = findRowBatch(version, location, startIndex);
+                assert rowBatch != null : "row " + i + " is not found at " + location;
+                int rowOffset = location.getRgRowOffset() - startIndex[0];
+                assert getValue(rowBatch.cols[0], rowOffset) == i;
+                assert getValue(rowBatch.cols[1], rowOffset) == i + 1;
+                // the hidden timestamp column
+                assert getValue(rowBatch.cols[2], rowOffset) == timestamp;
+            }
+        } finally
+        {
+            version.unref();
+        }
+        buffer.close();
+    }
+
+    /**
+     * Compare the ingest throughput of addRow (one record at a time) and addRows (a batch of records).
+     */
+    @Test
+    public void testBatchWriteThroughput() throws Exception
+    {
+        int numBatches = 1000;
+        int batchSize = 2000;
+        List<byte[][]> rows = new ArrayList<>(batchSize);
+        List<IndexProto.RowLocation.Builder> builders = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; ++i)
+        {
+            rows.add(new byte[][] {ByteBuffer.allocate(4).putInt(i).array(),
+                    ByteBuffer.allocate(4).putInt(i + 1).array()});
+        }
+
+        long start = System.nanoTime();
+        for (int b = 0; b < numBatches; ++b)
+        {
+            for (byte[][] values : rows)
+            {
+                buffer.addRow(values, b, IndexProto.RowLocation.newBuilder());
+            }
+        }
+        long singleRowNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int b = 0; b < numBatches; ++b)
+        {
+            builders.clear();
+            for (int i = 0; i < batchSize; ++i)
+            {
+                builders.add(IndexProto.RowLocation.newBuilder());
+            }
+            long[] rowIds = buffer.addRows(rows, b, builders);
+            assert rowIds.length == batchSize;
+        }
+        long batchNs = System.nanoTime() - start;
+
+        long numRows = (long) numBatches * batchSize;
+        System.out.printf("addRow: %.0f rows/s, addRows: %.0f rows/s%n",
+                numRows * 1e9 / singleRowNs, numRows * 1e9 / batchNs);
+        Thread.sleep(10000);    // wait for async flush to complete
+        buffer.close();
     }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.retina;
+
+import io.pixelsdb.pixels.common.exception.RetinaException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestRetinaWriteAheadLog
+{
+    private Path directory;
+
+    @Before
+    public void setup() throws IOException
+    {
+        directory = Files.createTempDirectory("pixels-retina-wal");
+    }
+
+    @After
+    public void cleanup() throws IOException
+    {
+        try (Stream<Path> files = Files.walk(directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private static ByteBuffer payload(long value, int length)
+    {
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        payload.putLong(value);
+        payload.position(0);
+        return payload;
+    }
+
+    private List<RetinaWriteAheadLog.Record> replay(long segmentSize) throws RetinaException
+    {
+        List<RetinaWriteAheadLog.Record> records = new ArrayList<>();
+        try (RetinaWriteAheadLog log = new RetinaWriteAheadLog(directory.toString(), segmentSize))
+        {
+            log.replay((type, payload, lsn) -> records.add(new RetinaWriteAheadLog.Record(type, payload, lsn)));
+        }
+        return records;
+    }
+
+    @Test
+    public void testAppendAndReplay() throws RetinaException
+    {
+        long lastLsn = 0;
+        try (RetinaWriteAheadLog log = new RetinaWriteAheadLog(directory.toString(), 4096))
+        {
+            for (int i = 0; i < 1000; ++i)
+            {
+                long lsn = log.append(RetinaWriteAheadLog.TYPE_INSERT, payload(i, 16 + i % 32));
+                assert lsn > lastLsn;
+                lastLsn = lsn;
+            }
+            log.sync(lastLsn);
+            assert log.getDurableLsn() >= lastLsn;
+            assert log.getSegmentCount() > 1;
+        }
+
+        List<RetinaWriteAheadLog.Record> records = replay(4096);
+        assert records.size() == 1000;
+        for (int i = 0; i < records.size(); ++i)
+        {
+            RetinaWriteAheadLog.Record record = records.get(i);
+            assert record.getType() == RetinaWriteAheadLog.TYPE_INSERT;
+            assert record.getPayload().remaining() == 16 + i % 32;
+            assert record.getPayload().getLong() == i;
+        }
+        assert records.get(records.size() - 1).getLsn() == lastLsn;
+
+        // the log is appended after the replayed records
+        try (RetinaWriteAheadLog log = new RetinaWriteAheadLog(directory.toString(), 4096))
+        {
+            assert log.getAppendedLsn() == lastLsn;
+            log.sync(log.append(RetinaWriteAheadLog.TYPE_DELETE, payload(1000, 24)));
+        }
+        assert replay(4096).size() == 1001;
+    }
+
+    @Test
+    public void testTornWrite() throws RetinaException, IOException
+    {
+        long lsn;
+        try (RetinaWriteAheadLog log = new RetinaWriteAheadLog(directory.toString(), 1024 * 1024))
+        {
+            for (int i = 0; i < 10; ++i)
+            {
+                log.append(RetinaWriteAheadLog.TYPE_INSERT, payload(i, 64));
+            }
+            lsn = log.append(RetinaWriteAheadLog.TYPE_INSERT, payload(10, 64));
+            log.sync(lsn);
+        }
+
+        // simulate a crash in the middle of writing the last record
+        Path segment;
+        try (Stream<Path> files = Files.list(directory))
+        {
+            segment = files.findFirst().orElseThrow(IllegalStateException::new);
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE))
+        {
+            channel.truncate(lsn - 10);
+        }
+
+        List<RetinaWriteAheadLog.Record> records = replay(1024 * 1024);
+        assert records.size() == 10;
+        assert Files.size(segment) == records.get(9).getLsn();
+
+        // corrupt the checksum of the 6th record
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE))
+        {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xff}), records.get(5).getLsn() - 1);
+        }
+        assert replay(1024 * 1024).size() == 5;
+    }
+
+    @Test
+    public void testTruncate() throws RetinaException
+    {
+        try (RetinaWriteAheadLog log = new RetinaWriteAheadLog(directory.toString(), 1024))
+        {
+            long middle = 0;
+            for (int i = 0; i < 100; ++i)
+            {
+                long lsn = log.append(i % 2 == 0 ? RetinaWriteAheadLog.TYPE_INSERT : RetinaWriteAheadLog.TYPE_DELETE,
+                        payload(i, 64));
+                log.sync(lsn);
+                if (i == 49)
+                {
+                    middle = lsn;
+                }
+            }
+            int segmentCount = log.getSegmentCount();
+            assert segmentCount > 2;
+
+            // the deletes in the truncated segments are still needed
+            List<Long> carried = new ArrayList<>();
+            int truncated = log.truncate(middle, (type, payload, lsn) -> {
+                if (type == RetinaWriteAheadLog.TYPE_DELETE)
+                {
+                    carried.add(payload.getLong(payload.position()));
+                    log.append(type, payload);
+                }
+            });
+            assert truncated > 0 && truncated < segmentCount;
+            assert !carried.isEmpty();
+
+            // nothing can be truncated before the remaining first segment
+            assert log.truncate(0, null) == 0;
+        }
+
+        List<RetinaWriteAheadLog.Record> records = replay(1024);
+        // the inserts after the truncation point are kept
+        assert records.stream().filter(record -> record.getType() == RetinaWriteAheadLog.TYPE_INSERT)
+                .anyMatch(record -> record.getPayload().getLong() == 98);
+        // all the deletes are kept
+        assert records.stream().filter(record -> record.getType() == RetinaWriteAheadLog.TYPE_DELETE)
+                .mapToLong(record -> record.getPayload().getLong()).distinct().count() == 50;
+        assert records.stream().noneMatch(record ->
+                record.getType() == RetinaWriteAheadLog.TYPE_INSERT && record.getPayload().getLong() == 0);
+    }
+
+    /**
+     * Measure the ingest throughput of concurrent clients, each inserting a row and waiting for the
+     * acknowledgement, without the write-ahead log and with the write-ahead log (one fsync per group commit).
+     * The size of a record is the same as the insert record of a row with two int columns.
+     */
+    @Test
+    public void testIngestThroughput() throws Exception
+    {
+        int numThreads = 16, rowsPerThread = 5000, recordSize = 80;
+        for (int enabled = 0; enabled < 2; ++enabled)
+        {
+            RetinaWriteAheadLog log = enabled == 1 ?
+                    new RetinaWriteAheadLog(directory.toString(), 64 * 1024 * 1024) : null;
+            ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            List<Future<Long>> futures = new ArrayList<>(numThreads);
+            long startNs = System.nanoTime();
+            for (int t = 0; t < numThreads; ++t)
+            {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    long checksum = 0;
+                    for (int i = 0; i < rowsPerThread; ++i)
+                    {
+                        ByteBuffer payload = payload((long) thread * rowsPerThread + i, recordSize);
+                        if (log != null)
+                        {
+                            log.sync(log.append(RetinaWriteAheadLog.TYPE_INSERT, payload));
+                        }
+                        checksum += payload.getLong(0);
+                    }
+                    return checksum;
+                }));
+            }
+            for (Future<Long> future : futures)
+            {
+                future.get();
+            }
+            long elapsedNs = System.nanoTime() - startNs;
+            executor.shutdown();
+            long rows = (long) numThreads * rowsPerThread;
+            System.out.println("write-ahead log " + (enabled == 1 ? "on" : "off") + ": " +
+                    rows * 1000_000_000L / Math.max(elapsedNs, 1) + " rows/s");
+            if (log != null)
+            {
+                log.close();
+                assert replay(64 * 1024 * 1024).size() == rows;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.retina;
+
+import org.junit.Test;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestVisibilityBitmapCache
+{
+    @Test
+    public void testGetAndInvalidate()
+    {
+        VisibilityBitmapCache cache = new VisibilityBitmapCache(1024);
+        assert cache.get("1_0", 100) == null;
+
+        long[] bitmap = {0b101L};
+        cache.put("1_0", 100, bitmap, cache.getVersion("1_0"));
+        assert cache.get("1_0", 100) == bitmap;
+        assert cache.get("1_0", 200) == null;
+        assert cache.get("1_1", 100) == null;
+
+        cache.invalidate("1_0");
+        assert cache.get("1_0", 100) == null;
+        // the other row groups are not invalidated
+        cache.put("1_1", 100, bitmap, cache.getVersion("1_1"));
+        cache.invalidate("1_0");
+        assert cache.get("1_1", 100) == bitmap;
+    }
+
+    @Test
+    public void testStaleBitmap()
+    {
+        VisibilityBitmapCache cache = new VisibilityBitmapCache(1024);
+        // the bitmap is computed concurrently with a delete in the row group
+        long version = cache.getVersion("1_0");
+        cache.invalidate("1_0");
+        cache.put("1_0", 100, new long[]{0L}, version);
+        assert cache.get("1_0", 100) == null;
+    }
+
+    @Test
+    public void testEviction()
+    {
+        // the capacity of two bitmaps of one long
+        VisibilityBitmapCache cache = new VisibilityBitmapCache(2 * Long.BYTES);
+        cache.put("1_0", 100, new long[]{100L}, cache.getVersion("1_0"));
+        cache.put("1_1", 100, new long[]{100L}, cache.getVersion("1_1"));
+        cache.put("1_2", 100, new long[]{100L}, cache.getVersion("1_2"));
+        cache.cleanUp();
+        assert cache.getWeightedSize() <= 2 * Long.BYTES;
+    }
+
+    @Test
+    public void testEvictBefore()
+    {
+        VisibilityBitmapCache cache = new VisibilityBitmapCache(1024);
+        long version = cache.getVersion("1_0");
+        cache.put("1_0", 100, new long[]{100L}, version);
+        cache.put("1_0", 200, new long[]{200L}, version);
+        cache.evictBefore(200);
+        assert cache.get("1_0", 100) == null;
+        assert cache.get("1_0", 200)[0] == 200L;
+    }
+}
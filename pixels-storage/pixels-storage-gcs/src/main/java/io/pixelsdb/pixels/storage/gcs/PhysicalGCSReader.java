@@ -23,6 +23,7 @@ import com.google.cloud.ReadChannel;
 import com.google.cloud.storage.BlobId;
 import io.pixelsdb.pixels.common.physical.ObjectPath;
 import io.pixelsdb.pixels.common.physical.PhysicalReader;
+import io.pixelsdb.pixels.common.physical.SizeClassedBuffers;
 import io.pixelsdb.pixels.common.physical.Storage;
 import io.pixelsdb.pixels.common.utils.ConfigFactory;
 import io.pixelsdb.pixels.common.utils.ShutdownHookManager;
@@ -190,6 +191,23 @@ public class PhysicalGCSReader implements PhysicalReader
 
     @Override
     public CompletableFuture<ByteBuffer> readAsync(long off, int len) throws IOException
+    {
+        return readAsync(off, len, 0, null);
+    }
+
+    /**
+     * The synchronous reads are read into the caller-provided buffer directly,
+     * and the asynchronous reads are read into the buffers allocated from the buffer pool.
+     */
+    @Override
+    public boolean supportsBufferPool()
+    {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<ByteBuffer> readAsync(long off, int len, long deadlineMs,
+                                                   SizeClassedBuffers bufferPool) throws IOException
     {
         if (off + len > this.length)
         {
@@ -202,8 +220,13 @@ public class PhysicalGCSReader implements PhysicalReader
             try (ReadChannel reader = this.client.reader(BlobId.of(this.path.bucket, this.path.key)))
             {
                 reader.seek(off);
-                ByteBuffer buffer = ByteBuffer.allocate(len);
-                reader.read(buffer);
+                ByteBuffer buffer = ByteBuffer.wrap(bufferPool == null ? new byte[len] : bufferPool.allocate(len), 0, len);
+                while (buffer.hasRemaining() && reader.read(buffer) >= 0);
+                if (buffer.hasRemaining())
+                {
+                    throw new IOException("Reached the end of object before reading " + len + " bytes.");
+                }
+                buffer.flip();
                 future.complete(buffer);
             } catch (IOException e)
             {
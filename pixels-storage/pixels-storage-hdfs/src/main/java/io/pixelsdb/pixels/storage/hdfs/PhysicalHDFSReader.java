@@ -217,6 +217,15 @@ public class PhysicalHDFSReader implements PhysicalReader
         numRequests.incrementAndGet();
     }
 
+    /**
+     * The synchronous reads are read into the caller-provided buffer directly.
+     */
+    @Override
+    public boolean supportsBufferPool()
+    {
+        return true;
+    }
+
     @Override
     public void close() throws IOException
     {
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.storage.localfs;
+
+import io.pixelsdb.pixels.common.physical.natives.PixelsRandomAccessFile;
+import io.pixelsdb.pixels.common.utils.ConfigFactory;
+import io.pixelsdb.pixels.common.utils.ShutdownHookManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The queue of the asynchronous positional reads on a local block device. Each device (identified by the
+ * name of its file store, e.g., /dev/nvme0n1p1) has its own queue, and at most queue-depth reads of a device
+ * are in flight at the same time, the others wait in the queue without occupying any thread. Hence, a fast
+ * device (e.g., NVMe SSD) can be given a deep queue to saturate its internal parallelism, while a slow device
+ * (e.g., HDD) is not overwhelmed by random reads and does not block the reads on other devices.
+ * <p/>
+ * The default queue depth is localfs.io.queue.depth, and it can be overridden for each device by
+ * localfs.io.queue.depth.devices, e.g., /dev/nvme0n1p1:128,/dev/sda1:4. The reads are dispatched in the
+ * order they are submitted, and the schedulers submit the (merged) requests of a batch in ascending offsets.
+ * <p/>
+ * Each in-flight read occupies an io thread of the queue, because the reads go through {@link PixelsRandomAccessFile}
+ * (O_DIRECT pread or mmap), which is synchronous. Java has no asynchronous interface for these reads: the
+ * {@link java.nio.channels.AsynchronousFileChannel} on Linux is implemented by blocking reads in a thread pool,
+ * and it does not support O_DIRECT on Java 8. Hence, the number of io threads of a device is bounded by its queue
+ * depth, and the idle io threads are released. Submitting the reads from a few threads without blocking requires
+ * a native asynchronous interface (e.g., io_uring).
+ *
+ * @create 2026-10-17
+ */
+public class LocalIoQueue
+{
+    private static final Logger logger = LogManager.getLogger(LocalIoQueue.class);
+    private static final String UNKNOWN_DEVICE = "unknown";
+    private static final int DefaultQueueDepth;
+    private static final Map<String, Integer> DeviceQueueDepths = new HashMap<>();
+    private static final Map<String, LocalIoQueue> instances = new ConcurrentHashMap<>();
+    /**
+     * The device of each directory, it is cached as looking up the file store of a path is expensive.
+     */
+    private static final Map<String, String> devicesOfDirs = new ConcurrentHashMap<>();
+
+    static
+    {
+        ConfigFactory config = ConfigFactory.Instance();
+        DefaultQueueDepth = Integer.parseInt(config.getProperty("localfs.io.queue.depth"));
+        String devices = config.getProperty("localfs.io.queue.depth.devices");
+        if (devices != null && !devices.trim().isEmpty())
+        {
+            for (String device : devices.split(","))
+            {
+                int colon = device.lastIndexOf(':');
+                if (colon <= 0)
+                {
+                    throw new IllegalArgumentException("invalid device queue depth '" + device +
+                            "', it should be in the format of device:depth");
+                }
+                DeviceQueueDepths.put(device.substring(0, colon).trim(),
+                        Integer.parseInt(device.substring(colon + 1).trim()));
+            }
+        }
+    }
+
+    /**
+     * @param path the path of the local file
+     * @return the I/O queue of the device where the file is stored
+     */
+    public static LocalIoQueue Instance(String path)
+    {
+        File parent = new File(path).getAbsoluteFile().getParentFile();
+        String dir = parent == null ? "/" : parent.getPath();
+        String device = devicesOfDirs.computeIfAbsent(dir, key ->
+        {
+            try
+            {
+                return Files.getFileStore(Paths.get(key)).name();
+            } catch (IOException e)
+            {
+                logger.warn("failed to get the device of directory '" + key + "', use the default queue", e);
+                return UNKNOWN_DEVICE;
+            }
+        });
+        return instances.computeIfAbsent(device, key ->
+                new LocalIoQueue(key, DeviceQueueDepths.getOrDefault(key, DefaultQueueDepth)));
+    }
+
+    private final String device;
+    private final int queueDepth;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger numQueued = new AtomicInteger(0);
+    private final AtomicInteger numInFlight = new AtomicInteger(0);
+    private final AtomicLong numCompleted = new AtomicLong(0);
+    private final AtomicLong completedBytes = new AtomicLong(0);
+
+    private LocalIoQueue(String device, int queueDepth)
+    {
+        if (queueDepth <= 0)
+        {
+            throw new IllegalArgumentException("queue depth of device '" + device + "' must be positive");
+        }
+        this.device = device;
+        this.queueDepth = queueDepth;
+        ThreadGroup ioGroup = new ThreadGroup("localfs.io." + device);
+        ioGroup.setDaemon(true);
+        ioGroup.setMaxPriority(Thread.MAX_PRIORITY-1);
+        this.executor = new ThreadPoolExecutor(queueDepth, queueDepth, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(ioGroup, runnable);
+            thread.setDaemon(true);
+            // ensure io threads have higher priority than other threads
+            thread.setPriority(Thread.MAX_PRIORITY-1);
+            return thread;
+        });
+        // the idle io threads of a rarely used device are released
+        this.executor.allowCoreThreadTimeOut(true);
+        ShutdownHookManager.Instance().registerShutdownHook(LocalIoQueue.class, true, this.executor::shutdownNow);
+        logger.info("created io queue for device '" + device + "' with queue depth " + queueDepth);
+    }
+
+    /**
+     * Submit a positional read of the file into the queue.
+     * @param raf the file to read, its positional read must be thread safe
+     * @param offset the offset in the file
+     * @param length the number of bytes to read
+     * @return the future of the data read
+     */
+    public CompletableFuture<ByteBuffer> submit(PixelsRandomAccessFile raf, long offset, int length)
+    {
+        CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+        this.numQueued.incrementAndGet();
+        try
+        {
+            this.executor.execute(() -> {
+                this.numQueued.decrementAndGet();
+                if (future.isDone())
+                {
+                    // canceled before dispatched
+                    return;
+                }
+                this.numInFlight.incrementAndGet();
+                ByteBuffer result = null;
+                Throwable error = null;
+                try
+                {
+                    result = raf.readFully(offset, length);
+                } catch (Throwable e)
+                {
+                    error = e;
+                } finally
+                {
+                    // update the statistics before completing the future, as the callbacks may check them
+                    this.numInFlight.decrementAndGet();
+                    this.numCompleted.incrementAndGet();
+                }
+                if (error == null)
+                {
+                    this.completedBytes.addAndGet(length);
+                    future.complete(result);
+                }
+                else
+                {
+                    future.completeExceptionally(error);
+                }
+            });
+        } catch (RejectedExecutionException e)
+        {
+            this.numQueued.decrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public String getDevice()
+    {
+        return device;
+    }
+
+    public int getQueueDepth()
+    {
+        return queueDepth;
+    }
+
+    /**
+     * @return the number of reads waiting in the queue
+     */
+    public int getNumQueued()
+    {
+        return numQueued.get();
+    }
+
+    /**
+     * @return the number of reads being executed on the device
+     */
+    public int getNumInFlight()
+    {
+        return numInFlight.get();
+    }
+
+    public long getNumCompleted()
+    {
+        return numCompleted.get();
+    }
+
+    public long getCompletedBytes()
+    {
+        return completedBytes.get();
+    }
+}
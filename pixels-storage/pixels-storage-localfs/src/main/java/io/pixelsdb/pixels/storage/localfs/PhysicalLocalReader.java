@@ -23,14 +23,11 @@ import io.pixelsdb.pixels.common.physical.PhysicalReader;
 import io.pixelsdb.pixels.common.physical.Storage;
 import io.pixelsdb.pixels.common.physical.natives.PixelsRandomAccessFile;
 import io.pixelsdb.pixels.common.utils.ConfigFactory;
-import io.pixelsdb.pixels.common.utils.ShutdownHookManager;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static java.util.Objects.requireNonNull;
 
@@ -44,26 +41,15 @@ public class PhysicalLocalReader implements PhysicalReader
     private final String path;
     private final long id;
     private final PixelsRandomAccessFile raf;
+    /**
+     * The io queue of the device where the file is stored, it is used by the asynchronous reads.
+     */
+    private final LocalIoQueue ioQueue;
     protected static final boolean enableAsync;
-    protected static final ExecutorService readerService;
 
     static
     {
         enableAsync = Boolean.parseBoolean(ConfigFactory.Instance().getProperty("localfs.enable.async.io"));
-        int clientServiceThreads = Integer.parseInt(
-                ConfigFactory.Instance().getProperty("localfs.reader.threads"));
-        ThreadGroup readerGroup = new ThreadGroup("localfs.readers");
-        readerGroup.setDaemon(true);
-        readerGroup.setMaxPriority(Thread.MAX_PRIORITY-1);
-        readerService = Executors.newFixedThreadPool(clientServiceThreads, runnable -> {
-            Thread thread = new Thread(readerGroup, runnable);
-            thread.setDaemon(true);
-            // ensure reader threads have higher priority than other threads
-            thread.setPriority(Thread.MAX_PRIORITY-1);
-            return thread;
-        });
-
-        ShutdownHookManager.Instance().registerShutdownHook(PhysicalLocalReader.class, true, readerService::shutdownNow);
     }
 
     public PhysicalLocalReader(Storage storage, String path) throws IOException
@@ -84,6 +70,7 @@ public class PhysicalLocalReader implements PhysicalReader
         this.path = path;
         this.raf = this.local.openRaf(path);
         this.id = this.local.getFileId(path);
+        this.ioQueue = enableAsync ? LocalIoQueue.Instance(path) : null;
     }
 
     @Override
@@ -104,6 +91,10 @@ public class PhysicalLocalReader implements PhysicalReader
         return raf.readFully(length);
     }
 
+    /**
+     * The read is submitted into the {@link LocalIoQueue} of the device where the file is stored,
+     * which bounds the number of in-flight reads on the device by its queue depth.
+     */
     @Override
     public CompletableFuture<ByteBuffer> readAsync(long offset, int len) throws IOException
     {
@@ -113,17 +104,7 @@ public class PhysicalLocalReader implements PhysicalReader
                     len + " exceeds object length " + this.raf.length() + ".");
         }
 
-        CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
-        readerService.execute(() -> {
-            try
-            {
-                future.complete(raf.readFully(offset, len));
-            } catch (IOException e)
-            {
-                future.completeExceptionally(e);
-            }
-        });
-        return future;
+        return ioQueue.submit(raf, offset, len);
     }
 
     @Override
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.storage.localfs;
+
+import io.pixelsdb.pixels.common.physical.natives.PixelsRandomAccessFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @create 2026-10-17
+ */
+public class TestLocalIoQueue
+{
+    /**
+     * @return a mock file whose positional read takes latencyMs and returns the offset as a long
+     */
+    private static PixelsRandomAccessFile mockFile(long latencyMs, AtomicInteger concurrency, AtomicInteger maxConcurrency)
+    {
+        return (PixelsRandomAccessFile) Proxy.newProxyInstance(TestLocalIoQueue.class.getClassLoader(),
+                new Class[] {PixelsRandomAccessFile.class}, (proxy, method, args) ->
+        {
+            if (method.getName().equals("readFully") && args.length == 2 && args[0] instanceof Long)
+            {
+                int current = concurrency.incrementAndGet();
+                maxConcurrency.accumulateAndGet(current, Math::max);
+                Thread.sleep(latencyMs);
+                concurrency.decrementAndGet();
+                ByteBuffer buffer = ByteBuffer.allocate((Integer) args[1]);
+                buffer.putLong(0, (Long) args[0]);
+                return buffer;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    @Test
+    public void testQueueDepth()
+    {
+        String path = System.getProperty("java.io.tmpdir") + "/pixels-io-queue-test";
+        LocalIoQueue queue = LocalIoQueue.Instance(path);
+        assert queue == LocalIoQueue.Instance(path);
+        System.out.println("device: " + queue.getDevice() + ", queue depth: " + queue.getQueueDepth());
+
+        AtomicInteger concurrency = new AtomicInteger(0), maxConcurrency = new AtomicInteger(0);
+        PixelsRandomAccessFile file = mockFile(5, concurrency, maxConcurrency);
+        int numReads = queue.getQueueDepth() * 4;
+        List<CompletableFuture<ByteBuffer>> futures = new ArrayList<>(numReads);
+        for (int i = 0; i < numReads; ++i)
+        {
+            futures.add(queue.submit(file, i * 8L, 8));
+        }
+        // the reads beyond the queue depth wait in the queue
+        assert queue.getNumQueued() + queue.getNumInFlight() <= numReads;
+        for (int i = 0; i < numReads; ++i)
+        {
+            assert futures.get(i).join().getLong(0) == i * 8L;
+        }
+        assert maxConcurrency.get() <= queue.getQueueDepth();
+        assert queue.getNumQueued() == 0 && queue.getNumInFlight() == 0;
+        assert queue.getNumCompleted() >= numReads;
+    }
+
+    @Test
+    public void testFailedRead()
+    {
+        LocalIoQueue queue = LocalIoQueue.Instance(System.getProperty("java.io.tmpdir") + "/pixels-io-queue-test");
+        PixelsRandomAccessFile file = (PixelsRandomAccessFile) Proxy.newProxyInstance(
+                TestLocalIoQueue.class.getClassLoader(), new Class[] {PixelsRandomAccessFile.class},
+                (proxy, method, args) -> { throw new IOException("mock failure"); });
+        try
+        {
+            queue.submit(file, 0, 8).join();
+            assert false : "the read should fail";
+        }
+        catch (CompletionException e)
+        {
+            assert e.getCause() instanceof IOException;
+        }
+    }
+}
@@ -124,6 +124,32 @@ public abstract class AbstractS3Reader implements PhysicalReader
         return builder.toString();
     }
 
+    /**
+     * @return the response transformer that reads the content of the response into buffer[off, off+len),
+     * and returns the byte buffer that wraps the range of the buffer
+     */
+    protected static ResponseTransformer<GetObjectResponse, ByteBuffer> toBuffer(byte[] buffer, int off, int len)
+    {
+        return (response, inputStream) ->
+        {
+            int n = 0;
+            while (n < len)
+            {
+                int read = inputStream.read(buffer, off + n, len - n);
+                if (read < 0)
+                {
+                    break;
+                }
+                n += read;
+            }
+            if (n != len)
+            {
+                throw new IOException("Response has " + n + " bytes, expected " + len + " bytes.");
+            }
+            return ByteBuffer.wrap(buffer, off, len);
+        };
+    }
+
     @Override
     public long getFileLength() throws IOException
     {
@@ -174,9 +200,24 @@ public abstract class AbstractS3Reader implements PhysicalReader
     @Override
     public void readFully(byte[] buffer, int off, int len) throws IOException
     {
-        ByteBuffer byteBuffer = readFully(len);
-        // This is more efficient than byteBuffer.put(buffer, off, len).
-        System.arraycopy(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), buffer, off, len);
+        if (this.position + len > this.length)
+        {
+            throw new IOException("Current position " + this.position + " plus " +
+                    len + " exceeds object length " + this.length + ".");
+        }
+
+        try
+        {
+            GetObjectRequest request = GetObjectRequest.builder().bucket(path.bucket)
+                    .key(path.key).range(toRange(position, len)).build();
+            // read into the caller-provided buffer directly, without allocating a temporary buffer.
+            client.getObject(request, toBuffer(buffer, off, len));
+            this.numRequests++;
+            this.position += len;
+        } catch (Exception e)
+        {
+            throw new IOException("Failed to read object.", e);
+        }
     }
 
     /**
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.storage.s3;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The async response transformer that writes the content of a ranged GET response into a given buffer.
+ * Different from {@link AsyncResponseTransformer#toBytes()}, which accumulates the content into a growing
+ * buffer and copies it into a new array, the content is written into the buffer directly.
+ *
+ * @create 2026-10-17
+ */
+public class BufferAsyncResponseTransformer implements AsyncResponseTransformer<GetObjectResponse, ByteBuffer>
+{
+    private final byte[] buffer;
+    private final int length;
+    private volatile CompletableFuture<ByteBuffer> future;
+
+    /**
+     * @param buffer the buffer to write the content into, starting from position 0
+     * @param length the expected length of the content
+     */
+    public BufferAsyncResponseTransformer(byte[] buffer, int length)
+    {
+        if (buffer.length < length)
+        {
+            throw new IllegalArgumentException("buffer length " + buffer.length + " is less than " + length);
+        }
+        this.buffer = buffer;
+        this.length = length;
+    }
+
+    @Override
+    public CompletableFuture<ByteBuffer> prepare()
+    {
+        // prepare is called again if the request is retried by the SDK
+        this.future = new CompletableFuture<>();
+        return this.future;
+    }
+
+    @Override
+    public void onResponse(GetObjectResponse response)
+    {
+    }
+
+    @Override
+    public void onStream(SdkPublisher<ByteBuffer> publisher)
+    {
+        CompletableFuture<ByteBuffer> result = this.future;
+        publisher.subscribe(new Subscriber<ByteBuffer>()
+        {
+            private Subscription subscription;
+            private int position = 0;
+
+            @Override
+            public void onSubscribe(Subscription subscription)
+            {
+                this.subscription = subscription;
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer byteBuffer)
+            {
+                int remaining = byteBuffer.remaining();
+                if (this.position + remaining > length)
+                {
+                    this.subscription.cancel();
+                    result.completeExceptionally(new IOException(
+                            "Response has more than " + length + " bytes."));
+                    return;
+                }
+                byteBuffer.get(buffer, this.position, remaining);
+                this.position += remaining;
+            }
+
+            @Override
+            public void onError(Throwable throwable)
+            {
+                result.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete()
+            {
+                if (this.position != length)
+                {
+                    result.completeExceptionally(new IOException(
+                            "Response has " + this.position + " bytes, expected " + length + " bytes."));
+                    return;
+                }
+                result.complete(ByteBuffer.wrap(buffer, 0, length));
+            }
+        });
+    }
+
+    @Override
+    public void exceptionOccurred(Throwable error)
+    {
+        this.future.completeExceptionally(error);
+    }
+}
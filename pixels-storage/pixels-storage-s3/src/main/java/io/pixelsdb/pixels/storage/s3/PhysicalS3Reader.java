@@ -19,19 +19,19 @@
  */
 package io.pixelsdb.pixels.storage.s3;
 
+import io.pixelsdb.pixels.common.physical.SizeClassedBuffers;
 import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.physical.scheduler.HedgePolicy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import software.amazon.awssdk.core.ResponseBytes;
-import software.amazon.awssdk.core.async.AsyncResponseTransformer;
-import software.amazon.awssdk.core.sync.ResponseTransformer;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 /**
  * The physical reader for AWS S3.
@@ -50,6 +50,8 @@ public class PhysicalS3Reader extends AbstractS3Reader
     private final static int LEN_10M = 1024*1024*10;
     private final static int ADAPTIVE_READ_TH = 2*1024*1024;
 
+    private static final HedgePolicy hedgePolicy = HedgePolicy.Instance(Storage.Scheme.s3);
+
     private S3AsyncClient asyncClient;
 
     public PhysicalS3Reader(Storage storage, String path) throws IOException
@@ -75,6 +77,36 @@ public class PhysicalS3Reader extends AbstractS3Reader
 
     @Override
     public CompletableFuture<ByteBuffer> readAsync(long offset, int len) throws IOException
+    {
+        return readAsync(offset, len, 0, null);
+    }
+
+    /**
+     * Read the range asynchronously. The GET request is hedged and bounded by the deadline
+     * according to the {@link HedgePolicy} of S3.
+     */
+    @Override
+    public CompletableFuture<ByteBuffer> readAsync(long offset, int len, long deadlineMs) throws IOException
+    {
+        return readAsync(offset, len, deadlineMs, null);
+    }
+
+    /**
+     * The sync and async clients write the response into the buffer directly, both with and without buffer pool.
+     */
+    @Override
+    public boolean supportsBufferPool()
+    {
+        return true;
+    }
+
+    /**
+     * Read the range asynchronously into a buffer allocated from the buffer pool, or a new buffer if the
+     * buffer pool is null. Each attempt of the hedged request allocates its own buffer.
+     */
+    @Override
+    public CompletableFuture<ByteBuffer> readAsync(long offset, int len, long deadlineMs,
+                                                   SizeClassedBuffers bufferPool) throws IOException
     {
         if (offset + len > this.length)
         {
@@ -83,47 +115,116 @@ public class PhysicalS3Reader extends AbstractS3Reader
         }
         GetObjectRequest request = GetObjectRequest.builder().bucket(path.bucket)
                 .key(path.key).range(toRange(offset, len)).build();
-        CompletableFuture<ResponseBytes<GetObjectResponse>> future;
+
+        try
+        {
+            return hedgePolicy.execute(() -> getObjectAsync(request, len, bufferPool), deadlineMs,
+                    bufferPool == null ? null : response -> free(response, bufferPool));
+        } catch (Exception e)
+        {
+            throw new IOException("Failed to read object.", e);
+        }
+    }
+
+    private static byte[] allocate(int len, SizeClassedBuffers bufferPool)
+    {
+        return bufferPool == null ? new byte[len] : bufferPool.allocate(len);
+    }
+
+    private static void free(ByteBuffer response, SizeClassedBuffers bufferPool)
+    {
+        if (bufferPool != null && response.hasArray())
+        {
+            bufferPool.free(response.array());
+        }
+    }
+
+    /**
+     * Send the GET request. Canceling the returned future aborts the request if it is sent by the async client,
+     * or interrupts it if it is sent by the sync client. The buffer of a canceled sync request is returned to
+     * the buffer pool once the request returns.
+     */
+    private CompletableFuture<ByteBuffer> getObjectAsync(GetObjectRequest request, int len,
+                                                         SizeClassedBuffers bufferPool)
+    {
+        CompletableFuture<ByteBuffer> future;
         if (useAsyncClient && len < ADAPTIVE_READ_TH)
         {
-            future = asyncClient.getObject(request, AsyncResponseTransformer.toBytes());
+            future = asyncClient.getObject(request, new BufferAsyncResponseTransformer(allocate(len, bufferPool), len));
         }
         else
         {
             future = new CompletableFuture<>();
-            clientService.execute(() -> {
-                ResponseBytes<GetObjectResponse> response =
-                        client.getObject(request, ResponseTransformer.toBytes());
-                future.complete(response);
+            CompletableFuture<ByteBuffer> syncFuture = future;
+            Future<?> task = clientService.submit(() -> {
+                if (syncFuture.isDone())
+                {
+                    // canceled before it is sent
+                    return;
+                }
+                byte[] buffer = allocate(len, bufferPool);
+                try
+                {
+                    ByteBuffer response = client.getObject(request, toBuffer(buffer, 0, len));
+                    if (!syncFuture.complete(response))
+                    {
+                        // canceled by the hedge policy while it is being read
+                        free(response, bufferPool);
+                    }
+                } catch (Exception e)
+                {
+                    // the sync client does not write into the buffer after the request returns
+                    free(ByteBuffer.wrap(buffer), bufferPool);
+                    syncFuture.completeExceptionally(e);
+                }
+            });
+            syncFuture.whenComplete((resp, err) ->
+            {
+                if (syncFuture.isCancelled())
+                {
+                    task.cancel(true);
+                }
             });
         }
 
         super.numRequests++;
 
-        try
+        /**
+         * Issue #128:
+         * We tried to use thenApplySync using the clientService executor,
+         * it does not help improve the query performance.
+         */
+        CompletableFuture<ByteBuffer> result = future.handle((resp, err) ->
         {
-            /**
-             * Issue #128:
-             * We tried to use thenApplySync using the clientService executor,
-             * it does not help improve the query performance.
-             */
-            return future.handle((resp, err) ->
+            if (err != null)
             {
-                if (err != null)
+                if (future.isCancelled())
                 {
-                    logger.error("Failed to complete the asynchronous read, range={}, retrying with sync client.",
-                            request.range(), err);
-                    // Issue #350: it is fine if multiple threads reconnect to S3 for multiple time.
-                    s3.reconnect();
-                    initClients();
-                    resp = client.getObject(request, ResponseTransformer.toBytes());
+                    // the request is canceled by the hedge policy, no need to retry
+                    throw new CancellationException();
                 }
-                return ByteBuffer.wrap(resp.asByteArrayUnsafe());
-            });
-        } catch (Exception e)
+                logger.error("Failed to complete the asynchronous read, range={}, retrying with sync client.",
+                        request.range(), err);
+                // Issue #350: it is fine if multiple threads reconnect to S3 for multiple time.
+                s3.reconnect();
+                initClients();
+                /*
+                 * The failed attempt may still be writing into its buffer, hence the retry reads into
+                 * a new buffer and the buffer of the failed attempt is left to GC.
+                 */
+                resp = client.getObject(request, toBuffer(allocate(len, bufferPool), 0, len));
+            }
+            return resp;
+        });
+        result.whenComplete((resp, err) ->
         {
-            throw new IOException("Failed to read object.", e);
-        }
+            if (result.isCancelled() && !future.cancel(true) && !future.isCompletedExceptionally())
+            {
+                // the request has completed but its response is not taken by the canceled result
+                free(future.join(), bufferPool);
+            }
+        });
+        return result;
     }
 
     @Override
@@ -164,6 +164,11 @@ public class BaseAggregationWorker extends Worker<AggregationInput, AggregationO
             Aggregator aggregator = new Aggregator(WorkerCommon.rowBatchSize, inputSchema, groupKeyColumnNames,
                     groupKeyColumnIds, groupKeyColumnProj, aggrColumnIds, resultColumnNames,
                     resultColumnTypes, functionTypes, false, 0);
+            if (WorkerCommon.spillMemoryBudget > 0)
+            {
+                aggregator.enableSpill(WorkerCommon.spillMemoryBudget,
+                        WorkerCommon.getSpillStorage(), WorkerCommon.spillFolder);
+            }
             for (int i = 0; i <  inputFiles.size(); )
             {
                 List<String> files = new LinkedList<>();
@@ -223,6 +228,13 @@ public class BaseAggregationWorker extends Worker<AggregationInput, AggregationO
             workerMetrics.addWriteBytes(pixelsWriter.getCompletedBytes());
             workerMetrics.addNumWriteRequests(pixelsWriter.getNumWriteRequests());
             aggregationOutput.addOutput(outputPath, pixelsWriter.getNumRowGroup());
+            if (aggregator.getNumSpills() > 0)
+            {
+                workerMetrics.addSpilledBytes(aggregator.getSpilledBytes());
+                workerMetrics.addNumSpills(aggregator.getNumSpills());
+                logger.info("spilled " + aggregator.getNumSpills() + " partitions, " +
+                        aggregator.getSpilledBytes() + " bytes");
+            }
             aggregationOutput.setDurationMs((int) (System.currentTimeMillis() - startTime));
             WorkerCommon.setPerfMetrics(aggregationOutput, workerMetrics);
 
@@ -300,7 +300,7 @@ public class BasePartitionStreamWorker extends Worker<PartitionInput, PartitionO
                 computeCostTimer.start();
                 do
                 {
-                    rowBatch = scanner.filterAndProject(recordReader.readBatch(StreamWorkerCommon.rowBatchSize));
+                    rowBatch = scanner.filterAndSelect(recordReader.readBatch(StreamWorkerCommon.rowBatchSize));
                     if (rowBatch.size > 0)
                     {
                         Map<Integer, VectorizedRowBatch> result = partitioner.partition(rowBatch);
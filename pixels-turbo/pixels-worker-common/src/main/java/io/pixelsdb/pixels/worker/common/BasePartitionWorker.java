@@ -26,6 +26,7 @@ import io.pixelsdb.pixels.core.PixelsWriter;
 import io.pixelsdb.pixels.core.TypeDescription;
 import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
 import io.pixelsdb.pixels.core.reader.PixelsRecordReader;
+import io.pixelsdb.pixels.core.reader.SplitVisibility;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
 import io.pixelsdb.pixels.executor.join.Partitioner;
 import io.pixelsdb.pixels.executor.predicate.TableScanFilter;
@@ -301,6 +302,8 @@ public class BasePartitionWorker extends Worker<PartitionInput, PartitionOutput>
         WorkerMetrics.Timer computeCostTimer = new WorkerMetrics.Timer();
         long readBytes = 0L;
         int numReadRequests = 0;
+        // the visibility bitmaps of the files in the split are queried in one request
+        SplitVisibility splitVisibility = WorkerCommon.getSplitVisibility(timestamp, scanInputs, inputScheme);
         for (InputInfo inputInfo : scanInputs)
         {
             partitionTimers.getReadTimer().start();
@@ -319,6 +322,7 @@ public class BasePartitionWorker extends Worker<PartitionInput, PartitionOutput>
                     inputInfo.setRgLength(pixelsReader.getRowGroupNum() - inputInfo.getRgStart());
                 }
                 PixelsReaderOption option = WorkerCommon.getReaderOption(transId, timestamp, columnsToRead, inputInfo);
+                option.splitVisibility(splitVisibility);
                 PixelsRecordReader recordReader = pixelsReader.read(option);
                 TypeDescription rowBatchSchema = recordReader.getResultSchema();
                 VectorizedRowBatch rowBatch;
@@ -346,7 +350,7 @@ public class BasePartitionWorker extends Worker<PartitionInput, PartitionOutput>
                     partitionTimers.getReadTimer().stop();
 
                     partitionTimers.getComputeTimer().start();
-                    rowBatch = scanner.filterAndProject(rawBatch);
+                    rowBatch = scanner.filterAndSelect(rawBatch);
                     if (rowBatch.size > 0)
                     {
                         // Partitioning operation is part of COMPUTE stage
@@ -181,6 +181,11 @@ public class BasePartitionedJoinWorker extends Worker<PartitionedJoinInput, Join
                     leftColAlias, leftProjection, leftKeyColumnIds,
                     WorkerCommon.getResultSchema(rightSchema.get(), rightColumnsToRead),
                     rightColAlias, rightProjection, rightKeyColumnIds);
+            if (WorkerCommon.spillMemoryBudget > 0)
+            {
+                ((HashJoiner) joiner).enableSpill(WorkerCommon.spillMemoryBudget,
+                        WorkerCommon.getSpillStorage(), WorkerCommon.spillFolder);
+            }
             // build the hash table for the left table.
             List<Future> leftFutures = new ArrayList<>(leftPartitioned.size());
             int leftSplitSize = leftPartitioned.size() / leftParallelism;
@@ -275,6 +280,36 @@ public class BasePartitionedJoinWorker extends Worker<PartitionedJoinInput, Join
                 {
                     throw new WorkerException("error occurred threads, please check the stacktrace before this log record");
                 }
+
+                // join the partitions spilled by the hash joiner, if any.
+                partitionedJoinTimers.getComputeTimer().start();
+                WorkerMetrics.Timer spillCostTimer = new WorkerMetrics.Timer().start();
+                if (partitionOutput)
+                {
+                    Partitioner partitioner = new Partitioner(outputPartitionInfo.getNumPartition(),
+                            WorkerCommon.rowBatchSize, joiner.getJoinedSchema(), outputPartitionInfo.getKeyColumnIds());
+                    ((HashJoiner) joiner).joinSpilled(joined -> {
+                        Map<Integer, VectorizedRowBatch> parts = partitioner.partition(joined);
+                        for (Map.Entry<Integer, VectorizedRowBatch> entry : parts.entrySet())
+                        {
+                            result.get(entry.getKey()).add(entry.getValue());
+                        }
+                    });
+                    VectorizedRowBatch[] tailBatches = partitioner.getRowBatches();
+                    for (int hash = 0; hash < tailBatches.length; ++hash)
+                    {
+                        if (!tailBatches[hash].isEmpty())
+                        {
+                            result.get(hash).add(tailBatches[hash]);
+                        }
+                    }
+                }
+                else
+                {
+                    ((HashJoiner) joiner).joinSpilled(result.get(0)::add);
+                }
+                workerMetrics.addComputeCostNs(spillCostTimer.stop());
+                partitionedJoinTimers.getComputeTimer().stop();
             }
 
             String outputPath = outputFolder + outputInfo.getFileNames().get(0);
@@ -368,6 +403,14 @@ public class BasePartitionedJoinWorker extends Worker<PartitionedJoinInput, Join
                     }
                 }
                 workerMetrics.addOutputCostNs(writeCostNs);
+                HashJoiner hashJoiner = (HashJoiner) joiner;
+                if (hashJoiner.getNumSpills() > 0)
+                {
+                    workerMetrics.addSpilledBytes(hashJoiner.getSpilledBytes());
+                    workerMetrics.addNumSpills(hashJoiner.getNumSpills());
+                    logger.info("spilled " + hashJoiner.getNumSpills() + " partitions, " +
+                            hashJoiner.getSpilledBytes() + " bytes");
+                }
             } catch (Throwable e)
             {
                 throw new WorkerException(
@@ -20,12 +20,16 @@
 package io.pixelsdb.pixels.worker.common;
 
 import com.alibaba.fastjson.JSON;
+import io.pixelsdb.pixels.common.physical.Scheduler;
+import io.pixelsdb.pixels.common.physical.SchedulerFactory;
 import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.physical.scheduler.PrefetchScheduler;
 import io.pixelsdb.pixels.core.PixelsReader;
 import io.pixelsdb.pixels.core.PixelsWriter;
 import io.pixelsdb.pixels.core.TypeDescription;
 import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
 import io.pixelsdb.pixels.core.reader.PixelsRecordReader;
+import io.pixelsdb.pixels.core.reader.SplitVisibility;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
 import io.pixelsdb.pixels.executor.aggregation.Aggregator;
 import io.pixelsdb.pixels.executor.predicate.TableScanFilter;
@@ -151,6 +155,16 @@ public class BaseScanWorker extends Worker<ScanInput, ScanOutput>
              */
             Queue<String> outputPaths = new ConcurrentLinkedQueue<>(
                     ScanInput.generateOutputPaths(outputFolder, inputSplits.size()));
+            /*
+             * Each scan thread aggregates into its own partial aggregator to avoid contention on the aggregator,
+             * the partial aggregators are merged into the aggregator after all the input splits are scanned.
+             */
+            Queue<Aggregator> partialAggregators = new ConcurrentLinkedQueue<>();
+            ThreadLocal<Aggregator> threadAggregator = ThreadLocal.withInitial(() -> {
+                Aggregator partialAggregator = aggregator.createPartial();
+                partialAggregators.add(partialAggregator);
+                return partialAggregator;
+            });
             for (InputSplit inputSplit : inputSplits)
             {
                 List<InputInfo> scanInputs = inputSplit.getInputInfos();
@@ -164,7 +178,7 @@ public class BaseScanWorker extends Worker<ScanInput, ScanOutput>
                     {
                         scanFile(transId, timestamp, scanInputs, includeCols, inputStorageInfo.getScheme(),
                                 scanProjection, filter, outputPaths, scanOutput, encoding, outputStorageInfo.getScheme(),
-                                partialAggregationPresent, aggregator);
+                                partialAggregationPresent, partialAggregationPresent ? threadAggregator.get() : null);
                     }
                     catch (Throwable e)
                     {
@@ -186,9 +200,29 @@ public class BaseScanWorker extends Worker<ScanInput, ScanOutput>
                 throw new WorkerException("error occurred threads, please check the stacktrace before this log record");
             }
 
+            logger.info("read latency of " + inputStorageInfo.getScheme() + ": " +
+                    workerMetrics.getReadLatencyHistogram(inputStorageInfo.getScheme()));
+            logger.info("read buffer pool: " + workerMetrics.getReadBufferPool());
+            Scheduler scheduler = SchedulerFactory.Instance().getScheduler();
+            if (scheduler instanceof PrefetchScheduler)
+            {
+                PrefetchScheduler prefetchScheduler = (PrefetchScheduler) scheduler;
+                logger.info("prefetch hit rate: " + prefetchScheduler.getHitRate() + ", hit bytes: " +
+                        prefetchScheduler.getHitBytes() + ", wasted bytes: " + prefetchScheduler.getWastedBytes());
+            }
+
             logger.info("start write aggregation result");
             if (partialAggregationPresent)
             {
+                WorkerMetrics.Timer mergeCostTimer = new WorkerMetrics.Timer().start();
+                for (Aggregator partialAggregator : partialAggregators)
+                {
+                    aggregator.merge(partialAggregator);
+                }
+                workerMetrics.addAggregationMergeCostNs(mergeCostTimer.stop());
+                workerMetrics.addComputeCostNs(mergeCostTimer.getElapsedNs());
+                logger.info("partial aggregation time per thread (ns): " + workerMetrics.getThreadAggregationCostNs() +
+                        ", merge time (ns): " + workerMetrics.getAggregationMergeCostNs());
                 String outputPath = event.getOutput().getPath();
                 WorkerMetrics.Timer writeCostTimer = new WorkerMetrics.Timer().start();
                 PixelsWriter pixelsWriter = WorkerCommon.getWriter(aggregator.getOutputSchema(),
@@ -242,7 +276,7 @@ public class BaseScanWorker extends Worker<ScanInput, ScanOutput>
      * @param encoding whether encode the scan results or not
      * @param outputScheme the storage scheme for the scan result
      * @param partialAggregate whether perform partial aggregation on the scan result
-     * @param aggregator the aggregator for the partial aggregation
+     * @param aggregator the aggregator for the partial aggregation, it should only be used by the current thread
      * @return the number of row groups that have been written into the output.
      */
     private int scanFile(long transId, long timestamp, List<InputInfo> scanInputs, String[] columnsToRead,
@@ -262,24 +296,33 @@ public class BaseScanWorker extends Worker<ScanInput, ScanOutput>
         WorkerMetrics.Timer computeCostTimer = new WorkerMetrics.Timer();
         long readBytes = 0L;
         int numReadRequests = 0;
-        for (InputInfo inputInfo : scanInputs)
+        // read ahead the next file in the split while the current file is being processed
+        boolean readAhead = SchedulerFactory.Instance().getScheduler() instanceof PrefetchScheduler;
+        PixelsReader nextReader = null;
+        PixelsRecordReader nextRecordReader = null;
+        // the visibility bitmaps of the files in the split are queried in one request
+        SplitVisibility splitVisibility = WorkerCommon.getSplitVisibility(timestamp, scanInputs, inputScheme);
+        for (int i = 0; i < scanInputs.size(); ++i)
         {
+            InputInfo inputInfo = scanInputs.get(i);
+            PixelsReader openedReader = nextReader;
+            PixelsRecordReader openedRecordReader = nextRecordReader;
+            nextReader = null;
+            nextRecordReader = null;
             scanTimers.getReadTimer().start();
             readCostTimer.start();
-            try (PixelsReader pixelsReader = WorkerCommon.getReader(inputInfo.getPath(), WorkerCommon.getStorage(inputScheme)))
+            try (PixelsReader pixelsReader = openedReader != null ? openedReader :
+                    WorkerCommon.getReader(inputInfo.getPath(), WorkerCommon.getStorage(inputScheme)))
             {
                 readCostTimer.stop();
                 scanTimers.getReadTimer().stop();
-                if (inputInfo.getRgStart() >= pixelsReader.getRowGroupNum())
+                PixelsRecordReader recordReader = openedRecordReader != null ? openedRecordReader :
+                        openRecordReader(pixelsReader, transId, timestamp, columnsToRead, inputInfo,
+                                filter, splitVisibility);
+                if (recordReader == null)
                 {
                     continue;
                 }
-                if (inputInfo.getRgStart() + inputInfo.getRgLength() >= pixelsReader.getRowGroupNum())
-                {
-                    inputInfo.setRgLength(pixelsReader.getRowGroupNum() - inputInfo.getRgStart());
-                }
-                PixelsReaderOption option = WorkerCommon.getReaderOption(transId, timestamp, columnsToRead, inputInfo);
-                PixelsRecordReader recordReader = pixelsReader.read(option);
                 TypeDescription rowBatchSchema = recordReader.getResultSchema();
                 VectorizedRowBatch rowBatch;
 
@@ -306,13 +349,31 @@ public class BaseScanWorker extends Worker<ScanInput, ScanOutput>
                     rowBatch = recordReader.readBatch(WorkerCommon.rowBatchSize);
                     scanTimers.getReadTimer().stop();
 
+                    if (readAhead && nextReader == null && i + 1 < scanInputs.size())
+                    {
+                        // the column chunks of the current file have been read, start reading the next file
+                        long openStart = System.nanoTime();
+                        InputInfo nextInputInfo = scanInputs.get(i + 1);
+                        nextReader = WorkerCommon.getReader(nextInputInfo.getPath(), WorkerCommon.getStorage(inputScheme));
+                        nextRecordReader = openRecordReader(nextReader, transId, timestamp, columnsToRead, nextInputInfo,
+                                filter, splitVisibility);
+                        if (nextRecordReader != null)
+                        {
+                            nextRecordReader.prefetch();
+                        }
+                        long openNs = System.nanoTime() - openStart;
+                        computeCostTimer.minus(openNs);
+                        readCostTimer.add(openNs);
+                    }
+
                     // Debug log for row batch size
                     // if (rowBatch.size > 0) {
                     //    logger.info("Read batch size: " + rowBatch.size);
                     // }
 
                     scanTimers.getComputeTimer().start();
-                    rowBatch = scanner.filterAndProject(rowBatch);
+                    // the filter (if any) has been applied by the record reader
+                    rowBatch = scanner.project(rowBatch);
                     scanTimers.getComputeTimer().stop();
 
                     if (rowBatch.size > 0)
@@ -320,7 +381,9 @@ public class BaseScanWorker extends Worker<ScanInput, ScanOutput>
                         totalRows += rowBatch.size;
                         if (partialAggregate)
                         {
+                            long aggregateStart = System.nanoTime();
                             aggregator.aggregate(rowBatch);
+                            workerMetrics.addThreadAggregationCostNs(System.nanoTime() - aggregateStart);
                         } else
                         {
                             scanTimers.getWriteCacheTimer().start();
@@ -341,6 +404,16 @@ public class BaseScanWorker extends Worker<ScanInput, ScanOutput>
                 numReadRequests += recordReader.getNumReadRequests();
             } catch (Throwable e)
             {
+                if (nextReader != null)
+                {
+                    try
+                    {
+                        nextReader.close();
+                    } catch (IOException ce)
+                    {
+                        logger.error("failed to close the reader of the next file", ce);
+                    }
+                }
                 throw new WorkerException("failed to scan the file '" +
                         inputInfo.getPath() + "' and output the result", e);
             }
@@ -387,6 +460,35 @@ public class BaseScanWorker extends Worker<ScanInput, ScanOutput>
         }
     }
 
+    /**
+     * Create the record reader to read the row groups of the input info from the file.
+     * The row group length of the input info is adjusted to the number of row groups in the file.
+     * @return the record reader, or null if no row group in the file is to be read
+     */
+    private PixelsRecordReader openRecordReader(PixelsReader pixelsReader, long transId, long timestamp,
+                                                String[] columnsToRead, InputInfo inputInfo, TableScanFilter filter,
+                                                SplitVisibility splitVisibility) throws IOException
+    {
+        if (inputInfo.getRgStart() >= pixelsReader.getRowGroupNum())
+        {
+            return null;
+        }
+        if (inputInfo.getRgStart() + inputInfo.getRgLength() >= pixelsReader.getRowGroupNum())
+        {
+            inputInfo.setRgLength(pixelsReader.getRowGroupNum() - inputInfo.getRgStart());
+        }
+        PixelsReaderOption option = WorkerCommon.getReaderOption(transId, timestamp, columnsToRead, inputInfo);
+        option.splitVisibility(splitVisibility);
+        if (!filter.isEmpty())
+        {
+            // prune the row groups by the bloom filters (if any) in the file footer
+            option.predicate(filter.toPixelsPredicate(pixelsReader.getFileSchema().getFieldNames(), columnsToRead));
+            // late materialization: the other columns are only decoded for the rows matching the filter
+            option.rowFilter(filter.toPixelsRowFilter());
+        }
+        return pixelsReader.read(option);
+    }
+
     private void writePerformanceToFile() 
     {
         WorkerMetrics.PerformanceMetricsWriter.writePerformanceToFile(
@@ -27,6 +27,7 @@ import io.pixelsdb.pixels.common.utils.ConfigFactory;
 import io.pixelsdb.pixels.core.*;
 import io.pixelsdb.pixels.core.encoding.EncodingLevel;
 import io.pixelsdb.pixels.core.reader.PixelsReaderOption;
+import io.pixelsdb.pixels.core.reader.SplitVisibility;
 import io.pixelsdb.pixels.planner.plan.physical.domain.InputInfo;
 import io.pixelsdb.pixels.planner.plan.physical.domain.InputSplit;
 import io.pixelsdb.pixels.planner.plan.physical.domain.StorageInfo;
@@ -64,12 +65,18 @@ public class WorkerCommon
     protected static Storage minio;
     private static Storage redis;
     private static Storage stream;
+    private static Storage spillStorage;
     public static final int rowBatchSize;
     protected static final int pixelStride;
     protected static final int rowGroupSize;
     protected static int port;
     protected static String coordinatorIp;
     protected static int coordinatorPort;
+    /**
+     * The memory budget in bytes of the hash table in each hash aggregation or join worker, 0 if spilling is disabled.
+     */
+    public static final long spillMemoryBudget;
+    public static final String spillFolder;
     private static final ConcurrentHashMap<String, PixelsReader> streamReaders;
 
     static
@@ -80,6 +87,9 @@ public class WorkerCommon
         port = Integer.parseInt(configFactory.getProperty("executor.worker.exchange.port"));
         coordinatorIp = configFactory.getProperty("worker.coordinate.server.host");
         coordinatorPort = Integer.parseInt(configFactory.getProperty("worker.coordinate.server.port"));
+        spillMemoryBudget = Long.parseLong(configFactory.getProperty("executor.spill.memory.budget.mb")) * 1024L * 1024L;
+        String folder = configFactory.getProperty("executor.spill.folder");
+        spillFolder = folder.endsWith("/") ? folder : folder + "/";
         streamReaders = new ConcurrentHashMap<>();
     }
 
@@ -128,6 +138,24 @@ public class WorkerCommon
         throw new UnsupportedOperationException("scheme " + scheme + " is not supported");
     }
 
+    /**
+     * @return the local file system storage for the partitions spilled by hash aggregation or join
+     */
+    public static synchronized Storage getSpillStorage()
+    {
+        if (spillStorage == null)
+        {
+            try
+            {
+                spillStorage = StorageFactory.Instance().getStorage(Storage.Scheme.file);
+            } catch (Throwable e)
+            {
+                throw new WorkerException("failed to initialize the spill storage", e);
+            }
+        }
+        return spillStorage;
+    }
+
     /**
      * Read the schemas of the two joined tables, concurrently using the executor, thus
      * to reduce the latency of the schema reading.
@@ -553,6 +581,37 @@ public class WorkerCommon
         return option;
     }
 
+    /**
+     * Create the visibility of the files in an input split, so that the record readers of the files query the
+     * visibility bitmaps from retina in one request instead of one request per file.
+     *
+     * @param timestamp the transaction timestamp
+     * @param inputs the input files in the split
+     * @param scheme the storage scheme of the input files
+     * @return the split visibility to set into the reader options, or null if the visibility is not needed
+     */
+    public static SplitVisibility getSplitVisibility(long timestamp, List<InputInfo> inputs, Storage.Scheme scheme)
+    {
+        if (timestamp < 0L)
+        {
+            return null;
+        }
+        try
+        {
+            SplitVisibility splitVisibility = new SplitVisibility(getStorage(scheme), timestamp);
+            for (InputInfo input : inputs)
+            {
+                splitVisibility.addFile(input.getPath(), input.getRgStart(), input.getRgLength());
+            }
+            return splitVisibility;
+        } catch (IOException e)
+        {
+            // the record readers query the visibility by themselves
+            logger.warn("failed to create the visibility of the input split", e);
+            return null;
+        }
+    }
+
     public static PixelsReaderOption getReaderOption(long transId, String[] cols)
     {
         PixelsReaderOption option = new PixelsReaderOption();
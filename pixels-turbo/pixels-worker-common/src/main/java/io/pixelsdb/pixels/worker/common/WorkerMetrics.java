@@ -19,7 +19,16 @@
  */
 package io.pixelsdb.pixels.worker.common;
 
+import io.pixelsdb.pixels.common.metrics.LatencyHistogram;
+import io.pixelsdb.pixels.common.physical.ReadBuffers;
+import io.pixelsdb.pixels.common.physical.SizeClassedBuffers;
+import io.pixelsdb.pixels.common.physical.Storage;
+import io.pixelsdb.pixels.common.physical.scheduler.HedgePolicy;
+
 import java.io.*;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -139,6 +148,13 @@ public class WorkerMetrics
     private final AtomicLong inputCostNs = new AtomicLong(0);
     private final AtomicLong outputCostNs = new AtomicLong(0);
     private final AtomicLong computeCostNs = new AtomicLong(0);
+    private final AtomicLong spilledBytes = new AtomicLong(0);
+    private final AtomicInteger numSpills = new AtomicInteger(0);
+    /**
+     * The time spent in the partial aggregation by each thread, keyed by the thread name.
+     */
+    private final Map<String, AtomicLong> threadAggregationCostNs = new ConcurrentHashMap<>();
+    private final AtomicLong aggregationMergeCostNs = new AtomicLong(0);
 
     public void clear()
     {
@@ -149,6 +165,10 @@ public class WorkerMetrics
         inputCostNs.set(0);
         outputCostNs.set(0);
         computeCostNs.set(0);
+        spilledBytes.set(0);
+        numSpills.set(0);
+        threadAggregationCostNs.clear();
+        aggregationMergeCostNs.set(0);
     }
 
     public int getNumReadRequests()
@@ -186,6 +206,58 @@ public class WorkerMetrics
         return computeCostNs.get();
     }
 
+    /**
+     * @return the number of bytes spilled to the local storage by the hash aggregation or join
+     */
+    public long getSpilledBytes()
+    {
+        return spilledBytes.get();
+    }
+
+    /**
+     * @return the number of partitions spilled to the local storage by the hash aggregation or join
+     */
+    public int getNumSpills()
+    {
+        return numSpills.get();
+    }
+
+    /**
+     * @return the time spent in the partial aggregation by each thread, keyed by the thread name
+     */
+    public Map<String, Long> getThreadAggregationCostNs()
+    {
+        Map<String, Long> costs = new TreeMap<>();
+        threadAggregationCostNs.forEach((thread, costNs) -> costs.put(thread, costNs.get()));
+        return costs;
+    }
+
+    /**
+     * @return the time spent in merging the partial aggregations of the threads
+     */
+    public long getAggregationMergeCostNs()
+    {
+        return aggregationMergeCostNs.get();
+    }
+
+    /**
+     * @return the latency histogram of the asynchronous reads from the storage in this process,
+     * it is recorded by the hedge policy of the storage
+     */
+    public LatencyHistogram getReadLatencyHistogram(Storage.Scheme scheme)
+    {
+        return HedgePolicy.Instance(scheme).getLatencyHistogram();
+    }
+
+    /**
+     * @return the pool of the buffers that column chunks are read into in this process,
+     * its occupancy (pooled and borrowed bytes) and hit rate can be used to tune read.buffer.pool.size
+     */
+    public SizeClassedBuffers getReadBufferPool()
+    {
+        return ReadBuffers.Instance();
+    }
+
     public void addNumReadRequests(int numReadRequests)
     {
         this.numReadRequests.addAndGet(numReadRequests);
@@ -221,6 +293,30 @@ public class WorkerMetrics
         this.computeCostNs.addAndGet(computeDurationNs);
     }
 
+    public void addSpilledBytes(long spilledBytes)
+    {
+        this.spilledBytes.addAndGet(spilledBytes);
+    }
+
+    public void addNumSpills(int numSpills)
+    {
+        this.numSpills.addAndGet(numSpills);
+    }
+
+    /**
+     * Add the time spent in the partial aggregation by the current thread.
+     */
+    public void addThreadAggregationCostNs(long aggregationDurationNs)
+    {
+        this.threadAggregationCostNs.computeIfAbsent(Thread.currentThread().getName(), thread -> new AtomicLong(0))
+                .addAndGet(aggregationDurationNs);
+    }
+
+    public void addAggregationMergeCostNs(long mergeDurationNs)
+    {
+        this.aggregationMergeCostNs.addAndGet(mergeDurationNs);
+    }
+
     /**
      * Common performance metrics writer for all workers.
      */